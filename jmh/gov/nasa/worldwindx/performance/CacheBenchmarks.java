@@ -0,0 +1,107 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.cache.BasicMemoryCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * JMH suite for {@link BasicMemoryCache}, which holds the tiles, textures and shape geometry looked up in every frame.
+ * The cache holds entries of 1 KB keyed by tile-like keys. {@link #lookup} reads keys that are all resident, {@link
+ * #lookupWithChurn} reads keys from a range four times larger than the cache, adding each missing entry as a layer
+ * does after loading a tile, which evicts an older entry. Both are also run from four threads sharing the cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmarks
+{
+    protected static final long ENTRY_SIZE = 1024;
+
+    @Param({"10000"})
+    public int capacity;
+
+    protected BasicMemoryCache cache;
+    protected String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.cache = new BasicMemoryCache((long) (0.8 * this.capacity * ENTRY_SIZE), this.capacity * ENTRY_SIZE);
+        this.keys = new String[4 * this.capacity];
+        for (int i = 0; i < this.keys.length; i++)
+        {
+            this.keys[i] = "Earth/BMNG/" + (i % 12) + "/" + (i / 12) + "_" + i + ".dds";
+        }
+
+        for (int i = 0; i < this.capacity / 2; i++)
+        {
+            this.cache.add(this.keys[i], new byte[(int) ENTRY_SIZE], ENTRY_SIZE);
+        }
+    }
+
+    @Benchmark
+    public Object lookup()
+    {
+        return this.cache.getObject(this.keys[ThreadLocalRandom.current().nextInt(this.capacity / 2)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object lookupConcurrent()
+    {
+        return this.lookup();
+    }
+
+    @Benchmark
+    public Object lookupWithChurn()
+    {
+        String key = this.keys[ThreadLocalRandom.current().nextInt(this.keys.length)];
+        Object value = this.cache.getObject(key);
+        if (value == null)
+        {
+            value = new byte[(int) ENTRY_SIZE];
+            this.cache.add(key, value, ENTRY_SIZE);
+        }
+
+        return value;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object lookupWithChurnConcurrent()
+    {
+        return this.lookupWithChurn();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.BasicClutterFilter;
+import gov.nasa.worldwind.util.PointClusterIndex;
+import gov.nasa.worldwind.view.BasicView;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the per-frame visibility work that precedes drawing. {@link #computeExtents} computes the bounding
+ * boxes of sectors scattered over the globe and {@link #frustumCulling} tests those boxes against the view frustum.
+ * {@link #declutter} applies a {@link BasicClutterFilter} to the labels of {@link DeclutteringBenchmark}, and {@link
+ * #clusterQuery} queries the clusters of a {@link PointClusterIndex} in a continent-sized view, as {@link
+ * PointClusterIndexBenchmark} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CullingBenchmarks
+{
+    @Param({"10000"})
+    public int numExtents;
+
+    @Param({"50000"})
+    public int numLabels;
+
+    @Param({"100000"})
+    public int numPoints;
+
+    protected Globe globe;
+    protected Frustum frustum;
+    protected List<Sector> sectors;
+    protected List<Extent> extents;
+    protected DrawContext dc;
+    protected BasicClutterFilter clutterFilter;
+    protected List<Declutterable> labels;
+    protected PointClusterIndex<Integer> clusterIndex;
+    protected Sector clusterSector;
+    protected int clusterLevel;
+    protected List<PointClusterIndex.Cluster<Integer>> clusters;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+        this.frustum = PreparationBenchmark.makeView(this.globe).getFrustumInModelCoordinates();
+
+        Random random = new Random(1);
+        this.sectors = new ArrayList<Sector>(this.numExtents);
+        for (int i = 0; i < this.numExtents; i++)
+        {
+            double lat = -80 + 160 * random.nextDouble();
+            double lon = -180 + 350 * random.nextDouble();
+            double size = 0.1 + 5 * random.nextDouble();
+            this.sectors.add(Sector.fromDegrees(lat, Math.min(90, lat + size), lon, Math.min(180, lon + size)));
+        }
+        this.extents = new ArrayList<Extent>(this.numExtents);
+        this.computeExtents();
+
+        this.labels = new ArrayList<Declutterable>(this.numLabels);
+        for (int i = 0; i < this.numLabels; i++)
+        {
+            DeclutteringBenchmark.Label label = new DeclutteringBenchmark.Label(
+                -0.25 * DeclutteringBenchmark.VIEWPORT_WIDTH
+                    + 1.5 * DeclutteringBenchmark.VIEWPORT_WIDTH * random.nextDouble(),
+                -0.25 * DeclutteringBenchmark.VIEWPORT_HEIGHT
+                    + 1.5 * DeclutteringBenchmark.VIEWPORT_HEIGHT * random.nextDouble(),
+                28 + 112 * random.nextDouble(), 14, 1e5 + 1e4 * random.nextDouble());
+            label.bounds = new Rectangle2D.Double(label.x, label.y, label.width, label.height);
+            label.distanceFromEye = label.distance;
+            this.labels.add(label);
+        }
+        DeclutteringBenchmark.sortFrontToBack(this.labels);
+        this.clutterFilter = new BasicClutterFilter();
+        this.dc = new DrawContextImpl()
+        {
+            @Override
+            public void addOrderedRenderable(OrderedRenderable orderedRenderable)
+            {
+                // The labels are not drawn.
+            }
+        };
+        this.dc.setView(this.makeViewport());
+
+        double[] coords = PointClusterIndexBenchmark.makeCoordinates(this.numPoints, new Random(1));
+        this.clusterIndex = PointClusterIndexBenchmark.build(coords);
+        this.clusterSector = Sector.fromDegrees(Math.max(-90, coords[0] - 10), Math.min(90, coords[0] + 10),
+            Math.max(-180, coords[1] - 20), Math.min(180, coords[1] + 20));
+        this.clusterLevel = this.clusterIndex.getLevelForSeparation(
+            40 / PointClusterIndexBenchmark.VIEWPORT_WIDTH * PointClusterIndexBenchmark.PIXEL_SEPARATION);
+        this.clusters = new ArrayList<PointClusterIndex.Cluster<Integer>>();
+    }
+
+    protected View makeViewport()
+    {
+        return new BasicView()
+        {
+            {
+                this.viewport = new Rectangle(0, 0, DeclutteringBenchmark.VIEWPORT_WIDTH,
+                    DeclutteringBenchmark.VIEWPORT_HEIGHT);
+            }
+        };
+    }
+
+    @Benchmark
+    public List<Extent> computeExtents()
+    {
+        this.extents.clear();
+        for (Sector sector : this.sectors)
+        {
+            this.extents.add(Sector.computeBoundingBox(this.globe, 1, sector));
+        }
+
+        return this.extents;
+    }
+
+    @Benchmark
+    public int frustumCulling()
+    {
+        int count = 0;
+        for (Extent extent : this.extents)
+        {
+            if (this.frustum.intersects(extent))
+                count++;
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public void declutter()
+    {
+        this.clutterFilter.apply(this.dc, this.labels);
+    }
+
+    @Benchmark
+    public int clusterQuery()
+    {
+        this.clusters.clear();
+        this.clusterIndex.getClusters(this.clusterSector, this.clusterLevel, this.clusters);
+        return this.clusters.size();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.layers.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the CPU-side geometry of {@link AbstractShape}s. Each benchmark regenerates the geometry of every shape
+ * in a layer, as happens in each frame after the vertical exaggeration changes: {@link #regenerate} prepares the shapes
+ * one after another on the benchmark thread, and {@link #prepareScene} runs the scene controller's parallel preparation
+ * phase over the same layer. The workload is the one {@link PreparationBenchmark} uses, with {@link Path}s of absolute
+ * altitude or with {@link Polygon}s of similar extent, viewed from 8,000 km.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeGeometryBenchmarks
+{
+    @Param({"Path", "Polygon"})
+    public String shapeType;
+
+    @Param({"2000"})
+    public int numShapes;
+
+    @Param({"20"})
+    public int positionsPerShape;
+
+    protected DrawContext dc;
+    protected List<AbstractShape> shapes;
+    protected PreparationBenchmark.HeadlessSceneController controller;
+    protected int frame;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+
+        Random random = new Random(1);
+        RenderableLayer layer = new RenderableLayer();
+        this.shapes = new ArrayList<AbstractShape>(this.numShapes);
+        for (int i = 0; i < this.numShapes; i++)
+        {
+            AbstractShape shape = this.shapeType.equals("Polygon") ? makePolygon(random, this.positionsPerShape)
+                : PreparationBenchmark.makePath(random, this.positionsPerShape);
+            this.shapes.add(shape);
+            layer.addRenderable(shape);
+        }
+
+        LayerList layers = new LayerList();
+        layers.add(layer);
+
+        this.dc = new DrawContextImpl();
+        this.dc.setModel(new BasicModel(globe, layers));
+        this.dc.setView(PreparationBenchmark.makeView(globe));
+        this.dc.setSurfaceGeometry(new SectorGeometryList());
+
+        this.controller = new PreparationBenchmark.HeadlessSceneController();
+        this.controller.setParallelPreparation(true);
+    }
+
+    /**
+     * Advances to the next frame and alternates the vertical exaggeration, which invalidates every shape's geometry.
+     */
+    protected void nextFrame()
+    {
+        this.frame++;
+        this.dc.setVerticalExaggeration(this.frame % 2 == 0 ? 1 : 1 + 1e-9);
+        this.dc.setFrameTimeStamp(this.frame);
+    }
+
+    @Benchmark
+    public void regenerate()
+    {
+        this.nextFrame();
+        for (AbstractShape shape : this.shapes)
+        {
+            shape.prepare(this.dc);
+        }
+    }
+
+    @Benchmark
+    public void prepareScene()
+    {
+        this.nextFrame();
+        this.controller.runPreparation(this.dc);
+    }
+
+    protected static Polygon makePolygon(Random random, int numPositions)
+    {
+        // Irregular polygons up to a few degrees across, scattered over the same region as the paths.
+        double lat = -20 + 40 * random.nextDouble();
+        double lon = -30 + 60 * random.nextDouble();
+        double radius = 0.2 + 1.5 * random.nextDouble();
+        List<Position> positions = new ArrayList<Position>(numPositions);
+        for (int i = 0; i < numPositions; i++)
+        {
+            double a = 2 * Math.PI * i / numPositions;
+            double r = radius * (0.6 + 0.4 * random.nextDouble());
+            positions.add(Position.fromDegrees(lat + r * Math.sin(a), lon + r * Math.cos(a), 1000));
+        }
+
+        Polygon polygon = new Polygon(positions);
+        polygon.setAltitudeMode(WorldWind.ABSOLUTE);
+        polygon.setConcurrentPreparation(true);
+        return polygon;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for path tessellation. {@link #uniform} and {@link #adaptive} tessellate the long path of {@link
+ * PathTessellationBenchmark} with {@link PathTessellator} into 10 subsegments per segment and into subsegments of about
+ * one pixel as seen from 1,000 km, and {@link #pathBatch} regenerates every path of the {@link VeryManyPaths} fan held
+ * by a {@link PathBatchGeometry}. The path type parameter names an {@link AVKey} path type without its prefix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TessellationBenchmarks
+{
+    @Param({"GreatCircle", "RhumbLine", "Linear"})
+    public String pathType;
+
+    @Param({"1000"})
+    public int numPositions;
+
+    protected Globe globe;
+    protected double[] coordinates;
+    protected PathTessellator uniformTessellator;
+    protected PathTessellator adaptiveTessellator;
+    protected PathBatchGeometry batchGeometry;
+    protected double verticalExaggeration = 1;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+
+        List<Position> positions = PathTessellationBenchmark.makePositions(this.numPositions);
+        this.coordinates = new double[3 * positions.size()];
+        for (int i = 0; i < positions.size(); i++)
+        {
+            this.coordinates[3 * i] = positions.get(i).getLatitude().degrees;
+            this.coordinates[3 * i + 1] = positions.get(i).getLongitude().degrees;
+            this.coordinates[3 * i + 2] = positions.get(i).getAltitude();
+        }
+
+        Position center = positions.get(positions.size() / 2);
+        Vec4 eyePoint = this.globe.computePointFromPosition(center.getLatitude(), center.getLongitude(), 1e6);
+        Vec4 referencePoint = this.globe.computePointFromPosition(center);
+        String avKeyPathType = "gov.nasa.worldwind.avkey." + this.pathType;
+
+        this.uniformTessellator = new PathTessellator();
+        this.uniformTessellator.setPathType(avKeyPathType);
+        this.uniformTessellator.setNumSubsegments(PathTessellationBenchmark.NUM_SUBSEGMENTS);
+        this.uniformTessellator.setReferencePoint(referencePoint);
+
+        this.adaptiveTessellator = new PathTessellator();
+        this.adaptiveTessellator.setPathType(avKeyPathType);
+        this.adaptiveTessellator.setViewParameters(eyePoint, PathTessellationBenchmark.PIXEL_SIZE_SCALE);
+        this.adaptiveTessellator.setReferencePoint(referencePoint);
+
+        this.batchGeometry = PathBatchBenchmark.makeGeometry(500, 300);
+        this.batchGeometry.setPathType(avKeyPathType);
+    }
+
+    @Benchmark
+    public double[] uniform()
+    {
+        this.uniformTessellator.tessellate(this.globe, 1, this.coordinates, 0, this.coordinates.length / 3);
+        return this.uniformTessellator.getPoints();
+    }
+
+    @Benchmark
+    public double[] adaptive()
+    {
+        this.adaptiveTessellator.tessellate(this.globe, 1, this.coordinates, 0, this.coordinates.length / 3);
+        return this.adaptiveTessellator.getPoints();
+    }
+
+    @Benchmark
+    public boolean pathBatch()
+    {
+        // Alternating the vertical exaggeration regenerates every path, as a change of globe or exaggeration does.
+        this.verticalExaggeration = this.verticalExaggeration == 1 ? 1.0001 : 1;
+        return this.batchGeometry.update(this.globe, this.verticalExaggeration, null);
+    }
+}
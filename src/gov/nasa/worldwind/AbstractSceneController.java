@@ -41,6 +41,7 @@ import com.jogamp.opengl.*;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.*;
 import java.util.logging.Level;
 
 /**
@@ -105,6 +106,14 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
     protected ClutterFilter clutterFilter = new BasicClutterFilter();
     //protected Map<String, GroupingFilter> groupingFilters = new HashMap<String, GroupingFilter>();
     protected boolean deferOrderedRendering;
+    /** Indicates whether {@link Preparable} layers are prepared in parallel before pre-rendering. */
+    protected boolean parallelPreparation = false;
+    /** The pool that runs the preparation phase. Null indicates the common fork/join pool. */
+    protected ForkJoinPool preparationPool;
+    /** The per-layer preparation tasks of the current frame. Reused from frame to frame. */
+    protected ArrayList<PrepareLayerAction> prepareActions = new ArrayList<PrepareLayerAction>();
+    /** The metrics that receive per-layer and frame timings when enabled. */
+    protected PerformanceMetrics metrics = PerformanceMetrics.getInstance();
 
     public AbstractSceneController()
     {
@@ -430,6 +439,50 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
 //        }
 //    }
 
+    /**
+     * Indicates whether layers implementing {@link Preparable} are prepared in parallel before the layers are
+     * pre-rendered.
+     *
+     * @return true if the preparation phase is enabled, otherwise false. The default is false.
+     */
+    public boolean isParallelPreparation()
+    {
+        return this.parallelPreparation;
+    }
+
+    /**
+     * Specifies whether layers implementing {@link Preparable} are prepared in parallel before the layers are
+     * pre-rendered. When disabled, no layer or renderable is prepared, and shapes regenerate their geometry on the
+     * rendering thread as they are rendered. Enable this only when some shapes have opted in to concurrent preparation,
+     * because preparing a layer visits all of its renderables every frame.
+     *
+     * @param parallelPreparation true to enable the preparation phase, otherwise false.
+     */
+    public void setParallelPreparation(boolean parallelPreparation)
+    {
+        this.parallelPreparation = parallelPreparation;
+    }
+
+    /**
+     * Returns the fork/join pool that runs the preparation phase.
+     *
+     * @return the preparation pool. If no pool has been specified, this returns the common fork/join pool.
+     */
+    public ForkJoinPool getPreparationPool()
+    {
+        return this.preparationPool != null ? this.preparationPool : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Specifies the fork/join pool that runs the preparation phase. The scene controller does not shut the pool down.
+     *
+     * @param pool the preparation pool. May be null, in which case the common fork/join pool is used.
+     */
+    public void setPreparationPool(ForkJoinPool pool)
+    {
+        this.preparationPool = pool;
+    }
+
     public boolean isDeferOrderedRendering()
     {
         return deferOrderedRendering;
@@ -444,6 +497,8 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
     public int repaint()
     {
         this.frameTime = System.currentTimeMillis();
+        boolean recordMetrics = this.metrics.isEnabled();
+        long frameStart = recordMetrics ? System.nanoTime() : 0;
 
         this.perFrameStatistics.clear();
         this.renderingExceptions.clear(); // Clear the rendering exceptions accumulated during the last frame.
@@ -464,6 +519,9 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
         this.dc.setPerFrameStatistic(PerformanceStatistic.FRAME_RATE, "Frame Rate (fps)", (int) this.framesPerSecond);
         this.dc.setPerFrameStatistic(PerformanceStatistic.PICK_TIME, "Pick Time (ms)", (int) this.pickTime);
 
+        if (recordMetrics)
+            this.metrics.frameCompleted(System.nanoTime() - frameStart);
+
         Set<String> perfKeys = dc.getPerFrameStatisticsKeys();
         if (perfKeys == null)
             return dc.getRedrawRequested();
@@ -621,6 +679,110 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
         }
     }
 
+    /**
+     * Runs the preparation phase: calls {@link Preparable#prepare(DrawContext)} on each enabled layer that implements
+     * <code>Preparable</code>, in parallel on the preparation pool, and waits for all layers to complete. This must be
+     * called after the terrain is created and before {@link #preRender(DrawContext)}. Records the phase's duration and,
+     * if requested, each layer's preparation time in the per-frame statistics.
+     *
+     * @param dc the current draw context.
+     */
+    protected void prepare(DrawContext dc)
+    {
+        if (!this.isParallelPreparation() || dc.getLayers() == null)
+            return;
+
+        try
+        {
+            this.prepareActions.clear();
+            for (Layer layer : dc.getLayers())
+            {
+                if (layer instanceof Preparable && layer.isEnabled())
+                    this.prepareActions.add(new PrepareLayerAction(dc, layer));
+            }
+
+            if (this.prepareActions.isEmpty())
+                return;
+
+            long start = System.nanoTime();
+            this.getPreparationPool().invoke(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    invokeAll(prepareActions);
+                }
+            });
+            long elapsed = System.nanoTime() - start;
+
+            dc.setPerFrameStatistic(PerformanceStatistic.PREPARE_TIME, "Prepare Time (us)", elapsed / 1000);
+            if (this.isPerFrameStatisticRequested(dc, PerformanceStatistic.LAYER_TIME))
+            {
+                for (PrepareLayerAction action : this.prepareActions)
+                {
+                    dc.setPerFrameStatistic(PerformanceStatistic.LAYER_TIME,
+                        "Prepare " + action.layer.getName() + " (us)", action.elapsedNanos / 1000);
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            Logging.logger().log(Level.SEVERE, Logging.getMessage("BasicSceneController.ExceptionDuringPreparation"),
+                e);
+        }
+        finally
+        {
+            this.prepareActions.clear();
+        }
+    }
+
+    /** Prepares one layer during the preparation phase and measures the time it takes. */
+    protected static class PrepareLayerAction extends RecursiveAction
+    {
+        protected final DrawContext dc;
+        protected final Layer layer;
+        protected long elapsedNanos;
+
+        public PrepareLayerAction(DrawContext dc, Layer layer)
+        {
+            this.dc = dc;
+            this.layer = layer;
+        }
+
+        @Override
+        protected void compute()
+        {
+            long start = System.nanoTime();
+            try
+            {
+                ((Preparable) this.layer).prepare(this.dc);
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("SceneController.ExceptionWhilePreparingLayer",
+                    this.layer.getClass().getName());
+                Logging.logger().log(Level.SEVERE, message, e);
+                // Don't abort; the remaining layers are prepared independently.
+            }
+            this.elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Indicates whether the application has requested a per-frame statistic, either directly or by requesting all
+     * statistics.
+     *
+     * @param dc  the current draw context.
+     * @param key the statistic's key.
+     *
+     * @return true if the statistic is requested, otherwise false.
+     */
+    protected boolean isPerFrameStatisticRequested(DrawContext dc, String key)
+    {
+        Set<String> keys = dc.getPerFrameStatisticsKeys();
+        return keys != null && (keys.contains(key) || keys.contains(PerformanceStatistic.ALL));
+    }
+
     protected void preRender(DrawContext dc)
     {
         try
@@ -630,12 +792,26 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
             // Pre-render the layers.
             if (dc.getLayers() != null)
             {
+                boolean timeLayers = this.isPerFrameStatisticRequested(dc, PerformanceStatistic.LAYER_TIME);
+                boolean recordMetrics = this.metrics.isEnabled();
                 for (Layer layer : dc.getLayers())
                 {
                     try
                     {
                         dc.setCurrentLayer(layer);
+                        long start = timeLayers || recordMetrics ? System.nanoTime() : 0;
                         layer.preRender(dc);
+                        if (timeLayers || recordMetrics)
+                        {
+                            long elapsed = System.nanoTime() - start;
+                            if (timeLayers)
+                            {
+                                dc.setPerFrameStatistic(PerformanceStatistic.LAYER_TIME,
+                                    "Pre-render " + layer.getName() + " (us)", elapsed / 1000);
+                            }
+                            if (recordMetrics)
+                                this.metrics.recordLayerTime(layer, PerformanceMetrics.PRE_RENDER, elapsed);
+                        }
                     }
                     catch (Exception e)
                     {
@@ -699,6 +875,7 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
     {
         if (dc.getLayers() != null)
         {
+            boolean recordMetrics = this.metrics.isEnabled();
             for (Layer layer : dc.getLayers())
             {
                 try
@@ -706,7 +883,10 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
                     if (layer != null && layer.isPickEnabled())
                     {
                         dc.setCurrentLayer(layer);
+                        long start = recordMetrics ? System.nanoTime() : 0;
                         layer.pick(dc, dc.getPickPoint());
+                        if (recordMetrics)
+                            this.metrics.recordLayerTime(layer, PerformanceMetrics.PICK, System.nanoTime() - start);
                     }
                 }
                 catch (Exception e)
@@ -940,6 +1120,7 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
             // Draw the layers.
             if (dc.getLayers() != null)
             {
+                boolean recordMetrics = this.metrics.isEnabled();
                 for (Layer layer : dc.getLayers())
                 {
                     try
@@ -947,7 +1128,13 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
                         if (layer != null)
                         {
                             dc.setCurrentLayer(layer);
+                            long start = recordMetrics ? System.nanoTime() : 0;
                             layer.render(dc);
+                            if (recordMetrics)
+                            {
+                                this.metrics.recordLayerTime(layer, PerformanceMetrics.RENDER,
+                                    System.nanoTime() - start);
+                            }
                         }
                     }
                     catch (Exception e)
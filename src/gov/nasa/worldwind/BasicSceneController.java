@@ -62,6 +62,7 @@ public class BasicSceneController extends AbstractSceneController
         this.applyView(dc);
         this.createPickFrustum(dc);
         this.createTerrain(dc);
+        this.prepare(dc);
         this.preRender(dc);
         this.clearFrame(dc);
         this.pick(dc);
@@ -95,10 +95,27 @@ public final class WorldWind
         this.sessionCache = (SessionCache) createConfigurationComponent(AVKey.SESSION_CACHE_CLASS_NAME);
         this.scheduledTaskService = new BasicScheduledTaskService();
 
+        this.addQueueDepthGauge(PerformanceMetrics.REMOTE_RETRIEVAL_QUEUE_DEPTH, this.remoteRetrievalService);
+        this.addQueueDepthGauge(PerformanceMetrics.LOCAL_RETRIEVAL_QUEUE_DEPTH, this.localRetrievalService);
+
         // Seems like an unlikely place to load the tiff reader, but do it here nonetheless.
         IIORegistry.getDefaultInstance().registerServiceProvider(GeotiffImageReaderSpi.inst());
     }
 
+    private void addQueueDepthGauge(String name, final RetrievalService service)
+    {
+        if (service == null)
+            return;
+
+        PerformanceMetrics.getInstance().addGauge(name, new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return service.getNumRetrieversPending();
+            }
+        });
+    }
+
     private void dispose()
     {
         if (this.taskService != null)
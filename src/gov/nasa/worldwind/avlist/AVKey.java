@@ -78,6 +78,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
 
     final String CLOCKWISE = "gov.nasa.worldwind.avkey.ClockWise";
     final String CLOSE = "gov.nasa.worldwind.avkey.Close";
+    final String COLLADA_GEOMETRY_CACHE_SIZE = "gov.nasa.worldwind.avkey.ColladaGeometryCacheSize";
     final String COLOR = "gov.nasa.worldwind.avkey.Color";
     final String COMPRESS_TEXTURES = "gov.nasa.worldwind.avkey.CompressTextures";
     final String CONSTRUCTION_PARAMETERS = "gov.nasa.worldwind.avkey.ConstructionParameters";
@@ -116,6 +117,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
      */
     final String DEPTH_RESOLUTION = "gov.nasa.worldwind.avkey.DepthResolution";
     final String DESCRIPTION = "gov.nasa.worldwind.avkey.Description";
+    final String DIRECT_BUFFER_POOL_SIZE = "gov.nasa.worldwind.avkey.DirectBufferPoolSize";
     final String DETAIL_HINT = "gov.nasa.worldwind.avkey.DetailHint";
     final String DISPLAY_ICON = "gov.nasa.worldwind.avkey.DisplayIcon";
     final String DISPLAY_NAME = "gov.nasa.worldwind.avkey.DisplayName";
@@ -304,6 +306,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String PARENT_LAYER_NAME = "gov.nasa.worldwind.avkey.ParentLayerName";
 
     final String PAUSE = "gov.nasa.worldwind.avkey.Pause";
+    final String PERFORMANCE_METRICS_ENABLED = "gov.nasa.worldwind.avkey.PerformanceMetricsEnabled";
     final String PICKED_OBJECT = "gov.nasa.worldwind.avkey.PickedObject";
     final String PICKED_OBJECT_ID = "gov.nasa.worldwind.avkey.PickedObject.ID";
     final String PICKED_OBJECT_PARENT_LAYER = "gov.nasa.worldwind.avkey.PickedObject.ParentLayer";
@@ -474,6 +477,11 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String TILE_HEIGHT = "gov.nasa.worldwind.avkey.TileHeightKey";
     final String TILE_ORIGIN = "gov.nasa.worldwind.avkey.TileOrigin";
     final String TILE_RETRIEVER = "gov.nasa.worldwind.avkey.TileRetriever";
+    /**
+     * Indicates a {@link gov.nasa.worldwind.data.tiles.TileSource} from which a tiled layer or elevation model reads
+     * its tiles directly, rather than from the file store.
+     */
+    final String TILE_SOURCE = "gov.nasa.worldwind.avkey.TileSource";
     final String TILE_URL_BUILDER = "gov.nasa.worldwind.avkey.TileURLBuilder";
     final String TILE_WIDTH = "gov.nasa.worldwind.avkey.TileWidthKey";
     final String TILED_IMAGERY = "gov.nasa.worldwind.avkey.TiledImagery";
@@ -500,6 +508,11 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String URL_PROXY_PORT = "gov.nasa.worldwind.avkey.UrlProxyPort";
     final String URL_PROXY_TYPE = "gov.nasa.worldwind.avkey.UrlProxyType";
     final String URL_READ_TIMEOUT = "gov.nasa.worldwind.avkey.URLReadTimeout";
+    /**
+     * Indicates whether an elevation model maps its local tile files into memory rather than copying their contents
+     * into the Java heap.
+     */
+    final String USE_MEMORY_MAPPED_FILES = "gov.nasa.worldwind.avkey.UseMemoryMappedFiles";
     final String USE_MIP_MAPS = "gov.nasa.worldwind.avkey.UseMipMaps";
     final String USE_TRANSPARENT_TEXTURES = "gov.nasa.worldwind.avkey.UseTransparentTextures";
 
@@ -49,7 +49,7 @@ import java.util.logging.Level;
 public class AVListImpl implements AVList
 {
     // Identifies the property change support instance in the avlist
-    private static final String PROPERTY_CHANGE_SUPPORT = "avlist.PropertyChangeSupport";
+    protected static final String PROPERTY_CHANGE_SUPPORT = "avlist.PropertyChangeSupport";
 
     // To avoid unnecessary overhead, this object's hash map is created only if needed.
     private Map<String, Object> avList;
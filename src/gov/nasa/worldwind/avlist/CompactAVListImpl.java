@@ -0,0 +1,299 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.avlist;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.util.Logging;
+
+import java.beans.PropertyChangeSupport;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * An {@link AVListImpl} for objects that exist in large numbers, such as shapes and parsed KML elements. Rather than a
+ * lazily created hash map guarded by the object's monitor, this class keeps its attribute-value pairs in a single
+ * array holding each key followed by its value. The array is never modified once published: a change copies the
+ * array and installs the copy with a compare-and-set, so reads never lock and writes never block. Keys are interned
+ * when first added, so lookups with the {@link AVKey} constants usually match by identity.
+ * <p>
+ * A list of a few attributes costs one array of twice that many references, compared with a hash map, its table and
+ * one entry object per attribute. Lookups scan the array, which suits the small lists typical of individual objects;
+ * lists that hold many attributes and change often are better served by <code>AVListImpl</code>.
+ * <p>
+ * Classes select this implementation by extending it in place of <code>AVListImpl</code>, or by aggregating an
+ * instance of it. Property change notification behaves as it does in <code>AVListImpl</code>. {@link #getValues()}
+ * and {@link #getEntries()} return snapshots of the list rather than views of it.
+ */
+public class CompactAVListImpl extends AVListImpl
+{
+    protected static final AtomicReferenceFieldUpdater<CompactAVListImpl, Object[]> TABLE_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(CompactAVListImpl.class, Object[].class, "table");
+
+    // Keys and values alternate. Null until the first value is set. Not initialized here, because the superclass
+    // constructor may set a value before this class' initializers run.
+    private volatile Object[] table;
+
+    /** Creates an empty attribute-value list. */
+    public CompactAVListImpl()
+    {
+    }
+
+    /**
+     * Constructor enabling aggregation
+     *
+     * @param sourceBean The bean to be given as the source for any events.
+     */
+    public CompactAVListImpl(Object sourceBean)
+    {
+        super(sourceBean);
+    }
+
+    protected static int indexOf(Object[] table, String key)
+    {
+        if (table == null)
+            return -1;
+
+        int hash = key.hashCode();
+        for (int i = 0; i < table.length; i += 2)
+        {
+            Object k = table[i];
+            if (k == key || (k.hashCode() == hash && k.equals(key)))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a copy of a table with a value set.
+     *
+     * @param table the table to copy. May be null.
+     * @param index the index of the key within the table, or -1 if the key is not in the table.
+     * @param key   the key.
+     * @param value the value.
+     *
+     * @return the new table.
+     */
+    protected static Object[] withValue(Object[] table, int index, String key, Object value)
+    {
+        if (index >= 0)
+        {
+            Object[] newTable = table.clone();
+            newTable[index + 1] = value;
+            return newTable;
+        }
+
+        int length = table != null ? table.length : 0;
+        Object[] newTable = new Object[length + 2];
+        if (table != null)
+            System.arraycopy(table, 0, newTable, 0, length);
+        newTable[length] = key.intern();
+        newTable[length + 1] = value;
+        return newTable;
+    }
+
+    public Object getValue(String key)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributeKeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Object[] t = this.table;
+        int index = indexOf(t, key);
+        return index >= 0 ? t[index + 1] : null;
+    }
+
+    public Collection<Object> getValues()
+    {
+        Object[] t = this.table;
+        if (t == null)
+            return new ArrayList<Object>(0);
+
+        List<Object> values = new ArrayList<Object>(t.length / 2);
+        for (int i = 0; i < t.length; i += 2)
+        {
+            values.add(t[i + 1]);
+        }
+
+        return values;
+    }
+
+    public Set<Map.Entry<String, Object>> getEntries()
+    {
+        Object[] t = this.table;
+        if (t == null)
+            return new LinkedHashSet<Map.Entry<String, Object>>(0);
+
+        Set<Map.Entry<String, Object>> entries = new LinkedHashSet<Map.Entry<String, Object>>(t.length);
+        for (int i = 0; i < t.length; i += 2)
+        {
+            entries.add(new AbstractMap.SimpleImmutableEntry<String, Object>((String) t[i], t[i + 1]));
+        }
+
+        return entries;
+    }
+
+    public String getStringValue(String key)
+    {
+        if (key == null)
+        {
+            String msg = Logging.getMessage("nullValue.AttributeKeyIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalStateException(msg);
+        }
+        try
+        {
+            Object value = this.getValue(key);
+            return value != null ? value.toString() : null;
+        }
+        catch (ClassCastException e)
+        {
+            String msg = Logging.getMessage("AVAAccessibleImpl.AttributeValueForKeyIsNotAString", key);
+            Logging.logger().severe(msg);
+            throw new WWRuntimeException(msg, e);
+        }
+    }
+
+    public Object setValue(String key, Object value)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributeKeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        while (true)
+        {
+            Object[] t = this.table;
+            int index = indexOf(t, key);
+            Object oldValue = index >= 0 ? t[index + 1] : null;
+            if (index >= 0 && oldValue == value)
+                return oldValue;
+
+            if (TABLE_UPDATER.compareAndSet(this, t, withValue(t, index, key, value)))
+                return oldValue;
+        }
+    }
+
+    public AVList setValues(AVList list)
+    {
+        if (list == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributesIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        for (Map.Entry<String, Object> entry : list.getEntries())
+        {
+            this.setValue(entry.getKey(), entry.getValue());
+        }
+
+        return this;
+    }
+
+    public boolean hasKey(String key)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return indexOf(this.table, key) >= 0;
+    }
+
+    public Object removeKey(String key)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        while (true)
+        {
+            Object[] t = this.table;
+            int index = indexOf(t, key);
+            if (index < 0)
+                return null;
+
+            Object[] newTable = null;
+            if (t.length > 2)
+            {
+                newTable = new Object[t.length - 2];
+                System.arraycopy(t, 0, newTable, 0, index);
+                System.arraycopy(t, index + 2, newTable, index, t.length - index - 2);
+            }
+
+            if (TABLE_UPDATER.compareAndSet(this, t, newTable))
+                return t[index + 1];
+        }
+    }
+
+    public AVList copy()
+    {
+        CompactAVListImpl clone = new CompactAVListImpl();
+        // Tables are never modified once published, so the copy can share this list's table.
+        clone.table = this.table;
+
+        return clone;
+    }
+
+    public AVList clearList()
+    {
+        this.table = null;
+        return this;
+    }
+
+    protected PropertyChangeSupport getChangeSupport()
+    {
+        PropertyChangeSupport pcs = null;
+
+        while (true)
+        {
+            Object[] t = this.table;
+            int index = indexOf(t, PROPERTY_CHANGE_SUPPORT);
+            if (index >= 0 && t[index + 1] instanceof PropertyChangeSupport)
+                return (PropertyChangeSupport) t[index + 1];
+
+            if (pcs == null)
+                pcs = new PropertyChangeSupport(this);
+
+            if (TABLE_UPDATER.compareAndSet(this, t, withValue(t, index, PROPERTY_CHANGE_SUPPORT, pcs)))
+                return pcs;
+        }
+    }
+}
@@ -76,6 +76,10 @@ public class BasicMemoryCache implements MemoryCache
     protected AtomicLong currentUsedCapacity = new AtomicLong();
     protected Long lowWater;
     protected String name = "";
+    // Access statistics, guarded by the lock.
+    protected long hitCount;
+    protected long missCount;
+    protected long evictionCount;
 
     protected final Object lock = new Object();
 
@@ -344,7 +348,12 @@ public class BasicMemoryCache implements MemoryCache
             entry = this.entries.get(key);
 
             if (entry == null)
+            {
+                this.missCount++;
                 return null;
+            }
+
+            this.hitCount++;
 
             entry.lastUsed = System.nanoTime(); // nanoTime overflows once every 292 years
             // which will result in a slowing of the cache
@@ -414,10 +423,51 @@ public class BasicMemoryCache implements MemoryCache
             if (i < timeOrderedEntries.length)
             {
                 this.removeEntry(timeOrderedEntries[i++]);
+                this.evictionCount++;
             }
         }
     }
 
+    /**
+     * Returns the number of calls to {@link #getObject(Object)} that found the requested object.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount()
+    {
+        synchronized (this.lock)
+        {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * Returns the number of calls to {@link #getObject(Object)} that did not find the requested object.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount()
+    {
+        synchronized (this.lock)
+        {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * Returns the number of objects removed to make room for new objects. Objects removed explicitly, replaced or
+     * removed by {@link #clear()} are not counted.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictionCount()
+    {
+        synchronized (this.lock)
+        {
+            return this.evictionCount;
+        }
+    }
+
     /**
      * a <code>String</code> representation of this object is returned.&nbsp; This representation consists of maximum
      * size, current used capacity and number of currently cached items.
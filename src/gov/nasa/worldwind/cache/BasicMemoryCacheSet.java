@@ -81,10 +81,58 @@ public class BasicMemoryCacheSet implements MemoryCacheSet
         }
 
         this.caches.put(key, cache);
+        this.addMetricsGauges(key, cache);
 
         return cache;
     }
 
+    /**
+     * Exposes a cache's size and, for a {@link BasicMemoryCache}, its hit, miss and eviction counts as gauges of the
+     * shared {@link PerformanceMetrics}. The gauges are named <code>memoryCache.&lt;key&gt;.&lt;statistic&gt;</code>.
+     *
+     * @param key   the key under which the cache was added.
+     * @param cache the cache.
+     */
+    protected void addMetricsGauges(String key, final MemoryCache cache)
+    {
+        PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+        String prefix = "memoryCache." + key + ".";
+
+        metrics.addGauge(prefix + "usedCapacity", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return cache.getUsedCapacity();
+            }
+        });
+
+        if (!(cache instanceof BasicMemoryCache))
+            return;
+
+        final BasicMemoryCache basicCache = (BasicMemoryCache) cache;
+        metrics.addGauge(prefix + "hits", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return basicCache.getHitCount();
+            }
+        });
+        metrics.addGauge(prefix + "misses", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return basicCache.getMissCount();
+            }
+        });
+        metrics.addGauge(prefix + "evictions", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return basicCache.getEvictionCount();
+            }
+        });
+    }
+
     public synchronized void clear()
     {
         for (MemoryCache cache : this.caches.values())
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Base class for tile sources backed by a SQLite tile table with the columns <code>zoom_level</code>,
+ * <code>tile_column</code>, <code>tile_row</code> and <code>tile_data</code>, the layout shared by MBTiles and
+ * GeoPackage. The database is read through a pool of read-only connections. Groups of tiles are read with one range
+ * query per zoom level when the tiles are densely packed, as the tiles visible in one frame typically are, and with
+ * one prepared statement per tile otherwise.
+ * <p>
+ * A SQLite JDBC driver must be available on the class path.
+ */
+public abstract class AbstractSQLiteTileSource extends AbstractTileSource
+{
+    /**
+     * The maximum ratio of the number of grid cells covered by a range query to the number of tiles requested. Sparser
+     * groups are read tile by tile.
+     */
+    protected static final int MAX_RANGE_QUERY_SPARSENESS = 4;
+
+    protected final File file;
+    protected final ConnectionPool connectionPool;
+
+    /**
+     * Creates a tile source for a specified database file.
+     *
+     * @param file             the database file.
+     * @param firstLevelOffset the zoom level corresponding to level 0 of the level set.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     */
+    protected AbstractSQLiteTileSource(File file, int firstLevelOffset)
+    {
+        super(firstLevelOffset);
+
+        if (file == null)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.file = file;
+        this.connectionPool = ConnectionPool.createSQLiteReadOnlyPool(file.getPath());
+    }
+
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    public ConnectionPool getConnectionPool()
+    {
+        return this.connectionPool;
+    }
+
+    /**
+     * Returns the name of the table holding the tiles.
+     *
+     * @return the tile table's name.
+     */
+    protected abstract String getTileTableName();
+
+    /**
+     * Converts a WorldWind tile row, counted from the southern edge of the grid, to the row stored in the tile table.
+     *
+     * @param zoom the tile's zoom level.
+     * @param row  the WorldWind tile row.
+     *
+     * @return the stored row, or -1 if the table has no rows at the specified zoom level.
+     */
+    protected abstract long toStoredRow(int zoom, long row);
+
+    public ByteBuffer readTile(Tile tile) throws IOException
+    {
+        if (tile == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int zoom = this.getZoom(tile);
+        long row = this.toStoredRow(zoom, tile.getRow());
+        if (row < 0)
+            return null;
+
+        ConnectionPool.PooledConnection pc = null;
+        try
+        {
+            pc = this.connectionPool.acquire();
+            return this.queryTile(pc, zoom, tile.getColumn(), row);
+        }
+        catch (SQLException e)
+        {
+            throw new IOException(Logging.getMessage("TileSource.ExceptionReadingTile", tile, this.file), e);
+        }
+        finally
+        {
+            this.connectionPool.release(pc);
+        }
+    }
+
+    @Override
+    public Map<TileKey, ByteBuffer> readTiles(Collection<? extends Tile> tiles) throws IOException
+    {
+        if (tiles == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // Group the requested tiles by zoom level, keyed by their stored column and row.
+        Map<Integer, Map<Long, TileKey>> zoomGroups = new HashMap<Integer, Map<Long, TileKey>>();
+        for (Tile tile : tiles)
+        {
+            int zoom = this.getZoom(tile);
+            long row = this.toStoredRow(zoom, tile.getRow());
+            if (row < 0)
+                continue;
+
+            Map<Long, TileKey> group = zoomGroups.get(zoom);
+            if (group == null)
+            {
+                group = new HashMap<Long, TileKey>();
+                zoomGroups.put(zoom, group);
+            }
+            group.put(cellKey(tile.getColumn(), row), tile.getTileKey());
+        }
+
+        Map<TileKey, ByteBuffer> contents = new HashMap<TileKey, ByteBuffer>(tiles.size());
+        ConnectionPool.PooledConnection pc = null;
+        try
+        {
+            pc = this.connectionPool.acquire();
+            for (Map.Entry<Integer, Map<Long, TileKey>> entry : zoomGroups.entrySet())
+            {
+                this.queryTiles(pc, entry.getKey(), entry.getValue(), contents);
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new IOException(Logging.getMessage("TileSource.ExceptionReadingTile", tiles, this.file), e);
+        }
+        finally
+        {
+            this.connectionPool.release(pc);
+        }
+
+        return contents;
+    }
+
+    protected ByteBuffer queryTile(ConnectionPool.PooledConnection pc, int zoom, long column, long row)
+        throws SQLException
+    {
+        PreparedStatement statement = pc.prepare("SELECT tile_data FROM \"" + this.getTileTableName()
+            + "\" WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?");
+        statement.setInt(1, zoom);
+        statement.setLong(2, column);
+        statement.setLong(3, row);
+
+        ResultSet rs = statement.executeQuery();
+        try
+        {
+            return rs.next() ? wrap(rs.getBytes(1)) : null;
+        }
+        finally
+        {
+            rs.close();
+        }
+    }
+
+    protected void queryTiles(ConnectionPool.PooledConnection pc, int zoom, Map<Long, TileKey> cells,
+        Map<TileKey, ByteBuffer> contents) throws SQLException
+    {
+        long minCol = Long.MAX_VALUE, maxCol = Long.MIN_VALUE, minRow = Long.MAX_VALUE, maxRow = Long.MIN_VALUE;
+        for (long cell : cells.keySet())
+        {
+            minCol = Math.min(minCol, cellColumn(cell));
+            maxCol = Math.max(maxCol, cellColumn(cell));
+            minRow = Math.min(minRow, cellRow(cell));
+            maxRow = Math.max(maxRow, cellRow(cell));
+        }
+
+        long area = (maxCol - minCol + 1) * (maxRow - minRow + 1);
+        if (cells.size() == 1 || area > MAX_RANGE_QUERY_SPARSENESS * (long) cells.size())
+        {
+            for (Map.Entry<Long, TileKey> entry : cells.entrySet())
+            {
+                ByteBuffer buffer = this.queryTile(pc, zoom, cellColumn(entry.getKey()), cellRow(entry.getKey()));
+                if (buffer != null)
+                    contents.put(entry.getValue(), buffer);
+            }
+            return;
+        }
+
+        PreparedStatement statement = pc.prepare("SELECT tile_column, tile_row, tile_data FROM \""
+            + this.getTileTableName() + "\" WHERE zoom_level = ? AND tile_column BETWEEN ? AND ?"
+            + " AND tile_row BETWEEN ? AND ?");
+        statement.setInt(1, zoom);
+        statement.setLong(2, minCol);
+        statement.setLong(3, maxCol);
+        statement.setLong(4, minRow);
+        statement.setLong(5, maxRow);
+
+        ResultSet rs = statement.executeQuery();
+        try
+        {
+            while (rs.next())
+            {
+                TileKey key = cells.get(cellKey(rs.getLong(1), rs.getLong(2)));
+                if (key != null)
+                    contents.put(key, wrap(rs.getBytes(3)));
+            }
+        }
+        finally
+        {
+            rs.close();
+        }
+    }
+
+    protected static long cellKey(long column, long row)
+    {
+        return (row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    protected static long cellColumn(long cellKey)
+    {
+        return cellKey & 0xFFFFFFFFL;
+    }
+
+    protected static long cellRow(long cellKey)
+    {
+        return cellKey >>> 32;
+    }
+
+    protected static ByteBuffer wrap(byte[] bytes)
+    {
+        return bytes != null ? ByteBuffer.wrap(bytes) : null;
+    }
+
+    /** Closes the source's database connections. */
+    @Override
+    public void dispose()
+    {
+        this.connectionPool.dispose();
+    }
+}
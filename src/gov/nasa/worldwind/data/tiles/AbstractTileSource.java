@@ -0,0 +1,127 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Base class for tile sources that address tiles by zoom level, column and row. The source's zoom level for a tile is
+ * the tile's level number plus the source's first level offset, which accounts for level sets that omit the coarsest
+ * levels of a tile pyramid, as {@link gov.nasa.worldwind.layers.mercator.MercatorTileUrlBuilder} does. Tile columns
+ * are used as is. Tile rows are counted from the southern edge of the tile grid, as they are in WorldWind and the TMS
+ * specification; subclasses that address rows from the northern edge convert them with {@link #flipRow(long, long)}.
+ */
+public abstract class AbstractTileSource implements TileSource
+{
+    protected int firstLevelOffset;
+    protected String imageFormat;
+
+    /**
+     * Creates a tile source with the specified first level offset.
+     *
+     * @param firstLevelOffset the source zoom level corresponding to level 0 of the level set.
+     */
+    protected AbstractTileSource(int firstLevelOffset)
+    {
+        this.firstLevelOffset = firstLevelOffset;
+    }
+
+    public int getFirstLevelOffset()
+    {
+        return this.firstLevelOffset;
+    }
+
+    public String getImageFormat()
+    {
+        return this.imageFormat;
+    }
+
+    public void setImageFormat(String imageFormat)
+    {
+        this.imageFormat = imageFormat;
+    }
+
+    /**
+     * Returns the source zoom level for a specified tile.
+     *
+     * @param tile the tile.
+     *
+     * @return the zoom level containing the tile.
+     */
+    protected int getZoom(Tile tile)
+    {
+        return tile.getLevelNumber() + this.firstLevelOffset;
+    }
+
+    /**
+     * Converts a row counted from one edge of a tile grid to the equivalent row counted from the opposite edge.
+     *
+     * @param row        the row to convert.
+     * @param gridHeight the number of rows in the grid.
+     *
+     * @return the converted row.
+     */
+    protected static long flipRow(long row, long gridHeight)
+    {
+        return gridHeight - 1 - row;
+    }
+
+    /**
+     * Reads each tile individually with {@link #readTile(Tile)}. Subclasses able to read several tiles at once
+     * override this method.
+     */
+    public Map<TileKey, ByteBuffer> readTiles(Collection<? extends Tile> tiles) throws IOException
+    {
+        if (tiles == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Map<TileKey, ByteBuffer> contents = new HashMap<TileKey, ByteBuffer>(tiles.size());
+        for (Tile tile : tiles)
+        {
+            ByteBuffer buffer = this.readTile(tile);
+            if (buffer != null)
+                contents.put(tile.getTileKey(), buffer);
+        }
+
+        return contents;
+    }
+
+    /** Does nothing. Subclasses holding resources override this method to release them. */
+    public void dispose()
+    {
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.util.Logging;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ConnectionPool holds a bounded set of JDBC connections to one database, along with each connection's prepared
+ * statements, so that tile sources can serve concurrent reads without opening a connection or compiling a statement
+ * per tile. Connections are opened lazily, up to the pool's maximum, and callers block until a connection is
+ * available once the maximum is reached.
+ */
+public class ConnectionPool implements Disposable
+{
+    /** A pooled connection and the statements prepared on it. */
+    public static class PooledConnection
+    {
+        protected final Connection connection;
+        protected final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+        public PooledConnection(Connection connection)
+        {
+            this.connection = connection;
+        }
+
+        public Connection getConnection()
+        {
+            return this.connection;
+        }
+
+        /**
+         * Returns a prepared statement for the specified SQL, preparing it on first use.
+         *
+         * @param sql the statement's SQL.
+         *
+         * @return the prepared statement.
+         *
+         * @throws SQLException if the statement cannot be prepared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException
+        {
+            PreparedStatement statement = this.statements.get(sql);
+            if (statement == null)
+            {
+                statement = this.connection.prepareStatement(sql);
+                this.statements.put(sql, statement);
+            }
+
+            return statement;
+        }
+
+        protected void close()
+        {
+            for (PreparedStatement statement : this.statements.values())
+            {
+                try
+                {
+                    statement.close();
+                }
+                catch (SQLException e)
+                {
+                    Logging.logger().log(java.util.logging.Level.FINE, e.getMessage(), e);
+                }
+            }
+            this.statements.clear();
+
+            try
+            {
+                this.connection.close();
+            }
+            catch (SQLException e)
+            {
+                Logging.logger().log(java.util.logging.Level.FINE, e.getMessage(), e);
+            }
+        }
+    }
+
+    /** The interval, in milliseconds, at which threads waiting for a connection check whether the pool is disposed. */
+    protected static final long DISPOSED_CHECK_INTERVAL = 100;
+
+    protected final String url;
+    protected final Properties properties;
+    protected final int maxConnections;
+    protected final BlockingQueue<PooledConnection> available;
+    protected final List<PooledConnection> all = new ArrayList<PooledConnection>();
+    protected volatile boolean disposed;
+
+    /**
+     * Creates a pool for the specified database.
+     *
+     * @param url            the JDBC connection URL.
+     * @param properties     the connection properties. May be null.
+     * @param maxConnections the maximum number of connections the pool opens.
+     *
+     * @throws IllegalArgumentException if the URL is null or the maximum is less than 1.
+     */
+    public ConnectionPool(String url, Properties properties, int maxConnections)
+    {
+        if (url == null)
+        {
+            String message = Logging.getMessage("nullValue.ConnectionStringIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (maxConnections < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "maxConnections < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.url = url;
+        this.properties = properties != null ? properties : new Properties();
+        this.maxConnections = maxConnections;
+        this.available = new ArrayBlockingQueue<PooledConnection>(maxConnections);
+    }
+
+    /**
+     * Creates a pool of read-only connections to a SQLite database file. The pool opens at most one connection per
+     * available processor.
+     *
+     * @param path the database file's path.
+     *
+     * @return a new connection pool.
+     */
+    public static ConnectionPool createSQLiteReadOnlyPool(String path)
+    {
+        Properties properties = new Properties();
+        properties.setProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+        return new ConnectionPool("jdbc:sqlite:" + path, properties, Runtime.getRuntime().availableProcessors());
+    }
+
+    public String getURL()
+    {
+        return this.url;
+    }
+
+    public int getMaxConnections()
+    {
+        return this.maxConnections;
+    }
+
+    /**
+     * Returns a connection from the pool, opening a new connection if none are available and the pool has fewer than
+     * its maximum number of connections. Otherwise this blocks until another thread releases a connection or the pool
+     * is disposed. The caller must return the connection with {@link #release(PooledConnection)}.
+     *
+     * @return a pooled connection.
+     *
+     * @throws SQLException if a new connection cannot be opened, the pool has been disposed, or the calling thread is
+     *                      interrupted while waiting.
+     */
+    public PooledConnection acquire() throws SQLException
+    {
+        if (this.disposed)
+            throw new SQLException(Logging.getMessage("TileSource.ConnectionPoolDisposed", this.url));
+
+        PooledConnection pc = this.available.poll();
+        if (pc != null)
+            return pc;
+
+        synchronized (this.all)
+        {
+            if (this.all.size() < this.maxConnections)
+            {
+                pc = this.openConnection();
+                this.all.add(pc);
+                return pc;
+            }
+        }
+
+        // Wait in intervals rather than indefinitely, so that waiting threads give up once the pool is disposed.
+        try
+        {
+            while (!this.disposed)
+            {
+                pc = this.available.poll(DISPOSED_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                if (pc != null)
+                    return pc;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+
+        throw new SQLException(Logging.getMessage("TileSource.ConnectionPoolDisposed", this.url));
+    }
+
+    /**
+     * Returns a connection to the pool.
+     *
+     * @param connection the connection to release. May be null, in which case this method does nothing.
+     */
+    public void release(PooledConnection connection)
+    {
+        if (connection == null)
+            return;
+
+        if (this.disposed)
+        {
+            connection.close();
+        }
+        else
+        {
+            this.available.offer(connection);
+            // The pool may have been disposed after the check above and before the connection was queued.
+            if (this.disposed)
+                this.closeAvailable();
+        }
+    }
+
+    protected PooledConnection openConnection() throws SQLException
+    {
+        Connection connection = DriverManager.getConnection(this.url, this.properties);
+        try
+        {
+            connection.setReadOnly(true);
+        }
+        catch (SQLException e)
+        {
+            // Some drivers only honor read-only mode through connection properties.
+            Logging.logger().log(java.util.logging.Level.FINEST, e.getMessage(), e);
+        }
+
+        return new PooledConnection(connection);
+    }
+
+    /** Closes all connections. Connections in use are closed when they are released. */
+    public void dispose()
+    {
+        this.disposed = true;
+        this.closeAvailable();
+    }
+
+    protected void closeAvailable()
+    {
+        PooledConnection pc;
+        while ((pc = this.available.poll()) != null)
+        {
+            pc.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * A tile source that reads tiles from a tile pyramid user data table in an <a href="https://www.geopackage.org">OGC
+ * GeoPackage</a>. GeoPackage tile rows are counted from the northern edge of each zoom level's tile matrix; the source
+ * converts them using the matrix heights in the <code>gpkg_tile_matrix</code> table. The tile matrix set must cover
+ * the same extent as the level set the source is used with.
+ * <p>
+ * A SQLite JDBC driver must be available on the class path.
+ */
+public class GeoPackageTileSource extends AbstractSQLiteTileSource
+{
+    protected final String tableName;
+    protected final Map<Integer, Long> matrixHeights = new HashMap<Integer, Long>();
+
+    /**
+     * Creates a tile source for a specified tile table in a GeoPackage.
+     *
+     * @param file             the GeoPackage file.
+     * @param tableName        the name of the tile table. If null, the first tile table listed in
+     *                         <code>gpkg_contents</code> is used.
+     * @param firstLevelOffset the zoom level corresponding to level 0 of the level set.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     * @throws IOException              if the GeoPackage's tables cannot be read or the GeoPackage contains no tile
+     *                                  table.
+     */
+    public GeoPackageTileSource(File file, String tableName, int firstLevelOffset) throws IOException
+    {
+        super(file, firstLevelOffset);
+
+        ConnectionPool.PooledConnection pc = null;
+        boolean initialized = false;
+        try
+        {
+            pc = this.connectionPool.acquire();
+
+            if (tableName == null)
+                tableName = this.findTileTable(pc);
+
+            if (tableName == null)
+                throw new IOException(Logging.getMessage("TileSource.NoTileTable", file));
+
+            this.tableName = tableName;
+            this.readTileMatrices(pc);
+            initialized = true;
+        }
+        catch (SQLException e)
+        {
+            throw new IOException(Logging.getMessage("generic.ExceptionAttemptingToReadFile", file), e);
+        }
+        finally
+        {
+            this.connectionPool.release(pc);
+
+            // The caller never receives a source that failed to initialize, so close the connections it opened.
+            if (!initialized)
+                this.connectionPool.dispose();
+        }
+    }
+
+    public String getTableName()
+    {
+        return this.tableName;
+    }
+
+    protected String findTileTable(ConnectionPool.PooledConnection pc) throws SQLException
+    {
+        ResultSet rs = pc.prepare("SELECT table_name FROM gpkg_contents WHERE data_type = 'tiles'").executeQuery();
+        try
+        {
+            return rs.next() ? rs.getString(1) : null;
+        }
+        finally
+        {
+            rs.close();
+        }
+    }
+
+    protected void readTileMatrices(ConnectionPool.PooledConnection pc) throws SQLException
+    {
+        PreparedStatement statement = pc.prepare(
+            "SELECT zoom_level, matrix_height FROM gpkg_tile_matrix WHERE table_name = ?");
+        statement.setString(1, this.tableName);
+
+        ResultSet rs = statement.executeQuery();
+        try
+        {
+            while (rs.next())
+            {
+                this.matrixHeights.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        finally
+        {
+            rs.close();
+        }
+    }
+
+    protected String getTileTableName()
+    {
+        return this.tableName;
+    }
+
+    protected long toStoredRow(int zoom, long row)
+    {
+        Long height = this.matrixHeights.get(zoom);
+        return height != null && row < height ? flipRow(row, height) : -1;
+    }
+}
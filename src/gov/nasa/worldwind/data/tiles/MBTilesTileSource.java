@@ -0,0 +1,136 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * A tile source that reads tiles from an <a href="https://github.com/mapbox/mbtiles-spec">MBTiles</a> database. MBTiles
+ * tiles are addressed in the TMS scheme of the spherical Mercator tile pyramid, so the source is typically used with a
+ * {@link gov.nasa.worldwind.layers.mercator.BasicMercatorTiledImageLayer} whose first level offset matches the
+ * source's.
+ * <p>
+ * A SQLite JDBC driver must be available on the class path.
+ */
+public class MBTilesTileSource extends AbstractSQLiteTileSource
+{
+    protected Map<String, String> metadata;
+
+    /**
+     * Creates a tile source for a specified MBTiles file.
+     *
+     * @param file             the MBTiles file.
+     * @param firstLevelOffset the zoom level corresponding to level 0 of the level set.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     */
+    public MBTilesTileSource(File file, int firstLevelOffset)
+    {
+        super(file, firstLevelOffset);
+    }
+
+    /**
+     * Returns the contents of the database's metadata table, reading the table on first use.
+     *
+     * @return the metadata name-value pairs.
+     *
+     * @throws IOException if the metadata table cannot be read.
+     */
+    public synchronized Map<String, String> getMetadata() throws IOException
+    {
+        if (this.metadata != null)
+            return this.metadata;
+
+        Map<String, String> map = new HashMap<String, String>();
+        ConnectionPool.PooledConnection pc = null;
+        try
+        {
+            pc = this.connectionPool.acquire();
+            ResultSet rs = pc.prepare("SELECT name, value FROM metadata").executeQuery();
+            try
+            {
+                while (rs.next())
+                {
+                    map.put(rs.getString(1), rs.getString(2));
+                }
+            }
+            finally
+            {
+                rs.close();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new IOException(Logging.getMessage("generic.ExceptionAttemptingToReadFile", this.file), e);
+        }
+        finally
+        {
+            this.connectionPool.release(pc);
+        }
+
+        this.metadata = Collections.unmodifiableMap(map);
+        return this.metadata;
+    }
+
+    /** Returns the MIME type named by the <code>format</code> metadata entry, if the entry exists. */
+    @Override
+    public String getImageFormat()
+    {
+        if (this.imageFormat == null)
+        {
+            try
+            {
+                String format = this.getMetadata().get("format");
+                if (format != null)
+                    this.imageFormat = WWIO.makeMimeTypeForSuffix(format);
+            }
+            catch (IOException e)
+            {
+                Logging.logger().log(java.util.logging.Level.WARNING, e.getMessage(), e);
+            }
+        }
+
+        return this.imageFormat;
+    }
+
+    protected String getTileTableName()
+    {
+        return "tiles";
+    }
+
+    /** MBTiles rows are counted from the southern edge of the grid, as WorldWind's are. */
+    protected long toStoredRow(int zoom, long row)
+    {
+        return row;
+    }
+}
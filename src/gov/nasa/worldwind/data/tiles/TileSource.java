@@ -0,0 +1,80 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.util.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * TileSource provides the encoded contents of tiles in a {@link LevelSet} directly from a tile store, such as a
+ * directory tree of XYZ or TMS tiles, an MBTiles database or a GeoPackage tile table. Layers and elevation models that
+ * are configured with a tile source read their tiles from it instead of from the file store, so tile archives do not
+ * need to be expanded into one file per tile.
+ * <p>
+ * A tile source returns tile contents in their stored encoding, e.g. PNG, JPEG or raw elevation samples. Tile sources
+ * must be thread safe: tiles are read concurrently by the loading threads of any number of layers.
+ */
+public interface TileSource extends Disposable
+{
+    /**
+     * Returns the MIME type of the tiles in the source, if the source declares one.
+     *
+     * @return the tiles' MIME type, or null if the source does not declare a single type.
+     */
+    String getImageFormat();
+
+    /**
+     * Reads the encoded contents of a single tile.
+     *
+     * @param tile the tile to read.
+     *
+     * @return the tile's contents, or null if the source has no data for the tile.
+     *
+     * @throws IllegalArgumentException if the tile is null.
+     * @throws IOException              if an error occurs while reading the tile.
+     */
+    ByteBuffer readTile(Tile tile) throws IOException;
+
+    /**
+     * Reads the encoded contents of a group of tiles. Sources backed by a database read the group with as few queries
+     * as possible, so reading tiles in groups is considerably faster than reading them individually.
+     *
+     * @param tiles the tiles to read.
+     *
+     * @return a map from tile key to tile contents. Tiles for which the source has no data are absent from the map.
+     *
+     * @throws IllegalArgumentException if the collection is null.
+     * @throws IOException              if an error occurs while reading the tiles.
+     */
+    Map<TileKey, ByteBuffer> readTiles(Collection<? extends Tile> tiles) throws IOException;
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data.tiles;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+/**
+ * A tile source that reads tiles addressed by a URL template, such as a directory tree of XYZ or TMS tiles. The
+ * template may contain the following variables: <ul> <li><code>{z}</code> - the zoom level.</li> <li><code>{x}</code> -
+ * the tile column.</li> <li><code>{y}</code> - the tile row counted from the northern edge of the grid, as in the XYZ
+ * ("slippy map") scheme.</li> <li><code>{-y}</code> - the tile row counted from the southern edge of the grid, as in
+ * the TMS scheme.</li> </ul> For example, <code>file:///data/tiles/{z}/{x}/{y}.png</code>.
+ * <p>
+ * Tiles that do not exist are reported as absent. Templates referencing remote servers are read synchronously on the
+ * calling thread, so tiles from remote servers are better retrieved through a {@link TileUrlBuilder} and the file
+ * store.
+ */
+public class XYZTileSource extends AbstractTileSource
+{
+    protected final String template;
+
+    /**
+     * Creates a tile source for a specified URL template.
+     *
+     * @param template         the URL template.
+     * @param firstLevelOffset the zoom level corresponding to level 0 of the level set.
+     *
+     * @throws IllegalArgumentException if the template is null.
+     */
+    public XYZTileSource(String template, int firstLevelOffset)
+    {
+        super(firstLevelOffset);
+
+        if (template == null)
+        {
+            String message = Logging.getMessage("nullValue.StringIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.template = template;
+
+        String suffix = WWIO.getSuffix(template);
+        if (suffix != null)
+            this.imageFormat = WWIO.makeMimeTypeForSuffix(suffix);
+    }
+
+    public String getTemplate()
+    {
+        return this.template;
+    }
+
+    /**
+     * Returns the URL of a specified tile.
+     *
+     * @param tile the tile.
+     *
+     * @return the tile's URL.
+     *
+     * @throws IOException if the URL is malformed.
+     */
+    public URL getURL(Tile tile) throws IOException
+    {
+        int zoom = this.getZoom(tile);
+        String s = this.template
+            .replace("{z}", Integer.toString(zoom))
+            .replace("{x}", Integer.toString(tile.getColumn()))
+            .replace("{-y}", Integer.toString(tile.getRow()))
+            .replace("{y}", Long.toString(flipRow(tile.getRow(), 1L << zoom)));
+
+        return new URL(s);
+    }
+
+    public ByteBuffer readTile(Tile tile) throws IOException
+    {
+        if (tile == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        URL url = this.getURL(tile);
+        if ("file".equalsIgnoreCase(url.getProtocol()))
+        {
+            File file = WWIO.convertURLToFile(url);
+            if (file == null || !file.exists())
+                return null;
+        }
+
+        try
+        {
+            return WWIO.readURLContentToBuffer(url);
+        }
+        catch (FileNotFoundException e)
+        {
+            return null;
+        }
+    }
+}
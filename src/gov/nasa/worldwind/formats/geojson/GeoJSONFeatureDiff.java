@@ -0,0 +1,261 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+
+/**
+ * The difference between two loads of a GeoJSON document, computed by matching the features of the new load to those
+ * of the previous load. Features are matched by their identifier. A feature without an identifier is matched by its
+ * geometry, so it is reported as changed only when its properties change, and as a removal and an addition when its
+ * geometry changes. When several features share an identifier, the occurrences are matched in document order.
+ * <p>
+ * Each feature is stored under a key: its identifier or geometry, or for repeated identifiers a list of the identifier
+ * and the occurrence number. The keys of the new load are returned by {@link #getFeatures()}, and are the keys passed
+ * to the next diff as the previous load. A diff holds no references to renderables and may be computed on any thread;
+ * see {@link GeoJSONFeatureSet} for applying a diff to shapes.
+ */
+public class GeoJSONFeatureDiff
+{
+    protected final Map<Object, GeoJSONPackedFeature> previousFeatures;
+    protected final Map<Object, GeoJSONPackedFeature> features;
+    protected final List<Object> addedKeys = new ArrayList<Object>();
+    protected final List<Object> removedKeys = new ArrayList<Object>();
+    protected final List<Object> geometryChangedKeys = new ArrayList<Object>();
+    protected final List<Object> propertiesChangedKeys = new ArrayList<Object>();
+
+    /**
+     * Computes the difference between a previous load and the features of a new load.
+     *
+     * @param previousFeatures the features of the previous load by key, as returned by {@link #getFeatures()} of the
+     *                         previous diff. May be empty for the first load.
+     * @param features         the features of the new load, in document order.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public GeoJSONFeatureDiff(Map<Object, GeoJSONPackedFeature> previousFeatures,
+        Iterator<GeoJSONPackedFeature> features)
+    {
+        if (previousFeatures == null)
+        {
+            String message = Logging.getMessage("nullValue.MapIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (features == null)
+        {
+            String message = Logging.getMessage("nullValue.Iterator");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.previousFeatures = previousFeatures;
+        this.features = new LinkedHashMap<Object, GeoJSONPackedFeature>(Math.max(16, previousFeatures.size() * 4 / 3));
+
+        while (features.hasNext())
+        {
+            GeoJSONPackedFeature feature = features.next();
+            if (feature != null)
+                this.addFeature(feature);
+        }
+
+        for (Object key : previousFeatures.keySet())
+        {
+            if (!this.features.containsKey(key))
+                this.removedKeys.add(key);
+        }
+    }
+
+    /**
+     * Returns the features of the previous load this diff was computed against.
+     *
+     * @return the previous features by key.
+     */
+    public Map<Object, GeoJSONPackedFeature> getPreviousFeatures()
+    {
+        return this.previousFeatures;
+    }
+
+    /**
+     * Returns all features of the new load, in document order.
+     *
+     * @return the new features by key.
+     */
+    public Map<Object, GeoJSONPackedFeature> getFeatures()
+    {
+        return this.features;
+    }
+
+    /**
+     * Returns the keys of features in the new load that match no feature of the previous load.
+     *
+     * @return the keys of added features.
+     */
+    public List<Object> getAddedKeys()
+    {
+        return this.addedKeys;
+    }
+
+    /**
+     * Returns the keys of features of the previous load that match no feature of the new load.
+     *
+     * @return the keys of removed features.
+     */
+    public List<Object> getRemovedKeys()
+    {
+        return this.removedKeys;
+    }
+
+    /**
+     * Returns the keys of matched features whose geometry changed.
+     *
+     * @return the keys of features with a new geometry.
+     */
+    public List<Object> getGeometryChangedKeys()
+    {
+        return this.geometryChangedKeys;
+    }
+
+    /**
+     * Returns the keys of matched features whose properties changed. A feature may have changed both its geometry and
+     * its properties.
+     *
+     * @return the keys of features with new properties.
+     */
+    public List<Object> getPropertiesChangedKeys()
+    {
+        return this.propertiesChangedKeys;
+    }
+
+    /**
+     * Indicates whether the new load differs from the previous load. Changes to the order of features are not
+     * considered.
+     *
+     * @return true if no feature was added, removed or changed.
+     */
+    public boolean isEmpty()
+    {
+        return this.addedKeys.isEmpty() && this.removedKeys.isEmpty() && this.geometryChangedKeys.isEmpty()
+            && this.propertiesChangedKeys.isEmpty();
+    }
+
+    protected void addFeature(GeoJSONPackedFeature feature)
+    {
+        Object key = feature.getId() != null ? feature.getId() : feature.getGeometry();
+        if (this.features.containsKey(key))
+        {
+            // Number the repeated occurrences of a key in document order, starting with the second.
+            int occurrence = 1;
+            Object repeatedKey;
+            do
+            {
+                repeatedKey = Arrays.asList(key, occurrence++);
+            }
+            while (this.features.containsKey(repeatedKey));
+            key = repeatedKey;
+        }
+
+        this.features.put(key, feature);
+
+        GeoJSONPackedFeature previous = this.previousFeatures.get(key);
+        if (previous == null)
+        {
+            this.addedKeys.add(key);
+            return;
+        }
+
+        if (!objectsEqual(previous.getGeometry(), feature.getGeometry()))
+            this.geometryChangedKeys.add(key);
+
+        if (!propertiesEqual(previous.getProperties(), feature.getProperties()))
+            this.propertiesChangedKeys.add(key);
+    }
+
+    /**
+     * Indicates whether two sets of GeoJSON feature properties hold the same values. Nested objects and arrays are
+     * compared by their contents.
+     *
+     * @param a the first properties. May be null.
+     * @param b the second properties. May be null.
+     *
+     * @return true if the properties are equal or both null.
+     */
+    public static boolean propertiesEqual(AVList a, AVList b)
+    {
+        if (a == b)
+            return true;
+        if (a == null || b == null)
+            return false;
+
+        Set<Map.Entry<String, Object>> entries = a.getEntries();
+        if (entries.size() != b.getEntries().size())
+            return false;
+
+        for (Map.Entry<String, Object> entry : entries)
+        {
+            if (!b.hasKey(entry.getKey()) || !valuesEqual(entry.getValue(), b.getValue(entry.getKey())))
+                return false;
+        }
+
+        return true;
+    }
+
+    protected static boolean valuesEqual(Object a, Object b)
+    {
+        if (a instanceof AVList && b instanceof AVList)
+            return propertiesEqual((AVList) a, (AVList) b);
+
+        if (a instanceof Object[] && b instanceof Object[])
+        {
+            Object[] arrayA = (Object[]) a;
+            Object[] arrayB = (Object[]) b;
+            if (arrayA.length != arrayB.length)
+                return false;
+
+            for (int i = 0; i < arrayA.length; i++)
+            {
+                if (!valuesEqual(arrayA[i], arrayB[i]))
+                    return false;
+            }
+
+            return true;
+        }
+
+        return objectsEqual(a, b);
+    }
+
+    protected static boolean objectsEqual(Object a, Object b)
+    {
+        return a != null ? a.equals(b) : b == null;
+    }
+}
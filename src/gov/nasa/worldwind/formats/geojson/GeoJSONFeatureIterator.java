@@ -0,0 +1,728 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+import org.codehaus.jackson.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reads the features of a GeoJSON document one at a time as the document is read, using the Jackson streaming parser
+ * directly rather than building the event-parser tree of a {@link GeoJSONDoc}. Each feature's coordinates are packed
+ * into a <code>double[]</code> as they are read, so a feature costs a handful of objects regardless of how many
+ * positions it has, and memory use is bounded by the largest feature rather than by the size of the document.
+ * <p>
+ * The root object of the document may be a <code>FeatureCollection</code>, whose features are returned in document
+ * order, a single <code>Feature</code>, or a bare geometry, which is returned as a feature with no identifier or
+ * properties. Features are returned as {@link GeoJSONPackedFeature}s; {@link GeoJSONSurfaceShapeBuilder} collects
+ * them into batched surface shapes.
+ * <p>
+ * Features may optionally be filtered by a sector, in which case only features whose geometry's bounding sector
+ * intersects the filter are returned. The filter is applied while the feature is read: a feature whose
+ * <code>bbox</code> member precedes its geometry and does not intersect the filter has its geometry and properties
+ * skipped without being decoded, and a feature whose geometry does not intersect the filter has the rest of its
+ * members skipped.
+ * <p>
+ * The document is closed when the last feature has been read. Call {@link #close()} to close it earlier.
+ */
+public class GeoJSONFeatureIterator implements Iterator<GeoJSONPackedFeature>, Closeable
+{
+    /** The members of the feature or geometry object being read. */
+    protected static class ObjectFields
+    {
+        protected String type;
+        protected Object id;
+        protected AVList properties;
+        protected GeoJSONPackedGeometry geometry;
+        protected List<GeoJSONPackedGeometry> geometries;
+        protected boolean hasCoordinates;
+        protected boolean rejected;
+    }
+
+    protected static final int DEFAULT_COORD_CAPACITY = 1024;
+    protected static final int DEFAULT_PART_CAPACITY = 16;
+
+    protected final String displayName;
+    protected final Sector sector;
+    protected JsonParser parser;
+    protected boolean readProperties = true;
+    protected GeoJSONPackedFeature nextFeature;
+    protected ObjectFields rootFields;
+    protected boolean inFeatureArray;
+    protected boolean closed;
+
+    // The coordinates of the geometry being read. They are copied to the geometry when it has been read, so these
+    // arrays grow to the size of the largest geometry and are then reused.
+    protected double[] coords = new double[DEFAULT_COORD_CAPACITY];
+    protected int coordsPerPosition;
+    protected int positionCount;
+    protected int[] partEnds = new int[DEFAULT_PART_CAPACITY];
+    protected int partCount;
+    protected int[] groupEnds = new int[DEFAULT_PART_CAPACITY];
+    protected int groupCount;
+    protected double minLatitude;
+    protected double maxLatitude;
+    protected double minLongitude;
+    protected double maxLongitude;
+
+    /**
+     * Creates an iterator over the features of a document.
+     *
+     * @param source either a {@link java.io.File}, a {@link java.net.URL}, or an {@link java.io.InputStream}, or a
+     *               {@link String} identifying a file path or URL.
+     * @param sector the sector features must intersect to be returned. May be null to return all features.
+     *
+     * @throws IllegalArgumentException if the source is null.
+     * @throws WWRuntimeException       if the source cannot be opened.
+     */
+    public GeoJSONFeatureIterator(Object source, Sector sector)
+    {
+        if (WWUtil.isEmpty(source))
+        {
+            String message = Logging.getMessage("nullValue.SourceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.displayName = WWIO.getSourcePath(source);
+        this.sector = sector;
+
+        try
+        {
+            this.parser = new JsonFactory().createJsonParser(WWIO.openStream(source));
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("generic.ExceptionWhileReading", this.displayName);
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+
+    /**
+     * Returns the sector features must intersect to be returned.
+     *
+     * @return the filter sector, or null if features are not filtered.
+     */
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    /**
+     * Indicates whether features' properties are read. See {@link #setReadProperties(boolean)}.
+     *
+     * @return true if properties are read, otherwise false.
+     */
+    public boolean isReadProperties()
+    {
+        return this.readProperties;
+    }
+
+    /**
+     * Specifies whether features' properties are read. When false, properties are skipped without being decoded and
+     * the features' properties are null, which speeds reading when only geometry is needed. The default is true.
+     *
+     * @param readProperties true to read properties, otherwise false.
+     */
+    public void setReadProperties(boolean readProperties)
+    {
+        this.readProperties = readProperties;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WWRuntimeException if an exception occurs while reading the document.
+     */
+    public boolean hasNext()
+    {
+        if (this.nextFeature == null && !this.closed)
+        {
+            try
+            {
+                this.nextFeature = this.readFeature();
+            }
+            catch (IOException e)
+            {
+                this.close();
+                String message = Logging.getMessage("generic.ExceptionWhileReading", this.displayName);
+                throw new WWRuntimeException(message, e);
+            }
+        }
+
+        return this.nextFeature != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WWRuntimeException if an exception occurs while reading the document.
+     */
+    public GeoJSONPackedFeature next()
+    {
+        if (!this.hasNext())
+            throw new NoSuchElementException();
+
+        GeoJSONPackedFeature feature = this.nextFeature;
+        this.nextFeature = null;
+        return feature;
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /** Closes the document. Subsequent calls to {@link #hasNext()} return false. */
+    public void close()
+    {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+        this.nextFeature = null;
+        WWIO.closeStream(this.parser, this.displayName);
+        this.parser = null;
+    }
+
+    /**
+     * Reads tokens up to and including the next feature that passes the sector filter.
+     *
+     * @return the next feature, or null if the document has no more features.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected GeoJSONPackedFeature readFeature() throws IOException
+    {
+        if (this.rootFields == null)
+        {
+            if (this.parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                this.close();
+                return null;
+            }
+
+            this.rootFields = new ObjectFields();
+        }
+
+        while (true)
+        {
+            if (this.inFeatureArray)
+            {
+                JsonToken token = this.nextToken();
+                if (token == JsonToken.END_ARRAY)
+                {
+                    this.inFeatureArray = false;
+                }
+                else if (token == JsonToken.START_OBJECT)
+                {
+                    GeoJSONPackedFeature feature = this.createFeature(this.readObject());
+                    if (feature != null)
+                        return feature;
+                }
+                else
+                {
+                    this.parser.skipChildren();
+                }
+                continue;
+            }
+
+            // Read the root object's members, streaming the features of a feature collection as they are reached.
+            JsonToken token = this.parser.nextToken();
+            if (token == JsonToken.FIELD_NAME)
+            {
+                String name = this.parser.getCurrentName();
+                token = this.nextToken();
+                if (GeoJSONConstants.FIELD_FEATURES.equals(name) && token == JsonToken.START_ARRAY)
+                    this.inFeatureArray = true;
+                else
+                    this.readField(name, token, this.rootFields);
+                continue;
+            }
+
+            // The root object has been read. A root feature or geometry is returned now that all its members are known.
+            GeoJSONPackedFeature feature = this.createFeature(this.rootFields);
+            this.close();
+            return feature;
+        }
+    }
+
+    /**
+     * Creates a feature from the members of a feature object or a root geometry object.
+     *
+     * @param fields the object's members.
+     *
+     * @return the feature, or null if the object is not a feature or geometry, or does not pass the sector filter.
+     */
+    protected GeoJSONPackedFeature createFeature(ObjectFields fields)
+    {
+        if (fields.rejected || GeoJSONConstants.TYPE_FEATURE_COLLECTION.equals(fields.type))
+            return null;
+
+        // A bare geometry as the document's root has coordinates or member geometries of its own.
+        GeoJSONPackedGeometry geometry = fields.hasCoordinates || fields.geometries != null ?
+            this.createGeometry(fields) : fields.geometry;
+        if (geometry == null && !GeoJSONConstants.TYPE_FEATURE.equals(fields.type))
+            return null;
+
+        if (this.sector != null && (geometry == null || !this.intersectsSector(geometry.getSector())))
+            return null;
+
+        return new GeoJSONPackedFeature(fields.id, fields.properties, geometry);
+    }
+
+    /**
+     * Reads the members of the object whose start token was just read, up to and including its end token.
+     *
+     * @return the object's members.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected ObjectFields readObject() throws IOException
+    {
+        ObjectFields fields = new ObjectFields();
+
+        for (JsonToken token = this.nextToken(); token != JsonToken.END_OBJECT; token = this.nextToken())
+        {
+            String name = this.parser.getCurrentName();
+            this.readField(name, this.nextToken(), fields);
+        }
+
+        return fields;
+    }
+
+    /**
+     * Reads the value of a feature or geometry object's member. Members of a feature that has been rejected by the
+     * sector filter, and members not used by features or geometries, are skipped.
+     *
+     * @param name   the member's name.
+     * @param token  the first token of the member's value, which has just been read.
+     * @param fields the object's members read so far.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected void readField(String name, JsonToken token, ObjectFields fields) throws IOException
+    {
+        if (fields.rejected)
+        {
+            this.parser.skipChildren();
+        }
+        else if (GeoJSONConstants.FIELD_TYPE.equals(name) && token == JsonToken.VALUE_STRING)
+        {
+            fields.type = this.parser.getText();
+        }
+        else if ("id".equals(name))
+        {
+            fields.id = this.readValue(token);
+        }
+        else if (GeoJSONConstants.FIELD_BBOX.equals(name) && token == JsonToken.START_ARRAY)
+        {
+            Sector bbox = this.readBoundingBox();
+            if (bbox != null && !this.intersectsSector(bbox))
+                fields.rejected = true;
+        }
+        else if (GeoJSONConstants.FIELD_GEOMETRY.equals(name) && token == JsonToken.START_OBJECT)
+        {
+            fields.geometry = this.createGeometry(this.readObject());
+            if (this.sector != null && (fields.geometry == null || !this.intersectsSector(fields.geometry.getSector())))
+                fields.rejected = true;
+        }
+        else if (GeoJSONConstants.FIELD_GEOMETRIES.equals(name) && token == JsonToken.START_ARRAY)
+        {
+            fields.geometries = new ArrayList<GeoJSONPackedGeometry>();
+            for (token = this.nextToken(); token != JsonToken.END_ARRAY; token = this.nextToken())
+            {
+                GeoJSONPackedGeometry geometry = token == JsonToken.START_OBJECT ?
+                    this.createGeometry(this.readObject()) : null;
+                if (geometry != null)
+                    fields.geometries.add(geometry);
+                else
+                    this.parser.skipChildren();
+            }
+        }
+        else if (GeoJSONConstants.FIELD_COORDINATES.equals(name) && token == JsonToken.START_ARRAY)
+        {
+            this.readCoordinates();
+            fields.hasCoordinates = true;
+        }
+        else if (GeoJSONConstants.FIELD_PROPERTIES.equals(name) && token == JsonToken.START_OBJECT
+            && this.readProperties)
+        {
+            fields.properties = (AVList) this.readValue(token);
+        }
+        else
+        {
+            this.parser.skipChildren();
+        }
+    }
+
+    /**
+     * Creates a geometry from the members of a geometry object, copying its coordinates from the arrays they were read
+     * into.
+     *
+     * @param fields the geometry object's members.
+     *
+     * @return the geometry, or null if the object has neither coordinates nor member geometries.
+     */
+    protected GeoJSONPackedGeometry createGeometry(ObjectFields fields)
+    {
+        if (fields.geometries != null)
+        {
+            Sector sector = null;
+            for (GeoJSONPackedGeometry geometry : fields.geometries)
+            {
+                sector = Sector.union(sector, geometry.getSector());
+            }
+
+            return new GeoJSONPackedGeometry(fields.geometries, sector);
+        }
+
+        if (!fields.hasCoordinates)
+            return null;
+
+        int[] partOffsets = new int[this.partCount + 1];
+        System.arraycopy(this.partEnds, 0, partOffsets, 1, this.partCount);
+
+        int[] ringGroups = null;
+        if (GeoJSONConstants.TYPE_POLYGON.equals(fields.type) || GeoJSONConstants.TYPE_MULTI_POLYGON.equals(
+            fields.type))
+        {
+            // Each polygon starts at the part following the previous polygon's last part.
+            ringGroups = new int[this.groupCount];
+            System.arraycopy(this.groupEnds, 0, ringGroups, 1, Math.max(this.groupCount - 1, 0));
+        }
+
+        Sector sector = this.positionCount > 0 ? Sector.fromDegrees(this.minLatitude, this.maxLatitude,
+            this.minLongitude, this.maxLongitude) : null;
+
+        return new GeoJSONPackedGeometry(fields.type, this.coordsPerPosition,
+            Arrays.copyOf(this.coords, this.coordsPerPosition * this.positionCount), partOffsets, ringGroups, sector);
+    }
+
+    /**
+     * Reads the value of a geometry's <code>coordinates</code> member into this iterator's coordinate arrays, replacing
+     * the coordinates of the previous geometry. The start token of the value has just been read.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected void readCoordinates() throws IOException
+    {
+        this.coordsPerPosition = 2;
+        this.positionCount = 0;
+        this.partCount = 0;
+        this.groupCount = 0;
+        this.minLatitude = Double.MAX_VALUE;
+        this.maxLatitude = -Double.MAX_VALUE;
+        this.minLongitude = Double.MAX_VALUE;
+        this.maxLongitude = -Double.MAX_VALUE;
+
+        // A point or a list of positions is a single part; a polygon is a single ring group.
+        int depth = this.readCoordinateArray();
+        if (depth <= 1)
+            this.endPart();
+        else if (depth == 2)
+            this.endGroup();
+    }
+
+    /**
+     * Reads a coordinate array whose start token has just been read, up to and including its end token. The array is
+     * either a position, or an array of coordinate arrays of equal depth. Parts end with each array of positions, and
+     * ring groups end with each array of parts.
+     *
+     * @return the array's depth: 0 for a position, 1 for an array of positions, 2 for an array of lines or rings, and
+     *         3 for an array of polygons.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected int readCoordinateArray() throws IOException
+    {
+        JsonToken token = this.nextToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT)
+        {
+            this.readPosition(token);
+            return 0;
+        }
+
+        int depth = 1; // An empty array is an empty part.
+        for (; token != JsonToken.END_ARRAY; token = this.nextToken())
+        {
+            if (token != JsonToken.START_ARRAY)
+            {
+                this.parser.skipChildren();
+                continue;
+            }
+
+            int childDepth = this.readCoordinateArray();
+            if (childDepth == 1)
+                this.endPart();
+            else if (childDepth == 2)
+                this.endGroup();
+            depth = childDepth + 1;
+        }
+
+        return depth;
+    }
+
+    /**
+     * Reads a position whose first coordinate has just been read, up to and including the position's end token, and
+     * appends it to the coordinate arrays. Coordinates beyond the altitude are ignored, and a position with fewer than
+     * two coordinates is skipped.
+     *
+     * @param token the token of the position's first coordinate.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected void readPosition(JsonToken token) throws IOException
+    {
+        double longitude = 0;
+        double latitude = 0;
+        double altitude = 0;
+        int count = 0;
+
+        for (; token != JsonToken.END_ARRAY; token = this.nextToken())
+        {
+            if (count < 3)
+            {
+                double value = this.readNumber(token);
+                if (count == 0)
+                    longitude = value;
+                else if (count == 1)
+                    latitude = value;
+                else
+                    altitude = value;
+            }
+            else
+            {
+                this.parser.skipChildren();
+            }
+            count++;
+        }
+
+        if (count < 2)
+            return;
+
+        if (count > 2 && this.coordsPerPosition == 2)
+            this.addAltitudes();
+
+        int index = this.coordsPerPosition * this.positionCount;
+        if (index + this.coordsPerPosition > this.coords.length)
+            this.coords = Arrays.copyOf(this.coords, 2 * this.coords.length);
+
+        this.coords[index] = longitude;
+        this.coords[index + 1] = latitude;
+        if (this.coordsPerPosition == 3)
+            this.coords[index + 2] = altitude;
+        this.positionCount++;
+
+        if (this.minLatitude > latitude)
+            this.minLatitude = latitude;
+        if (this.maxLatitude < latitude)
+            this.maxLatitude = latitude;
+        if (this.minLongitude > longitude)
+            this.minLongitude = longitude;
+        if (this.maxLongitude < longitude)
+            this.maxLongitude = longitude;
+    }
+
+    /**
+     * Converts the coordinates read so far from two to three coordinates per position, giving the positions read so
+     * far an altitude of 0.
+     */
+    protected void addAltitudes()
+    {
+        double[] newCoords = new double[Math.max(3 * this.positionCount + 3, this.coords.length * 3 / 2)];
+        for (int i = 0; i < this.positionCount; i++)
+        {
+            newCoords[3 * i] = this.coords[2 * i];
+            newCoords[3 * i + 1] = this.coords[2 * i + 1];
+        }
+
+        this.coords = newCoords;
+        this.coordsPerPosition = 3;
+    }
+
+    /** Ends the current part, unless it has no positions. */
+    protected void endPart()
+    {
+        if (this.partCount > 0 && this.partEnds[this.partCount - 1] == this.positionCount)
+            return;
+
+        if (this.partCount == this.partEnds.length)
+            this.partEnds = Arrays.copyOf(this.partEnds, 2 * this.partEnds.length);
+
+        this.partEnds[this.partCount++] = this.positionCount;
+    }
+
+    /** Ends the current ring group, unless it has no parts. */
+    protected void endGroup()
+    {
+        if (this.groupCount > 0 ? this.groupEnds[this.groupCount - 1] == this.partCount : this.partCount == 0)
+            return;
+
+        if (this.groupCount == this.groupEnds.length)
+            this.groupEnds = Arrays.copyOf(this.groupEnds, 2 * this.groupEnds.length);
+
+        this.groupEnds[this.groupCount++] = this.partCount;
+    }
+
+    /**
+     * Reads the value of a <code>bbox</code> member, whose start token has just been read.
+     *
+     * @return the bounding box as a sector, or null if the value is not a two or three dimensional bounding box. A
+     *         bounding box that crosses the antimeridian spans all longitudes.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected Sector readBoundingBox() throws IOException
+    {
+        double[] values = new double[6];
+        int count = 0;
+        for (JsonToken token = this.nextToken(); token != JsonToken.END_ARRAY; token = this.nextToken())
+        {
+            if (count < values.length && token.isNumeric())
+                values[count] = this.readNumber(token);
+            else
+                this.parser.skipChildren();
+            count++;
+        }
+
+        if (count != 4 && count != 6)
+            return null;
+
+        // The bounding box is the minimums of all axes followed by the maximums.
+        int dims = count / 2;
+        double west = values[0];
+        double east = values[dims];
+        if (west > east)
+        {
+            west = -180;
+            east = 180;
+        }
+
+        return Sector.fromDegrees(values[1], values[dims + 1], west, east);
+    }
+
+    /**
+     * Reads a scalar, object or array value whose first token has just been read. Objects are read as {@link AVList}s,
+     * arrays as <code>Object[]</code>s, and numbers as {@link Double}s, as {@link GeoJSONDoc} reads them.
+     *
+     * @param token the value's first token.
+     *
+     * @return the value.
+     *
+     * @throws IOException if an exception occurs while reading the document.
+     */
+    protected Object readValue(JsonToken token) throws IOException
+    {
+        switch (token)
+        {
+            case START_OBJECT:
+                AVList list = new AVListImpl();
+                for (token = this.nextToken(); token != JsonToken.END_OBJECT; token = this.nextToken())
+                {
+                    String name = this.parser.getCurrentName();
+                    list.setValue(name, this.readValue(this.nextToken()));
+                }
+                return list;
+            case START_ARRAY:
+                List<Object> array = new ArrayList<Object>();
+                for (token = this.nextToken(); token != JsonToken.END_ARRAY; token = this.nextToken())
+                {
+                    array.add(this.readValue(token));
+                }
+                return array.toArray(new Object[array.size()]);
+            case VALUE_NUMBER_FLOAT:
+            case VALUE_NUMBER_INT:
+                return this.readNumber(token);
+            case VALUE_STRING:
+                return this.parser.getText();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Converts the current number token to a double.
+     *
+     * @param token the number token.
+     *
+     * @return the number's value.
+     *
+     * @throws IOException if an exception occurs while reading the document, or if the token is not a number.
+     */
+    protected double readNumber(JsonToken token) throws IOException
+    {
+        // Convert floating point numbers from the parser's text buffer rather than from the string getDoubleValue
+        // creates.
+        if (token == JsonToken.VALUE_NUMBER_FLOAT)
+        {
+            return DoubleParser.parseDouble(this.parser.getTextCharacters(), this.parser.getTextOffset(),
+                this.parser.getTextLength());
+        }
+
+        return this.parser.getDoubleValue();
+    }
+
+    /**
+     * Reads the next token, failing if the document ends.
+     *
+     * @return the next token.
+     *
+     * @throws IOException if an exception occurs while reading the document, or if the document has ended.
+     */
+    protected JsonToken nextToken() throws IOException
+    {
+        JsonToken token = this.parser.nextToken();
+        if (token == null)
+            throw new EOFException(Logging.getMessage("generic.ExceptionWhileReading", this.displayName));
+
+        return token;
+    }
+
+    /**
+     * Indicates whether a sector passes this iterator's sector filter.
+     *
+     * @param sector the sector to test. May be null.
+     *
+     * @return true if this iterator has no filter sector, or if the sector intersects it.
+     */
+    protected boolean intersectsSector(Sector sector)
+    {
+        return this.sector == null || (sector != null && this.sector.intersects(sector));
+    }
+}
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+
+/**
+ * Displays the features of a GeoJSON document that is reloaded as it changes, such as a live feed rewritten every few
+ * seconds. Each call to {@link #update(Object)} reads the document again, computes a {@link GeoJSONFeatureDiff} against
+ * the previous load, and modifies only the shapes of features that were added, removed or changed. The shapes of
+ * unchanged features, including their attributes, highlight state and values, are kept from one load to the next.
+ * <p>
+ * Features are displayed as the GeoJSON loader example displays them: points as {@link PointPlacemark}s, lines as
+ * {@link SurfacePolyline}s or, if they have altitudes, {@link Path}s, and polygons as {@link SurfacePolygon}s or {@link
+ * Polygon}s. Each shape's {@link AVKey#PROPERTIES} value holds its feature's properties. A feature whose geometry
+ * changes keeps its shapes, which are given the new positions, when the new geometry is displayed by the same number
+ * and kinds of shapes. Otherwise its shapes are replaced.
+ * <p>
+ * A feature set is added to a {@link gov.nasa.worldwind.layers.RenderableLayer} as a single renderable. Its shapes are
+ * held by feature key, so a feature's shapes are removed without searching the others. Diffs may be computed on any
+ * thread by {@link #computeDiff(Object)}, but must be applied by {@link #applyDiff(GeoJSONFeatureDiff)} on the thread
+ * that renders the feature set, as other changes to shapes are.
+ */
+public class GeoJSONFeatureSet extends WWObjectImpl implements PreRenderable, Renderable
+{
+    protected Map<Object, GeoJSONPackedFeature> features = Collections.emptyMap();
+    protected Map<Object, List<Renderable>> renderables = new LinkedHashMap<Object, List<Renderable>>();
+    protected PointPlacemarkAttributes pointAttributes = new PointPlacemarkAttributes();
+    protected ShapeAttributes lineAttributes = new BasicShapeAttributes();
+    protected ShapeAttributes polygonAttributes = new BasicShapeAttributes();
+
+    /** Creates an empty feature set. Call {@link #update(Object)} to load its features. */
+    public GeoJSONFeatureSet()
+    {
+    }
+
+    /**
+     * Indicates the attributes of the placemarks created for point features.
+     *
+     * @return the point attributes.
+     */
+    public PointPlacemarkAttributes getPointAttributes()
+    {
+        return this.pointAttributes;
+    }
+
+    /**
+     * Specifies the attributes of the placemarks created for point features. Placemarks already created keep their
+     * attributes.
+     *
+     * @param attributes the point attributes. May be null to use the placemarks' default attributes.
+     */
+    public void setPointAttributes(PointPlacemarkAttributes attributes)
+    {
+        this.pointAttributes = attributes;
+    }
+
+    /**
+     * Indicates the attributes of the shapes created for line features.
+     *
+     * @return the line attributes.
+     */
+    public ShapeAttributes getLineAttributes()
+    {
+        return this.lineAttributes;
+    }
+
+    /**
+     * Specifies the attributes of the shapes created for line features. Shapes already created keep their attributes.
+     *
+     * @param attributes the line attributes. May be null to use the shapes' default attributes.
+     */
+    public void setLineAttributes(ShapeAttributes attributes)
+    {
+        this.lineAttributes = attributes;
+    }
+
+    /**
+     * Indicates the attributes of the shapes created for polygon features.
+     *
+     * @return the polygon attributes.
+     */
+    public ShapeAttributes getPolygonAttributes()
+    {
+        return this.polygonAttributes;
+    }
+
+    /**
+     * Specifies the attributes of the shapes created for polygon features. Shapes already created keep their
+     * attributes.
+     *
+     * @param attributes the polygon attributes. May be null to use the shapes' default attributes.
+     */
+    public void setPolygonAttributes(ShapeAttributes attributes)
+    {
+        this.polygonAttributes = attributes;
+    }
+
+    /**
+     * Returns the features of the most recent load.
+     *
+     * @return the features by key, in document order. The map must not be modified.
+     *
+     * @see GeoJSONFeatureDiff
+     */
+    public Map<Object, GeoJSONPackedFeature> getFeatures()
+    {
+        return this.features;
+    }
+
+    /**
+     * Returns the shapes displaying a feature.
+     *
+     * @param key the feature's key, its identifier if it has one.
+     *
+     * @return the feature's shapes, or null if the feature set holds no feature with the key.
+     */
+    public List<Renderable> getRenderables(Object key)
+    {
+        List<Renderable> list = this.renderables.get(key);
+        return list != null ? Collections.unmodifiableList(list) : null;
+    }
+
+    /**
+     * Reads a GeoJSON document and updates this feature set's shapes to display its features. Equivalent to calling
+     * {@link #computeDiff(Object)} followed by {@link #applyDiff(GeoJSONFeatureDiff)}.
+     *
+     * @param source either a {@link java.io.File}, a {@link java.net.URL}, or an {@link java.io.InputStream}, or a
+     *               {@link String} identifying a file path or URL.
+     *
+     * @return the changes applied.
+     *
+     * @throws IllegalArgumentException if the source is null.
+     * @throws gov.nasa.worldwind.exception.WWRuntimeException
+     *                                  if the document cannot be read.
+     */
+    public GeoJSONFeatureDiff update(Object source)
+    {
+        GeoJSONFeatureDiff diff = this.computeDiff(source);
+        this.applyDiff(diff);
+        return diff;
+    }
+
+    /**
+     * Reads a GeoJSON document and computes its difference from the features this feature set displays. This method
+     * does not modify the feature set, and may be called on any thread.
+     *
+     * @param source either a {@link java.io.File}, a {@link java.net.URL}, or an {@link java.io.InputStream}, or a
+     *               {@link String} identifying a file path or URL.
+     *
+     * @return the difference between the document and this feature set's features.
+     *
+     * @throws IllegalArgumentException if the source is null.
+     * @throws gov.nasa.worldwind.exception.WWRuntimeException
+     *                                  if the document cannot be read.
+     */
+    public GeoJSONFeatureDiff computeDiff(Object source)
+    {
+        GeoJSONFeatureIterator iterator = new GeoJSONFeatureIterator(source, null);
+        try
+        {
+            return this.computeDiff(iterator);
+        }
+        finally
+        {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Computes the difference between a sequence of features and the features this feature set displays. This method
+     * does not modify the feature set, and may be called on any thread.
+     *
+     * @param features the new features, in document order.
+     *
+     * @return the difference between the features and this feature set's features.
+     *
+     * @throws IllegalArgumentException if the iterator is null.
+     */
+    public GeoJSONFeatureDiff computeDiff(Iterator<GeoJSONPackedFeature> features)
+    {
+        return new GeoJSONFeatureDiff(this.features, features);
+    }
+
+    /**
+     * Modifies this feature set's shapes to display the features of a diff's new load. Only the shapes of added,
+     * removed and changed features are created, removed or modified.
+     *
+     * @param diff the diff to apply, computed against this feature set's current features.
+     *
+     * @throws IllegalArgumentException if the diff is null or was not computed against the current features.
+     */
+    public void applyDiff(GeoJSONFeatureDiff diff)
+    {
+        if (diff == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (diff.getPreviousFeatures() != this.features)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "diff");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        for (Object key : diff.getRemovedKeys())
+        {
+            this.renderables.remove(key);
+        }
+
+        Map<Object, GeoJSONPackedFeature> newFeatures = diff.getFeatures();
+        for (Object key : diff.getGeometryChangedKeys())
+        {
+            List<Renderable> list = this.renderables.get(key);
+            List<Renderable> newList = this.createRenderables(newFeatures.get(key));
+            if (!this.updateRenderables(list, newList))
+                this.renderables.put(key, newList);
+        }
+
+        for (Object key : diff.getPropertiesChangedKeys())
+        {
+            AVList properties = newFeatures.get(key).getProperties();
+            for (Renderable renderable : this.renderables.get(key))
+            {
+                setProperties(renderable, properties);
+            }
+        }
+
+        for (Object key : diff.getAddedKeys())
+        {
+            this.renderables.put(key, this.createRenderables(newFeatures.get(key)));
+        }
+
+        this.features = newFeatures;
+    }
+
+    public void preRender(DrawContext dc)
+    {
+        for (List<Renderable> list : this.renderables.values())
+        {
+            for (Renderable renderable : list)
+            {
+                if (renderable instanceof PreRenderable)
+                    ((PreRenderable) renderable).preRender(dc);
+            }
+        }
+    }
+
+    public void render(DrawContext dc)
+    {
+        for (List<Renderable> list : this.renderables.values())
+        {
+            for (Renderable renderable : list)
+            {
+                renderable.render(dc);
+            }
+        }
+    }
+
+    //**************************************************************//
+    //********************  Shape Construction  ********************//
+    //**************************************************************//
+
+    /**
+     * Creates the shapes displaying a feature.
+     *
+     * @param feature the feature.
+     *
+     * @return a new list of the feature's shapes. The list is empty if the feature has no geometry.
+     */
+    protected List<Renderable> createRenderables(GeoJSONPackedFeature feature)
+    {
+        List<Renderable> list = new ArrayList<Renderable>(1);
+        if (feature.getGeometry() != null)
+            this.addRenderables(feature.getGeometry(), list);
+
+        for (Renderable renderable : list)
+        {
+            setProperties(renderable, feature.getProperties());
+        }
+
+        return list;
+    }
+
+    protected void addRenderables(GeoJSONPackedGeometry geometry, List<Renderable> list)
+    {
+        if (geometry.isGeometryCollection())
+        {
+            for (GeoJSONPackedGeometry member : geometry.getGeometries())
+            {
+                this.addRenderables(member, list);
+            }
+        }
+        else if (geometry.isPoint())
+        {
+            for (int i = 0; i < geometry.getPositionCount(); i++)
+            {
+                list.add(this.createPoint(geometry.getPosition(i)));
+            }
+        }
+        else if (geometry.isLineString())
+        {
+            for (int i = 0; i < geometry.getPartCount(); i++)
+            {
+                list.add(this.createPolyline(getPositions(geometry, i)));
+            }
+        }
+        else if (geometry.isPolygon() && geometry.getPolygonRingGroups() != null)
+        {
+            int[] groups = geometry.getPolygonRingGroups();
+            for (int i = 0; i < groups.length; i++)
+            {
+                int end = i + 1 < groups.length ? groups[i + 1] : geometry.getPartCount();
+                List<List<Position>> boundaries = new ArrayList<List<Position>>(end - groups[i]);
+                for (int part = groups[i]; part < end; part++)
+                {
+                    boundaries.add(getPositions(geometry, part));
+                }
+
+                if (boundaries.size() > 0)
+                    list.add(this.createPolygon(boundaries));
+            }
+        }
+    }
+
+    protected Renderable createPoint(Position position)
+    {
+        PointPlacemark placemark = new PointPlacemark(position);
+        placemark.setAttributes(this.pointAttributes);
+        setPointAltitudeMode(placemark, position);
+        return placemark;
+    }
+
+    protected Renderable createPolyline(List<Position> positions)
+    {
+        if (hasNonzeroAltitude(positions))
+        {
+            Path path = new Path(positions);
+            path.setAltitudeMode(WorldWind.ABSOLUTE);
+            path.setAttributes(this.lineAttributes);
+            return path;
+        }
+        else
+        {
+            return new SurfacePolyline(this.lineAttributes, positions);
+        }
+    }
+
+    protected Renderable createPolygon(List<List<Position>> boundaries)
+    {
+        if (hasNonzeroAltitude(boundaries.get(0)))
+        {
+            Polygon polygon = new Polygon(boundaries.get(0));
+            polygon.setAttributes(this.polygonAttributes);
+            for (int i = 1; i < boundaries.size(); i++)
+            {
+                polygon.addInnerBoundary(boundaries.get(i));
+            }
+            return polygon;
+        }
+        else
+        {
+            SurfacePolygon polygon = new SurfacePolygon(this.polygonAttributes, boundaries.get(0));
+            for (int i = 1; i < boundaries.size(); i++)
+            {
+                polygon.addInnerBoundary(boundaries.get(i));
+            }
+            return polygon;
+        }
+    }
+
+    /**
+     * Gives a feature's existing shapes the positions of newly created shapes, if the two lists hold the same number
+     * and kinds of shapes.
+     *
+     * @param renderables    the feature's existing shapes.
+     * @param newRenderables shapes created for the feature's new geometry.
+     *
+     * @return true if the existing shapes were modified, false if they must be replaced by the new shapes.
+     */
+    protected boolean updateRenderables(List<Renderable> renderables, List<Renderable> newRenderables)
+    {
+        if (renderables.size() != newRenderables.size())
+            return false;
+
+        for (int i = 0; i < renderables.size(); i++)
+        {
+            if (renderables.get(i).getClass() != newRenderables.get(i).getClass())
+                return false;
+        }
+
+        for (int i = 0; i < renderables.size(); i++)
+        {
+            this.updateRenderable(renderables.get(i), newRenderables.get(i));
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void updateRenderable(Renderable renderable, Renderable source)
+    {
+        if (renderable instanceof PointPlacemark)
+        {
+            PointPlacemark placemark = (PointPlacemark) renderable;
+            placemark.setPosition(((PointPlacemark) source).getPosition());
+            setPointAltitudeMode(placemark, placemark.getPosition());
+        }
+        else if (renderable instanceof Path)
+        {
+            ((Path) renderable).setPositions(((Path) source).getPositions());
+        }
+        else if (renderable instanceof SurfacePolyline)
+        {
+            ((SurfacePolyline) renderable).setLocations(((SurfacePolyline) source).getLocations());
+        }
+        else if (renderable instanceof Polygon)
+        {
+            // Polygon has no method to remove inner boundaries, so truncate its boundary list before adding the new
+            // ones. Setting the outer boundary then resets the shape.
+            Polygon polygon = (Polygon) renderable;
+            List<List<? extends Position>> boundaries = ((Polygon) source).getBoundaries();
+            polygon.getBoundaries().subList(1, polygon.getBoundaries().size()).clear();
+            for (int i = 1; i < boundaries.size(); i++)
+            {
+                polygon.addInnerBoundary(boundaries.get(i));
+            }
+            polygon.setOuterBoundary(boundaries.get(0));
+        }
+        else if (renderable instanceof SurfacePolygon)
+        {
+            SurfacePolygon polygon = (SurfacePolygon) renderable;
+            List<Iterable<? extends LatLon>> boundaries = ((SurfacePolygon) source).getBoundaries();
+            polygon.getBoundaries().clear();
+            for (Iterable<? extends LatLon> boundary : boundaries)
+            {
+                if (polygon.getBoundaries().isEmpty())
+                    polygon.setOuterBoundary(boundary);
+                else
+                    polygon.addInnerBoundary(boundary);
+            }
+        }
+    }
+
+    protected static void setPointAltitudeMode(PointPlacemark placemark, Position position)
+    {
+        if (position.getAltitude() != 0)
+        {
+            placemark.setAltitudeMode(WorldWind.ABSOLUTE);
+            placemark.setLineEnabled(true);
+        }
+        else
+        {
+            placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
+            placemark.setLineEnabled(false);
+        }
+    }
+
+    protected static void setProperties(Renderable renderable, AVList properties)
+    {
+        if (!(renderable instanceof AVList))
+            return;
+
+        if (properties != null)
+            ((AVList) renderable).setValue(AVKey.PROPERTIES, properties);
+        else
+            ((AVList) renderable).removeKey(AVKey.PROPERTIES);
+    }
+
+    protected static List<Position> getPositions(GeoJSONPackedGeometry geometry, int part)
+    {
+        int start = geometry.getPartStart(part);
+        int length = geometry.getPartLength(part);
+
+        List<Position> positions = new ArrayList<Position>(length);
+        for (int i = start; i < start + length; i++)
+        {
+            positions.add(geometry.getPosition(i));
+        }
+
+        return positions;
+    }
+
+    protected static boolean hasNonzeroAltitude(List<Position> positions)
+    {
+        for (Position position : positions)
+        {
+            if (position.getAltitude() != 0)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * A GeoJSON feature read by {@link GeoJSONFeatureIterator}, holding its identifier, its properties, and its geometry in
+ * packed form. A bare geometry read as a document's root object is returned as a feature with no identifier or
+ * properties.
+ */
+public class GeoJSONPackedFeature
+{
+    protected final Object id;
+    protected final AVList properties;
+    protected final GeoJSONPackedGeometry geometry;
+
+    /**
+     * Creates a feature.
+     *
+     * @param id         the feature's identifier, a string or a number. May be null.
+     * @param properties the feature's properties. May be null.
+     * @param geometry   the feature's geometry. May be null.
+     */
+    public GeoJSONPackedFeature(Object id, AVList properties, GeoJSONPackedGeometry geometry)
+    {
+        this.id = id;
+        this.properties = properties;
+        this.geometry = geometry;
+    }
+
+    /**
+     * Returns the feature's identifier.
+     *
+     * @return the identifier, a {@link String} or a {@link Double}, or null if the feature has no identifier.
+     */
+    public Object getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * Returns the feature's properties. Numeric values are {@link Double}s, nested objects are {@link AVList}s, and
+     * arrays are <code>Object[]</code>s, as in the properties of a {@link GeoJSONFeature}.
+     *
+     * @return the properties, or null if the feature has no properties or they were not read.
+     */
+    public AVList getProperties()
+    {
+        return this.properties;
+    }
+
+    /**
+     * Returns the feature's geometry.
+     *
+     * @return the geometry, or null if the feature has no geometry.
+     */
+    public GeoJSONPackedGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Returns the sector bounding the feature's geometry.
+     *
+     * @return the bounding sector, or null if the feature has no positions.
+     */
+    public Sector getSector()
+    {
+        return this.geometry != null ? this.geometry.getSector() : null;
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.nio.DoubleBuffer;
+import java.util.*;
+
+/**
+ * A GeoJSON geometry whose coordinates are stored in a packed array rather than as {@link Position} objects. Created
+ * by {@link GeoJSONFeatureIterator}.
+ * <p>
+ * Positions are stored one after another as longitude, latitude and, when {@link #getCoordsPerPosition()} is 3,
+ * altitude, the order GeoJSON and {@link VecBuffer} use. The positions are divided into parts: a line string, a polygon
+ * ring, or the points of a point or multi-point geometry. Polygon and multi-polygon geometries also record the first
+ * part of each polygon, its outer boundary, in the form {@link
+ * gov.nasa.worldwind.render.SurfacePolygons#setPolygonRingGroups(int[])} accepts. A geometry collection has no
+ * positions of its own; its member geometries are returned by {@link #getGeometries()}.
+ */
+public class GeoJSONPackedGeometry
+{
+    protected final String type;
+    protected final int coordsPerPosition;
+    protected final double[] coords;
+    protected final int[] partOffsets;
+    protected final int[] polygonRingGroups;
+    protected final List<GeoJSONPackedGeometry> geometries;
+    protected final Sector sector;
+
+    /**
+     * Creates a geometry with positions.
+     *
+     * @param type              the GeoJSON geometry type, such as {@link GeoJSONConstants#TYPE_POLYGON}.
+     * @param coordsPerPosition the number of coordinates per position, 2 or 3.
+     * @param coords            the packed coordinates. The array is retained, not copied.
+     * @param partOffsets       the index of each part's first position, followed by the number of positions. The array
+     *                          is retained, not copied.
+     * @param polygonRingGroups the index of each polygon's first part. May be null if the geometry is not a polygon or
+     *                          multi-polygon. The array is retained, not copied.
+     * @param sector            the sector bounding the positions. May be null if the geometry has no positions.
+     *
+     * @throws IllegalArgumentException if the coordinates or part offsets are null, or the number of coordinates per
+     *                                  position is not 2 or 3.
+     */
+    public GeoJSONPackedGeometry(String type, int coordsPerPosition, double[] coords, int[] partOffsets,
+        int[] polygonRingGroups, Sector sector)
+    {
+        if (coordsPerPosition < 2 || coordsPerPosition > 3)
+        {
+            String message = Logging.getMessage("generic.InvalidTupleSize", coordsPerPosition);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (coords == null || partOffsets == null || partOffsets.length == 0)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.type = type;
+        this.coordsPerPosition = coordsPerPosition;
+        this.coords = coords;
+        this.partOffsets = partOffsets;
+        this.polygonRingGroups = polygonRingGroups;
+        this.geometries = Collections.emptyList();
+        this.sector = sector;
+    }
+
+    /**
+     * Creates a geometry collection.
+     *
+     * @param geometries the member geometries.
+     * @param sector     the sector bounding the members' positions. May be null if the members have no positions.
+     *
+     * @throws IllegalArgumentException if the list of geometries is null.
+     */
+    public GeoJSONPackedGeometry(List<GeoJSONPackedGeometry> geometries, Sector sector)
+    {
+        if (geometries == null)
+        {
+            String message = Logging.getMessage("nullValue.ListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.type = GeoJSONConstants.TYPE_GEOMETRY_COLLECTION;
+        this.coordsPerPosition = 2;
+        this.coords = new double[0];
+        this.partOffsets = new int[] {0};
+        this.polygonRingGroups = null;
+        this.geometries = Collections.unmodifiableList(geometries);
+        this.sector = sector;
+    }
+
+    /**
+     * Returns the GeoJSON type of this geometry.
+     *
+     * @return the geometry type, or null if the geometry did not specify one.
+     */
+    public String getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Indicates whether this geometry is a point or multi-point.
+     *
+     * @return true if this geometry's positions are points.
+     */
+    public boolean isPoint()
+    {
+        return GeoJSONConstants.TYPE_POINT.equals(this.type) || GeoJSONConstants.TYPE_MULTI_POINT.equals(this.type);
+    }
+
+    /**
+     * Indicates whether this geometry is a line string or multi-line string.
+     *
+     * @return true if this geometry's parts are lines.
+     */
+    public boolean isLineString()
+    {
+        return GeoJSONConstants.TYPE_LINE_STRING.equals(this.type)
+            || GeoJSONConstants.TYPE_MULTI_LINE_STRING.equals(this.type);
+    }
+
+    /**
+     * Indicates whether this geometry is a polygon or multi-polygon.
+     *
+     * @return true if this geometry's parts are polygon rings.
+     */
+    public boolean isPolygon()
+    {
+        return GeoJSONConstants.TYPE_POLYGON.equals(this.type)
+            || GeoJSONConstants.TYPE_MULTI_POLYGON.equals(this.type);
+    }
+
+    /**
+     * Indicates whether this geometry is a geometry collection.
+     *
+     * @return true if this geometry is a collection of other geometries.
+     */
+    public boolean isGeometryCollection()
+    {
+        return GeoJSONConstants.TYPE_GEOMETRY_COLLECTION.equals(this.type);
+    }
+
+    /**
+     * Returns the number of coordinates per position: 2 if no position has an altitude, otherwise 3. Positions without
+     * an altitude have an altitude of 0 in a geometry with 3 coordinates per position.
+     *
+     * @return the number of coordinates per position.
+     */
+    public int getCoordsPerPosition()
+    {
+        return this.coordsPerPosition;
+    }
+
+    /**
+     * Returns the packed coordinates. The array is not copied and must not be modified.
+     *
+     * @return the coordinates of all positions, one position after another.
+     */
+    public double[] getCoords()
+    {
+        return this.coords;
+    }
+
+    /**
+     * Returns the number of positions in this geometry, not including the positions of a collection's members.
+     *
+     * @return the number of positions.
+     */
+    public int getPositionCount()
+    {
+        return this.partOffsets[this.partOffsets.length - 1];
+    }
+
+    /**
+     * Returns the number of parts in this geometry.
+     *
+     * @return the number of parts.
+     */
+    public int getPartCount()
+    {
+        return this.partOffsets.length - 1;
+    }
+
+    /**
+     * Returns the index of a part's first position.
+     *
+     * @param part the part index.
+     *
+     * @return the index of the part's first position.
+     */
+    public int getPartStart(int part)
+    {
+        return this.partOffsets[part];
+    }
+
+    /**
+     * Returns the number of positions in a part.
+     *
+     * @param part the part index.
+     *
+     * @return the number of positions in the part.
+     */
+    public int getPartLength(int part)
+    {
+        return this.partOffsets[part + 1] - this.partOffsets[part];
+    }
+
+    /**
+     * Returns the index of the first part of each polygon. The array is not copied and must not be modified.
+     *
+     * @return the polygons' first part indices, or null if this geometry is not a polygon or multi-polygon.
+     */
+    public int[] getPolygonRingGroups()
+    {
+        return this.polygonRingGroups;
+    }
+
+    /**
+     * Returns the member geometries of a geometry collection.
+     *
+     * @return the member geometries. The list is empty if this geometry is not a geometry collection.
+     */
+    public List<GeoJSONPackedGeometry> getGeometries()
+    {
+        return this.geometries;
+    }
+
+    /**
+     * Returns the sector bounding this geometry's positions, including the positions of a collection's members.
+     *
+     * @return the bounding sector, or null if the geometry has no positions.
+     */
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    /**
+     * Returns the longitude of a position.
+     *
+     * @param index the position index.
+     *
+     * @return the position's longitude, in degrees.
+     */
+    public double getLongitude(int index)
+    {
+        return this.coords[this.coordsPerPosition * index];
+    }
+
+    /**
+     * Returns the latitude of a position.
+     *
+     * @param index the position index.
+     *
+     * @return the position's latitude, in degrees.
+     */
+    public double getLatitude(int index)
+    {
+        return this.coords[this.coordsPerPosition * index + 1];
+    }
+
+    /**
+     * Returns the altitude of a position.
+     *
+     * @param index the position index.
+     *
+     * @return the position's altitude, in meters, or 0 if the geometry's positions have no altitude.
+     */
+    public double getAltitude(int index)
+    {
+        return this.coordsPerPosition == 3 ? this.coords[3 * index + 2] : 0;
+    }
+
+    /**
+     * Creates a position from the packed coordinates.
+     *
+     * @param index the position index.
+     *
+     * @return a new position.
+     */
+    public Position getPosition(int index)
+    {
+        return Position.fromDegrees(this.getLatitude(index), this.getLongitude(index), this.getAltitude(index));
+    }
+
+    /**
+     * Creates a compound buffer with one sub-buffer per part, in the form {@link
+     * gov.nasa.worldwind.render.SurfacePolylines} and {@link gov.nasa.worldwind.render.SurfacePolygons} accept. The
+     * buffer holds a copy of the positions' longitude and latitude.
+     *
+     * @return the geometry's parts as a compound buffer.
+     */
+    public CompoundVecBuffer createCompoundBuffer()
+    {
+        DoubleBuffer coordBuffer = DoubleBuffer.allocate(2 * this.getPositionCount());
+        VecBufferSequence buffer = new VecBufferSequence(
+            new VecBuffer(2, new BufferWrapper.DoubleBufferWrapper(coordBuffer)), Math.max(this.getPartCount(), 1));
+
+        VecBuffer source = this.createVecBuffer();
+        for (int i = 0; i < this.getPartCount(); i++)
+        {
+            buffer.append(source.getSubBuffer(this.getPartStart(i), this.getPartLength(i)));
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Creates a buffer over this geometry's positions holding longitude and latitude only. The buffer shares this
+     * geometry's coordinates when they have no altitude, and otherwise holds a copy.
+     *
+     * @return a vector buffer with 2 coordinates per vector.
+     */
+    public VecBuffer createVecBuffer()
+    {
+        if (this.coordsPerPosition == 2)
+            return new VecBuffer(2, new BufferWrapper.DoubleBufferWrapper(DoubleBuffer.wrap(this.coords)));
+
+        int count = this.getPositionCount();
+        double[] lonLat = new double[2 * count];
+        for (int i = 0; i < count; i++)
+        {
+            lonLat[2 * i] = this.coords[3 * i];
+            lonLat[2 * i + 1] = this.coords[3 * i + 1];
+        }
+
+        return new VecBuffer(2, new BufferWrapper.DoubleBufferWrapper(DoubleBuffer.wrap(lonLat)));
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+            return true;
+        if (o == null || this.getClass() != o.getClass())
+            return false;
+
+        GeoJSONPackedGeometry that = (GeoJSONPackedGeometry) o;
+        return this.coordsPerPosition == that.coordsPerPosition
+            && (this.type != null ? this.type.equals(that.type) : that.type == null)
+            && Arrays.equals(this.partOffsets, that.partOffsets)
+            && Arrays.equals(this.polygonRingGroups, that.polygonRingGroups)
+            && Arrays.equals(this.coords, that.coords)
+            && this.geometries.equals(that.geometries);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = this.type != null ? this.type.hashCode() : 0;
+        result = 31 * result + this.coordsPerPosition;
+        result = 31 * result + Arrays.hashCode(this.partOffsets);
+        result = 31 * result + Arrays.hashCode(this.coords);
+        result = 31 * result + this.geometries.hashCode();
+        return result;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.*;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Collects the polygons and lines of many {@link GeoJSONPackedFeature}s into one {@link SurfacePolygons} and one {@link
+ * SurfacePolylines}, so that a large document read with {@link GeoJSONFeatureIterator} is drawn by a few batched
+ * shapes instead of a shape per feature. Points are not collected.
+ * <p>
+ * Polygon rings are copied into a single buffer with one ring group per polygon, and are reoriented as they are copied
+ * so that outer boundaries run counter-clockwise and holes run clockwise, whatever the orientation in the document.
+ * Line strings are copied into a second buffer. The shapes returned by {@link #createSurfacePolygons()} and {@link
+ * #createSurfacePolylines()} use the builder's buffers; call {@link #clear()} before collecting another batch.
+ */
+public class GeoJSONSurfaceShapeBuilder
+{
+    protected static final int DEFAULT_BUFFER_CAPACITY = 4096;
+
+    protected VecBufferSequence polygonBuffer;
+    protected int[] polygonRingGroups;
+    protected int polygonCount;
+    protected Sector polygonSector;
+    protected VecBufferSequence lineBuffer;
+    protected Sector lineSector;
+    /** Scratch space for copying a ring before it is appended to the polygon buffer. */
+    protected double[] ringCoords;
+
+    /** Creates an empty builder. */
+    public GeoJSONSurfaceShapeBuilder()
+    {
+        this.clear();
+    }
+
+    /** Removes all collected polygons and lines. Shapes already created keep their geometry. */
+    public void clear()
+    {
+        this.polygonBuffer = createBuffer();
+        this.polygonRingGroups = new int[16];
+        this.polygonCount = 0;
+        this.polygonSector = null;
+        this.lineBuffer = createBuffer();
+        this.lineSector = null;
+    }
+
+    /**
+     * Returns the number of polygons collected.
+     *
+     * @return the number of polygons.
+     */
+    public int getPolygonCount()
+    {
+        return this.polygonCount;
+    }
+
+    /**
+     * Returns the number of line strings collected.
+     *
+     * @return the number of line strings.
+     */
+    public int getLineCount()
+    {
+        return this.lineBuffer.size();
+    }
+
+    /**
+     * Adds the polygons and lines of a feature's geometry.
+     *
+     * @param feature the feature to add.
+     *
+     * @throws IllegalArgumentException if the feature is null.
+     */
+    public void addFeature(GeoJSONPackedFeature feature)
+    {
+        if (feature == null)
+        {
+            String message = Logging.getMessage("nullValue.FeatureIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (feature.getGeometry() != null)
+            this.addGeometry(feature.getGeometry());
+    }
+
+    /**
+     * Adds the polygons and lines of a geometry, including the members of a geometry collection.
+     *
+     * @param geometry the geometry to add.
+     *
+     * @throws IllegalArgumentException if the geometry is null.
+     */
+    public void addGeometry(GeoJSONPackedGeometry geometry)
+    {
+        if (geometry == null)
+        {
+            String message = Logging.getMessage("nullValue.GeometryIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (geometry.isGeometryCollection())
+        {
+            for (GeoJSONPackedGeometry member : geometry.getGeometries())
+            {
+                this.addGeometry(member);
+            }
+        }
+        else if (geometry.isPolygon())
+        {
+            this.addPolygons(geometry);
+        }
+        else if (geometry.isLineString())
+        {
+            VecBuffer coords = geometry.createVecBuffer();
+            for (int i = 0; i < geometry.getPartCount(); i++)
+            {
+                this.lineBuffer.append(coords.getSubBuffer(geometry.getPartStart(i), geometry.getPartLength(i)));
+            }
+            this.lineSector = Sector.union(this.lineSector, geometry.getSector());
+        }
+    }
+
+    /**
+     * Creates a shape drawing the polygons collected so far.
+     *
+     * @return a shape drawing the polygons, or null if no polygons have been collected.
+     */
+    public SurfacePolygons createSurfacePolygons()
+    {
+        if (this.polygonCount == 0)
+            return null;
+
+        SurfacePolygons shape = new SurfacePolygons(this.polygonSector, this.polygonBuffer);
+        shape.setWindingRule(AVKey.COUNTER_CLOCKWISE);
+        shape.setPolygonRingGroups(Arrays.copyOf(this.polygonRingGroups, this.polygonCount));
+
+        return shape;
+    }
+
+    /**
+     * Creates a shape drawing the line strings collected so far.
+     *
+     * @return a shape drawing the line strings, or null if no line strings have been collected.
+     */
+    public SurfacePolylines createSurfacePolylines()
+    {
+        if (this.lineBuffer.size() == 0)
+            return null;
+
+        return new SurfacePolylines(this.lineSector, this.lineBuffer);
+    }
+
+    protected void addPolygons(GeoJSONPackedGeometry geometry)
+    {
+        int[] ringGroups = geometry.getPolygonRingGroups();
+        double[] coords = geometry.getCoords();
+        int coordsPerPosition = geometry.getCoordsPerPosition();
+
+        for (int group = 0; group < ringGroups.length; group++)
+        {
+            int firstRing = ringGroups[group];
+            int lastRing = group < ringGroups.length - 1 ? ringGroups[group + 1] : geometry.getPartCount();
+
+            if (this.polygonCount == this.polygonRingGroups.length)
+                this.polygonRingGroups = Arrays.copyOf(this.polygonRingGroups, 2 * this.polygonCount);
+            this.polygonRingGroups[this.polygonCount++] = this.polygonBuffer.size();
+
+            for (int ring = firstRing; ring < lastRing; ring++)
+            {
+                int start = geometry.getPartStart(ring);
+                int length = geometry.getPartLength(ring);
+
+                // Outer boundaries run counter-clockwise, which gives them a positive area.
+                boolean reverse = (ring == firstRing) != (computeArea(coords, coordsPerPosition, start, length) > 0);
+                this.polygonBuffer.append(this.copyRing(coords, coordsPerPosition, start, length, reverse));
+            }
+        }
+
+        this.polygonSector = Sector.union(this.polygonSector, geometry.getSector());
+    }
+
+    protected static VecBufferSequence createBuffer()
+    {
+        DoubleBuffer buffer = DoubleBuffer.allocate(2 * DEFAULT_BUFFER_CAPACITY);
+        return new VecBufferSequence(new VecBuffer(2, new BufferWrapper.DoubleBufferWrapper(buffer)));
+    }
+
+    /**
+     * Computes twice the signed area of a ring in longitude and latitude.
+     *
+     * @return the ring's signed area, positive if the ring runs counter-clockwise.
+     */
+    protected static double computeArea(double[] coords, int coordsPerPosition, int start, int length)
+    {
+        double area = 0;
+        for (int i = 0; i < length; i++)
+        {
+            int a = coordsPerPosition * (start + i);
+            int b = coordsPerPosition * (start + (i + 1) % length);
+            area += coords[a] * coords[b + 1] - coords[b] * coords[a + 1];
+        }
+
+        return area;
+    }
+
+    /**
+     * Copies the longitude and latitude of a ring's positions to a buffer, optionally in reverse order. The returned
+     * buffer is only valid until the next call.
+     */
+    protected VecBuffer copyRing(double[] coords, int coordsPerPosition, int start, int length, boolean reverse)
+    {
+        if (this.ringCoords == null || this.ringCoords.length < 2 * length)
+            this.ringCoords = new double[Math.max(2 * length, 1024)];
+
+        for (int i = 0; i < length; i++)
+        {
+            int src = coordsPerPosition * (start + (reverse ? length - 1 - i : i));
+            this.ringCoords[2 * i] = coords[src];
+            this.ringCoords[2 * i + 1] = coords[src + 1];
+        }
+
+        VecBuffer buffer = new VecBuffer(2, new BufferWrapper.DoubleBufferWrapper(DoubleBuffer.wrap(this.ringCoords)));
+        return buffer.getSubBuffer(0, length);
+    }
+}
@@ -226,6 +226,9 @@ public class BasicJSONEventParser implements JSONEventParser
 
     protected Object resolveArray(JSONEventParserContext ctx, JSONEvent event)
     {
+        if (this.array == null) // The array is empty.
+            return new Object[0];
+
         return this.array.toArray(new Object[this.array.size()]);
     }
 
@@ -27,7 +27,7 @@
  */
 package gov.nasa.worldwind.formats.json;
 
-import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.*;
 import org.codehaus.jackson.*;
 
 import java.io.IOException;
@@ -130,7 +130,13 @@ public class BasicJSONEventParserContext implements JSONEventParserContext
 
     protected JSONEvent createEvent(JsonToken token) throws IOException
     {
-        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT)
+        if (token == JsonToken.VALUE_NUMBER_FLOAT)
+        {
+            // Convert the number from the parser's text buffer rather than from the string getDoubleValue creates.
+            return new NumericValueJSONEvent(this.parser.getCurrentName(), DoubleParser.parseDouble(
+                this.parser.getTextCharacters(), this.parser.getTextOffset(), this.parser.getTextLength()));
+        }
+        else if (token == JsonToken.VALUE_NUMBER_INT)
         {
             return new NumericValueJSONEvent(this.parser.getCurrentName(), this.parser.getDoubleValue());
         }
@@ -112,7 +112,8 @@ public class GeoSymSupport
 
         this.filePath = filePath;
         this.imageSuffix = WWIO.makeSuffixForMimeType(symbolMimeType);
-        this.featureMap = new HashMap<FeatureKey, List<? extends VPFSymbolKey>>();
+        // VPFLayer assembles tiles on several threads, which share this map.
+        this.featureMap = Collections.synchronizedMap(new HashMap<FeatureKey, List<? extends VPFSymbolKey>>());
 
         this.loadAssignment(filePath);
 
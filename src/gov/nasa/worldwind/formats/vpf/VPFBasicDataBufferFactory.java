@@ -684,6 +684,7 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
     {
         protected int coordsPerElem;
         protected int bytesPerCoord;
+        protected ByteBuffer tmpBuffer;
 
         public AbstractVecReader(int coordsPerElem, int bytesPerCoord)
         {
@@ -705,7 +706,7 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
             try
             {
                 byteBuffer.limit(limit);
-                BufferWrapper newBuffer = this.doRead(byteBuffer);
+                BufferWrapper newBuffer = this.doRead(byteBuffer.isReadOnly() ? this.copyOf(byteBuffer) : byteBuffer);
                 vecBuffer = new VecBuffer(this.coordsPerElem, newBuffer);
             }
             finally
@@ -718,6 +719,29 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
         }
 
         protected abstract BufferWrapper doRead(ByteBuffer byteBuffer);
+
+        /**
+         * Copies the remaining bytes of a read-only buffer, such as a memory-mapped table, into a scratch buffer.
+         * Readers replace null coordinates in the buffer they read, which they cannot do in a read-only buffer. The
+         * scratch buffer is reused, because a {@link VecBufferSequence} copies each vector it appends.
+         *
+         * @param byteBuffer the buffer to copy.
+         *
+         * @return the scratch buffer, with the same contents and byte order as the buffer's remaining bytes.
+         */
+        protected ByteBuffer copyOf(ByteBuffer byteBuffer)
+        {
+            int length = byteBuffer.remaining();
+            if (this.tmpBuffer == null || this.tmpBuffer.capacity() < length)
+                this.tmpBuffer = ByteBuffer.allocateDirect(length);
+
+            this.tmpBuffer.clear();
+            this.tmpBuffer.order(byteBuffer.order());
+            this.tmpBuffer.put(byteBuffer.duplicate());
+            this.tmpBuffer.flip();
+
+            return this.tmpBuffer;
+        }
     }
 
     protected static class ShortVecReader extends AbstractVecReader
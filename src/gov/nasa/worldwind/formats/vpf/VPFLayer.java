@@ -29,6 +29,7 @@ package gov.nasa.worldwind.formats.vpf;
 
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.AbstractLayer;
 import gov.nasa.worldwind.render.*;
@@ -37,9 +38,15 @@ import gov.nasa.worldwind.util.*;
 import java.beans.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.logging.Level;
 
 /**
  * Renders elements from a VPF database.
+ * <p>
+ * The layer assembles the symbols of each visible coverage tile in the background, on a pool with one thread for each
+ * available processor, so that tiles are decoded and assembled in parallel. Assembled symbols are held in a cache
+ * bounded by their estimated memory, which evicts the least recently used tiles. Each frame draws the tiles whose
+ * symbols are ready, and requests the rest.
  *
  * @author Patrick Murris
  * @version $Id: VPFLayer.java 1171 2013-02-11 21:45:02Z dcollins $
@@ -48,6 +55,8 @@ public class VPFLayer extends AbstractLayer
 {
     public static final String LIBRARY_CHANGED = "VPFLayer.LibraryChanged";
     public static final String COVERAGE_CHANGED = "VPFLayer.CoverageChanged";
+    /** The default capacity of the tile symbol cache, in bytes. */
+    public static final long DEFAULT_SYMBOL_CACHE_CAPACITY = 64L * 1024 * 1024;
 
     // Reference
     protected VPFDatabase db;
@@ -68,6 +77,13 @@ public class VPFLayer extends AbstractLayer
     // Threaded requests
     protected Queue<Runnable> requestQ = new PriorityBlockingQueue<Runnable>(4);
     protected Queue<Disposable> disposalQ = new ConcurrentLinkedQueue<Disposable>();
+    protected Set<Runnable> pendingRequests = Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+    protected int maxPendingRequests = 2 * Runtime.getRuntime().availableProcessors();
+    protected ExecutorService executor;
+    protected boolean ownsExecutor;
+
+    // Assembled tile symbols, keyed by coverage and tile
+    protected MemoryCache symbolCache;
 
     // --- Inner classes ----------------------------------------------------------------------
 
@@ -192,23 +208,11 @@ public class VPFLayer extends AbstractLayer
         protected boolean enabled = false;
         protected VPFLayer layer;
         protected VPFCoverage coverage;
-        protected Map<VPFTile, VPFSymbolCollection> tileCache;
 
         public VPFCoverageRenderable(VPFLayer layer, VPFCoverage coverage)
         {
             this.layer = layer;
             this.coverage = coverage;
-            this.tileCache = Collections.synchronizedMap(new BoundedHashMap<VPFTile, VPFSymbolCollection>(6, true)
-            {
-                protected boolean removeEldestEntry(Map.Entry<VPFTile, VPFSymbolCollection> eldest)
-                {
-                    if (!super.removeEldestEntry(eldest))
-                        return false;
-
-                    dispose(eldest.getValue());
-                    return true;
-                }
-            });
         }
 
         public void assembleSymbols(Iterable<? extends VPFTile> tiles)
@@ -230,7 +234,8 @@ public class VPFLayer extends AbstractLayer
 
         protected void doAssembleSymbols(VPFTile tile)
         {
-            VPFSymbolCollection symbolCollection = this.tileCache.get(tile);
+            VPFSymbolCollection symbolCollection = (VPFSymbolCollection) this.layer.symbolCache.getObject(
+                new TileKey(this, tile));
             if (symbolCollection != null)
             {
                 this.layer.symbols.addAll(symbolCollection.getSymbols());
@@ -240,23 +245,35 @@ public class VPFLayer extends AbstractLayer
                 this.layer.requestQ.add(new RequestTask(this, tile));
             }
         }
-
-        protected void dispose(VPFSymbolCollection renderInfo)
-        {
-            this.layer.disposalQ.add(renderInfo);
-        }
     }
 
-    protected static class VPFSymbolCollection implements Disposable
+    protected static class VPFSymbolCollection implements Disposable, Cacheable
     {
         public static final VPFSymbolCollection EMPTY_SYMBOL_COLLECTION = new VPFSymbolCollection(null);
+        /** Estimated memory held by one symbol and its map object, apart from the primitive data they share. */
+        protected static final long SYMBOL_SIZE_ESTIMATE = 512;
 
         protected final ArrayList<VPFSymbol> symbols = new ArrayList<VPFSymbol>();
+        protected final long sizeInBytes;
 
         public VPFSymbolCollection(Collection<? extends VPFSymbol> symbols)
+        {
+            this(symbols, 0);
+        }
+
+        /**
+         * Creates a collection of the symbols of one coverage tile.
+         *
+         * @param symbols           the tile's symbols. May be null.
+         * @param primitiveDataSize the size in bytes of the primitive data the symbols were created from, whose
+         *                          coordinates the symbols share.
+         */
+        public VPFSymbolCollection(Collection<? extends VPFSymbol> symbols, long primitiveDataSize)
         {
             if (symbols != null)
                 this.symbols.addAll(symbols);
+
+            this.sizeInBytes = primitiveDataSize + (1 + this.symbols.size()) * SYMBOL_SIZE_ESTIMATE;
         }
 
         public Collection<VPFSymbol> getSymbols()
@@ -279,6 +296,43 @@ public class VPFLayer extends AbstractLayer
 
             this.symbols.clear();
         }
+
+        public long getSizeInBytes()
+        {
+            return this.sizeInBytes;
+        }
+    }
+
+    /** Identifies the symbols of one tile of one coverage in the symbol cache. */
+    protected static class TileKey
+    {
+        protected final VPFCoverageRenderable coverageRenderable;
+        protected final VPFTile tile;
+
+        public TileKey(VPFCoverageRenderable coverageRenderable, VPFTile tile)
+        {
+            this.coverageRenderable = coverageRenderable;
+            this.tile = tile;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            TileKey that = (TileKey) o;
+            return this.coverageRenderable == that.coverageRenderable
+                && (this.tile != null ? this.tile.equals(that.tile) : that.tile == null);
+        }
+
+        public int hashCode()
+        {
+            int result = System.identityHashCode(this.coverageRenderable);
+            result = 31 * result + (this.tile != null ? this.tile.hashCode() : 0);
+            return result;
+        }
     }
 
     protected VPFSymbolCollection loadTileSymbols(VPFCoverage coverage, VPFTile tile)
@@ -308,7 +362,7 @@ public class VPFLayer extends AbstractLayer
                 list.addAll(symbols);
         }
 
-        return new VPFSymbolCollection(list);
+        return new VPFSymbolCollection(list, primitiveData.getSizeInBytes());
     }
 
     protected static class RequestTask implements Runnable, Comparable<RequestTask>
@@ -324,11 +378,35 @@ public class VPFLayer extends AbstractLayer
 
         public void run()
         {
-            VPFSymbolCollection symbols = this.coverageRenderable.layer.loadTileSymbols(
-                this.coverageRenderable.coverage, (this.tile != NULL_TILE) ? this.tile : null);
+            VPFLayer layer = this.coverageRenderable.layer;
 
-            this.coverageRenderable.tileCache.put(this.tile, symbols);
-            this.coverageRenderable.layer.firePropertyChange(AVKey.LAYER, null, this.coverageRenderable.layer);
+            try
+            {
+                VPFSymbolCollection symbols;
+                try
+                {
+                    symbols = layer.loadTileSymbols(this.coverageRenderable.coverage,
+                        (this.tile != NULL_TILE) ? this.tile : null);
+                }
+                catch (Exception e)
+                {
+                    // Cache nothing for a tile that cannot be loaded, rather than requesting it again every frame.
+                    String message = Logging.getMessage("VPF.ExceptionAttemptingToLoadTileSymbols",
+                        this.coverageRenderable.coverage.getName(), this.tile);
+                    Logging.logger().log(Level.SEVERE, message, e);
+                    symbols = VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION;
+                }
+
+                // A tile larger than the cache displaces every other tile, rather than being reloaded every frame.
+                long size = Math.min(symbols.getSizeInBytes(), layer.symbolCache.getCapacity());
+                layer.symbolCache.add(new TileKey(this.coverageRenderable, this.tile), symbols, size);
+            }
+            finally
+            {
+                layer.pendingRequests.remove(this);
+            }
+
+            layer.firePropertyChange(AVKey.LAYER, null, layer);
         }
 
         /**
@@ -396,6 +474,7 @@ public class VPFLayer extends AbstractLayer
     {
         this.setName("VPF Layer");
         this.setPickEnabled(false);
+        this.symbolCache = this.createSymbolCache(DEFAULT_SYMBOL_CACHE_CAPACITY);
         if (db != null)
             this.setVPFDatabase(db);
 
@@ -403,6 +482,29 @@ public class VPFLayer extends AbstractLayer
         this.textRenderer.setEffect(AVKey.TEXT_EFFECT_OUTLINE);
     }
 
+    /**
+     * Creates a layer that assembles tile symbols using a specified executor. The layer does not shut down the executor
+     * when it's disposed.
+     *
+     * @param db       the database to display. May be null.
+     * @param executor the executor used to assemble tile symbols.
+     *
+     * @throws IllegalArgumentException if the executor is null.
+     */
+    public VPFLayer(VPFDatabase db, ExecutorService executor)
+    {
+        this(db);
+
+        if (executor == null)
+        {
+            String message = Logging.getMessage("nullValue.ExecutorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.executor = executor;
+    }
+
     public VPFDatabase getVPFDatabase()
     {
         return this.db;
@@ -451,12 +553,75 @@ public class VPFLayer extends AbstractLayer
         }
     }
 
+    /**
+     * Indicates the capacity of the cache holding assembled tile symbols.
+     *
+     * @return the symbol cache capacity, in bytes.
+     */
+    public long getSymbolCacheCapacity()
+    {
+        return this.symbolCache.getCapacity();
+    }
+
+    /**
+     * Specifies the capacity of the cache holding assembled tile symbols. When the cache is full, the symbols of the
+     * least recently drawn tiles are evicted. The default is {@link #DEFAULT_SYMBOL_CACHE_CAPACITY}.
+     *
+     * @param capacity the symbol cache capacity, in bytes.
+     *
+     * @throws IllegalArgumentException if the capacity is less than 1.
+     */
+    public void setSymbolCacheCapacity(long capacity)
+    {
+        if (capacity < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "capacity < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // The cache accepts only a low water level below its capacity, so set the capacity first.
+        this.symbolCache.setCapacity(capacity);
+        this.symbolCache.setLowWater((long) (0.8 * capacity));
+    }
+
+    /**
+     * Indicates the number of tiles assembled at once.
+     *
+     * @return the maximum number of tiles being assembled.
+     */
+    public int getMaxPendingRequests()
+    {
+        return this.maxPendingRequests;
+    }
+
+    /**
+     * Specifies the number of tiles assembled at once. Tiles beyond this number are requested again on a later frame,
+     * if they are still visible. The default is twice the number of available processors.
+     *
+     * @param maxPendingRequests the maximum number of tiles being assembled.
+     *
+     * @throws IllegalArgumentException if the number is less than 1.
+     */
+    public void setMaxPendingRequests(int maxPendingRequests)
+    {
+        if (maxPendingRequests < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "maxPendingRequests < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.maxPendingRequests = maxPendingRequests;
+    }
+
     public void doPreRender(DrawContext dc)
     {
+        // Handle object disposal. Symbols evicted from the cache are disposed before the renderables lists, which may
+        // refer to them, are assembled again.
+        this.handleDisposal();
         // Assemble renderables lists
         this.assembleRenderables(dc);
-        // Handle object disposal.
-        this.handleDisposal();
 
         // Pre render renderable objects.
         for (Renderable r : this.renderableObjects)
@@ -553,10 +718,75 @@ public class VPFLayer extends AbstractLayer
         Runnable task;
         while ((task = this.requestQ.poll()) != null)
         {
-            if (!WorldWind.getTaskService().isFull())
+            // Skip tiles that are already being assembled, and tiles beyond the pending limit. Tiles that are still
+            // visible are requested again on the next frame.
+            if (this.pendingRequests.size() < this.maxPendingRequests && this.pendingRequests.add(task))
+            {
+                try
+                {
+                    this.getExecutor().execute(task);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    this.pendingRequests.remove(task);
+                }
+            }
+        }
+    }
+
+    protected MemoryCache createSymbolCache(long capacity)
+    {
+        MemoryCache cache = new BasicMemoryCache((long) (0.8 * capacity), capacity);
+        cache.setName("VPF Tile Symbols");
+        cache.addCacheListener(new MemoryCache.CacheListener()
+        {
+            public void entryRemoved(Object key, Object clientObject)
             {
-                WorldWind.getTaskService().addTask(task);
+                // Dispose evicted symbols on the rendering thread.
+                if (clientObject instanceof Disposable)
+                    disposalQ.add((Disposable) clientObject);
             }
+
+            public void removalException(Throwable e, Object key, Object clientObject)
+            {
+                String msg = Logging.getMessage("BasicMemoryCache.ExceptionFromRemovalListener", e.getMessage());
+                Logging.logger().log(Level.INFO, msg);
+            }
+        });
+
+        return cache;
+    }
+
+    public void dispose()
+    {
+        if (this.ownsExecutor && this.executor != null)
+        {
+            this.executor.shutdown();
+            this.executor = null;
         }
+
+        this.symbolCache.clear();
+        this.handleDisposal();
+    }
+
+    protected synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory()
+                {
+                    public Thread newThread(Runnable runnable)
+                    {
+                        Thread thread = new Thread(runnable, "WorldWind VPF Tile Assembler");
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                });
+            this.ownsExecutor = true;
+        }
+
+        return this.executor;
     }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Record data of a VPF table that is read from a memory-mapped table file as its columns are used. Opening the table
+ * reads only its header. A column's values are decoded for every record when the column is first requested, and then
+ * held as they are in {@link VPFBufferedRecordData}. Columns that are never requested, such as the attributes of
+ * feature classes that are not displayed, are never decoded.
+ * <p>
+ * Records are located using the table's variable-length index file, which is also memory-mapped, or, for a table whose
+ * columns all have a fixed length, by computing each record's offset from the record length. Created by {@link
+ * VPFMappedTableReader}.
+ */
+public class VPFMappedRecordData extends VPFBufferedRecordData
+{
+    protected final String tableName;
+    protected final ByteBuffer buffer;
+    protected final VPFTableReader.Column[] columns;
+    /** The table's variable-length index, or null if the records have a fixed length. */
+    protected final ByteBuffer indexBuffer;
+    protected final int bodyOffset;
+    protected final int recordLength;
+    protected final Set<String> columnNames = new LinkedHashSet<String>();
+    protected final Set<String> decodedColumns = new HashSet<String>();
+
+    /**
+     * Creates record data for a table whose records are located by a variable-length index.
+     *
+     * @param tableName   the table's file path, used in messages.
+     * @param buffer      the table file's bytes, in the table's byte order.
+     * @param columns     the table's column definitions.
+     * @param indexBuffer the variable-length index file's bytes, in little-endian order.
+     */
+    public VPFMappedRecordData(String tableName, ByteBuffer buffer, VPFTableReader.Column[] columns,
+        ByteBuffer indexBuffer)
+    {
+        this(tableName, buffer, columns, indexBuffer, 0, 0, indexBuffer.getInt(0));
+    }
+
+    /**
+     * Creates record data for a table whose records have a fixed length.
+     *
+     * @param tableName    the table's file path, used in messages.
+     * @param buffer       the table file's bytes, in the table's byte order.
+     * @param columns      the table's column definitions.
+     * @param bodyOffset   the offset of the first record.
+     * @param recordLength the length of each record, in bytes.
+     * @param numRecords   the number of records.
+     */
+    public VPFMappedRecordData(String tableName, ByteBuffer buffer, VPFTableReader.Column[] columns, int bodyOffset,
+        int recordLength, int numRecords)
+    {
+        this(tableName, buffer, columns, null, bodyOffset, recordLength, numRecords);
+    }
+
+    protected VPFMappedRecordData(String tableName, ByteBuffer buffer, VPFTableReader.Column[] columns,
+        ByteBuffer indexBuffer, int bodyOffset, int recordLength, int numRecords)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (columns == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.tableName = tableName;
+        this.buffer = buffer;
+        this.columns = columns;
+        this.indexBuffer = indexBuffer;
+        this.bodyOffset = bodyOffset;
+        this.recordLength = recordLength;
+        this.setNumRecords(numRecords);
+
+        for (VPFTableReader.Column column : columns)
+        {
+            this.columnNames.add(column.name);
+        }
+    }
+
+    /**
+     * Indicates whether a column's values have been decoded.
+     *
+     * @param parameterName the column name.
+     *
+     * @return true if the column has been decoded or its data has been specified, otherwise false.
+     */
+    public synchronized boolean isDecoded(String parameterName)
+    {
+        return this.decodedColumns.contains(parameterName);
+    }
+
+    @Override
+    public synchronized Iterable<String> getRecordParameterNames()
+    {
+        Set<String> names = new LinkedHashSet<String>(this.columnNames);
+        for (String name : super.getRecordParameterNames())
+        {
+            names.add(name);
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public synchronized VPFDataBuffer getRecordData(String parameterName)
+    {
+        this.decodeColumn(parameterName);
+        return super.getRecordData(parameterName);
+    }
+
+    @Override
+    public synchronized void setRecordData(String parameterName, VPFDataBuffer dataBuffer)
+    {
+        super.setRecordData(parameterName, dataBuffer);
+
+        // Data specified by the application replaces the table's column data.
+        if (parameterName != null)
+            this.decodedColumns.add(parameterName);
+    }
+
+    @Override
+    public synchronized VPFRecord getRecord(String parameterName, Object value)
+    {
+        this.decodeColumn(parameterName);
+        return super.getRecord(parameterName, value);
+    }
+
+    @Override
+    public synchronized boolean buildRecordIndex(String parameterName)
+    {
+        this.decodeColumn(parameterName);
+        return super.buildRecordIndex(parameterName);
+    }
+
+    /**
+     * Returns the offset of a record in the table file.
+     *
+     * @param id the record's row id, starting at 1.
+     *
+     * @return the offset of the record's first byte.
+     */
+    protected int getRecordOffset(int id)
+    {
+        if (this.indexBuffer != null)
+            return this.indexBuffer.getInt(8 * id); // Each entry is an offset and a length, after an 8 byte header.
+        else
+            return this.bodyOffset + indexFromId(id) * this.recordLength;
+    }
+
+    /**
+     * Decodes a column's values for every record, if the table has the column and it has not already been decoded.
+     *
+     * @param parameterName the column name.
+     *
+     * @throws WWRuntimeException if the column cannot be read.
+     */
+    protected synchronized void decodeColumn(String parameterName)
+    {
+        if (parameterName == null || this.decodedColumns.contains(parameterName)
+            || !this.columnNames.contains(parameterName))
+            return;
+
+        int col = 0;
+        while (!this.columns[col].name.equals(parameterName))
+        {
+            col++;
+        }
+
+        try
+        {
+            super.setRecordData(parameterName, this.readColumn(col));
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("VPF.ExceptionAttemptingToReadColumn", parameterName, this.tableName);
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+        finally
+        {
+            this.decodedColumns.add(parameterName);
+        }
+
+        // Index the columns VPFTableReader indexes when it reads a whole table.
+        if (!parameterName.equals(VPFConstants.ID) && (parameterName.equals(VPFConstants.PRIMARY_KEY)
+            || parameterName.equals(VPFConstants.UNIQUE_KEY)))
+        {
+            super.buildRecordIndex(parameterName);
+        }
+    }
+
+    protected VPFDataBuffer readColumn(int col)
+    {
+        VPFTableReader.Column column = this.columns[col];
+        VPFDataType type = VPFDataType.fromTypeName(column.dataType);
+        VPFDataBuffer dataBuffer = type.createDataBuffer(this.getNumRecords(), column.numElements);
+        boolean variableLength = column.isVariableLengthField();
+
+        // The column's offset within each record is fixed if the columns before it have a fixed length.
+        int fixedOffset = 0;
+        int firstVariableColumn = -1;
+        for (int i = 0; i < col && firstVariableColumn < 0; i++)
+        {
+            if (this.columns[i].isVariableLengthField())
+                firstVariableColumn = i;
+            else
+                fixedOffset += this.columns[i].getFieldLength();
+        }
+
+        ByteBuffer byteBuffer = this.buffer.duplicate().order(this.buffer.order());
+        for (int id = 1; id <= this.getNumRecords(); id++)
+        {
+            byteBuffer.position(this.getRecordOffset(id) + fixedOffset);
+
+            if (firstVariableColumn >= 0)
+            {
+                for (int i = firstVariableColumn; i < col; i++)
+                {
+                    skipField(byteBuffer, this.columns[i]);
+                }
+            }
+
+            if (variableLength)
+                dataBuffer.read(byteBuffer);
+            else
+                dataBuffer.read(byteBuffer, column.numElements);
+        }
+
+        return dataBuffer;
+    }
+
+    /**
+     * Advances a buffer past one record's value of a column. See MIL-STD-2407, section 5.4.1.1.
+     *
+     * @param buffer the table data, positioned at the value.
+     * @param column the column definition.
+     */
+    protected static void skipField(ByteBuffer buffer, VPFTableReader.Column column)
+    {
+        VPFDataType type = VPFDataType.fromTypeName(column.dataType);
+        if (type == VPFDataType.TRIPLET_ID)
+        {
+            // A triplet id is a type byte followed by three ids, each of 0, 1, 2 or 4 bytes as given by the type.
+            int bits = buffer.get();
+            int length = fieldLength(bits >> 6) + fieldLength(bits >> 4) + fieldLength(bits >> 2);
+            buffer.position(buffer.position() + length);
+        }
+        else if (column.isVariableLengthField())
+        {
+            int numElements = buffer.getInt();
+            buffer.position(buffer.position() + numElements * type.getFieldLength());
+        }
+        else
+        {
+            buffer.position(buffer.position() + column.getFieldLength());
+        }
+    }
+
+    protected static int fieldLength(int bitCount)
+    {
+        switch (bitCount & 3)
+        {
+            case 1:
+                return 1;
+            case 2:
+                return 2;
+            case 3:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+}
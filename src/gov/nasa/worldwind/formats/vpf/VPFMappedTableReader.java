@@ -0,0 +1,112 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.nio.*;
+
+/**
+ * Reads VPF tables into {@link VPFMappedRecordData}, which memory-maps the table file and decodes each column when it
+ * is first used. Opening a table reads only its header, so opening a database, library or coverage does not depend on
+ * the size of its tables. {@link VPFUtils#readTable(java.io.File)} reads tables with this reader.
+ * <p>
+ * A table with variable-length columns must have a variable-length index file, as for {@link VPFTableReader}. The
+ * index file is also memory-mapped, and its entries are read as records are located.
+ */
+public class VPFMappedTableReader extends VPFTableReader
+{
+    public VPFMappedTableReader()
+    {
+    }
+
+    @Override
+    protected ByteBuffer readFileToBuffer(File file) throws IOException
+    {
+        ByteBuffer buffer = WWIO.mapFile(file);
+        buffer.order(ByteOrder.LITTLE_ENDIAN); // Default to least significant byte first order.
+        return buffer;
+    }
+
+    @Override
+    protected VPFBufferedRecordData doRead(File file, ByteBuffer buffer)
+    {
+        // Read the table header.
+        Header header = this.readHeader(buffer);
+        // Set the byte ordering to the ordering specified by the table header.
+        buffer.order(header.byteOrder);
+        Column[] columns = header.columns != null ? header.columns : new Column[0];
+
+        // Attempt to find a variable-length record index according to the file naming convention in
+        // DIGEST Part 2 Annex C.2.3.1.2
+        File recordIndexFile = new File(file.getParent(), getRecordIndexFilename(file.getName()));
+        if (recordIndexFile.exists())
+        {
+            ByteBuffer indexBuffer = this.mapRecordIndex(recordIndexFile);
+            return new VPFMappedRecordData(file.getPath(), buffer, columns, indexBuffer);
+        }
+
+        // If there is no record index, then attempt to compute the record length from the header's column definitions.
+        int recordLength = 0;
+        for (Column col : columns)
+        {
+            // If any column contains a variable length field, then we cannot read the table body.
+            if (col.isVariableLengthField())
+            {
+                String message = Logging.getMessage("VPF.VariableLengthIndexFileMissing");
+                Logging.logger().severe(message);
+                throw new WWRuntimeException(message);
+            }
+
+            recordLength += col.getFieldLength();
+        }
+
+        // Body offset is size of header length field (4 bytes) plus the length of the header content.
+        int bodyOffset = 4 + header.length;
+        int numRecords = recordLength > 0 ? (buffer.limit() - bodyOffset) / recordLength : 0;
+
+        return new VPFMappedRecordData(file.getPath(), buffer, columns, bodyOffset, recordLength, numRecords);
+    }
+
+    protected ByteBuffer mapRecordIndex(File file)
+    {
+        try
+        {
+            return this.readFileToBuffer(file); // Index files are always least significant byte first.
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("VPF.ExceptionAttemptingToReadRecordIndex", file.getPath());
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+}
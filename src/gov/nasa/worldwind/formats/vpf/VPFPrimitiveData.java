@@ -27,6 +27,7 @@
  */
 package gov.nasa.worldwind.formats.vpf;
 
+import gov.nasa.worldwind.cache.Cacheable;
 import gov.nasa.worldwind.util.*;
 
 import java.util.*;
@@ -35,7 +36,7 @@ import java.util.*;
  * @author dcollins
  * @version $Id: VPFPrimitiveData.java 1171 2013-02-11 21:45:02Z dcollins $
  */
-public class VPFPrimitiveData
+public class VPFPrimitiveData implements Cacheable
 {
     public interface PrimitiveInfo
     {
@@ -221,4 +222,76 @@ public class VPFPrimitiveData
     {
         this.primitiveStrings.put(name, strings);
     }
+
+    /**
+     * Returns an estimate of the memory held by this primitive data: its coordinate buffers, its primitive info and
+     * its strings. Symbols created from this data share its coordinate buffers.
+     *
+     * @return the estimated size of this primitive data, in bytes.
+     */
+    public long getSizeInBytes()
+    {
+        long size = 0;
+
+        for (VecBufferSequence coords : this.primitiveCoords.values())
+        {
+            if (coords != null)
+                size += coords.getVecBuffer().getBufferWrapper().getSizeInBytes();
+        }
+
+        for (PrimitiveInfo[] info : this.primitiveInfo.values())
+        {
+            if (info == null)
+                continue;
+
+            for (PrimitiveInfo pi : info)
+            {
+                size += getSizeInBytes(pi);
+            }
+        }
+
+        for (CompoundStringBuilder strings : this.primitiveStrings.values())
+        {
+            if (strings == null)
+                continue;
+
+            for (int i = 0; i < strings.size(); i++)
+            {
+                size += 2 * strings.substringLength(i);
+            }
+        }
+
+        return size;
+    }
+
+    protected static long getSizeInBytes(PrimitiveInfo info)
+    {
+        // Object and bounding box overhead, plus the edge fields or the face rings.
+        long size = 64;
+
+        if (info instanceof FaceInfo)
+        {
+            FaceInfo face = (FaceInfo) info;
+            size += getSizeInBytes(face.getOuterRing());
+
+            if (face.getInnerRings() != null)
+            {
+                for (Ring ring : face.getInnerRings())
+                {
+                    size += getSizeInBytes(ring);
+                }
+            }
+        }
+        else if (info instanceof EdgeInfo)
+        {
+            size += 32;
+        }
+
+        return size;
+    }
+
+    protected static long getSizeInBytes(Ring ring)
+    {
+        return (ring != null) ? 48 + 8 * ring.getNumEdges() : 0;
+    }
 }
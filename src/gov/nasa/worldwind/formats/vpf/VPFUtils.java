@@ -56,7 +56,7 @@ public class VPFUtils
 
         try
         {
-            VPFTableReader tableReader = new VPFTableReader();
+            VPFTableReader tableReader = new VPFMappedTableReader();
             return tableReader.read(file);
         }
         catch (WWRuntimeException e)
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.DoubleBuffer;
+import java.util.*;
+
+/**
+ * A list of positions stored as packed latitude, longitude and elevation values rather than as {@link Position}
+ * objects. Each position occupies three doubles, a fraction of the memory of a <code>Position</code> and its two
+ * <code>Angle</code>s, which matters for documents holding millions of coordinates. {@link #get(int)} creates a new
+ * <code>Position</code> on each call; callers that process many positions can read the packed values with {@link
+ * #getLatitude(int)}, {@link #getLongitude(int)} and {@link #getElevation(int)} or {@link #getBuffer()} instead.
+ * <p>
+ * Positions are added with {@link #add(double, double, double)}. The list supports no other modification.
+ */
+public class PackedPositionList extends AbstractList<Position> implements RandomAccess
+{
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    /** The positions' latitude, longitude and elevation, in degrees and meters, one position after another. */
+    protected double[] coords;
+    protected int size;
+
+    /** Creates an empty list. */
+    public PackedPositionList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with space for a specified number of positions.
+     *
+     * @param capacity the number of positions the list can hold before it must grow.
+     *
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public PackedPositionList(int capacity)
+    {
+        if (capacity < 0)
+        {
+            String message = Logging.getMessage("generic.CapacityIsInvalid", capacity);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.coords = new double[3 * capacity];
+    }
+
+    /**
+     * Adds a position to the end of the list.
+     *
+     * @param latitude  the position's latitude, in degrees.
+     * @param longitude the position's longitude, in degrees.
+     * @param elevation the position's elevation, in meters.
+     */
+    public void add(double latitude, double longitude, double elevation)
+    {
+        if (3 * this.size == this.coords.length)
+            this.coords = Arrays.copyOf(this.coords, Math.max(3 * DEFAULT_CAPACITY, 2 * this.coords.length));
+
+        int i = 3 * this.size++;
+        this.coords[i] = latitude;
+        this.coords[i + 1] = longitude;
+        this.coords[i + 2] = elevation;
+        this.modCount++;
+    }
+
+    /** Reduces the list's storage to the space needed for its current positions. */
+    public void trimToSize()
+    {
+        if (this.coords.length > 3 * this.size)
+            this.coords = Arrays.copyOf(this.coords, 3 * this.size);
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public Position get(int index)
+    {
+        this.checkIndex(index);
+
+        int i = 3 * index;
+        return Position.fromDegrees(this.coords[i], this.coords[i + 1], this.coords[i + 2]);
+    }
+
+    /**
+     * Returns the latitude of a position.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's latitude, in degrees.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getLatitude(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[3 * index];
+    }
+
+    /**
+     * Returns the longitude of a position.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's longitude, in degrees.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getLongitude(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[3 * index + 1];
+    }
+
+    /**
+     * Returns the elevation of a position.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's elevation, in meters.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getElevation(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[3 * index + 2];
+    }
+
+    /**
+     * Returns a read-only buffer over the packed positions. The buffer holds each position's latitude and longitude in
+     * degrees followed by its elevation in meters. Positions added after the buffer is created are not included in
+     * it.
+     *
+     * @return a buffer of the packed positions.
+     */
+    public DoubleBuffer getBuffer()
+    {
+        return DoubleBuffer.wrap(this.coords, 0, 3 * this.size).slice().asReadOnlyBuffer();
+    }
+
+    protected void checkIndex(int index)
+    {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException(Logging.getMessage("generic.indexOutOfRange", index));
+    }
+}
@@ -605,6 +605,54 @@ public class EllipsoidalGlobe extends WWObjectImpl implements Globe
         return this.geodeticToCartesian(latitude, longitude, metersElevation);
     }
 
+    /**
+     * Computes the Cartesian point corresponding to a geographic position given in degrees, and stores it in an array
+     * rather than returning a new {@link Vec4}. The result is identical to that of {@link
+     * #computePointFromPosition(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, double)}, but this method
+     * does not allocate, and is intended for code that converts many positions per frame. Subclasses that override
+     * {@link #geodeticToCartesian(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, double)} must also
+     * override this method.
+     *
+     * @param latitude        the position's latitude, in degrees.
+     * @param longitude       the position's longitude, in degrees.
+     * @param metersElevation the number of meters above or below mean sea level.
+     * @param result          the array in which to store the point's x, y and z coordinates.
+     * @param offset          the index in the result array at which to store the x coordinate.
+     *
+     * @throws IllegalArgumentException if the result array is null or too short to hold three values at the offset.
+     */
+    public void computePointFromPosition(double latitude, double longitude, double metersElevation, double[] result,
+        int offset)
+    {
+        if (result == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (offset < 0 || offset + 3 > result.length)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "offset=" + offset);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double latRadians = Math.toRadians(latitude);
+        double lonRadians = Math.toRadians(longitude);
+        double cosLat = Math.cos(latRadians);
+        double sinLat = Math.sin(latRadians);
+        double cosLon = Math.cos(lonRadians);
+        double sinLon = Math.sin(lonRadians);
+
+        // See geodeticToEllipsoidal.
+        double rpm = this.equatorialRadius / Math.sqrt(1.0 - this.es * sinLat * sinLat);
+
+        result[offset] = (rpm + metersElevation) * cosLat * sinLon;
+        result[offset + 1] = (rpm * (1.0 - this.es) + metersElevation) * sinLat;
+        result[offset + 2] = (rpm + metersElevation) * cosLat * cosLon;
+    }
+
     public Position computePositionFromPoint(Vec4 point)
     {
         if (point == null)
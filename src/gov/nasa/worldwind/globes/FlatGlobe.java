@@ -393,6 +393,36 @@ public class FlatGlobe extends EllipsoidalGlobe implements Globe2D
         return super.getElevation(latitude, longitude);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation delegates to the globe's projection, which allocates a point per call.
+     */
+    @Override
+    public void computePointFromPosition(double latitude, double longitude, double metersElevation, double[] result,
+        int offset)
+    {
+        if (result == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (offset < 0 || offset + 3 > result.length)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "offset=" + offset);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Vec4 point = this.geodeticToCartesian(Angle.fromDegrees(latitude), Angle.fromDegrees(longitude),
+            metersElevation);
+        result[offset] = point.x;
+        result[offset + 1] = point.y;
+        result[offset + 2] = point.z;
+    }
+
     /**
      * Maps a position to a flat world Cartesian coordinates. The world plane is located at the origin and has UNIT-Z as
      * normal. The Y axis points to the north pole. The Z axis points up. The X axis completes a right-handed coordinate
@@ -31,6 +31,7 @@ import com.jogamp.opengl.util.texture.TextureData;
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.data.tiles.TileSource;
 import gov.nasa.worldwind.event.BulkRetrievalListener;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.formats.dds.*;
@@ -58,6 +59,9 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
     // Layer resource properties.
     protected static final int RESOURCE_ID_OGC_CAPABILITIES = 1;
 
+    protected TileImageDecoder imageDecoder;
+    protected TileSource tileSource;
+
     public BasicTiledImageLayer(LevelSet levelSet) {
         super(levelSet);
     }
@@ -125,7 +129,11 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         if (b != null)
             this.setUseTransparentTextures(b);
 
-        Object o = params.getValue(AVKey.URL_CONNECT_TIMEOUT);
+        Object o = params.getValue(AVKey.TILE_SOURCE);
+        if (o instanceof TileSource)
+            this.setTileSource((TileSource) o);
+
+        o = params.getValue(AVKey.URL_CONNECT_TIMEOUT);
         if (o != null)
             this.setValue(AVKey.URL_CONNECT_TIMEOUT, o);
 
@@ -213,7 +221,58 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
             params.setValue(AVKey.NUM_EMPTY_LEVELS, 0);
     }
 
+    /**
+     * Indicates the decoder used to read non-DDS tile images. See {@link #setImageDecoder(TileImageDecoder)}.
+     *
+     * @return the layer's image decoder, or null if the layer reads tile images through JOGL's texture readers.
+     */
+    public TileImageDecoder getImageDecoder() {
+        return this.imageDecoder;
+    }
+
+    /**
+     * Specifies a decoder used to read non-DDS tile images. When a decoder is specified, tile images are decoded
+     * directly into pooled buffers in their OpenGL upload format, and are compressed to DXT on the loading thread if
+     * the layer's texture format is <code>image/dds</code>. The layer's file lock is held only while the encoded image
+     * is read from the file store, so images are decoded concurrently by the loading threads. DDS tile images are
+     * always read through JOGL's texture readers.
+     * <p>
+     * Layers may share a decoder. A decoder's decode-time histograms are available from {@link
+     * TileImageDecoder#getDecodeTimes()} and {@link TileImageDecoder#getCompressionTimes()}.
+     *
+     * @param imageDecoder the decoder to use, or null to read tile images through JOGL's texture readers.
+     */
+    public void setImageDecoder(TileImageDecoder imageDecoder) {
+        this.imageDecoder = imageDecoder;
+    }
+
+    /**
+     * Indicates the tile source the layer reads its tiles from. See {@link #setTileSource(TileSource)}.
+     *
+     * @return the layer's tile source, or null if the layer reads tiles from its file store.
+     */
+    public TileSource getTileSource() {
+        return this.tileSource;
+    }
+
+    /**
+     * Specifies a tile source the layer reads its tiles from. When a tile source is specified, the layer reads each
+     * tile's image directly from the source instead of from the file store, and does not retrieve tiles the source
+     * does not contain. The tile source may also be specified with the {@link AVKey#TILE_SOURCE} construction
+     * parameter. The layer does not dispose the tile source.
+     *
+     * @param tileSource the tile source, or null to read tiles from the file store.
+     */
+    public void setTileSource(TileSource tileSource) {
+        this.tileSource = tileSource;
+    }
+
     protected void forceTextureLoad(TextureTile tile) {
+        if (this.getTileSource() != null) {
+            this.loadTextureFromSource(tile);
+            return;
+        }
+
         final URL textureURL = this.getDataFileStore().findFile(tile.getPath(), true);
 
         if (textureURL != null && !this.isTextureFileExpired(tile, textureURL, this.getDataFileStore())) {
@@ -248,6 +307,16 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
             if (Thread.currentThread().isInterrupted())
                 return; // the task was cancelled because it's a duplicate or for some other reason
 
+            if (this.layer.getTileSource() != null) {
+                if (this.layer.loadTextureFromSource(this.tile)) {
+                    this.layer.getLevels().unmarkResourceAbsent(this.tile);
+                    this.layer.firePropertyChange(AVKey.LAYER, null, this);
+                } else {
+                    this.layer.getLevels().markResourceAbsent(this.tile);
+                }
+                return;
+            }
+
             final java.net.URL textureURL = this.layer.getDataFileStore().findFile(tile.getPath(), false);
             if (textureURL != null && !this.layer.isTextureFileExpired(tile, textureURL, this.layer.getDataFileStore())) {
                 if (this.layer.loadTexture(tile, textureURL)) {
@@ -313,15 +382,26 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
     }
 
     protected boolean loadTexture(TextureTile tile, java.net.URL textureURL) {
+        PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+        boolean recordMetrics = metrics.isEnabled();
+        long start = recordMetrics ? System.nanoTime() : 0;
         TextureData textureData;
 
-        synchronized (this.fileLock) {
-            textureData = readTexture(textureURL, this.getTextureFormat(), this.isUseMipMaps());
+        TileImageDecoder decoder = this.getImageDecoder();
+        if (decoder != null && !textureURL.toString().toLowerCase().endsWith("dds")) {
+            textureData = this.decodeTexture(decoder, textureURL, this.getTextureFormat(), this.isUseMipMaps());
+        } else {
+            synchronized (this.fileLock) {
+                textureData = readTexture(textureURL, this.getTextureFormat(), this.isUseMipMaps());
+            }
         }
 
         if (textureData == null)
             return false;
 
+        if (recordMetrics)
+            metrics.record(PerformanceMetrics.IMAGE_TILE_LOAD_TIME, System.nanoTime() - start);
+
         tile.setTextureData(textureData);
         if (tile.getLevelNumber() != 0 || !this.isRetainLevelZeroTiles())
             this.addTileToCache(tile);
@@ -371,6 +451,104 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         }
     }
 
+    /**
+     * Reads the encoded image at the specified URL and decodes it with the specified decoder. The layer's file lock is
+     * held only while the encoded bytes are read. The image is compressed to DXT if <code>textureFormat</code> is
+     * <code>image/dds</code>.
+     *
+     * @param decoder       the decoder to use.
+     * @param url           the URL referencing the encoded image.
+     * @param textureFormat the texture data format to return.
+     * @param useMipMaps    true to generate mip-maps for the texture data.
+     * @return the texture data for the image, or null if the image cannot be read.
+     */
+    protected TextureData decodeTexture(TileImageDecoder decoder, java.net.URL url, String textureFormat,
+            boolean useMipMaps) {
+        try {
+            ByteBuffer encoded;
+            synchronized (this.fileLock) {
+                encoded = WWIO.readURLContentToBuffer(url);
+            }
+
+            return encoded != null ? this.decodeTexture(decoder, encoded, textureFormat, useMipMaps) : null;
+        } catch (Exception e) {
+            String msg = Logging.getMessage("layers.TextureLayer.ExceptionAttemptingToReadTextureFile", url);
+            Logging.logger().log(java.util.logging.Level.SEVERE, msg, e);
+            return null;
+        }
+    }
+
+    protected TextureData decodeTexture(TileImageDecoder decoder, ByteBuffer encoded, String textureFormat,
+            boolean useMipMaps) throws IOException {
+        DXTCompressionAttributes attributes = null;
+        if ("image/dds".equalsIgnoreCase(textureFormat)) {
+            attributes = DDSCompressor.getDefaultCompressionAttributes();
+            attributes.setBuildMipmaps(useMipMaps);
+        }
+
+        return decoder.readTextureData(Configuration.getMaxCompatibleGLProfile(),
+                WWIO.getInputStreamFromByteBuffer(encoded), attributes, useMipMaps);
+    }
+
+    /**
+     * Reads a tile's image from the layer's tile source and assigns it to the tile as texture data.
+     *
+     * @param tile the tile to load.
+     * @return true if the tile's image was read, false if the tile source has no image for the tile or the image cannot
+     * be read.
+     */
+    protected boolean loadTextureFromSource(TextureTile tile) {
+        TextureData textureData;
+        try {
+            ByteBuffer encoded = this.getTileSource().readTile(tile);
+            if (encoded == null)
+                return false;
+
+            textureData = this.readSourceTexture(tile, encoded);
+        } catch (Exception e) {
+            String msg = Logging.getMessage("TileSource.ExceptionReadingTile", tile, this.getTileSource());
+            Logging.logger().log(java.util.logging.Level.SEVERE, msg, e);
+            return false;
+        }
+
+        if (textureData == null)
+            return false;
+
+        tile.setTextureData(textureData);
+        if (tile.getLevelNumber() != 0 || !this.isRetainLevelZeroTiles())
+            this.addTileToCache(tile);
+
+        return true;
+    }
+
+    /**
+     * Creates texture data from a tile image read from the layer's tile source. The image is decoded with the layer's
+     * image decoder if one is specified, and is converted to DDS if the layer's texture format is
+     * <code>image/dds</code>.
+     *
+     * @param tile    the tile the image belongs to.
+     * @param encoded the encoded image.
+     * @return the texture data, or null if the image cannot be decoded.
+     * @throws IOException if an error occurs while decoding the image.
+     */
+    protected TextureData readSourceTexture(TextureTile tile, ByteBuffer encoded) throws IOException {
+        int pos = encoded.position();
+        boolean isDDS = encoded.remaining() >= 4 && encoded.get(pos) == 'D' && encoded.get(pos + 1) == 'D'
+                && encoded.get(pos + 2) == 'S' && encoded.get(pos + 3) == ' ';
+
+        if (this.getImageDecoder() != null && !isDDS)
+            return this.decodeTexture(this.getImageDecoder(), encoded, this.getTextureFormat(), this.isUseMipMaps());
+
+        if ("image/dds".equalsIgnoreCase(this.getTextureFormat()) && !isDDS) {
+            DXTCompressionAttributes attributes = DDSCompressor.getDefaultCompressionAttributes();
+            attributes.setBuildMipmaps(this.isUseMipMaps());
+            encoded = DDSCompressor.compressImageBuffer(encoded, attributes);
+        }
+
+        return OGLUtil.newTextureData(Configuration.getMaxCompatibleGLProfile(),
+                WWIO.getInputStreamFromByteBuffer(encoded), this.isUseMipMaps());
+    }
+
     protected void addTileToCache(TextureTile tile) {
         TextureTile.getMemoryCache().add(tile.getTileKey(), tile);
     }
@@ -46,7 +46,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * @version $Id: RenderableLayer.java 3435 2015-10-13 10:32:43Z dcollins $
  * @see gov.nasa.worldwind.render.Renderable
  */
-public class RenderableLayer extends AbstractLayer
+public class RenderableLayer extends AbstractLayer implements Preparable
 {
     protected Collection<Renderable> renderables = new ConcurrentLinkedQueue<Renderable>();
     protected Iterable<Renderable> renderablesOverride;
@@ -430,6 +430,30 @@ public class RenderableLayer extends AbstractLayer
         this.renderables.clear();
     }
 
+    /**
+     * Prepares this layer's renderables that implement {@link Preparable}, in parallel when called from within a
+     * fork/join pool. Renderables that do not implement <code>Preparable</code> are ignored.
+     *
+     * @param dc the current draw context.
+     */
+    public void prepare(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!this.isEnabled() || dc.getGlobe() == null || dc.getView() == null)
+            return;
+
+        if (!this.isLayerActive(dc) || !this.isLayerInView(dc))
+            return;
+
+        PrepareAction.prepareAll(dc, this.getActiveRenderables());
+    }
+
     protected void doPreRender(DrawContext dc)
     {
         this.doPreRender(dc, this.getActiveRenderables());
@@ -207,8 +207,10 @@ public class TextureTile extends Tile implements SurfaceTile
         tc.put(this.getTileKey(), texture);
         this.updateTime.set(System.currentTimeMillis());
 
-        // No more need for texture data; allow garbage collector and memory cache to reclaim it.
-        // This also signals that new texture data has been converted.
+        // No more need for texture data; allow garbage collector and memory cache to reclaim it. Flushing the texture
+        // data returns any pooled buffer it holds. This also signals that new texture data has been converted.
+        if (this.textureData != null)
+            this.textureData.flush();
         this.textureData = null;
         this.updateMemoryCache();
     }
@@ -27,11 +27,16 @@
  */
 package gov.nasa.worldwind.layers.mercator;
 
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
+import gov.nasa.worldwind.Configuration;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.avlist.AVList;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.data.RasterServer;
+import gov.nasa.worldwind.formats.dds.DDSCompressor;
+import gov.nasa.worldwind.formats.dds.DXTCompressionAttributes;
 import gov.nasa.worldwind.geom.Angle;
 import gov.nasa.worldwind.geom.LatLon;
 import gov.nasa.worldwind.layers.BasicTiledImageLayer;
@@ -39,6 +44,7 @@ import gov.nasa.worldwind.layers.TextureTile;
 import gov.nasa.worldwind.retrieve.LocalRasterServerRetriever;
 import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.LevelSet;
+import gov.nasa.worldwind.util.OGLUtil;
 import gov.nasa.worldwind.util.Tile;
 import gov.nasa.worldwind.util.WWIO;
 
@@ -49,6 +55,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -168,6 +175,26 @@ public class BasicMercatorTiledImageLayer extends BasicTiledImageLayer {
         WorldWind.getLocalRetrievalService().runRetriever(retriever, tile.getPriority());
     }
 
+    /** Resamples tile images read from the layer's tile source, which are in the spherical Mercator projection. */
+    @Override
+    protected TextureData readSourceTexture(TextureTile tile, ByteBuffer encoded) throws IOException {
+        BufferedImage image = ImageIO.read(WWIO.getInputStreamFromByteBuffer(encoded));
+        if (image == null)
+            return null;
+
+        image = transformMercatorImage(image, (MercatorSector) tile.getSector());
+
+        if ("image/dds".equalsIgnoreCase(this.getTextureFormat())) {
+            DXTCompressionAttributes attributes = DDSCompressor.getDefaultCompressionAttributes();
+            attributes.setBuildMipmaps(this.isUseMipMaps());
+            return OGLUtil.newTextureData(Configuration.getMaxCompatibleGLProfile(),
+                    WWIO.getInputStreamFromByteBuffer(new DDSCompressor().compressImage(image, attributes)),
+                    this.isUseMipMaps());
+        }
+
+        return AWTTextureIO.newTextureData(Configuration.getMaxCompatibleGLProfile(), image, this.isUseMipMaps());
+    }
+
     private static class MercatorDownloadPostProcessor extends DownloadPostProcessor {
 
         MercatorDownloadPostProcessor(MercatorTextureTile tile, BasicMercatorTiledImageLayer layer) {
@@ -190,38 +217,45 @@ public class BasicMercatorTiledImageLayer extends BasicTiledImageLayer {
             }
 
             // Transform mercator tile to equirectangular projection
-            if (image != null) {
-                int type = image.getType();
-                switch (type) {
-                    case BufferedImage.TYPE_CUSTOM:
-                    case BufferedImage.TYPE_BYTE_BINARY:
-                        type = BufferedImage.TYPE_INT_RGB;
-                        break;
-                    case BufferedImage.TYPE_BYTE_INDEXED:
-                        type = BufferedImage.TYPE_INT_ARGB;
-                        break;
-                    default:
-                        // leave value returned from image.getType()
-                        break;
-                }
+            return image != null ? transformMercatorImage(image, (MercatorSector) tile.getSector()) : null;
+        }
+    }
 
-                BufferedImage trans = new BufferedImage(image.getWidth(), image.getHeight(), type);
-                double miny = ((MercatorSector) tile.getSector()).getMinLatPercent();
-                double maxy = ((MercatorSector) tile.getSector()).getMaxLatPercent();
-                for (int y = 0; y < image.getHeight(); y++) {
-                    double sy = 1.0 - y / (double) (image.getHeight() - 1);
-                    Angle lat = Angle.fromRadians(sy * tile.getSector().getDeltaLatRadians() + tile.getSector().getMinLatitude().radians);
-                    double dy = 1.0 - (MercatorSector.gudermannianInverse(lat) - miny) / (maxy - miny);
-                    dy = Math.max(0.0, Math.min(1.0, dy));
-                    int iy = (int) (dy * (image.getHeight() - 1));
-                    for (int x = 0; x < image.getWidth(); x++) {
-                        trans.setRGB(x, y, image.getRGB(x, iy));
-                    }
-                }
-                return trans;
-            } else {
-                return null;
+    /**
+     * Resamples an image of a spherical Mercator tile into the equirectangular projection of the tile's sector.
+     *
+     * @param image  the Mercator tile image.
+     * @param sector the tile's sector.
+     * @return the resampled image.
+     */
+    protected static BufferedImage transformMercatorImage(BufferedImage image, MercatorSector sector) {
+        int type = image.getType();
+        switch (type) {
+            case BufferedImage.TYPE_CUSTOM:
+            case BufferedImage.TYPE_BYTE_BINARY:
+                type = BufferedImage.TYPE_INT_RGB;
+                break;
+            case BufferedImage.TYPE_BYTE_INDEXED:
+                type = BufferedImage.TYPE_INT_ARGB;
+                break;
+            default:
+                // leave value returned from image.getType()
+                break;
+        }
+
+        BufferedImage trans = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        double miny = sector.getMinLatPercent();
+        double maxy = sector.getMaxLatPercent();
+        for (int y = 0; y < image.getHeight(); y++) {
+            double sy = 1.0 - y / (double) (image.getHeight() - 1);
+            Angle lat = Angle.fromRadians(sy * sector.getDeltaLatRadians() + sector.getMinLatitude().radians);
+            double dy = 1.0 - (MercatorSector.gudermannianInverse(lat) - miny) / (maxy - miny);
+            dy = Math.max(0.0, Math.min(1.0, dy));
+            int iy = (int) (dy * (image.getHeight() - 1));
+            for (int x = 0; x < image.getWidth(); x++) {
+                trans.setRGB(x, y, image.getRGB(x, iy));
             }
         }
+        return trans;
     }
 }
\ No newline at end of file
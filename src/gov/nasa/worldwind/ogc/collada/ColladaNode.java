@@ -158,22 +158,35 @@ public class ColladaNode extends ColladaAbstractObject implements ColladaRendera
                 tc.multiplyMatrix(matrix);
             }
 
-            ColladaRoot root = this.getRoot();
-
-            // Apply the current root position and highlight state to shapes in this node. Do this every frame so that
-            // the node will pickup changes in the root's state.
-            boolean highlighted = root.isHighlighted();
-            int altitudeMode = root.getAltitudeMode();
-            Position position = root.getPosition();
-
             Matrix traversalMatrix = tc.peekMatrix();
-            for (ColladaMeshShape shape : this.shapes)
-            {
-                shape.setModelPosition(position);
-                shape.setAltitudeMode(altitudeMode);
-                shape.setHighlighted(highlighted);
 
-                shape.render(dc, traversalMatrix);
+            // When the traversal collects shapes, report this node's shapes and their transform instead of rendering.
+            List<ColladaTraversalContext.ShapePlacement> collector = tc.getShapeCollector();
+            if (collector != null)
+            {
+                for (ColladaMeshShape shape : this.shapes)
+                {
+                    collector.add(new ColladaTraversalContext.ShapePlacement(shape, traversalMatrix));
+                }
+            }
+            else
+            {
+                ColladaRoot root = this.getRoot();
+
+                // Apply the current root position and highlight state to shapes in this node. Do this every frame so
+                // that the node will pickup changes in the root's state.
+                boolean highlighted = root.isHighlighted();
+                int altitudeMode = root.getAltitudeMode();
+                Position position = root.getPosition();
+
+                for (ColladaMeshShape shape : this.shapes)
+                {
+                    shape.setModelPosition(position);
+                    shape.setAltitudeMode(altitudeMode);
+                    shape.setHighlighted(highlighted);
+
+                    shape.render(dc, traversalMatrix);
+                }
             }
 
             for (ColladaRenderable node : this.getChildren())
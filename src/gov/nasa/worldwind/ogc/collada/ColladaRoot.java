@@ -52,6 +52,12 @@ import java.net.*;
  */
 public class ColladaRoot extends ColladaAbstractObject implements ColladaRenderable, Highlightable
 {
+    /**
+     * The cache of binary recordings of parsed documents used by all COLLADA roots, or null to parse every document
+     * from XML. Initially null.
+     */
+    protected static volatile XMLSnapshotCache snapshotCache;
+
     /** Reference to the ColladaDoc representing the COLLADA file. */
     protected ColladaDoc colladaDoc;
     /** The event reader used to parse the document's XML. */
@@ -726,8 +732,36 @@ public class ColladaRoot extends ColladaAbstractObject implements ColladaRendera
         }
     }
 
+    /**
+     * Indicates the cache of binary recordings of parsed documents used by all COLLADA roots.
+     *
+     * @return the snapshot cache, or null if documents are always parsed from XML.
+     *
+     * @see #setSnapshotCache(gov.nasa.worldwind.util.xml.XMLSnapshotCache)
+     */
+    public static XMLSnapshotCache getSnapshotCache()
+    {
+        return snapshotCache;
+    }
+
+    /**
+     * Specifies a cache of binary recordings of parsed documents to be used by all COLLADA roots created subsequently.
+     * When a cache is specified, a COLLADA file is read from its recording if the cache holds one made since the file
+     * was last modified, and is otherwise recorded as it's parsed. Documents that are not local files are always parsed
+     * from XML. Specify null, the default, to always parse documents from XML.
+     *
+     * @param cache the snapshot cache. May be null.
+     */
+    public static void setSnapshotCache(XMLSnapshotCache cache)
+    {
+        snapshotCache = cache;
+    }
+
     /**
      * Creates the event reader. Called from the constructor.
+     * <p>
+     * If a snapshot cache is specified and this document is a local file, the document is read from the cache's
+     * recording when there is a current one, and is otherwise recorded as it's read.
      *
      * @param docSource the document source to create a reader for. The type can be any of those supported by {@link
      *                  gov.nasa.worldwind.util.WWXML#openEventReader(Object)}.
@@ -736,7 +770,50 @@ public class ColladaRoot extends ColladaAbstractObject implements ColladaRendera
      */
     protected XMLEventReader createReader(Object docSource)
     {
-        return WWXML.openEventReader(docSource, true);
+        XMLSnapshotCache cache = getSnapshotCache();
+        File file = cache != null ? this.getSnapshotSourceFile() : null;
+        if (file == null)
+            return WWXML.openEventReader(docSource, true);
+
+        String key = file.getAbsolutePath();
+        XMLEventReader reader = cache.openSnapshot(key, file.lastModified());
+        if (reader != null)
+        {
+            WWIO.closeStream(docSource, file.getPath());
+            return reader;
+        }
+
+        reader = WWXML.openEventReader(docSource, true);
+        return reader != null ? cache.recordSnapshot(reader, key, file.lastModified()) : null;
+    }
+
+    /**
+     * Returns the local file this document is read from, whose path and modification time identify the document to
+     * the snapshot cache.
+     *
+     * @return the COLLADA file this document is read from, or null if the document is not a local file.
+     */
+    protected File getSnapshotSourceFile()
+    {
+        if (this.getColladaDoc() instanceof ColladaFile)
+            return ((ColladaFile) this.getColladaDoc()).getFile();
+        else if (this.getColladaDoc() instanceof ColladaInputStream)
+            return XMLSnapshotCache.getLocalFile(((ColladaInputStream) this.getColladaDoc()).getURI());
+
+        return null;
+    }
+
+    /**
+     * Indicates a string that identifies the content of this document: the path and modification time of the local
+     * file it is read from. Documents read from the same unmodified file have equal keys, which lets them share
+     * geometry built from their content.
+     *
+     * @return the content key, or null if the document is not a local file.
+     */
+    public String getContentKey()
+    {
+        File file = this.getSnapshotSourceFile();
+        return file != null ? file.getAbsolutePath() + "@" + file.lastModified() : null;
     }
 
     /**
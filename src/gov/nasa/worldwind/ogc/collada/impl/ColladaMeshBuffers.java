@@ -0,0 +1,343 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.collada.impl;
+
+import com.jogamp.common.nio.Buffers;
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.cache.*;
+import gov.nasa.worldwind.geom.Box;
+import gov.nasa.worldwind.ogc.collada.*;
+import gov.nasa.worldwind.util.*;
+
+import java.nio.FloatBuffer;
+import java.util.*;
+
+/**
+ * Vertex data for the geometries of a COLLADA line or triangle mesh. The data is built once for each source geometry
+ * and shared by every {@link ColladaMeshShape} that draws that geometry, so a model placed many times holds one copy of
+ * its vertices, normals and texture coordinates. Instances are obtained from {@link #getInstance(java.util.List, int,
+ * String[])}, which keeps them in a WorldWind memory cache keyed by the source geometry.
+ * <p>
+ * Like the buffer built by ColladaMeshShape, the data buffer contains vertex coordinates, followed by normals if any
+ * geometry defines them, followed by texture coordinates if any geometry defines them. Instances are immutable once
+ * created. Callers must not modify the buffer contents, and should read the buffer through {@link #getCoordBuffer()},
+ * which returns a view with its own position and limit.
+ */
+public class ColladaMeshBuffers implements Cacheable
+{
+    protected static final String CACHE_KEY = ColladaMeshBuffers.class.getName();
+    protected static final String CACHE_NAME = "COLLADA Mesh Geometry";
+    protected static final long DEFAULT_CACHE_SIZE = 16777216L; // 16 megabytes
+
+    /** Vertex coordinates, normals and texture coordinates of all geometries, in that order. */
+    protected final FloatBuffer coordBuffer;
+    /** The index of the first normal in the {@link #coordBuffer}, or -1 if the buffer contains no normals. */
+    protected final int normalBufferPosition;
+    /** The index of the first texture coordinate in the {@link #coordBuffer}, or -1 if there are none. */
+    protected final int texCoordBufferPosition;
+    /** Offset (in vertices) of each geometry's vertices, in the order the geometries were specified. */
+    protected final int[] offsets;
+    /** Bounding box of the vertices in model coordinates, or null if the mesh has no vertices. */
+    protected final Box localBoundingBox;
+
+    /**
+     * Returns the shared vertex data for a list of geometries, creating it if it's not already in the memory cache.
+     *
+     * @param geometries        COLLADA geometries of the same type (either {@link ColladaTriangles} or {@link
+     *                          ColladaLines}). Must contain at least one element.
+     * @param vertsPerShape     the number of vertices in each shape of the geometries: 2 for lines, 3 for triangles.
+     * @param texCoordSemantics the semantic identifying the texture coordinates of each geometry, in the same order as
+     *                          the geometries. An element may be null, in which case "TEXCOORD" is used.
+     *
+     * @return the vertex data for the geometries.
+     *
+     * @throws IllegalArgumentException if either argument is null, or if the two are of different lengths.
+     */
+    public static ColladaMeshBuffers getInstance(List<? extends ColladaAbstractGeometry> geometries,
+        int vertsPerShape, String[] texCoordSemantics)
+    {
+        if (geometries == null || texCoordSemantics == null)
+        {
+            String message = Logging.getMessage("nullValue.ListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (geometries.size() != texCoordSemantics.length)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", texCoordSemantics.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        MemoryCache cache = getMemoryCache();
+        Object key = createCacheKey(geometries, texCoordSemantics);
+
+        ColladaMeshBuffers buffers = (ColladaMeshBuffers) cache.getObject(key);
+        if (buffers == null)
+        {
+            buffers = new ColladaMeshBuffers(geometries, vertsPerShape, texCoordSemantics);
+            cache.add(key, buffers);
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Creates the key identifying a list of geometries in the memory cache. A geometry read from a local file is
+     * identified by the file's content key, the id of its <i>geometry</i> element and its position within that
+     * element's mesh, so separately parsed copies of the same file share their vertex data. Other geometries are
+     * identified by the geometry object itself.
+     *
+     * @param geometries        the geometries to identify.
+     * @param texCoordSemantics the texture coordinate semantic of each geometry.
+     *
+     * @return a key that is equal to the key of any list of the same source geometries and semantics.
+     */
+    protected static Object createCacheKey(List<? extends ColladaAbstractGeometry> geometries,
+        String[] texCoordSemantics)
+    {
+        List<Object> key = new ArrayList<Object>(2 * geometries.size());
+
+        for (int i = 0; i < geometries.size(); i++)
+        {
+            ColladaAbstractGeometry geometry = geometries.get(i);
+            String sourceId = getSourceId(geometry);
+
+            key.add(sourceId != null ? sourceId : geometry);
+            key.add(texCoordSemantics[i]);
+        }
+
+        return key;
+    }
+
+    /**
+     * Returns a string identifying a geometry by its location in the file it's read from.
+     *
+     * @param geometry the geometry to identify.
+     *
+     * @return the geometry's source identifier, or null if the geometry is not read from a local file or its
+     *         <i>geometry</i> element has no id.
+     */
+    protected static String getSourceId(ColladaAbstractGeometry geometry)
+    {
+        ColladaRoot root = geometry.getRoot();
+        String contentKey = root != null ? root.getContentKey() : null;
+        if (contentKey == null)
+            return null;
+
+        if (!(geometry.getParent() instanceof ColladaMesh))
+            return null;
+
+        ColladaMesh mesh = (ColladaMesh) geometry.getParent();
+        if (!(mesh.getParent() instanceof ColladaGeometry))
+            return null;
+
+        String geometryId = (String) ((ColladaGeometry) mesh.getParent()).getField("id");
+        if (geometryId == null)
+            return null;
+
+        int index = geometry instanceof ColladaLines ? mesh.getLines().indexOf(geometry)
+            : mesh.getTriangles().indexOf(geometry);
+
+        return contentKey + "#" + geometryId + "/" + geometry.getClass().getSimpleName() + index;
+    }
+
+    /**
+     * Returns the memory cache holding shared mesh data, creating it if it does not exist. The capacity of a new cache
+     * is given by the {@link gov.nasa.worldwind.avlist.AVKey#COLLADA_GEOMETRY_CACHE_SIZE} configuration property.
+     *
+     * @return the mesh data cache.
+     */
+    protected static MemoryCache getMemoryCache()
+    {
+        MemoryCacheSet cacheSet = WorldWind.getMemoryCacheSet();
+        synchronized (cacheSet)
+        {
+            if (!cacheSet.containsCache(CACHE_KEY))
+            {
+                long size = Configuration.getLongValue(AVKey.COLLADA_GEOMETRY_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+                MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+                cache.setName(CACHE_NAME);
+                cacheSet.addCache(CACHE_KEY, cache);
+            }
+        }
+
+        return WorldWind.getMemoryCache(CACHE_KEY);
+    }
+
+    /**
+     * Builds the vertex data for a list of geometries. Normals are included if any geometry defines them, and texture
+     * coordinates are included if any geometry defines them for its semantic. Geometries that do not define normals or
+     * texture coordinates leave their section of the buffer zeroed.
+     *
+     * @param geometries        the geometries to build vertex data for.
+     * @param vertsPerShape     the number of vertices in each shape of the geometries.
+     * @param texCoordSemantics the texture coordinate semantic of each geometry.
+     */
+    protected ColladaMeshBuffers(List<? extends ColladaAbstractGeometry> geometries, int vertsPerShape,
+        String[] texCoordSemantics)
+    {
+        int vertexCount = 0;
+        boolean hasNormals = false;
+        boolean hasTexCoords = false;
+
+        for (int i = 0; i < geometries.size(); i++)
+        {
+            ColladaAbstractGeometry geometry = geometries.get(i);
+            vertexCount += geometry.getCount() * vertsPerShape;
+            hasNormals |= geometry.getNormalAccessor() != null;
+            hasTexCoords |= geometry.getTexCoordAccessor(texCoordSemantics[i]) != null;
+        }
+
+        int size = vertexCount * ColladaAbstractGeometry.COORDS_PER_VERTEX;
+
+        this.normalBufferPosition = hasNormals ? size : -1;
+        if (hasNormals)
+            size += vertexCount * ColladaAbstractGeometry.COORDS_PER_VERTEX;
+
+        this.texCoordBufferPosition = hasTexCoords ? size : -1;
+        if (hasTexCoords)
+            size += vertexCount * ColladaAbstractGeometry.TEX_COORDS_PER_VERTEX;
+
+        this.coordBuffer = Buffers.newDirectFloatBuffer(size);
+        this.offsets = new int[geometries.size()];
+
+        for (int i = 0; i < geometries.size(); i++)
+        {
+            this.offsets[i] = this.coordBuffer.position() / ColladaAbstractGeometry.COORDS_PER_VERTEX;
+            geometries.get(i).getVertices(this.coordBuffer);
+        }
+
+        if (vertexCount > 0)
+        {
+            FloatBuffer vertices = this.coordBuffer.duplicate();
+            vertices.position(0).limit(vertexCount * ColladaAbstractGeometry.COORDS_PER_VERTEX);
+            this.localBoundingBox = Box.computeBoundingBox(new BufferWrapper.FloatBufferWrapper(vertices.slice()),
+                ColladaAbstractGeometry.COORDS_PER_VERTEX);
+        }
+        else
+        {
+            this.localBoundingBox = null;
+        }
+
+        if (hasNormals)
+        {
+            this.coordBuffer.position(this.normalBufferPosition);
+            for (ColladaAbstractGeometry geometry : geometries)
+            {
+                int thisSize = geometry.getCount() * vertsPerShape
+                    * ColladaAbstractGeometry.COORDS_PER_VERTEX;
+
+                if (geometry.getNormalAccessor() != null)
+                    geometry.getNormals(this.coordBuffer);
+                else
+                    this.coordBuffer.position(this.coordBuffer.position() + thisSize);
+            }
+        }
+
+        if (hasTexCoords)
+        {
+            this.coordBuffer.position(this.texCoordBufferPosition);
+            for (int i = 0; i < geometries.size(); i++)
+            {
+                ColladaAbstractGeometry geometry = geometries.get(i);
+                int thisSize = geometry.getCount() * vertsPerShape
+                    * ColladaAbstractGeometry.TEX_COORDS_PER_VERTEX;
+
+                if (geometry.getTexCoordAccessor(texCoordSemantics[i]) != null)
+                    geometry.getTextureCoordinates(this.coordBuffer, texCoordSemantics[i]);
+                else
+                    this.coordBuffer.position(this.coordBuffer.position() + thisSize);
+            }
+        }
+
+        this.coordBuffer.rewind();
+    }
+
+    /**
+     * Returns a view of the vertex data. The view shares its contents with every other view, but has its own position
+     * and limit, initially zero and the buffer's capacity.
+     *
+     * @return a new view of the vertex data.
+     */
+    public FloatBuffer getCoordBuffer()
+    {
+        return this.coordBuffer.duplicate();
+    }
+
+    /**
+     * Indicates the index of the first normal in the vertex data.
+     *
+     * @return the position of the normals, or -1 if no geometry defines normals.
+     */
+    public int getNormalBufferPosition()
+    {
+        return this.normalBufferPosition;
+    }
+
+    /**
+     * Indicates the index of the first texture coordinate in the vertex data.
+     *
+     * @return the position of the texture coordinates, or -1 if no geometry defines texture coordinates.
+     */
+    public int getTexCoordBufferPosition()
+    {
+        return this.texCoordBufferPosition;
+    }
+
+    /**
+     * Indicates the offset, in vertices, of a geometry's vertices in the vertex data.
+     *
+     * @param index the position of the geometry in the list the data was built from.
+     *
+     * @return the offset of the geometry's first vertex.
+     */
+    public int getOffset(int index)
+    {
+        return this.offsets[index];
+    }
+
+    /**
+     * Indicates the bounding box of the mesh's vertices in model coordinates.
+     *
+     * @return the bounding box, or null if the mesh has no vertices.
+     */
+    public Box getLocalBoundingBox()
+    {
+        return this.localBoundingBox;
+    }
+
+    /** {@inheritDoc} */
+    public long getSizeInBytes()
+    {
+        return this.coordBuffer.capacity() * Buffers.SIZEOF_FLOAT + this.offsets.length * 4 + 64;
+    }
+}
@@ -230,6 +230,11 @@ public class ColladaMeshShape extends AbstractGeneralShape
     /** Cache of shape extents computed for different transform matrices. */
     protected Map<ExtentCacheKey, Extent> extentCache = new HashMap<ExtentCacheKey, Extent>();
 
+    /**
+     * Vertex data for this shape's geometries, shared with every other shape that draws the same geometries. The {@link
+     * #coordBuffer} is a view of this data.
+     */
+    protected ColladaMeshBuffers meshBuffers;
     /**
      * The vertex data buffer for this shape data. The first part contains vertex coordinates, the second part contains
      * normals, and the third part contains texture coordinates.
@@ -305,6 +310,35 @@ public class ColladaMeshShape extends AbstractGeneralShape
         }
     }
 
+    /**
+     * Create a shape that draws the same geometry as another shape. The new shape shares the other shape's vertex data,
+     * materials and textures, but has its own position, altitude mode and highlight state.
+     *
+     * @param shape Shape to copy.
+     */
+    protected ColladaMeshShape(ColladaMeshShape shape)
+    {
+        this.geometries = shape.geometries;
+        this.shapeCount = shape.shapeCount;
+        this.bindMaterial = shape.bindMaterial;
+        this.elementType = shape.elementType;
+        this.vertsPerShape = shape.vertsPerShape;
+        this.meshBuffers = shape.meshBuffers;
+        this.setDelegateOwner(shape.getDelegateOwner());
+    }
+
+    /**
+     * Create a new shape that draws the same geometry as this shape. The new shape shares this shape's vertex data,
+     * materials and textures, so it holds little more than its own position and orientation. This is how a model is
+     * placed at many positions; see {@link ColladaModelInstances}.
+     *
+     * @return A new shape that draws this shape's geometry.
+     */
+    public ColladaMeshShape createInstance()
+    {
+        return new ColladaMeshShape(this);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -569,6 +603,7 @@ public class ColladaMeshShape extends AbstractGeneralShape
                 }
 
                 if (!dc.isPickingMode()
+                    && this.textureCoordsBuffer != null
                     && this.mustApplyTexture(geometry)
                     && this.getTexture(geometry).bind(dc)) // bind initiates retrieval
                 {
@@ -807,10 +842,10 @@ public class ColladaMeshShape extends AbstractGeneralShape
         if (this.coordBuffer == null)
             return null;
 
-        // Compute a bounding box around the vertices in this shape.
-        this.coordBuffer.rewind();
-        Box box = Box.computeBoundingBox(new BufferWrapper.FloatBufferWrapper(this.coordBuffer),
-            ColladaAbstractGeometry.COORDS_PER_VERTEX);
+        // The bounding box around the vertices in this shape is computed once, when the vertex data is built.
+        Box box = this.meshBuffers.getLocalBoundingBox();
+        if (box == null)
+            return null;
 
         Matrix matrix = this.computeRenderMatrix(dc);
 
@@ -838,18 +873,10 @@ public class ColladaMeshShape extends AbstractGeneralShape
             throw new IllegalArgumentException(message);
         }
 
-        int size = this.shapeCount * this.vertsPerShape * ColladaAbstractGeometry.COORDS_PER_VERTEX;
-        FloatBuffer vertexBuffer = WWBufferUtil.newFloatBuffer(size, true);
-
-        for (Geometry geometry : this.geometries)
-        {
-            geometry.colladaGeometry.getVertices(vertexBuffer);
-        }
-
-        // Compute a bounding box around the vertices in this shape.
-        vertexBuffer.rewind();
-        Box box = Box.computeBoundingBox(new BufferWrapper.FloatBufferWrapper(vertexBuffer),
-            ColladaAbstractGeometry.COORDS_PER_VERTEX);
+        // Use the bounding box around the vertices in this shape, computed when the vertex data is built.
+        Box box = this.getMeshBuffers().getLocalBoundingBox();
+        if (box == null)
+            return null;
 
         // Compute the corners of the bounding box and transform with the active transform matrix.
         List<Vec4> extrema = new ArrayList<Vec4>();
@@ -867,99 +894,109 @@ public class ColladaMeshShape extends AbstractGeneralShape
     }
 
     /**
-     * Create the shape's vertex coordinates. The coordinates are stored in {@link #coordBuffer}.
+     * Indicates the vertex data for this shape's geometries. The data is shared by all shapes that draw the same
+     * geometries, and is built by the first of them to request it.
      *
-     * @param dc Current draw context.
+     * @return The vertex data for this shape.
      */
-    protected void createVertexCoords(DrawContext dc)
+    protected ColladaMeshBuffers getMeshBuffers()
     {
-        int size = this.shapeCount * this.vertsPerShape * ColladaAbstractGeometry.COORDS_PER_VERTEX;
-
-        // Capture the position at which normals buffer starts (in case there are normals)
-        this.normalBufferPosition = size;
-        if (this.mustApplyLighting(dc, null))
+        if (this.meshBuffers == null)
         {
-            size += (this.shapeCount * this.vertsPerShape * ColladaAbstractGeometry.COORDS_PER_VERTEX);
-        }
+            List<ColladaAbstractGeometry> colladaGeometries = new ArrayList<ColladaAbstractGeometry>(
+                this.geometries.size());
+            String[] texCoordSemantics = new String[this.geometries.size()];
 
-        // Capture the position at which texture coordinate buffer starts (in case that textures are applied)
-        this.texCoordBufferPosition = size;
-        if (this.mustApplyTexture(dc))
-        {
-            size += (this.shapeCount * this.vertsPerShape * ColladaAbstractGeometry.TEX_COORDS_PER_VERTEX);
+            for (int i = 0; i < this.geometries.size(); i++)
+            {
+                Geometry geometry = this.geometries.get(i);
+                colladaGeometries.add(geometry.colladaGeometry);
+                texCoordSemantics[i] = this.bindMaterial != null ? this.getTexCoordSemantic(geometry) : null;
+            }
+
+            this.meshBuffers = ColladaMeshBuffers.getInstance(colladaGeometries, this.vertsPerShape,
+                texCoordSemantics);
         }
 
-        if (this.coordBuffer != null && this.coordBuffer.capacity() >= size)
-            this.coordBuffer.clear();
-        else
-            this.coordBuffer = Buffers.newDirectFloatBuffer(size);
+        return this.meshBuffers;
+    }
 
-        for (Geometry geometry : this.geometries)
+    /**
+     * Create the shape's vertex coordinates. The coordinates are stored in {@link #coordBuffer}, a view of the vertex
+     * data shared by all shapes that draw the same geometries.
+     *
+     * @param dc Current draw context.
+     */
+    protected void createVertexCoords(DrawContext dc)
+    {
+        ColladaMeshBuffers buffers = this.getMeshBuffers();
+
+        this.coordBuffer = buffers.getCoordBuffer();
+        this.normalBufferPosition = buffers.getNormalBufferPosition();
+        this.texCoordBufferPosition = buffers.getTexCoordBufferPosition();
+
+        for (int i = 0; i < this.geometries.size(); i++)
         {
-            geometry.offset = this.coordBuffer.position() / this.vertsPerShape;
-            geometry.colladaGeometry.getVertices(this.coordBuffer);
+            this.geometries.get(i).offset = buffers.getOffset(i);
         }
     }
 
-    /** Create this shape's vertex normals. The normals are stored in {@link #normalBuffer}. */
+    /**
+     * Create this shape's vertex normals. The normals are stored in {@link #normalBuffer}, a slice of the {@link
+     * #coordBuffer}. The normal buffer remains null if none of this shape's geometries defines normals.
+     */
     protected void createNormals()
     {
+        if (this.normalBufferPosition < 0)
+            return;
+
         this.coordBuffer.position(this.normalBufferPosition);
         this.normalBuffer = this.coordBuffer.slice();
-
-        for (Geometry geometry : this.geometries)
-        {
-            if (geometry.colladaGeometry.getNormalAccessor() != null)
-            {
-                geometry.colladaGeometry.getNormals(this.normalBuffer);
-            }
-            else
-            {
-                int thisSize = geometry.colladaGeometry.getCount() * this.vertsPerShape
-                    * ColladaAbstractGeometry.COORDS_PER_VERTEX;
-                this.normalBuffer.position(this.normalBuffer.position() + thisSize);
-            }
-        }
     }
 
-    /** Create this shape's texture coordinates. The texture coordinates are stored in {@link #textureCoordsBuffer}. */
+    /**
+     * Create this shape's texture coordinates. The texture coordinates are stored in {@link #textureCoordsBuffer}, a
+     * slice of the {@link #coordBuffer}. The texture coordinate buffer remains null if none of this shape's geometries
+     * defines texture coordinates.
+     */
     protected void createTexCoords()
     {
+        if (this.texCoordBufferPosition < 0)
+            return;
+
         this.coordBuffer.position(this.texCoordBufferPosition);
         this.textureCoordsBuffer = this.coordBuffer.slice();
+    }
 
-        for (Geometry geometry : this.geometries)
-        {
-            if (this.mustApplyTexture(geometry))
-            {
-                String semantic = this.getTexCoordSemantic(geometry);
-                geometry.colladaGeometry.getTextureCoordinates(this.textureCoordsBuffer, semantic);
-            }
-            else
-            {
-                int thisSize = geometry.colladaGeometry.getCount() * this.vertsPerShape
-                    * ColladaAbstractGeometry.TEX_COORDS_PER_VERTEX;
-                this.textureCoordsBuffer.position(this.textureCoordsBuffer.position() + thisSize);
-            }
-        }
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to identify the VBO by this shape's vertex data rather than its shape data, so that all shapes drawing
+     * the same geometries share one VBO.
+     */
+    @Override
+    protected int[] getVboIds(DrawContext dc)
+    {
+        if (this.meshBuffers == null)
+            return super.getVboIds(dc);
+
+        return (int[]) dc.getGpuResourceCache().get(this.meshBuffers);
     }
 
-    /** {@inheritDoc} */
+    /** {@inheritDoc} Does nothing if another shape has already filled the VBO for this shape's vertex data. */
     protected void fillVBO(DrawContext dc)
     {
         GL gl = dc.getGL();
-        ShapeData shapeData = (ShapeData) getCurrentData();
 
         int[] vboIds = this.getVboIds(dc);
-        if (vboIds == null)
-        {
-            int size = this.coordBuffer.limit() * Buffers.SIZEOF_FLOAT;
+        if (vboIds != null)
+            return; // The vertex data is immutable, so an existing VBO is current.
 
-            vboIds = new int[1];
-            gl.glGenBuffers(vboIds.length, vboIds, 0);
-            dc.getGpuResourceCache().put(shapeData.getVboCacheKey(), vboIds, GpuResourceCache.VBO_BUFFERS,
-                size);
-        }
+        int size = this.coordBuffer.limit() * Buffers.SIZEOF_FLOAT;
+
+        vboIds = new int[1];
+        gl.glGenBuffers(vboIds.length, vboIds, 0);
+        dc.getGpuResourceCache().put(this.meshBuffers, vboIds, GpuResourceCache.VBO_BUFFERS, size);
 
         try
         {
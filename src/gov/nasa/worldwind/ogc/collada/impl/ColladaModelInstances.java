@@ -0,0 +1,479 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.collada.impl;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.ogc.collada.ColladaRoot;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Renders one COLLADA model at many positions. The model's document is parsed and its geometry built once; each
+ * instance holds only its position, orientation and scale, and a lightweight {@link ColladaMeshShape} for each mesh in
+ * the model that shares the model's vertex data, materials and textures. Use this class to place thousands of copies of
+ * a model, such as trees or buildings, instead of creating a {@link ColladaRoot} for each copy.
+ * <p>
+ * The model is placed as it would be by a {@link ColladaController}, with each instance's orientation and scale applied
+ * in place of the root's position. The model root's own heading, pitch, roll and scale, if any, apply to every
+ * instance. Picking an instance reports the {@link Instance} as the picked object.
+ * <p>
+ * Instances may be added and removed on any thread. Changes to the model document after the first instance is added
+ * are not reflected in the instances.
+ */
+public class ColladaModelInstances implements Renderable
+{
+    /** One placement of the model. */
+    public static class Instance implements Highlightable
+    {
+        /** Position of the model's origin. */
+        protected Position position;
+        /** Rotation clockwise from north. May be null. */
+        protected Angle heading;
+        /** Rotation about the model's X axis. May be null. */
+        protected Angle pitch;
+        /** Rotation about the model's Y axis. May be null. */
+        protected Angle roll;
+        /** Scale applied to the model's coordinates. May be null. */
+        protected Vec4 modelScale;
+        /** Indicates whether the instance is highlighted. */
+        protected boolean highlighted;
+        /** Transform determined by heading, pitch, roll and scale. Computed when needed. */
+        protected Matrix matrix;
+        /** Shapes that draw the model's meshes at this instance. Created when the instance is added. */
+        protected ColladaMeshShape[] shapes;
+
+        /**
+         * Create an instance.
+         *
+         * @param position   Position of the model's origin.
+         * @param heading    Rotation clockwise from north. May be null.
+         * @param pitch      Rotation about the model's X axis. May be null.
+         * @param roll       Rotation about the model's Y axis. May be null.
+         * @param modelScale Scale applied to the model's coordinates. May be null.
+         */
+        protected Instance(Position position, Angle heading, Angle pitch, Angle roll, Vec4 modelScale)
+        {
+            this.position = position;
+            this.heading = heading;
+            this.pitch = pitch;
+            this.roll = roll;
+            this.modelScale = modelScale;
+        }
+
+        /**
+         * Indicates the position of this instance. The position's altitude is relative to the altitude mode of the
+         * collection that contains the instance.
+         *
+         * @return The instance's position.
+         */
+        public Position getPosition()
+        {
+            return this.position;
+        }
+
+        /**
+         * Specifies the position of this instance.
+         *
+         * @param position The new position.
+         *
+         * @throws IllegalArgumentException if the position is null.
+         */
+        public void setPosition(Position position)
+        {
+            if (position == null)
+            {
+                String message = Logging.getMessage("nullValue.PositionIsNull");
+                Logging.logger().severe(message);
+                throw new IllegalArgumentException(message);
+            }
+
+            this.position = position;
+        }
+
+        /**
+         * Indicates this instance's heading, its rotation clockwise from north.
+         *
+         * @return The heading, or null if no heading has been specified.
+         */
+        public Angle getHeading()
+        {
+            return this.heading;
+        }
+
+        /**
+         * Specifies this instance's heading, its rotation clockwise from north.
+         *
+         * @param heading The heading. May be null.
+         */
+        public void setHeading(Angle heading)
+        {
+            this.heading = heading;
+            this.matrix = null;
+        }
+
+        /**
+         * Indicates this instance's pitch, the angle to rotate the model about its X axis.
+         *
+         * @return The pitch, or null if no pitch has been specified.
+         */
+        public Angle getPitch()
+        {
+            return this.pitch;
+        }
+
+        /**
+         * Specifies this instance's pitch, the angle to rotate the model about its X axis.
+         *
+         * @param pitch The pitch. May be null.
+         */
+        public void setPitch(Angle pitch)
+        {
+            this.pitch = pitch;
+            this.matrix = null;
+        }
+
+        /**
+         * Indicates this instance's roll, the angle to rotate the model about its Y axis.
+         *
+         * @return The roll, or null if no roll has been specified.
+         */
+        public Angle getRoll()
+        {
+            return this.roll;
+        }
+
+        /**
+         * Specifies this instance's roll, the angle to rotate the model about its Y axis.
+         *
+         * @param roll The roll. May be null.
+         */
+        public void setRoll(Angle roll)
+        {
+            this.roll = roll;
+            this.matrix = null;
+        }
+
+        /**
+         * Indicates the scale applied to the model's coordinates at this instance.
+         *
+         * @return The scale, or null if no scale has been specified.
+         */
+        public Vec4 getModelScale()
+        {
+            return this.modelScale;
+        }
+
+        /**
+         * Specifies the scale applied to the model's coordinates at this instance.
+         *
+         * @param modelScale The scale. May be null, in which case no scaling is applied.
+         */
+        public void setModelScale(Vec4 modelScale)
+        {
+            this.modelScale = modelScale;
+            this.matrix = null;
+        }
+
+        /** {@inheritDoc} */
+        public boolean isHighlighted()
+        {
+            return this.highlighted;
+        }
+
+        /** {@inheritDoc} */
+        public void setHighlighted(boolean highlighted)
+        {
+            this.highlighted = highlighted;
+        }
+
+        /**
+         * Indicates the transform determined by this instance's heading, pitch, roll and scale.
+         *
+         * @return The instance's transform matrix.
+         */
+        protected Matrix getMatrix()
+        {
+            if (this.matrix != null)
+                return this.matrix;
+
+            Matrix m = Matrix.IDENTITY;
+
+            if (this.heading != null)
+                m = m.multiply(Matrix.fromRotationZ(Angle.POS360.subtract(this.heading)));
+
+            if (this.pitch != null)
+                m = m.multiply(Matrix.fromRotationX(this.pitch));
+
+            if (this.roll != null)
+                m = m.multiply(Matrix.fromRotationY(this.roll));
+
+            if (this.modelScale != null)
+                m = m.multiply(Matrix.fromScale(this.modelScale));
+
+            this.matrix = m;
+            return m;
+        }
+    }
+
+    /** The COLLADA document that defines the model. */
+    protected ColladaRoot model;
+    /** The altitude mode of all instances. */
+    protected int altitudeMode;
+    /** The placements of the model. */
+    protected Queue<Instance> instances = new ConcurrentLinkedQueue<Instance>();
+    /** The model's mesh shapes and their transforms. Null until the first instance is added. */
+    protected List<ColladaTraversalContext.ShapePlacement> parts;
+
+    /**
+     * Create a collection of instances of a COLLADA model. The collection initially contains no instances, and uses the
+     * model's altitude mode.
+     *
+     * @param model Parsed COLLADA document that defines the model.
+     *
+     * @throws IllegalArgumentException if the model is null.
+     */
+    public ColladaModelInstances(ColladaRoot model)
+    {
+        if (model == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.model = model;
+        this.altitudeMode = model.getAltitudeMode();
+    }
+
+    /**
+     * Indicates the COLLADA document that defines the model.
+     *
+     * @return The model document.
+     */
+    public ColladaRoot getModel()
+    {
+        return this.model;
+    }
+
+    /**
+     * Indicates the altitude mode of all instances.
+     *
+     * @return The altitude mode.
+     */
+    public int getAltitudeMode()
+    {
+        return this.altitudeMode;
+    }
+
+    /**
+     * Specifies the altitude mode of all instances, one of {@link gov.nasa.worldwind.WorldWind#ABSOLUTE}, {@link
+     * gov.nasa.worldwind.WorldWind#RELATIVE_TO_GROUND} or {@link gov.nasa.worldwind.WorldWind#CLAMP_TO_GROUND}.
+     *
+     * @param altitudeMode The altitude mode.
+     */
+    public void setAltitudeMode(int altitudeMode)
+    {
+        this.altitudeMode = altitudeMode;
+    }
+
+    /**
+     * Adds an instance of the model at a position, with no rotation or scale.
+     *
+     * @param position Position of the model's origin.
+     *
+     * @return The new instance.
+     *
+     * @throws IllegalArgumentException if the position is null.
+     */
+    public Instance addInstance(Position position)
+    {
+        return this.addInstance(position, null, null, null, null);
+    }
+
+    /**
+     * Adds an instance of the model.
+     *
+     * @param position   Position of the model's origin.
+     * @param heading    Rotation clockwise from north. May be null.
+     * @param pitch      Rotation about the model's X axis. May be null.
+     * @param roll       Rotation about the model's Y axis. May be null.
+     * @param modelScale Scale applied to the model's coordinates. May be null.
+     *
+     * @return The new instance.
+     *
+     * @throws IllegalArgumentException if the position is null.
+     */
+    public Instance addInstance(Position position, Angle heading, Angle pitch, Angle roll, Vec4 modelScale)
+    {
+        if (position == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Instance instance = new Instance(position, heading, pitch, roll, modelScale);
+        instance.shapes = this.createShapes(instance);
+        this.instances.add(instance);
+
+        return instance;
+    }
+
+    /**
+     * Removes an instance of the model. Does nothing if the instance is not in this collection.
+     *
+     * @param instance The instance to remove.
+     */
+    public void removeInstance(Instance instance)
+    {
+        this.instances.remove(instance);
+    }
+
+    /** Removes all instances of the model. */
+    public void removeAllInstances()
+    {
+        this.instances.clear();
+    }
+
+    /**
+     * Indicates the instances of the model.
+     *
+     * @return The instances, in the order they were added.
+     */
+    public Iterable<Instance> getInstances()
+    {
+        return this.instances;
+    }
+
+    /**
+     * Indicates the size of the vertex data that all instances share.
+     *
+     * @return The size of the model's vertex data, in bytes.
+     */
+    public long getGeometrySizeInBytes()
+    {
+        long size = 0;
+        Set<ColladaMeshBuffers> counted = new HashSet<ColladaMeshBuffers>();
+
+        for (ColladaTraversalContext.ShapePlacement part : this.getParts())
+        {
+            ColladaMeshBuffers buffers = part.getShape().getMeshBuffers();
+            if (counted.add(buffers))
+                size += buffers.getSizeInBytes();
+        }
+
+        return size;
+    }
+
+    /**
+     * Indicates the model's mesh shapes and their transforms, collecting them from the model document if necessary.
+     * The vertex data of each shape is built when the shapes are collected, so that every instance shares it.
+     *
+     * @return The model's mesh shapes.
+     */
+    protected synchronized List<ColladaTraversalContext.ShapePlacement> getParts()
+    {
+        if (this.parts == null)
+        {
+            List<ColladaTraversalContext.ShapePlacement> collector
+                = new ArrayList<ColladaTraversalContext.ShapePlacement>();
+
+            ColladaTraversalContext tc = new ColladaTraversalContext();
+            tc.setShapeCollector(collector);
+            this.model.render(tc, null);
+
+            for (ColladaTraversalContext.ShapePlacement part : collector)
+            {
+                part.getShape().getMeshBuffers();
+            }
+
+            this.parts = collector;
+        }
+
+        return this.parts;
+    }
+
+    /**
+     * Creates the shapes that draw the model's meshes at an instance.
+     *
+     * @param instance The instance to create shapes for.
+     *
+     * @return A shape for each of the model's meshes.
+     */
+    protected ColladaMeshShape[] createShapes(Instance instance)
+    {
+        List<ColladaTraversalContext.ShapePlacement> parts = this.getParts();
+
+        ColladaMeshShape[] shapes = new ColladaMeshShape[parts.size()];
+        for (int i = 0; i < shapes.length; i++)
+        {
+            shapes[i] = parts.get(i).getShape().createInstance();
+            shapes[i].setDelegateOwner(instance);
+        }
+
+        return shapes;
+    }
+
+    /** {@inheritDoc} Renders each instance of the model. */
+    public void render(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        List<ColladaTraversalContext.ShapePlacement> parts = this.getParts();
+
+        for (Instance instance : this.instances)
+        {
+            Matrix instanceMatrix = instance.getMatrix();
+            Position position = instance.getPosition();
+            boolean highlighted = instance.isHighlighted();
+
+            for (int i = 0; i < instance.shapes.length; i++)
+            {
+                ColladaMeshShape shape = instance.shapes[i];
+                shape.setModelPosition(position);
+                shape.setAltitudeMode(this.altitudeMode);
+                shape.setHighlighted(highlighted);
+
+                Matrix matrix = parts.get(i).getMatrix();
+                if (instanceMatrix != Matrix.IDENTITY)
+                    matrix = instanceMatrix.multiply(matrix);
+
+                shape.render(dc, matrix);
+            }
+        }
+    }
+}
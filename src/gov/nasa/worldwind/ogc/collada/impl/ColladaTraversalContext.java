@@ -31,19 +31,66 @@ package gov.nasa.worldwind.ogc.collada.impl;
 import gov.nasa.worldwind.geom.Matrix;
 import gov.nasa.worldwind.util.Logging;
 
-import java.util.Stack;
+import java.util.*;
 
 /**
  * Context to keep track of state while a COLLADA document is traversed. The traversal context keeps track of the
  * transform matrix stack that determines how COLLADA nodes are rendered.
+ * <p>
+ * A traversal context may also collect the mesh shapes of the document in place of rendering them. When a shape
+ * collector is specified, a render traversal adds each node's shapes to the collector, along with the transform matrix
+ * in effect at the node, and does not render them. See {@link #setShapeCollector(java.util.List)}.
  *
  * @author pabercrombie
  * @version $Id: ColladaTraversalContext.java 661 2012-06-26 18:02:23Z pabercrombie $
  */
 public class ColladaTraversalContext
 {
+    /** A mesh shape visited by a traversal, and the transform matrix in effect where it was visited. */
+    public static class ShapePlacement
+    {
+        /** The mesh shape. */
+        protected ColladaMeshShape shape;
+        /** Transform matrix of the node that contains the shape. */
+        protected Matrix matrix;
+
+        /**
+         * Create a new placement.
+         *
+         * @param shape  The mesh shape.
+         * @param matrix Transform matrix in effect at the node that contains the shape.
+         */
+        public ShapePlacement(ColladaMeshShape shape, Matrix matrix)
+        {
+            this.shape = shape;
+            this.matrix = matrix;
+        }
+
+        /**
+         * Indicates the mesh shape.
+         *
+         * @return The mesh shape.
+         */
+        public ColladaMeshShape getShape()
+        {
+            return this.shape;
+        }
+
+        /**
+         * Indicates the transform matrix in effect at the node that contains the shape.
+         *
+         * @return The shape's transform matrix.
+         */
+        public Matrix getMatrix()
+        {
+            return this.matrix;
+        }
+    }
+
     /** Transform matrix stack. */
     protected Stack<Matrix> matrixStack = new Stack<Matrix>();
+    /** List that receives the shapes visited by a render traversal. Null if shapes are rendered. */
+    protected List<ShapePlacement> shapeCollector;
 
     /** Create a new traversal context. The traversal matrix stack initially contains one element: the identity matrix. */
     public ColladaTraversalContext()
@@ -113,6 +160,28 @@ public class ColladaTraversalContext
         this.pushMatrix(top.multiply(m));
     }
 
+    /**
+     * Indicates the list that receives the mesh shapes visited by a render traversal.
+     *
+     * @return The shape collector, or null if shapes are rendered.
+     */
+    public List<ShapePlacement> getShapeCollector()
+    {
+        return this.shapeCollector;
+    }
+
+    /**
+     * Specifies a list to receive the mesh shapes visited by render traversals. While a collector is specified, a
+     * render traversal adds a placement for each shape to the collector instead of rendering the shape. Such a
+     * traversal does not use the draw context, which may be null.
+     *
+     * @param shapeCollector List to receive shapes. May be null, in which case shapes are rendered.
+     */
+    public void setShapeCollector(List<ShapePlacement> shapeCollector)
+    {
+        this.shapeCollector = shapeCollector;
+    }
+
     /** Reset the context so that it may be used for a fresh traversal. */
     public void initialize()
     {
@@ -60,6 +60,16 @@ public class ColladaFile implements ColladaDoc
         this.colladaFile = file;
     }
 
+    /**
+     * Returns the file specified to the constructor.
+     *
+     * @return the file from which COLLADA content is read.
+     */
+    public File getFile()
+    {
+        return this.colladaFile;
+    }
+
     /** {@inheritDoc} */
     public InputStream getInputStream() throws IOException
     {
@@ -70,6 +70,16 @@ public class ColladaInputStream implements ColladaDoc
         this.uri = uri;
     }
 
+    /**
+     * Returns the URI passed to the constructor.
+     *
+     * @return the URI of this document, or null if it is unknown.
+     */
+    public URI getURI()
+    {
+        return this.uri;
+    }
+
     /**
      * Returns the input stream reference passed to the constructor.
      *
@@ -29,6 +29,7 @@
 package gov.nasa.worldwind.ogc.kml;
 
 import gov.nasa.worldwind.event.Message;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.ogc.kml.impl.KMLTraversalContext;
 import gov.nasa.worldwind.render.DrawContext;
 import gov.nasa.worldwind.util.*;
@@ -46,7 +47,76 @@ import java.util.*;
  */
 public class KMLAbstractContainer extends KMLAbstractFeature
 {
+    /** The minimum number of features a container must hold before its features are spatially indexed: 32. */
+    protected static final int MIN_INDEXED_FEATURE_COUNT = 32;
+
+    /**
+     * Partitions the features of a container by how their Regions are determined, and indexes the features whose
+     * Regions have <code>clampToGround</code> bounding boxes by the boxes' sectors. Features are identified by their
+     * position in the container's feature list.
+     * <p>
+     * Only features whose own Region decides whether they are active are indexed or inherit a Region: features that
+     * are not containers, and network links. Other containers ignore their Region when deciding whether they are
+     * active, so they are always visited.
+     */
+    protected static class FeatureIndex
+    {
+        /** The number of features in the container when this index was built. */
+        protected final int numFeatures;
+        /** The sectors of features whose Region has a supported <code>clampToGround</code> bounding box. */
+        protected final SectorRTree tree;
+        /** The positions of the features in <code>tree</code>. */
+        protected final BitSet indexed = new BitSet();
+        /** The positions of features without a Region of their own, which inherit the container's Region. */
+        protected final BitSet inheriting = new BitSet();
+        /** The positions of all other features. These are always visited. */
+        protected final BitSet other = new BitSet();
+
+        public FeatureIndex(List<KMLAbstractFeature> features)
+        {
+            this.numFeatures = features.size();
+
+            List<Sector> sectors = new ArrayList<Sector>(features.size());
+            for (int i = 0; i < features.size(); i++)
+            {
+                KMLAbstractFeature feature = features.get(i);
+                Sector sector = null;
+
+                if (feature instanceof KMLAbstractContainer && !(feature instanceof KMLNetworkLink))
+                    this.other.set(i);
+                else if (feature.getRegion() == null)
+                    this.inheriting.set(i);
+                else if ((sector = feature.getRegion().getClampToGroundSector()) != null)
+                    this.indexed.set(i);
+                else
+                    this.other.set(i);
+
+                sectors.add(sector);
+            }
+
+            this.tree = new SectorRTree(sectors);
+        }
+
+        /**
+         * Indicates whether this index can exclude any features from traversal.
+         *
+         * @return <code>true</code> if any feature is indexed or inherits the container's Region, otherwise
+         *         <code>false</code>.
+         */
+        public boolean isUseful()
+        {
+            return !this.indexed.isEmpty() || !this.inheriting.isEmpty();
+        }
+    }
+
     protected ArrayList<KMLAbstractFeature> features = new ArrayList<KMLAbstractFeature>();
+    /**
+     * Spatial index over this container's features, built when first needed. <code>null</code> if the container is
+     * too small to index or indexing cannot exclude any feature.
+     */
+    protected FeatureIndex featureIndex;
+    /** Indicates whether <code>featureIndex</code> reflects this container's current features. */
+    protected boolean featureIndexValid;
 
     /**
      * Construct an instance.
@@ -76,13 +146,110 @@ public class KMLAbstractContainer extends KMLAbstractFeature
     public void addFeature(KMLAbstractFeature feature)
     {
         if (feature != null)
+        {
             this.features.add(feature);
+            this.invalidateFeatureIndex();
+        }
     }
 
     public void removeFeature(KMLAbstractFeature feature)
     {
         if (feature != null)
+        {
             this.getFeatures().remove(feature);
+            this.invalidateFeatureIndex();
+        }
+    }
+
+    /**
+     * Causes the spatial index of this container's features to be rebuilt the next time it's needed. This is called
+     * when features are added or removed, and when a feature's Region or bounding box changes. Applications that
+     * modify the list returned by {@link #getFeatures()} directly must call this afterwards.
+     */
+    public void invalidateFeatureIndex()
+    {
+        this.featureIndexValid = false;
+        this.featureIndex = null;
+    }
+
+    /**
+     * Returns the spatial index of this container's features, building it if necessary.
+     *
+     * @return the feature index, or <code>null</code> if this container holds fewer than
+     *         <code>MIN_INDEXED_FEATURE_COUNT</code> features or indexing cannot exclude any of them.
+     */
+    protected FeatureIndex getFeatureIndex()
+    {
+        if (this.featureIndexValid && this.featureIndex != null
+            && this.featureIndex.numFeatures != this.getFeatures().size())
+        {
+            this.featureIndexValid = false; // The list was modified directly.
+        }
+
+        if (!this.featureIndexValid)
+        {
+            this.featureIndex = this.createFeatureIndex();
+            this.featureIndexValid = true;
+        }
+
+        return this.featureIndex;
+    }
+
+    /**
+     * Creates a spatial index of this container's current features.
+     *
+     * @return the new index, or <code>null</code> if this container holds fewer than
+     *         <code>MIN_INDEXED_FEATURE_COUNT</code> features or indexing cannot exclude any of them.
+     */
+    protected FeatureIndex createFeatureIndex()
+    {
+        if (this.getFeatures().size() < MIN_INDEXED_FEATURE_COUNT)
+            return null;
+
+        FeatureIndex index = new FeatureIndex(this.getFeatures());
+        return index.isUseful() ? index : null;
+    }
+
+    /**
+     * Returns the features of this container that may be active on the specified draw context, in the order they
+     * appear in the feature list. The features omitted are exactly those that would find themselves inactive:
+     * features whose <code>clampToGround</code> Region lies outside the draw context's visible sector, and features
+     * that inherit an inactive Region from this container or its ancestors. Those features are found with a spatial
+     * index rather than by testing each of them, so the cost of traversing a large container is proportional to the
+     * number of features in view.
+     * <p>
+     * This returns the feature list itself if this container is not indexed.
+     *
+     * @param tc the current KML traversal context. This container's Region, if any, must be on its region stack.
+     * @param dc the current draw context.
+     *
+     * @return the features of this container that must be visited.
+     */
+    protected List<KMLAbstractFeature> selectFeatures(KMLTraversalContext tc, DrawContext dc)
+    {
+        FeatureIndex index = this.getFeatureIndex();
+        if (index == null)
+            return this.getFeatures();
+
+        BitSet selected = new BitSet(index.numFeatures);
+        selected.or(index.other);
+
+        KMLRegion inheritedRegion = tc.peekRegion();
+        if (!index.inheriting.isEmpty() && (inheritedRegion == null || inheritedRegion.isActive(tc, dc)))
+            selected.or(index.inheriting);
+
+        if (dc.getVisibleSector() != null)
+            index.tree.query(dc.getVisibleSector(), selected);
+        else
+            selected.or(index.indexed);
+
+        List<KMLAbstractFeature> features = new ArrayList<KMLAbstractFeature>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1))
+        {
+            features.add(this.getFeatures().get(i));
+        }
+
+        return features;
     }
 
     /**
@@ -188,7 +355,8 @@ public class KMLAbstractContainer extends KMLAbstractFeature
 
     /**
      * PreRenders this KML container's list of KML features, in the order they appear in the list. This does nothing if
-     * the list of features is empty.
+     * the list of features is empty. Features that {@link #selectFeatures(KMLTraversalContext, DrawContext)} determines
+     * cannot be active are skipped.
      *
      * @param tc the current KML traversal context.
      * @param dc the current draw context.
@@ -201,7 +369,7 @@ public class KMLAbstractContainer extends KMLAbstractFeature
         // root are rendered before features deeper in the tree. In the case of an image pyramid of GroundOverlays,
         // this causes the deeper nested overlays (which are typically more detailed) to render on top of the more
         // general overlay that is higher in the tree.
-        for (KMLAbstractFeature feature : this.getFeatures())
+        for (KMLAbstractFeature feature : this.selectFeatures(tc, dc))
         {
             if (feature instanceof KMLAbstractContainer)
                 containers.add(feature);
@@ -218,7 +386,8 @@ public class KMLAbstractContainer extends KMLAbstractFeature
 
     /**
      * Draws this KML container's list of KML features, in the order they appear in the list. This does nothing if the
-     * list of features is empty.
+     * list of features is empty. Features that {@link #selectFeatures(KMLTraversalContext, DrawContext)} determines
+     * cannot be active are skipped.
      *
      * @param tc the current KML traversal context.
      * @param dc the current draw context.
@@ -231,7 +400,7 @@ public class KMLAbstractContainer extends KMLAbstractFeature
         // root are rendered before features deeper in the tree. In the case of an image pyramid of GroundOverlays,
         // this causes the deeper nested overlays (which are typically more detailed) to render on top of the more
         // general overlay that is higher in the tree.
-        for (KMLAbstractFeature feature : this.getFeatures())
+        for (KMLAbstractFeature feature : this.selectFeatures(tc, dc))
         {
             if (feature instanceof KMLAbstractContainer)
                 containers.add(feature);
@@ -261,7 +430,10 @@ public class KMLAbstractContainer extends KMLAbstractFeature
         KMLAbstractContainer sourceContainer = (KMLAbstractContainer) sourceValues;
 
         if (sourceContainer.getFeatures() != null && sourceContainer.getFeatures().size() > 0)
+        {
             this.mergeFeatures(sourceContainer);
+            this.invalidateFeatureIndex();
+        }
     }
 
     /**
@@ -293,6 +465,18 @@ public class KMLAbstractContainer extends KMLAbstractFeature
         }
     }
 
+    @Override
+    public void onChange(Message msg)
+    {
+        if (KMLAbstractObject.MSG_BOX_CHANGED.equals(msg.getName())
+            || KMLAbstractObject.MSG_REGION_CHANGED.equals(msg.getName()))
+        {
+            this.invalidateFeatureIndex();
+        }
+
+        super.onChange(msg);
+    }
+
     @Override
     public void onMessage(Message msg)
     {
@@ -424,7 +424,10 @@ public abstract class KMLAbstractFeature extends KMLAbstractObject implements KM
             this.setVisibility((Boolean) sourceFeature.getField("visibility"));
 
         if (sourceFeature.getRegion() != null)
+        {
             this.setRegion(sourceFeature.getRegion());
+            this.onChange(new Message(KMLAbstractObject.MSG_REGION_CHANGED, this));
+        }
 
         if (sourceFeature.getStyleSelectors() != null && sourceFeature.getStyleSelectors().size() > 0)
         {
@@ -46,6 +46,7 @@ public abstract class KMLAbstractObject extends AbstractXMLEventParser implement
     public static final String MSG_BOX_CHANGED = "KMLAbstractObject.BoxChanged";
     public static final String MSG_GEOMETRY_CHANGED = "KMLAbstractObject.GeometryChanged";
     public static final String MSG_LINK_CHANGED = "KMLAbstractObject.LinkChanged";
+    public static final String MSG_REGION_CHANGED = "KMLAbstractObject.RegionChanged";
     public static final String MSG_STYLE_CHANGED = "KMLAbstractObject.StyleChanged";
     public static final String MSG_TIME_CHANGED = "KMLAbstractObject.TimeChanged";
     public static final String MSG_VIEW_CHANGED = "KMLAbstractObject.ViewChanged";
@@ -29,8 +29,7 @@
 package gov.nasa.worldwind.ogc.kml;
 
 import gov.nasa.worldwind.geom.Position;
-
-import java.util.*;
+import gov.nasa.worldwind.util.DoubleParser;
 
 /**
  * Tokenizer to read coordinate values from KML coordinate string. The components of each coordinate tuple are separated
@@ -55,6 +54,10 @@ import java.util.*;
  * -18.3,23.56,9,34.9,56.0,2
  * </pre>
  * Will be tokenized to two coordinates: (23.56, -18.3, 9), (56.0, 34.9, 2)
+ * <p>
+ * The tokenizer reads the coordinate string in place and converts each number with {@link DoubleParser}, so reading a
+ * coordinate creates no intermediate strings. {@link #nextCoordinates(double[])} reads a coordinate without creating a
+ * <code>Position</code>.
  *
  * @author pabercrombie
  * @version $Id: KMLCoordinateTokenizer.java 1171 2013-02-11 21:45:02Z dcollins $
@@ -62,11 +65,15 @@ import java.util.*;
 public class KMLCoordinateTokenizer
 {
     protected int i;
-    protected char[] buffer;
-
-    protected List<String> words = new ArrayList<String>(3);
+    protected int end;
+    protected CharSequence buffer;
 
-    protected StringBuilder nextWord = new StringBuilder();
+    /** The start and end indices of the current coordinate's words in the buffer. */
+    protected int[] wordStarts = new int[3];
+    protected int[] wordEnds = new int[3];
+    protected int numWords;
+    protected int wordStart;
+    protected double[] coords = new double[3];
 
     protected boolean inWord;
     protected boolean afterComma = false;
@@ -78,7 +85,29 @@ public class KMLCoordinateTokenizer
      */
     public KMLCoordinateTokenizer(String s)
     {
-        this.buffer = s.trim().toCharArray();
+        this((CharSequence) s);
+    }
+
+    /**
+     * Create a tokenizer to read coordinates from a character sequence. The sequence is read in place and must not
+     * change while the tokenizer is in use.
+     *
+     * @param s Character sequence to read from.
+     */
+    public KMLCoordinateTokenizer(CharSequence s)
+    {
+        this.buffer = s;
+        this.end = s.length();
+
+        // Skip leading and trailing white space and control characters, as String.trim does.
+        while (this.i < this.end && s.charAt(this.i) <= ' ')
+        {
+            this.i++;
+        }
+        while (this.end > this.i && s.charAt(this.end - 1) <= ' ')
+        {
+            this.end--;
+        }
     }
 
     /**
@@ -88,7 +117,7 @@ public class KMLCoordinateTokenizer
      */
     public boolean hasMoreTokens()
     {
-        return i < buffer.length;
+        return i < end;
     }
 
     /**
@@ -100,60 +129,99 @@ public class KMLCoordinateTokenizer
      */
     public Position nextPosition() throws NumberFormatException
     {
-        this.words.clear();
+        int n = this.nextCoordinates(this.coords);
+        if (n > 2)
+            return Position.fromDegrees(this.coords[0], this.coords[1], this.coords[2]);
+        else if (n == 2)
+            return Position.fromDegrees(this.coords[0], this.coords[1]);
+        return null;
+    }
+
+    /**
+     * Read the next coordinate from the coordinate string into an array, without creating a {@link Position}.
+     *
+     * @param coords Array of at least three elements to receive the coordinate's latitude and longitude in degrees
+     *               and its altitude in meters. The altitude is 0 if the coordinate has only two components.
+     *
+     * @return The number of components in the coordinate, 2 or 3, or 0 if the next token is not a complete
+     *         coordinate. The array is not modified if 0 is returned.
+     *
+     * @throws NumberFormatException if the coordinates cannot be parsed to a number.
+     */
+    public int nextCoordinates(double[] coords) throws NumberFormatException
+    {
+        this.numWords = 0;
 
-        while (this.i < this.buffer.length)
+        while (this.i < this.end)
         {
-            char ch = this.buffer[this.i++];
+            char ch = this.buffer.charAt(this.i++);
 
             if (Character.isWhitespace(ch))
             {
                 if (this.inWord)
-                    wordBoundary();
+                    wordBoundary(this.i - 1);
 
                 // If the last separator was a comma, don't break. Wait for another word.
-                if (!this.afterComma && this.words.size() >= 2)
+                if (!this.afterComma && this.numWords >= 2)
                     break;
             }
             else if (ch == ',')
             {
                 if (this.inWord)
-                    wordBoundary();
+                    wordBoundary(this.i - 1);
 
                 this.afterComma = true;
 
                 // Three words make a complete coordinate. Break out of the loop and return the coordinate.
-                if (this.words.size() >= 3)
+                if (this.numWords >= 3)
                     break;
             }
             else
             {
+                if (!this.inWord)
+                    this.wordStart = this.i - 1;
                 this.inWord = true;
                 this.afterComma = false;
-                this.nextWord.append(ch);
             }
         }
 
         if (this.inWord)
-            this.wordBoundary();
+            this.wordBoundary(this.i);
 
-        return this.makePosition();
+        return this.makeCoordinates(coords);
     }
 
-    protected Position makePosition()
+    protected int makeCoordinates(double[] coords)
     {
-        if (this.words.size() > 2)
-            return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)),
-                Double.valueOf(this.words.get(2)));
-        else if (this.words.size() == 2)
-            return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)));
-        return null;
+        if (this.numWords < 2)
+            return 0;
+
+        double latitude = this.parseWord(1);
+        double longitude = this.parseWord(0);
+        double altitude = this.numWords > 2 ? this.parseWord(2) : 0;
+
+        coords[0] = latitude;
+        coords[1] = longitude;
+        coords[2] = altitude;
+
+        return this.numWords > 2 ? 3 : 2;
+    }
+
+    protected double parseWord(int word)
+    {
+        return DoubleParser.parseDouble(this.buffer, this.wordStarts[word], this.wordEnds[word]);
     }
 
-    protected void wordBoundary()
+    protected void wordBoundary(int wordEnd)
     {
         this.inWord = false;
-        this.words.add(this.nextWord.toString());
-        this.nextWord = new StringBuilder();
+
+        // A coordinate has at most three words. Any further words are not used.
+        if (this.numWords < this.wordStarts.length)
+        {
+            this.wordStarts[this.numWords] = this.wordStart;
+            this.wordEnds[this.numWords] = wordEnd;
+        }
+        this.numWords++;
     }
 }
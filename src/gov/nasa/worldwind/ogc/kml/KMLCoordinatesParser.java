@@ -28,15 +28,15 @@
 
 package gov.nasa.worldwind.ogc.kml;
 
-import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.util.xml.*;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
-import java.util.ArrayList;
 
 /**
- * Parses KML <i>coordinates</i> elements.
+ * Parses KML <i>coordinates</i> elements. The positions are returned in a {@link PackedPositionList}, which stores
+ * them as packed latitude, longitude and altitude values.
  *
  * @author tag
  * @version $Id: KMLCoordinatesParser.java 1171 2013-02-11 21:45:02Z dcollins $
@@ -60,7 +60,8 @@ public class KMLCoordinatesParser extends AbstractXMLEventParser
         if (s == null || s.length() < 3) // "a,b" is the smallest possible coordinate string
             return null;
 
-        ArrayList<Position> positions = new ArrayList<Position>();
+        PackedPositionList positions = new PackedPositionList();
+        double[] coords = new double[3];
 
         KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(s);
 
@@ -68,7 +69,9 @@ public class KMLCoordinatesParser extends AbstractXMLEventParser
         {
             try
             {
-                positions.add(tokenizer.nextPosition());
+                // Incomplete coordinates are skipped rather than added as null positions.
+                if (tokenizer.nextCoordinates(coords) > 0)
+                    positions.add(coords[0], coords[1], coords[2]);
             }
             catch (NumberFormatException e)
             {
@@ -84,6 +87,7 @@ public class KMLCoordinatesParser extends AbstractXMLEventParser
             }
         }
 
+        positions.trimToSize();
         return new Position.PositionList(positions);
     }
 }
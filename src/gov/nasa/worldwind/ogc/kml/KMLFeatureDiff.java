@@ -0,0 +1,639 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.event.Message;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.ogc.kml.impl.KMLRenderable;
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.xml.*;
+
+import java.util.*;
+
+/**
+ * The difference between a displayed KML document and a newly parsed version of it, such as a live feed rewritten
+ * every few seconds. Applying the diff modifies the displayed document to match the new version while keeping the
+ * objects, and the shapes, of features that did not change.
+ * <p>
+ * Features are matched by their <code>id</code> within containers that are themselves matched, starting with the two
+ * documents' root features. Features without an identifier are matched in document order with the unidentified
+ * features of the same container and type. A matched feature is changed if its elements differ, and:
+ * <ul> <li>a container's own elements are replaced and its features diffed in turn;</li> <li>a placemark's elements
+ * are replaced, and its shapes are kept and told to resolve their style again, unless its geometry changed, in which
+ * case only its shapes are rebuilt;</li> <li>any other feature is replaced by its new version.</li> </ul>
+ * Unmatched features of the new version are added and unmatched features of the displayed document are removed, and
+ * each container's features are put in the order of the new version.
+ * <p>
+ * A diff may be computed on any thread, but must be applied by {@link #apply()} on the thread that renders the
+ * document. Once applied, the new version's objects are part of the displayed document, and the new version must not
+ * be used again.
+ */
+public class KMLFeatureDiff
+{
+    /** A matched feature whose elements changed. */
+    protected static class Change
+    {
+        protected final KMLAbstractFeature feature;
+        protected final KMLAbstractFeature update;
+
+        public Change(KMLAbstractFeature feature, KMLAbstractFeature update)
+        {
+            this.feature = feature;
+            this.update = update;
+        }
+    }
+
+    protected final KMLRoot root;
+    protected final KMLRoot updateRoot;
+    protected final List<KMLAbstractFeature> addedFeatures = new ArrayList<KMLAbstractFeature>();
+    protected final List<KMLAbstractFeature> removedFeatures = new ArrayList<KMLAbstractFeature>();
+    protected final List<Change> changes = new ArrayList<Change>();
+    /** The new feature list of each container whose features were added, removed or reordered. */
+    protected final Map<KMLAbstractContainer, List<KMLAbstractFeature>> featureLists =
+        new LinkedHashMap<KMLAbstractContainer, List<KMLAbstractFeature>>();
+    /** The new root feature, if the root feature is replaced. */
+    protected KMLAbstractFeature rootFeature;
+    protected boolean applied;
+
+    /**
+     * Computes the difference between a displayed document and a new version of it.
+     *
+     * @param root       the displayed document.
+     * @param updateRoot the new version of the document, parsed.
+     *
+     * @throws IllegalArgumentException if either root is null.
+     */
+    public KMLFeatureDiff(KMLRoot root, KMLRoot updateRoot)
+    {
+        if (root == null || updateRoot == null)
+        {
+            String message = Logging.getMessage("nullValue.KMLRootIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.root = root;
+        this.updateRoot = updateRoot;
+
+        KMLAbstractFeature feature = root.getFeature();
+        KMLAbstractFeature updateFeature = updateRoot.getFeature();
+        if (feature == null || updateFeature == null)
+        {
+            if (feature != updateFeature)
+                this.rootFeature = this.replace(feature, updateFeature);
+        }
+        else if (this.diffFeature(feature, updateFeature) != feature)
+        {
+            this.rootFeature = updateFeature;
+        }
+    }
+
+    /**
+     * Returns the features of the new version that match no displayed feature, or replace a displayed feature that is
+     * not a container or placemark.
+     *
+     * @return the added features.
+     */
+    public List<KMLAbstractFeature> getAddedFeatures()
+    {
+        return this.addedFeatures;
+    }
+
+    /**
+     * Returns the displayed features that match no feature of the new version, or are replaced by a new feature.
+     *
+     * @return the removed features.
+     */
+    public List<KMLAbstractFeature> getRemovedFeatures()
+    {
+        return this.removedFeatures;
+    }
+
+    /**
+     * Returns the displayed containers and placemarks whose elements are changed in place.
+     *
+     * @return the changed features.
+     */
+    public List<KMLAbstractFeature> getChangedFeatures()
+    {
+        List<KMLAbstractFeature> list = new ArrayList<KMLAbstractFeature>(this.changes.size());
+        for (Change change : this.changes)
+        {
+            list.add(change.feature);
+        }
+
+        return list;
+    }
+
+    /**
+     * Indicates whether the new version differs from the displayed document.
+     *
+     * @return true if applying this diff would not modify the displayed document.
+     */
+    public boolean isEmpty()
+    {
+        return this.changes.isEmpty() && this.featureLists.isEmpty() && this.rootFeature == null;
+    }
+
+    /**
+     * Modifies the displayed document to match the new version, and requests a redraw of the document. Must be called
+     * on the thread that renders the document. Calling this method again has no effect.
+     */
+    public void apply()
+    {
+        if (this.applied || this.isEmpty())
+            return;
+
+        this.applied = true;
+
+        boolean stylesChanged = false;
+        for (Change change : this.changes)
+        {
+            if (change.feature instanceof KMLAbstractContainer)
+                stylesChanged |= this.applyContainerChange((KMLAbstractContainer) change.feature, change.update);
+            else
+                this.applyPlacemarkChange((KMLPlacemark) change.feature, (KMLPlacemark) change.update);
+        }
+
+        for (Map.Entry<KMLAbstractContainer, List<KMLAbstractFeature>> entry : this.featureLists.entrySet())
+        {
+            KMLAbstractContainer container = entry.getKey();
+            for (KMLAbstractFeature feature : entry.getValue())
+            {
+                feature.setParent(container);
+            }
+
+            container.getFeatures().clear();
+            container.getFeatures().addAll(entry.getValue());
+        }
+
+        // Changed features may have new Regions, so rebuild the feature index of every modified container.
+        for (Change change : this.changes)
+        {
+            if (change.feature.getParent() instanceof KMLAbstractContainer)
+                ((KMLAbstractContainer) change.feature.getParent()).invalidateFeatureIndex();
+        }
+
+        for (KMLAbstractContainer container : this.featureLists.keySet())
+        {
+            container.invalidateFeatureIndex();
+        }
+
+        if (this.rootFeature != null)
+        {
+            this.rootFeature.setParent(this.root);
+            this.root.feature = this.rootFeature;
+            this.root.featureFetched = true;
+        }
+
+        this.registerIds();
+
+        // A container's style selectors include the document's shared styles, which any placemark may refer to.
+        if (stylesChanged)
+            this.onStyleChanged(this.root.getFeature());
+
+        this.root.requestRedraw();
+    }
+
+    //**************************************************************//
+    //********************  Diff Computation  **********************//
+    //**************************************************************//
+
+    /**
+     * Compares a displayed feature with its match in the new version.
+     *
+     * @param feature the displayed feature.
+     * @param update  the feature's match in the new version.
+     *
+     * @return the feature to display: the displayed feature, or the new feature if it replaces the displayed one.
+     */
+    protected KMLAbstractFeature diffFeature(KMLAbstractFeature feature, KMLAbstractFeature update)
+    {
+        if (feature.getClass() != update.getClass())
+            return this.replace(feature, update);
+
+        if (feature instanceof KMLAbstractContainer)
+        {
+            if (!this.contentEquals(feature, update))
+                this.changes.add(new Change(feature, update));
+
+            this.diffContainer((KMLAbstractContainer) feature, (KMLAbstractContainer) update);
+            return feature;
+        }
+
+        if (this.contentEquals(feature, update))
+            return feature;
+
+        if (feature instanceof KMLPlacemark)
+        {
+            this.changes.add(new Change(feature, update));
+            return feature;
+        }
+
+        return this.replace(feature, update);
+    }
+
+    protected void diffContainer(KMLAbstractContainer container, KMLAbstractContainer update)
+    {
+        List<KMLAbstractFeature> features = container.getFeatures();
+        Map<String, KMLAbstractFeature> featuresById = new HashMap<String, KMLAbstractFeature>(features.size() * 4 / 3);
+        Map<Class, LinkedList<KMLAbstractFeature>> unidentified = new HashMap<Class, LinkedList<KMLAbstractFeature>>();
+        for (KMLAbstractFeature feature : features)
+        {
+            String id = feature.getId();
+            if (id != null && !featuresById.containsKey(id))
+            {
+                featuresById.put(id, feature);
+            }
+            else
+            {
+                LinkedList<KMLAbstractFeature> list = unidentified.get(feature.getClass());
+                if (list == null)
+                    unidentified.put(feature.getClass(), list = new LinkedList<KMLAbstractFeature>());
+                list.add(feature);
+            }
+        }
+
+        List<KMLAbstractFeature> newFeatures = new ArrayList<KMLAbstractFeature>(update.getFeatures().size());
+        Set<KMLAbstractFeature> matched = Collections.newSetFromMap(
+            new IdentityHashMap<KMLAbstractFeature, Boolean>(features.size() * 4 / 3));
+        for (KMLAbstractFeature updateFeature : update.getFeatures())
+        {
+            String id = updateFeature.getId();
+            KMLAbstractFeature feature = id != null ? featuresById.remove(id) : null;
+            if (feature == null)
+            {
+                LinkedList<KMLAbstractFeature> list = unidentified.get(updateFeature.getClass());
+                feature = id == null && list != null ? list.poll() : null;
+            }
+
+            if (feature == null)
+            {
+                this.addedFeatures.add(updateFeature);
+                newFeatures.add(updateFeature);
+            }
+            else
+            {
+                matched.add(feature);
+                newFeatures.add(this.diffFeature(feature, updateFeature));
+            }
+        }
+
+        for (KMLAbstractFeature feature : features)
+        {
+            if (!matched.contains(feature))
+                this.removedFeatures.add(feature);
+        }
+
+        if (!newFeatures.equals(features))
+            this.featureLists.put(container, newFeatures);
+    }
+
+    protected KMLAbstractFeature replace(KMLAbstractFeature feature, KMLAbstractFeature update)
+    {
+        if (feature != null)
+            this.removedFeatures.add(feature);
+        if (update != null)
+            this.addedFeatures.add(update);
+
+        return update;
+    }
+
+    /**
+     * Indicates whether two KML objects or element values have the same content. A container's features are not
+     * compared.
+     *
+     * @param a the first object. May be null.
+     * @param b the second object. May be null.
+     *
+     * @return true if the objects are equal or both null.
+     */
+    protected boolean contentEquals(Object a, Object b)
+    {
+        if (a == b)
+            return true;
+        if (a == null || b == null)
+            return false;
+
+        if (a instanceof AbstractXMLEventParser)
+        {
+            return a.getClass() == b.getClass()
+                && this.fieldsEqual(((AbstractXMLEventParser) a).getFields(), ((AbstractXMLEventParser) b).getFields())
+                && this.membersEqual(a, b);
+        }
+
+        if (a instanceof Position.PositionList)
+        {
+            return b instanceof Position.PositionList
+                && this.contentEquals(((Position.PositionList) a).list, ((Position.PositionList) b).list);
+        }
+
+        if (a instanceof Iterable)
+        {
+            if (!(b instanceof Iterable))
+                return false;
+
+            Iterator iterA = ((Iterable) a).iterator();
+            Iterator iterB = ((Iterable) b).iterator();
+            while (iterA.hasNext() && iterB.hasNext())
+            {
+                if (!this.contentEquals(iterA.next(), iterB.next()))
+                    return false;
+            }
+
+            return !iterA.hasNext() && !iterB.hasNext();
+        }
+
+        return a.equals(b);
+    }
+
+    protected boolean fieldsEqual(AVList a, AVList b)
+    {
+        Set<Map.Entry<String, Object>> entriesA = a != null ? a.getEntries() : Collections.<String, Object>emptyMap()
+            .entrySet();
+        Set<Map.Entry<String, Object>> entriesB = b != null ? b.getEntries() : Collections.<String, Object>emptyMap()
+            .entrySet();
+        if (entriesA.size() != entriesB.size())
+            return false;
+
+        for (Map.Entry<String, Object> entry : entriesA)
+        {
+            if (!b.hasKey(entry.getKey()) || !this.contentEquals(entry.getValue(), b.getValue(entry.getKey())))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Compares the elements KML objects hold outside their fields.
+     *
+     * @param a the first object.
+     * @param b the second object, of the same class.
+     *
+     * @return true if the objects' other elements are equal.
+     */
+    protected boolean membersEqual(Object a, Object b)
+    {
+        if (a instanceof KMLAbstractFeature)
+        {
+            KMLAbstractFeature fa = (KMLAbstractFeature) a;
+            KMLAbstractFeature fb = (KMLAbstractFeature) b;
+            if (!this.contentEquals(fa.getStyleSelectors(), fb.getStyleSelectors())
+                || !this.contentEquals(fa.getRegion(), fb.getRegion()))
+                return false;
+        }
+
+        if (a instanceof KMLPlacemark)
+            return this.contentEquals(((KMLPlacemark) a).getGeometry(), ((KMLPlacemark) b).getGeometry());
+        else if (a instanceof KMLDocument)
+            return this.contentEquals(((KMLDocument) a).getSchemas(), ((KMLDocument) b).getSchemas());
+        else if (a instanceof KMLPoint)
+            return this.contentEquals(((KMLPoint) a).getCoordinates(), ((KMLPoint) b).getCoordinates());
+        else if (a instanceof KMLPolygon)
+            return this.contentEquals(((KMLPolygon) a).getInnerBoundaries(), ((KMLPolygon) b).getInnerBoundaries());
+        else if (a instanceof KMLMultiGeometry)
+            return this.contentEquals(((KMLMultiGeometry) a).getGeometries(), ((KMLMultiGeometry) b).getGeometries());
+        else if (a instanceof KMLExtendedData)
+            return this.contentEquals(((KMLExtendedData) a).getData(), ((KMLExtendedData) b).getData())
+                && this.contentEquals(((KMLExtendedData) a).getSchemaData(), ((KMLExtendedData) b).getSchemaData());
+        else if (a instanceof KMLSchemaData)
+            return this.contentEquals(((KMLSchemaData) a).getSimpleData(), ((KMLSchemaData) b).getSimpleData());
+        else if (a instanceof KMLSchema)
+            return this.contentEquals(((KMLSchema) a).getSimpleFields(), ((KMLSchema) b).getSimpleFields());
+        else if (a instanceof KMLStyleMap)
+            return this.contentEquals(((KMLStyleMap) a).getPairs(), ((KMLStyleMap) b).getPairs());
+        else if (a instanceof KMLListStyle)
+            return this.contentEquals(((KMLListStyle) a).getItemIcons(), ((KMLListStyle) b).getItemIcons());
+        else if (a instanceof KMLVec2)
+            return this.contentEquals(((KMLVec2) a).getX(), ((KMLVec2) b).getX())
+                && this.contentEquals(((KMLVec2) a).getY(), ((KMLVec2) b).getY());
+
+        return true;
+    }
+
+    //**************************************************************//
+    //********************  Diff Application  **********************//
+    //**************************************************************//
+
+    /**
+     * Gives a displayed container the elements of its new version, other than its features.
+     *
+     * @param container the displayed container.
+     * @param update    the container's new version.
+     *
+     * @return true if the container's style selectors changed.
+     */
+    protected boolean applyContainerChange(KMLAbstractContainer container, KMLAbstractFeature update)
+    {
+        boolean stylesChanged = !this.contentEquals(container.getStyleSelectors(), update.getStyleSelectors());
+        this.replaceElements(container, update);
+
+        if (container instanceof KMLDocument)
+        {
+            KMLDocument document = (KMLDocument) container;
+            document.getSchemas().clear();
+            document.getSchemas().addAll(((KMLDocument) update).getSchemas());
+            setParent(document.getSchemas(), document);
+        }
+
+        return stylesChanged;
+    }
+
+    /**
+     * Gives a displayed placemark the elements of its new version. The placemark's shapes are rebuilt if its geometry
+     * changed, and otherwise are kept and told to resolve their style again.
+     *
+     * @param placemark the displayed placemark.
+     * @param update    the placemark's new version.
+     */
+    protected void applyPlacemarkChange(KMLPlacemark placemark, KMLPlacemark update)
+    {
+        boolean geometryChanged = !this.contentEquals(placemark.getGeometry(), update.getGeometry());
+        this.replaceElements(placemark, update);
+
+        if (geometryChanged)
+        {
+            if (update.getGeometry() != null)
+                update.getGeometry().setParent(placemark);
+            placemark.setGeometry(update.getGeometry());
+            placemark.renderables = null;
+            return;
+        }
+
+        if (placemark.renderables == null)
+            return;
+
+        Message msg = new Message(KMLAbstractObject.MSG_STYLE_CHANGED, placemark);
+        for (KMLRenderable renderable : placemark.renderables)
+        {
+            renderable.onMessage(msg);
+
+            // Shapes copy the placemark's name and description when they're created.
+            if (renderable instanceof AVList)
+            {
+                AVList avList = (AVList) renderable;
+                setValue(avList, AVKey.DISPLAY_NAME, placemark.getName());
+                setValue(avList, AVKey.DESCRIPTION, placemark.getDescription());
+                setValue(avList, AVKey.SHORT_DESCRIPTION, placemark.getSnippetText());
+            }
+        }
+    }
+
+    /**
+     * Replaces a displayed feature's fields, style selectors and Region with those of its new version.
+     *
+     * @param feature the displayed feature.
+     * @param update  the feature's new version.
+     */
+    protected void replaceElements(KMLAbstractFeature feature, KMLAbstractFeature update)
+    {
+        if (feature.hasFields())
+        {
+            for (String key : new ArrayList<String>(keys(feature.getFields())))
+            {
+                if (!update.hasField(key))
+                    feature.removeField(key);
+            }
+        }
+
+        if (update.hasFields())
+        {
+            for (Map.Entry<String, Object> entry : update.getFields().getEntries())
+            {
+                feature.setField(entry.getKey(), entry.getValue());
+                if (entry.getValue() instanceof XMLEventParser)
+                    ((XMLEventParser) entry.getValue()).setParent(feature);
+            }
+        }
+
+        feature.getStyleSelectors().clear();
+        feature.getStyleSelectors().addAll(update.getStyleSelectors());
+        setParent(feature.getStyleSelectors(), feature);
+
+        if (update.getRegion() != null)
+            update.getRegion().setParent(feature);
+        feature.setRegion(update.getRegion());
+    }
+
+    /**
+     * Updates the displayed document's identifier table. The identifiers of the new version's objects that are now part
+     * of the displayed document are added, so that style URLs and other references resolve to them, and the
+     * identifiers of removed features are removed.
+     */
+    protected void registerIds()
+    {
+        Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        removed.addAll(this.removedFeatures);
+
+        XMLEventParserContext context = this.root.getParserContext();
+        if (!removed.isEmpty())
+        {
+            Iterator<Map.Entry<String, Object>> iter = context.getIdTable().entrySet().iterator();
+            while (iter.hasNext())
+            {
+                if (hasAncestor(iter.next().getValue(), removed))
+                    iter.remove();
+            }
+        }
+
+        for (Map.Entry<String, Object> entry : this.updateRoot.getParserContext().getIdTable().entrySet())
+        {
+            if (entry.getValue() instanceof KMLAbstractObject
+                && ((KMLAbstractObject) entry.getValue()).getRoot() == this.root)
+            {
+                context.addId(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Tells the shapes of every placemark in a feature hierarchy to resolve their style again.
+     *
+     * @param feature the feature at the top of the hierarchy. May be null.
+     */
+    protected void onStyleChanged(KMLAbstractFeature feature)
+    {
+        if (feature instanceof KMLAbstractContainer)
+        {
+            for (KMLAbstractFeature child : ((KMLAbstractContainer) feature).getFeatures())
+            {
+                this.onStyleChanged(child);
+            }
+        }
+        else if (feature instanceof KMLPlacemark && ((KMLPlacemark) feature).renderables != null)
+        {
+            Message msg = new Message(KMLAbstractObject.MSG_STYLE_CHANGED, feature);
+            for (KMLRenderable renderable : ((KMLPlacemark) feature).renderables)
+            {
+                renderable.onMessage(msg);
+            }
+        }
+    }
+
+    protected static boolean hasAncestor(Object o, Set<Object> ancestors)
+    {
+        while (o instanceof XMLEventParser)
+        {
+            if (ancestors.contains(o))
+                return true;
+            o = ((XMLEventParser) o).getParent();
+        }
+
+        return false;
+    }
+
+    protected static List<String> keys(AVList avList)
+    {
+        List<String> keys = new ArrayList<String>();
+        for (Map.Entry<String, Object> entry : avList.getEntries())
+        {
+            keys.add(entry.getKey());
+        }
+
+        return keys;
+    }
+
+    protected static void setParent(List<? extends XMLEventParser> list, XMLEventParser parent)
+    {
+        for (XMLEventParser parser : list)
+        {
+            parser.setParent(parent);
+        }
+    }
+
+    protected static void setValue(AVList avList, String key, Object value)
+    {
+        if (value != null)
+            avList.setValue(key, value);
+        else
+            avList.removeKey(key);
+    }
+}
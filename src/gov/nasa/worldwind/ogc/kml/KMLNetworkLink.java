@@ -363,13 +363,15 @@ public class KMLNetworkLink extends KMLAbstractContainer implements PropertyChan
 
     /**
      * Thread's off a task to determine whether the resource is local or remote and then retrieves it either from disk
-     * cache or a remote server.
+     * cache or a remote server. If the root document has a {@link KMLResourceLoader}, the loader retrieves the
+     * resource instead.
      *
      * @param dc the current draw context.
      */
     protected void requestResource(DrawContext dc)
     {
-        if (WorldWind.getTaskService().isFull())
+        KMLResourceLoader loader = this.getRoot().getResourceLoader();
+        if (loader == null && WorldWind.getTaskService().isFull())
             return;
 
         KMLLink link = this.getLinkOrUrl();
@@ -386,7 +388,10 @@ public class KMLNetworkLink extends KMLAbstractContainer implements PropertyChan
         if (this.hasNetworkLinkControl() && this.getRoot().getNetworkLinkControl().getCookie() != null)
             address = address + this.getRoot().getNetworkLinkControl().getCookie();
 
-        WorldWind.getTaskService().addTask(new RequestTask(this, address));
+        if (loader != null)
+            loader.requestNetworkLink(this, address);
+        else
+            WorldWind.getTaskService().addTask(new RequestTask(this, address));
     }
 
     /**
@@ -419,6 +424,20 @@ public class KMLNetworkLink extends KMLAbstractContainer implements PropertyChan
         }
 
         Object o = this.getRoot().resolveNetworkLink(address, this.isLinkCacheable(), updateTime);
+        this.setRetrievedResource(address, o);
+    }
+
+    /**
+     * Installs a retrieved network resource. If the resource is a <code>KMLRoot</code>, this calls <code>{@link
+     * #setNetworkResource(KMLRoot)}</code> and sends an <code>{@link
+     * gov.nasa.worldwind.avlist.AVKey#RETRIEVAL_STATE_SUCCESSFUL}</code> property change event to this link's property
+     * change listeners. Any other non-null resource is not a valid link target, and this link stops retrieving it.
+     *
+     * @param address the address of the resource.
+     * @param o       the retrieved resource. May be null, in which case this does nothing.
+     */
+    protected void setRetrievedResource(String address, Object o)
+    {
         if (o instanceof KMLRoot)
         {
             KMLRoot newRoot = (KMLRoot) o;
@@ -195,7 +195,7 @@ public class KMLParserContext extends BasicXMLEventParserContext
     {
         super.initializeParsers();
 
-        this.parsers.put(COORDINATES, new KMLCoordinatesParser());
+        this.registerParserFactory(COORDINATES, KMLCoordinatesParser::new);
 
         this.initializeVersion2dot2Parsers();
         this.initializeCompanionParsers();
@@ -213,69 +213,70 @@ public class KMLParserContext extends BasicXMLEventParserContext
 
     protected void initializeParsers(String ns)
     {
-        this.parsers.put(new QName(ns, "Alias"), new KMLAlias(ns));
-        this.parsers.put(new QName(ns, "BalloonStyle"), new KMLBalloonStyle(ns));
-        this.parsers.put(new QName(ns, "Camera"), new KMLCamera(ns));
-        this.parsers.put(new QName(ns, "Change"), new KMLChange(ns));
-        this.parsers.put(new QName(ns, "coordinates"), this.getCoordinatesParser());
-        this.parsers.put(new QName(ns, "Create"), new KMLCreate(ns));
-        this.parsers.put(new QName(ns, "Data"), new KMLData(ns));
-        this.parsers.put(new QName(ns, "Delete"), new KMLDelete(ns));
-        this.parsers.put(new QName(ns, "Document"), new KMLDocument(ns));
-        this.parsers.put(new QName(ns, "ExtendedData"), new KMLExtendedData(ns));
-        this.parsers.put(new QName(ns, "Folder"), new KMLFolder(ns));
-        this.parsers.put(new QName(ns, "GroundOverlay"), new KMLGroundOverlay(ns));
-        this.parsers.put(new QName(ns, "Icon"), new KMLIcon(ns));
-        this.parsers.put(new QName(ns, "IconStyle"), new KMLIconStyle(ns));
-        this.parsers.put(new QName(ns, "ImagePyramid"), new KMLImagePyramid(ns));
-        this.parsers.put(new QName(ns, "innerBoundaryIs"), new KMLBoundary(ns));
-        this.parsers.put(new QName(ns, "ItemIcon"), new KMLItemIcon(ns));
-        this.parsers.put(new QName(ns, "hotSpot"), new KMLVec2(ns));
-        this.parsers.put(new QName(ns, "LabelStyle"), new KMLLabelStyle(ns));
-        this.parsers.put(new QName(ns, "LatLonBox"), new KMLLatLonBox(ns));
-        this.parsers.put(new QName(ns, "LatLonAltBox"), new KMLLatLonAltBox(ns));
-        this.parsers.put(new QName(ns, "LinearRing"), new KMLLinearRing(ns));
-        this.parsers.put(new QName(ns, "LineString"), new KMLLineString(ns));
-        this.parsers.put(new QName(ns, "LineStyle"), new KMLLineStyle(ns));
-        this.parsers.put(new QName(ns, "Link"), new KMLLink(ns));
-        this.parsers.put(new QName(ns, "linkSnippet"), new KMLSnippet(ns));
-        this.parsers.put(new QName(ns, "ListStyle"), new KMLListStyle(ns));
-        this.parsers.put(new QName(ns, "Location"), new KMLLocation(ns));
-        this.parsers.put(new QName(ns, "Lod"), new KMLLod(ns));
-        this.parsers.put(new QName(ns, "LookAt"), new KMLLookAt(ns));
-        this.parsers.put(new QName(ns, "Model"), new KMLModel(ns));
-        this.parsers.put(new QName(ns, "MultiGeometry"), new KMLMultiGeometry(ns));
-        this.parsers.put(new QName(ns, "NetworkLink"), new KMLNetworkLink(ns));
-        this.parsers.put(new QName(ns, "NetworkLinkControl"), new KMLNetworkLinkControl(ns));
-        this.parsers.put(new QName(ns, "Orientation"), new KMLOrientation(ns));
-        this.parsers.put(new QName(ns, "outerBoundaryIs"), new KMLBoundary(ns));
-        this.parsers.put(new QName(ns, "overlayXY"), new KMLVec2(ns));
-        this.parsers.put(new QName(ns, "Pair"), new KMLPair(ns));
-        this.parsers.put(new QName(ns, "PhotoOverlay"), new KMLPhotoOverlay(ns));
-        this.parsers.put(new QName(ns, "Placemark"), new KMLPlacemark(ns));
-        this.parsers.put(new QName(ns, "Point"), new KMLPoint(ns));
-        this.parsers.put(new QName(ns, "Polygon"), new KMLPolygon(ns));
-        this.parsers.put(new QName(ns, "PolyStyle"), new KMLPolyStyle(ns));
-        this.parsers.put(new QName(ns, "Region"), new KMLRegion(ns));
-        this.parsers.put(new QName(ns, "ResourceMap"), new KMLResourceMap(ns));
-        this.parsers.put(new QName(ns, "rotationXY"), new KMLVec2(ns));
-        this.parsers.put(new QName(ns, "Scale"), new KMLScale(ns));
-        this.parsers.put(new QName(ns, "Schema"), new KMLSchema(ns));
-        this.parsers.put(new QName(ns, "SchemaData"), new KMLSchemaData(ns));
-        this.parsers.put(new QName(ns, "ScreenOverlay"), new KMLScreenOverlay(ns));
-        this.parsers.put(new QName(ns, "screenXY"), new KMLVec2(ns));
-        this.parsers.put(new QName(ns, "SimpleData"), new KMLSimpleData(ns));
-        this.parsers.put(new QName(ns, "SimpleField"), new KMLSimpleField(ns));
-        this.parsers.put(new QName(ns, "size"), new KMLVec2(ns));
-        this.parsers.put(new QName(ns, "Snippet"), new KMLSnippet(ns));
-        this.parsers.put(new QName(ns, "Style"), new KMLStyle(ns));
-        this.parsers.put(new QName(ns, "StyleMap"), new KMLStyleMap(ns));
-        this.parsers.put(new QName(ns, "styleUrl"), new KMLStyleUrl(ns));
-        this.parsers.put(new QName(ns, "TimeSpan"), new KMLTimeSpan(ns));
-        this.parsers.put(new QName(ns, "TimeStamp"), new KMLTimeStamp(ns));
-        this.parsers.put(new QName(ns, "Update"), new KMLUpdate(ns));
-        this.parsers.put(new QName(ns, "Url"), new KMLLink(ns)); // Deprecated in KML 2.1. Still used by NetworkLink.
-        this.parsers.put(new QName(ns, "ViewVolume"), new KMLViewVolume(ns));
+        this.registerParserFactory(new QName(ns, "Alias"), () -> new KMLAlias(ns));
+        this.registerParserFactory(new QName(ns, "BalloonStyle"), () -> new KMLBalloonStyle(ns));
+        this.registerParserFactory(new QName(ns, "Camera"), () -> new KMLCamera(ns));
+        this.registerParserFactory(new QName(ns, "Change"), () -> new KMLChange(ns));
+        this.parsers.put(new QName(ns, "coordinates"), this.getParserEntry(COORDINATES, this.getCoordinatesParser()));
+        this.registerParserFactory(new QName(ns, "Create"), () -> new KMLCreate(ns));
+        this.registerParserFactory(new QName(ns, "Data"), () -> new KMLData(ns));
+        this.registerParserFactory(new QName(ns, "Delete"), () -> new KMLDelete(ns));
+        this.registerParserFactory(new QName(ns, "Document"), () -> new KMLDocument(ns));
+        this.registerParserFactory(new QName(ns, "ExtendedData"), () -> new KMLExtendedData(ns));
+        this.registerParserFactory(new QName(ns, "Folder"), () -> new KMLFolder(ns));
+        this.registerParserFactory(new QName(ns, "GroundOverlay"), () -> new KMLGroundOverlay(ns));
+        this.registerParserFactory(new QName(ns, "Icon"), () -> new KMLIcon(ns));
+        this.registerParserFactory(new QName(ns, "IconStyle"), () -> new KMLIconStyle(ns));
+        this.registerParserFactory(new QName(ns, "ImagePyramid"), () -> new KMLImagePyramid(ns));
+        this.registerParserFactory(new QName(ns, "innerBoundaryIs"), () -> new KMLBoundary(ns));
+        this.registerParserFactory(new QName(ns, "ItemIcon"), () -> new KMLItemIcon(ns));
+        this.registerParserFactory(new QName(ns, "hotSpot"), () -> new KMLVec2(ns));
+        this.registerParserFactory(new QName(ns, "LabelStyle"), () -> new KMLLabelStyle(ns));
+        this.registerParserFactory(new QName(ns, "LatLonBox"), () -> new KMLLatLonBox(ns));
+        this.registerParserFactory(new QName(ns, "LatLonAltBox"), () -> new KMLLatLonAltBox(ns));
+        this.registerParserFactory(new QName(ns, "LinearRing"), () -> new KMLLinearRing(ns));
+        this.registerParserFactory(new QName(ns, "LineString"), () -> new KMLLineString(ns));
+        this.registerParserFactory(new QName(ns, "LineStyle"), () -> new KMLLineStyle(ns));
+        this.registerParserFactory(new QName(ns, "Link"), () -> new KMLLink(ns));
+        this.registerParserFactory(new QName(ns, "linkSnippet"), () -> new KMLSnippet(ns));
+        this.registerParserFactory(new QName(ns, "ListStyle"), () -> new KMLListStyle(ns));
+        this.registerParserFactory(new QName(ns, "Location"), () -> new KMLLocation(ns));
+        this.registerParserFactory(new QName(ns, "Lod"), () -> new KMLLod(ns));
+        this.registerParserFactory(new QName(ns, "LookAt"), () -> new KMLLookAt(ns));
+        this.registerParserFactory(new QName(ns, "Model"), () -> new KMLModel(ns));
+        this.registerParserFactory(new QName(ns, "MultiGeometry"), () -> new KMLMultiGeometry(ns));
+        this.registerParserFactory(new QName(ns, "NetworkLink"), () -> new KMLNetworkLink(ns));
+        this.registerParserFactory(new QName(ns, "NetworkLinkControl"), () -> new KMLNetworkLinkControl(ns));
+        this.registerParserFactory(new QName(ns, "Orientation"), () -> new KMLOrientation(ns));
+        this.registerParserFactory(new QName(ns, "outerBoundaryIs"), () -> new KMLBoundary(ns));
+        this.registerParserFactory(new QName(ns, "overlayXY"), () -> new KMLVec2(ns));
+        this.registerParserFactory(new QName(ns, "Pair"), () -> new KMLPair(ns));
+        this.registerParserFactory(new QName(ns, "PhotoOverlay"), () -> new KMLPhotoOverlay(ns));
+        this.registerParserFactory(new QName(ns, "Placemark"), () -> new KMLPlacemark(ns));
+        this.registerParserFactory(new QName(ns, "Point"), () -> new KMLPoint(ns));
+        this.registerParserFactory(new QName(ns, "Polygon"), () -> new KMLPolygon(ns));
+        this.registerParserFactory(new QName(ns, "PolyStyle"), () -> new KMLPolyStyle(ns));
+        this.registerParserFactory(new QName(ns, "Region"), () -> new KMLRegion(ns));
+        this.registerParserFactory(new QName(ns, "ResourceMap"), () -> new KMLResourceMap(ns));
+        this.registerParserFactory(new QName(ns, "rotationXY"), () -> new KMLVec2(ns));
+        this.registerParserFactory(new QName(ns, "Scale"), () -> new KMLScale(ns));
+        this.registerParserFactory(new QName(ns, "Schema"), () -> new KMLSchema(ns));
+        this.registerParserFactory(new QName(ns, "SchemaData"), () -> new KMLSchemaData(ns));
+        this.registerParserFactory(new QName(ns, "ScreenOverlay"), () -> new KMLScreenOverlay(ns));
+        this.registerParserFactory(new QName(ns, "screenXY"), () -> new KMLVec2(ns));
+        this.registerParserFactory(new QName(ns, "SimpleData"), () -> new KMLSimpleData(ns));
+        this.registerParserFactory(new QName(ns, "SimpleField"), () -> new KMLSimpleField(ns));
+        this.registerParserFactory(new QName(ns, "size"), () -> new KMLVec2(ns));
+        this.registerParserFactory(new QName(ns, "Snippet"), () -> new KMLSnippet(ns));
+        this.registerParserFactory(new QName(ns, "Style"), () -> new KMLStyle(ns));
+        this.registerParserFactory(new QName(ns, "StyleMap"), () -> new KMLStyleMap(ns));
+        this.registerParserFactory(new QName(ns, "styleUrl"), () -> new KMLStyleUrl(ns));
+        this.registerParserFactory(new QName(ns, "TimeSpan"), () -> new KMLTimeSpan(ns));
+        this.registerParserFactory(new QName(ns, "TimeStamp"), () -> new KMLTimeStamp(ns));
+        this.registerParserFactory(new QName(ns, "Update"), () -> new KMLUpdate(ns));
+        // Deprecated in KML 2.1. Still used by NetworkLink.
+        this.registerParserFactory(new QName(ns, "Url"), () -> new KMLLink(ns));
+        this.registerParserFactory(new QName(ns, "ViewVolume"), () -> new KMLViewVolume(ns));
 
         this.addStringParsers(ns, StringFields);
         this.addDoubleParsers(ns, DoubleFields);
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.xml.XMLEventParser;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Reads the placemarks of a KML or KMZ document one at a time as the document is read, without building the document's
+ * object tree. Memory use is bounded by the largest placemark and the document's shared styles and schemas rather than
+ * by the size of the document, so documents too large to open as a {@link KMLRoot} can be indexed or converted to
+ * shapes incrementally.
+ * <p>
+ * The iterator descends into the document's <code>Document</code> and <code>Folder</code> containers and returns each
+ * <code>Placemark</code> it finds, in document order. Shared <code>Style</code>, <code>StyleMap</code> and
+ * <code>Schema</code> elements are retained as they are read, and each placemark's parent is the document's root, so a
+ * placemark's style URL resolves against the shared styles declared before it. All other elements, including overlays
+ * and network links, are skipped; network links are not followed. Placemarks may optionally be filtered by a sector, in
+ * which case only placemarks with geometry whose bounding sector intersects the filter are returned.
+ * <p>
+ * The document is closed when the last placemark has been read. Call {@link #close()} to close it earlier.
+ */
+public class KMLPlacemarkIterator implements Iterator<KMLPlacemark>
+{
+    /**
+     * A parser context that retains in the document's identifier table only the objects placemarks refer to by URL.
+     * Placemarks and their contents are not retained after they are returned.
+     */
+    protected static class StreamingParserContext extends KMLParserContext
+    {
+        protected final KMLParserContext documentContext;
+
+        public StreamingParserContext(KMLParserContext documentContext)
+        {
+            super(documentContext);
+
+            this.documentContext = documentContext;
+            this.setEventReader(documentContext.getEventReader());
+        }
+
+        @Override
+        public Map<String, Object> getIdTable()
+        {
+            return this.documentContext.getIdTable();
+        }
+
+        @Override
+        public void addId(String id, Object o)
+        {
+            if (o instanceof KMLAbstractStyleSelector || o instanceof KMLSchema)
+                this.documentContext.addId(id, o);
+        }
+    }
+
+    protected final KMLRoot root;
+    protected final Sector sector;
+    protected final KMLParserContext context;
+    protected KMLPlacemark nextPlacemark;
+    protected boolean closed;
+
+    /**
+     * Creates an iterator over the placemarks of a document.
+     *
+     * @param docSource either a {@link java.io.File}, a {@link java.net.URL}, or an {@link java.io.InputStream}, or a
+     *                  {@link String} identifying a file path or URL.
+     * @param sector    the sector placemarks must intersect to be returned. May be null to return all placemarks.
+     *
+     * @return an iterator over the document's placemarks.
+     *
+     * @throws IllegalArgumentException if the source is null or its type is not supported.
+     * @throws IOException              if an error occurs while opening the source.
+     */
+    public static KMLPlacemarkIterator create(Object docSource, Sector sector) throws IOException
+    {
+        KMLRoot root = KMLRoot.create(docSource);
+        if (root == null)
+        {
+            String message = Logging.getMessage("generic.UnrecognizedSourceTypeOrUnavailableSource", docSource);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return new KMLPlacemarkIterator(root, sector);
+    }
+
+    /**
+     * Creates an iterator over the placemarks of a document opened as a <code>KMLRoot</code>. The root must not have
+     * been parsed.
+     *
+     * @param root   the unparsed document root.
+     * @param sector the sector placemarks must intersect to be returned. May be null to return all placemarks.
+     *
+     * @throws IllegalArgumentException if the root is null.
+     */
+    public KMLPlacemarkIterator(KMLRoot root, Sector sector)
+    {
+        if (root == null)
+        {
+            String message = Logging.getMessage("nullValue.KMLRootIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.root = root;
+        this.sector = sector;
+        this.context = new StreamingParserContext((KMLParserContext) root.getParserContext());
+    }
+
+    /**
+     * Returns the document root, which holds the shared styles read so far.
+     *
+     * @return the document root.
+     */
+    public KMLRoot getRoot()
+    {
+        return this.root;
+    }
+
+    /**
+     * Returns the sector placemarks must intersect to be returned.
+     *
+     * @return the filter sector, or null if placemarks are not filtered.
+     */
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WWRuntimeException if an exception occurs while reading the document.
+     */
+    public boolean hasNext()
+    {
+        if (this.nextPlacemark == null && !this.closed)
+        {
+            try
+            {
+                this.nextPlacemark = this.readPlacemark();
+            }
+            catch (XMLStreamException e)
+            {
+                this.close();
+                String message = Logging.getMessage("generic.ExceptionAttemptingToParseXml", this.root.getKMLDoc());
+                throw new WWRuntimeException(message, e);
+            }
+        }
+
+        return this.nextPlacemark != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws WWRuntimeException if an exception occurs while reading the document.
+     */
+    public KMLPlacemark next()
+    {
+        if (!this.hasNext())
+            throw new NoSuchElementException();
+
+        KMLPlacemark placemark = this.nextPlacemark;
+        this.nextPlacemark = null;
+        return placemark;
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /** Closes the document. Subsequent calls to {@link #hasNext()} return false. */
+    public void close()
+    {
+        if (this.closed)
+            return;
+
+        this.closed = true;
+        this.nextPlacemark = null;
+        try
+        {
+            this.context.getEventReader().close();
+        }
+        catch (XMLStreamException e)
+        {
+            Logging.logger().warning(
+                Logging.getMessage("generic.ExceptionClosingXmlEventReader", this.root.getKMLDoc()));
+        }
+        this.root.closeEventStream();
+    }
+
+    /**
+     * Reads events up to and including the next placemark that passes the sector filter, retaining the shared styles
+     * and schemas read along the way.
+     *
+     * @return the next placemark, or null if the document has no more placemarks.
+     *
+     * @throws XMLStreamException if an exception occurs while reading the document.
+     */
+    protected KMLPlacemark readPlacemark() throws XMLStreamException
+    {
+        KMLParserContext ctx = this.context;
+
+        for (XMLEvent event = ctx.nextEvent(); event != null; event = ctx.nextEvent())
+        {
+            if (!event.isStartElement())
+                continue;
+
+            // Descend into the document element and containers rather than parsing them.
+            if (event.asStartElement().getName().getLocalPart().equals("kml"))
+                continue;
+
+            XMLEventParser parser = ctx.allocate(event);
+            if (parser instanceof KMLAbstractContainer)
+                continue;
+
+            if (parser instanceof KMLPlacemark)
+            {
+                parser.setParent(this.root);
+                KMLPlacemark placemark = (KMLPlacemark) parser.parse(ctx, event);
+                if (placemark != null && this.intersectsSector(placemark))
+                    return placemark;
+            }
+            else if (parser instanceof KMLAbstractStyleSelector || parser instanceof KMLSchema)
+            {
+                parser.setParent(this.root);
+                parser.parse(ctx, event);
+            }
+            else
+            {
+                this.skipElement(ctx);
+            }
+        }
+
+        this.close();
+        return null;
+    }
+
+    /**
+     * Skips the events of the element whose start event was just read, up to and including its end event.
+     *
+     * @param ctx the parser context.
+     *
+     * @throws XMLStreamException if an exception occurs while reading the document.
+     */
+    protected void skipElement(KMLParserContext ctx) throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0)
+        {
+            XMLEvent event = ctx.nextEvent();
+            if (event == null)
+                return;
+
+            if (event.isStartElement())
+                depth++;
+            else if (event.isEndElement())
+                depth--;
+        }
+    }
+
+    /**
+     * Indicates whether a placemark passes this iterator's sector filter.
+     *
+     * @param placemark the placemark to test.
+     *
+     * @return true if this iterator has no filter sector, or if the placemark's geometry intersects it.
+     */
+    protected boolean intersectsSector(KMLPlacemark placemark)
+    {
+        if (this.sector == null)
+            return true;
+
+        List<LatLon> locations = new ArrayList<LatLon>();
+        this.addLocations(placemark.getGeometry(), locations);
+        if (locations.isEmpty())
+            return false;
+
+        Sector bounds = Sector.boundingSector(locations);
+        return bounds != null && this.sector.intersects(bounds);
+    }
+
+    /**
+     * Adds the locations defining a geometry's extent to a list. Only the outer boundary of a polygon is added.
+     *
+     * @param geometry  the geometry. May be null.
+     * @param locations the list to add locations to.
+     */
+    protected void addLocations(KMLAbstractGeometry geometry, List<LatLon> locations)
+    {
+        if (geometry instanceof KMLPoint)
+        {
+            Position position = ((KMLPoint) geometry).getCoordinates();
+            if (position != null)
+                locations.add(position);
+        }
+        else if (geometry instanceof KMLLineString) // includes KMLLinearRing
+        {
+            Position.PositionList positions = ((KMLLineString) geometry).getCoordinates();
+            if (positions != null && positions.list != null)
+                locations.addAll(positions.list);
+        }
+        else if (geometry instanceof KMLPolygon)
+        {
+            this.addLocations(((KMLPolygon) geometry).getOuterBoundary(), locations);
+        }
+        else if (geometry instanceof KMLMultiGeometry)
+        {
+            for (KMLAbstractGeometry g : ((KMLMultiGeometry) geometry).getGeometries())
+            {
+                this.addLocations(g, locations);
+            }
+        }
+        else if (geometry instanceof KMLModel)
+        {
+            KMLLocation location = ((KMLModel) geometry).getLocation();
+            if (location != null && location.getPosition() != null)
+                locations.add(location.getPosition());
+        }
+    }
+}
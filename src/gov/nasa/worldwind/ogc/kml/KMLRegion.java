@@ -36,6 +36,7 @@ import gov.nasa.worldwind.ogc.kml.impl.*;
 import gov.nasa.worldwind.render.DrawContext;
 import gov.nasa.worldwind.util.Logging;
 
+import java.awt.Rectangle;
 import java.util.*;
 
 /**
@@ -130,6 +131,13 @@ public class KMLRegion extends KMLAbstractObject
      * <code>DrawContext's</code> current frame number against the RegionData's <code>activeFrameNumber</code>. This
      * property is accessed by calling <code>isActive</code> and <code>setActive</code>.
      * <p>
+     * RegionData also records the view state the <code>isActive</code> property was computed for: the
+     * <code>View's</code> modelview and projection matrices and viewport, the <code>DrawContext's</code> visible
+     * sector, and the traversal context's detail hint. When a later frame has the same view state the property is
+     * still current and is re-used rather than recomputed, so a stationary view does not test every Region against the
+     * frustum and level of detail criteria each frame. The recorded state is discarded whenever the entry's data is
+     * regenerated.
+     * <p>
      * <strong>extent</strong> <br> RegionData's <code>extent</code> property is an <code>Extent</code> used to
      * determine if a Region's bounding box is in view. This property is accessed by calling <code>getExtent</code> and
      * <code>setExtent</code>. May be <code>null</code>.
@@ -171,6 +179,16 @@ public class KMLRegion extends KMLAbstractObject
          * Initially <code>null</code>.
          */
         protected List<Vec4> points;
+        /** The modelview matrix the <code>isActive</code> property was computed for. Initially <code>null</code>. */
+        protected Matrix activeModelview;
+        /** The projection matrix the <code>isActive</code> property was computed for. Initially <code>null</code>. */
+        protected Matrix activeProjection;
+        /** The viewport the <code>isActive</code> property was computed for. Initially <code>null</code>. */
+        protected Rectangle activeViewport;
+        /** The visible sector the <code>isActive</code> property was computed for. Initially <code>null</code>. */
+        protected Sector activeVisibleSector;
+        /** The detail hint the <code>isActive</code> property was computed for. Initially 0. */
+        protected double activeDetailHint;
 
         /**
          * Constructs a new <code>RegionData</code> entry from the <code>Globe</code> and vertical exaggeration of a
@@ -320,6 +338,56 @@ public class KMLRegion extends KMLAbstractObject
         {
             this.points = points;
         }
+
+        /**
+         * Indicates whether this entry's <code>isActive</code> property was computed for the view state of the
+         * specified traversal context and draw context, and can therefore be re-used.
+         *
+         * @param tc the current KML traversal context.
+         * @param dc the current draw context.
+         *
+         * @return <code>true</code> if the view state is unchanged since <code>isActive</code> was computed, otherwise
+         *         <code>false</code>.
+         */
+        public boolean isActiveStateCurrent(KMLTraversalContext tc, DrawContext dc)
+        {
+            View view = dc.getView();
+            return this.activeModelview != null
+                && this.activeDetailHint == tc.getDetailHint()
+                && this.activeModelview.equals(view.getModelviewMatrix())
+                && this.activeProjection.equals(view.getProjectionMatrix())
+                && this.activeViewport.equals(view.getViewport())
+                && (this.activeVisibleSector != null ? this.activeVisibleSector.equals(dc.getVisibleSector())
+                : dc.getVisibleSector() == null);
+        }
+
+        /**
+         * Records the view state of the specified traversal context and draw context as the state this entry's
+         * <code>isActive</code> property was computed for. Specify <code>null</code> for both arguments to discard the
+         * recorded state.
+         *
+         * @param tc the current KML traversal context, or <code>null</code>.
+         * @param dc the current draw context, or <code>null</code>.
+         */
+        public void setActiveState(KMLTraversalContext tc, DrawContext dc)
+        {
+            View view = dc != null ? dc.getView() : null;
+            if (view == null || view.getModelviewMatrix() == null || view.getProjectionMatrix() == null
+                || view.getViewport() == null)
+            {
+                this.activeModelview = null;
+                this.activeProjection = null;
+                this.activeViewport = null;
+                this.activeVisibleSector = null;
+                return;
+            }
+
+            this.activeModelview = view.getModelviewMatrix();
+            this.activeProjection = view.getProjectionMatrix();
+            this.activeViewport = new Rectangle(view.getViewport());
+            this.activeVisibleSector = dc.getVisibleSector();
+            this.activeDetailHint = tc.getDetailHint();
+        }
     }
 
     /**
@@ -386,6 +454,28 @@ public class KMLRegion extends KMLAbstractObject
         return (KMLLod) this.getField("Lod");
     }
 
+    /**
+     * Indicates the surface sector of this Region's bounding box if the box is <code>clampToGround</code>. A Region
+     * with such a box is never visible when this sector does not intersect the <code>DrawContext's</code> visible
+     * sector, so containers use the sector to index their features and skip those outside the visible sector. This
+     * returns <code>null</code> if this Region has no bounding box, if the box has any other altitude mode or is
+     * incomplete, or if its sector is not supported by this Region.
+     *
+     * @return the surface sector of this Region's <code>clampToGround</code> bounding box, or <code>null</code>.
+     */
+    public Sector getClampToGroundSector()
+    {
+        KMLLatLonAltBox box = this.getLatLonAltBox();
+        if (box == null)
+            return null;
+
+        if (KMLUtil.convertAltitudeMode(box.getAltitudeMode(), WorldWind.CLAMP_TO_GROUND) != WorldWind.CLAMP_TO_GROUND)
+            return null;
+
+        Sector sector = KMLUtil.createSectorFromLatLonBox(box);
+        return sector != null && this.isSectorSupported(sector) ? sector : null;
+    }
+
     /**
      * Indicates whether this Region is active on the specified <code>DrawContext</code>. A Region is active if its
      * bounding box intersects the viewing frustum, and its level of detail criteria are met for the specified traversal
@@ -424,10 +514,15 @@ public class KMLRegion extends KMLAbstractObject
         // calls use the same frustum to determine visibility and can therefore share the result of isActive. We
         // recompute isActive when the frame changes or when Globe changes, and return the computed value below.
         // Note that we use the same frustum intersection for both picking and rendering. We cannot cull against
-        // the pick frustums because content (e.g. an open balloon) may extend beyond the region's bounding box.
+        // the pick frustums because content (e.g. an open balloon) may extend beyond the region's bounding box. A value
+        // computed in an earlier frame is also re-used when the view state it depends on has not changed since.
         if (dc.getFrameTimeStamp() != this.getCurrentData().getActiveFrameNumber())
         {
-            this.getCurrentData().setActive(this.isRegionActive(tc, dc));
+            if (!this.getCurrentData().isActiveStateCurrent(tc, dc))
+            {
+                this.getCurrentData().setActive(this.isRegionActive(tc, dc));
+                this.getCurrentData().setActiveState(tc, dc);
+            }
             this.getCurrentData().setActiveFrameNumber(dc.getFrameTimeStamp());
         }
 
@@ -462,6 +557,7 @@ public class KMLRegion extends KMLAbstractObject
             if (this.mustRegenerateData(dc))
             {
                 this.doMakeRegionData(dc);
+                this.getCurrentData().setActiveState(null, null);
                 this.getCurrentData().restartTimer(dc);
                 this.getCurrentData().setGlobeStateKey(dc.getGlobe().getGlobeStateKey(dc));
                 this.getCurrentData().setVerticalExaggeration(dc.getVerticalExaggeration());
@@ -979,6 +1075,8 @@ public class KMLRegion extends KMLAbstractObject
         this.reset();
 
         super.applyChange(sourceValues);
+
+        this.onChange(new Message(KMLAbstractObject.MSG_REGION_CHANGED, this));
     }
 
     @Override
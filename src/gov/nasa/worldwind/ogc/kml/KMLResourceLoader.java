@@ -0,0 +1,653 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.cache.*;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.ogc.kml.io.*;
+import gov.nasa.worldwind.retrieve.*;
+import gov.nasa.worldwind.util.*;
+
+import javax.imageio.ImageIO;
+import javax.xml.stream.XMLStreamException;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Retrieves the documents referenced by KML network links, and the icons used by KML placemarks, on a bounded pool of
+ * threads. Concurrent requests for the same address share one retrieval, and retrieved documents and decoded icons are
+ * held in memory caches keyed by address, so documents and icons referenced from many places are retrieved and parsed
+ * once. The caches evict the least recently used entries once their capacity is reached. A document's cache size is
+ * the size of its encoded content; an icon's is the size of its decoded pixels.
+ * <p>
+ * A loader takes effect once it is assigned to a document with {@link KMLRoot#setResourceLoader(KMLResourceLoader)}.
+ * Network links in the document then retrieve their resources through the loader rather than the file store, and the
+ * documents the loader retrieves use it in turn. {@link #loadNetworkLinks(KMLRoot, Sector)} resolves an entire network
+ * link hierarchy ahead of rendering.
+ * <p>
+ * Unlike the file store, the loader does not write retrieved resources to disk. Parsed documents are also added to the
+ * session cache, where {@link KMLRoot#resolveReference(String)} finds them when resolving style URLs.
+ */
+public class KMLResourceLoader
+{
+    /** The default number of retrieval threads. */
+    public static final int DEFAULT_THREAD_COUNT = 8;
+    /** The default capacity of the document cache, in bytes. */
+    public static final long DEFAULT_DOCUMENT_CACHE_CAPACITY = 64000000L;
+    /** The default capacity of the icon cache, in bytes. */
+    public static final long DEFAULT_ICON_CACHE_CAPACITY = 32000000L;
+
+    /** A cached document or icon and the time it was retrieved. */
+    protected static class CachedResource
+    {
+        protected final Object resource;
+        protected final long retrievalTime;
+
+        public CachedResource(Object resource, long retrievalTime)
+        {
+            this.resource = resource;
+            this.retrievalTime = retrievalTime;
+        }
+    }
+
+    /** A retrieval that removes itself from the pending retrievals once it completes. */
+    protected static class LoadTask<T> extends FutureTask<T>
+    {
+        protected final String address;
+        protected final ConcurrentMap<String, LoadTask<T>> pending;
+
+        public LoadTask(String address, Callable<T> callable, ConcurrentMap<String, LoadTask<T>> pending)
+        {
+            super(callable);
+
+            this.address = address;
+            this.pending = pending;
+        }
+
+        @Override
+        protected void done()
+        {
+            this.pending.remove(this.address, this);
+        }
+    }
+
+    /** Tracks the network links still outstanding while resolving a network link hierarchy. */
+    protected class HierarchyLoad
+    {
+        protected final Sector sector;
+        protected final Set<String> visited = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        protected final AtomicInteger outstanding = new AtomicInteger(1);
+        protected final AtomicInteger numResolved = new AtomicInteger();
+        protected final CountDownLatch finished = new CountDownLatch(1);
+
+        public HierarchyLoad(Sector sector)
+        {
+            this.sector = sector;
+        }
+
+        public void start(KMLRoot root) throws InterruptedException
+        {
+            this.addNetworkLinks(root.getFeature());
+            this.release();
+            this.finished.await();
+        }
+
+        protected void release()
+        {
+            if (this.outstanding.decrementAndGet() == 0)
+                this.finished.countDown();
+        }
+
+        protected void addNetworkLinks(KMLAbstractFeature feature)
+        {
+            if (feature == null || !this.intersects(feature.getRegion()))
+                return;
+
+            if (feature instanceof KMLNetworkLink)
+            {
+                this.addNetworkLink((KMLNetworkLink) feature);
+            }
+            else if (feature instanceof KMLAbstractContainer)
+            {
+                for (KMLAbstractFeature child : ((KMLAbstractContainer) feature).getFeatures())
+                {
+                    this.addNetworkLinks(child);
+                }
+            }
+        }
+
+        protected void addNetworkLink(final KMLNetworkLink link)
+        {
+            // Links whose address depends on the view can't be resolved ahead of rendering.
+            final KMLLink linkOrUrl = link.getLinkOrUrl();
+            if (linkOrUrl == null || WWUtil.isEmpty(linkOrUrl.getHref()) || !link.isLinkCacheable())
+                return;
+
+            final String address = resolveAddress(link.getRoot(), linkOrUrl.getHref().trim());
+            if (absentResources.isResourceAbsent(address))
+                return;
+
+            // Every link referencing a document receives it, but only the first descends into it. This also stops
+            // cycles among documents that link to each other.
+            final boolean firstVisit = this.visited.add(address);
+
+            this.outstanding.incrementAndGet();
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        KMLRoot root = loadDocument(address, true, linkOrUrl.getUpdateTime());
+                        link.setRetrievedResource(address, root);
+                        numResolved.incrementAndGet();
+
+                        if (firstVisit)
+                            addNetworkLinks(root.getFeature());
+                    }
+                    catch (ExecutionException e)
+                    {
+                        // The failure has been logged by the retrieval.
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally
+                    {
+                        release();
+                    }
+                }
+            });
+        }
+
+        protected boolean intersects(KMLRegion region)
+        {
+            if (this.sector == null || region == null || region.getLatLonAltBox() == null)
+                return true;
+
+            KMLLatLonAltBox box = region.getLatLonAltBox();
+            if (box.getNorth() == null || box.getSouth() == null || box.getEast() == null || box.getWest() == null)
+                return true;
+
+            // Regions spanning the antimeridian are conservatively treated as intersecting.
+            if (box.getWest() > box.getEast())
+                return true;
+
+            return Sector.fromDegrees(box.getSouth(), box.getNorth(), box.getWest(), box.getEast()).intersects(
+                this.sector);
+        }
+    }
+
+    protected final ExecutorService executor;
+    protected final MemoryCache documentCache;
+    protected final MemoryCache iconCache;
+    protected final ConcurrentMap<String, LoadTask<KMLRoot>> pendingDocuments =
+        new ConcurrentHashMap<String, LoadTask<KMLRoot>>();
+    protected final ConcurrentMap<String, LoadTask<BufferedImage>> pendingIcons =
+        new ConcurrentHashMap<String, LoadTask<BufferedImage>>();
+    /** The network links waiting for a retrieval started during rendering. */
+    protected final Set<KMLNetworkLink> pendingLinks =
+        Collections.newSetFromMap(new ConcurrentHashMap<KMLNetworkLink, Boolean>());
+    protected final AbsentResourceList absentResources = new AbsentResourceList();
+
+    /**
+     * Creates a loader with {@link #DEFAULT_THREAD_COUNT} threads and the default document and icon cache capacities.
+     */
+    public KMLResourceLoader()
+    {
+        this(DEFAULT_THREAD_COUNT, DEFAULT_DOCUMENT_CACHE_CAPACITY, DEFAULT_ICON_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a loader.
+     *
+     * @param numThreads            the maximum number of concurrent retrievals.
+     * @param documentCacheCapacity the capacity of the document cache, in bytes of encoded document content.
+     * @param iconCacheCapacity     the capacity of the icon cache, in bytes of decoded pixels.
+     *
+     * @throws IllegalArgumentException if the thread count is less than 1, or if either capacity is less than 1.
+     */
+    public KMLResourceLoader(int numThreads, long documentCacheCapacity, long iconCacheCapacity)
+    {
+        if (numThreads < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "numThreads=" + numThreads);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (documentCacheCapacity < 1 || iconCacheCapacity < 1)
+        {
+            String message = Logging.getMessage("generic.CapacityIsInvalid",
+                documentCacheCapacity < 1 ? documentCacheCapacity : iconCacheCapacity);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory()
+        {
+            protected final AtomicInteger threadNumber = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                thread.setName("KML resource loader " + this.threadNumber.incrementAndGet());
+                return thread;
+            }
+        });
+
+        this.documentCache = new BasicMemoryCache((long) (0.8 * documentCacheCapacity), documentCacheCapacity);
+        this.documentCache.setName("KML Documents");
+        this.iconCache = new BasicMemoryCache((long) (0.8 * iconCacheCapacity), iconCacheCapacity);
+        this.iconCache.setName("KML Icons");
+    }
+
+    /** Stops all retrievals and empties the caches. The loader can't be used after it is disposed. */
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+        this.documentCache.clear();
+        this.iconCache.clear();
+    }
+
+    public MemoryCache getDocumentCache()
+    {
+        return this.documentCache;
+    }
+
+    public MemoryCache getIconCache()
+    {
+        return this.iconCache;
+    }
+
+    /**
+     * Interprets an address relative to a document, as the document's own reference resolution does.
+     *
+     * @param root    the document containing the reference.
+     * @param address the address to interpret.
+     *
+     * @return the absolute address, or <code>address</code> if it can't be interpreted relative to the document.
+     */
+    public String resolveAddress(KMLRoot root, String address)
+    {
+        try
+        {
+            String path = root.getSupportFilePath(address);
+            return path != null ? path : address;
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.UnableToResolveReference", address);
+            Logging.logger().warning(message);
+            return address;
+        }
+    }
+
+    /**
+     * Returns a cached document.
+     *
+     * @param address    the document's absolute address.
+     * @param updateTime the time at which the document's link was last updated, in milliseconds since the Epoch. A
+     *                   document retrieved before this time is not returned.
+     *
+     * @return the document, or null if it is not in the cache or was retrieved before the update time.
+     */
+    public KMLRoot getCachedDocument(String address, long updateTime)
+    {
+        CachedResource cached = (CachedResource) this.documentCache.getObject(address);
+        return cached != null && cached.retrievalTime >= updateTime ? (KMLRoot) cached.resource : null;
+    }
+
+    /**
+     * Starts retrieving and parsing a KML or KMZ document, unless it is already cached or being retrieved.
+     *
+     * @param address    the document's absolute address, either a URL or a local file path.
+     * @param cacheable  true to cache the parsed document, false to parse it for this request only.
+     * @param updateTime the time at which the document's link was last updated, in milliseconds since the Epoch. A
+     *                   cached document retrieved before this time is retrieved again.
+     *
+     * @return a future that provides the parsed document.
+     *
+     * @throws IllegalArgumentException if the address is null.
+     */
+    public Future<KMLRoot> requestDocument(String address, boolean cacheable, long updateTime)
+    {
+        if (address == null)
+        {
+            String message = Logging.getMessage("nullValue.DocumentSourceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        KMLRoot root = cacheable ? this.getCachedDocument(address, updateTime) : null;
+        if (root != null)
+            return completedFuture(root);
+
+        LoadTask<KMLRoot> task = this.documentTask(address, cacheable);
+        this.executor.execute(task); // Does nothing if another thread has already run the task.
+        return task;
+    }
+
+    /**
+     * Retrieves the resource of a network link and installs it in the link when it arrives. This does nothing if the
+     * link is already waiting for a retrieval, or if earlier attempts to retrieve the address failed recently. Called
+     * by network links during rendering.
+     *
+     * @param link    the network link.
+     * @param address the link's address, as the link computed it for the current view.
+     */
+    public void requestNetworkLink(final KMLNetworkLink link, final String address)
+    {
+        final String path = this.resolveAddress(link.getRoot(), address);
+        if (this.absentResources.isResourceAbsent(path) || !this.pendingLinks.add(link))
+            return;
+
+        final boolean cacheable = link.isLinkCacheable();
+        KMLLink linkOrUrl = link.getLinkOrUrl();
+        final long updateTime = linkOrUrl != null ? linkOrUrl.getUpdateTime() : 0;
+
+        this.executor.execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    link.setRetrievedResource(address, loadDocument(path, cacheable, updateTime));
+                }
+                catch (ExecutionException e)
+                {
+                    // The failure has been logged by the retrieval.
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                finally
+                {
+                    pendingLinks.remove(link);
+                }
+            }
+        });
+    }
+
+    /**
+     * Resolves the network links of a document and of every document they link to, retrieving the documents
+     * concurrently, and returns once the entire hierarchy is resolved. Each resolved link receives its document as it
+     * does during rendering. Links whose address depends on the view, and links that aren't cacheable, are left to be
+     * resolved during rendering.
+     *
+     * @param root   the document at the top of the hierarchy.
+     * @param sector the sector of interest. Features whose Region does not intersect it are not descended into. May be
+     *               null to resolve the entire hierarchy.
+     *
+     * @return the number of network links resolved.
+     *
+     * @throws IllegalArgumentException if the root is null.
+     * @throws InterruptedException     if the calling thread is interrupted while waiting.
+     */
+    public int loadNetworkLinks(KMLRoot root, Sector sector) throws InterruptedException
+    {
+        if (root == null)
+        {
+            String message = Logging.getMessage("nullValue.KMLRootIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        HierarchyLoad load = new HierarchyLoad(sector);
+        load.start(root);
+        return load.numResolved.get();
+    }
+
+    /**
+     * Returns a decoded icon if it is cached, and otherwise starts retrieving it unless earlier attempts failed
+     * recently. The document is asked to redraw once the icon arrives.
+     *
+     * @param address the icon's absolute address, either a URL or a local file path.
+     * @param root    the document to redraw once the icon arrives. May be null.
+     *
+     * @return the icon, or null if it is not yet available.
+     */
+    public BufferedImage getIcon(String address, KMLRoot root)
+    {
+        CachedResource cached = (CachedResource) this.iconCache.getObject(address);
+        if (cached != null)
+            return (BufferedImage) cached.resource;
+
+        if (!this.absentResources.isResourceAbsent(address))
+            this.requestIcon(address, root);
+
+        return null;
+    }
+
+    /**
+     * Starts retrieving and decoding an icon, unless it is already being retrieved.
+     *
+     * @param address the icon's absolute address, either a URL or a local file path.
+     * @param root    the document to redraw once the icon arrives. May be null.
+     *
+     * @return a future that provides the decoded icon.
+     *
+     * @throws IllegalArgumentException if the address is null.
+     */
+    public Future<BufferedImage> requestIcon(final String address, final KMLRoot root)
+    {
+        if (address == null)
+        {
+            String message = Logging.getMessage("nullValue.PathIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        LoadTask<BufferedImage> task = new LoadTask<BufferedImage>(address, new Callable<BufferedImage>()
+        {
+            public BufferedImage call() throws Exception
+            {
+                BufferedImage image = retrieveIcon(address);
+                if (root != null)
+                    root.requestRedraw();
+                return image;
+            }
+        }, this.pendingIcons);
+
+        LoadTask<BufferedImage> existing = this.pendingIcons.putIfAbsent(address, task);
+        if (existing != null)
+            return existing;
+
+        this.executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Returns a document, retrieving it on the calling thread unless it is cached or another thread is already
+     * retrieving it, in which case this waits for that retrieval.
+     *
+     * @param address    the document's absolute address.
+     * @param cacheable  true to cache the parsed document.
+     * @param updateTime the time at which the document's link was last updated.
+     *
+     * @return the document.
+     *
+     * @throws ExecutionException   if the document could not be retrieved or parsed.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    protected KMLRoot loadDocument(String address, boolean cacheable, long updateTime)
+        throws ExecutionException, InterruptedException
+    {
+        KMLRoot root = cacheable ? this.getCachedDocument(address, updateTime) : null;
+        if (root != null)
+            return root;
+
+        // Running the task here rather than waiting for a pool thread to pick it up keeps pool threads from blocking
+        // on tasks queued behind them.
+        LoadTask<KMLRoot> task = this.documentTask(address, cacheable);
+        task.run();
+        return task.get();
+    }
+
+    protected LoadTask<KMLRoot> documentTask(final String address, final boolean cacheable)
+    {
+        LoadTask<KMLRoot> task = new LoadTask<KMLRoot>(address, new Callable<KMLRoot>()
+        {
+            public KMLRoot call() throws Exception
+            {
+                return retrieveDocument(address, cacheable);
+            }
+        }, this.pendingDocuments);
+
+        LoadTask<KMLRoot> existing = this.pendingDocuments.putIfAbsent(address, task);
+        return existing != null ? existing : task;
+    }
+
+    protected KMLRoot retrieveDocument(String address, boolean cacheable) throws Exception
+    {
+        try
+        {
+            ByteBuffer buffer = this.readResource(address);
+            URL url = WWIO.makeURL(address);
+            URI uri = url != null ? url.toURI() : new File(address).toURI();
+
+            // Try to parse with a namespace-aware event stream, and if that fails with a namespace-unaware one.
+            KMLRoot root;
+            try
+            {
+                root = this.parseDocument(buffer, uri, true);
+            }
+            catch (XMLStreamException e)
+            {
+                root = this.parseDocument(buffer, uri, false);
+            }
+
+            if (root == null)
+                throw new WWRuntimeException(Logging.getMessage("KML.InvalidNetworkLinkTarget", address));
+
+            root.setResourceLoader(this);
+            if (cacheable)
+            {
+                this.documentCache.add(address, new CachedResource(root, System.currentTimeMillis()), buffer.limit());
+                WorldWind.getSessionCache().put(address, root);
+            }
+
+            return root;
+        }
+        catch (Exception e)
+        {
+            this.absentResources.markResourceAbsent(address);
+            String message = Logging.getMessage("generic.UnableToResolveReference", address);
+            Logging.logger().log(Level.WARNING, message, e);
+            throw e;
+        }
+    }
+
+    protected KMLRoot parseDocument(ByteBuffer buffer, URI uri, boolean namespaceAware)
+        throws IOException, XMLStreamException
+    {
+        InputStream stream = WWIO.getInputStreamFromByteBuffer(buffer.duplicate());
+        KMLDoc doc = isZip(buffer) ? new KMZInputStream(stream) : new KMLInputStream(stream, uri);
+
+        return new KMLRoot(doc, namespaceAware).parse();
+    }
+
+    protected BufferedImage retrieveIcon(String address) throws Exception
+    {
+        try
+        {
+            ByteBuffer buffer = this.readResource(address);
+            BufferedImage image = ImageIO.read(WWIO.getInputStreamFromByteBuffer(buffer.duplicate()));
+            if (image == null)
+                throw new WWRuntimeException(Logging.getMessage("generic.ImageReadFailed", address));
+
+            this.iconCache.add(address, new CachedResource(image, System.currentTimeMillis()),
+                4L * image.getWidth() * image.getHeight());
+            return image;
+        }
+        catch (Exception e)
+        {
+            this.absentResources.markResourceAbsent(address);
+            String message = Logging.getMessage("generic.UnableToResolveReference", address);
+            Logging.logger().log(Level.WARNING, message, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the content of a URL or local file.
+     *
+     * @param address the URL or file path.
+     *
+     * @return the content.
+     *
+     * @throws Exception if the content can't be read.
+     */
+    protected ByteBuffer readResource(String address) throws Exception
+    {
+        URL url = WWIO.makeURL(address);
+        if (url == null)
+            return WWIO.readFileToBuffer(new File(address));
+
+        URLRetriever retriever = URLRetriever.createRetriever(url, null);
+        if (retriever == null)
+            return WWIO.readURLContentToBuffer(url);
+
+        retriever.call();
+        if (!Retriever.RETRIEVER_STATE_SUCCESSFUL.equals(retriever.getState()) || retriever.getBuffer() == null)
+            throw new IOException(Logging.getMessage("generic.ExceptionWhileReading", address));
+
+        return retriever.getBuffer();
+    }
+
+    protected static boolean isZip(ByteBuffer buffer)
+    {
+        return buffer.limit() >= 4 && buffer.get(0) == 'P' && buffer.get(1) == 'K' && buffer.get(2) == 3
+            && buffer.get(3) == 4;
+    }
+
+    protected static <T> Future<T> completedFuture(final T value)
+    {
+        FutureTask<T> future = new FutureTask<T>(new Callable<T>()
+        {
+            public T call()
+            {
+                return value;
+            }
+        });
+        future.run();
+        return future;
+    }
+}
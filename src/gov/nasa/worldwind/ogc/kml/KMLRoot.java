@@ -55,6 +55,12 @@ import java.util.zip.*;
  */
 public class KMLRoot extends KMLAbstractObject implements KMLRenderable
 {
+    /**
+     * The cache of binary recordings of parsed documents used by all KML roots, or null to parse every document from
+     * XML. Initially null.
+     */
+    protected static volatile XMLSnapshotCache snapshotCache;
+
     /** Reference to the KMLDoc representing the KML or KMZ file. */
     protected KMLDoc kmlDoc;
     /** The event reader used to parse the document's XML. */
@@ -84,6 +90,11 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
     protected KMLNetworkLinkControl networkLinkControl;
 
     protected AbsentResourceList absentResourceList = new AbsentResourceList();
+    /**
+     * The loader that retrieves this document's network links and icons, or null to retrieve them through the file
+     * store one at a time. Documents loaded by a resource loader share it.
+     */
+    protected KMLResourceLoader resourceLoader;
 
     /**
      * Creates a KML root for an untyped source. The source must be either a {@link File}, a {@link URL}, a {@link
@@ -468,7 +479,37 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
     }
 
     /**
-     * Creates the event reader. Called from the constructor.
+     * Indicates the cache of binary recordings of parsed documents used by all KML roots.
+     *
+     * @return the snapshot cache, or null if documents are always parsed from XML.
+     *
+     * @see #setSnapshotCache(gov.nasa.worldwind.util.xml.XMLSnapshotCache)
+     */
+    public static XMLSnapshotCache getSnapshotCache()
+    {
+        return snapshotCache;
+    }
+
+    /**
+     * Specifies a cache of binary recordings of parsed documents to be used by all KML roots created subsequently. When
+     * a cache is specified, a KML or KMZ file is read from its recording if the cache holds one made since the file was
+     * last modified, and is otherwise recorded as it's parsed. Documents that are not local files are always parsed
+     * from XML. Specify null, the default, to always parse documents from XML.
+     *
+     * @param cache the snapshot cache. May be null.
+     */
+    public static void setSnapshotCache(XMLSnapshotCache cache)
+    {
+        snapshotCache = cache;
+    }
+
+    /**
+     * Creates the event reader. Called from the constructor. Input streams are read with the cursor-based reader
+     * returned by {@link WWXML#openCursorEventReaderStream(java.io.InputStream, boolean)}. Override this method and
+     * return {@link WWXML#openEventReader(Object, boolean)} to read them with the platform's event reader instead.
+     * <p>
+     * If a snapshot cache is specified and this document is a local file, the document is read from the cache's
+     * recording when there is a current one, and is otherwise recorded as it's read.
      *
      * @param docSource      the document source to create a reader for. The type can be any of those supported by
      *                       {@link WWXML#openEventReader(Object)}.
@@ -479,9 +520,47 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
      */
     protected XMLEventReader createReader(Object docSource, boolean namespaceAware)
     {
+        if (docSource instanceof InputStream)
+        {
+            XMLSnapshotCache cache = getSnapshotCache();
+            File file = cache != null ? this.getSnapshotSourceFile() : null;
+            if (file == null)
+                return WWXML.openCursorEventReaderStream((InputStream) docSource, namespaceAware);
+
+            // Documents parsed with and without namespace awareness produce different events.
+            String key = file.getAbsolutePath() + (namespaceAware ? "" : "#noNamespaces");
+            XMLEventReader reader = cache.openSnapshot(key, file.lastModified());
+            if (reader != null)
+            {
+                WWIO.closeStream(docSource, file.getPath());
+                return reader;
+            }
+
+            reader = WWXML.openCursorEventReaderStream((InputStream) docSource, namespaceAware);
+            return reader != null ? cache.recordSnapshot(reader, key, file.lastModified()) : null;
+        }
+
         return WWXML.openEventReader(docSource, namespaceAware);
     }
 
+    /**
+     * Returns the local file this document is read from, whose path and modification time identify the document to
+     * the snapshot cache.
+     *
+     * @return the KML or KMZ file this document is read from, or null if the document is not a local file.
+     */
+    protected File getSnapshotSourceFile()
+    {
+        if (this.getKMLDoc() instanceof KMLFile)
+            return ((KMLFile) this.getKMLDoc()).getZipFile();
+        else if (this.getKMLDoc() instanceof KMZFile)
+            return new File(((KMZFile) this.getKMLDoc()).getZipFile().getName());
+        else if (this.getKMLDoc() instanceof KMLInputStream)
+            return XMLSnapshotCache.getLocalFile(((KMLInputStream) this.getKMLDoc()).getURI());
+
+        return null;
+    }
+
     /**
      * Invoked during {@link #initialize(boolean)} to create the parser context. The parser context is created by the
      * global {@link XMLEventParserContextFactory}.
@@ -1243,6 +1322,30 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
         this.detailHint = detailHint;
     }
 
+    /**
+     * Indicates the loader that retrieves this document's network links and icons.
+     *
+     * @return the resource loader, or null if resources are retrieved through the file store one at a time.
+     *
+     * @see #setResourceLoader(KMLResourceLoader)
+     */
+    public KMLResourceLoader getResourceLoader()
+    {
+        return this.resourceLoader;
+    }
+
+    /**
+     * Specifies a loader to retrieve this document's network links and icons concurrently and to share the retrieved
+     * documents and images with other documents using the same loader. Documents loaded by the loader use it in turn.
+     *
+     * @param resourceLoader the resource loader. May be null, in which case resources are retrieved through the file
+     *                       store one at a time.
+     */
+    public void setResourceLoader(KMLResourceLoader resourceLoader)
+    {
+        this.resourceLoader = resourceLoader;
+    }
+
     /** Request any scene containing this KML document be repainted. */
     public void requestRedraw()
     {
@@ -64,30 +64,30 @@ public class GXParserContext extends BasicXMLEventParserContext
         ConcurrentHashMap<QName, XMLEventParser> parsers = new ConcurrentHashMap<QName, XMLEventParser>();
 
         String ns = GXConstants.GX_NAMESPACE;
-        parsers.put(new QName(ns, "AnimatedUpdate"), new GXAnimatedUpdate(ns));
-        parsers.put(new QName(ns, "FlyTo"), new GXFlyTo(ns));
-        parsers.put(new QName(ns, "LatLonQuad"), new GXLatLongQuad(ns));
-        parsers.put(new QName(ns, "Playlist"), new GXPlaylist(ns));
-        parsers.put(new QName(ns, "SoundCue"), new GXSoundCue(ns));
-        parsers.put(new QName(ns, "TimeSpan"), new KMLTimeSpan(ns));
-        parsers.put(new QName(ns, "TimeStamp"), new KMLTimeStamp(ns));
-        parsers.put(new QName(ns, "Tour"), new GXTour(ns));
-        parsers.put(new QName(ns, "TourControl"), new GXTourControl(ns));
-        parsers.put(new QName(ns, "Wait"), new GXWait(ns));
+        parsers.put(new QName(ns, "AnimatedUpdate"), new FactoryXMLEventParser(() -> new GXAnimatedUpdate(ns)));
+        parsers.put(new QName(ns, "FlyTo"), new FactoryXMLEventParser(() -> new GXFlyTo(ns)));
+        parsers.put(new QName(ns, "LatLonQuad"), new FactoryXMLEventParser(() -> new GXLatLongQuad(ns)));
+        parsers.put(new QName(ns, "Playlist"), new FactoryXMLEventParser(() -> new GXPlaylist(ns)));
+        parsers.put(new QName(ns, "SoundCue"), new FactoryXMLEventParser(() -> new GXSoundCue(ns)));
+        parsers.put(new QName(ns, "TimeSpan"), new FactoryXMLEventParser(() -> new KMLTimeSpan(ns)));
+        parsers.put(new QName(ns, "TimeStamp"), new FactoryXMLEventParser(() -> new KMLTimeStamp(ns)));
+        parsers.put(new QName(ns, "Tour"), new FactoryXMLEventParser(() -> new GXTour(ns)));
+        parsers.put(new QName(ns, "TourControl"), new FactoryXMLEventParser(() -> new GXTourControl(ns)));
+        parsers.put(new QName(ns, "Wait"), new FactoryXMLEventParser(() -> new GXWait(ns)));
 
-        StringXMLEventParser stringParser = new StringXMLEventParser();
+        XMLEventParser stringParser = new FactoryXMLEventParser(StringXMLEventParser::new);
         for (String s : StringFields)
         {
             parsers.put(new QName(ns, s), stringParser);
         }
 
-        DoubleXMLEventParser doubleParser = new DoubleXMLEventParser();
+        XMLEventParser doubleParser = new FactoryXMLEventParser(DoubleXMLEventParser::new);
         for (String s : DoubleFields)
         {
             parsers.put(new QName(ns, s), doubleParser);
         }
 
-        BooleanXMLEventParser booleanParser = new BooleanXMLEventParser();
+        XMLEventParser booleanParser = new FactoryXMLEventParser(BooleanXMLEventParser::new);
         for (String s : BooleanFields)
         {
             parsers.put(new QName(ns, s), booleanParser);
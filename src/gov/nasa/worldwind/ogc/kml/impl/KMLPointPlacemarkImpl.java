@@ -37,6 +37,7 @@ import gov.nasa.worldwind.render.*;
 import gov.nasa.worldwind.util.*;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 /**
@@ -239,11 +240,22 @@ public class KMLPointPlacemarkImpl extends PointPlacemark implements KMLRenderab
 
     /**
      * {@inheritDoc} Overridden to set the expiration time of the placemark's icon based on the HTTP headers of the
-     * linked resource.
+     * linked resource, and to take the icon from the document's resource loader if it has one.
      */
     protected WWTexture initializeTexture(String address)
     {
-        WWTexture texture = super.initializeTexture(address);
+        WWTexture texture;
+        KMLResourceLoader loader = this.parent.getRoot().getResourceLoader();
+        if (loader != null && this.getActiveAttributes().getImage() == null)
+        {
+            // The loader decodes the icon once and shares the image with every placemark using the same address.
+            BufferedImage image = loader.getIcon(address, this.parent.getRoot());
+            texture = image != null ? new BasicWWTexture(image, true) : null;
+        }
+        else
+        {
+            texture = super.initializeTexture(address);
+        }
         if (texture != null)
         {
             // Query the KMLRoot for the expiration time.
@@ -59,7 +59,7 @@ import java.io.*;
  */
 public abstract class AbstractShape extends WWObjectImpl
     implements Highlightable, OrderedRenderable, Movable, Movable2, ExtentHolder, GeographicExtent, Exportable,
-    Restorable, PreRenderable, Attributable, Draggable
+    Restorable, PreRenderable, Preparable, Attributable, Draggable
 {
     /** The default interior color. */
     protected static final Material DEFAULT_INTERIOR_MATERIAL = Material.LIGHT_GRAY;
@@ -223,12 +223,15 @@ public abstract class AbstractShape extends WWObjectImpl
     protected long maxExpiryTime = DEFAULT_GEOMETRY_GENERATION_INTERVAL;
     protected long minExpiryTime = Math.max(DEFAULT_GEOMETRY_GENERATION_INTERVAL - 500, 0);
     protected boolean viewDistanceExpiration = true;
+    protected boolean concurrentPreparation;
     protected SurfaceShape surfaceShape;
 
     // Volatile values used only during frame generation.
     protected OGLStackHandler BEogsh = new OGLStackHandler(); // used for beginDrawing/endDrawing state
     protected Layer pickLayer;
     protected PickSupport pickSupport = new PickSupport();
+    /** Indicates that {@link #prepare(DrawContext)} is running, during which GPU resource changes are deferred. */
+    protected boolean preparing;
 
     /** Holds globe-dependent computed data. One entry per globe encountered during {@link #render(DrawContext)}. */
     protected ShapeDataCache shapeDataCache = new ShapeDataCache(60000);
@@ -263,6 +266,10 @@ public abstract class AbstractShape extends WWObjectImpl
         protected Double referenceDistance;
         /** The GPU-resource cache key to use for this entry's VBOs, if VBOs are used. */
         protected Object vboCacheKey = new Object();
+        /** Indicates that the geometry was regenerated by <code>prepare</code> and its VBOs have not been filled. */
+        protected boolean vboFillPending;
+        /** Indicates that <code>prepare</code> deferred the removal of this entry's VBOs from the GPU cache. */
+        protected boolean vboClearPending;
 
         /**
          * Constructs a data cache entry and initializes its globe-dependent state key for the globe in the specified
@@ -938,6 +945,70 @@ public abstract class AbstractShape extends WWObjectImpl
         }
     }
 
+    /**
+     * Regenerates this shape's geometry for the current frame if it is visible and the geometry has expired, without
+     * making OpenGL calls. Does nothing unless concurrent preparation is enabled. VBOs for the new geometry are filled
+     * when the shape is next rendered.
+     *
+     * @param dc the current draw context.
+     *
+     * @see #setConcurrentPreparation(boolean)
+     */
+    public void prepare(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String msg = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (!this.isConcurrentPreparation() || dc.getGlobe() instanceof Globe2D)
+            return;
+
+        this.currentData = (AbstractShapeData) this.shapeDataCache.getEntry(dc.getGlobe());
+        if (this.currentData == null)
+        {
+            this.currentData = this.createCacheEntry(dc);
+            this.shapeDataCache.addEntry(this.currentData);
+        }
+
+        if (dc.getSurfaceGeometry() == null || !this.isVisible())
+            return;
+
+        if (this.isTerrainDependent())
+            this.checkViewDistanceExpiration(dc);
+
+        if (this.currentData.getVerticalExaggeration() != dc.getVerticalExaggeration())
+            this.currentData.setExtent(null);
+
+        if (this.getExtent() != null && (!this.intersectsFrustum(dc) || dc.isSmall(this.getExtent(), 1)))
+            return;
+
+        if (dc.getFrameTimeStamp() == this.currentData.getFrameNumber())
+            return;
+
+        this.determineActiveAttributes();
+        if (this.getActiveAttributes() == null || !this.mustRegenerateGeometry(dc))
+            return;
+
+        this.preparing = true;
+        try
+        {
+            // If regeneration fails the frame number is left unchanged, and rendering tries again.
+            if (!this.doMakeOrderedRenderable(dc))
+                return;
+        }
+        finally
+        {
+            this.preparing = false;
+        }
+
+        this.currentData.vboFillPending = this.shouldUseVBOs(dc);
+        this.currentData.restartTimer(dc);
+        this.currentData.setFrameNumber(dc.getFrameTimeStamp());
+    }
+
     public void render(DrawContext dc)
     {
         // This render method is called three times during frame generation. It's first called as a {@link Renderable}
@@ -1028,6 +1099,11 @@ public abstract class AbstractShape extends WWObjectImpl
 
             this.getCurrentData().setFrameNumber(dc.getFrameTimeStamp());
         }
+        else if (this.getCurrentData().vboFillPending || this.getCurrentData().vboClearPending)
+        {
+            // The geometry was regenerated by prepare this frame. Perform the GPU work it deferred.
+            this.completePreparation(dc);
+        }
 
         if (!this.isOrderedRenderableValid(dc))
             return;
@@ -1038,6 +1114,32 @@ public abstract class AbstractShape extends WWObjectImpl
         this.addOrderedRenderable(dc);
     }
 
+    /**
+     * Performs the GPU resource work deferred by {@link #prepare(DrawContext)}: removes stale VBOs from the GPU
+     * resource cache and fills the VBOs for the regenerated geometry.
+     * <p>
+     * A {@link gov.nasa.worldwind.render.AbstractShape.AbstractShapeData} must be current when this method is called.
+     *
+     * @param dc the current draw context.
+     */
+    protected void completePreparation(DrawContext dc)
+    {
+        AbstractShapeData data = this.getCurrentData();
+
+        if (data.vboClearPending)
+        {
+            data.vboClearPending = false;
+            this.clearCachedVbos(dc);
+        }
+
+        if (data.vboFillPending)
+        {
+            data.vboFillPending = false;
+            if (this.shouldUseVBOs(dc))
+                this.fillVBO(dc);
+        }
+    }
+
     /**
      * Adds this shape to the draw context's ordered renderable list.
      *
@@ -1083,6 +1185,34 @@ public abstract class AbstractShape extends WWObjectImpl
         this.viewDistanceExpiration = viewDistanceExpiration;
     }
 
+    /**
+     * Indicates whether this shape regenerates its geometry in {@link #prepare(DrawContext)}, off the rendering thread.
+     *
+     * @return true if this shape's geometry is regenerated during the preparation phase, otherwise false. The default
+     * is false.
+     *
+     * @see #setConcurrentPreparation(boolean)
+     */
+    public boolean isConcurrentPreparation()
+    {
+        return this.concurrentPreparation;
+    }
+
+    /**
+     * Specifies whether this shape regenerates its geometry in {@link #prepare(DrawContext)}, which the scene
+     * controller calls on a worker thread concurrently with other shapes. Enable this only for shapes whose {@link
+     * #doMakeOrderedRenderable(DrawContext)} honors the {@link Preparable} contract: it must make no OpenGL calls and
+     * write only to this shape's own state. {@link Path} honors the contract. VBOs are filled on the rendering thread
+     * when the shape is next rendered. The scene controller's preparation phase must also be enabled with {@link
+     * gov.nasa.worldwind.AbstractSceneController#setParallelPreparation(boolean)}.
+     *
+     * @param concurrentPreparation true to regenerate geometry during the preparation phase, otherwise false.
+     */
+    public void setConcurrentPreparation(boolean concurrentPreparation)
+    {
+        this.concurrentPreparation = concurrentPreparation;
+    }
+
     /**
      * Determines whether this shape's geometry should be invalidated because the view distance changed, and if so,
      * invalidates the geometry.
@@ -1584,6 +1714,12 @@ public abstract class AbstractShape extends WWObjectImpl
      */
     protected void clearCachedVbos(DrawContext dc)
     {
+        if (this.preparing)
+        {
+            this.getCurrentData().vboClearPending = true;
+            return;
+        }
+
         dc.getGpuResourceCache().remove(this.getCurrentData().getVboCacheKey());
     }
 
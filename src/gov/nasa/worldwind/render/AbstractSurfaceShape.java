@@ -817,6 +817,22 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
         if (geom == null)
             return;
 
+        this.assembleDrawGeometry(dc.getGlobe(), geom, this.activeGeometry, this.activeOutlineGeometry);
+    }
+
+    /**
+     * Converts the shape's geometry to the interior and outline locations drawn in a geographic tile, compensating for
+     * contours that enclose a pole or cross the anti-meridian.
+     *
+     * @param globe    the globe the shape is associated with.
+     * @param geom     the shape's geometry, as returned by {@link #createGeometry(gov.nasa.worldwind.globes.Globe,
+     *                 SurfaceTileDrawContext)}.
+     * @param interior the list that receives the interior contours.
+     * @param outline  the list that receives the outline contours.
+     */
+    protected void assembleDrawGeometry(Globe globe, List<List<LatLon>> geom, List<List<LatLon>> interior,
+        List<List<LatLon>> outline)
+    {
         for (List<LatLon> locations : geom)
         {
             List<LatLon> drawLocations = new ArrayList<LatLon>(locations);
@@ -825,26 +841,51 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
             if (pole != null)
             {
                 // Wrap the shape interior around the pole and along the anti-meridian. See WWJ-284.
-                List<LatLon> poleLocations = this.cutAlongDateLine(drawLocations, pole, dc.getGlobe());
-                this.activeGeometry.add(poleLocations);
+                List<LatLon> poleLocations = this.cutAlongDateLine(drawLocations, pole, globe);
+                interior.add(poleLocations);
                 // The outline need only compensate for dateline crossing. See WWJ-452.
                 List<List<LatLon>> datelineLocations = this.repeatAroundDateline(drawLocations);
-                this.activeOutlineGeometry.addAll(datelineLocations);
+                outline.addAll(datelineLocations);
             }
             else if (LatLon.locationsCrossDateLine(drawLocations))
             {
                 List<List<LatLon>> datelineLocations = this.repeatAroundDateline(drawLocations);
-                this.activeGeometry.addAll(datelineLocations);
-                this.activeOutlineGeometry.addAll(datelineLocations);
+                interior.addAll(datelineLocations);
+                outline.addAll(datelineLocations);
             }
             else
             {
-                this.activeGeometry.add(drawLocations);
-                this.activeOutlineGeometry.add(drawLocations);
+                interior.add(drawLocations);
+                outline.add(drawLocations);
             }
         }
     }
 
+    /**
+     * Indicates whether the shape fills its interior when its attributes specify an interior. Shapes that are open
+     * paths, such as polylines, return false.
+     *
+     * @return true if the shape has an interior, otherwise false.
+     */
+    protected boolean hasInterior()
+    {
+        return true;
+    }
+
+    /**
+     * Indicates whether the shape can be drawn by a {@link SurfaceObjectTileRasterizer}, which draws a shape's interior
+     * and outline geometry without OpenGL. Shapes with an interior image are drawn only with OpenGL.
+     *
+     * @return true if the shape can be drawn without OpenGL, otherwise false.
+     */
+    protected boolean isRasterizable()
+    {
+        ShapeAttributes attrs = this.isHighlighted() && this.getHighlightAttributes() != null ?
+            this.getHighlightAttributes() : this.getAttributes();
+
+        return attrs == null || attrs.getImageSource() == null;
+    }
+
     /**
      * Indicates whether the shape is a closed polygon that can enclose a pole, or an open path that cannot. This makes
      * a difference when computing the bounding sector for a shape. For example, consider the positions (-100, 85), (0,
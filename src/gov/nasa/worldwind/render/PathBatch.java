@@ -0,0 +1,292 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import com.jogamp.opengl.*;
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.awt.*;
+import java.util.concurrent.*;
+
+/**
+ * PathBatch draws a large number of simple paths as one renderable. Each path is a line strip with its own positions
+ * and color; the line width and the path type, altitude mode and tessellation of every path are shared. The geometry
+ * of all paths is held and computed by a {@link PathBatchGeometry}: positions are stored in shared primitive arrays,
+ * only paths that have changed are tessellated again, in parallel on a pool of threads, and the vertices of every path
+ * are packed into one vertex buffer drawn with a single <code>glMultiDrawArrays</code> call.
+ * <p>
+ * PathBatch trades the per-path features of {@link Path} for throughput: paths in a batch are not extruded, do not
+ * follow the terrain, do not show their positions, and are picked as a whole. The batch is the picked object. Paths
+ * are identified by the integer ID returned when they are added.
+ * <p>
+ * Paths must be added, changed and removed on the rendering thread, or while the batch is not being rendered.
+ */
+public class PathBatch extends WWObjectImpl implements Renderable, Disposable
+{
+    protected PathBatchGeometry geometry = new PathBatchGeometry();
+    protected boolean visible = true;
+    protected double lineWidth = 1;
+    protected ExecutorService executor;
+    protected boolean ownsExecutor;
+
+    /** Creates an empty batch that tessellates paths on a pool with one thread for each available processor. */
+    public PathBatch()
+    {
+    }
+
+    /**
+     * Creates an empty batch that tessellates paths using a specified executor. The batch does not shut down the
+     * executor when it's disposed.
+     *
+     * @param executor the executor used to tessellate paths.
+     *
+     * @throws IllegalArgumentException if the executor is null.
+     */
+    public PathBatch(ExecutorService executor)
+    {
+        if (executor == null)
+        {
+            String message = Logging.getMessage("nullValue.ExecutorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the geometry holding this batch's paths. Settings such as the path type, altitude mode and number of
+     * subsegments are specified on the geometry.
+     *
+     * @return this batch's geometry.
+     */
+    public PathBatchGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Indicates whether this batch is drawn.
+     *
+     * @return true if this batch is drawn, otherwise false.
+     */
+    public boolean isVisible()
+    {
+        return this.visible;
+    }
+
+    /**
+     * Specifies whether this batch is drawn.
+     *
+     * @param visible true if this batch should be drawn, otherwise false.
+     */
+    public void setVisible(boolean visible)
+    {
+        this.visible = visible;
+    }
+
+    /**
+     * Indicates the width of every path's line, in pixels.
+     *
+     * @return the line width.
+     */
+    public double getLineWidth()
+    {
+        return this.lineWidth;
+    }
+
+    /**
+     * Specifies the width of every path's line, in pixels. The default is 1.
+     *
+     * @param lineWidth the line width.
+     *
+     * @throws IllegalArgumentException if the line width is not positive.
+     */
+    public void setLineWidth(double lineWidth)
+    {
+        if (lineWidth <= 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "lineWidth <= 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Adds a path to this batch. See {@link PathBatchGeometry#addPath(Iterable, Color)}.
+     *
+     * @param positions the path's positions.
+     * @param color     the path's color.
+     *
+     * @return the new path's ID.
+     */
+    public int addPath(Iterable<? extends Position> positions, Color color)
+    {
+        return this.geometry.addPath(positions, color);
+    }
+
+    /**
+     * Specifies new positions for a path. See {@link PathBatchGeometry#setPositions(int, Iterable)}.
+     *
+     * @param id        the path's ID.
+     * @param positions the new positions.
+     */
+    public void setPositions(int id, Iterable<? extends Position> positions)
+    {
+        this.geometry.setPositions(id, positions);
+    }
+
+    /**
+     * Specifies the color of a path. See {@link PathBatchGeometry#setColor(int, Color)}.
+     *
+     * @param id    the path's ID.
+     * @param color the path's new color.
+     */
+    public void setColor(int id, Color color)
+    {
+        this.geometry.setColor(id, color);
+    }
+
+    /**
+     * Removes a path from this batch. See {@link PathBatchGeometry#removePath(int)}.
+     *
+     * @param id the path's ID.
+     */
+    public void removePath(int id)
+    {
+        this.geometry.removePath(id);
+    }
+
+    /**
+     * Returns the number of paths in this batch.
+     *
+     * @return the number of paths.
+     */
+    public int getPathCount()
+    {
+        return this.geometry.getPathCount();
+    }
+
+    public void render(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!this.isVisible() || this.geometry.getPathCount() == 0)
+            return;
+
+        this.geometry.update(dc.getGlobe(), dc.getVerticalExaggeration(), this.getExecutor());
+
+        Extent extent = this.geometry.getExtent();
+        if (extent == null || this.geometry.getDrawCount() == 0)
+            return;
+
+        if (dc.isPickingMode() ? !dc.getPickFrustums().intersectsAny(extent)
+            : !dc.getView().getFrustumInModelCoordinates().intersects(extent))
+            return;
+
+        this.draw(dc);
+    }
+
+    protected void draw(DrawContext dc)
+    {
+        GL2 gl = dc.getGL().getGL2(); // GL initialization checks for GL2 compatibility.
+        OGLStackHandler ogsh = new OGLStackHandler();
+        ogsh.pushAttrib(gl, GL2.GL_CURRENT_BIT | GL2.GL_LINE_BIT | GL2.GL_ENABLE_BIT | GL2.GL_COLOR_BUFFER_BIT
+            | GL2.GL_DEPTH_BUFFER_BIT);
+        ogsh.pushClientAttrib(gl, GL2.GL_CLIENT_VERTEX_ARRAY_BIT);
+        dc.getView().pushReferenceCenter(dc, this.geometry.getReferencePoint());
+        try
+        {
+            gl.glDisable(GL.GL_TEXTURE_2D);
+            gl.glDisable(GL2.GL_LIGHTING);
+            gl.glEnable(GL.GL_DEPTH_TEST);
+            gl.glLineWidth((float) this.getLineWidth());
+
+            gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+            gl.glVertexPointer(3, GL.GL_FLOAT, 0, this.geometry.getVertices().rewind());
+
+            // During picking, the layer has set the current color to this batch's pick color. Draw every path with that
+            // color instead of the path colors.
+            if (!dc.isPickingMode())
+            {
+                gl.glEnable(GL.GL_BLEND);
+                OGLUtil.applyBlending(gl, false);
+                gl.glEnable(GL2.GL_LINE_SMOOTH);
+                gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+                gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, this.geometry.getVertexColors().rewind());
+            }
+
+            gl.glMultiDrawArrays(GL.GL_LINE_STRIP, this.geometry.getFirsts(), this.geometry.getCounts(),
+                this.geometry.getDrawCount());
+        }
+        finally
+        {
+            dc.getView().popReferenceCenter(dc);
+            ogsh.pop(gl);
+        }
+    }
+
+    public void dispose()
+    {
+        if (this.ownsExecutor && this.executor != null)
+        {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    protected synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory()
+                {
+                    public Thread newThread(Runnable runnable)
+                    {
+                        Thread thread = new Thread(runnable, "WorldWind Path Batch Tessellator");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            this.ownsExecutor = true;
+        }
+
+        return this.executor;
+    }
+}
@@ -0,0 +1,1033 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.*;
+import java.nio.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * PathBatchGeometry computes the model coordinate geometry of many paths at once, without an OpenGL context. It is the
+ * geometry stage of {@link PathBatch}, and may be used on its own to prepare or measure path geometry.
+ * <p>
+ * The positions of all paths are held in one shared array of latitude, longitude and altitude values, rather than in
+ * one list of {@link Position}s per path. Each path is identified by an integer ID returned when it is added. Changing
+ * a path's positions or color marks only that path dirty. {@link #update(Globe, double, ExecutorService)} tessellates
+ * the dirty paths, in parallel when an executor is specified, and packs the vertices of every path into one shared
+ * vertex buffer and one shared color buffer. Each path occupies a contiguous range of those buffers, described by
+ * {@link #getFirsts()} and {@link #getCounts()}, so that all paths can be drawn as line strips with a single call to
+ * <code>glMultiDrawArrays</code>. When the dirty paths keep their vertex counts, their vertices are written in place
+ * and the other paths are not copied.
+ * <p>
+ * Paths are tessellated by a {@link PathTessellator} into the number of subsegments specified by {@link
+ * #setNumSubsegments(int)} following the path type, except for {@link AVKey#LINEAR} paths with absolute altitudes,
+ * which are drawn as straight lines between their positions. Altitudes are interpreted according to the altitude mode.
+ * Terrain heights for {@link WorldWind#CLAMP_TO_GROUND} and {@link WorldWind#RELATIVE_TO_GROUND} are taken from the
+ * globe's elevation model rather than from the current terrain geometry. Vertices are relative to a reference point
+ * computed when every path is regenerated, which happens when the globe, vertical exaggeration or a tessellation
+ * setting changes.
+ * <p>
+ * PathBatchGeometry is not thread safe. Paths must not be modified while {@link #update(Globe, double,
+ * ExecutorService)} is in progress.
+ */
+public class PathBatchGeometry
+{
+    /** The default number of subsegments between each pair of path positions. */
+    protected static final int DEFAULT_NUM_SUBSEGMENTS = 10;
+    /** The minimum number of paths tessellated by each parallel task. */
+    protected static final int MIN_PATHS_PER_TASK = 16;
+
+    protected String pathType = AVKey.GREAT_CIRCLE;
+    protected int altitudeMode = WorldWind.ABSOLUTE;
+    protected int numSubsegments = DEFAULT_NUM_SUBSEGMENTS;
+
+    // Per-path state, indexed by path ID. A negative position count marks an unused ID.
+    protected int numIds;
+    protected int numPaths;
+    protected int[] positionOffsets = new int[16];
+    protected int[] positionCounts = new int[16];
+    protected int[] colors = new int[16];
+    protected boolean[] dirty = new boolean[16];
+    protected float[][] pathVertices = new float[16][];
+    protected int[] vertexCounts = new int[16];
+    protected int[] packedFirsts = new int[16];
+    protected int[] packedCounts = new int[16];
+    protected int[] freeIds = new int[16];
+    protected int numFreeIds;
+
+    /** Latitude (degrees), longitude (degrees) and altitude (meters) of every path position, in groups of three. */
+    protected double[] positions = new double[1024];
+    protected int positionsUsed;
+    protected int positionsUnused;
+
+    protected int numDirty;
+    protected boolean layoutChanged = true;
+    protected boolean colorsChanged;
+    protected boolean tessellationChanged = true;
+
+    // Globe-specific state.
+    protected Object globeStateKey;
+    protected double verticalExaggeration;
+    protected Vec4 referencePoint;
+
+    // Packed output.
+    protected FloatBuffer vertices;
+    protected ByteBuffer vertexColors;
+    protected IntBuffer firsts;
+    protected IntBuffer counts;
+    protected int[] drawnIds = new int[16];
+    protected int drawCount;
+    protected Extent extent;
+
+    /** Creates an empty geometry with great circle paths, absolute altitudes and 10 subsegments per segment. */
+    public PathBatchGeometry()
+    {
+    }
+
+    /**
+     * Returns the number of paths.
+     *
+     * @return the number of paths.
+     */
+    public int getPathCount()
+    {
+        return this.numPaths;
+    }
+
+    /**
+     * Returns the number of paths that have changed since the last update.
+     *
+     * @return the number of dirty paths.
+     */
+    public int getDirtyPathCount()
+    {
+        return this.tessellationChanged ? this.numPaths : this.numDirty;
+    }
+
+    /**
+     * Indicates the path type used to tessellate every path.
+     *
+     * @return the path type.
+     *
+     * @see #setPathType(String)
+     */
+    public String getPathType()
+    {
+        return this.pathType;
+    }
+
+    /**
+     * Specifies the path type used to tessellate every path. Recognized values are {@link AVKey#GREAT_CIRCLE}, {@link
+     * AVKey#RHUMB_LINE}, {@link AVKey#LOXODROME} and {@link AVKey#LINEAR}. The default is great circle.
+     *
+     * @param pathType the path type.
+     *
+     * @throws IllegalArgumentException if the path type is null.
+     */
+    public void setPathType(String pathType)
+    {
+        if (pathType == null)
+        {
+            String message = Logging.getMessage("nullValue.PathTypeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.pathType = pathType;
+        this.tessellationChanged = true;
+    }
+
+    /**
+     * Indicates the altitude mode applied to every path.
+     *
+     * @return the altitude mode.
+     *
+     * @see #setAltitudeMode(int)
+     */
+    public int getAltitudeMode()
+    {
+        return this.altitudeMode;
+    }
+
+    /**
+     * Specifies the altitude mode applied to every path. Recognized values are {@link WorldWind#ABSOLUTE}, {@link
+     * WorldWind#RELATIVE_TO_GROUND} and {@link WorldWind#CLAMP_TO_GROUND}. The default is absolute.
+     *
+     * @param altitudeMode the altitude mode.
+     */
+    public void setAltitudeMode(int altitudeMode)
+    {
+        this.altitudeMode = altitudeMode;
+        this.tessellationChanged = true;
+    }
+
+    /**
+     * Indicates the number of subsegments each segment between path positions is divided into.
+     *
+     * @return the number of subsegments.
+     */
+    public int getNumSubsegments()
+    {
+        return this.numSubsegments;
+    }
+
+    /**
+     * Specifies the number of subsegments each segment between path positions is divided into. The default is 10.
+     *
+     * @param numSubsegments the number of subsegments.
+     *
+     * @throws IllegalArgumentException if the number of subsegments is less than one.
+     */
+    public void setNumSubsegments(int numSubsegments)
+    {
+        if (numSubsegments < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "numSubsegments < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.numSubsegments = numSubsegments;
+        this.tessellationChanged = true;
+    }
+
+    /**
+     * Adds a path with the specified positions and color.
+     *
+     * @param positions the path's positions.
+     * @param color     the path's color.
+     *
+     * @return the new path's ID.
+     *
+     * @throws IllegalArgumentException if the positions or the color are null.
+     */
+    public int addPath(Iterable<? extends Position> positions, Color color)
+    {
+        return this.addPath(toCoordinates(positions), color);
+    }
+
+    /**
+     * Adds a path with the specified coordinates and color.
+     *
+     * @param coordinates the path's positions as latitude (degrees), longitude (degrees) and altitude (meters) values,
+     *                    in groups of three. The array is copied.
+     * @param color       the path's color.
+     *
+     * @return the new path's ID.
+     *
+     * @throws IllegalArgumentException if the coordinates or the color are null, or if the length of the coordinate
+     *                                  array is not a multiple of three.
+     */
+    public int addPath(double[] coordinates, Color color)
+    {
+        checkCoordinates(coordinates);
+
+        if (color == null)
+        {
+            String message = Logging.getMessage("nullValue.ColorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int id;
+        if (this.numFreeIds > 0)
+        {
+            id = this.freeIds[--this.numFreeIds];
+        }
+        else
+        {
+            id = this.numIds++;
+            this.ensureIdCapacity(this.numIds);
+        }
+
+        this.numPaths++;
+        this.colors[id] = color.getRGB();
+        this.pathVertices[id] = null;
+        this.vertexCounts[id] = 0;
+        this.packedFirsts[id] = -1;
+        this.storePositions(id, coordinates);
+        this.markDirty(id);
+        this.layoutChanged = true;
+
+        return id;
+    }
+
+    /**
+     * Removes a path. The path's ID may be reused by a path added later.
+     *
+     * @param id the path's ID.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID.
+     */
+    public void removePath(int id)
+    {
+        this.checkId(id);
+
+        if (this.dirty[id])
+        {
+            this.dirty[id] = false;
+            this.numDirty--;
+        }
+
+        this.positionsUnused += 3 * this.positionCounts[id];
+        this.positionCounts[id] = -1;
+        this.pathVertices[id] = null;
+
+        if (this.numFreeIds == this.freeIds.length)
+            this.freeIds = Arrays.copyOf(this.freeIds, 2 * this.freeIds.length);
+        this.freeIds[this.numFreeIds++] = id;
+
+        this.numPaths--;
+        this.layoutChanged = true;
+    }
+
+    /** Removes all paths. */
+    public void clear()
+    {
+        Arrays.fill(this.pathVertices, null);
+        this.numIds = 0;
+        this.numPaths = 0;
+        this.numFreeIds = 0;
+        this.numDirty = 0;
+        this.positionsUsed = 0;
+        this.positionsUnused = 0;
+        this.layoutChanged = true;
+    }
+
+    /**
+     * Indicates whether a path with the specified ID exists.
+     *
+     * @param id the ID to test.
+     *
+     * @return true if the ID identifies a path, otherwise false.
+     */
+    public boolean containsPath(int id)
+    {
+        return id >= 0 && id < this.numIds && this.positionCounts[id] >= 0;
+    }
+
+    /**
+     * Returns the number of positions of a path.
+     *
+     * @param id the path's ID.
+     *
+     * @return the number of positions.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID.
+     */
+    public int getPositionCount(int id)
+    {
+        this.checkId(id);
+
+        return this.positionCounts[id];
+    }
+
+    /**
+     * Returns the positions of a path.
+     *
+     * @param id the path's ID.
+     *
+     * @return a new array containing the path's latitude (degrees), longitude (degrees) and altitude (meters) values,
+     * in groups of three.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID.
+     */
+    public double[] getCoordinates(int id)
+    {
+        this.checkId(id);
+
+        int offset = this.positionOffsets[id];
+        return Arrays.copyOfRange(this.positions, offset, offset + 3 * this.positionCounts[id]);
+    }
+
+    /**
+     * Specifies new positions for a path.
+     *
+     * @param id        the path's ID.
+     * @param positions the new positions.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID, or if the positions are null.
+     */
+    public void setPositions(int id, Iterable<? extends Position> positions)
+    {
+        this.setCoordinates(id, toCoordinates(positions));
+    }
+
+    /**
+     * Specifies new positions for a path.
+     *
+     * @param id          the path's ID.
+     * @param coordinates the new positions as latitude (degrees), longitude (degrees) and altitude (meters) values, in
+     *                    groups of three. The array is copied.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID, if the coordinates are null, or if the length
+     *                                  of the coordinate array is not a multiple of three.
+     */
+    public void setCoordinates(int id, double[] coordinates)
+    {
+        this.checkId(id);
+        checkCoordinates(coordinates);
+
+        if (coordinates.length == 3 * this.positionCounts[id])
+        {
+            // Overwrite the path's positions in place when the number of positions is unchanged.
+            System.arraycopy(coordinates, 0, this.positions, this.positionOffsets[id], coordinates.length);
+        }
+        else
+        {
+            this.positionsUnused += 3 * this.positionCounts[id];
+            this.storePositions(id, coordinates);
+        }
+
+        this.markDirty(id);
+    }
+
+    /**
+     * Returns the color of a path.
+     *
+     * @param id the path's ID.
+     *
+     * @return the path's color.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID.
+     */
+    public Color getColor(int id)
+    {
+        this.checkId(id);
+
+        return new Color(this.colors[id], true);
+    }
+
+    /**
+     * Specifies the color of a path. Changing a path's color does not cause it to be tessellated again.
+     *
+     * @param id    the path's ID.
+     * @param color the path's new color.
+     *
+     * @throws IllegalArgumentException if no path has the specified ID, or if the color is null.
+     */
+    public void setColor(int id, Color color)
+    {
+        this.checkId(id);
+
+        if (color == null)
+        {
+            String message = Logging.getMessage("nullValue.ColorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.colors[id] = color.getRGB();
+        this.colorsChanged = true;
+    }
+
+    /**
+     * Returns the reference point the vertices are relative to.
+     *
+     * @return the reference point, or null if the geometry has not been updated.
+     */
+    public Vec4 getReferencePoint()
+    {
+        return this.referencePoint;
+    }
+
+    /**
+     * Returns the packed vertices of every drawn path, as x, y and z model coordinates relative to the reference point.
+     * The buffer's limit is the number of values in use.
+     *
+     * @return the vertex buffer, or null if the geometry has not been updated.
+     */
+    public FloatBuffer getVertices()
+    {
+        return this.vertices;
+    }
+
+    /**
+     * Returns the packed vertex colors of every drawn path, as red, green, blue and alpha bytes.
+     *
+     * @return the color buffer, or null if the geometry has not been updated.
+     */
+    public ByteBuffer getVertexColors()
+    {
+        return this.vertexColors;
+    }
+
+    /**
+     * Returns the index of the first vertex of each drawn path. The buffer's limit is the number of drawn paths.
+     *
+     * @return the first vertex of each drawn path, or null if the geometry has not been updated.
+     */
+    public IntBuffer getFirsts()
+    {
+        return this.firsts;
+    }
+
+    /**
+     * Returns the number of vertices of each drawn path. The buffer's limit is the number of drawn paths.
+     *
+     * @return the vertex count of each drawn path, or null if the geometry has not been updated.
+     */
+    public IntBuffer getCounts()
+    {
+        return this.counts;
+    }
+
+    /**
+     * Returns the number of drawn paths. Paths with fewer than two positions are not drawn.
+     *
+     * @return the number of drawn paths.
+     */
+    public int getDrawCount()
+    {
+        return this.drawCount;
+    }
+
+    /**
+     * Returns the ID of a drawn path.
+     *
+     * @param drawIndex the path's index in the {@link #getFirsts()} and {@link #getCounts()} buffers.
+     *
+     * @return the ID of the path drawn at the specified index.
+     */
+    public int getDrawnPathId(int drawIndex)
+    {
+        return this.drawnIds[drawIndex];
+    }
+
+    /**
+     * Returns an extent bounding the vertices of every drawn path.
+     *
+     * @return the extent, or null if the geometry has not been updated or there are no drawn paths.
+     */
+    public Extent getExtent()
+    {
+        return this.extent;
+    }
+
+    /**
+     * Tessellates the paths that have changed since the last update and packs the vertices of every path into the
+     * shared buffers. Every path is tessellated when the globe or vertical exaggeration differ from the last update,
+     * or when a tessellation setting has changed.
+     *
+     * @param globe                the globe to compute model coordinates on.
+     * @param verticalExaggeration the vertical exaggeration to apply to altitudes and terrain heights.
+     * @param executor             the executor used to tessellate paths in parallel. May be null, in which case the
+     *                             paths are tessellated on the calling thread.
+     *
+     * @return true if the packed buffers changed, otherwise false.
+     *
+     * @throws IllegalArgumentException if the globe is null.
+     * @throws WWRuntimeException       if tessellating a path fails.
+     */
+    public boolean update(Globe globe, double verticalExaggeration, ExecutorService executor)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Object stateKey = globe.getGlobeStateKey();
+        if (this.tessellationChanged || this.referencePoint == null || !stateKey.equals(this.globeStateKey)
+            || verticalExaggeration != this.verticalExaggeration)
+        {
+            this.globeStateKey = stateKey;
+            this.verticalExaggeration = verticalExaggeration;
+            this.referencePoint = this.computeReferencePoint(globe);
+            this.tessellationChanged = false;
+            this.markAllDirty();
+        }
+
+        if (this.numDirty == 0 && !this.layoutChanged && !this.colorsChanged)
+            return false;
+
+        int[] tessellatedIds = this.tessellateDirtyPaths(globe, executor);
+
+        if (this.layoutChanged)
+        {
+            this.pack();
+        }
+        else
+        {
+            this.packInPlace(tessellatedIds);
+        }
+
+        this.layoutChanged = false;
+        this.colorsChanged = false;
+        this.extent = this.computeExtent();
+
+        return true;
+    }
+
+    //**************************************************************//
+    //********************  Tessellation  **************************//
+    //**************************************************************//
+
+    /**
+     * Tessellates each dirty path and clears its dirty flag.
+     *
+     * @param globe    the globe to compute model coordinates on.
+     * @param executor the executor used to tessellate paths in parallel, or null to tessellate on the calling thread.
+     *
+     * @return the IDs of the tessellated paths.
+     */
+    protected int[] tessellateDirtyPaths(final Globe globe, ExecutorService executor)
+    {
+        final int[] ids = new int[this.numDirty];
+        int n = 0;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            if (this.dirty[id])
+            {
+                ids[n++] = id;
+                this.dirty[id] = false;
+            }
+        }
+        this.numDirty = 0;
+
+        int numTasks = executor != null ? Math.min(4 * Runtime.getRuntime().availableProcessors(),
+            ids.length / MIN_PATHS_PER_TASK) : 1;
+        if (numTasks <= 1)
+        {
+            PathTessellator tessellator = this.createTessellator();
+            for (int id : ids)
+            {
+                this.tessellatePath(globe, id, tessellator);
+            }
+            return ids;
+        }
+
+        // Tessellate contiguous ranges of the dirty paths, so that each path is written by only one thread.
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numTasks);
+        for (int t = 0; t < numTasks; t++)
+        {
+            final int start = (int) ((long) ids.length * t / numTasks);
+            final int end = (int) ((long) ids.length * (t + 1) / numTasks);
+            tasks.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    PathTessellator tessellator = createTessellator();
+                    for (int i = start; i < end; i++)
+                    {
+                        tessellatePath(globe, ids[i], tessellator);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        try
+        {
+            for (Future<Void> future : executor.invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            String message = Logging.getMessage("generic.ExceptionWhileTessellating", this);
+            throw new WWRuntimeException(message, e);
+        }
+        catch (ExecutionException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionWhileTessellating", this);
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e.getCause());
+            throw new WWRuntimeException(message, e.getCause());
+        }
+
+        return ids;
+    }
+
+    /**
+     * Creates a tessellator configured with the current path type, altitude mode and number of subsegments, and with
+     * the current reference point. Each tessellating thread uses its own tessellator.
+     *
+     * @return a new tessellator.
+     */
+    protected PathTessellator createTessellator()
+    {
+        PathTessellator tessellator = new PathTessellator();
+        tessellator.setPathType(this.pathType);
+        tessellator.setAltitudeMode(this.altitudeMode);
+        tessellator.setNumSubsegments(this.numSubsegments);
+        tessellator.setReferencePoint(this.referencePoint);
+        return tessellator;
+    }
+
+    /**
+     * Tessellates one path into its vertex array. Called concurrently for different paths.
+     *
+     * @param globe       the globe to compute model coordinates on.
+     * @param id          the path's ID.
+     * @param tessellator the calling thread's tessellator.
+     */
+    protected void tessellatePath(Globe globe, int id, PathTessellator tessellator)
+    {
+        int numPositions = this.positionCounts[id];
+        if (numPositions < 2)
+        {
+            this.vertexCounts[id] = 0;
+            return;
+        }
+
+        int n = tessellator.tessellate(globe, this.verticalExaggeration, this.positions, this.positionOffsets[id],
+            numPositions);
+
+        float[] out = this.pathVertices[id];
+        if (out == null || out.length < 3 * n)
+            out = new float[3 * n];
+
+        double[] points = tessellator.getPoints();
+        for (int i = 0; i < 3 * n; i++)
+        {
+            out[i] = (float) points[i];
+        }
+
+        this.pathVertices[id] = out;
+        this.vertexCounts[id] = n;
+    }
+
+    protected Vec4 computeReferencePoint(Globe globe)
+    {
+        double minLat = 90, maxLat = -90, minLon = 180, maxLon = -180;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            int count = this.positionCounts[id];
+            for (int i = 0, j = this.positionOffsets[id]; i < count; i++, j += 3)
+            {
+                minLat = Math.min(minLat, this.positions[j]);
+                maxLat = Math.max(maxLat, this.positions[j]);
+                minLon = Math.min(minLon, this.positions[j + 1]);
+                maxLon = Math.max(maxLon, this.positions[j + 1]);
+            }
+        }
+
+        if (minLat > maxLat)
+            return globe.computePointFromPosition(Angle.ZERO, Angle.ZERO, 0);
+
+        return globe.computePointFromPosition(Angle.fromDegrees(0.5 * (minLat + maxLat)),
+            Angle.fromDegrees(0.5 * (minLon + maxLon)), 0);
+    }
+
+    //**************************************************************//
+    //********************  Packing  *******************************//
+    //**************************************************************//
+
+    /** Copies the vertices and colors of every path into the shared buffers, assigning each path a new range. */
+    protected void pack()
+    {
+        int numVertices = 0;
+        int numDrawn = 0;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            this.packedFirsts[id] = -1;
+            if (this.positionCounts[id] >= 0 && this.vertexCounts[id] >= 2)
+            {
+                numVertices += this.vertexCounts[id];
+                numDrawn++;
+            }
+        }
+
+        this.ensureOutputCapacity(numVertices, numDrawn);
+        this.vertices.clear();
+        this.vertexColors.clear();
+        this.firsts.clear();
+        this.counts.clear();
+
+        int first = 0;
+        this.drawCount = 0;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            int count = this.vertexCounts[id];
+            if (this.positionCounts[id] < 0 || count < 2)
+                continue;
+
+            this.vertices.put(this.pathVertices[id], 0, 3 * count);
+            this.putColor(this.colors[id], count);
+            this.firsts.put(first);
+            this.counts.put(count);
+            this.packedFirsts[id] = first;
+            this.packedCounts[id] = count;
+            this.drawnIds[this.drawCount++] = id;
+            first += count;
+        }
+
+        this.vertices.flip();
+        this.vertexColors.flip();
+        this.firsts.flip();
+        this.counts.flip();
+    }
+
+    /**
+     * Writes the vertices of the specified paths in their existing ranges, and rewrites every path's colors if any
+     * color has changed. Falls back to {@link #pack()} if the vertex count of any of the paths has changed since it was
+     * packed.
+     *
+     * @param ids the IDs of the paths to write.
+     */
+    protected void packInPlace(int[] ids)
+    {
+        for (int id : ids)
+        {
+            int first = this.packedFirsts[id];
+            if (first < 0 ? this.vertexCounts[id] >= 2 : this.vertexCounts[id] != this.packedCounts[id])
+            {
+                this.pack();
+                return;
+            }
+        }
+
+        for (int id : ids)
+        {
+            int first = this.packedFirsts[id];
+            if (first >= 0)
+            {
+                FloatBuffer dup = this.vertices.duplicate();
+                dup.position(3 * first);
+                dup.put(this.pathVertices[id], 0, 3 * this.packedCounts[id]);
+            }
+        }
+
+        if (this.colorsChanged)
+        {
+            for (int i = 0; i < this.drawCount; i++)
+            {
+                int id = this.drawnIds[i];
+                this.vertexColors.position(4 * this.packedFirsts[id]);
+                this.putColor(this.colors[id], this.packedCounts[id]);
+            }
+            this.vertexColors.rewind();
+        }
+    }
+
+    protected void putColor(int argb, int count)
+    {
+        byte r = (byte) (argb >> 16);
+        byte g = (byte) (argb >> 8);
+        byte b = (byte) argb;
+        byte a = (byte) (argb >>> 24);
+        for (int i = 0; i < count; i++)
+        {
+            this.vertexColors.put(r).put(g).put(b).put(a);
+        }
+    }
+
+    protected Extent computeExtent()
+    {
+        int limit = this.vertices.limit();
+        if (limit == 0)
+            return null;
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (int i = 0; i < limit; i += 3)
+        {
+            float x = this.vertices.get(i);
+            float y = this.vertices.get(i + 1);
+            float z = this.vertices.get(i + 2);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        Vec4 ref = this.referencePoint;
+        Vec4 center = new Vec4(ref.x + 0.5 * (minX + maxX), ref.y + 0.5 * (minY + maxY), ref.z + 0.5 * (minZ + maxZ));
+        double radius = 0.5 * Math.sqrt((maxX - minX) * (maxX - minX) + (maxY - minY) * (maxY - minY)
+            + (maxZ - minZ) * (maxZ - minZ));
+
+        return new Sphere(center, Math.max(radius, 1));
+    }
+
+    protected void ensureOutputCapacity(int numVertices, int numDrawn)
+    {
+        if (this.vertices == null || this.vertices.capacity() < 3 * numVertices)
+        {
+            int capacity = Math.max(3 * numVertices, this.vertices != null ? this.vertices.capacity() * 3 / 2 : 0);
+            this.vertices = ByteBuffer.allocateDirect(4 * capacity).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            this.vertexColors = ByteBuffer.allocateDirect(4 * (capacity / 3)).order(ByteOrder.nativeOrder());
+        }
+
+        if (this.firsts == null || this.firsts.capacity() < numDrawn)
+        {
+            int capacity = Math.max(numDrawn, this.firsts != null ? this.firsts.capacity() * 3 / 2 : 16);
+            this.firsts = ByteBuffer.allocateDirect(4 * capacity).order(ByteOrder.nativeOrder()).asIntBuffer();
+            this.counts = ByteBuffer.allocateDirect(4 * capacity).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        if (this.drawnIds.length < numDrawn)
+            this.drawnIds = new int[Math.max(numDrawn, this.drawnIds.length * 3 / 2)];
+    }
+
+    //**************************************************************//
+    //********************  Position Storage  **********************//
+    //**************************************************************//
+
+    protected void storePositions(int id, double[] coordinates)
+    {
+        if (this.positionsUnused > this.positionsUsed / 2)
+            this.compactPositions(id);
+
+        if (this.positionsUsed + coordinates.length > this.positions.length)
+        {
+            int capacity = Math.max(this.positionsUsed + coordinates.length, this.positions.length * 3 / 2);
+            this.positions = Arrays.copyOf(this.positions, capacity);
+        }
+
+        System.arraycopy(coordinates, 0, this.positions, this.positionsUsed, coordinates.length);
+        this.positionOffsets[id] = this.positionsUsed;
+        this.positionCounts[id] = coordinates.length / 3;
+        this.positionsUsed += coordinates.length;
+    }
+
+    /**
+     * Moves the positions of every path to the front of the shared position array, discarding space left by removed
+     * and resized paths.
+     *
+     * @param excludedId the ID of a path whose positions are about to be replaced and need not be kept.
+     */
+    protected void compactPositions(int excludedId)
+    {
+        double[] compacted = new double[Math.max(this.positions.length, 1024)];
+        int used = 0;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            int count = this.positionCounts[id];
+            if (count < 0 || id == excludedId)
+                continue;
+
+            System.arraycopy(this.positions, this.positionOffsets[id], compacted, used, 3 * count);
+            this.positionOffsets[id] = used;
+            used += 3 * count;
+        }
+
+        this.positions = compacted;
+        this.positionsUsed = used;
+        this.positionsUnused = 0;
+    }
+
+    protected void ensureIdCapacity(int capacity)
+    {
+        if (capacity <= this.positionOffsets.length)
+            return;
+
+        int newCapacity = Math.max(capacity, this.positionOffsets.length * 2);
+        this.positionOffsets = Arrays.copyOf(this.positionOffsets, newCapacity);
+        this.positionCounts = Arrays.copyOf(this.positionCounts, newCapacity);
+        this.colors = Arrays.copyOf(this.colors, newCapacity);
+        this.dirty = Arrays.copyOf(this.dirty, newCapacity);
+        this.pathVertices = Arrays.copyOf(this.pathVertices, newCapacity);
+        this.vertexCounts = Arrays.copyOf(this.vertexCounts, newCapacity);
+        this.packedFirsts = Arrays.copyOf(this.packedFirsts, newCapacity);
+        this.packedCounts = Arrays.copyOf(this.packedCounts, newCapacity);
+    }
+
+    protected void markDirty(int id)
+    {
+        if (!this.dirty[id])
+        {
+            this.dirty[id] = true;
+            this.numDirty++;
+        }
+    }
+
+    protected void markAllDirty()
+    {
+        for (int id = 0; id < this.numIds; id++)
+        {
+            if (this.positionCounts[id] >= 0)
+                this.markDirty(id);
+        }
+    }
+
+    protected void checkId(int id)
+    {
+        if (!this.containsPath(id))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "id=" + id);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    protected static void checkCoordinates(double[] coordinates)
+    {
+        if (coordinates == null)
+        {
+            String message = Logging.getMessage("nullValue.CoordinatesAreNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (coordinates.length % 3 != 0)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", coordinates.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    protected static double[] toCoordinates(Iterable<? extends Position> positions)
+    {
+        if (positions == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionsListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double[] coordinates = new double[48];
+        int n = 0;
+        for (Position pos : positions)
+        {
+            if (n + 3 > coordinates.length)
+                coordinates = Arrays.copyOf(coordinates, 2 * coordinates.length);
+
+            coordinates[n++] = pos.getLatitude().degrees;
+            coordinates[n++] = pos.getLongitude().degrees;
+            coordinates[n++] = pos.getAltitude();
+        }
+
+        return Arrays.copyOf(coordinates, n);
+    }
+}
@@ -0,0 +1,807 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.Arrays;
+
+/**
+ * PathTessellator converts a path's positions into the model-coordinate vertices of a line strip that follows the
+ * path's type (great circle, rhumb line or linear) and altitude mode. Positions are read from a primitive array of
+ * latitude, longitude and altitude triples, and the results are written to arrays the tessellator owns and reuses, so
+ * tessellating a path allocates nothing once those arrays are large enough. Use one tessellator per thread.
+ * <p>
+ * Segments are subdivided in one of two ways. When view parameters have been specified, each segment is subdivided
+ * recursively at its midpoint until the distance between the curve and its chord, measured in pixels at the
+ * midpoint's distance from the eye, is no more than the maximum screen error. Terrain following segments are also
+ * subdivided until they are no longer than the terrain conformance, in pixels. When no view parameters have been
+ * specified, each segment is divided into a fixed number of subsegments. In both cases linear paths with absolute
+ * altitudes are not subdivided.
+ * <p>
+ * Model coordinates are computed without allocation on any {@link EllipsoidalGlobe}, so paths with absolute altitudes
+ * are tessellated without allocation. Paths that follow the terrain are not: terrain elevations for clamped and
+ * relative altitude modes are read with {@link Globe#getElevation(Angle, Angle)}, which takes two new Angles for each
+ * vertex, because neither globes nor elevation models offer an elevation lookup in degrees. Globes that are not
+ * ellipsoidal likewise allocate Angles and a Vec4 for each vertex.
+ */
+public class PathTessellator
+{
+    protected static final int DEFAULT_NUM_SUBSEGMENTS = 10;
+    protected static final double DEFAULT_MAX_SCREEN_ERROR = 1;
+    protected static final double DEFAULT_TERRAIN_CONFORMANCE = 10;
+    protected static final int DEFAULT_MAX_SUBDIVISION_DEPTH = 10;
+    /** The latitude limit used by rhumb line interpolation, whose Mercator projection is infinite at the poles. */
+    protected static final double MAX_RHUMB_LATITUDE = 89.999999;
+
+    protected String pathType = AVKey.GREAT_CIRCLE;
+    protected int altitudeMode = WorldWind.ABSOLUTE;
+    protected int numSubsegments = DEFAULT_NUM_SUBSEGMENTS;
+    protected double maxScreenError = DEFAULT_MAX_SCREEN_ERROR;
+    protected double terrainConformance = DEFAULT_TERRAIN_CONFORMANCE;
+    protected int maxSubdivisionDepth = DEFAULT_MAX_SUBDIVISION_DEPTH;
+
+    // View parameters used for adaptive subdivision. A pixel size scale of zero selects uniform subdivision.
+    protected double eyeX;
+    protected double eyeY;
+    protected double eyeZ;
+    protected double pixelSizeScale;
+
+    protected double referenceX;
+    protected double referenceY;
+    protected double referenceZ;
+
+    // Per-call state.
+    protected Globe globe;
+    protected EllipsoidalGlobe ellipsoidalGlobe;
+    protected double verticalExaggeration;
+    protected boolean interpolatePathType;
+    protected boolean followTerrain;
+
+    // Output, reused between calls.
+    protected double[] points = new double[96];
+    protected double[] positions = new double[96];
+    protected int[] positionVertexIndices = new int[16];
+    protected int vertexCount;
+
+    // Scratch space for interpolated locations and computed vertices.
+    protected final double[] location = new double[2];
+    protected final double[] vertex = new double[4];
+
+    /** Creates a tessellator for great circle paths with absolute altitudes, using uniform subdivision. */
+    public PathTessellator()
+    {
+    }
+
+    /**
+     * Indicates the path type used to interpolate between positions.
+     *
+     * @return the path type, one of {@link AVKey#GREAT_CIRCLE}, {@link AVKey#RHUMB_LINE}, {@link AVKey#LOXODROME} or
+     *         {@link AVKey#LINEAR}.
+     */
+    public String getPathType()
+    {
+        return this.pathType;
+    }
+
+    /**
+     * Specifies the path type used to interpolate between positions. Unrecognized types are treated as great circles.
+     *
+     * @param pathType the path type, one of {@link AVKey#GREAT_CIRCLE}, {@link AVKey#RHUMB_LINE}, {@link
+     *                 AVKey#LOXODROME} or {@link AVKey#LINEAR}.
+     *
+     * @throws IllegalArgumentException if the path type is null.
+     */
+    public void setPathType(String pathType)
+    {
+        if (pathType == null)
+        {
+            String message = Logging.getMessage("nullValue.PathTypeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.pathType = pathType;
+    }
+
+    /**
+     * Indicates how position altitudes are interpreted.
+     *
+     * @return the altitude mode, one of {@link WorldWind#ABSOLUTE}, {@link WorldWind#RELATIVE_TO_GROUND} or {@link
+     *         WorldWind#CLAMP_TO_GROUND}.
+     */
+    public int getAltitudeMode()
+    {
+        return this.altitudeMode;
+    }
+
+    /**
+     * Specifies how position altitudes are interpreted. The default is {@link WorldWind#ABSOLUTE}.
+     *
+     * @param altitudeMode the altitude mode, one of {@link WorldWind#ABSOLUTE}, {@link WorldWind#RELATIVE_TO_GROUND}
+     *                     or {@link WorldWind#CLAMP_TO_GROUND}.
+     */
+    public void setAltitudeMode(int altitudeMode)
+    {
+        this.altitudeMode = altitudeMode;
+    }
+
+    /**
+     * Indicates the number of subsegments each segment is divided into when no view parameters are specified.
+     *
+     * @return the number of subsegments per segment.
+     */
+    public int getNumSubsegments()
+    {
+        return this.numSubsegments;
+    }
+
+    /**
+     * Specifies the number of subsegments each segment is divided into when no view parameters are specified. The
+     * default is 10.
+     *
+     * @param numSubsegments the number of subsegments per segment.
+     *
+     * @throws IllegalArgumentException if the number of subsegments is less than 1.
+     */
+    public void setNumSubsegments(int numSubsegments)
+    {
+        if (numSubsegments < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "numSubsegments < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.numSubsegments = numSubsegments;
+    }
+
+    /**
+     * Indicates the largest distance, in pixels, allowed between a tessellated segment and the curve it approximates.
+     *
+     * @return the maximum screen error, in pixels.
+     */
+    public double getMaxScreenError()
+    {
+        return this.maxScreenError;
+    }
+
+    /**
+     * Specifies the largest distance, in pixels, allowed between a tessellated segment and the curve it approximates.
+     * Used only when view parameters are specified. The default is 1 pixel.
+     *
+     * @param maxScreenError the maximum screen error, in pixels.
+     *
+     * @throws IllegalArgumentException if the screen error is not greater than zero.
+     */
+    public void setMaxScreenError(double maxScreenError)
+    {
+        if (!(maxScreenError > 0))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "maxScreenError <= 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.maxScreenError = maxScreenError;
+    }
+
+    /**
+     * Indicates the longest tessellated segment, in pixels, of a path that follows the terrain.
+     *
+     * @return the terrain conformance, in pixels.
+     */
+    public double getTerrainConformance()
+    {
+        return this.terrainConformance;
+    }
+
+    /**
+     * Specifies the longest tessellated segment, in pixels, of a path that follows the terrain. Used only when view
+     * parameters are specified and the altitude mode is not {@link WorldWind#ABSOLUTE}. The default is 10 pixels, the
+     * same as {@link Path}.
+     *
+     * @param terrainConformance the terrain conformance, in pixels.
+     *
+     * @throws IllegalArgumentException if the terrain conformance is not greater than zero.
+     */
+    public void setTerrainConformance(double terrainConformance)
+    {
+        if (!(terrainConformance > 0))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "terrainConformance <= 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.terrainConformance = terrainConformance;
+    }
+
+    /**
+     * Indicates the number of times a segment may be halved during adaptive subdivision.
+     *
+     * @return the maximum subdivision depth.
+     */
+    public int getMaxSubdivisionDepth()
+    {
+        return this.maxSubdivisionDepth;
+    }
+
+    /**
+     * Specifies the number of times a segment may be halved during adaptive subdivision, which limits each segment to
+     * 2<sup>depth</sup> subsegments. The default is 10.
+     *
+     * @param maxSubdivisionDepth the maximum subdivision depth.
+     *
+     * @throws IllegalArgumentException if the depth is negative or greater than 20.
+     */
+    public void setMaxSubdivisionDepth(int maxSubdivisionDepth)
+    {
+        if (maxSubdivisionDepth < 0 || maxSubdivisionDepth > 20)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", maxSubdivisionDepth);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.maxSubdivisionDepth = maxSubdivisionDepth;
+    }
+
+    /**
+     * Specifies the view used to measure screen-space error, which enables adaptive subdivision.
+     *
+     * @param view the view to measure screen-space error with.
+     *
+     * @throws IllegalArgumentException if the view is null.
+     */
+    public void setViewParameters(View view)
+    {
+        if (view == null)
+        {
+            String message = Logging.getMessage("nullValue.ViewIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.setViewParameters(view.getEyePoint(), view.computePixelSizeAtDistance(1));
+    }
+
+    /**
+     * Specifies the eye point and pixel size used to measure screen-space error, which enables adaptive subdivision.
+     * The size of a pixel at a given distance from the eye is assumed to be the distance multiplied by the pixel size
+     * scale, as for a perspective view.
+     *
+     * @param eyePoint       the eye point, in model coordinates.
+     * @param pixelSizeScale the size, in meters, of a pixel one meter from the eye.
+     *
+     * @throws IllegalArgumentException if the eye point is null or the pixel size scale is not greater than zero.
+     */
+    public void setViewParameters(Vec4 eyePoint, double pixelSizeScale)
+    {
+        if (eyePoint == null)
+        {
+            String message = Logging.getMessage("nullValue.PointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!(pixelSizeScale > 0))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "pixelSizeScale <= 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.eyeX = eyePoint.x;
+        this.eyeY = eyePoint.y;
+        this.eyeZ = eyePoint.z;
+        this.pixelSizeScale = pixelSizeScale;
+    }
+
+    /** Removes the view parameters, so that segments are divided into a fixed number of subsegments. */
+    public void clearViewParameters()
+    {
+        this.pixelSizeScale = 0;
+    }
+
+    /**
+     * Indicates whether view parameters are specified and segments are subdivided adaptively.
+     *
+     * @return true if subdivision is adaptive, false if it is uniform.
+     */
+    public boolean isAdaptive()
+    {
+        return this.pixelSizeScale > 0;
+    }
+
+    /**
+     * Specifies the point subtracted from every computed vertex. Vertices relative to a nearby reference point keep
+     * their precision when converted to single precision floats. The default is the origin.
+     *
+     * @param referencePoint the reference point, in model coordinates.
+     *
+     * @throws IllegalArgumentException if the reference point is null.
+     */
+    public void setReferencePoint(Vec4 referencePoint)
+    {
+        if (referencePoint == null)
+        {
+            String message = Logging.getMessage("nullValue.PointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.referenceX = referencePoint.x;
+        this.referenceY = referencePoint.y;
+        this.referenceZ = referencePoint.z;
+    }
+
+    /**
+     * Returns the number of vertices produced by the most recent call to {@link #tessellate}.
+     *
+     * @return the vertex count.
+     */
+    public int getVertexCount()
+    {
+        return this.vertexCount;
+    }
+
+    /**
+     * Returns the vertices produced by the most recent call to {@link #tessellate}, as x, y, z triples relative to the
+     * reference point. Only the first <code>3 * getVertexCount()</code> values are meaningful. The array is reused by
+     * the next call.
+     *
+     * @return the tessellated model-coordinate vertices.
+     */
+    public double[] getPoints()
+    {
+        return this.points;
+    }
+
+    /**
+     * Returns the geographic positions of the vertices produced by the most recent call to {@link #tessellate}, as
+     * latitude and longitude in degrees and elevation in meters, before vertical exaggeration. Elevations include the
+     * terrain height for terrain following altitude modes. Only the first <code>3 * getVertexCount()</code> values are
+     * meaningful. The array is reused by the next call.
+     *
+     * @return the tessellated positions.
+     */
+    public double[] getPositions()
+    {
+        return this.positions;
+    }
+
+    /**
+     * Returns the index of the vertex corresponding to one of the positions passed to the most recent call to {@link
+     * #tessellate}. A position equal to its predecessor shares the predecessor's vertex.
+     *
+     * @param position the position's index within the tessellated positions.
+     *
+     * @return the index of the position's vertex.
+     */
+    public int getVertexIndex(int position)
+    {
+        return this.positionVertexIndices[position];
+    }
+
+    /**
+     * Tessellates a path.
+     *
+     * @param globe                the globe to compute model coordinates and terrain elevations on.
+     * @param verticalExaggeration the vertical exaggeration to apply to elevations.
+     * @param coordinates          the path's positions, as latitude and longitude in degrees and altitude in meters.
+     * @param offset               the index in the coordinate array of the first position's latitude.
+     * @param numPositions         the number of positions to tessellate.
+     *
+     * @return the number of vertices produced.
+     *
+     * @throws IllegalArgumentException if the globe or coordinates are null, or the positions do not lie within the
+     *                                  coordinate array.
+     */
+    public int tessellate(Globe globe, double verticalExaggeration, double[] coordinates, int offset,
+        int numPositions)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (coordinates == null)
+        {
+            String message = Logging.getMessage("nullValue.CoordinatesAreNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (offset < 0 || numPositions < 0 || offset + 3L * numPositions > coordinates.length)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange",
+                "offset=" + offset + ", numPositions=" + numPositions);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.globe = globe;
+        this.ellipsoidalGlobe = globe instanceof EllipsoidalGlobe ? (EllipsoidalGlobe) globe : null;
+        this.verticalExaggeration = verticalExaggeration;
+        this.followTerrain = this.altitudeMode != WorldWind.ABSOLUTE;
+        this.interpolatePathType = !AVKey.LINEAR.equals(this.pathType) || this.followTerrain;
+        this.vertexCount = 0;
+
+        if (this.positionVertexIndices.length < numPositions)
+            this.positionVertexIndices = new int[Math.max(numPositions, 2 * this.positionVertexIndices.length)];
+
+        try
+        {
+            if (numPositions > 0)
+            {
+                this.appendVertex(coordinates[offset], coordinates[offset + 1], coordinates[offset + 2]);
+                this.positionVertexIndices[0] = 0;
+            }
+
+            for (int i = 1; i < numPositions; i++)
+            {
+                int a = offset + 3 * (i - 1);
+                int b = a + 3;
+                if (coordinates[a] != coordinates[b] || coordinates[a + 1] != coordinates[b + 1]
+                    || coordinates[a + 2] != coordinates[b + 2])
+                {
+                    this.tessellateSegment(coordinates[a], coordinates[a + 1], coordinates[a + 2], coordinates[b],
+                        coordinates[b + 1], coordinates[b + 2]);
+                }
+
+                this.positionVertexIndices[i] = this.vertexCount - 1;
+            }
+        }
+        finally
+        {
+            this.globe = null;
+            this.ellipsoidalGlobe = null;
+        }
+
+        return this.vertexCount;
+    }
+
+    /**
+     * Appends the interior vertices and the end vertex of one segment. The segment's first vertex is the most recently
+     * appended vertex.
+     *
+     * @param latA the first position's latitude, in degrees.
+     * @param lonA the first position's longitude, in degrees.
+     * @param altA the first position's altitude, in meters.
+     * @param latB the second position's latitude, in degrees.
+     * @param lonB the second position's longitude, in degrees.
+     * @param altB the second position's altitude, in meters.
+     */
+    protected void tessellateSegment(double latA, double lonA, double altA, double latB, double lonB, double altB)
+    {
+        if (!this.interpolatePathType)
+        {
+            this.appendVertex(latB, lonB, altB);
+            return;
+        }
+
+        if (!this.isAdaptive())
+        {
+            for (int k = 1; k < this.numSubsegments; k++)
+            {
+                double amount = (double) k / this.numSubsegments;
+                this.interpolate(amount, latA, lonA, latB, lonB, this.location);
+                this.appendVertex(this.location[0], this.location[1], altA + amount * (altB - altA));
+            }
+
+            this.appendVertex(latB, lonB, altB);
+            return;
+        }
+
+        int i = 3 * (this.vertexCount - 1);
+        double xA = this.points[i];
+        double yA = this.points[i + 1];
+        double zA = this.points[i + 2];
+
+        this.computeVertex(latB, lonB, altB, this.vertex);
+        double xB = this.vertex[0];
+        double yB = this.vertex[1];
+        double zB = this.vertex[2];
+        double heightB = this.vertex[3];
+
+        this.subdivide(latA, lonA, altA, latB, lonB, altB, 0, xA, yA, zA, 1, xB, yB, zB, 1);
+        this.storeVertex(latB, lonB, heightB, xB, yB, zB);
+    }
+
+    /**
+     * Appends the vertices between two points on a segment, halving the interval between them until the curve is
+     * within the maximum screen error of its chord. Recursion depth is limited by the maximum subdivision depth, and no
+     * heap memory is allocated.
+     *
+     * @param latA  the segment's first latitude, in degrees.
+     * @param lonA  the segment's first longitude, in degrees.
+     * @param altA  the segment's first altitude, in meters.
+     * @param latB  the segment's second latitude, in degrees.
+     * @param lonB  the segment's second longitude, in degrees.
+     * @param altB  the segment's second altitude, in meters.
+     * @param t0    the interval's start, as a fraction of the segment.
+     * @param x0    the x coordinate of the vertex at the interval's start.
+     * @param y0    the y coordinate of the vertex at the interval's start.
+     * @param z0    the z coordinate of the vertex at the interval's start.
+     * @param t1    the interval's end, as a fraction of the segment.
+     * @param x1    the x coordinate of the vertex at the interval's end.
+     * @param y1    the y coordinate of the vertex at the interval's end.
+     * @param z1    the z coordinate of the vertex at the interval's end.
+     * @param depth the interval's subdivision depth, starting at 1 for the whole segment.
+     */
+    protected void subdivide(double latA, double lonA, double altA, double latB, double lonB, double altB, double t0,
+        double x0, double y0, double z0, double t1, double x1, double y1, double z1, int depth)
+    {
+        if (depth > this.maxSubdivisionDepth)
+            return;
+
+        double t = 0.5 * (t0 + t1);
+        this.interpolate(t, latA, lonA, latB, lonB, this.location);
+        double lat = this.location[0];
+        double lon = this.location[1];
+        this.computeVertex(lat, lon, altA + t * (altB - altA), this.vertex);
+        double x = this.vertex[0];
+        double y = this.vertex[1];
+        double z = this.vertex[2];
+        double height = this.vertex[3];
+
+        double pixelSize = this.pixelSizeScale * distance(x, y, z, this.eyeX - this.referenceX,
+            this.eyeY - this.referenceY, this.eyeZ - this.referenceZ);
+        double error = distance(x, y, z, 0.5 * (x0 + x1), 0.5 * (y0 + y1), 0.5 * (z0 + z1));
+
+        boolean split = error > this.maxScreenError * pixelSize;
+        if (!split && this.followTerrain)
+            split = distance(x0, y0, z0, x1, y1, z1) > this.terrainConformance * pixelSize;
+
+        if (!split)
+            return;
+
+        this.subdivide(latA, lonA, altA, latB, lonB, altB, t0, x0, y0, z0, t, x, y, z, depth + 1);
+        this.storeVertex(lat, lon, height, x, y, z);
+        this.subdivide(latA, lonA, altA, latB, lonB, altB, t, x, y, z, t1, x1, y1, z1, depth + 1);
+    }
+
+    /**
+     * Computes a location between two locations following the current path type.
+     *
+     * @param amount the interpolation factor, in the range [0, 1].
+     * @param latA   the first latitude, in degrees.
+     * @param lonA   the first longitude, in degrees.
+     * @param latB   the second latitude, in degrees.
+     * @param lonB   the second longitude, in degrees.
+     * @param result an array in which to return the latitude and longitude, in degrees.
+     */
+    protected void interpolate(double amount, double latA, double lonA, double latB, double lonB, double[] result)
+    {
+        if (AVKey.RHUMB_LINE.equals(this.pathType) || AVKey.LOXODROME.equals(this.pathType))
+        {
+            // A rhumb line is a straight line in the Mercator projection.
+            double yA = mercatorY(Math.max(-MAX_RHUMB_LATITUDE, Math.min(MAX_RHUMB_LATITUDE, latA)));
+            double yB = mercatorY(Math.max(-MAX_RHUMB_LATITUDE, Math.min(MAX_RHUMB_LATITUDE, latB)));
+            double y = yA + amount * (yB - yA);
+            result[0] = Math.toDegrees(2 * Math.atan(Math.exp(y)) - Math.PI / 2);
+            result[1] = normalizeLongitude(lonA + amount * longitudeDelta(lonA, lonB));
+        }
+        else if (AVKey.LINEAR.equals(this.pathType))
+        {
+            result[0] = latA + amount * (latB - latA);
+            result[1] = normalizeLongitude(lonA + amount * longitudeDelta(lonA, lonB));
+        }
+        else // Great circle
+        {
+            double phiA = Math.toRadians(latA);
+            double lamA = Math.toRadians(lonA);
+            double phiB = Math.toRadians(latB);
+            double lamB = Math.toRadians(lonB);
+            double xA = Math.cos(phiA) * Math.cos(lamA);
+            double yA = Math.cos(phiA) * Math.sin(lamA);
+            double zA = Math.sin(phiA);
+            double xB = Math.cos(phiB) * Math.cos(lamB);
+            double yB = Math.cos(phiB) * Math.sin(lamB);
+            double zB = Math.sin(phiB);
+
+            double cx = yA * zB - zA * yB;
+            double cy = zA * xB - xA * zB;
+            double cz = xA * yB - yA * xB;
+            double angle = Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), xA * xB + yA * yB + zA * zB);
+
+            double wA, wB;
+            if (angle < 1e-12)
+            {
+                wA = 1 - amount;
+                wB = amount;
+            }
+            else if (Math.PI - angle < 1e-9)
+            {
+                // The endpoints are antipodal, so the great circle between them is not unique and spherical linear
+                // interpolation would divide by zero. Travel from the first endpoint along the azimuth toward the
+                // second, as LatLon.interpolateGreatCircle does.
+                double dLam = lamB - lamA;
+                double azimuth;
+                if (lonA == lonB)
+                {
+                    azimuth = latA > latB ? Math.PI : 0;
+                }
+                else
+                {
+                    azimuth = Math.atan2(Math.cos(phiB) * Math.sin(dLam),
+                        Math.cos(phiA) * Math.sin(phiB) - Math.sin(phiA) * Math.cos(phiB) * Math.cos(dLam));
+                    if (Double.isNaN(azimuth))
+                        azimuth = 0;
+                }
+
+                double distance = amount * angle;
+                double phi = Math.asin(Math.sin(phiA) * Math.cos(distance)
+                    + Math.cos(phiA) * Math.sin(distance) * Math.cos(azimuth));
+                double lam = lamA + Math.atan2(Math.sin(distance) * Math.sin(azimuth),
+                    Math.cos(phiA) * Math.cos(distance) - Math.sin(phiA) * Math.sin(distance) * Math.cos(azimuth));
+                result[0] = Math.toDegrees(phi);
+                result[1] = normalizeLongitude(Math.toDegrees(lam));
+                return;
+            }
+            else
+            {
+                double sin = Math.sin(angle);
+                wA = Math.sin((1 - amount) * angle) / sin;
+                wB = Math.sin(amount * angle) / sin;
+            }
+
+            double x = wA * xA + wB * xB;
+            double y = wA * yA + wB * yB;
+            double z = wA * zA + wB * zB;
+            result[0] = Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)));
+            result[1] = Math.toDegrees(Math.atan2(y, x));
+        }
+    }
+
+    /**
+     * Computes the vertex for a position and appends it to the output.
+     *
+     * @param latitude  the position's latitude, in degrees.
+     * @param longitude the position's longitude, in degrees.
+     * @param altitude  the position's altitude, in meters, interpreted according to the altitude mode.
+     */
+    protected void appendVertex(double latitude, double longitude, double altitude)
+    {
+        this.computeVertex(latitude, longitude, altitude, this.vertex);
+        this.storeVertex(latitude, longitude, this.vertex[3], this.vertex[0], this.vertex[1], this.vertex[2]);
+    }
+
+    /**
+     * Computes the model-coordinate vertex, relative to the reference point, for a position.
+     *
+     * @param latitude  the position's latitude, in degrees.
+     * @param longitude the position's longitude, in degrees.
+     * @param altitude  the position's altitude, in meters, interpreted according to the altitude mode.
+     * @param result    a four element array in which to return the vertex's x, y and z coordinates followed by its
+     *                  elevation before vertical exaggeration.
+     */
+    protected void computeVertex(double latitude, double longitude, double altitude, double[] result)
+    {
+        double height;
+        if (this.altitudeMode == WorldWind.CLAMP_TO_GROUND)
+            height = this.getElevation(latitude, longitude);
+        else if (this.altitudeMode == WorldWind.RELATIVE_TO_GROUND)
+            height = this.getElevation(latitude, longitude) + altitude;
+        else
+            height = altitude;
+
+        if (this.ellipsoidalGlobe != null)
+        {
+            this.ellipsoidalGlobe.computePointFromPosition(latitude, longitude,
+                height * this.verticalExaggeration, result, 0);
+        }
+        else
+        {
+            Vec4 pt = this.globe.computePointFromPosition(Angle.fromDegrees(latitude), Angle.fromDegrees(longitude),
+                height * this.verticalExaggeration);
+            result[0] = pt.x;
+            result[1] = pt.y;
+            result[2] = pt.z;
+        }
+
+        result[0] -= this.referenceX;
+        result[1] -= this.referenceY;
+        result[2] -= this.referenceZ;
+        result[3] = height;
+    }
+
+    /**
+     * Returns the terrain elevation at a location. Called only for terrain following altitude modes.
+     *
+     * @param latitude  the location's latitude, in degrees.
+     * @param longitude the location's longitude, in degrees.
+     *
+     * @return the elevation, in meters, before vertical exaggeration.
+     */
+    protected double getElevation(double latitude, double longitude)
+    {
+        // Allocates two Angles. See the class documentation.
+        return this.globe.getElevation(Angle.fromDegrees(latitude), Angle.fromDegrees(longitude));
+    }
+
+    protected void storeVertex(double latitude, double longitude, double height, double x, double y, double z)
+    {
+        int i = 3 * this.vertexCount;
+        if (i + 3 > this.points.length)
+        {
+            this.points = Arrays.copyOf(this.points, 2 * this.points.length);
+            this.positions = Arrays.copyOf(this.positions, 2 * this.positions.length);
+        }
+
+        this.points[i] = x;
+        this.points[i + 1] = y;
+        this.points[i + 2] = z;
+        this.positions[i] = latitude;
+        this.positions[i + 1] = longitude;
+        this.positions[i + 2] = height;
+        this.vertexCount++;
+    }
+
+    protected static double distance(double xA, double yA, double zA, double xB, double yB, double zB)
+    {
+        double dx = xB - xA;
+        double dy = yB - yA;
+        double dz = zB - zA;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    protected static double mercatorY(double latitude)
+    {
+        return Math.log(Math.tan(Math.PI / 4 + Math.toRadians(latitude) / 2));
+    }
+
+    protected static double longitudeDelta(double lonA, double lonB)
+    {
+        double delta = lonB - lonA;
+        if (delta > 180)
+            delta -= 360;
+        else if (delta < -180)
+            delta += 360;
+
+        return delta;
+    }
+
+    protected static double normalizeLongitude(double longitude)
+    {
+        if (longitude > 180)
+            return longitude - 360;
+        else if (longitude < -180)
+            return longitude + 360;
+
+        return longitude;
+    }
+}
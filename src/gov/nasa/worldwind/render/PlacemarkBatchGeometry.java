@@ -0,0 +1,955 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * PlacemarkBatchGeometry holds the positions of many point placemarks in columnar primitive arrays and performs the CPU
+ * stages of drawing them, without an OpenGL context. It is the geometry stage of {@link PointPlacemarkBatch}, and may
+ * be used on its own to prepare or measure placemark geometry.
+ * <p>
+ * Each placemark is identified by an integer ID returned when it is added, and has a position, an attributes index and
+ * an optional label. The attributes index refers to a table of attributes kept by the caller; placemarks that share
+ * an index are drawn together. Each frame proceeds in three stages: {@link #update(Globe, double)} computes the model
+ * coordinates of placemarks that have changed and maintains a grid index of the placemarks, {@link #cull(Frustum)}
+ * tests the grid cells against the view frustum and then only the placemarks in cells the frustum intersects, and
+ * {@link #project(Matrix, Matrix, Rectangle)} computes the screen points of the visible placemarks in bulk, ordered by
+ * attributes index so that each group can be drawn with one texture binding.
+ * <p>
+ * Elevations for {@link WorldWind#CLAMP_TO_GROUND} and {@link WorldWind#RELATIVE_TO_GROUND} are taken from the globe's
+ * elevation model rather than from the current terrain geometry.
+ * <p>
+ * PlacemarkBatchGeometry is not thread safe.
+ */
+public class PlacemarkBatchGeometry
+{
+    /** The default size, in degrees, of the cells of the grid index. */
+    protected static final double DEFAULT_CELL_SIZE = 2;
+
+    protected int altitudeMode = WorldWind.CLAMP_TO_GROUND;
+    protected double cellSize = DEFAULT_CELL_SIZE;
+    protected int numRows;
+    protected int numColumns;
+
+    // Per-placemark state, indexed by placemark ID. A negative attributes index marks an unused ID.
+    protected int numIds;
+    protected int numPlacemarks;
+    protected double[] coordinates = new double[48];
+    protected double[] points = new double[48];
+    protected int[] attributeIndices = new int[16];
+    protected String[] labels = new String[16];
+    protected boolean[] dirty = new boolean[16];
+    protected int[] freeIds = new int[16];
+    protected int numFreeIds;
+    protected int numDirty;
+    protected int maxAttributeIndex;
+
+    protected boolean layoutChanged = true;
+    protected boolean geometryChanged = true;
+    protected Object globeStateKey;
+    protected double verticalExaggeration;
+
+    // The grid index. Only occupied cells are stored. The IDs of the placemarks in occupied cell k are
+    // cellIds[cellStarts[k]] through cellIds[cellStarts[k + 1] - 1], and the cell's model coordinate bounding box is
+    // cellBounds[6k] through cellBounds[6k + 5], as minimum x, y, z followed by maximum x, y, z.
+    protected int numOccupiedCells;
+    protected int[] occupiedCells = new int[16];
+    protected int[] cellStarts = new int[17];
+    protected int[] cellIds = new int[16];
+    protected double[] cellBounds = new double[96];
+
+    // Per-frame output.
+    protected final double[] planes = new double[24];
+    protected int visibleCount;
+    protected int[] visibleIds = new int[16];
+    protected int[] groupedIds = new int[16];
+    protected float[] screenPoints = new float[48];
+    protected int numGroups;
+    protected int[] groupStarts = new int[2];
+    protected int[] groupAttributeIndices = new int[1];
+    protected int[] attributeCounts = new int[1];
+
+    /** Creates an empty geometry with placemarks clamped to the ground and a 2 degree grid index. */
+    public PlacemarkBatchGeometry()
+    {
+        this.updateGridDimensions();
+    }
+
+    /**
+     * Returns the number of placemarks.
+     *
+     * @return the number of placemarks.
+     */
+    public int getPlacemarkCount()
+    {
+        return this.numPlacemarks;
+    }
+
+    /**
+     * Returns the number of placemarks that have changed since the last update.
+     *
+     * @return the number of dirty placemarks.
+     */
+    public int getDirtyPlacemarkCount()
+    {
+        return this.geometryChanged ? this.numPlacemarks : this.numDirty;
+    }
+
+    /**
+     * Indicates the altitude mode applied to every placemark.
+     *
+     * @return the altitude mode.
+     *
+     * @see #setAltitudeMode(int)
+     */
+    public int getAltitudeMode()
+    {
+        return this.altitudeMode;
+    }
+
+    /**
+     * Specifies the altitude mode applied to every placemark. Recognized values are {@link WorldWind#ABSOLUTE}, {@link
+     * WorldWind#RELATIVE_TO_GROUND} and {@link WorldWind#CLAMP_TO_GROUND}. The default is clamp to ground, the same as
+     * {@link PointPlacemark}.
+     *
+     * @param altitudeMode the altitude mode.
+     */
+    public void setAltitudeMode(int altitudeMode)
+    {
+        this.altitudeMode = altitudeMode;
+        this.geometryChanged = true;
+    }
+
+    /**
+     * Indicates the size of the cells of the grid index.
+     *
+     * @return the cell size, in degrees.
+     */
+    public double getCellSize()
+    {
+        return this.cellSize;
+    }
+
+    /**
+     * Specifies the size of the cells of the grid index. Smaller cells cull more precisely but cost more to test. The
+     * default is 2 degrees.
+     *
+     * @param cellSize the cell size, in degrees.
+     *
+     * @throws IllegalArgumentException if the cell size is not in the range (0, 180].
+     */
+    public void setCellSize(double cellSize)
+    {
+        if (!(cellSize > 0) || cellSize > 180)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize=" + cellSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+        this.updateGridDimensions();
+        this.layoutChanged = true;
+    }
+
+    /**
+     * Adds a placemark.
+     *
+     * @param position        the placemark's position.
+     * @param attributesIndex the index of the placemark's attributes.
+     * @param label           the placemark's label. May be null.
+     *
+     * @return the new placemark's ID.
+     *
+     * @throws IllegalArgumentException if the position is null or the attributes index is negative.
+     */
+    public int addPlacemark(Position position, int attributesIndex, String label)
+    {
+        if (position == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.addPlacemark(position.getLatitude().degrees, position.getLongitude().degrees,
+            position.getAltitude(), attributesIndex, label);
+    }
+
+    /**
+     * Adds a placemark.
+     *
+     * @param latitude        the placemark's latitude, in degrees.
+     * @param longitude       the placemark's longitude, in degrees.
+     * @param altitude        the placemark's altitude, in meters.
+     * @param attributesIndex the index of the placemark's attributes.
+     * @param label           the placemark's label. May be null.
+     *
+     * @return the new placemark's ID.
+     *
+     * @throws IllegalArgumentException if the attributes index is negative.
+     */
+    public int addPlacemark(double latitude, double longitude, double altitude, int attributesIndex, String label)
+    {
+        checkAttributesIndex(attributesIndex);
+
+        int id;
+        if (this.numFreeIds > 0)
+        {
+            id = this.freeIds[--this.numFreeIds];
+        }
+        else
+        {
+            id = this.numIds++;
+            this.ensureIdCapacity(this.numIds);
+        }
+
+        this.numPlacemarks++;
+        this.coordinates[3 * id] = latitude;
+        this.coordinates[3 * id + 1] = longitude;
+        this.coordinates[3 * id + 2] = altitude;
+        this.attributeIndices[id] = attributesIndex;
+        this.maxAttributeIndex = Math.max(this.maxAttributeIndex, attributesIndex);
+        this.labels[id] = label;
+        this.markDirty(id);
+        this.layoutChanged = true;
+
+        return id;
+    }
+
+    /**
+     * Removes a placemark. The placemark's ID may be reused by a placemark added later.
+     *
+     * @param id the placemark's ID.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public void removePlacemark(int id)
+    {
+        this.checkId(id);
+
+        if (this.dirty[id])
+        {
+            this.dirty[id] = false;
+            this.numDirty--;
+        }
+
+        this.attributeIndices[id] = -1;
+        this.labels[id] = null;
+
+        if (this.numFreeIds == this.freeIds.length)
+            this.freeIds = Arrays.copyOf(this.freeIds, 2 * this.freeIds.length);
+        this.freeIds[this.numFreeIds++] = id;
+
+        this.numPlacemarks--;
+        this.layoutChanged = true;
+    }
+
+    /** Removes all placemarks. */
+    public void clear()
+    {
+        // IDs are reused from 0, so reset their dirty flags and mark them unused before forgetting them.
+        Arrays.fill(this.dirty, 0, this.numIds, false);
+        Arrays.fill(this.attributeIndices, 0, this.numIds, -1);
+        Arrays.fill(this.labels, null);
+        this.numIds = 0;
+        this.numPlacemarks = 0;
+        this.numFreeIds = 0;
+        this.numDirty = 0;
+        this.maxAttributeIndex = 0;
+        this.visibleCount = 0;
+        this.numGroups = 0;
+        this.layoutChanged = true;
+    }
+
+    /**
+     * Indicates whether a placemark with the specified ID exists.
+     *
+     * @param id the ID to test.
+     *
+     * @return true if the ID identifies a placemark, otherwise false.
+     */
+    public boolean containsPlacemark(int id)
+    {
+        return id >= 0 && id < this.numIds && this.attributeIndices[id] >= 0;
+    }
+
+    /**
+     * Returns the position of a placemark.
+     *
+     * @param id the placemark's ID.
+     *
+     * @return the placemark's position.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public Position getPosition(int id)
+    {
+        this.checkId(id);
+
+        return Position.fromDegrees(this.coordinates[3 * id], this.coordinates[3 * id + 1],
+            this.coordinates[3 * id + 2]);
+    }
+
+    /**
+     * Specifies the position of a placemark.
+     *
+     * @param id        the placemark's ID.
+     * @param latitude  the placemark's latitude, in degrees.
+     * @param longitude the placemark's longitude, in degrees.
+     * @param altitude  the placemark's altitude, in meters.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public void setPosition(int id, double latitude, double longitude, double altitude)
+    {
+        this.checkId(id);
+
+        if (this.cellFor(latitude, longitude) != this.cellFor(this.coordinates[3 * id], this.coordinates[3 * id + 1]))
+            this.layoutChanged = true;
+
+        this.coordinates[3 * id] = latitude;
+        this.coordinates[3 * id + 1] = longitude;
+        this.coordinates[3 * id + 2] = altitude;
+        this.markDirty(id);
+    }
+
+    /**
+     * Returns the attributes index of a placemark.
+     *
+     * @param id the placemark's ID.
+     *
+     * @return the placemark's attributes index.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public int getAttributesIndex(int id)
+    {
+        this.checkId(id);
+
+        return this.attributeIndices[id];
+    }
+
+    /**
+     * Specifies the attributes index of a placemark. Changing a placemark's attributes does not cause its geometry to
+     * be recomputed.
+     *
+     * @param id              the placemark's ID.
+     * @param attributesIndex the placemark's new attributes index.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID or the attributes index is negative.
+     */
+    public void setAttributesIndex(int id, int attributesIndex)
+    {
+        this.checkId(id);
+        checkAttributesIndex(attributesIndex);
+
+        this.attributeIndices[id] = attributesIndex;
+        this.maxAttributeIndex = Math.max(this.maxAttributeIndex, attributesIndex);
+    }
+
+    /**
+     * Returns the label of a placemark.
+     *
+     * @param id the placemark's ID.
+     *
+     * @return the placemark's label, or null if it has none.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public String getLabel(int id)
+    {
+        this.checkId(id);
+
+        return this.labels[id];
+    }
+
+    /**
+     * Specifies the label of a placemark.
+     *
+     * @param id    the placemark's ID.
+     * @param label the placemark's label. May be null.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public void setLabel(int id, String label)
+    {
+        this.checkId(id);
+
+        this.labels[id] = label;
+    }
+
+    /**
+     * Returns the model coordinate point of a placemark, as computed by the most recent update.
+     *
+     * @param id     the placemark's ID.
+     * @param result a three element array in which to return the point's x, y and z coordinates.
+     *
+     * @throws IllegalArgumentException if no placemark has the specified ID.
+     */
+    public void getPoint(int id, double[] result)
+    {
+        this.checkId(id);
+
+        System.arraycopy(this.points, 3 * id, result, 0, 3);
+    }
+
+    /**
+     * Computes the model coordinates of placemarks that have changed, or of every placemark when the globe, vertical
+     * exaggeration or altitude mode has changed, and rebuilds the grid index when placemarks have been added, removed
+     * or moved between cells.
+     *
+     * @param globe                the globe to compute model coordinates on.
+     * @param verticalExaggeration the vertical exaggeration to apply to altitudes and elevations.
+     *
+     * @return true if any placemark's model coordinates changed, otherwise false.
+     *
+     * @throws IllegalArgumentException if the globe is null.
+     */
+    public boolean update(Globe globe, double verticalExaggeration)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Object stateKey = globe.getGlobeStateKey();
+        if (this.geometryChanged || !stateKey.equals(this.globeStateKey)
+            || verticalExaggeration != this.verticalExaggeration)
+        {
+            this.globeStateKey = stateKey;
+            this.verticalExaggeration = verticalExaggeration;
+            this.geometryChanged = false;
+            this.markAllDirty();
+        }
+
+        if (this.numDirty == 0 && !this.layoutChanged)
+            return false;
+
+        boolean pointsChanged = this.numDirty > 0;
+        EllipsoidalGlobe ellipsoid = globe instanceof EllipsoidalGlobe ? (EllipsoidalGlobe) globe : null;
+        for (int id = 0; id < this.numIds && this.numDirty > 0; id++)
+        {
+            if (this.dirty[id])
+            {
+                this.computePoint(globe, ellipsoid, id);
+                this.dirty[id] = false;
+                this.numDirty--;
+            }
+        }
+
+        if (this.layoutChanged)
+            this.buildIndex();
+
+        this.computeCellBounds();
+        this.layoutChanged = false;
+
+        return pointsChanged;
+    }
+
+    /**
+     * Determines the placemarks whose points are within a frustum. Grid cells entirely outside the frustum are
+     * skipped, the placemarks of cells entirely inside the frustum are accepted without being tested, and only the
+     * placemarks of the remaining cells are tested individually.
+     *
+     * @param frustum the frustum, in model coordinates.
+     *
+     * @return the number of visible placemarks.
+     *
+     * @throws IllegalArgumentException if the frustum is null.
+     */
+    public int cull(Frustum frustum)
+    {
+        if (frustum == null)
+        {
+            String message = Logging.getMessage("nullValue.FrustumIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Plane[] frustumPlanes = frustum.getAllPlanes();
+        for (int i = 0; i < 6; i++)
+        {
+            Vec4 v = frustumPlanes[i].getVector();
+            this.planes[4 * i] = v.x;
+            this.planes[4 * i + 1] = v.y;
+            this.planes[4 * i + 2] = v.z;
+            this.planes[4 * i + 3] = v.w;
+        }
+
+        if (this.visibleIds.length < this.numPlacemarks)
+            this.visibleIds = new int[Math.max(this.numPlacemarks, this.visibleIds.length * 3 / 2)];
+
+        int n = 0;
+        for (int k = 0; k < this.numOccupiedCells; k++)
+        {
+            int containment = this.testCell(k);
+            if (containment < 0)
+                continue;
+
+            int start = this.cellStarts[k];
+            int end = this.cellStarts[k + 1];
+            if (containment > 0)
+            {
+                System.arraycopy(this.cellIds, start, this.visibleIds, n, end - start);
+                n += end - start;
+                continue;
+            }
+
+            for (int i = start; i < end; i++)
+            {
+                int id = this.cellIds[i];
+                if (this.containsPoint(3 * id))
+                    this.visibleIds[n++] = id;
+            }
+        }
+
+        this.visibleCount = n;
+        this.numGroups = 0;
+
+        return n;
+    }
+
+    /**
+     * Computes the screen points of the placemarks found visible by the most recent call to {@link #cull(Frustum)},
+     * and orders them by attributes index. Screen points have a lower left origin, and their z coordinate is the
+     * window depth in the range [0, 1].
+     *
+     * @param modelview  the modelview matrix.
+     * @param projection the projection matrix.
+     * @param viewport   the viewport.
+     *
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public void project(Matrix modelview, Matrix projection, Rectangle viewport)
+    {
+        if (modelview == null || projection == null)
+        {
+            String message = Logging.getMessage("nullValue.MatrixIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (viewport == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.groupVisibleByAttributes();
+
+        Matrix m = projection.multiply(modelview);
+        double halfWidth = 0.5 * viewport.width;
+        double halfHeight = 0.5 * viewport.height;
+        double x0 = viewport.x + halfWidth;
+        double y0 = viewport.y + halfHeight;
+
+        if (this.screenPoints.length < 3 * this.visibleCount)
+            this.screenPoints = new float[Math.max(3 * this.visibleCount, this.screenPoints.length * 3 / 2)];
+
+        double[] p = this.points;
+        float[] out = this.screenPoints;
+        for (int i = 0; i < this.visibleCount; i++)
+        {
+            int j = 3 * this.groupedIds[i];
+            double x = p[j];
+            double y = p[j + 1];
+            double z = p[j + 2];
+
+            double cx = m.m11 * x + m.m12 * y + m.m13 * z + m.m14;
+            double cy = m.m21 * x + m.m22 * y + m.m23 * z + m.m24;
+            double cz = m.m31 * x + m.m32 * y + m.m33 * z + m.m34;
+            double cw = m.m41 * x + m.m42 * y + m.m43 * z + m.m44;
+            double w = cw != 0 ? 1 / cw : 0;
+
+            out[3 * i] = (float) (x0 + halfWidth * cx * w);
+            out[3 * i + 1] = (float) (y0 + halfHeight * cy * w);
+            out[3 * i + 2] = (float) (0.5 * (cz * w + 1));
+        }
+    }
+
+    /**
+     * Returns the number of placemarks found visible by the most recent call to {@link #cull(Frustum)}.
+     *
+     * @return the visible placemark count.
+     */
+    public int getVisibleCount()
+    {
+        return this.visibleCount;
+    }
+
+    /**
+     * Returns the IDs of the visible placemarks, ordered by attributes index after {@link #project(Matrix, Matrix,
+     * Rectangle)}. Only the first {@link #getVisibleCount()} values are meaningful. The array is reused.
+     *
+     * @return the visible placemark IDs.
+     */
+    public int[] getVisibleIds()
+    {
+        return this.numGroups > 0 ? this.groupedIds : this.visibleIds;
+    }
+
+    /**
+     * Returns the screen points computed by the most recent call to {@link #project(Matrix, Matrix, Rectangle)}, as x,
+     * y and depth values in the order of {@link #getVisibleIds()}. The array is reused.
+     *
+     * @return the screen points of the visible placemarks.
+     */
+    public float[] getScreenPoints()
+    {
+        return this.screenPoints;
+    }
+
+    /**
+     * Returns the number of attribute groups among the visible placemarks.
+     *
+     * @return the number of groups.
+     */
+    public int getGroupCount()
+    {
+        return this.numGroups;
+    }
+
+    /**
+     * Returns the index, within the visible placemarks, of the first placemark of a group. The placemarks of group
+     * <code>g</code> are those from <code>getGroupStart(g)</code> up to but not including <code>getGroupStart(g +
+     * 1)</code>.
+     *
+     * @param group the group, in the range [0, {@link #getGroupCount()}].
+     *
+     * @return the group's first visible placemark index.
+     */
+    public int getGroupStart(int group)
+    {
+        return this.groupStarts[group];
+    }
+
+    /**
+     * Returns the attributes index shared by the placemarks of a group.
+     *
+     * @param group the group, in the range [0, {@link #getGroupCount()}).
+     *
+     * @return the group's attributes index.
+     */
+    public int getGroupAttributesIndex(int group)
+    {
+        return this.groupAttributeIndices[group];
+    }
+
+    //**************************************************************//
+    //********************  Geometry  ******************************//
+    //**************************************************************//
+
+    protected void computePoint(Globe globe, EllipsoidalGlobe ellipsoid, int id)
+    {
+        int i = 3 * id;
+        double lat = this.coordinates[i];
+        double lon = this.coordinates[i + 1];
+
+        double height;
+        if (this.altitudeMode == WorldWind.CLAMP_TO_GROUND)
+            height = globe.getElevation(Angle.fromDegrees(lat), Angle.fromDegrees(lon));
+        else if (this.altitudeMode == WorldWind.RELATIVE_TO_GROUND)
+            height = globe.getElevation(Angle.fromDegrees(lat), Angle.fromDegrees(lon)) + this.coordinates[i + 2];
+        else
+            height = this.coordinates[i + 2];
+
+        if (ellipsoid != null)
+        {
+            ellipsoid.computePointFromPosition(lat, lon, height * this.verticalExaggeration, this.points, i);
+        }
+        else
+        {
+            Vec4 pt = globe.computePointFromPosition(Angle.fromDegrees(lat), Angle.fromDegrees(lon),
+                height * this.verticalExaggeration);
+            this.points[i] = pt.x;
+            this.points[i + 1] = pt.y;
+            this.points[i + 2] = pt.z;
+        }
+    }
+
+    /**
+     * Tests an occupied grid cell's bounding box against the current frustum planes.
+     *
+     * @param k the occupied cell's index.
+     *
+     * @return -1 if the box is outside the frustum, 1 if it is entirely inside, and 0 if it intersects the frustum's
+     *         boundary.
+     */
+    protected int testCell(int k)
+    {
+        double[] b = this.cellBounds;
+        int j = 6 * k;
+        boolean inside = true;
+
+        for (int i = 0; i < 24; i += 4)
+        {
+            double nx = this.planes[i];
+            double ny = this.planes[i + 1];
+            double nz = this.planes[i + 2];
+            double d = this.planes[i + 3];
+
+            // The box corners farthest along and against the plane normal.
+            double far = nx * (nx >= 0 ? b[j + 3] : b[j]) + ny * (ny >= 0 ? b[j + 4] : b[j + 1])
+                + nz * (nz >= 0 ? b[j + 5] : b[j + 2]) + d;
+            if (far <= 0)
+                return -1;
+
+            double near = nx * (nx >= 0 ? b[j] : b[j + 3]) + ny * (ny >= 0 ? b[j + 1] : b[j + 4])
+                + nz * (nz >= 0 ? b[j + 2] : b[j + 5]) + d;
+            if (near <= 0)
+                inside = false;
+        }
+
+        return inside ? 1 : 0;
+    }
+
+    protected boolean containsPoint(int i)
+    {
+        double x = this.points[i];
+        double y = this.points[i + 1];
+        double z = this.points[i + 2];
+
+        for (int j = 0; j < 24; j += 4)
+        {
+            if (this.planes[j] * x + this.planes[j + 1] * y + this.planes[j + 2] * z + this.planes[j + 3] <= 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    /** Orders the visible placemark IDs by attributes index with a counting sort, and records the groups. */
+    protected void groupVisibleByAttributes()
+    {
+        int numAttributes = this.maxAttributeIndex + 1;
+        if (this.attributeCounts.length < numAttributes)
+            this.attributeCounts = new int[numAttributes];
+        if (this.groupedIds.length < this.visibleCount)
+            this.groupedIds = new int[this.visibleIds.length];
+
+        int[] counts = this.attributeCounts;
+        Arrays.fill(counts, 0, numAttributes, 0);
+        for (int i = 0; i < this.visibleCount; i++)
+        {
+            counts[this.attributeIndices[this.visibleIds[i]]]++;
+        }
+
+        int numGroups = 0;
+        for (int a = 0; a < numAttributes; a++)
+        {
+            if (counts[a] > 0)
+                numGroups++;
+        }
+
+        if (this.groupAttributeIndices.length < numGroups)
+        {
+            this.groupAttributeIndices = new int[numGroups];
+            this.groupStarts = new int[numGroups + 1];
+        }
+
+        // Convert the counts to the offset of each attribute's first placemark.
+        int g = 0;
+        int offset = 0;
+        for (int a = 0; a < numAttributes; a++)
+        {
+            int count = counts[a];
+            if (count == 0)
+                continue;
+
+            this.groupAttributeIndices[g] = a;
+            this.groupStarts[g++] = offset;
+            counts[a] = offset;
+            offset += count;
+        }
+        this.groupStarts[g] = offset;
+
+        for (int i = 0; i < this.visibleCount; i++)
+        {
+            int id = this.visibleIds[i];
+            this.groupedIds[counts[this.attributeIndices[id]]++] = id;
+        }
+
+        this.numGroups = numGroups;
+    }
+
+    //**************************************************************//
+    //********************  Grid Index  ****************************//
+    //**************************************************************//
+
+    protected void updateGridDimensions()
+    {
+        this.numRows = (int) Math.ceil(180 / this.cellSize);
+        this.numColumns = (int) Math.ceil(360 / this.cellSize);
+    }
+
+    protected int cellFor(double latitude, double longitude)
+    {
+        int row = (int) ((latitude + 90) / this.cellSize);
+        int col = (int) ((longitude + 180) / this.cellSize);
+        row = Math.max(0, Math.min(this.numRows - 1, row));
+        col = Math.max(0, Math.min(this.numColumns - 1, col));
+
+        return row * this.numColumns + col;
+    }
+
+    /** Sorts the placemark IDs by grid cell and records the occupied cells. */
+    protected void buildIndex()
+    {
+        if (this.cellIds.length < this.numPlacemarks)
+            this.cellIds = new int[Math.max(this.numPlacemarks, this.cellIds.length * 3 / 2)];
+
+        // Sort the IDs by cell. Placemarks are rarely spread over more than a small fraction of the cells, so sort
+        // (cell, ID) pairs rather than counting into an array with one entry per cell.
+        long[] keys = new long[this.numPlacemarks];
+        int n = 0;
+        for (int id = 0; id < this.numIds; id++)
+        {
+            if (this.attributeIndices[id] < 0)
+                continue;
+
+            int cell = this.cellFor(this.coordinates[3 * id], this.coordinates[3 * id + 1]);
+            keys[n++] = ((long) cell << 32) | id;
+        }
+        Arrays.sort(keys, 0, n);
+
+        int numOccupied = 0;
+        int lastCell = -1;
+        for (int i = 0; i < n; i++)
+        {
+            int cell = (int) (keys[i] >>> 32);
+            this.cellIds[i] = (int) keys[i];
+
+            if (cell != lastCell)
+            {
+                if (numOccupied == this.occupiedCells.length)
+                {
+                    this.occupiedCells = Arrays.copyOf(this.occupiedCells, 2 * numOccupied);
+                    this.cellStarts = Arrays.copyOf(this.cellStarts, 2 * numOccupied + 1);
+                    this.cellBounds = Arrays.copyOf(this.cellBounds, 12 * numOccupied);
+                }
+
+                this.occupiedCells[numOccupied] = cell;
+                this.cellStarts[numOccupied++] = i;
+                lastCell = cell;
+            }
+        }
+
+        this.cellStarts[numOccupied] = n;
+        this.numOccupiedCells = numOccupied;
+    }
+
+    /** Computes the model coordinate bounding box of the placemarks in each occupied cell. */
+    protected void computeCellBounds()
+    {
+        double[] b = this.cellBounds;
+        for (int k = 0; k < this.numOccupiedCells; k++)
+        {
+            int j = 6 * k;
+            b[j] = b[j + 1] = b[j + 2] = Double.MAX_VALUE;
+            b[j + 3] = b[j + 4] = b[j + 5] = -Double.MAX_VALUE;
+
+            for (int i = this.cellStarts[k]; i < this.cellStarts[k + 1]; i++)
+            {
+                int p = 3 * this.cellIds[i];
+                b[j] = Math.min(b[j], this.points[p]);
+                b[j + 1] = Math.min(b[j + 1], this.points[p + 1]);
+                b[j + 2] = Math.min(b[j + 2], this.points[p + 2]);
+                b[j + 3] = Math.max(b[j + 3], this.points[p]);
+                b[j + 4] = Math.max(b[j + 4], this.points[p + 1]);
+                b[j + 5] = Math.max(b[j + 5], this.points[p + 2]);
+            }
+        }
+    }
+
+    //**************************************************************//
+    //********************  Storage  *******************************//
+    //**************************************************************//
+
+    protected void ensureIdCapacity(int capacity)
+    {
+        if (capacity <= this.attributeIndices.length)
+            return;
+
+        int newCapacity = Math.max(capacity, this.attributeIndices.length * 2);
+        this.coordinates = Arrays.copyOf(this.coordinates, 3 * newCapacity);
+        this.points = Arrays.copyOf(this.points, 3 * newCapacity);
+        this.attributeIndices = Arrays.copyOf(this.attributeIndices, newCapacity);
+        this.labels = Arrays.copyOf(this.labels, newCapacity);
+        this.dirty = Arrays.copyOf(this.dirty, newCapacity);
+    }
+
+    protected void markDirty(int id)
+    {
+        if (!this.dirty[id])
+        {
+            this.dirty[id] = true;
+            this.numDirty++;
+        }
+    }
+
+    protected void markAllDirty()
+    {
+        for (int id = 0; id < this.numIds; id++)
+        {
+            if (this.attributeIndices[id] >= 0)
+                this.markDirty(id);
+        }
+    }
+
+    protected void checkId(int id)
+    {
+        if (!this.containsPlacemark(id))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "id=" + id);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    protected static void checkAttributesIndex(int attributesIndex)
+    {
+        if (attributesIndex < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "attributesIndex < 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
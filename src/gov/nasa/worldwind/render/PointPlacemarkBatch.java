@@ -0,0 +1,613 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.*;
+import com.jogamp.opengl.util.awt.TextRenderer;
+import com.jogamp.opengl.util.texture.TextureCoords;
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.pick.*;
+import gov.nasa.worldwind.util.*;
+
+import java.awt.*;
+import java.net.URL;
+import java.nio.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * PointPlacemarkBatch draws a large number of point placemarks as one renderable. Placemark positions, attribute
+ * indices and labels are held in columnar arrays by a {@link PlacemarkBatchGeometry}, which culls the placemarks with a
+ * grid index and computes their screen points in bulk. The batch then draws every visible placemark's image from one
+ * vertex array, binding each attribute's texture once, and draws the labels of each attribute group within one text
+ * rendering pass.
+ * <p>
+ * Placemark appearance is defined by a table of {@link PointPlacemarkAttributes} kept by the batch. Each placemark
+ * refers to an entry of the table by index; index 0 is a default attributes bundle created with the batch.
+ * PointPlacemarkBatch trades the per-placemark features of {@link PointPlacemark} for throughput: placemarks in a batch
+ * are screen aligned and ignore the heading and pitch attributes, do not draw a line to the ground, are not highlighted
+ * and are drawn in the layer's rendering pass rather than sorted with ordered renderables. Picking identifies
+ * individual placemarks: the picked object is the batch, and its {@link AVKey#PICKED_OBJECT_ID} value is the ID of the
+ * picked placemark. Labels are not pickable.
+ * <p>
+ * Placemarks must be added, changed and removed on the rendering thread, or while the batch is not being rendered.
+ */
+public class PointPlacemarkBatch extends WWObjectImpl implements Renderable
+{
+    /** The size, in pixels, of the square drawn for a placemark whose image is not yet available. */
+    protected static final double DEFAULT_POINT_SIZE = 5;
+    /** The depth offset applied to placemark images to bring them slightly forward, as in {@link PointPlacemark}. */
+    protected static final double DEPTH_OFFSET = 8d * 0.00048875809d;
+
+    protected PlacemarkBatchGeometry geometry = new PlacemarkBatchGeometry();
+    protected List<PointPlacemarkAttributes> attributes = new ArrayList<PointPlacemarkAttributes>();
+    protected Map<String, WWTexture> textures = new HashMap<String, WWTexture>();
+    protected boolean visible = true;
+    protected PickSupport pickSupport = new PickSupport();
+
+    // Drawing state, reused between frames.
+    protected FloatBuffer vertices;
+    protected FloatBuffer texCoords;
+    protected ByteBuffer pickColors;
+    protected WWTexture[] groupTextures = new WWTexture[1];
+    protected boolean[] groupDrawn = new boolean[1];
+
+    /** Creates an empty batch with one default attributes bundle at index 0. */
+    public PointPlacemarkBatch()
+    {
+        this.attributes.add(new PointPlacemarkAttributes());
+    }
+
+    /**
+     * Returns the geometry holding this batch's placemarks. Settings such as the altitude mode and the grid index cell
+     * size are specified on the geometry.
+     *
+     * @return this batch's geometry.
+     */
+    public PlacemarkBatchGeometry getGeometry()
+    {
+        return this.geometry;
+    }
+
+    /**
+     * Indicates whether this batch is drawn.
+     *
+     * @return true if this batch is drawn, otherwise false.
+     */
+    public boolean isVisible()
+    {
+        return this.visible;
+    }
+
+    /**
+     * Specifies whether this batch is drawn.
+     *
+     * @param visible true if this batch should be drawn, otherwise false.
+     */
+    public void setVisible(boolean visible)
+    {
+        this.visible = visible;
+    }
+
+    /**
+     * Adds an attributes bundle to this batch's attributes table.
+     *
+     * @param attrs the attributes to add.
+     *
+     * @return the index of the attributes, used to assign them to placemarks.
+     *
+     * @throws IllegalArgumentException if the attributes are null.
+     */
+    public int addAttributes(PointPlacemarkAttributes attrs)
+    {
+        if (attrs == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributesIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.attributes.add(attrs);
+        return this.attributes.size() - 1;
+    }
+
+    /**
+     * Returns an attributes bundle from this batch's attributes table. The bundle may be modified; changes take effect
+     * the next time the batch is drawn.
+     *
+     * @param index the index of the attributes.
+     *
+     * @return the attributes.
+     *
+     * @throws IndexOutOfBoundsException if the index does not identify an attributes bundle.
+     */
+    public PointPlacemarkAttributes getAttributes(int index)
+    {
+        return this.attributes.get(index);
+    }
+
+    /**
+     * Returns the number of attributes bundles in this batch's attributes table.
+     *
+     * @return the number of attributes bundles.
+     */
+    public int getAttributesCount()
+    {
+        return this.attributes.size();
+    }
+
+    /**
+     * Adds a placemark to this batch. See {@link PlacemarkBatchGeometry#addPlacemark(Position, int, String)}.
+     *
+     * @param position        the placemark's position.
+     * @param attributesIndex the index of the placemark's attributes in this batch's attributes table.
+     * @param label           the placemark's label. May be null.
+     *
+     * @return the new placemark's ID.
+     */
+    public int addPlacemark(Position position, int attributesIndex, String label)
+    {
+        return this.geometry.addPlacemark(position, attributesIndex, label);
+    }
+
+    /**
+     * Specifies the position of a placemark. See {@link PlacemarkBatchGeometry#setPosition(int, double, double,
+     * double)}.
+     *
+     * @param id       the placemark's ID.
+     * @param position the placemark's new position.
+     *
+     * @throws IllegalArgumentException if the position is null.
+     */
+    public void setPosition(int id, Position position)
+    {
+        if (position == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.geometry.setPosition(id, position.getLatitude().degrees, position.getLongitude().degrees,
+            position.getAltitude());
+    }
+
+    /**
+     * Removes a placemark from this batch. See {@link PlacemarkBatchGeometry#removePlacemark(int)}.
+     *
+     * @param id the placemark's ID.
+     */
+    public void removePlacemark(int id)
+    {
+        this.geometry.removePlacemark(id);
+    }
+
+    /**
+     * Returns the number of placemarks in this batch.
+     *
+     * @return the number of placemarks.
+     */
+    public int getPlacemarkCount()
+    {
+        return this.geometry.getPlacemarkCount();
+    }
+
+    public void render(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!this.isVisible() || this.geometry.getPlacemarkCount() == 0)
+            return;
+
+        View view = dc.getView();
+        this.geometry.update(dc.getGlobe(), dc.getVerticalExaggeration());
+        if (this.geometry.cull(view.getFrustumInModelCoordinates()) == 0)
+            return;
+
+        this.geometry.project(view.getModelviewMatrix(), view.getProjectionMatrix(), view.getViewport());
+
+        if (dc.isPickingMode())
+            this.pickSupport.clearPickList();
+
+        this.draw(dc);
+
+        if (dc.isPickingMode())
+            this.pickSupport.resolvePick(dc, dc.getPickPoint(), dc.getCurrentLayer());
+    }
+
+    protected void draw(DrawContext dc)
+    {
+        int count = this.geometry.getVisibleCount();
+        int colorCode = 0;
+        if (dc.isPickingMode())
+        {
+            Color pickColor = dc.getUniquePickColorRange(count);
+            if (pickColor == null)
+                return;
+
+            colorCode = pickColor.getRGB() & 0x00FFFFFF;
+            this.addPickableObjects(colorCode, count);
+        }
+
+        this.assembleQuads(dc, colorCode);
+
+        GL2 gl = dc.getGL().getGL2(); // GL initialization checks for GL2 compatibility.
+        Rectangle viewport = dc.getView().getViewport();
+        OGLStackHandler ogsh = new OGLStackHandler();
+        ogsh.pushAttrib(gl, GL2.GL_CURRENT_BIT | GL2.GL_ENABLE_BIT | GL2.GL_COLOR_BUFFER_BIT
+            | GL2.GL_DEPTH_BUFFER_BIT | GL2.GL_TEXTURE_BIT);
+        ogsh.pushClientAttrib(gl, GL2.GL_CLIENT_VERTEX_ARRAY_BIT);
+        try
+        {
+            // Vertices are in screen coordinates, with z holding the window depth, so that depth testing against the
+            // terrain matches that of PointPlacemark.
+            ogsh.pushProjectionIdentity(gl);
+            gl.glOrtho(0d, viewport.width, 0d, viewport.height, 0d, -1d);
+            ogsh.pushModelviewIdentity(gl);
+
+            gl.glDisable(GL2.GL_LIGHTING);
+            if (!dc.isDeepPickingEnabled())
+                gl.glEnable(GL.GL_DEPTH_TEST);
+            gl.glDepthFunc(GL.GL_LESS);
+            gl.glDepthMask(false);
+            gl.glEnable(GL2.GL_ALPHA_TEST);
+            gl.glAlphaFunc(GL2.GL_GREATER, 0.001f);
+
+            gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+            gl.glVertexPointer(3, GL.GL_FLOAT, 0, this.vertices.rewind());
+            gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+            gl.glTexCoordPointer(2, GL.GL_FLOAT, 0, this.texCoords.rewind());
+
+            if (dc.isPickingMode())
+            {
+                // Replace the non-transparent texture colors with each placemark's pick color.
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, GL2.GL_COMBINE);
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_SRC0_RGB, GL2.GL_PRIMARY_COLOR);
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_COMBINE_RGB, GL2.GL_REPLACE);
+                gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+                gl.glColorPointer(3, GL.GL_UNSIGNED_BYTE, 0, this.pickColors.rewind());
+            }
+            else
+            {
+                gl.glEnable(GL.GL_BLEND);
+                OGLUtil.applyBlending(gl, false);
+            }
+
+            this.drawImages(dc);
+
+            if (dc.isPickingMode())
+            {
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE, OGLUtil.DEFAULT_TEX_ENV_MODE);
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_SRC0_RGB, OGLUtil.DEFAULT_SRC0_RGB);
+                gl.glTexEnvf(GL2.GL_TEXTURE_ENV, GL2.GL_COMBINE_RGB, OGLUtil.DEFAULT_COMBINE_RGB);
+            }
+            else
+            {
+                this.drawLabels(dc);
+            }
+        }
+        finally
+        {
+            gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+            ogsh.pop(gl);
+        }
+    }
+
+    /**
+     * Registers a pick color range covering the visible placemarks. The picked objects are created only when a color in
+     * the range is found at the pick point.
+     *
+     * @param colorCode the first color code of the range.
+     * @param count     the number of visible placemarks.
+     */
+    protected void addPickableObjects(final int colorCode, int count)
+    {
+        final int[] ids = Arrays.copyOf(this.geometry.getVisibleIds(), count);
+        this.pickSupport.addPickableObjectRange(colorCode, count, new PickedObjectFactory()
+        {
+            public PickedObject createPickedObject(int code)
+            {
+                int id = ids[code - colorCode];
+                Position position = geometry.containsPlacemark(id) ? geometry.getPosition(id) : null;
+                PickedObject po = new PickedObject(code, PointPlacemarkBatch.this, position, false);
+                po.setValue(AVKey.PICKED_OBJECT_ID, id);
+                return po;
+            }
+        });
+    }
+
+    /**
+     * Fills the vertex, texture coordinate and pick color arrays with one quad for each visible placemark, in the
+     * geometry's attribute group order, and chooses each group's texture.
+     *
+     * @param dc        the current draw context.
+     * @param colorCode the first pick color code, used only in picking mode.
+     */
+    protected void assembleQuads(DrawContext dc, int colorCode)
+    {
+        int count = this.geometry.getVisibleCount();
+        int numGroups = this.geometry.getGroupCount();
+        this.ensureBufferCapacity(count, numGroups);
+
+        float[] screenPoints = this.geometry.getScreenPoints();
+        FloatBuffer v = this.vertices;
+        FloatBuffer t = this.texCoords;
+        ByteBuffer c = this.pickColors;
+        v.clear();
+        t.clear();
+        c.clear();
+
+        for (int g = 0; g < numGroups; g++)
+        {
+            PointPlacemarkAttributes attrs = this.getGroupAttributes(g);
+            WWTexture texture = attrs.isDrawImage() ? this.chooseTexture(attrs) : null;
+            this.groupTextures[g] = texture;
+            this.groupDrawn[g] = attrs.isDrawImage();
+
+            // Compute the quad's size and the offset that aligns the image hot spot with the placemark point.
+            double width, height, dx, dy;
+            Double scale = this.getImageScale(attrs);
+            if (texture != null)
+            {
+                width = texture.getWidth(dc) * (scale != null ? scale : 1);
+                height = texture.getHeight(dc) * (scale != null ? scale : 1);
+                Offset offset = this.getImageOffset(attrs);
+                Point.Double p = offset != null
+                    ? offset.computeOffset(texture.getWidth(dc), texture.getHeight(dc), scale, scale)
+                    : new Point.Double(0, 0);
+                dx = -p.x;
+                dy = -p.y;
+            }
+            else
+            {
+                width = height = scale != null ? scale : DEFAULT_POINT_SIZE;
+                dx = dy = -0.5 * width;
+            }
+
+            TextureCoords tc = texture != null ? texture.getTexCoords() : null;
+            float left = tc != null ? tc.left() : 0;
+            float right = tc != null ? tc.right() : 1;
+            float bottom = tc != null ? tc.bottom() : 0;
+            float top = tc != null ? tc.top() : 1;
+
+            for (int i = this.geometry.getGroupStart(g); i < this.geometry.getGroupStart(g + 1); i++)
+            {
+                float x = (float) (screenPoints[3 * i] + dx);
+                float y = (float) (screenPoints[3 * i + 1] + dy);
+                float z = (float) Math.max(0, Math.min(1, screenPoints[3 * i + 2] - DEPTH_OFFSET));
+                float x1 = (float) (x + width);
+                float y1 = (float) (y + height);
+
+                v.put(x).put(y).put(z).put(x1).put(y).put(z).put(x1).put(y1).put(z).put(x).put(y1).put(z);
+                t.put(left).put(bottom).put(right).put(bottom).put(right).put(top).put(left).put(top);
+
+                if (dc.isPickingMode())
+                {
+                    int code = colorCode + i;
+                    byte r = (byte) (code >> 16);
+                    byte gr = (byte) (code >> 8);
+                    byte b = (byte) code;
+                    for (int k = 0; k < 4; k++)
+                    {
+                        c.put(r).put(gr).put(b);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void drawImages(DrawContext dc)
+    {
+        GL2 gl = dc.getGL().getGL2(); // GL initialization checks for GL2 compatibility.
+
+        for (int g = 0; g < this.geometry.getGroupCount(); g++)
+        {
+            if (!this.groupDrawn[g])
+                continue;
+
+            WWTexture texture = this.groupTextures[g];
+            if (texture != null && texture.bind(dc))
+                gl.glEnable(GL.GL_TEXTURE_2D);
+            else
+                gl.glDisable(GL.GL_TEXTURE_2D);
+
+            if (!dc.isPickingMode())
+            {
+                Color color = this.getGroupAttributes(g).getImageColor();
+                if (color == null)
+                    color = PointPlacemarkAttributes.DEFAULT_IMAGE_COLOR;
+                gl.glColor4ub((byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue(),
+                    (byte) color.getAlpha());
+            }
+
+            int start = this.geometry.getGroupStart(g);
+            int end = this.geometry.getGroupStart(g + 1);
+            gl.glDrawArrays(GL2.GL_QUADS, 4 * start, 4 * (end - start));
+        }
+
+        gl.glDisable(GL.GL_TEXTURE_2D);
+    }
+
+    protected void drawLabels(DrawContext dc)
+    {
+        GL2 gl = dc.getGL().getGL2(); // GL initialization checks for GL2 compatibility.
+
+        // Do not depth buffer the labels, as PointPlacemark does not.
+        gl.glDisable(GL.GL_DEPTH_TEST);
+
+        int[] ids = this.geometry.getVisibleIds();
+        FloatBuffer v = this.vertices;
+
+        for (int g = 0; g < this.geometry.getGroupCount(); g++)
+        {
+            PointPlacemarkAttributes attrs = this.getGroupAttributes(g);
+            if (!attrs.isDrawLabel())
+                continue;
+
+            Color color = attrs.getLabelColor();
+            if (color == null)
+                color = PointPlacemarkAttributes.DEFAULT_LABEL_COLOR;
+            if (color.getAlpha() <= 0)
+                continue;
+            Color backgroundColor = color.getAlpha() < 255 ? new Color(0, 0, 0, color.getAlpha()) : Color.BLACK;
+
+            Font font = attrs.getLabelFont();
+            if (font == null)
+                font = PointPlacemarkAttributes.DEFAULT_LABEL_FONT;
+            Double labelScale = attrs.getLabelScale();
+            float scale = labelScale != null ? labelScale.floatValue() : 1;
+
+            // Position each label relative to the lower left corner of its image quad, as PointPlacemark does.
+            WWTexture texture = this.groupTextures[g];
+            double w = texture != null ? texture.getWidth(dc) : 1;
+            double h = texture != null ? texture.getHeight(dc) : 1;
+            Offset os = attrs.getLabelOffset();
+            if (os == null)
+                os = PointPlacemark.DEFAULT_LABEL_OFFSET_IF_UNSPECIFIED;
+            Double imageScale = this.getImageScale(attrs);
+            Point.Double offset = os.computeOffset(w, h, imageScale, imageScale);
+
+            TextRenderer textRenderer = OGLTextRenderer.getOrCreateTextRenderer(dc.getTextRendererCache(), font);
+            textRenderer.begin3DRendering();
+            try
+            {
+                for (int i = this.geometry.getGroupStart(g); i < this.geometry.getGroupStart(g + 1); i++)
+                {
+                    String label = this.geometry.getLabel(ids[i]);
+                    if (label == null)
+                        continue;
+
+                    float x = (float) (v.get(12 * i) + offset.x);
+                    float y = (float) (v.get(12 * i + 1) + offset.y);
+
+                    textRenderer.setColor(backgroundColor);
+                    textRenderer.draw3D(label, x + 1, y - 1, 0, scale);
+                    textRenderer.setColor(color);
+                    textRenderer.draw3D(label, x, y, 0, scale);
+                }
+            }
+            finally
+            {
+                textRenderer.end3DRendering();
+            }
+        }
+    }
+
+    protected PointPlacemarkAttributes getGroupAttributes(int group)
+    {
+        int index = this.geometry.getGroupAttributesIndex(group);
+        return index < this.attributes.size() ? this.attributes.get(index) : this.attributes.get(0);
+    }
+
+    /**
+     * Returns the image scale for an attributes bundle. Bundles without an image address use the default image at its
+     * default scale, as PointPlacemark does.
+     *
+     * @param attrs the attributes.
+     *
+     * @return the image scale, or null if the image is drawn at its natural size.
+     */
+    protected Double getImageScale(PointPlacemarkAttributes attrs)
+    {
+        if (!WWUtil.isEmpty(attrs.getImageAddress()) || attrs.getImage() != null)
+            return attrs.getScale();
+
+        double scale = PointPlacemarkAttributes.DEFAULT_IMAGE_SCALE;
+        return attrs.getScale() != null ? scale * attrs.getScale() : scale;
+    }
+
+    protected Offset getImageOffset(PointPlacemarkAttributes attrs)
+    {
+        if (!WWUtil.isEmpty(attrs.getImageAddress()) || attrs.getImage() != null)
+            return attrs.getImageOffset();
+
+        return PointPlacemarkAttributes.DEFAULT_IMAGE_OFFSET;
+    }
+
+    /**
+     * Returns the texture for an attributes bundle, creating it if its image is available locally. Bundles without an
+     * image address use the default placemark image.
+     *
+     * @param attrs the attributes.
+     *
+     * @return the texture, or null if the image is not yet available.
+     */
+    protected WWTexture chooseTexture(PointPlacemarkAttributes attrs)
+    {
+        String address = attrs.getImageAddress();
+        if (WWUtil.isEmpty(address))
+            address = attrs.getImage() != null ? "image:" + System.identityHashCode(attrs.getImage())
+                : PointPlacemarkAttributes.DEFAULT_IMAGE_PATH;
+
+        WWTexture texture = this.textures.get(address);
+        if (texture != null)
+            return texture;
+
+        if (attrs.getImage() != null)
+        {
+            texture = new BasicWWTexture(attrs.getImage(), true);
+        }
+        else
+        {
+            URL localUrl = WorldWind.getDataFileStore().requestFile(address);
+            if (localUrl != null)
+                texture = new BasicWWTexture(localUrl, true);
+        }
+
+        if (texture != null)
+            this.textures.put(address, texture);
+
+        return texture;
+    }
+
+    protected void ensureBufferCapacity(int count, int numGroups)
+    {
+        if (this.vertices == null || this.vertices.capacity() < 12 * count)
+        {
+            int capacity = Math.max(count, this.vertices != null ? this.vertices.capacity() / 12 * 3 / 2 : 0);
+            this.vertices = Buffers.newDirectFloatBuffer(12 * capacity);
+            this.texCoords = Buffers.newDirectFloatBuffer(8 * capacity);
+            this.pickColors = Buffers.newDirectByteBuffer(12 * capacity);
+        }
+
+        if (this.groupTextures.length < numGroups)
+        {
+            this.groupTextures = new WWTexture[numGroups];
+            this.groupDrawn = new boolean[numGroups];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+/**
+ * An object that performs CPU-only per-frame work, such as regenerating geometry, before the scene controller's
+ * OpenGL phases. {@link gov.nasa.worldwind.AbstractSceneController} calls <code>prepare</code> on every enabled layer
+ * that implements this interface, concurrently on a {@link java.util.concurrent.ForkJoinPool}, before calling
+ * <code>preRender</code> on any layer. {@link gov.nasa.worldwind.layers.RenderableLayer} forwards the call to its
+ * renderables that implement this interface, again in parallel.
+ * <p>
+ * Implementing this interface is an opt-in to the following thread-safety contract. <code>prepare</code>: <ul> <li>may
+ * be called on any thread, concurrently with the <code>prepare</code> method of other objects, but never concurrently
+ * with itself or with this object's own <code>preRender</code>, <code>pick</code> or <code>render</code>;</li> <li>must
+ * not make OpenGL calls or access the GPU resource cache, and must therefore defer work such as filling vertex buffer
+ * objects to the render thread;</li> <li>must treat the draw context as read-only: it must not add ordered renderables,
+ * pick candidates or screen credits, or change the current layer, and may only read the view, globe, terrain, frame
+ * time stamp and similar per-frame state;</li> <li>must confine its writes to state owned by this object.</li> </ul>
+ * Writes made during <code>prepare</code> are visible to the render thread when the preparation phase completes.
+ */
+public interface Preparable
+{
+    /**
+     * Performs this object's CPU-only work for the current frame. See the class description for the thread-safety
+     * contract this method must honor.
+     *
+     * @param dc the current draw context.
+     */
+    void prepare(DrawContext dc);
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+
+/**
+ * A fork/join action that calls {@link Preparable#prepare(DrawContext)} on a list of objects, splitting the list in
+ * halves until each part holds no more than a threshold number of objects. Exceptions thrown by an object are logged
+ * and do not prevent the remaining objects from being prepared.
+ */
+public class PrepareAction extends RecursiveAction
+{
+    /** The default maximum number of objects prepared by a single task. */
+    public static final int DEFAULT_THRESHOLD = 64;
+
+    protected final DrawContext dc;
+    protected final List<? extends Preparable> preparables;
+    protected final int start;
+    protected final int end;
+    protected final int threshold;
+
+    /**
+     * Constructs an action that prepares the objects in the range <code>[start, end)</code> of a list.
+     *
+     * @param dc          the current draw context.
+     * @param preparables the objects to prepare.
+     * @param start       the index of the first object to prepare.
+     * @param end         one past the index of the last object to prepare.
+     * @param threshold   the maximum number of objects a single task prepares without splitting.
+     *
+     * @throws IllegalArgumentException if the draw context or list is null, or if the threshold is less than 1.
+     */
+    public PrepareAction(DrawContext dc, List<? extends Preparable> preparables, int start, int end, int threshold)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (preparables == null)
+        {
+            String message = Logging.getMessage("nullValue.ListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (threshold < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "threshold < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.dc = dc;
+        this.preparables = preparables;
+        this.start = start;
+        this.end = end;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Prepares the {@link Preparable} elements of an iterable. When called from within a fork/join pool the elements
+     * are prepared in parallel, otherwise they are prepared sequentially on the calling thread.
+     *
+     * @param dc      the current draw context.
+     * @param objects the objects to prepare. Elements that do not implement <code>Preparable</code> are ignored.
+     *
+     * @throws IllegalArgumentException if the draw context or iterable is null.
+     */
+    public static void prepareAll(DrawContext dc, Iterable<?> objects)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (objects == null)
+        {
+            String message = Logging.getMessage("nullValue.IterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        ArrayList<Preparable> list = new ArrayList<Preparable>();
+        for (Object o : objects)
+        {
+            if (o instanceof Preparable)
+                list.add((Preparable) o);
+        }
+
+        if (list.isEmpty())
+            return;
+
+        PrepareAction action = new PrepareAction(dc, list, 0, list.size(), DEFAULT_THRESHOLD);
+        if (ForkJoinTask.inForkJoinPool())
+            action.invoke();
+        else
+            action.prepareRange();
+    }
+
+    @Override
+    protected void compute()
+    {
+        if (this.end - this.start <= this.threshold)
+        {
+            this.prepareRange();
+            return;
+        }
+
+        int mid = (this.start + this.end) >>> 1;
+        invokeAll(new PrepareAction(this.dc, this.preparables, this.start, mid, this.threshold),
+            new PrepareAction(this.dc, this.preparables, mid, this.end, this.threshold));
+    }
+
+    /** Prepares this action's range of objects on the calling thread. */
+    protected void prepareRange()
+    {
+        for (int i = this.start; i < this.end; i++)
+        {
+            Preparable preparable = this.preparables.get(i);
+            try
+            {
+                preparable.prepare(this.dc);
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("generic.ExceptionWhilePreparingRenderable",
+                    preparable.getClass().getName());
+                Logging.logger().log(Level.SEVERE, message, e);
+                // Don't abort; continue on to the next object.
+            }
+        }
+    }
+}
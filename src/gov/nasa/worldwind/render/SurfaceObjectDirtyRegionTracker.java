@@ -0,0 +1,526 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+
+/**
+ * SurfaceObjectDirtyRegionTracker tracks changes to a collection of {@link SurfaceRenderable}s between frames and
+ * indexes the renderables by their sectors. Each call to {@link #update(DrawContext, Iterable)} compares every
+ * renderable's state key against the key seen during the previous update. When a renderable is added, removed, changed
+ * or moved relative to the renderables drawn before it, the sectors it covered before and after the change are recorded
+ * as dirty regions. Changed renderables are re-indexed, and renderables that have not changed are not asked for their
+ * sectors.
+ * <p>
+ * Dirty regions are stamped with a generation number that increases with each update that records a change. A
+ * consumer that caches content derived from the renderables, such as a tile texture, remembers the generation it was
+ * last built at and calls {@link #isDirty(Sector, long)} to determine whether any change since then intersects its
+ * sector. The tracker retains a bounded number of dirty regions; content older than the oldest retained region is
+ * always reported as dirty.
+ * <p>
+ * The index is a uniform latitude-longitude grid. Renderables that cover more grid cells than a configurable limit are
+ * kept in a separate list that is tested against every query, which keeps the index small for renderables spanning
+ * large regions. {@link #getIntersectingObjects(Sector)} returns renderables in the order they were passed to the most
+ * recent update, so the result may be drawn directly.
+ * <p>
+ * SurfaceObjectDirtyRegionTracker is not thread safe.
+ */
+public class SurfaceObjectDirtyRegionTracker
+{
+    /** The default grid cell size, in degrees. */
+    protected static final double DEFAULT_CELL_SIZE = 4;
+    /** The default number of grid cells a renderable may cover before it is kept in the large renderable list. */
+    protected static final int DEFAULT_MAX_CELLS_PER_OBJECT = 256;
+    /** The default number of dirty regions retained. */
+    protected static final int DEFAULT_MAX_DIRTY_REGIONS = 4096;
+
+    protected static final Comparator<Entry> ORDER_COMPARATOR = new Comparator<Entry>()
+    {
+        public int compare(Entry a, Entry b)
+        {
+            return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+        }
+    };
+
+    /** The state the tracker keeps for each renderable. */
+    protected static class Entry
+    {
+        protected final SurfaceRenderable object;
+        protected Object stateKey;
+        protected List<Sector> sectors;
+        /** The grid cells the renderable is indexed in, or null if the renderable is in the large renderable list. */
+        protected int[] cells;
+        /** The renderable's position in the most recent update. */
+        protected int order;
+        /** The update that most recently contained the renderable. */
+        protected long updateNumber;
+        /** The query that most recently visited the renderable, used to remove duplicates from query results. */
+        protected long queryNumber;
+
+        public Entry(SurfaceRenderable object)
+        {
+            this.object = object;
+        }
+    }
+
+    /** A sector that changed at a specified generation. */
+    protected static class DirtyRegion
+    {
+        protected final long generation;
+        protected final Sector sector;
+
+        public DirtyRegion(long generation, Sector sector)
+        {
+            this.generation = generation;
+            this.sector = sector;
+        }
+    }
+
+    protected final double cellSize;
+    protected final int numRows;
+    protected final int numColumns;
+    protected final int maxCellsPerObject;
+    protected final int maxDirtyRegions;
+
+    protected Map<SurfaceRenderable, Entry> entries = new HashMap<SurfaceRenderable, Entry>();
+    protected Map<Integer, Set<Entry>> cells = new HashMap<Integer, Set<Entry>>();
+    protected Set<Entry> largeEntries = new HashSet<Entry>();
+    protected ArrayDeque<DirtyRegion> dirtyRegions = new ArrayDeque<DirtyRegion>();
+    /** The generation of the most recent change. */
+    protected long generation;
+    /** The newest generation whose dirty regions have been discarded. */
+    protected long discardedGeneration;
+    protected long updateNumber;
+    protected long queryNumber;
+    protected int changedObjectCount;
+
+    /** Creates a tracker with a 4 degree grid, which retains up to 4096 dirty regions. */
+    public SurfaceObjectDirtyRegionTracker()
+    {
+        this(DEFAULT_CELL_SIZE, DEFAULT_MAX_CELLS_PER_OBJECT, DEFAULT_MAX_DIRTY_REGIONS);
+    }
+
+    /**
+     * Creates a tracker with a specified grid cell size and dirty region capacity.
+     *
+     * @param cellSize          the size of each grid cell, in degrees.
+     * @param maxCellsPerObject the number of grid cells a renderable may cover before it is kept in a list tested
+     *                          against every query.
+     * @param maxDirtyRegions   the number of dirty regions to retain.
+     *
+     * @throws IllegalArgumentException if the cell size is not in the range (0, 180], or if either count is less than
+     *                                  one.
+     */
+    public SurfaceObjectDirtyRegionTracker(double cellSize, int maxCellsPerObject, int maxDirtyRegions)
+    {
+        if (!(cellSize > 0 && cellSize <= 180))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize=" + cellSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (maxCellsPerObject < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "maxCellsPerObject < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (maxDirtyRegions < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "maxDirtyRegions < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+        this.numRows = (int) Math.ceil(180 / cellSize);
+        this.numColumns = (int) Math.ceil(360 / cellSize);
+        this.maxCellsPerObject = maxCellsPerObject;
+        this.maxDirtyRegions = maxDirtyRegions;
+    }
+
+    /**
+     * Returns the generation of the most recent change recorded by {@link #update(DrawContext, Iterable)}. Content
+     * built from the current renderables should be stamped with this value.
+     *
+     * @return the current generation.
+     */
+    public long getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * Returns the number of renderables tracked since the most recent update.
+     *
+     * @return the number of tracked renderables.
+     */
+    public int getObjectCount()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the number of renderables the most recent update found to be added, removed, changed or reordered.
+     *
+     * @return the number of renderables that changed during the most recent update.
+     */
+    public int getChangedObjectCount()
+    {
+        return this.changedObjectCount;
+    }
+
+    /**
+     * Compares the specified renderables against those seen during the previous update, records the sectors of any
+     * changes as dirty regions, and updates the index. Renderables missing from the iterable are removed from the
+     * tracker. Elements of the iterable that are not {@link SurfaceRenderable}s are ignored.
+     *
+     * @param dc       the current draw context, passed to each renderable's {@link SurfaceRenderable#getStateKey}
+     *                 and {@link SurfaceRenderable#getSectors} methods.
+     * @param iterable the current renderables, in the order they are drawn.
+     *
+     * @throws IllegalArgumentException if the iterable is null.
+     */
+    public void update(DrawContext dc, Iterable<?> iterable)
+    {
+        if (iterable == null)
+        {
+            String message = Logging.getMessage("nullValue.IterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        long changeGeneration = this.generation + 1;
+        long update = ++this.updateNumber;
+        int numDirtyRegions = this.dirtyRegions.size();
+        this.changedObjectCount = 0;
+
+        int order = 0;
+        int maxPreviousOrder = -1;
+        for (Object o : iterable)
+        {
+            if (!(o instanceof SurfaceRenderable))
+                continue;
+
+            SurfaceRenderable so = (SurfaceRenderable) o;
+            Entry entry = this.entries.get(so);
+            if (entry != null && entry.updateNumber == update)
+                continue; // The renderable appears more than once; it's already been tracked.
+
+            Object stateKey = so.getStateKey(dc);
+            if (entry == null)
+            {
+                entry = new Entry(so);
+                this.entries.put(so, entry);
+                this.indexEntry(entry, so.getSectors(dc));
+                this.addDirtyRegions(changeGeneration, entry.sectors);
+                this.changedObjectCount++;
+            }
+            else if (stateKey == null || !stateKey.equals(entry.stateKey))
+            {
+                this.addDirtyRegions(changeGeneration, entry.sectors);
+                this.unindexEntry(entry);
+                this.indexEntry(entry, so.getSectors(dc));
+                this.addDirtyRegions(changeGeneration, entry.sectors);
+                this.changedObjectCount++;
+            }
+            else if (entry.order < maxPreviousOrder)
+            {
+                // The renderable is unchanged, but is now drawn before a renderable it was previously drawn after.
+                this.addDirtyRegions(changeGeneration, entry.sectors);
+                this.changedObjectCount++;
+            }
+
+            if (entry.updateNumber != 0 && entry.order > maxPreviousOrder)
+                maxPreviousOrder = entry.order;
+
+            entry.stateKey = stateKey;
+            entry.order = order++;
+            entry.updateNumber = update;
+        }
+
+        Iterator<Entry> iter = this.entries.values().iterator();
+        while (iter.hasNext())
+        {
+            Entry entry = iter.next();
+            if (entry.updateNumber != update)
+            {
+                this.addDirtyRegions(changeGeneration, entry.sectors);
+                this.unindexEntry(entry);
+                iter.remove();
+                this.changedObjectCount++;
+            }
+        }
+
+        if (this.dirtyRegions.size() > numDirtyRegions)
+            this.generation = changeGeneration;
+
+        while (this.dirtyRegions.size() > this.maxDirtyRegions)
+        {
+            this.discardedGeneration = this.dirtyRegions.removeFirst().generation;
+        }
+    }
+
+    /**
+     * Indicates whether any change recorded after a specified generation intersects a sector.
+     *
+     * @param sector     the sector to test.
+     * @param generation the generation at which content covering the sector was last built, or a negative number if
+     *                   it has never been built.
+     *
+     * @return true if the sector intersects a change newer than the generation, or if the generation is older than the
+     * retained dirty regions, otherwise false.
+     *
+     * @throws IllegalArgumentException if the sector is null.
+     */
+    public boolean isDirty(Sector sector, long generation)
+    {
+        if (sector == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (generation < this.discardedGeneration || generation < 0)
+            return true;
+
+        Iterator<DirtyRegion> iter = this.dirtyRegions.descendingIterator();
+        while (iter.hasNext())
+        {
+            DirtyRegion region = iter.next();
+            if (region.generation <= generation)
+                break;
+
+            if (region.sector.intersects(sector))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the sectors of a tracked renderable as of the most recent update.
+     *
+     * @param so the renderable.
+     *
+     * @return the renderable's sectors, or null if the renderable is not tracked or has no sectors.
+     */
+    public List<Sector> getSectors(SurfaceRenderable so)
+    {
+        Entry entry = this.entries.get(so);
+        return entry != null ? entry.sectors : null;
+    }
+
+    /**
+     * Returns the tracked renderables whose sectors intersect a specified sector, in the order they were passed to the
+     * most recent update.
+     *
+     * @param sector the sector to query.
+     *
+     * @return the renderables intersecting the sector. The list is empty if no renderables intersect the sector.
+     *
+     * @throws IllegalArgumentException if the sector is null.
+     */
+    public List<SurfaceRenderable> getIntersectingObjects(Sector sector)
+    {
+        if (sector == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        long query = ++this.queryNumber;
+        List<Entry> result = new ArrayList<Entry>();
+
+        for (Entry entry : this.largeEntries)
+        {
+            this.addIfIntersecting(entry, sector, query, result);
+        }
+
+        int[] range = this.computeCellRange(sector);
+        for (int row = range[0]; row <= range[1]; row++)
+        {
+            for (int col = range[2]; col <= range[3]; col++)
+            {
+                Set<Entry> cell = this.cells.get(row * this.numColumns + col);
+                if (cell == null)
+                    continue;
+
+                for (Entry entry : cell)
+                {
+                    this.addIfIntersecting(entry, sector, query, result);
+                }
+            }
+        }
+
+        Collections.sort(result, ORDER_COMPARATOR);
+
+        List<SurfaceRenderable> objects = new ArrayList<SurfaceRenderable>(result.size());
+        for (Entry entry : result)
+        {
+            objects.add(entry.object);
+        }
+
+        return objects;
+    }
+
+    /** Removes all renderables and dirty regions from the tracker. Content built before this call is reported dirty. */
+    public void clear()
+    {
+        this.entries.clear();
+        this.cells.clear();
+        this.largeEntries.clear();
+        this.dirtyRegions.clear();
+        this.generation++;
+        this.discardedGeneration = this.generation;
+    }
+
+    protected void addIfIntersecting(Entry entry, Sector sector, long query, List<Entry> result)
+    {
+        if (entry.queryNumber == query)
+            return;
+
+        entry.queryNumber = query;
+        for (Sector s : entry.sectors)
+        {
+            if (s.intersects(sector))
+            {
+                result.add(entry);
+                return;
+            }
+        }
+    }
+
+    protected void addDirtyRegions(long generation, List<Sector> sectors)
+    {
+        if (sectors == null)
+            return;
+
+        for (Sector s : sectors)
+        {
+            this.dirtyRegions.addLast(new DirtyRegion(generation, s));
+        }
+    }
+
+    protected void indexEntry(Entry entry, List<Sector> sectors)
+    {
+        entry.sectors = sectors;
+        entry.cells = null;
+
+        if (sectors == null || sectors.isEmpty())
+            return;
+
+        // Count the cells the renderable covers before adding it to any of them, so renderables covering a large
+        // region are kept out of the grid entirely.
+        int numCells = 0;
+        for (Sector s : sectors)
+        {
+            int[] range = this.computeCellRange(s);
+            numCells += (range[1] - range[0] + 1) * (range[3] - range[2] + 1);
+        }
+
+        if (numCells > this.maxCellsPerObject)
+        {
+            this.largeEntries.add(entry);
+            return;
+        }
+
+        int[] cellKeys = new int[numCells];
+        int index = 0;
+        for (Sector s : sectors)
+        {
+            int[] range = this.computeCellRange(s);
+            for (int row = range[0]; row <= range[1]; row++)
+            {
+                for (int col = range[2]; col <= range[3]; col++)
+                {
+                    int key = row * this.numColumns + col;
+                    Set<Entry> cell = this.cells.get(key);
+                    if (cell == null)
+                    {
+                        cell = new HashSet<Entry>();
+                        this.cells.put(key, cell);
+                    }
+
+                    cell.add(entry);
+                    cellKeys[index++] = key;
+                }
+            }
+        }
+
+        entry.cells = cellKeys;
+    }
+
+    protected void unindexEntry(Entry entry)
+    {
+        if (entry.cells == null)
+        {
+            this.largeEntries.remove(entry);
+            return;
+        }
+
+        for (int key : entry.cells)
+        {
+            Set<Entry> cell = this.cells.get(key);
+            if (cell != null && cell.remove(entry) && cell.isEmpty())
+                this.cells.remove(key);
+        }
+
+        entry.cells = null;
+    }
+
+    /**
+     * Computes the grid cells covered by a sector.
+     *
+     * @param sector the sector.
+     *
+     * @return the first row, last row, first column and last column covered by the sector, in that order.
+     */
+    protected int[] computeCellRange(Sector sector)
+    {
+        return new int[] {
+            this.computeCell(sector.getMinLatitude().degrees + 90, this.numRows),
+            this.computeCell(sector.getMaxLatitude().degrees + 90, this.numRows),
+            this.computeCell(sector.getMinLongitude().degrees + 180, this.numColumns),
+            this.computeCell(sector.getMaxLongitude().degrees + 180, this.numColumns)};
+    }
+
+    protected int computeCell(double degrees, int numCells)
+    {
+        int cell = (int) Math.floor(degrees / this.cellSize);
+        return cell < 0 ? 0 : (cell >= numCells ? numCells - 1 : cell);
+    }
+}
@@ -28,6 +28,7 @@
 package gov.nasa.worldwind.render;
 
 import com.jogamp.opengl.util.texture.*;
+import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.cache.Cacheable;
 import gov.nasa.worldwind.geom.*;
@@ -38,8 +39,10 @@ import gov.nasa.worldwind.util.*;
 
 import com.jogamp.opengl.GL;
 import java.awt.*;
+import java.awt.image.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Builds a list of {@link gov.nasa.worldwind.render.SurfaceTile} instances who's content is defined by a specified set
@@ -130,6 +133,8 @@ public class SurfaceObjectTileBuilder
     protected boolean forceTileUpdates;
     /** Controls the tile resolution as distance changes between the globe's surface and the eye point. */
     protected double splitScale = DEFAULT_SPLIT_SCALE;
+    /** Controls if tile updates are determined by tracking the regions of changed surface renderables. */
+    protected boolean useDirtyRegionTracking;
     /**
      * List of currently assembled surface renderables. Valid only during the execution of {@link
      * #buildTiles(DrawContext, Iterable)}.
@@ -141,6 +146,8 @@ public class SurfaceObjectTileBuilder
     protected TileInfo currentInfo;
     /** Support class used to render to an offscreen surface tile. */
     protected OGLRenderToTextureSupport rttSupport = new OGLRenderToTextureSupport();
+    /** Draws tiles on the CPU when non-null. See {@link #setTileRasterizer(SurfaceObjectTileRasterizer)}. */
+    protected SurfaceObjectTileRasterizer tileRasterizer;
 
     /**
      * Constructs a new SurfaceObjectTileBuilder with a tile width and height of <code>512</code>, with the default tile
@@ -315,6 +322,57 @@ public class SurfaceObjectTileBuilder
         this.forceTileUpdates = forceTileUpdates;
     }
 
+    /**
+     * Indicates whether tile updates are determined by tracking the regions of changed surface renderables. See {@link
+     * #setUseDirtyRegionTracking(boolean)}.
+     *
+     * @return true if dirty region tracking is enabled, otherwise false.
+     */
+    public boolean isUseDirtyRegionTracking()
+    {
+        return this.useDirtyRegionTracking;
+    }
+
+    /**
+     * Specifies whether tile updates are determined by tracking the regions of changed surface renderables. When
+     * enabled, the tile builder keeps a {@link SurfaceObjectDirtyRegionTracker} for each tile configuration. Surface
+     * renderables are sorted into the top level tiles through the tracker's spatial index, and only renderables that
+     * have changed since the previous frame are asked for their sectors. A tile is redrawn only when the sector of an
+     * added, removed, changed or reordered renderable intersects the tile, rather than after comparing the state keys
+     * of every renderable in every tile. This is most effective for large numbers of surface renderables that change
+     * infrequently or a few at a time. Initially false.
+     *
+     * @param useDirtyRegionTracking true to enable dirty region tracking, otherwise false.
+     */
+    public void setUseDirtyRegionTracking(boolean useDirtyRegionTracking)
+    {
+        this.useDirtyRegionTracking = useDirtyRegionTracking;
+    }
+
+    /**
+     * Indicates the rasterizer used to draw tile contents on the CPU. See {@link
+     * #setTileRasterizer(SurfaceObjectTileRasterizer)}.
+     *
+     * @return the tile rasterizer, or null if tiles are drawn with OpenGL.
+     */
+    public SurfaceObjectTileRasterizer getTileRasterizer()
+    {
+        return this.tileRasterizer;
+    }
+
+    /**
+     * Specifies a rasterizer used to draw tile contents on the CPU. When a rasterizer is specified, tiles that need
+     * updating are drawn in parallel by the rasterizer and uploaded to their textures, rather than drawn with OpenGL
+     * into each texture in turn. The OpenGL path is still used when picking, and when any current surface renderable
+     * cannot be drawn by the rasterizer. Initially null.
+     *
+     * @param rasterizer the tile rasterizer, or null to draw tiles with OpenGL.
+     */
+    public void setTileRasterizer(SurfaceObjectTileRasterizer rasterizer)
+    {
+        this.tileRasterizer = rasterizer;
+    }
+
     /**
      * Sets the parameter controlling the tile resolution as distance changes between the globe's surface and the eye
      * point. Higher resolution is displayed as the split scale increases from 1.0. Lower resolution is displayed as the
@@ -427,6 +485,19 @@ public class SurfaceObjectTileBuilder
         // Assemble the list of current surface renderables from the specified iterable.
         this.assembleSurfaceObjects(iterable);
 
+        // Record the regions of any surface renderables that changed since the last rendering pass, or discard the
+        // tracker if dirty region tracking has been disabled.
+        if (this.isUseDirtyRegionTracking())
+        {
+            if (this.currentInfo.dirtyRegionTracker == null)
+                this.currentInfo.dirtyRegionTracker = this.createDirtyRegionTracker();
+            this.currentInfo.dirtyRegionTracker.update(dc, this.currentSurfaceObjects);
+        }
+        else
+        {
+            this.currentInfo.dirtyRegionTracker = null;
+        }
+
         // We've cleared any tile assembly state from the last rendering pass. Determine if we can assemble and update
         // the tiles. If not, we're done.
         if (this.currentSurfaceObjects.isEmpty() || !this.canAssembleTiles(dc))
@@ -536,6 +607,12 @@ public class SurfaceObjectTileBuilder
         if (this.currentInfo.tiles.isEmpty())
             return;
 
+        if (this.canRasterizeTiles(dc))
+        {
+            this.rasterizeTiles(dc);
+            return;
+        }
+
         // The tile drawing rectangle has the same dimension as the current tile viewport, but it's lower left corner
         // is placed at the origin. This is because the orthographic projection setup by OGLRenderToTextureSupport
         // maps (0, 0) to the lower left corner of the drawing region, therefore we can drop the (x, y) offset when
@@ -582,23 +659,10 @@ public class SurfaceObjectTileBuilder
         // texture cache below.
         Texture texture = tile.getTexture(dc.getTextureCache());
 
-        // If force tile updates is off, compare the previous tile state against the currently computed state to
-        // determine if the tile needs to be updated. The tile needs to be updated if any the following conditions are
-        // true:
-        // * The tile has no texture.
-        // * The tile has no state.
-        // * The list of intersecting objects has changed.
-        // * An intersecting object's state key is different than one stored in the tile's previous state key.
-        if (!this.isForceTileUpdates())
-        {
-            Object tileStateKey = tile.getStateKey(dc);
-            if (texture != null && tileStateKey.equals(tile.lastUpdateStateKey))
-                return;
-
-            // If the tile needs to be updated, then assign its lastUpdateStateKey before its texture is created. This
-            // ensures that the lastUpdateStateKey is current when the tile is added to the cache.
-            tile.lastUpdateStateKey = tileStateKey;
-        }
+        // Compare the previous tile state against the currently computed state to determine if the tile needs to be
+        // updated.
+        if (!this.isTileUpdateNeeded(dc, tile, texture))
+            return;
 
         if (texture == null) // Create the tile's texture if it doesn't already have one.
         {
@@ -638,6 +702,168 @@ public class SurfaceObjectTileBuilder
         }
     }
 
+    /**
+     * Indicates whether a tile's texture needs to be drawn. If force tile updates is off, the tile needs to be updated
+     * if any of the following conditions are true: the tile has no texture, the tile has no state, the list of
+     * intersecting objects has changed, or an intersecting object's state key is different than the one stored in the
+     * tile's previous state key. If the tile needs to be updated, this assigns the tile's current state key.
+     * <p>
+     * When dirty region tracking is enabled, the tile needs to be updated if it has no texture or if the current
+     * dirty region tracker reports a change intersecting the tile since the tile was last updated. If the tile needs to
+     * be updated, this assigns the tracker's current generation to the tile.
+     *
+     * @param dc      the draw context the tile relates to.
+     * @param tile    the tile to test.
+     * @param texture the tile's current texture, or null if the tile has no texture.
+     *
+     * @return true if the tile needs to be drawn, otherwise false.
+     */
+    protected boolean isTileUpdateNeeded(DrawContext dc, SurfaceObjectTile tile, Texture texture)
+    {
+        if (this.isForceTileUpdates())
+            return true;
+
+        SurfaceObjectDirtyRegionTracker tracker = this.currentInfo.dirtyRegionTracker;
+        if (tracker != null)
+        {
+            if (texture != null && !tracker.isDirty(tile.getSector(), tile.lastUpdateGeneration))
+                return false;
+
+            tile.lastUpdateGeneration = tracker.getGeneration();
+            tile.lastUpdateStateKey = null;
+            return true;
+        }
+
+        Object tileStateKey = tile.getStateKey(dc);
+        if (texture != null && tileStateKey.equals(tile.lastUpdateStateKey))
+            return false;
+
+        // If the tile needs to be updated, then assign its lastUpdateStateKey before its texture is created. This
+        // ensures that the lastUpdateStateKey is current when the tile is added to the cache.
+        tile.lastUpdateStateKey = tileStateKey;
+        tile.lastUpdateGeneration = -1;
+        return true;
+    }
+
+    /**
+     * Indicates whether the current tiles can be drawn by the tile rasterizer. This returns false if there is no tile
+     * rasterizer, if the draw context is in picking mode, or if any current surface renderable cannot be rasterized.
+     *
+     * @param dc the current draw context.
+     *
+     * @return true if the current tiles can be drawn by the tile rasterizer, otherwise false.
+     */
+    protected boolean canRasterizeTiles(DrawContext dc)
+    {
+        if (this.tileRasterizer == null || dc.isPickingMode())
+            return false;
+
+        for (SurfaceRenderable so : this.currentSurfaceObjects)
+        {
+            if (!this.tileRasterizer.canRasterize(so))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Draws the tiles in the {@link #currentInfo} that need updating with the tile rasterizer, then uploads each tile's
+     * image to its texture.
+     *
+     * @param dc the current draw context.
+     */
+    protected void rasterizeTiles(DrawContext dc)
+    {
+        List<SurfaceObjectTile> updateTiles = new ArrayList<SurfaceObjectTile>();
+        for (SurfaceObjectTile tile : this.currentInfo.tiles)
+        {
+            if (this.isTileUpdateNeeded(dc, tile, tile.getTexture(dc.getTextureCache())))
+                updateTiles.add(tile);
+        }
+
+        if (updateTiles.isEmpty())
+            return;
+
+        final Map<Tile, BufferedImage> images = new ConcurrentHashMap<Tile, BufferedImage>();
+        this.tileRasterizer.rasterizeTiles(dc.getGlobe(), updateTiles, this.currentSurfaceObjects,
+            new SurfaceObjectTileRasterizer.TileHandler()
+            {
+                public void tileRasterized(Tile tile, BufferedImage image)
+                {
+                    images.put(tile, image);
+                }
+            });
+
+        GL gl = dc.getGL();
+        for (SurfaceObjectTile tile : updateTiles)
+        {
+            BufferedImage image = images.get(tile);
+            if (image == null)
+                continue;
+
+            try
+            {
+                Texture texture = tile.getTexture(dc.getTextureCache());
+                if (texture == null)
+                {
+                    texture = this.createTileTexture(dc, tile.getWidth(), tile.getHeight());
+                    tile.setTexture(dc.getTextureCache(), texture);
+                }
+
+                // AWT texture data is flagged to be flipped vertically when drawn, which the tile's texture keeps if
+                // the tile is later drawn by the OpenGL path. Flip the rows here instead, so the texture is oriented
+                // the same way whichever path last updated it.
+                flipRows(image);
+                TextureData td = AWTTextureIO.newTextureData(gl.getGLProfile(), image, this.isUseMipmaps());
+                td.setMustFlipVertically(false);
+                texture.updateImage(gl, td);
+                texture.bind(gl);
+                this.applyTileTextureParameters(dc);
+            }
+            finally
+            {
+                this.tileRasterizer.releaseImage(image);
+            }
+        }
+    }
+
+    /**
+     * Reverses the order of an image's rows in place, so that its first row is the bottom of the image as OpenGL
+     * expects. Images other than the rasterizer's <code>TYPE_INT_ARGB_PRE</code> images are flipped pixel by pixel.
+     *
+     * @param image the image to flip.
+     */
+    protected static void flipRows(BufferedImage image)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB_PRE)
+        {
+            int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            int[] row = new int[width];
+            for (int top = 0, bottom = height - 1; top < bottom; top++, bottom--)
+            {
+                System.arraycopy(data, top * width, row, 0, width);
+                System.arraycopy(data, bottom * width, data, top * width, width);
+                System.arraycopy(row, 0, data, bottom * width, width);
+            }
+        }
+        else
+        {
+            int[] topRow = new int[width];
+            int[] bottomRow = new int[width];
+            for (int top = 0, bottom = height - 1; top < bottom; top++, bottom--)
+            {
+                image.getRGB(0, top, width, 1, topRow, 0, width);
+                image.getRGB(0, bottom, width, 1, bottomRow, 0, width);
+                image.setRGB(0, top, width, 1, bottomRow, 0, width);
+                image.setRGB(0, bottom, width, 1, topRow, 0, width);
+            }
+        }
+    }
+
     /**
      * Returns a new surface tile texture for use on the specified draw context with the specified width and height.
      * <p>
@@ -702,6 +928,20 @@ public class SurfaceObjectTileBuilder
 
         t = TextureIO.newTexture(td);
         t.bind(gl);
+        this.applyTileTextureParameters(dc);
+
+        return t;
+    }
+
+    /**
+     * Applies the surface tile texture parameters described in {@link #createTileTexture(DrawContext, int, int)} to the
+     * currently bound texture.
+     *
+     * @param dc the current draw context.
+     */
+    protected void applyTileTextureParameters(DrawContext dc)
+    {
+        GL gl = dc.getGL();
 
         gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, this.isUseLinearFilter() ?
             (this.isUseMipmaps() ? GL.GL_LINEAR_MIPMAP_LINEAR : GL.GL_LINEAR) : GL.GL_NEAREST);
@@ -718,8 +958,6 @@ public class SurfaceObjectTileBuilder
                 gl.glTexParameterf(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAX_ANISOTROPY_EXT, (float) maxAnisotropy);
             }
         }
-
-        return t;
     }
 
     /**
@@ -858,6 +1096,12 @@ public class SurfaceObjectTileBuilder
      */
     protected void assembleTiles(DrawContext dc)
     {
+        if (this.currentInfo.dirtyRegionTracker != null)
+        {
+            this.assembleTilesFromIndex(dc, this.currentInfo.dirtyRegionTracker);
+            return;
+        }
+
         LevelSet levelSet = this.currentInfo.levelSet;
         String tileCacheName = this.currentInfo.cacheName;
 
@@ -940,6 +1184,71 @@ public class SurfaceObjectTileBuilder
         }
     }
 
+    /**
+     * Assembles a set of surface tiles in the same manner as {@link #assembleTiles(DrawContext)}, but sorts the current
+     * surface renderables into the top level tiles by querying the specified dirty region tracker's spatial index.
+     * Top level tiles outside the DrawContext's visible sector are skipped without visiting the surface renderables
+     * they contain.
+     *
+     * @param dc      the DrawContext to assemble tiles for.
+     * @param tracker the dirty region tracker indexing the current surface renderables.
+     */
+    protected void assembleTilesFromIndex(DrawContext dc, SurfaceObjectDirtyRegionTracker tracker)
+    {
+        LevelSet levelSet = this.currentInfo.levelSet;
+        String tileCacheName = this.currentInfo.cacheName;
+
+        Level level = levelSet.getFirstLevel();
+        Angle dLat = level.getTileDelta().getLatitude();
+        Angle dLon = level.getTileDelta().getLongitude();
+        Angle latOrigin = levelSet.getTileOrigin().getLatitude();
+        Angle lonOrigin = levelSet.getTileOrigin().getLongitude();
+        int numRows = (int) Math.ceil(180 / dLat.degrees);
+        int numCols = (int) Math.ceil(360 / dLon.degrees);
+
+        Angle p1 = latOrigin;
+        for (int row = 0; row < numRows; row++)
+        {
+            Angle p2 = p1.add(dLat);
+
+            Angle t1 = lonOrigin;
+            for (int col = 0; col < numCols; col++)
+            {
+                Angle t2 = t1.add(dLon);
+
+                Object tileKey = this.createTileKey(level, row, col, tileCacheName);
+                SurfaceObjectTile tile = (SurfaceObjectTile) TextureTile.getMemoryCache().getObject(tileKey);
+                if (tile == null)
+                {
+                    tile = this.createTile(new Sector(p1, p2, t1, t2), level, row, col, tileCacheName);
+                    TextureTile.getMemoryCache().add(tileKey, tile);
+                }
+
+                if (this.intersectsVisibleSector(dc, tile))
+                {
+                    for (SurfaceRenderable so : tracker.getIntersectingObjects(tile.getSector()))
+                    {
+                        // Add the renderable with the first of its sectors that intersects the tile. The tracker
+                        // returns each renderable once, even if several of its sectors intersect the tile.
+                        for (Sector s : tracker.getSectors(so))
+                        {
+                            if (tile.getSector().intersects(s))
+                            {
+                                tile.addSurfaceObject(so, s);
+                                break;
+                            }
+                        }
+                    }
+
+                    this.addTileOrDescendants(dc, levelSet, null, tile);
+                }
+
+                t1 = t2;
+            }
+            p1 = p2;
+        }
+    }
+
     /**
      * Potentially adds the specified tile or its descendants to the tile builder's {@link #currentInfo}. The tile and
      * its descendants are discarded if the tile is not visible or does not intersect any surface renderables in the
@@ -1231,6 +1540,16 @@ public class SurfaceObjectTileBuilder
         return new Dimension(potSize, potSize);
     }
 
+    /**
+     * Creates the dirty region tracker used for a tile info when dirty region tracking is enabled.
+     *
+     * @return a new dirty region tracker.
+     */
+    protected SurfaceObjectDirtyRegionTracker createDirtyRegionTracker()
+    {
+        return new SurfaceObjectDirtyRegionTracker();
+    }
+
     /**
      * Returns a unique name appropriate for use as part of a cache name.
      *
@@ -1291,6 +1610,7 @@ public class SurfaceObjectTileBuilder
         public String cacheName;
         public int tileWidth;
         public int tileHeight;
+        public SurfaceObjectDirtyRegionTracker dirtyRegionTracker;
 
         public TileInfo(LevelSet levelSet, String cacheName, int tileWidth, int tileHeight)
         {
@@ -1353,6 +1673,11 @@ public class SurfaceObjectTileBuilder
         protected List<SurfaceRenderable> intersectingObjects;
         /** The state key that was valid when the tile was last updated. */
         protected Object lastUpdateStateKey;
+        /**
+         * The dirty region tracker generation that was current when the tile was last updated, or -1 if the tile was
+         * not updated with dirty region tracking enabled.
+         */
+        protected long lastUpdateGeneration = -1;
 
         /**
          * Constructs a tile for a given sector, level, row and column of the tile's containing tile set.
@@ -0,0 +1,654 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.pick.PickedObject;
+import gov.nasa.worldwind.util.*;
+
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.image.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Draws {@link AbstractSurfaceShape}s into surface tile images on the CPU, without an OpenGL context. Shapes are drawn
+ * with anti-aliased Java2D scanline fills and strokes into <code>TYPE_INT_ARGB_PRE</code> images, using the same
+ * geometry, attributes and {@link SurfaceTileDrawContext} tile mapping as the OpenGL path in {@link
+ * SurfaceObjectTileBuilder}. SurfaceObjectTileRasterizer can be used on its own to pre-render surface shape overlays on
+ * a server, or installed in a SurfaceObjectTileBuilder to move tile drawing off the OpenGL pipeline.
+ * <p>
+ * Tiles are drawn in parallel. Shapes are first prepared once per tile level, in parallel across shapes, and then each
+ * tile is drawn by a single task from the prepared geometry. Shapes must not be modified while tiles are being drawn.
+ * Shapes with an interior texture, and surface renderables that are not surface shapes, are not drawn; see {@link
+ * #canRasterize(Object)}. Tile images are recycled through a pool, see {@link #acquireImage(int, int)} and {@link
+ * #releaseImage(java.awt.image.BufferedImage)}.
+ */
+public class SurfaceObjectTileRasterizer implements Disposable
+{
+    /** Receives tile images as they are drawn. */
+    public interface TileHandler
+    {
+        /**
+         * Called once for each tile when the tile's image has been drawn. This is called on the thread that drew the
+         * tile, and may be called concurrently for different tiles. The handler takes ownership of the image, and
+         * should return it to the rasterizer by calling {@link #releaseImage(java.awt.image.BufferedImage)} when it no
+         * longer needs it.
+         *
+         * @param tile  the tile that was drawn.
+         * @param image the tile's image. North is at the top of the image.
+         */
+        void tileRasterized(Tile tile, BufferedImage image);
+    }
+
+    /** Shape geometry and attributes prepared for drawing the tiles of one level. */
+    protected static class RasterShape
+    {
+        protected List<Sector> sectors;
+        protected List<List<LatLon>> interior;
+        protected List<List<LatLon>> outline;
+        protected Color interiorColor;
+        protected Color outlineColor;
+        protected Stroke stroke;
+        protected boolean antialias;
+
+        protected boolean intersects(Sector sector)
+        {
+            for (Sector s : this.sectors)
+            {
+                if (s.intersects(sector))
+                    return true;
+            }
+
+            return false;
+        }
+    }
+
+    protected ExecutorService executor;
+    protected boolean ownsExecutor;
+    protected int maxPooledImages = 2 * Runtime.getRuntime().availableProcessors();
+    protected ConcurrentLinkedQueue<BufferedImage> imagePool = new ConcurrentLinkedQueue<BufferedImage>();
+
+    /** Creates a rasterizer that draws tiles on a pool of threads with one thread for each available processor. */
+    public SurfaceObjectTileRasterizer()
+    {
+    }
+
+    /**
+     * Creates a rasterizer that draws tiles using a specified executor. The rasterizer does not shut down the executor
+     * when it's disposed.
+     *
+     * @param executor the executor used to draw tiles.
+     *
+     * @throws IllegalArgumentException if the executor is null.
+     */
+    public SurfaceObjectTileRasterizer(ExecutorService executor)
+    {
+        if (executor == null)
+        {
+            String message = Logging.getMessage("nullValue.ExecutorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.executor = executor;
+    }
+
+    /**
+     * Indicates whether this rasterizer can draw a specified object. Objects that cannot be drawn are ignored by the
+     * draw methods.
+     *
+     * @param o the object to test.
+     *
+     * @return true if the object is a surface shape that can be drawn without OpenGL, otherwise false.
+     */
+    public boolean canRasterize(Object o)
+    {
+        return o instanceof AbstractSurfaceShape && ((AbstractSurfaceShape) o).isRasterizable();
+    }
+
+    /**
+     * Returns an image with the specified dimensions in which all pixels are transparent black, reusing a released
+     * image if one is available.
+     *
+     * @param width  the image width, in pixels.
+     * @param height the image height, in pixels.
+     *
+     * @return a cleared <code>TYPE_INT_ARGB_PRE</code> image.
+     */
+    public BufferedImage acquireImage(int width, int height)
+    {
+        BufferedImage image;
+        while ((image = this.imagePool.poll()) != null)
+        {
+            if (image.getWidth() == width && image.getHeight() == height)
+            {
+                Arrays.fill(((DataBufferInt) image.getRaster().getDataBuffer()).getData(), 0);
+                return image;
+            }
+        }
+
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    /**
+     * Returns an image to the rasterizer's image pool. The caller must not use the image after releasing it.
+     *
+     * @param image the image to release. May be null, in which case this method does nothing.
+     */
+    public void releaseImage(BufferedImage image)
+    {
+        if (image == null || image.getType() != BufferedImage.TYPE_INT_ARGB_PRE)
+            return;
+
+        if (this.imagePool.size() < this.maxPooledImages)
+            this.imagePool.offer(image);
+    }
+
+    /**
+     * Returns the tiles of a level that intersect a sector, ordered from north to south and west to east.
+     *
+     * @param levelSet    the level set defining the tile grid.
+     * @param levelNumber the level number.
+     * @param sector      the sector of interest.
+     *
+     * @return the tiles intersecting the sector.
+     *
+     * @throws IllegalArgumentException if the level set or sector is null.
+     */
+    public static List<Tile> getTiles(LevelSet levelSet, int levelNumber, Sector sector)
+    {
+        if (levelSet == null)
+        {
+            String message = Logging.getMessage("nullValue.LevelSetIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (sector == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        List<Tile> tiles = new ArrayList<Tile>();
+        Sector intersection = levelSet.getSector().intersection(sector);
+        if (intersection == null)
+            return tiles;
+
+        Level level = levelSet.getLevel(levelNumber);
+        LatLon delta = level.getTileDelta();
+        LatLon origin = levelSet.getTileOrigin();
+        int nwRow = Tile.computeRow(delta.getLatitude(), intersection.getMaxLatitude(), origin.getLatitude());
+        int nwCol = Tile.computeColumn(delta.getLongitude(), intersection.getMinLongitude(), origin.getLongitude());
+        int seRow = Tile.computeRow(delta.getLatitude(), intersection.getMinLatitude(), origin.getLatitude());
+        int seCol = Tile.computeColumn(delta.getLongitude(), intersection.getMaxLongitude(), origin.getLongitude());
+
+        for (int row = nwRow; row >= seRow; row--)
+        {
+            for (int col = nwCol; col <= seCol; col++)
+            {
+                TileKey key = new TileKey(levelNumber, row, col, level.getCacheName());
+                tiles.add(new Tile(levelSet.computeSectorForKey(key), level, row, col));
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Draws the specified objects into a single tile image on the calling thread. The image is cleared before drawing.
+     *
+     * @param globe   the globe the shapes are associated with.
+     * @param tile    the tile to draw.
+     * @param objects the objects to draw. Objects that cannot be rasterized are ignored.
+     * @param image   the image to draw into. Its dimensions must match the tile's.
+     *
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public void rasterizeTile(Globe globe, Tile tile, Iterable<?> objects, BufferedImage image)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (tile == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (objects == null)
+        {
+            String message = Logging.getMessage("nullValue.IterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (image == null)
+        {
+            String message = Logging.getMessage("nullValue.ImageIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        SurfaceTileDrawContext sdc = this.createSurfaceTileDrawContext(tile);
+        List<RasterShape> shapes = new ArrayList<RasterShape>();
+        for (Object o : objects)
+        {
+            if (!this.canRasterize(o))
+                continue;
+
+            RasterShape shape = this.prepareShape(globe, (AbstractSurfaceShape) o, sdc);
+            if (shape != null)
+                shapes.add(shape);
+        }
+
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            this.drawTile(g, sdc, shapes);
+        }
+        finally
+        {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws the specified objects into each of the specified tiles, in parallel, and passes each tile's image to a
+     * handler. This blocks until all tiles have been drawn and handled. Tiles may be from any number of levels.
+     *
+     * @param globe   the globe the shapes are associated with.
+     * @param tiles   the tiles to draw.
+     * @param objects the objects to draw. Objects that cannot be rasterized are ignored.
+     * @param handler the handler that receives each tile's image.
+     *
+     * @throws IllegalArgumentException if any argument is null.
+     * @throws WWRuntimeException       if drawing or handling a tile fails.
+     */
+    public void rasterizeTiles(Globe globe, Collection<? extends Tile> tiles, Iterable<?> objects,
+        TileHandler handler)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (tiles == null)
+        {
+            String message = Logging.getMessage("nullValue.TileIterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (objects == null)
+        {
+            String message = Logging.getMessage("nullValue.IterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (handler == null)
+        {
+            String message = Logging.getMessage("nullValue.CallbackIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        List<AbstractSurfaceShape> shapes = new ArrayList<AbstractSurfaceShape>();
+        for (Object o : objects)
+        {
+            if (this.canRasterize(o))
+                shapes.add((AbstractSurfaceShape) o);
+        }
+
+        // Tiles in the same level share a size and resolution, and therefore share shape geometry.
+        Map<Integer, List<Tile>> levels = new TreeMap<Integer, List<Tile>>();
+        for (Tile tile : tiles)
+        {
+            List<Tile> list = levels.get(tile.getLevelNumber());
+            if (list == null)
+                levels.put(tile.getLevelNumber(), list = new ArrayList<Tile>());
+            list.add(tile);
+        }
+
+        for (List<Tile> levelTiles : levels.values())
+        {
+            List<RasterShape> prepared = this.prepareShapes(globe, shapes, levelTiles.get(0));
+            this.drawTiles(levelTiles, prepared, handler);
+        }
+    }
+
+    public void dispose()
+    {
+        if (this.ownsExecutor && this.executor != null)
+        {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+
+        this.imagePool.clear();
+    }
+
+    protected synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory()
+                {
+                    public Thread newThread(Runnable runnable)
+                    {
+                        Thread thread = new Thread(runnable, "WorldWind Surface Tile Rasterizer");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            this.ownsExecutor = true;
+        }
+
+        return this.executor;
+    }
+
+    protected List<RasterShape> prepareShapes(final Globe globe, final List<AbstractSurfaceShape> shapes, Tile tile)
+    {
+        final SurfaceTileDrawContext sdc = this.createSurfaceTileDrawContext(tile);
+        final RasterShape[] prepared = new RasterShape[shapes.size()];
+
+        // Prepare shapes in contiguous chunks, so that each shape is accessed by only one thread.
+        int numChunks = Math.min(shapes.size(), 4 * Runtime.getRuntime().availableProcessors());
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numChunks);
+        for (int i = 0; i < numChunks; i++)
+        {
+            final int start = (int) ((long) i * shapes.size() / numChunks);
+            final int end = (int) ((long) (i + 1) * shapes.size() / numChunks);
+            tasks.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    for (int j = start; j < end; j++)
+                    {
+                        prepared[j] = prepareShape(globe, shapes.get(j), sdc);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        this.invokeAll(tasks, tile);
+
+        List<RasterShape> list = new ArrayList<RasterShape>(prepared.length);
+        for (RasterShape shape : prepared)
+        {
+            if (shape != null)
+                list.add(shape);
+        }
+
+        return list;
+    }
+
+    protected RasterShape prepareShape(Globe globe, AbstractSurfaceShape shape, SurfaceTileDrawContext sdc)
+    {
+        shape.determineActiveAttributes();
+        ShapeAttributes attrs = shape.getActiveAttributes();
+
+        boolean drawInterior = shape.hasInterior() && attrs.isDrawInterior() && attrs.getInteriorOpacity() > 0;
+        boolean drawOutline = attrs.isDrawOutline() && attrs.getOutlineOpacity() > 0 && attrs.getOutlineWidth() > 0;
+        if (!drawInterior && !drawOutline)
+            return null;
+
+        List<Sector> sectors = shape.computeSectors(globe);
+        if (sectors == null || sectors.isEmpty())
+            return null;
+
+        List<List<LatLon>> geom = shape.createGeometry(globe, sdc);
+        if (geom == null)
+            return null;
+
+        RasterShape rs = new RasterShape();
+        rs.sectors = sectors;
+        rs.antialias = attrs.isEnableAntialiasing();
+
+        List<List<LatLon>> interior = new ArrayList<List<LatLon>>();
+        List<List<LatLon>> outline = new ArrayList<List<LatLon>>();
+        shape.assembleDrawGeometry(globe, geom, interior, outline);
+
+        if (drawInterior)
+        {
+            rs.interior = interior;
+            rs.interiorColor = makeColor(attrs.getInteriorMaterial().getDiffuse(), attrs.getInteriorOpacity());
+        }
+
+        if (drawOutline)
+        {
+            rs.outline = outline;
+            rs.outlineColor = makeColor(attrs.getOutlineMaterial().getDiffuse(), attrs.getOutlineOpacity());
+            rs.stroke = this.createStroke(attrs);
+        }
+
+        return rs;
+    }
+
+    protected void drawTiles(List<Tile> tiles, final List<RasterShape> shapes, final TileHandler handler)
+    {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(tiles.size());
+        for (final Tile tile : tiles)
+        {
+            tasks.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    BufferedImage image = acquireImage(tile.getWidth(), tile.getHeight());
+                    Graphics2D g = image.createGraphics();
+                    try
+                    {
+                        drawTile(g, createSurfaceTileDrawContext(tile), shapes);
+                    }
+                    finally
+                    {
+                        g.dispose();
+                    }
+
+                    handler.tileRasterized(tile, image);
+                    return null;
+                }
+            });
+        }
+
+        this.invokeAll(tasks, tiles.get(0));
+    }
+
+    protected void drawTile(Graphics2D g, SurfaceTileDrawContext sdc, List<RasterShape> shapes)
+    {
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+
+        // Map geographic coordinates to tile pixels with the tile's modelview matrix. The matrix places the origin at
+        // the tile's lower left corner, and image rows run from the top, so the y axis is flipped.
+        Matrix m = sdc.getModelviewMatrix();
+        double height = sdc.getViewport().getHeight();
+        Sector sector = sdc.getSector();
+
+        for (RasterShape shape : shapes)
+        {
+            if (!shape.intersects(sector))
+                continue;
+
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, shape.antialias ?
+                RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+            if (shape.interior != null && !shape.interior.isEmpty())
+            {
+                Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+                for (List<LatLon> locations : shape.interior)
+                {
+                    appendLocations(path, locations, m, height);
+                    path.closePath();
+                }
+
+                g.setColor(shape.interiorColor);
+                g.fill(path);
+            }
+
+            if (shape.outline != null && !shape.outline.isEmpty())
+            {
+                Path2D path = new Path2D.Double();
+                for (List<LatLon> locations : shape.outline)
+                {
+                    appendLocations(path, locations, m, height);
+                }
+
+                g.setColor(shape.outlineColor);
+                g.setStroke(shape.stroke);
+                g.draw(path);
+            }
+        }
+    }
+
+    protected static void appendLocations(Path2D path, List<LatLon> locations, Matrix m, double height)
+    {
+        boolean first = true;
+        for (LatLon ll : locations)
+        {
+            double lon = ll.getLongitude().degrees;
+            double lat = ll.getLatitude().degrees;
+            double x = m.m11 * lon + m.m12 * lat + m.m14;
+            double y = height - (m.m21 * lon + m.m22 * lat + m.m24);
+
+            if (first)
+                path.moveTo(x, y);
+            else
+                path.lineTo(x, y);
+            first = false;
+        }
+    }
+
+    /**
+     * Returns a Java2D stroke matching the OpenGL line state applied for the specified attributes. The stipple pattern
+     * is converted to a dash pattern, reading the pattern's bits from least to most significant as OpenGL does.
+     *
+     * @param attrs the shape attributes.
+     *
+     * @return a stroke for the shape's outline.
+     */
+    protected Stroke createStroke(ShapeAttributes attrs)
+    {
+        float width = (float) attrs.getOutlineWidth();
+        int factor = attrs.getOutlineStippleFactor();
+        short pattern = attrs.getOutlineStipplePattern();
+
+        if (factor <= 0 || pattern == (short) 0xFFFF || pattern == 0)
+            return new BasicStroke(width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND);
+
+        // Rotate the pattern so it starts with a set bit, then convert each run of equal bits to a dash length.
+        int bits = pattern & 0xFFFF;
+        int phase = 0;
+        while ((bits & 1) == 0)
+        {
+            bits = (bits >>> 1) | ((bits & 1) << 15);
+            phase++;
+        }
+
+        List<Float> runs = new ArrayList<Float>();
+        int bit = 1;
+        int run = 0;
+        for (int i = 0; i < 16; i++)
+        {
+            int b = (bits >>> i) & 1;
+            if (b != bit)
+            {
+                runs.add((float) (run * factor));
+                bit = b;
+                run = 0;
+            }
+            run++;
+        }
+        runs.add((float) (run * factor));
+        if (runs.size() % 2 != 0) // Dash arrays alternate on and off; an odd count ends with an on run.
+            runs.add(0f);
+
+        float[] dash = new float[runs.size()];
+        for (int i = 0; i < dash.length; i++)
+        {
+            dash[i] = runs.get(i);
+        }
+
+        return new BasicStroke(width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 10f, dash,
+            (16 - phase) % 16 * factor);
+    }
+
+    protected static Color makeColor(Color color, double opacity)
+    {
+        int alpha = (int) (255 * opacity + 0.5);
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), Math.max(0, Math.min(alpha, 255)));
+    }
+
+    protected SurfaceTileDrawContext createSurfaceTileDrawContext(Tile tile)
+    {
+        return new SurfaceTileDrawContext(tile, Collections.<PickedObject>emptyList());
+    }
+
+    protected void invokeAll(List<Callable<Void>> tasks, Tile tile)
+    {
+        try
+        {
+            for (Future<Void> future : this.getExecutor().invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            String message = Logging.getMessage("generic.ExceptionWhileRasterizingTile", tile);
+            throw new WWRuntimeException(message, e);
+        }
+        catch (ExecutionException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionWhileRasterizingTile", tile);
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e.getCause());
+            throw new WWRuntimeException(message, e.getCause());
+        }
+    }
+}
@@ -388,6 +388,13 @@ public class SurfacePolygon extends AbstractSurfaceShape implements Exportable
         }
     }
 
+    /** {@inheritDoc} Overridden to return false if the polygon has an explicit texture. */
+    @Override
+    protected boolean isRasterizable()
+    {
+        return this.explicitTexture == null && super.isRasterizable();
+    }
+
     protected List<List<Vertex>> assembleContours(Angle maxEdgeLength)
     {
         List<List<Vertex>> result = new ArrayList<List<Vertex>>();
@@ -223,6 +223,13 @@ public class SurfacePolyline extends AbstractSurfaceShape implements Exportable
         // Intentionally left blank; SurfacePolyline does not render an interior.
     }
 
+    /** {@inheritDoc} Overridden to return false; SurfacePolyline does not render an interior. */
+    @Override
+    protected boolean hasInterior()
+    {
+        return false;
+    }
+
     /** {@inheritDoc} Overridden to treat the shape as an open path if the polyline is not closed. */
     @Override
     protected boolean canContainPole()
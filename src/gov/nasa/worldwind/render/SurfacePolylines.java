@@ -212,6 +212,13 @@ public class SurfacePolylines extends AbstractSurfaceShape
         // Intentionally left blank; SurfacePolylines does not render an interior.
     }
 
+    /** {@inheritDoc} Overridden to return false; SurfacePolylines draws its outline from its own vertex buffer. */
+    @Override
+    protected boolean isRasterizable()
+    {
+        return false;
+    }
+
     protected void drawOutline(DrawContext dc, SurfaceTileDrawContext sdc)
     {
         // Exit immediately if the Polyline has no coordinate data.
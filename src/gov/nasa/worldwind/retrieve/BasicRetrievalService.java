@@ -29,7 +29,7 @@ package gov.nasa.worldwind.retrieve;
 
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVKey;
-import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.*;
 
 import javax.net.ssl.SSLHandshakeException;
 import java.net.SocketTimeoutException;
@@ -59,6 +59,7 @@ public final class BasicRetrievalService extends WWObjectImpl
     private RetrievalExecutor executor; // thread pool for running retrievers
     private ConcurrentLinkedQueue<RetrievalTask> activeTasks; // tasks currently allocated a thread
     private int queueSize; // maximum queue size
+    private final PerformanceMetrics metrics = PerformanceMetrics.getInstance();
 
     /** Encapsulates a single threaded retrieval as a {@link java.util.concurrent.FutureTask}. */
     private static class RetrievalTask extends FutureTask<Retriever>
@@ -232,6 +233,12 @@ public final class BasicRetrievalService extends WWObjectImpl
                 task.cancel(true);
             }
 
+            if (BasicRetrievalService.this.metrics.isEnabled())
+            {
+                BasicRetrievalService.this.metrics.record(PerformanceMetrics.RETRIEVAL_QUEUE_LATENCY,
+                    TimeUnit.MILLISECONDS.toNanos(task.retriever.getBeginTime() - task.retriever.getSubmitTime()));
+            }
+
             if (BasicRetrievalService.this.activeTasks.contains(task))
             {
                 // Task is a duplicate
@@ -270,6 +277,12 @@ public final class BasicRetrievalService extends WWObjectImpl
             BasicRetrievalService.this.activeTasks.remove(task);
             task.retriever.setEndTime(System.currentTimeMillis());
 
+            if (BasicRetrievalService.this.metrics.isEnabled())
+            {
+                BasicRetrievalService.this.metrics.record(PerformanceMetrics.RETRIEVAL_TIME,
+                    TimeUnit.MILLISECONDS.toNanos(task.retriever.getEndTime() - task.retriever.getBeginTime()));
+            }
+
             try
             {
                 if (throwable != null)
@@ -32,6 +32,7 @@ import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.data.*;
+import gov.nasa.worldwind.data.tiles.TileSource;
 import gov.nasa.worldwind.event.BulkRetrievalListener;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
@@ -88,6 +89,8 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
     protected boolean extremesCachingEnabled = true;
     protected BufferWrapper extremes = null;
     protected MemoryCache extremesLookupCache;
+    protected TileSource tileSource;
+    protected boolean memoryMappedFilesEnabled;
     // Model resource properties.
     protected static final int RESOURCE_ID_OGC_CAPABILITIES = 1;
 
@@ -142,6 +145,14 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         if (s != null)
             this.loadExtremeElevations(s);
 
+        Object o = params.getValue(AVKey.TILE_SOURCE);
+        if (o instanceof TileSource)
+            this.setTileSource((TileSource) o);
+
+        b = (Boolean) params.getValue(AVKey.USE_MEMORY_MAPPED_FILES);
+        if (b != null)
+            this.setMemoryMappedFilesEnabled(b);
+
         b = (Boolean) params.getValue(AVKey.DELETE_CACHE_ON_EXIT);
         if (b != null)
             this.setValue(AVKey.DELETE_CACHE_ON_EXIT, true);
@@ -339,6 +350,57 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         this.elevationDataType = dataType;
     }
 
+    /**
+     * Indicates the tile source the model reads its tiles from. See {@link #setTileSource(TileSource)}.
+     *
+     * @return the model's tile source, or null if the model reads tiles from its file store.
+     */
+    public TileSource getTileSource()
+    {
+        return this.tileSource;
+    }
+
+    /**
+     * Specifies a tile source the model reads its tiles from. When a tile source is specified, the model reads each
+     * tile's elevations directly from the source instead of from the file store, and does not retrieve tiles the source
+     * does not contain. Tiles are interpreted as BIL data with the model's data type and byte order. The tile source
+     * may also be specified with the {@link AVKey#TILE_SOURCE} construction parameter. The model does not dispose the
+     * tile source.
+     *
+     * @param tileSource the tile source, or null to read tiles from the file store.
+     */
+    public void setTileSource(TileSource tileSource)
+    {
+        this.tileSource = tileSource;
+    }
+
+    /**
+     * Indicates whether the model maps local BIL tile files into memory. See {@link
+     * #setMemoryMappedFilesEnabled(boolean)}.
+     *
+     * @return true if local tile files are memory mapped, otherwise false.
+     */
+    public boolean isMemoryMappedFilesEnabled()
+    {
+        return this.memoryMappedFilesEnabled;
+    }
+
+    /**
+     * Specifies whether the model maps local BIL tile files into memory rather than copying each file into a new heap
+     * buffer when the tile is loaded. Mapping avoids the copy and the heap allocation, and lets tiles evicted from the
+     * memory cache be reloaded from the operating system's page cache. It is intended for elevation data installed
+     * locally and not modified while the model is in use; some platforms do not permit a mapped file to be deleted or
+     * rewritten until the mapping is garbage collected, so it is disabled by default. Tiles read from jar files or
+     * other non-file URLs, and GeoTIFF tiles, are always read into the heap. Memory mapping may also be specified with
+     * the {@link AVKey#USE_MEMORY_MAPPED_FILES} construction parameter.
+     *
+     * @param enabled true to memory map local tile files, false to read them into the heap.
+     */
+    public void setMemoryMappedFilesEnabled(boolean enabled)
+    {
+        this.memoryMappedFilesEnabled = enabled;
+    }
+
     public String getElevationDataByteOrder()
     {
         return this.elevationDataByteOrder;
@@ -449,6 +511,20 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
                     return;
 
                 ElevationTile tile = this.elevationModel.createTile(this.tileKey);
+                if (this.elevationModel.getTileSource() != null)
+                {
+                    if (this.elevationModel.loadElevationsFromSource(tile))
+                    {
+                        this.elevationModel.levels.unmarkResourceAbsent(tile);
+                        this.elevationModel.firePropertyChange(AVKey.ELEVATION_MODEL, null, this);
+                    }
+                    else
+                    {
+                        this.elevationModel.levels.markResourceAbsent(tile);
+                    }
+                    return;
+                }
+
                 final URL url = this.elevationModel.getDataFileStore().findFile(tile.getPath(), false);
                 if (url != null && !this.elevationModel.isFileExpired(tile, url,
                     this.elevationModel.getDataFileStore()))
@@ -522,10 +598,43 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
 
     protected boolean loadElevations(ElevationTile tile, java.net.URL url) throws Exception
     {
+        PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+        boolean recordMetrics = metrics.isEnabled();
+        long start = recordMetrics ? System.nanoTime() : 0;
+
         BufferWrapper elevations = this.readElevations(url);
         if (elevations == null || elevations.length() == 0)
             return false;
 
+        if (recordMetrics)
+            metrics.record(PerformanceMetrics.ELEVATION_TILE_LOAD_TIME, System.nanoTime() - start);
+
+        tile.setElevations(elevations, this);
+        this.addTileToCache(tile, elevations);
+
+        return true;
+    }
+
+    /**
+     * Reads a tile's elevations from the model's tile source and adds the tile to the memory cache. The tile source
+     * must provide elevations in BIL format.
+     *
+     * @param tile the tile to load.
+     *
+     * @return true if the tile's elevations were read, otherwise false.
+     *
+     * @throws Exception if the tile source cannot read the tile.
+     */
+    protected boolean loadElevationsFromSource(ElevationTile tile) throws Exception
+    {
+        ByteBuffer byteBuffer = this.getTileSource().readTile(tile);
+        if (byteBuffer == null || byteBuffer.remaining() == 0)
+            return false;
+
+        BufferWrapper elevations = this.makeBilElevations(byteBuffer);
+        if (elevations == null || elevations.length() == 0)
+            return false;
+
         tile.setElevations(elevations, this);
         this.addTileToCache(tile, elevations);
 
@@ -584,9 +693,18 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         ByteBuffer byteBuffer;
         synchronized (this.fileLock)
         {
-            byteBuffer = WWIO.readURLContentToBuffer(url);
+            File file = this.isMemoryMappedFilesEnabled() ? WWIO.convertURLToFile(url) : null;
+            if (file != null)
+                byteBuffer = WWIO.mapFile(file);
+            else
+                byteBuffer = WWIO.readURLContentToBuffer(url);
         }
 
+        return this.makeBilElevations(byteBuffer);
+    }
+
+    protected BufferWrapper makeBilElevations(ByteBuffer byteBuffer)
+    {
         // Setup parameters to instruct BufferWrapper on how to interpret the ByteBuffer.
         AVList bufferParams = new AVListImpl();
         bufferParams.setValue(AVKey.DATA_TYPE, this.elevationDataType);
@@ -2180,8 +2298,9 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
      * AVKey#BYTE_ORDER}</td><td>ByteOrder</td><td>DataType/@byteOrder</td></tr> <tr><td>{@link
      * AVKey#ELEVATION_EXTREMES_FILE}</td><td>ExtremeElevations/FileName</td><td>String</td></tr> <tr><td>{@link
      * AVKey#ELEVATION_MAX}</td><td>ExtremeElevations/@max</td><td>Double</td></tr> <tr><td>{@link
-     * AVKey#ELEVATION_MIN}</td><td>ExtremeElevations/@min</td><td>Double</td></tr> </table> This also writes common
-     * elevation model and LevelSet configuration parameters by invoking {@link gov.nasa.worldwind.terrain.AbstractElevationModel#createElevationModelConfigElements(gov.nasa.worldwind.avlist.AVList,
+     * AVKey#ELEVATION_MIN}</td><td>ExtremeElevations/@min</td><td>Double</td></tr> <tr><td>{@link
+     * AVKey#USE_MEMORY_MAPPED_FILES}</td><td>UseMemoryMappedFiles</td><td>Boolean</td></tr> </table> This also writes
+     * common elevation model and LevelSet configuration parameters by invoking {@link gov.nasa.worldwind.terrain.AbstractElevationModel#createElevationModelConfigElements(gov.nasa.worldwind.avlist.AVList,
      * org.w3c.dom.Element)} and {@link DataConfigurationUtils#createLevelSetConfigElements(gov.nasa.worldwind.avlist.AVList,
      * org.w3c.dom.Element)}.
      *
@@ -2230,6 +2349,7 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
 
         WWXML.checkAndAppendBooleanElement(params, AVKey.RETRIEVE_PROPERTIES_FROM_SERVICE, context,
             "RetrievePropertiesFromService");
+        WWXML.checkAndAppendBooleanElement(params, AVKey.USE_MEMORY_MAPPED_FILES, context, "UseMemoryMappedFiles");
 
         // Image format properties.
         WWXML.checkAndAppendTextElement(params, AVKey.IMAGE_FORMAT, context, "ImageFormat");
@@ -2301,8 +2421,9 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
      * AVKey#BYTE_ORDER}</td><td>DataType/@byteOrder</td><td>String</td></tr> <tr><td>{@link
      * AVKey#ELEVATION_EXTREMES_FILE}</td><td>ExtremeElevations/FileName</td><td>String</td></tr> <tr><td>{@link
      * AVKey#ELEVATION_MAX}</td><td>ExtremeElevations/@max</td><td>Double</td></tr> <tr><td>{@link
-     * AVKey#ELEVATION_MIN}</td><td>ExtremeElevations/@min</td><td>Double</td></tr> </table> This also parses common
-     * elevation model and LevelSet configuration parameters by invoking {@link gov.nasa.worldwind.terrain.AbstractElevationModel#getElevationModelConfigParams(org.w3c.dom.Element,
+     * AVKey#ELEVATION_MIN}</td><td>ExtremeElevations/@min</td><td>Double</td></tr> <tr><td>{@link
+     * AVKey#USE_MEMORY_MAPPED_FILES}</td><td>UseMemoryMappedFiles</td><td>Boolean</td></tr> </table> This also parses
+     * common elevation model and LevelSet configuration parameters by invoking {@link gov.nasa.worldwind.terrain.AbstractElevationModel#getElevationModelConfigParams(org.w3c.dom.Element,
      * gov.nasa.worldwind.avlist.AVList)} and {@link gov.nasa.worldwind.util.DataConfigurationUtils#getLevelSetConfigParams(org.w3c.dom.Element,
      * gov.nasa.worldwind.avlist.AVList)}.
      *
@@ -2338,6 +2459,8 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         WWXML.checkAndSetStringParam(domElement, params, AVKey.SERVICE_NAME, "Service/@serviceName", xpath);
         WWXML.checkAndSetBooleanParam(domElement, params, AVKey.RETRIEVE_PROPERTIES_FROM_SERVICE,
             "RetrievePropertiesFromService", xpath);
+        WWXML.checkAndSetBooleanParam(domElement, params, AVKey.USE_MEMORY_MAPPED_FILES, "UseMemoryMappedFiles",
+            xpath);
 
         // Image format properties.
         WWXML.checkAndSetStringParam(domElement, params, AVKey.IMAGE_FORMAT, "ImageFormat", xpath);
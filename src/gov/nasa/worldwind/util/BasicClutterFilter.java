@@ -34,7 +34,14 @@ import java.awt.geom.*;
 import java.util.*;
 
 /**
- * A simple clutter filter that compares bounding rectangles to each other.
+ * A simple clutter filter that compares bounding rectangles to each other. Shapes are accepted in order, and a shape
+ * is drawn only if its bounds do not intersect those of a shape already accepted. The accepted bounds are held in a
+ * {@link ScreenOccupancyGrid}, so each test examines only the nearby accepted shapes.
+ * <p>
+ * Shapes are considered in order of decreasing priority, and otherwise in the order given, which is front to back. The
+ * priority of text is its {@link GeographicText#getPriority()}; other shapes have priority 0. When temporal stability
+ * is enabled, shapes drawn in the previous frame are considered before other shapes of the same priority, so that
+ * labels do not flicker as the view moves and the order of nearly equidistant shapes changes.
  *
  * @author tag
  * @version $Id: BasicClutterFilter.java 726 2012-08-29 03:16:03Z tgaskins $
@@ -42,10 +49,42 @@ import java.util.*;
 public class BasicClutterFilter implements ClutterFilter
 {
     protected List<Rectangle2D> rectList = new ArrayList<Rectangle2D>();
+    /** Indexes the rectangles of {@link #rectList} by screen location. */
+    protected ScreenOccupancyGrid grid = new ScreenOccupancyGrid();
+    protected boolean enableTemporalStability = true;
+    /** Identifies the shapes accepted in the previous frame, by {@link #getShapeKey(Declutterable)}. */
+    protected Set<Object> acceptedKeys = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    protected Set<Object> previousAcceptedKeys = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    protected List<Declutterable> orderedShapes = new ArrayList<Declutterable>();
+    protected double[] priorities = new double[0];
+    protected long[] sortKeys = new long[0];
+
+    /**
+     * Indicates whether shapes drawn in the previous frame are preferred over other shapes of the same priority.
+     *
+     * @return true if temporal stability is enabled, otherwise false.
+     */
+    public boolean isEnableTemporalStability()
+    {
+        return this.enableTemporalStability;
+    }
+
+    /**
+     * Specifies whether shapes drawn in the previous frame are preferred over other shapes of the same priority. The
+     * default is true.
+     *
+     * @param enableTemporalStability true to prefer shapes drawn in the previous frame, otherwise false.
+     */
+    public void setEnableTemporalStability(boolean enableTemporalStability)
+    {
+        this.enableTemporalStability = enableTemporalStability;
+    }
 
     public void apply(DrawContext dc, List<Declutterable> shapes)
     {
-        for (Declutterable shape : shapes)
+        this.grid.reset(dc.getView() != null ? dc.getView().getViewport() : null);
+
+        for (Declutterable shape : this.orderShapes(shapes))
         {
             Rectangle2D bounds = shape.getBounds(dc);
             if (bounds == null)
@@ -58,6 +97,8 @@ public class BasicClutterFilter implements ClutterFilter
             {
                 dc.addOrderedRenderable(shape);
                 this.rectList.add(bounds);
+                this.grid.add(bounds);
+                this.acceptedKeys.add(this.getShapeKey(shape));
             }
         }
 
@@ -67,6 +108,12 @@ public class BasicClutterFilter implements ClutterFilter
     protected void clear()
     {
         this.rectList.clear();
+        this.orderedShapes.clear();
+
+        Set<Object> keys = this.previousAcceptedKeys;
+        this.previousAcceptedKeys = this.acceptedKeys;
+        this.acceptedKeys = keys;
+        this.acceptedKeys.clear();
     }
 
     /**
@@ -81,13 +128,116 @@ public class BasicClutterFilter implements ClutterFilter
         if (rectangle == null)
             return null;
 
-        // Performs a simple linear search. This is a performance bottleneck for very large lists.
-        for (Rectangle2D rect : this.rectList)
+        int index = this.grid.findIntersecting(rectangle);
+        return index >= 0 ? this.rectList.get(index) : null;
+    }
+
+    /**
+     * Orders shapes for acceptance: by decreasing priority, then shapes accepted in the previous frame, then the order
+     * given.
+     *
+     * @param shapes the shapes, ordered front to back.
+     *
+     * @return the shapes in the order they should be considered.
+     */
+    protected List<Declutterable> orderShapes(List<Declutterable> shapes)
+    {
+        int n = shapes.size();
+        if (this.priorities.length < n)
+            this.priorities = new double[Math.max(n, 2 * this.priorities.length)];
+
+        boolean uniformPriority = true;
+        for (int i = 0; i < n; i++)
+        {
+            this.priorities[i] = this.getPriority(shapes.get(i));
+            uniformPriority &= this.priorities[i] == this.priorities[0];
+        }
+
+        boolean stable = this.enableTemporalStability && !this.previousAcceptedKeys.isEmpty();
+        if (uniformPriority && !stable)
+            return shapes;
+
+        List<Declutterable> ordered = this.orderedShapes;
+        ordered.clear();
+        if (uniformPriority)
+        {
+            // The common case needs no sort: previously accepted shapes first, then the rest, each in the given order.
+            for (Declutterable shape : shapes)
+            {
+                if (this.previousAcceptedKeys.contains(this.getShapeKey(shape)))
+                    ordered.add(shape);
+            }
+            for (Declutterable shape : shapes)
+            {
+                if (!this.previousAcceptedKeys.contains(this.getShapeKey(shape)))
+                    ordered.add(shape);
+            }
+
+            return ordered;
+        }
+
+        // Sort with primitive keys: the rank of the shape's priority, whether it was accepted in the previous frame,
+        // and its index in the given order.
+        double[] distinct = Arrays.copyOf(this.priorities, n);
+        Arrays.sort(distinct);
+        int numDistinct = 0;
+        for (int i = 0; i < n; i++)
         {
-            if (rectangle.intersects(rect))
-                return rect;
+            if (i == 0 || distinct[i] != distinct[numDistinct - 1])
+                distinct[numDistinct++] = distinct[i];
         }
 
-        return null;
+        if (this.sortKeys.length < n)
+            this.sortKeys = new long[Math.max(n, 2 * this.sortKeys.length)];
+
+        for (int i = 0; i < n; i++)
+        {
+            long rank = numDistinct - 1 - Arrays.binarySearch(distinct, 0, numDistinct, this.priorities[i]);
+            boolean previous = stable && this.previousAcceptedKeys.contains(this.getShapeKey(shapes.get(i)));
+            this.sortKeys[i] = (rank << 33) | (previous ? 0L : 1L << 32) | i;
+        }
+
+        Arrays.sort(this.sortKeys, 0, n);
+        for (int i = 0; i < n; i++)
+        {
+            ordered.add(shapes.get((int) this.sortKeys[i]));
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Returns the priority of a shape. Shapes of higher priority are considered first.
+     *
+     * @param shape the shape.
+     *
+     * @return the text priority for text, otherwise 0.
+     */
+    protected double getPriority(Declutterable shape)
+    {
+        if (shape instanceof DeclutterableText && ((DeclutterableText) shape).getText() != null)
+            return ((DeclutterableText) shape).getText().getPriority();
+
+        return 0;
+    }
+
+    /**
+     * Returns an object that identifies a shape from one frame to the next. Declutterables are typically created each
+     * frame, so the key is the object they draw.
+     *
+     * @param shape the shape.
+     *
+     * @return the text of a {@link DeclutterableText}, the placemark of a {@link PointPlacemark.OrderedPlacemark},
+     *         otherwise the shape itself.
+     */
+    protected Object getShapeKey(Declutterable shape)
+    {
+        if (shape instanceof DeclutterableText && ((DeclutterableText) shape).getText() != null)
+            return ((DeclutterableText) shape).getText();
+
+        if (shape instanceof PointPlacemark.OrderedPlacemark)
+            return ((PointPlacemark.OrderedPlacemark) shape).getPlacemark();
+
+        return shape;
     }
 }
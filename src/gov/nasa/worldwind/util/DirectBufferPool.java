@@ -0,0 +1,239 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.nio.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DirectBufferPool recycles direct {@link ByteBuffer}s between producers and consumers of large, short lived buffers,
+ * such as decoded tile images waiting to be uploaded to OpenGL. Buffers are grouped into power-of-two size classes. A
+ * request is satisfied from the smallest class that can hold it, and the returned buffer's limit is set to the
+ * requested size. Released buffers are retained until the total retained capacity reaches the pool's capacity, after
+ * which further released buffers are left to the garbage collector.
+ * <p>
+ * All methods are thread safe. Buffers are returned in native byte order.
+ */
+public class DirectBufferPool
+{
+    /** The smallest buffer capacity allocated by the pool. Smaller requests are rounded up to this size. */
+    protected static final int MIN_CLASS_SIZE = 4096;
+    /** The number of power-of-two size classes, covering buffer capacities from 4 KB to 1 GB. */
+    protected static final int NUM_CLASSES = 19;
+
+    protected static DirectBufferPool sharedInstance;
+
+    protected final long capacity;
+    @SuppressWarnings("unchecked")
+    protected final ConcurrentLinkedQueue<ByteBuffer>[] classes = new ConcurrentLinkedQueue[NUM_CLASSES];
+    protected final AtomicLong retainedBytes = new AtomicLong();
+    protected final AtomicLong hitCount = new AtomicLong();
+    protected final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Returns a pool shared by all components of the process. The shared pool retains up to the number of bytes
+     * specified by {@link gov.nasa.worldwind.avlist.AVKey#DIRECT_BUFFER_POOL_SIZE} in the configuration, or 64 MB if
+     * the configuration does not specify a size.
+     *
+     * @return the shared pool.
+     */
+    public static synchronized DirectBufferPool getSharedInstance()
+    {
+        if (sharedInstance == null)
+        {
+            long size = gov.nasa.worldwind.Configuration.getLongValue(
+                gov.nasa.worldwind.avlist.AVKey.DIRECT_BUFFER_POOL_SIZE, 64000000L);
+            sharedInstance = new DirectBufferPool(size);
+        }
+
+        return sharedInstance;
+    }
+
+    /**
+     * Creates a pool that retains up to the specified number of bytes of released buffers.
+     *
+     * @param capacity the maximum number of bytes the pool retains.
+     *
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public DirectBufferPool(long capacity)
+    {
+        if (capacity < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "capacity < 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.capacity = capacity;
+
+        for (int i = 0; i < NUM_CLASSES; i++)
+        {
+            this.classes[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes the pool retains.
+     *
+     * @return the pool's capacity, in bytes.
+     */
+    public long getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of bytes currently held by the pool and available for reuse.
+     *
+     * @return the retained byte count.
+     */
+    public long getRetainedBytes()
+    {
+        return this.retainedBytes.get();
+    }
+
+    /**
+     * Returns the number of requests satisfied with a recycled buffer.
+     *
+     * @return the pool hit count.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests that required a new buffer to be allocated.
+     *
+     * @return the pool miss count.
+     */
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+     * Returns a direct buffer with at least the specified capacity, recycling a previously released buffer if one is
+     * available. The buffer's position is 0 and its limit is the requested size. The buffer's contents are undefined.
+     *
+     * @param size the number of bytes needed.
+     *
+     * @return a direct buffer in native byte order.
+     *
+     * @throws IllegalArgumentException if the size is negative or larger than the largest size class.
+     */
+    public ByteBuffer acquire(int size)
+    {
+        int sizeClass = sizeClassFor(size);
+        if (sizeClass < 0)
+        {
+            String message = Logging.getMessage("generic.SizeOutOfRange", size);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        ByteBuffer buffer = this.classes[sizeClass].poll();
+        if (buffer != null)
+        {
+            this.retainedBytes.addAndGet(-buffer.capacity());
+            this.hitCount.incrementAndGet();
+        }
+        else
+        {
+            buffer = ByteBuffer.allocateDirect(classSize(sizeClass)).order(ByteOrder.nativeOrder());
+            this.missCount.incrementAndGet();
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool so it can be reused. Buffers not created by a DirectBufferPool, including heap
+     * buffers and slices, are ignored. The caller must not use the buffer after releasing it.
+     *
+     * @param buffer the buffer to release. May be null, in which case this method does nothing.
+     *
+     * @return true if the pool retained the buffer, false if it was left to the garbage collector.
+     */
+    public boolean release(ByteBuffer buffer)
+    {
+        if (buffer == null || !buffer.isDirect())
+            return false;
+
+        int sizeClass = sizeClassFor(buffer.capacity());
+        if (sizeClass < 0 || classSize(sizeClass) != buffer.capacity())
+            return false;
+
+        if (this.retainedBytes.addAndGet(buffer.capacity()) > this.capacity)
+        {
+            this.retainedBytes.addAndGet(-buffer.capacity());
+            return false;
+        }
+
+        this.classes[sizeClass].offer(buffer);
+        return true;
+    }
+
+    /** Removes all retained buffers from the pool. */
+    public void clear()
+    {
+        for (ConcurrentLinkedQueue<ByteBuffer> queue : this.classes)
+        {
+            ByteBuffer buffer;
+            while ((buffer = queue.poll()) != null)
+            {
+                this.retainedBytes.addAndGet(-buffer.capacity());
+            }
+        }
+    }
+
+    protected static int sizeClassFor(int size)
+    {
+        if (size < 0)
+            return -1;
+
+        int sizeClass = 0;
+        while (sizeClass < NUM_CLASSES && classSize(sizeClass) < size)
+        {
+            sizeClass++;
+        }
+
+        return sizeClass < NUM_CLASSES ? sizeClass : -1;
+    }
+
+    protected static int classSize(int sizeClass)
+    {
+        return MIN_CLASS_SIZE << sizeClass;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal floating point numbers directly from character and byte ranges, without first copying them to a
+ * string. Numbers of the form <code>[+-]digits[.digits][(e|E)[+-]digits]</code> with at most 18 significant digits
+ * and a decimal exponent within the range of exactly representable powers of ten, which covers the coordinates found
+ * in KML, GeoJSON and similar formats, are converted with a single correctly rounded floating point operation. All
+ * other input is passed to {@link Double#parseDouble(String)}. The result is therefore always identical to that of
+ * <code>Double.parseDouble</code>, including the exceptions it throws.
+ */
+public class DoubleParser
+{
+    /** The largest mantissa exactly representable by a double, 2^53. */
+    protected static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** The powers of ten that are exactly representable by a double. */
+    protected static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+        1e19, 1e20, 1e21, 1e22};
+    /** The most significant digits accumulated before the fast path gives up, chosen so a long cannot overflow. */
+    protected static final int MAX_DIGITS = 18;
+    /** The largest exponent magnitude accumulated before the fast path gives up. */
+    protected static final int MAX_EXPONENT = 1000;
+
+    /**
+     * Parses a number from a range of characters.
+     *
+     * @param chars  the characters.
+     * @param offset the index of the number's first character.
+     * @param length the number of characters in the number.
+     *
+     * @return the number's value.
+     *
+     * @throws NumberFormatException if the characters do not form a number accepted by {@link
+     *                               Double#parseDouble(String)}.
+     */
+    public static double parseDouble(char[] chars, int offset, int length)
+    {
+        return parse(chars, offset, offset + length);
+    }
+
+    /**
+     * Parses a number from a range of a character sequence.
+     *
+     * @param s     the character sequence.
+     * @param start the index of the number's first character.
+     * @param end   the index following the number's last character.
+     *
+     * @return the number's value.
+     *
+     * @throws NumberFormatException if the characters do not form a number accepted by {@link
+     *                               Double#parseDouble(String)}.
+     */
+    public static double parseDouble(CharSequence s, int start, int end)
+    {
+        return parse(s, start, end);
+    }
+
+    /**
+     * Parses a number from a range of bytes holding ASCII characters.
+     *
+     * @param bytes  the bytes.
+     * @param offset the index of the number's first byte.
+     * @param length the number of bytes in the number.
+     *
+     * @return the number's value.
+     *
+     * @throws NumberFormatException if the bytes do not form a number accepted by {@link
+     *                               Double#parseDouble(String)}.
+     */
+    public static double parseDouble(byte[] bytes, int offset, int length)
+    {
+        return parse(bytes, offset, offset + length);
+    }
+
+    /**
+     * Scans the sign, digits and exponent of a number in a range of a <code>char[]</code>, <code>byte[]</code> or
+     * {@link CharSequence}, and computes its value with {@link #fastPath(long, int)} when possible. Otherwise the range
+     * is passed to {@link Double#parseDouble(String)}.
+     *
+     * @param source the <code>char[]</code>, <code>byte[]</code> or <code>CharSequence</code> holding the number.
+     * @param start  the index of the number's first character.
+     * @param end    the index following the number's last character.
+     *
+     * @return the number's value.
+     *
+     * @throws NumberFormatException if the characters do not form a number accepted by {@link
+     *                               Double#parseDouble(String)}.
+     */
+    protected static double parse(Object source, int start, int end)
+    {
+        int i = start;
+        boolean negative = false;
+        int c;
+        if (i < end && ((c = charAt(source, i)) == '-' || c == '+'))
+        {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        for (; i < end && (c = charAt(source, i)) >= '0' && c <= '9'; i++)
+        {
+            sawDigit = true;
+            if (mantissa != 0 || c != '0')
+            {
+                mantissa = 10 * mantissa + (c - '0');
+                digits++;
+            }
+        }
+
+        if (i < end && charAt(source, i) == '.')
+        {
+            for (i++; i < end && (c = charAt(source, i)) >= '0' && c <= '9'; i++)
+            {
+                sawDigit = true;
+                exponent--;
+                if (mantissa != 0 || c != '0')
+                {
+                    mantissa = 10 * mantissa + (c - '0');
+                    digits++;
+                }
+            }
+        }
+
+        if (sawDigit && digits <= MAX_DIGITS && i < end && ((c = charAt(source, i)) == 'e' || c == 'E'))
+        {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && ((c = charAt(source, i)) == '-' || c == '+'))
+            {
+                negativeExponent = c == '-';
+                i++;
+            }
+
+            int exponentStart = i;
+            int e = 0;
+            for (; i < end && (c = charAt(source, i)) >= '0' && c <= '9' && e <= MAX_EXPONENT; i++)
+            {
+                e = 10 * e + (c - '0');
+            }
+
+            if (i == exponentStart)
+                sawDigit = false; // No exponent digits; let Double.parseDouble report the error.
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if (sawDigit && i == end && digits <= MAX_DIGITS)
+        {
+            double value = fastPath(mantissa, exponent);
+            if (!Double.isNaN(value))
+                return negative ? -value : value;
+        }
+
+        return Double.parseDouble(toString(source, start, end));
+    }
+
+    /**
+     * Returns the character at an index of a <code>char[]</code>, <code>byte[]</code> or {@link CharSequence}. Bytes
+     * are interpreted as ISO-8859-1 characters.
+     *
+     * @param source the <code>char[]</code>, <code>byte[]</code> or <code>CharSequence</code>.
+     * @param index  the character's index.
+     *
+     * @return the character.
+     */
+    protected static int charAt(Object source, int index)
+    {
+        if (source instanceof char[])
+            return ((char[]) source)[index];
+        else if (source instanceof byte[])
+            return ((byte[]) source)[index] & 0xff;
+        else
+            return ((CharSequence) source).charAt(index);
+    }
+
+    /**
+     * Copies a range of a <code>char[]</code>, <code>byte[]</code> or {@link CharSequence} to a string. Bytes are
+     * interpreted as ISO-8859-1 characters.
+     *
+     * @param source the <code>char[]</code>, <code>byte[]</code> or <code>CharSequence</code>.
+     * @param start  the index of the first character.
+     * @param end    the index following the last character.
+     *
+     * @return the string.
+     */
+    protected static String toString(Object source, int start, int end)
+    {
+        if (source instanceof char[])
+            return new String((char[]) source, start, end - start);
+        else if (source instanceof byte[])
+            return new String((byte[]) source, start, end - start, StandardCharsets.ISO_8859_1);
+        else
+            return ((CharSequence) source).subSequence(start, end).toString();
+    }
+
+    /**
+     * Computes <code>mantissa * 10^exponent</code> with a single correctly rounded operation, if the mantissa and the
+     * power of ten are both exactly representable as doubles.
+     *
+     * @param mantissa the non-negative decimal mantissa.
+     * @param exponent the decimal exponent.
+     *
+     * @return the value, or NaN if it cannot be computed exactly by the fast path.
+     */
+    protected static double fastPath(long mantissa, int exponent)
+    {
+        if (mantissa == 0)
+            return 0d;
+
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22)
+            return Double.NaN;
+
+        return exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+    }
+}
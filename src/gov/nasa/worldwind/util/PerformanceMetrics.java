@@ -0,0 +1,555 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.Configuration;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.layers.Layer;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Collects named timing histograms, counters and gauges that describe where World Wind spends its time: per-layer
+ * pre-render, render and pick times, frame times, memory cache hits, misses and evictions, retrieval queue depth and
+ * latency, and tile load times. The metrics are exported through JMX (see {@link PerformanceMetricsMXBean}) and through
+ * any number of {@link PerformanceMetricsSink}s.
+ * <p>
+ * Recording is disabled by default, and is enabled by setting the configuration property {@link
+ * AVKey#PERFORMANCE_METRICS_ENABLED} to true or by calling {@link #setEnabled(boolean)}. Instrumented code tests {@link
+ * #isEnabled()}, a single volatile read, before measuring anything, so the metrics cost nearly nothing while disabled.
+ * Counters that a component keeps regardless, such as memory cache hit counts, are exposed as gauges that are read only
+ * when the metrics are inspected.
+ * <p>
+ * Histograms and counters are created on first use and are safe to update from any thread.
+ */
+public class PerformanceMetrics implements PerformanceMetricsMXBean
+{
+    /** The name under which the shared instance is registered with the platform MBean server. */
+    public static final String OBJECT_NAME = "gov.nasa.worldwind:type=PerformanceMetrics";
+
+    /** The time to generate a frame, from the start of the scene controller's repaint to its end. */
+    public static final String FRAME_TIME = "frame.time";
+    /** The time retrieval requests wait in the retrieval service's queue before they run. */
+    public static final String RETRIEVAL_QUEUE_LATENCY = "retrieval.queueLatency";
+    /** The time retrievers take to run. */
+    public static final String RETRIEVAL_TIME = "retrieval.time";
+    /** The number of requests queued or running in the remote retrieval service. */
+    public static final String REMOTE_RETRIEVAL_QUEUE_DEPTH = "retrieval.remote.queueDepth";
+    /** The number of requests queued or running in the local retrieval service. */
+    public static final String LOCAL_RETRIEVAL_QUEUE_DEPTH = "retrieval.local.queueDepth";
+    /** The time to load an image tile from the file store. */
+    public static final String IMAGE_TILE_LOAD_TIME = "diskLoad.imageTile";
+    /** The time to load an elevation tile from the file store. */
+    public static final String ELEVATION_TILE_LOAD_TIME = "diskLoad.elevationTile";
+
+    /** Identifies the layer pre-render phase in {@link #recordLayerTime(Layer, int, long)}. */
+    public static final int PRE_RENDER = 0;
+    /** Identifies the layer render phase in {@link #recordLayerTime(Layer, int, long)}. */
+    public static final int RENDER = 1;
+    /** Identifies the layer pick phase in {@link #recordLayerTime(Layer, int, long)}. */
+    public static final int PICK = 2;
+    protected static final String[] LAYER_PHASE_NAMES = {"preRender", "render", "pick"};
+
+    /** The default minimum interval between publications to the sinks, in milliseconds. */
+    protected static final long DEFAULT_PUBLISH_INTERVAL = 1000;
+
+    /** Provides a value that is read when the metrics are inspected or published. */
+    public interface Gauge
+    {
+        /**
+         * Returns the gauge's current value.
+         *
+         * @return the current value.
+         */
+        long getValue();
+    }
+
+    protected static volatile PerformanceMetrics instance;
+
+    protected volatile boolean enabled;
+    protected volatile long publishInterval = DEFAULT_PUBLISH_INTERVAL;
+    protected long lastPublishTime;
+    protected final ConcurrentHashMap<String, TimingHistogram> histograms
+        = new ConcurrentHashMap<String, TimingHistogram>();
+    protected final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+    protected final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+    protected final CopyOnWriteArrayList<PerformanceMetricsSink> sinks
+        = new CopyOnWriteArrayList<PerformanceMetricsSink>();
+    /** Each layer's phase histograms, looked up by layer identity to avoid building names during every frame. */
+    protected final Map<Layer, TimingHistogram[]> layerHistograms = new WeakHashMap<Layer, TimingHistogram[]>();
+
+    /**
+     * Returns the shared metrics instance used by World Wind's components. The instance is created on first use,
+     * enabled according to the configuration property {@link AVKey#PERFORMANCE_METRICS_ENABLED}, and registered with
+     * the platform MBean server.
+     *
+     * @return the shared metrics instance.
+     */
+    public static PerformanceMetrics getInstance()
+    {
+        PerformanceMetrics metrics = instance;
+        if (metrics != null)
+            return metrics;
+
+        synchronized (PerformanceMetrics.class)
+        {
+            if (instance == null)
+            {
+                metrics = new PerformanceMetrics();
+                metrics.setEnabled(Configuration.getBooleanValue(AVKey.PERFORMANCE_METRICS_ENABLED, false));
+                metrics.registerMBean(OBJECT_NAME);
+                instance = metrics;
+            }
+
+            return instance;
+        }
+    }
+
+    /** Creates a new, disabled set of metrics that is not registered with JMX. */
+    public PerformanceMetrics()
+    {
+    }
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the minimum interval between publications to the sinks by {@link #frameCompleted(long)}.
+     *
+     * @return the publication interval, in milliseconds.
+     */
+    public long getPublishInterval()
+    {
+        return this.publishInterval;
+    }
+
+    /**
+     * Specifies the minimum interval between publications to the sinks by {@link #frameCompleted(long)}.
+     *
+     * @param interval the publication interval, in milliseconds. Zero publishes after every frame.
+     *
+     * @throws IllegalArgumentException if the interval is negative.
+     */
+    public void setPublishInterval(long interval)
+    {
+        if (interval < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "interval < 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.publishInterval = interval;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server. Failures are logged and otherwise ignored.
+     *
+     * @param objectName the JMX object name to register the metrics under.
+     *
+     * @return true if the metrics were registered, otherwise false.
+     */
+    public boolean registerMBean(String objectName)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+
+            server.registerMBean(this, name);
+            return true;
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("PerformanceMetrics.ExceptionRegisteringMBean", objectName);
+            Logging.logger().log(Level.WARNING, message, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the histogram with the specified name, creating it if it does not exist.
+     *
+     * @param name the histogram's name.
+     *
+     * @return the named histogram.
+     *
+     * @throws IllegalArgumentException if the name is null.
+     */
+    public TimingHistogram getHistogram(String name)
+    {
+        if (name == null)
+        {
+            String message = Logging.getMessage("nullValue.NameIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        TimingHistogram histogram = this.histograms.get(name);
+        if (histogram == null)
+        {
+            TimingHistogram newHistogram = new TimingHistogram(name);
+            histogram = this.histograms.putIfAbsent(name, newHistogram);
+            if (histogram == null)
+                histogram = newHistogram;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Adds a duration to the named histogram if metrics are enabled.
+     *
+     * @param name  the histogram's name.
+     * @param nanos the duration, in nanoseconds.
+     */
+    public void record(String name, long nanos)
+    {
+        if (this.enabled)
+            this.getHistogram(name).record(nanos);
+    }
+
+    /**
+     * Adds the time elapsed since a start time to the named histogram if metrics are enabled.
+     *
+     * @param name       the histogram's name.
+     * @param startNanos the start time, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(String name, long startNanos)
+    {
+        if (this.enabled)
+            this.getHistogram(name).recordSince(startNanos);
+    }
+
+    /**
+     * Adds a duration to a layer's histogram for a frame phase if metrics are enabled. The histogram is named
+     * <code>layer.&lt;layer name&gt;.&lt;phase&gt;</code>.
+     *
+     * @param layer the layer.
+     * @param phase the phase, one of {@link #PRE_RENDER}, {@link #RENDER} or {@link #PICK}.
+     * @param nanos the duration, in nanoseconds.
+     *
+     * @throws IllegalArgumentException if the layer is null or the phase is not recognized.
+     */
+    public void recordLayerTime(Layer layer, int phase, long nanos)
+    {
+        if (layer == null)
+        {
+            String message = Logging.getMessage("nullValue.LayerIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (phase < 0 || phase >= LAYER_PHASE_NAMES.length)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", phase);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!this.enabled)
+            return;
+
+        TimingHistogram[] layerHistograms;
+        synchronized (this.layerHistograms)
+        {
+            layerHistograms = this.layerHistograms.get(layer);
+            if (layerHistograms == null)
+            {
+                layerHistograms = new TimingHistogram[LAYER_PHASE_NAMES.length];
+                for (int i = 0; i < layerHistograms.length; i++)
+                {
+                    layerHistograms[i] = this.getHistogram("layer." + layer.getName() + "." + LAYER_PHASE_NAMES[i]);
+                }
+                this.layerHistograms.put(layer, layerHistograms);
+            }
+        }
+
+        layerHistograms[phase].record(nanos);
+    }
+
+    /**
+     * Adds to the named counter if metrics are enabled, creating the counter if it does not exist.
+     *
+     * @param name  the counter's name.
+     * @param delta the amount to add.
+     */
+    public void add(String name, long delta)
+    {
+        if (!this.enabled)
+            return;
+
+        if (name == null)
+        {
+            String message = Logging.getMessage("nullValue.NameIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        AtomicLong counter = this.counters.get(name);
+        if (counter == null)
+        {
+            AtomicLong newCounter = new AtomicLong();
+            counter = this.counters.putIfAbsent(name, newCounter);
+            if (counter == null)
+                counter = newCounter;
+        }
+
+        counter.addAndGet(delta);
+    }
+
+    /**
+     * Adds one to the named counter if metrics are enabled.
+     *
+     * @param name the counter's name.
+     */
+    public void increment(String name)
+    {
+        this.add(name, 1);
+    }
+
+    /**
+     * Returns the value of the named counter.
+     *
+     * @param name the counter's name.
+     *
+     * @return the counter's value, or 0 if the counter does not exist.
+     */
+    public long getCounter(String name)
+    {
+        AtomicLong counter = name != null ? this.counters.get(name) : null;
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Adds a gauge, replacing any gauge with the same name. Gauges are read regardless of whether metrics are enabled.
+     *
+     * @param name  the gauge's name.
+     * @param gauge the gauge.
+     *
+     * @throws IllegalArgumentException if the name or gauge is null.
+     */
+    public void addGauge(String name, Gauge gauge)
+    {
+        if (name == null)
+        {
+            String message = Logging.getMessage("nullValue.NameIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (gauge == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.gauges.put(name, gauge);
+    }
+
+    /**
+     * Removes the named gauge.
+     *
+     * @param name the gauge's name.
+     */
+    public void removeGauge(String name)
+    {
+        if (name != null)
+            this.gauges.remove(name);
+    }
+
+    /**
+     * Adds a sink that receives the metrics each time they are published.
+     *
+     * @param sink the sink to add.
+     *
+     * @throws IllegalArgumentException if the sink is null.
+     */
+    public void addSink(PerformanceMetricsSink sink)
+    {
+        if (sink == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.sinks.addIfAbsent(sink);
+    }
+
+    /**
+     * Removes a sink.
+     *
+     * @param sink the sink to remove.
+     */
+    public void removeSink(PerformanceMetricsSink sink)
+    {
+        this.sinks.remove(sink);
+    }
+
+    /** Passes these metrics to each sink. Exceptions thrown by a sink are logged and do not affect other sinks. */
+    public void publish()
+    {
+        for (PerformanceMetricsSink sink : this.sinks)
+        {
+            try
+            {
+                sink.publish(this);
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("PerformanceMetrics.ExceptionPublishingMetrics",
+                    sink.getClass().getName());
+                Logging.logger().log(Level.SEVERE, message, e);
+            }
+        }
+    }
+
+    /**
+     * Called by the scene controller at the end of each frame. If metrics are enabled, this records the frame time and
+     * publishes the metrics to the sinks when the publication interval has elapsed since the last publication.
+     *
+     * @param frameNanos the time taken to generate the frame, in nanoseconds.
+     */
+    public void frameCompleted(long frameNanos)
+    {
+        if (!this.enabled)
+            return;
+
+        this.getHistogram(FRAME_TIME).record(frameNanos);
+
+        long now = System.currentTimeMillis();
+        if (this.sinks.isEmpty() || now - this.lastPublishTime < this.publishInterval)
+            return;
+
+        this.lastPublishTime = now;
+        this.publish();
+    }
+
+    /**
+     * Returns the histograms recorded so far.
+     *
+     * @return an unmodifiable view of the histograms, by name.
+     */
+    public Map<String, TimingHistogram> getHistograms()
+    {
+        return Collections.unmodifiableMap(this.histograms);
+    }
+
+    public Map<String, Long> getCounters()
+    {
+        Map<String, Long> map = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : this.counters.entrySet())
+        {
+            map.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return map;
+    }
+
+    public Map<String, Long> getGauges()
+    {
+        Map<String, Long> map = new TreeMap<String, Long>();
+        for (Map.Entry<String, Gauge> entry : this.gauges.entrySet())
+        {
+            try
+            {
+                map.put(entry.getKey(), entry.getValue().getValue());
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("PerformanceMetrics.ExceptionReadingGauge", entry.getKey());
+                Logging.logger().log(Level.FINE, message, e);
+            }
+        }
+
+        return map;
+    }
+
+    public Map<String, String> getHistogramSummaries()
+    {
+        Map<String, String> map = new TreeMap<String, String>();
+        for (TimingHistogram histogram : this.histograms.values())
+        {
+            map.put(histogram.getName(), histogram.toString());
+        }
+
+        return map;
+    }
+
+    public Map<String, Double> getHistogramMeans()
+    {
+        Map<String, Double> map = new TreeMap<String, Double>();
+        for (TimingHistogram histogram : this.histograms.values())
+        {
+            map.put(histogram.getName(), histogram.getMeanNanos() / 1e3);
+        }
+
+        return map;
+    }
+
+    public Map<String, Long> getHistogramPercentiles99()
+    {
+        Map<String, Long> map = new TreeMap<String, Long>();
+        for (TimingHistogram histogram : this.histograms.values())
+        {
+            map.put(histogram.getName(), histogram.getPercentileMicros(0.99));
+        }
+
+        return map;
+    }
+
+    public void reset()
+    {
+        for (TimingHistogram histogram : this.histograms.values())
+        {
+            histogram.reset();
+        }
+
+        for (AtomicLong counter : this.counters.values())
+        {
+            counter.set(0);
+        }
+    }
+}
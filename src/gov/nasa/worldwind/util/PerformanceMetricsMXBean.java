@@ -0,0 +1,91 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface of {@link PerformanceMetrics}. The metrics are registered with the platform MBean server
+ * under the name {@link PerformanceMetrics#OBJECT_NAME}, and can be inspected with tools such as JConsole or
+ * VisualVM.
+ */
+public interface PerformanceMetricsMXBean
+{
+    /**
+     * Indicates whether metrics are being recorded.
+     *
+     * @return true if metrics are recorded, otherwise false.
+     */
+    boolean isEnabled();
+
+    /**
+     * Specifies whether metrics are recorded.
+     *
+     * @param enabled true to record metrics, otherwise false.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the current value of each counter.
+     *
+     * @return a map from counter name to value.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the current value of each gauge.
+     *
+     * @return a map from gauge name to value.
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Returns a one-line summary of each timing histogram, giving its sample count, mean, percentiles and maximum.
+     *
+     * @return a map from histogram name to summary.
+     */
+    Map<String, String> getHistogramSummaries();
+
+    /**
+     * Returns the mean of each timing histogram.
+     *
+     * @return a map from histogram name to mean duration, in microseconds.
+     */
+    Map<String, Double> getHistogramMeans();
+
+    /**
+     * Returns an upper estimate of the 99th percentile of each timing histogram.
+     *
+     * @return a map from histogram name to 99th percentile duration, in microseconds.
+     */
+    Map<String, Long> getHistogramPercentiles99();
+
+    /** Resets all counters and histograms. Gauges are unaffected. */
+    void reset();
+}
@@ -46,6 +46,8 @@ public class PerformanceStatistic implements Comparable<PerformanceStatistic>
     public static final String TERRAIN_TILE_COUNT = "gov.nasa.worldwind.perfstat.TerrainTileCount";
     public static final String MEMORY_CACHE = "gov.nasa.worldwind.perfstat.MemoryCache";
     public static final String PICK_TIME = "gov.nasa.worldwind.perfstat.PickTime";
+    public static final String PREPARE_TIME = "gov.nasa.worldwind.perfstat.PrepareTime";
+    public static final String LAYER_TIME = "gov.nasa.worldwind.perfstat.LayerTime";
     public static final String JVM_HEAP = "gov.nasa.worldwind.perfstat.JvmHeap";
     public static final String JVM_HEAP_USED = "gov.nasa.worldwind.perfstat.JvmHeapUsed";
     public static final String TEXTURE_CACHE = "gov.nasa.worldwind.perfstat.TextureCache";
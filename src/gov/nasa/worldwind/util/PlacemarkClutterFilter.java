@@ -53,11 +53,15 @@ public class PlacemarkClutterFilter implements ClutterFilter
 {
     /** Holds the rectangles of the regions already drawn. */
     protected List<Rectangle2D> rectList = new ArrayList<Rectangle2D>();
+    /** Indexes the rectangles of {@link #rectList} by screen location. */
+    protected ScreenOccupancyGrid grid = new ScreenOccupancyGrid();
     /** Maintains a list of regions and the shapes associated with each region. */
     protected Map<Rectangle2D, List<Declutterable>> shapeMap = new HashMap<Rectangle2D, List<Declutterable>>();
 
     public void apply(DrawContext dc, List<Declutterable> shapes)
     {
+        this.grid.reset(dc.getView() != null ? dc.getView().getViewport() : null);
+
         for (Declutterable shape : shapes)
         {
             Rectangle2D bounds = shape.getBounds(dc);
@@ -101,13 +105,8 @@ public class PlacemarkClutterFilter implements ClutterFilter
         if (rectangle == null)
             return null;
 
-        for (Rectangle2D rect : this.rectList)
-        {
-            if (rectangle.intersects(rect))
-                return rect;
-        }
-
-        return null;
+        int index = this.grid.findIntersecting(rectangle);
+        return index >= 0 ? this.rectList.get(index) : null;
     }
 
     /**
@@ -125,6 +124,7 @@ public class PlacemarkClutterFilter implements ClutterFilter
             shapeList = new ArrayList<Declutterable>(1);
             this.shapeMap.put(rectangle, shapeList);
             this.rectList.add(rectangle);
+            this.grid.add(rectangle);
         }
 
         shapeList.add(shape);
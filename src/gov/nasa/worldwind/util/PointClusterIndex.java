@@ -0,0 +1,739 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.render.DrawContext;
+
+import java.util.*;
+
+/**
+ * Implements a hierarchical clustering index for large numbers of point items, such as placemarks or markers. The
+ * index divides the globe into a pyramid of latitude-longitude grids. Level 0 has two cells of 180 degrees, and each
+ * subsequent level halves the cell size. A query returns one {@link Cluster} for each occupied cell of a level,
+ * recording the number of items in the cell, their mean location and a representative item.
+ * <p>
+ * The pyramid is held as a bucketed quadtree: a cell is subdivided only when it holds more than a bucket's worth of
+ * items, and the clusters of levels below an undivided cell are formed from its few items when queried. Items are
+ * added, moved and removed incrementally, each change updating the counts along one path of the tree and splitting or
+ * merging at most one bucket. Representatives are chosen lazily when clusters are queried. The representative of an
+ * undivided cell is the first item added to it, and the representative of a divided cell is the representative of
+ * its most populous child, so that the item shown for a region changes little as the view zooms.
+ * <p>
+ * A layer displays the index by choosing a level from the view's altitude and querying the clusters of that level
+ * within the visible sector, using {@link #getClusters(DrawContext, double, Collection)}, so the work done per frame is
+ * proportional to the number of clusters on screen rather than the number of items. Clusters whose count is 1 stand
+ * for a single item and are typically drawn as that item.
+ * <p>
+ * Items are identified by equality, and an item may be in the index only once.
+ *
+ * @param <T> the type of the indexed items.
+ */
+public class PointClusterIndex<T>
+{
+    /**
+     * A cell of one level of a {@link PointClusterIndex}, holding the number and mean location of the items it
+     * contains. Clusters are owned by the index and reflect its state at the time they were returned.
+     *
+     * @param <T> the type of the indexed items.
+     */
+    public static class Cluster<T>
+    {
+        protected final int level;
+        protected final int row;
+        protected final int column;
+        protected int count;
+        protected double latitudeSum;
+        protected double longitudeSum;
+        protected T representative;
+        protected boolean representativeChanged = true;
+        /** The cell's items, if the cell is not subdivided. */
+        protected List<T> items;
+        /** The cell's four children at the next level, if the cell is subdivided. Unoccupied children are null. */
+        protected Cluster<T>[] children;
+
+        public Cluster(int level, int row, int column)
+        {
+            this.level = level;
+            this.row = row;
+            this.column = column;
+        }
+
+        public int getLevel()
+        {
+            return this.level;
+        }
+
+        /**
+         * Returns the number of items in this cluster.
+         *
+         * @return the number of items.
+         */
+        public int getCount()
+        {
+            return this.count;
+        }
+
+        /**
+         * Returns the mean latitude of the items in this cluster.
+         *
+         * @return the mean latitude, in degrees.
+         */
+        public double getLatitude()
+        {
+            return this.count > 0 ? this.latitudeSum / this.count : 0;
+        }
+
+        /**
+         * Returns the mean longitude of the items in this cluster.
+         *
+         * @return the mean longitude, in degrees.
+         */
+        public double getLongitude()
+        {
+            return this.count > 0 ? this.longitudeSum / this.count : 0;
+        }
+
+        /**
+         * Returns the mean location of the items in this cluster.
+         *
+         * @return the mean location.
+         */
+        public LatLon getLocation()
+        {
+            return LatLon.fromDegrees(this.getLatitude(), this.getLongitude());
+        }
+
+        /**
+         * Returns the item chosen to represent this cluster.
+         *
+         * @return the representative item.
+         */
+        public T getRepresentative()
+        {
+            return this.representative;
+        }
+
+        /**
+         * Returns the sector of this cluster's grid cell.
+         *
+         * @return the cluster's cell sector.
+         */
+        public Sector getSector()
+        {
+            double size = computeCellSize(this.level);
+            return Sector.fromDegrees(-90 + this.row * size, -90 + (this.row + 1) * size,
+                -180 + this.column * size, -180 + (this.column + 1) * size);
+        }
+    }
+
+    /** The default number of levels. The cells of the finest level are about 600 meters high. */
+    public static final int DEFAULT_NUM_LEVELS = 16;
+    /** The maximum number of levels. */
+    public static final int MAX_NUM_LEVELS = 30;
+    /** The default number of items a cell holds before it is subdivided. */
+    public static final int DEFAULT_BUCKET_SIZE = 32;
+
+    protected final int numLevels;
+    protected final int bucketSize;
+    protected final Cluster<T>[] roots;
+    protected final Map<T, double[]> locations = new HashMap<T, double[]>();
+
+    /** Constructs an empty index with the default number of levels and bucket size. */
+    public PointClusterIndex()
+    {
+        this(DEFAULT_NUM_LEVELS, DEFAULT_BUCKET_SIZE);
+    }
+
+    /**
+     * Constructs an empty index with a specified number of levels. The cells of the finest level are 180 / 2^(numLevels
+     * - 1) degrees in size; items closer together than that are never separated by a query.
+     *
+     * @param numLevels  the number of levels.
+     * @param bucketSize the number of items a cell holds before it is subdivided. Larger buckets use less memory but
+     *                   make queries of finer levels group more items.
+     *
+     * @throws IllegalArgumentException if the number of levels is less than 1 or greater than {@link
+     *                                  #MAX_NUM_LEVELS}, or the bucket size is less than 1.
+     */
+    @SuppressWarnings("unchecked")
+    public PointClusterIndex(int numLevels, int bucketSize)
+    {
+        if (numLevels < 1 || numLevels > MAX_NUM_LEVELS)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "numLevels=" + numLevels);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (bucketSize < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "bucketSize=" + bucketSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.numLevels = numLevels;
+        this.bucketSize = bucketSize;
+        this.roots = new Cluster[2];
+    }
+
+    /**
+     * Computes the size of the grid cells of a level.
+     *
+     * @param level the level.
+     *
+     * @return the cell size, in degrees.
+     */
+    public static double computeCellSize(int level)
+    {
+        return 180d / (1L << level);
+    }
+
+    public int getNumLevels()
+    {
+        return this.numLevels;
+    }
+
+    public int getBucketSize()
+    {
+        return this.bucketSize;
+    }
+
+    /**
+     * Returns the number of items in the index.
+     *
+     * @return the number of items.
+     */
+    synchronized public int size()
+    {
+        return this.locations.size();
+    }
+
+    /**
+     * Indicates whether an item is in the index.
+     *
+     * @param item the item.
+     *
+     * @return true if the item is in the index, otherwise false.
+     */
+    synchronized public boolean contains(T item)
+    {
+        return item != null && this.locations.containsKey(item);
+    }
+
+    /**
+     * Adds an item to the index, or moves it if it is already in the index.
+     *
+     * @param item      the item.
+     * @param latitude  the item's latitude, in degrees.
+     * @param longitude the item's longitude, in degrees.
+     *
+     * @throws IllegalArgumentException if the item is null or the location is out of range.
+     */
+    synchronized public void add(T item, double latitude, double longitude)
+    {
+        if (item == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.checkLocation(latitude, longitude);
+
+        double[] location = this.locations.get(item);
+        if (location != null)
+        {
+            this.doRemove(item, location[0], location[1]);
+            location[0] = latitude;
+            location[1] = longitude;
+        }
+        else
+        {
+            this.locations.put(item, new double[] {latitude, longitude});
+        }
+
+        int col = this.computeColumn(0, longitude);
+        if (this.roots[col] == null)
+            this.roots[col] = this.createCluster(0, 0, col);
+
+        this.doAdd(this.roots[col], item, latitude, longitude);
+    }
+
+    /**
+     * Moves an item within the index. If the item is not in the index it is added.
+     *
+     * @param item      the item.
+     * @param latitude  the item's new latitude, in degrees.
+     * @param longitude the item's new longitude, in degrees.
+     *
+     * @throws IllegalArgumentException if the item is null or the location is out of range.
+     */
+    synchronized public void move(T item, double latitude, double longitude)
+    {
+        this.add(item, latitude, longitude);
+    }
+
+    /**
+     * Removes an item from the index. Does nothing if the item is not in the index.
+     *
+     * @param item the item to remove.
+     */
+    synchronized public void remove(T item)
+    {
+        if (item == null)
+            return;
+
+        double[] location = this.locations.remove(item);
+        if (location != null)
+            this.doRemove(item, location[0], location[1]);
+    }
+
+    /** Removes all items from the index. */
+    synchronized public void clear()
+    {
+        this.locations.clear();
+        Arrays.fill(this.roots, null);
+    }
+
+    /**
+     * Determines the coarsest level whose cells are no larger than a specified separation. Querying that level yields
+     * clusters whose cells are at least half the separation in size.
+     *
+     * @param degrees the desired separation, in degrees.
+     *
+     * @return the level, clamped to the levels of this index.
+     */
+    public int getLevelForSeparation(double degrees)
+    {
+        if (!(degrees > 0))
+            return this.numLevels - 1;
+
+        int level = (int) Math.ceil(Math.log(180d / degrees) / Math.log(2) - 1e-9);
+        return Math.max(0, Math.min(this.numLevels - 1, level));
+    }
+
+    /**
+     * Returns the clusters of a level whose cells intersect a sector. Only the parts of the index within the sector
+     * and no finer than the level are visited.
+     *
+     * @param sector the sector of interest.
+     * @param level  the level to query.
+     * @param result a collection to receive the clusters.
+     *
+     * @return the result collection, for convenience.
+     *
+     * @throws IllegalArgumentException if the sector or result is null, or the level is not a level of this index.
+     */
+    synchronized public Collection<Cluster<T>> getClusters(Sector sector, int level, Collection<Cluster<T>> result)
+    {
+        if (sector == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (result == null)
+        {
+            String message = Logging.getMessage("nullValue.CollectionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (level < 0 || level >= this.numLevels)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "level=" + level);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // The sector's row and column range at the query level. The range at coarser levels is found by shifting.
+        int[] range = new int[] {
+            this.computeRow(level, sector.getMinLatitude().degrees),
+            this.computeRow(level, sector.getMaxLatitude().degrees),
+            this.computeColumn(level, sector.getMinLongitude().degrees),
+            this.computeColumn(level, sector.getMaxLongitude().degrees)};
+
+        for (Cluster<T> root : this.roots)
+        {
+            if (root != null)
+                this.collectClusters(root, level, range, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the clusters to display for the current view. The level is chosen so that clusters are separated by
+     * roughly a specified number of pixels at the view's altitude, and clusters are returned for the visible sector.
+     *
+     * @param dc              the current draw context.
+     * @param pixelSeparation the desired separation between clusters, in pixels.
+     * @param result          a collection to receive the clusters.
+     *
+     * @return the result collection, for convenience.
+     *
+     * @throws IllegalArgumentException if the draw context or result is null.
+     */
+    public Collection<Cluster<T>> getClusters(DrawContext dc, double pixelSeparation, Collection<Cluster<T>> result)
+    {
+        if (dc == null)
+        {
+            String message = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        View view = dc.getView();
+        double altitude = Math.max(1, view.getEyePosition().getElevation());
+        double meters = view.computePixelSizeAtDistance(altitude) * pixelSeparation;
+        int level = this.getLevelForSeparation(Math.toDegrees(meters / dc.getGlobe().getRadius()));
+
+        Sector sector = dc.getVisibleSector();
+        return this.getClusters(sector != null ? sector : Sector.FULL_SPHERE, level, result);
+    }
+
+    /**
+     * Returns the items of a cluster.
+     *
+     * @param cluster the cluster, as returned by a query of this index.
+     * @param result  a collection to receive the items.
+     *
+     * @return the result collection, for convenience.
+     *
+     * @throws IllegalArgumentException if the cluster or result is null.
+     */
+    synchronized public Collection<T> getItems(Cluster<T> cluster, Collection<T> result)
+    {
+        if (cluster == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (result == null)
+        {
+            String message = Logging.getMessage("nullValue.CollectionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // Find the cluster's cell, or the undivided cell containing it.
+        Cluster<T> node = this.roots[cluster.column >> cluster.level];
+        while (node != null && node.level < cluster.level && node.children != null)
+        {
+            int shift = cluster.level - node.level - 1;
+            node = node.children[childIndex(cluster.row >> shift, cluster.column >> shift)];
+        }
+
+        if (node == null)
+            return result;
+
+        if (node.level == cluster.level)
+        {
+            this.collectItems(node, result);
+        }
+        else
+        {
+            for (T item : node.items)
+            {
+                double[] location = this.locations.get(item);
+                if (this.computeRow(cluster.level, location[0]) == cluster.row
+                    && this.computeColumn(cluster.level, location[1]) == cluster.column)
+                {
+                    result.add(item);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    protected Cluster<T> createCluster(int level, int row, int column)
+    {
+        Cluster<T> cluster = new Cluster<T>(level, row, column);
+        cluster.items = new ArrayList<T>(1);
+        return cluster;
+    }
+
+    protected void doAdd(Cluster<T> node, T item, double latitude, double longitude)
+    {
+        while (true)
+        {
+            node.count++;
+            node.latitudeSum += latitude;
+            node.longitudeSum += longitude;
+            node.representativeChanged = true;
+
+            if (node.children == null)
+            {
+                node.items.add(item);
+                if (node.items.size() > this.bucketSize && node.level < this.numLevels - 1)
+                    this.split(node);
+                return;
+            }
+
+            node = this.getOrCreateChild(node, latitude, longitude);
+        }
+    }
+
+    protected void doRemove(T item, double latitude, double longitude)
+    {
+        Cluster<T> parent = null;
+        Cluster<T> node = this.roots[this.computeColumn(0, longitude)];
+        while (node != null)
+        {
+            if (--node.count == 0)
+            {
+                // The cell held only this item.
+                if (parent != null)
+                    parent.children[childIndex(node.row, node.column)] = null;
+                else
+                    this.roots[node.column] = null;
+                return;
+            }
+
+            node.latitudeSum -= latitude;
+            node.longitudeSum -= longitude;
+            node.representativeChanged = true;
+
+            if (node.children == null)
+            {
+                node.items.remove(item);
+                return;
+            }
+
+            if (node.count <= this.bucketSize / 2)
+            {
+                // Few enough items remain below this cell to hold them undivided.
+                List<T> items = new ArrayList<T>(node.count + 1);
+                this.collectItems(node, items);
+                items.remove(item);
+                node.children = null;
+                node.items = items;
+                return;
+            }
+
+            parent = node;
+            node = node.children[this.childIndex(node, latitude, longitude)];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void split(Cluster<T> node)
+    {
+        List<T> items = node.items;
+        node.items = null;
+        node.children = new Cluster[4];
+
+        for (T item : items)
+        {
+            double[] location = this.locations.get(item);
+            this.doAdd(this.getOrCreateChild(node, location[0], location[1]), item, location[0], location[1]);
+        }
+    }
+
+    protected Cluster<T> getOrCreateChild(Cluster<T> node, double latitude, double longitude)
+    {
+        int row = this.computeRow(node.level + 1, latitude);
+        int col = this.computeColumn(node.level + 1, longitude);
+        int index = childIndex(row, col);
+
+        Cluster<T> child = node.children[index];
+        if (child == null)
+        {
+            child = this.createCluster(node.level + 1, row, col);
+            node.children[index] = child;
+        }
+
+        return child;
+    }
+
+    protected int childIndex(Cluster<T> node, double latitude, double longitude)
+    {
+        return childIndex(this.computeRow(node.level + 1, latitude), this.computeColumn(node.level + 1, longitude));
+    }
+
+    protected static int childIndex(int row, int column)
+    {
+        return ((row & 1) << 1) | (column & 1);
+    }
+
+    protected void collectClusters(Cluster<T> node, int level, int[] range, Collection<Cluster<T>> result)
+    {
+        int shift = level - node.level;
+        if (node.row < range[0] >> shift || node.row > range[1] >> shift
+            || node.column < range[2] >> shift || node.column > range[3] >> shift)
+        {
+            return;
+        }
+
+        if (node.level == level)
+        {
+            result.add(this.updateRepresentative(node));
+        }
+        else if (node.children != null)
+        {
+            for (Cluster<T> child : node.children)
+            {
+                if (child != null)
+                    this.collectClusters(child, level, range, result);
+            }
+        }
+        else
+        {
+            this.groupItems(node.items, level, range, result);
+        }
+    }
+
+    /**
+     * Forms the clusters of a level from the items of an undivided cell of a coarser level.
+     *
+     * @param items  the items of the undivided cell.
+     * @param level  the level of the clusters to form.
+     * @param range  the row and column range of the query at that level.
+     * @param result a collection to receive the clusters.
+     */
+    protected void groupItems(List<T> items, int level, int[] range, Collection<Cluster<T>> result)
+    {
+        List<Cluster<T>> groups = new ArrayList<Cluster<T>>(Math.min(items.size(), 4));
+        for (T item : items)
+        {
+            double[] location = this.locations.get(item);
+            int row = this.computeRow(level, location[0]);
+            int col = this.computeColumn(level, location[1]);
+            if (row < range[0] || row > range[1] || col < range[2] || col > range[3])
+                continue;
+
+            Cluster<T> group = null;
+            for (Cluster<T> g : groups)
+            {
+                if (g.row == row && g.column == col)
+                {
+                    group = g;
+                    break;
+                }
+            }
+
+            if (group == null)
+            {
+                group = new Cluster<T>(level, row, col);
+                group.representative = item;
+                group.representativeChanged = false;
+                groups.add(group);
+            }
+
+            group.count++;
+            group.latitudeSum += location[0];
+            group.longitudeSum += location[1];
+        }
+
+        result.addAll(groups);
+    }
+
+    protected void collectItems(Cluster<T> node, Collection<T> result)
+    {
+        if (node.children == null)
+        {
+            result.addAll(node.items);
+            return;
+        }
+
+        for (Cluster<T> child : node.children)
+        {
+            if (child != null)
+                this.collectItems(child, result);
+        }
+    }
+
+    /**
+     * Chooses the representative of a cluster if the cluster's items have changed since it was last chosen.
+     *
+     * @param cluster the cluster.
+     *
+     * @return the cluster, for convenience.
+     */
+    protected Cluster<T> updateRepresentative(Cluster<T> cluster)
+    {
+        if (!cluster.representativeChanged)
+            return cluster;
+
+        if (cluster.children == null)
+        {
+            cluster.representative = cluster.items.get(0);
+        }
+        else
+        {
+            Cluster<T> largest = null;
+            for (Cluster<T> child : cluster.children)
+            {
+                if (child != null && (largest == null || child.count > largest.count))
+                    largest = child;
+            }
+
+            cluster.representative = this.updateRepresentative(largest).representative;
+        }
+
+        cluster.representativeChanged = false;
+        return cluster;
+    }
+
+    protected int computeRow(int level, double latitude)
+    {
+        int row = (int) ((latitude + 90) / computeCellSize(level));
+        return Math.max(0, Math.min((1 << level) - 1, row));
+    }
+
+    protected int computeColumn(int level, double longitude)
+    {
+        int col = (int) ((longitude + 180) / computeCellSize(level));
+        return Math.max(0, Math.min((2 << level) - 1, col));
+    }
+
+    protected void checkLocation(double latitude, double longitude)
+    {
+        if (!(latitude >= -90 && latitude <= 90))
+        {
+            String message = Logging.getMessage("generic.LatitudeOutOfRange", latitude);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!(longitude >= -180 && longitude <= 180))
+        {
+            String message = Logging.getMessage("generic.LongitudeOutOfRange", longitude);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
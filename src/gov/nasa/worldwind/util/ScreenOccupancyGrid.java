@@ -0,0 +1,305 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.Arrays;
+
+/**
+ * Records the screen regions occupied by drawn items and finds the regions a candidate region intersects, in time
+ * proportional to the number of regions near the candidate rather than the number of regions recorded. Used by clutter
+ * filters to decide which labels and shapes to draw.
+ * <p>
+ * The viewport is divided into a uniform grid of square cells, and each region is listed in the cells it overlaps.
+ * Regions extending beyond the viewport are listed in the nearest edge cells, so regions off screen are handled
+ * correctly. The grid's storage is retained when it is reset, so a grid reused every frame allocates only when the
+ * number of regions grows.
+ * <p>
+ * Intersection follows {@link Rectangle2D#intersects(Rectangle2D)}: regions with zero width or height intersect
+ * nothing.
+ */
+public class ScreenOccupancyGrid
+{
+    /** The default cell size, in pixels. */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    protected final int cellSize;
+    protected double originX;
+    protected double originY;
+    protected int numColumns = 1;
+    protected int numRows = 1;
+    /** The first entry of each cell, valid only if the cell's stamp equals the current generation. */
+    protected int[] cellHeads = new int[1];
+    protected int[] cellStamps = new int[1];
+    protected int generation = 1;
+    /** The cell entries: the region each entry refers to and the next entry of the same cell. */
+    protected int[] entryRegions = new int[256];
+    protected int[] entryNext = new int[256];
+    protected int numEntries;
+    /** The regions, as minimum x, minimum y, maximum x and maximum y. */
+    protected double[] regions = new double[256];
+    protected int numRegions;
+
+    /** Constructs a grid with the default cell size. */
+    public ScreenOccupancyGrid()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a grid with a specified cell size. Cells about the size of the typical region give the fastest
+     * searches.
+     *
+     * @param cellSize the cell size, in pixels.
+     *
+     * @throws IllegalArgumentException if the cell size is less than 1.
+     */
+    public ScreenOccupancyGrid(int cellSize)
+    {
+        if (cellSize < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize=" + cellSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    public int getCellSize()
+    {
+        return this.cellSize;
+    }
+
+    /**
+     * Removes all regions and fits the grid to a viewport.
+     *
+     * @param viewport the viewport. May be null, in which case the grid has a single cell and searches are linear.
+     */
+    public void reset(Rectangle viewport)
+    {
+        this.numRegions = 0;
+        this.numEntries = 0;
+
+        if (viewport != null && viewport.width > 0 && viewport.height > 0)
+        {
+            this.originX = viewport.x;
+            this.originY = viewport.y;
+            this.numColumns = (viewport.width + this.cellSize - 1) / this.cellSize;
+            this.numRows = (viewport.height + this.cellSize - 1) / this.cellSize;
+        }
+        else
+        {
+            this.originX = 0;
+            this.originY = 0;
+            this.numColumns = 1;
+            this.numRows = 1;
+        }
+
+        int numCells = this.numColumns * this.numRows;
+        if (this.cellHeads.length < numCells)
+        {
+            this.cellHeads = new int[numCells];
+            this.cellStamps = new int[numCells];
+            this.generation = 1;
+        }
+        else if (++this.generation == Integer.MAX_VALUE)
+        {
+            // Stamps are about to wrap; clear them so that stale cells cannot match a future generation.
+            Arrays.fill(this.cellStamps, 0);
+            this.generation = 1;
+        }
+    }
+
+    /**
+     * Returns the number of regions added since the grid was last reset.
+     *
+     * @return the number of regions.
+     */
+    public int getRegionCount()
+    {
+        return this.numRegions;
+    }
+
+    /**
+     * Adds a region to the grid.
+     *
+     * @param region the region.
+     *
+     * @return the index of the region, counting from 0 at the last reset.
+     *
+     * @throws IllegalArgumentException if the region is null.
+     */
+    public int add(Rectangle2D region)
+    {
+        if (region == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.add(region.getX(), region.getY(), region.getWidth(), region.getHeight());
+    }
+
+    /**
+     * Adds a region to the grid.
+     *
+     * @param x      the region's minimum x coordinate.
+     * @param y      the region's minimum y coordinate.
+     * @param width  the region's width.
+     * @param height the region's height.
+     *
+     * @return the index of the region, counting from 0 at the last reset.
+     */
+    public int add(double x, double y, double width, double height)
+    {
+        int index = this.numRegions++;
+        if (this.regions.length < 4 * this.numRegions)
+            this.regions = Arrays.copyOf(this.regions, 2 * this.regions.length);
+
+        this.regions[4 * index] = x;
+        this.regions[4 * index + 1] = y;
+        this.regions[4 * index + 2] = x + width;
+        this.regions[4 * index + 3] = y + height;
+
+        // Empty regions intersect nothing, so they need not be listed in any cell.
+        if (!(width > 0 && height > 0))
+            return index;
+
+        int minCol = this.computeColumn(x);
+        int maxCol = this.computeColumn(x + width);
+        int minRow = this.computeRow(y);
+        int maxRow = this.computeRow(y + height);
+
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            for (int col = minCol; col <= maxCol; col++)
+            {
+                int cell = row * this.numColumns + col;
+                if (this.cellStamps[cell] != this.generation)
+                {
+                    this.cellStamps[cell] = this.generation;
+                    this.cellHeads[cell] = -1;
+                }
+
+                int entry = this.numEntries++;
+                if (this.entryRegions.length <= entry)
+                {
+                    this.entryRegions = Arrays.copyOf(this.entryRegions, 2 * this.entryRegions.length);
+                    this.entryNext = Arrays.copyOf(this.entryNext, 2 * this.entryNext.length);
+                }
+
+                this.entryRegions[entry] = index;
+                this.entryNext[entry] = this.cellHeads[cell];
+                this.cellHeads[cell] = entry;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Finds the earliest added region that intersects a specified region.
+     *
+     * @param region the region to test.
+     *
+     * @return the index of the intersecting region, or -1 if no region intersects it or the region is null.
+     */
+    public int findIntersecting(Rectangle2D region)
+    {
+        if (region == null)
+            return -1;
+
+        return this.findIntersecting(region.getX(), region.getY(), region.getWidth(), region.getHeight());
+    }
+
+    /**
+     * Finds the earliest added region that intersects a specified region.
+     *
+     * @param x      the region's minimum x coordinate.
+     * @param y      the region's minimum y coordinate.
+     * @param width  the region's width.
+     * @param height the region's height.
+     *
+     * @return the index of the intersecting region, or -1 if no region intersects it.
+     */
+    public int findIntersecting(double x, double y, double width, double height)
+    {
+        if (!(width > 0 && height > 0) || this.numRegions == 0)
+            return -1;
+
+        double maxX = x + width;
+        double maxY = y + height;
+        int minCol = this.computeColumn(x);
+        int maxCol = this.computeColumn(maxX);
+        int minRow = this.computeRow(y);
+        int maxRow = this.computeRow(maxY);
+
+        int found = -1;
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            for (int col = minCol; col <= maxCol; col++)
+            {
+                int cell = row * this.numColumns + col;
+                if (this.cellStamps[cell] != this.generation)
+                    continue;
+
+                for (int entry = this.cellHeads[cell]; entry >= 0; entry = this.entryNext[entry])
+                {
+                    int index = this.entryRegions[entry];
+                    if (found >= 0 && index >= found)
+                        continue;
+
+                    int i = 4 * index;
+                    if (x < this.regions[i + 2] && maxX > this.regions[i] && y < this.regions[i + 3]
+                        && maxY > this.regions[i + 1])
+                    {
+                        found = index;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    protected int computeColumn(double x)
+    {
+        int col = (int) Math.floor((x - this.originX) / this.cellSize);
+        return col < 0 ? 0 : col >= this.numColumns ? this.numColumns - 1 : col;
+    }
+
+    protected int computeRow(double y)
+    {
+        int row = (int) Math.floor((y - this.originY) / this.cellSize);
+        return row < 0 ? 0 : row >= this.numRows ? this.numRows - 1 : row;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Sector;
+
+import java.util.*;
+
+/**
+ * An immutable R-tree over a list of sectors, bulk loaded with the Sort-Tile-Recursive algorithm. The tree identifies
+ * each sector by its position in the list it was built from, and a query sets the bit of every position whose sector
+ * intersects a specified sector. Null entries in the list are not indexed and are never reported.
+ * <p>
+ * The tree is stored in flat arrays. Level 0 holds one entry per indexed sector, ordered so that neighbouring entries
+ * are spatially close, and each entry of a higher level bounds a run of at most <code>nodeCapacity</code> consecutive
+ * entries of the level below it. Intersection is tested as {@link Sector#intersects(Sector)} tests it, so a query
+ * reports exactly the sectors for which that method returns <code>true</code>.
+ * <p>
+ * Instances are safe to query from multiple threads.
+ */
+public class SectorRTree
+{
+    /** The default maximum number of children of a node: 16. */
+    public static final int DEFAULT_NODE_CAPACITY = 16;
+
+    protected final int nodeCapacity;
+    /** The minimum latitude, maximum latitude, minimum longitude and maximum longitude of each entry, in degrees. */
+    protected final double[] bounds;
+    /** The list position of each level 0 entry. */
+    protected final int[] items;
+    /** The index of the first entry of each level, followed by the total number of entries. */
+    protected final int[] levelStart;
+
+    /**
+     * Constructs a tree over the specified sectors with the default node capacity.
+     *
+     * @param sectors the sectors to index. Null entries are not indexed.
+     *
+     * @throws IllegalArgumentException if the list is null.
+     */
+    public SectorRTree(List<? extends Sector> sectors)
+    {
+        this(sectors, DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * Constructs a tree over the specified sectors.
+     *
+     * @param sectors      the sectors to index. Null entries are not indexed.
+     * @param nodeCapacity the maximum number of children of a node. Must be at least 2.
+     *
+     * @throws IllegalArgumentException if the list is null or the node capacity is less than 2.
+     */
+    public SectorRTree(List<? extends Sector> sectors, int nodeCapacity)
+    {
+        if (sectors == null)
+        {
+            String message = Logging.getMessage("nullValue.ListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (nodeCapacity < 2)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "nodeCapacity < 2");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.nodeCapacity = nodeCapacity;
+
+        int count = 0;
+        for (Sector sector : sectors)
+        {
+            if (sector != null)
+                count++;
+        }
+
+        this.items = new int[count];
+        final double[] centers = new double[2 * sectors.size()];
+        Integer[] order = new Integer[count];
+        for (int i = 0, j = 0; i < sectors.size(); i++)
+        {
+            Sector sector = sectors.get(i);
+            if (sector == null)
+                continue;
+
+            centers[2 * i] = 0.5 * (sector.getMinLatitude().degrees + sector.getMaxLatitude().degrees);
+            centers[2 * i + 1] = 0.5 * (sector.getMinLongitude().degrees + sector.getMaxLongitude().degrees);
+            order[j++] = i;
+        }
+
+        // Sort-Tile-Recursive packing: sort by longitude, cut into vertical slices holding about sqrt(numLeaves) leaf
+        // nodes each, then sort each slice by latitude so that each run of nodeCapacity entries is a compact tile.
+        int numLeaves = (count + nodeCapacity - 1) / nodeCapacity;
+        int sliceSize = nodeCapacity * (int) Math.ceil(Math.sqrt(numLeaves));
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            public int compare(Integer a, Integer b)
+            {
+                return Double.compare(centers[2 * a + 1], centers[2 * b + 1]);
+            }
+        });
+        for (int start = 0; start < count; start += sliceSize)
+        {
+            Arrays.sort(order, start, Math.min(start + sliceSize, count), new Comparator<Integer>()
+            {
+                public int compare(Integer a, Integer b)
+                {
+                    return Double.compare(centers[2 * a], centers[2 * b]);
+                }
+            });
+        }
+
+        // Count the entries of every level to size the arrays.
+        int numLevels = 0;
+        int numEntries = 0;
+        for (int size = count; size > 0; size = (size + nodeCapacity - 1) / nodeCapacity)
+        {
+            numLevels++;
+            numEntries += size;
+            if (size == 1)
+                break;
+        }
+
+        this.bounds = new double[4 * numEntries];
+        this.levelStart = new int[numLevels + 1];
+
+        for (int j = 0; j < count; j++)
+        {
+            Sector sector = sectors.get(order[j]);
+            this.items[j] = order[j];
+            this.bounds[4 * j] = sector.getMinLatitude().degrees;
+            this.bounds[4 * j + 1] = sector.getMaxLatitude().degrees;
+            this.bounds[4 * j + 2] = sector.getMinLongitude().degrees;
+            this.bounds[4 * j + 3] = sector.getMaxLongitude().degrees;
+        }
+
+        this.levelStart[0] = 0;
+        this.levelStart[numLevels > 0 ? 1 : 0] = count;
+        for (int level = 1; level < numLevels; level++)
+        {
+            int childStart = this.levelStart[level - 1];
+            int childEnd = this.levelStart[level];
+            int entry = childEnd;
+            for (int child = childStart; child < childEnd; child += nodeCapacity, entry++)
+            {
+                double minLat = Double.MAX_VALUE;
+                double maxLat = -Double.MAX_VALUE;
+                double minLon = Double.MAX_VALUE;
+                double maxLon = -Double.MAX_VALUE;
+                for (int k = child; k < Math.min(child + nodeCapacity, childEnd); k++)
+                {
+                    minLat = Math.min(minLat, this.bounds[4 * k]);
+                    maxLat = Math.max(maxLat, this.bounds[4 * k + 1]);
+                    minLon = Math.min(minLon, this.bounds[4 * k + 2]);
+                    maxLon = Math.max(maxLon, this.bounds[4 * k + 3]);
+                }
+
+                this.bounds[4 * entry] = minLat;
+                this.bounds[4 * entry + 1] = maxLat;
+                this.bounds[4 * entry + 2] = minLon;
+                this.bounds[4 * entry + 3] = maxLon;
+            }
+            this.levelStart[level + 1] = entry;
+        }
+    }
+
+    /**
+     * Indicates the maximum number of children of a node.
+     *
+     * @return the node capacity.
+     */
+    public int getNodeCapacity()
+    {
+        return this.nodeCapacity;
+    }
+
+    /**
+     * Indicates the number of sectors in this tree, which is the number of non-null entries in the list it was built
+     * from.
+     *
+     * @return the number of indexed sectors.
+     */
+    public int size()
+    {
+        return this.items.length;
+    }
+
+    /**
+     * Finds the indexed sectors intersecting a specified sector and sets the bits of their list positions in a
+     * specified bit set. Other bits of the set are left unchanged.
+     *
+     * @param sector the sector to intersect.
+     * @param result the bit set to receive the list positions of the intersecting sectors.
+     *
+     * @return the number of intersecting sectors.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public int query(Sector sector, BitSet result)
+    {
+        if (sector == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (result == null)
+        {
+            String message = Logging.getMessage("nullValue.ResultIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int numLevels = this.levelStart.length - 1;
+        if (numLevels == 0)
+            return 0;
+
+        return this.query(numLevels - 1, this.levelStart[numLevels - 1], sector.getMinLatitude().degrees,
+            sector.getMaxLatitude().degrees, sector.getMinLongitude().degrees, sector.getMaxLongitude().degrees,
+            result);
+    }
+
+    protected int query(int level, int entry, double minLat, double maxLat, double minLon, double maxLon,
+        BitSet result)
+    {
+        // The same comparisons as Sector.intersects, so that results match it exactly, including at shared edges.
+        int b = 4 * entry;
+        if (this.bounds[b + 3] < minLon || this.bounds[b + 2] > maxLon
+            || this.bounds[b + 1] < minLat || this.bounds[b] > maxLat)
+        {
+            return 0;
+        }
+
+        if (level == 0)
+        {
+            result.set(this.items[entry]);
+            return 1;
+        }
+
+        int first = this.levelStart[level - 1] + (entry - this.levelStart[level]) * this.nodeCapacity;
+        int last = Math.min(first + this.nodeCapacity, this.levelStart[level]);
+        int count = 0;
+        for (int child = first; child < last; child++)
+        {
+            count += this.query(level - 1, child, minLat, maxLat, minLon, maxLon, result);
+        }
+
+        return count;
+    }
+}
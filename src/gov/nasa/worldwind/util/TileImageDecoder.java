@@ -0,0 +1,568 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import com.jogamp.opengl.*;
+import com.jogamp.opengl.util.texture.TextureData;
+import gov.nasa.worldwind.formats.dds.*;
+
+import javax.imageio.*;
+import javax.imageio.stream.*;
+import java.awt.image.*;
+import java.io.*;
+import java.net.URL;
+import java.nio.*;
+import java.util.Iterator;
+
+/**
+ * TileImageDecoder decodes encoded tile images such as PNG and JPEG into direct buffers that are ready to be handed to
+ * OpenGL without further conversion. Decoding is intended to run on tile loading threads: it performs no OpenGL work,
+ * and the decoded pixels are written once, directly from the image reader's raster into a buffer drawn from a {@link
+ * DirectBufferPool}. The common raster layouts produced by ImageIO are uploaded in their native component order using
+ * the corresponding OpenGL pixel format, so no per-pixel swizzling is performed for them.
+ * <p>
+ * When compression attributes are specified the decoder compresses the image to DXT1 or DXT3 on the loading thread,
+ * which reduces texture memory and upload bandwidth at the cost of additional CPU time. Mipmaps for compressed images
+ * are built and compressed by the decoder when the attributes request them, since OpenGL cannot generate mipmaps for
+ * compressed textures.
+ * <p>
+ * Each decoder reuses a per-thread destination image for the image reader when consecutive tiles have the same
+ * dimensions and layout, and records decode and compression times in {@link TimingHistogram}s. The decoder is thread
+ * safe.
+ */
+public class TileImageDecoder
+{
+    /** Holds the pixels of a decoded tile image along with the OpenGL formats needed to upload them. */
+    public static class DecodedImage
+    {
+        protected final int width;
+        protected final int height;
+        protected final int internalFormat;
+        protected final int pixelFormat;
+        protected final int pixelType;
+        protected final boolean compressed;
+        protected final ByteBuffer buffer;
+        protected final Buffer[] mipmapData;
+        protected DirectBufferPool pool;
+
+        public DecodedImage(int width, int height, int internalFormat, int pixelFormat, int pixelType,
+            boolean compressed, ByteBuffer buffer, Buffer[] mipmapData, DirectBufferPool pool)
+        {
+            this.width = width;
+            this.height = height;
+            this.internalFormat = internalFormat;
+            this.pixelFormat = pixelFormat;
+            this.pixelType = pixelType;
+            this.compressed = compressed;
+            this.buffer = buffer;
+            this.mipmapData = mipmapData;
+            this.pool = pool;
+        }
+
+        public int getWidth()
+        {
+            return this.width;
+        }
+
+        public int getHeight()
+        {
+            return this.height;
+        }
+
+        public int getInternalFormat()
+        {
+            return this.internalFormat;
+        }
+
+        public int getPixelFormat()
+        {
+            return this.pixelFormat;
+        }
+
+        public int getPixelType()
+        {
+            return this.pixelType;
+        }
+
+        public boolean isCompressed()
+        {
+            return this.compressed;
+        }
+
+        /**
+         * Returns the buffer holding the decoded pixels. When the image has mipmaps, the buffer holds all mipmap levels
+         * consecutively, and {@link #getMipmapData()} returns a view of each level.
+         *
+         * @return the pixel buffer.
+         */
+        public ByteBuffer getBuffer()
+        {
+            return this.buffer;
+        }
+
+        /**
+         * Returns views of the individual mipmap levels, starting with level 0.
+         *
+         * @return the mipmap levels, or null if the image has no mipmaps.
+         */
+        public Buffer[] getMipmapData()
+        {
+            return this.mipmapData;
+        }
+
+        /**
+         * Returns the image's buffer to the pool it was drawn from. The image must not be used after it is released.
+         * Releasing an image more than once has no effect.
+         */
+        public synchronized void release()
+        {
+            if (this.pool != null)
+            {
+                this.pool.release(this.buffer);
+                this.pool = null;
+            }
+        }
+    }
+
+    protected final DirectBufferPool bufferPool;
+    protected final TimingHistogram decodeTimes = new TimingHistogram("Tile image decode");
+    protected final TimingHistogram compressionTimes = new TimingHistogram("Tile image compression");
+    protected final ThreadLocal<BufferedImage> destinationImage = new ThreadLocal<BufferedImage>();
+
+    /**
+     * Creates a decoder that draws its buffers from the specified pool.
+     *
+     * @param bufferPool the pool that provides buffers for decoded images.
+     *
+     * @throws IllegalArgumentException if the pool is null.
+     */
+    public TileImageDecoder(DirectBufferPool bufferPool)
+    {
+        if (bufferPool == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferPoolIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.bufferPool = bufferPool;
+    }
+
+    /** Creates a decoder that draws its buffers from the {@link DirectBufferPool#getSharedInstance() shared pool}. */
+    public TileImageDecoder()
+    {
+        this(DirectBufferPool.getSharedInstance());
+    }
+
+    public DirectBufferPool getBufferPool()
+    {
+        return this.bufferPool;
+    }
+
+    /**
+     * Returns the histogram of times spent decoding encoded images into raster form.
+     *
+     * @return the decode time histogram.
+     */
+    public TimingHistogram getDecodeTimes()
+    {
+        return this.decodeTimes;
+    }
+
+    /**
+     * Returns the histogram of times spent compressing decoded images to DXT.
+     *
+     * @return the compression time histogram.
+     */
+    public TimingHistogram getCompressionTimes()
+    {
+        return this.compressionTimes;
+    }
+
+    /**
+     * Decodes the image at a specified URL. If compression attributes are specified, the image is compressed to the
+     * DXT format specified by the attributes, or to DXT1 for opaque images and DXT3 for translucent images if the
+     * attributes do not specify a format. Compressed images include mipmaps if the attributes specify to build them.
+     * Uncompressed images never include mipmaps, since OpenGL can generate them during upload.
+     *
+     * @param url        the location of the encoded image.
+     * @param attributes the compression attributes. May be null to leave the image uncompressed.
+     *
+     * @return the decoded image, or null if no ImageIO reader recognizes the image's format.
+     *
+     * @throws IllegalArgumentException if the URL is null.
+     * @throws IOException              if an error occurs while reading the image.
+     */
+    public DecodedImage decode(URL url, DXTCompressionAttributes attributes) throws IOException
+    {
+        if (url == null)
+        {
+            String message = Logging.getMessage("nullValue.URLIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        File file = "file".equalsIgnoreCase(url.getProtocol()) ? WWIO.convertURLToFile(url) : null;
+        if (file != null)
+        {
+            ImageInputStream iis = ImageIO.createImageInputStream(file);
+            return iis != null ? this.decode(iis, attributes) : null;
+        }
+
+        InputStream stream = new BufferedInputStream(url.openStream());
+        try
+        {
+            return this.decode(stream, attributes);
+        }
+        finally
+        {
+            WWIO.closeStream(stream, url.toString());
+        }
+    }
+
+    /**
+     * Decodes an image from a stream. The stream is not closed. The stream is read into memory rather than through
+     * ImageIO's file cache.
+     *
+     * @param stream     the stream containing the encoded image.
+     * @param attributes the compression attributes. May be null to leave the image uncompressed.
+     *
+     * @return the decoded image, or null if no ImageIO reader recognizes the image's format.
+     *
+     * @throws IllegalArgumentException if the stream is null.
+     * @throws IOException              if an error occurs while reading the image.
+     */
+    public DecodedImage decode(InputStream stream, DXTCompressionAttributes attributes) throws IOException
+    {
+        if (stream == null)
+        {
+            String message = Logging.getMessage("nullValue.InputStreamIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.decode(new MemoryCacheImageInputStream(stream), attributes);
+    }
+
+    /**
+     * Decodes an image from an ImageIO stream, then closes the stream.
+     *
+     * @param iis        the stream containing the encoded image.
+     * @param attributes the compression attributes. May be null to leave the image uncompressed.
+     *
+     * @return the decoded image, or null if no ImageIO reader recognizes the image's format.
+     *
+     * @throws IOException if an error occurs while reading the image.
+     */
+    protected DecodedImage decode(ImageInputStream iis, DXTCompressionAttributes attributes) throws IOException
+    {
+        BufferedImage image;
+
+        long start = System.nanoTime();
+        try
+        {
+            image = this.readImage(iis);
+        }
+        finally
+        {
+            iis.close();
+        }
+
+        if (image == null)
+            return null;
+
+        DecodedImage decoded;
+        if (attributes != null)
+        {
+            this.decodeTimes.recordSince(start);
+            start = System.nanoTime();
+            decoded = this.compress(image, attributes);
+            this.compressionTimes.recordSince(start);
+        }
+        else
+        {
+            decoded = this.copyRaster(image);
+            this.decodeTimes.recordSince(start);
+        }
+
+        return decoded;
+    }
+
+    protected BufferedImage readImage(ImageInputStream iis) throws IOException
+    {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (!readers.hasNext())
+            return null;
+
+        ImageReader reader = readers.next();
+        try
+        {
+            reader.setInput(iis, true, true);
+            ImageReadParam param = reader.getDefaultReadParam();
+
+            // Read directly into this thread's destination image when the reader can produce the same layout. Tiles
+            // in a level set nearly always share dimensions and layout, so this avoids allocating a raster per tile.
+            BufferedImage destination = this.destinationImage.get();
+            if (destination != null && destination.getWidth() == reader.getWidth(0)
+                && destination.getHeight() == reader.getHeight(0)
+                && this.isSupportedDestinationType(reader, destination.getType()))
+            {
+                param.setDestination(destination);
+            }
+
+            BufferedImage image = reader.read(0, param);
+            if (image != destination && isReusableType(image.getType()))
+                this.destinationImage.set(image);
+
+            return image;
+        }
+        finally
+        {
+            reader.dispose();
+        }
+    }
+
+    protected boolean isSupportedDestinationType(ImageReader reader, int imageType) throws IOException
+    {
+        Iterator<ImageTypeSpecifier> iter = reader.getImageTypes(0);
+        while (iter.hasNext())
+        {
+            if (iter.next().getBufferedImageType() == imageType)
+                return true;
+        }
+
+        return false;
+    }
+
+    protected static boolean isReusableType(int imageType)
+    {
+        return imageType == BufferedImage.TYPE_4BYTE_ABGR
+            || imageType == BufferedImage.TYPE_3BYTE_BGR
+            || imageType == BufferedImage.TYPE_INT_ARGB
+            || imageType == BufferedImage.TYPE_INT_RGB
+            || imageType == BufferedImage.TYPE_BYTE_GRAY;
+    }
+
+    /**
+     * Copies an image's pixels into a pooled buffer in a layout that OpenGL accepts directly. Images whose rasters
+     * match an OpenGL pixel format are copied in bulk. All other images are converted to packed ARGB.
+     *
+     * @param image the image to copy.
+     *
+     * @return the decoded image.
+     */
+    protected DecodedImage copyRaster(BufferedImage image)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        DataBuffer data = image.getRaster().getDataBuffer();
+        boolean packedRaster = image.getRaster().getSampleModel() instanceof ComponentSampleModel
+            || image.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel;
+        ByteBuffer buffer;
+
+        switch (packedRaster && data.getNumBanks() == 1 ? image.getType() : BufferedImage.TYPE_CUSTOM)
+        {
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                buffer = this.bufferPool.acquire(4 * width * height);
+                buffer.put(((DataBufferByte) data).getData(), 0, 4 * width * height).rewind();
+                // The bytes are A, B, G, R. Read as a native order int this is RGBA in one of the two packed orders.
+                return new DecodedImage(width, height, GL.GL_RGBA8, GL.GL_RGBA,
+                    ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? GL2.GL_UNSIGNED_INT_8_8_8_8
+                        : GL2.GL_UNSIGNED_INT_8_8_8_8_REV, false, buffer, null, this.bufferPool);
+
+            case BufferedImage.TYPE_3BYTE_BGR:
+                buffer = this.bufferPool.acquire(3 * width * height);
+                buffer.put(((DataBufferByte) data).getData(), 0, 3 * width * height).rewind();
+                return new DecodedImage(width, height, GL.GL_RGB8, GL2.GL_BGR, GL.GL_UNSIGNED_BYTE, false, buffer,
+                    null, this.bufferPool);
+
+            case BufferedImage.TYPE_BYTE_GRAY:
+                buffer = this.bufferPool.acquire(width * height);
+                buffer.put(((DataBufferByte) data).getData(), 0, width * height).rewind();
+                return new DecodedImage(width, height, GL2.GL_LUMINANCE8, GL2.GL_LUMINANCE, GL.GL_UNSIGNED_BYTE, false,
+                    buffer, null, this.bufferPool);
+
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_RGB:
+                buffer = this.bufferPool.acquire(4 * width * height);
+                buffer.asIntBuffer().put(((DataBufferInt) data).getData(), 0, width * height);
+                return new DecodedImage(width, height,
+                    image.getType() == BufferedImage.TYPE_INT_RGB ? GL.GL_RGB8 : GL.GL_RGBA8, GL.GL_BGRA,
+                    GL2.GL_UNSIGNED_INT_8_8_8_8_REV, false, buffer, null, this.bufferPool);
+
+            default:
+                buffer = this.bufferPool.acquire(4 * width * height);
+                IntBuffer pixels = buffer.asIntBuffer();
+                int[] row = new int[width];
+                for (int y = 0; y < height; y++)
+                {
+                    image.getRGB(0, y, width, 1, row, 0, width);
+                    pixels.put(row);
+                }
+                return new DecodedImage(width, height,
+                    image.getColorModel().hasAlpha() ? GL.GL_RGBA8 : GL.GL_RGB8, GL.GL_BGRA,
+                    GL2.GL_UNSIGNED_INT_8_8_8_8_REV, false, buffer, null, this.bufferPool);
+        }
+    }
+
+    /**
+     * Compresses an image to DXT into a pooled buffer, including a full mipmap chain if the attributes specify to
+     * build mipmaps and the image has power of two dimensions.
+     *
+     * @param image      the image to compress.
+     * @param attributes the compression attributes.
+     *
+     * @return the compressed image.
+     */
+    protected DecodedImage compress(BufferedImage image, DXTCompressionAttributes attributes)
+    {
+        DXTCompressor compressor = this.createCompressor(image, attributes);
+
+        BufferedImage[] levels = attributes.isBuildMipmaps() && WWMath.isPowerOfTwo(image.getWidth())
+            && WWMath.isPowerOfTwo(image.getHeight())
+            ? ImageUtil.buildMipmaps(image, BufferedImage.TYPE_INT_ARGB_PRE,
+            ImageUtil.getMaxMipmapLevel(image.getWidth(), image.getHeight()))
+            : new BufferedImage[] {image};
+
+        int size = 0;
+        for (BufferedImage level : levels)
+        {
+            size += compressor.getCompressedSize(level, attributes);
+        }
+
+        // DXT blocks are little endian regardless of the platform's byte order.
+        ByteBuffer buffer = this.bufferPool.acquire(size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        Buffer[] mipmapData = levels.length > 1 ? new Buffer[levels.length] : null;
+        for (int i = 0; i < levels.length; i++)
+        {
+            int levelStart = buffer.position();
+            compressor.compressImage(levels[i], attributes, buffer);
+
+            if (mipmapData != null)
+            {
+                ByteBuffer levelBuffer = buffer.duplicate();
+                levelBuffer.position(levelStart).limit(buffer.position());
+                mipmapData[i] = levelBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        buffer.rewind();
+        buffer.order(ByteOrder.nativeOrder());
+
+        int format;
+        if (compressor.getDXTFormat() == DDSConstants.D3DFMT_DXT1)
+        {
+            format = image.getColorModel().hasAlpha() && attributes.isEnableDXT1Alpha()
+                ? GL.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT : GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+        }
+        else
+        {
+            format = GL.GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+        }
+
+        return new DecodedImage(image.getWidth(), image.getHeight(), format, format, GL.GL_UNSIGNED_BYTE, true,
+            buffer, mipmapData, this.bufferPool);
+    }
+
+    protected DXTCompressor createCompressor(BufferedImage image, DXTCompressionAttributes attributes)
+    {
+        if (attributes.getDXTFormat() == DDSConstants.D3DFMT_DXT1)
+            return new DXT1Compressor();
+        else if (attributes.getDXTFormat() == DDSConstants.D3DFMT_DXT2
+            || attributes.getDXTFormat() == DDSConstants.D3DFMT_DXT3)
+            return new DXT3Compressor();
+        else
+            return image.getColorModel().hasAlpha() ? new DXT3Compressor() : new DXT1Compressor();
+    }
+
+    /**
+     * Creates texture data for a decoded image. Does no OpenGL work. The returned texture data returns the image's
+     * buffer to its pool when the texture data is flushed, which {@link gov.nasa.worldwind.layers.TextureTile} does
+     * once the texture has been created.
+     *
+     * @param glp        the OpenGL profile the texture data is created for.
+     * @param image      the decoded image.
+     * @param useMipMaps true to have OpenGL generate mipmaps for uncompressed images when the texture is created.
+     *
+     * @return texture data referencing the decoded image's buffer.
+     *
+     * @throws IllegalArgumentException if the image is null.
+     */
+    public TextureData createTextureData(GLProfile glp, final DecodedImage image, boolean useMipMaps)
+    {
+        if (image == null)
+        {
+            String message = Logging.getMessage("nullValue.ImageIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        TextureData.Flusher flusher = new TextureData.Flusher()
+        {
+            public void flush()
+            {
+                image.release();
+            }
+        };
+
+        // ImageIO rasters and the DXT compressor both store the top row first, so the texture must be flipped.
+        if (image.getMipmapData() != null)
+        {
+            return new TextureData(glp, image.getInternalFormat(), image.getWidth(), image.getHeight(), 0,
+                image.getPixelFormat(), image.getPixelType(), image.isCompressed(), true, image.getMipmapData(),
+                flusher);
+        }
+        else
+        {
+            return new TextureData(glp, image.getInternalFormat(), image.getWidth(), image.getHeight(), 0,
+                image.getPixelFormat(), image.getPixelType(), useMipMaps && !image.isCompressed(),
+                image.isCompressed(), true, image.getBuffer(), flusher);
+        }
+    }
+
+    /**
+     * Decodes an image from a stream and returns texture data for it. Does no OpenGL work. The stream is not closed.
+     *
+     * @param glp        the OpenGL profile the texture data is created for.
+     * @param stream     the stream containing the encoded image.
+     * @param attributes the compression attributes. May be null to leave the image uncompressed.
+     * @param useMipMaps true to have OpenGL generate mipmaps for uncompressed images.
+     *
+     * @return the texture data, or null if no ImageIO reader recognizes the image's format.
+     *
+     * @throws IOException if an error occurs while reading the image.
+     */
+    public TextureData readTextureData(GLProfile glp, InputStream stream, DXTCompressionAttributes attributes,
+        boolean useMipMaps) throws IOException
+    {
+        DecodedImage image = this.decode(stream, attributes);
+        return image != null ? this.createTextureData(glp, image, useMipMaps) : null;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * TimingHistogram accumulates a distribution of elapsed times in logarithmically sized buckets. Bucket <code>i</code>
+ * counts durations in the range [2<sup>i</sup>, 2<sup>i+1</sup>) microseconds, except for bucket 0 which counts all
+ * durations less than two microseconds. Recording a sample is lock free and does not allocate, so a histogram may be
+ * shared by any number of threads and updated from performance sensitive code.
+ */
+public class TimingHistogram
+{
+    /** The number of buckets, which covers durations up to roughly 2<sup>31</sup> microseconds (about 36 minutes). */
+    public static final int NUM_BUCKETS = 32;
+
+    protected final String name;
+    protected final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    protected final AtomicLong count = new AtomicLong();
+    protected final AtomicLong totalNanos = new AtomicLong();
+    protected final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Creates a new histogram with the specified display name.
+     *
+     * @param name the histogram's name, used when the histogram is displayed. May be null.
+     */
+    public TimingHistogram(String name)
+    {
+        this.name = name;
+    }
+
+    /** Creates a new unnamed histogram. */
+    public TimingHistogram()
+    {
+        this(null);
+    }
+
+    /**
+     * Returns the histogram's display name.
+     *
+     * @return the histogram's name, or null if none was specified.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Returns the bucket index for a specified duration.
+     *
+     * @param nanos the duration, in nanoseconds.
+     *
+     * @return the index of the bucket that counts the duration.
+     */
+    public static int bucketFor(long nanos)
+    {
+        long micros = nanos / 1000L;
+        if (micros <= 1)
+            return 0;
+
+        int index = 63 - Long.numberOfLeadingZeros(micros);
+        return Math.min(index, NUM_BUCKETS - 1);
+    }
+
+    /**
+     * Returns the lower bound of a specified bucket, in microseconds.
+     *
+     * @param bucket the bucket index.
+     *
+     * @return the smallest duration counted by the bucket, in microseconds.
+     */
+    public static long bucketLowerBoundMicros(int bucket)
+    {
+        return bucket == 0 ? 0 : 1L << bucket;
+    }
+
+    /**
+     * Adds a duration to the histogram. Negative durations are ignored.
+     *
+     * @param nanos the duration, in nanoseconds.
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+            return;
+
+        this.buckets.incrementAndGet(bucketFor(nanos));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(nanos);
+
+        long max;
+        while (nanos > (max = this.maxNanos.get()))
+        {
+            if (this.maxNanos.compareAndSet(max, nanos))
+                break;
+        }
+    }
+
+    /**
+     * Adds the duration between a start time and the current time to the histogram.
+     *
+     * @param startNanos the start time, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos)
+    {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of durations recorded since the histogram was created or last reset.
+     *
+     * @return the sample count.
+     */
+    public long getCount()
+    {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded durations.
+     *
+     * @return the total recorded time, in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+        return this.totalNanos.get();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum recorded time, in nanoseconds, or 0 if no durations have been recorded.
+     */
+    public long getMaxNanos()
+    {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of all recorded durations.
+     *
+     * @return the mean recorded time, in nanoseconds, or 0 if no durations have been recorded.
+     */
+    public double getMeanNanos()
+    {
+        long n = this.count.get();
+        return n > 0 ? (double) this.totalNanos.get() / n : 0;
+    }
+
+    /**
+     * Returns a snapshot of the bucket counts. The array is a copy; modifying it does not affect the histogram.
+     *
+     * @return the number of durations counted in each bucket.
+     */
+    public long[] getBucketCounts()
+    {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            counts[i] = this.buckets.get(i);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Returns an upper estimate of the duration below which a specified fraction of the recorded durations fall. The
+     * estimate is the upper bound of the bucket containing the requested percentile.
+     *
+     * @param fraction the percentile as a fraction in the range [0, 1], e.g. 0.99 for the 99th percentile.
+     *
+     * @return the estimated percentile, in microseconds, or 0 if no durations have been recorded.
+     *
+     * @throws IllegalArgumentException if the fraction is outside the range [0, 1].
+     */
+    public long getPercentileMicros(double fraction)
+    {
+        if (fraction < 0 || fraction > 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", fraction);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        long[] counts = this.getBucketCounts();
+        long total = 0;
+        for (long c : counts)
+        {
+            total += c;
+        }
+
+        if (total == 0)
+            return 0;
+
+        long threshold = (long) Math.ceil(fraction * total);
+        long cumulative = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            cumulative += counts[i];
+            if (cumulative >= threshold && counts[i] > 0)
+                return bucketLowerBoundMicros(i + 1);
+        }
+
+        return bucketLowerBoundMicros(NUM_BUCKETS);
+    }
+
+    /** Removes all recorded durations from the histogram. */
+    public void reset()
+    {
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            this.buckets.set(i, 0);
+        }
+
+        this.count.set(0);
+        this.totalNanos.set(0);
+        this.maxNanos.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        if (this.name != null)
+            sb.append(this.name).append(": ");
+
+        sb.append(String.format("count=%d, mean=%.1fus, p50<%dus, p90<%dus, p99<%dus, max=%.1fus",
+            this.getCount(), this.getMeanNanos() / 1e3, this.getPercentileMicros(0.5), this.getPercentileMicros(0.9),
+            this.getPercentileMicros(0.99), this.getMaxNanos() / 1e3));
+
+        return sb.toString();
+    }
+}
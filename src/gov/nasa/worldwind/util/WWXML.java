@@ -33,6 +33,7 @@ import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.xml.CursorXMLEventReader;
 import org.w3c.dom.*;
 import org.xml.sax.SAXException;
 
@@ -410,6 +411,46 @@ public class WWXML
         return openEventReaderStream(inputStream, true);
     }
 
+    /**
+     * Opens an XML event stream given an input stream, and a namespace-aware processing mode. The returned reader is a
+     * {@link gov.nasa.worldwind.util.xml.CursorXMLEventReader}, which reads the stream with an {@link XMLStreamReader}
+     * and reports only the events {@link gov.nasa.worldwind.util.xml.XMLEventParser}s use. Parsing a document through
+     * it produces the same result as parsing through the reader returned by {@link
+     * #openEventReaderStream(java.io.InputStream, boolean)} while creating far fewer objects.
+     *
+     * @param inputStream      an XML document as an input stream.
+     * @param isNamespaceAware true to enable namespace-aware processing and false to disable it.
+     *
+     * @return an XMLEventReader for the stream content.
+     *
+     * @throws IllegalArgumentException if the input stream is null.
+     * @throws WWRuntimeException       if an exception or error occurs while parsing the stream. The causing exception
+     *                                  is included in this exception's {@link Throwable#initCause(Throwable)}
+     */
+    public static XMLEventReader openCursorEventReaderStream(InputStream inputStream, boolean isNamespaceAware)
+    {
+        if (inputStream == null)
+        {
+            String message = Logging.getMessage("nullValue.InputStreamIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, isNamespaceAware);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+
+        try
+        {
+            return new CursorXMLEventReader(inputFactory.createXMLStreamReader(inputStream));
+        }
+        catch (XMLStreamException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToParseXml", inputStream);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+
     /**
      * Opens an XML event stream given the file's location in the file system or on the classpath.
      *
@@ -108,6 +108,17 @@ abstract public class AbstractXMLEventParser implements XMLEventParser
         return null;
     }
 
+    /**
+     * Creates the attribute-value list holding this parser's fields. Documents can contain very many elements, so this
+     * returns a {@link CompactAVListImpl}. Subclasses may override this method to select a different implementation.
+     *
+     * @return a new, empty field list.
+     */
+    protected AVList createFields()
+    {
+        return new CompactAVListImpl();
+    }
+
     public void setField(QName keyName, Object value)
     {
         this.setField(keyName.getLocalPart(), value);
@@ -116,7 +127,7 @@ abstract public class AbstractXMLEventParser implements XMLEventParser
     public void setField(String keyName, Object value)
     {
         if (this.fields == null)
-            this.fields = new AVListImpl();
+            this.fields = this.createFields();
 
         this.fields.setValue(keyName, value);
     }
@@ -124,7 +135,7 @@ abstract public class AbstractXMLEventParser implements XMLEventParser
     public void setFields(Map<String, Object> newFields)
     {
         if (this.fields == null)
-            this.fields = new AVListImpl();
+            this.fields = this.createFields();
 
         for (Map.Entry<String, Object> nf : newFields.entrySet())
         {
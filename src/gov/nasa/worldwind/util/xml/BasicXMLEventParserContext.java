@@ -164,18 +164,18 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
      */
     protected void initializeParsers()
     {
-        this.parsers.put(STRING, new StringXMLEventParser());
-        this.parsers.put(DOUBLE, new DoubleXMLEventParser());
-        this.parsers.put(INTEGER, new IntegerXMLEventParser());
-        this.parsers.put(BOOLEAN, new BooleanXMLEventParser());
-        this.parsers.put(BOOLEAN_INTEGER, new BooleanIntegerXMLEventParser());
-        this.parsers.put(UNRECOGNIZED, new UnrecognizedXMLEventParser(null));
+        this.parsers.put(STRING, new FactoryXMLEventParser(StringXMLEventParser::new));
+        this.parsers.put(DOUBLE, new FactoryXMLEventParser(DoubleXMLEventParser::new));
+        this.parsers.put(INTEGER, new FactoryXMLEventParser(IntegerXMLEventParser::new));
+        this.parsers.put(BOOLEAN, new FactoryXMLEventParser(BooleanXMLEventParser::new));
+        this.parsers.put(BOOLEAN_INTEGER, new FactoryXMLEventParser(BooleanIntegerXMLEventParser::new));
+        this.parsers.put(UNRECOGNIZED, new FactoryXMLEventParser(() -> new UnrecognizedXMLEventParser(null)));
     }
 
     @Override
     public void addStringParsers(String namespace, String[] stringFields)
     {
-        StringXMLEventParser stringParser = this.getStringParser();
+        XMLEventParser stringParser = this.getParserEntry(STRING, this.getStringParser());
         for (String s : stringFields)
         {
             this.parsers.put(new QName(namespace, s), stringParser);
@@ -185,7 +185,7 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
     @Override
     public void addDoubleParsers(String namespace, String[] doubleFields)
     {
-        DoubleXMLEventParser doubleParser = this.getDoubleParser();
+        XMLEventParser doubleParser = this.getParserEntry(DOUBLE, this.getDoubleParser());
         for (String s : doubleFields)
         {
             this.parsers.put(new QName(namespace, s), doubleParser);
@@ -195,7 +195,7 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
     @Override
     public void addIntegerParsers(String namespace, String[] integerFields)
     {
-        IntegerXMLEventParser integerParser = this.getIntegerParser();
+        XMLEventParser integerParser = this.getParserEntry(INTEGER, this.getIntegerParser());
         for (String s : integerFields)
         {
             this.parsers.put(new QName(namespace, s), integerParser);
@@ -205,7 +205,7 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
     @Override
     public void addBooleanParsers(String namespace, String[] booleanFields)
     {
-        BooleanXMLEventParser booleanParser = this.getBooleanParser();
+        XMLEventParser booleanParser = this.getParserEntry(BOOLEAN, this.getBooleanParser());
         for (String s : booleanFields)
         {
             this.parsers.put(new QName(namespace, s), booleanParser);
@@ -215,7 +215,7 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
     @Override
     public void addBooleanIntegerParsers(String namespace, String[] booleanIntegerFields)
     {
-        BooleanIntegerXMLEventParser booleanIntegerParser = this.getBooleanIntegerParser();
+        XMLEventParser booleanIntegerParser = this.getParserEntry(BOOLEAN_INTEGER, this.getBooleanIntegerParser());
         for (String s : booleanIntegerFields)
         {
             this.parsers.put(new QName(namespace, s), booleanIntegerParser);
@@ -499,6 +499,43 @@ public class BasicXMLEventParserContext extends AVListImpl implements XMLEventPa
         this.parsers.put(elementName, parser);
     }
 
+    /**
+     * Registers a factory to create the parsers for an element type. Parsers for the element type are then created by
+     * the factory rather than by reflection from a prototype parser.
+     *
+     * @param elementName the element type's name.
+     * @param factory     the factory that creates parsers for the element type.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public void registerParserFactory(QName elementName, XMLEventParserFactory factory)
+    {
+        if (factory == null)
+        {
+            String message = Logging.getMessage("nullValue.FactoryIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.registerParser(elementName, new FactoryXMLEventParser(factory));
+    }
+
+    /**
+     * Returns the entry in the parser table for an element name. The entry is the parser or factory the context uses to
+     * create parsers for the element, and may be registered under other names to share it.
+     *
+     * @param name          the element name.
+     * @param defaultParser the parser to return if the table has no entry for the name.
+     *
+     * @return the table entry, or the default parser if there is no entry.
+     */
+    protected XMLEventParser getParserEntry(QName name, XMLEventParser defaultParser)
+    {
+        XMLEventParser parser = this.parsers.get(name);
+
+        return parser != null ? parser : defaultParser;
+    }
+
     public XMLEventParser getParser(QName name)
     {
         if (name == null)
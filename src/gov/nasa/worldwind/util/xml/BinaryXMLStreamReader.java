@@ -0,0 +1,603 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.util.Logging;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.*;
+import javax.xml.stream.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * An {@link XMLStreamReader} that reads a document recorded by {@link BinaryXMLWriter}, typically from a memory-mapped
+ * file. Names are read from the recording's string table and text is copied from its character section, so reading
+ * involves no XML lexing, character decoding or entity handling. Wrap the reader in a {@link CursorXMLEventReader} to
+ * parse the document with {@link XMLEventParser}s.
+ * <p>
+ * The reader reports start elements, end elements, character data and the end of the document. Whitespace, comments
+ * and processing instructions are reported only if they were recorded, and namespace declarations are not reported.
+ * Locations are unknown.
+ */
+public class BinaryXMLStreamReader implements XMLStreamReader, XMLStreamConstants
+{
+    protected static final Location UNKNOWN_LOCATION = new Location()
+    {
+        public int getLineNumber()
+        {
+            return -1;
+        }
+
+        public int getColumnNumber()
+        {
+            return -1;
+        }
+
+        public int getCharacterOffset()
+        {
+            return -1;
+        }
+
+        public String getPublicId()
+        {
+            return null;
+        }
+
+        public String getSystemId()
+        {
+            return null;
+        }
+    };
+
+    protected final String key;
+    protected final long lastModified;
+    protected final ByteBuffer tokens;
+    protected final CharBuffer chars;
+    protected final List<String> strings = new ArrayList<String>();
+    /** String indexes of the namespace, local name and prefix of each open element. */
+    protected int[] elementStack = new int[3 * 32];
+    protected int depth;
+    protected int eventType = START_DOCUMENT;
+    /** Namespace, local name, prefix, value offset and value length of each of the current element's attributes. */
+    protected int[] attributes = new int[5 * 8];
+    protected int attributeCount;
+    protected char[] text = new char[1024];
+    protected int textLength;
+
+    /**
+     * Creates a reader for a recording.
+     *
+     * @param buffer the recording, positioned at its start. The buffer's position is not modified.
+     *
+     * @throws IllegalArgumentException if the buffer is null.
+     * @throws XMLStreamException       if the buffer does not hold a recording of a supported version.
+     */
+    public BinaryXMLStreamReader(ByteBuffer buffer) throws XMLStreamException
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try
+        {
+            if (header.getInt() != BinaryXMLWriter.MAGIC || header.getInt() != BinaryXMLWriter.VERSION)
+                throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"));
+
+            this.lastModified = header.getLong();
+            char[] keyChars = new char[header.getInt()];
+            header.asCharBuffer().get(keyChars);
+            header.position(header.position() + 2 * keyChars.length);
+            this.key = new String(keyChars);
+
+            int numTokenBytes = header.getInt();
+            int numChars = header.getInt();
+
+            this.tokens = header.slice();
+            this.tokens.limit(numTokenBytes);
+            header.position(header.position() + numTokenBytes);
+            this.chars = header.slice().asCharBuffer();
+            this.chars.limit(numChars);
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"), e);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"), e);
+        }
+    }
+
+    /**
+     * Returns the key of the document this recording was made from.
+     *
+     * @return the document's key.
+     */
+    public String getKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * Returns the modification time of the document this recording was made from.
+     *
+     * @return the document's modification time.
+     */
+    public long getLastModified()
+    {
+        return this.lastModified;
+    }
+
+    public int next() throws XMLStreamException
+    {
+        if (this.eventType == END_DOCUMENT)
+            throw new NoSuchElementException();
+
+        if (this.eventType == END_ELEMENT)
+            this.depth--;
+
+        try
+        {
+            while (true)
+            {
+                byte tag = this.tokens.get();
+                switch (tag)
+                {
+                    case BinaryXMLWriter.TAG_STRING:
+                        this.strings.add(this.readString(this.tokens.getInt(), this.tokens.getInt()));
+                        break;
+                    case BinaryXMLWriter.TAG_START_ELEMENT:
+                        this.readStartElement();
+                        return this.eventType = START_ELEMENT;
+                    case BinaryXMLWriter.TAG_END_ELEMENT:
+                        if (this.depth == 0)
+                            throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"));
+                        this.attributeCount = 0;
+                        return this.eventType = END_ELEMENT;
+                    case BinaryXMLWriter.TAG_CHARACTERS:
+                        this.readText(this.tokens.getInt(), this.tokens.getInt());
+                        return this.eventType = CHARACTERS;
+                    case BinaryXMLWriter.TAG_END_DOCUMENT:
+                        return this.eventType = END_DOCUMENT;
+                    default:
+                        throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"));
+                }
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"), e);
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            throw new XMLStreamException(Logging.getMessage("XML.UnrecognizedBinaryFormat"), e);
+        }
+    }
+
+    protected void readStartElement()
+    {
+        if (3 * (this.depth + 1) > this.elementStack.length)
+            this.elementStack = Arrays.copyOf(this.elementStack, 2 * this.elementStack.length);
+
+        int base = 3 * this.depth++;
+        this.elementStack[base] = this.tokens.getInt();
+        this.elementStack[base + 1] = this.tokens.getInt();
+        this.elementStack[base + 2] = this.tokens.getInt();
+
+        this.attributeCount = this.tokens.getInt();
+        if (5 * this.attributeCount > this.attributes.length)
+            this.attributes = new int[5 * this.attributeCount];
+
+        for (int i = 0; i < 5 * this.attributeCount; i++)
+        {
+            this.attributes[i] = this.tokens.getInt();
+        }
+    }
+
+    protected String readString(int offset, int length)
+    {
+        this.chars.position(offset);
+        char[] buffer = new char[length];
+        this.chars.get(buffer);
+        return new String(buffer);
+    }
+
+    protected void readText(int offset, int length)
+    {
+        if (length > this.text.length)
+            this.text = new char[Math.max(length, 2 * this.text.length)];
+
+        this.chars.position(offset);
+        this.chars.get(this.text, 0, length);
+        this.textLength = length;
+    }
+
+    protected String getString(int index)
+    {
+        return this.strings.get(index);
+    }
+
+    public boolean hasNext()
+    {
+        return this.eventType != END_DOCUMENT;
+    }
+
+    public int getEventType()
+    {
+        return this.eventType;
+    }
+
+    public String getElementText() throws XMLStreamException
+    {
+        if (this.eventType != START_ELEMENT)
+            throw new XMLStreamException(Logging.getMessage("XML.ExpectedStartElement"));
+
+        StringBuilder sb = new StringBuilder();
+        for (int type = this.next(); type != END_ELEMENT; type = this.next())
+        {
+            if (type == CHARACTERS)
+                sb.append(this.text, 0, this.textLength);
+            else
+                throw new XMLStreamException(Logging.getMessage("XML.ExpectedTextOnlyContent"));
+        }
+
+        return sb.toString();
+    }
+
+    public int nextTag() throws XMLStreamException
+    {
+        int type = this.next();
+        while (type == CHARACTERS && this.isWhiteSpace())
+        {
+            type = this.next();
+        }
+
+        if (type != START_ELEMENT && type != END_ELEMENT)
+            throw new XMLStreamException(Logging.getMessage("XML.ExpectedStartOrEndElement"));
+
+        return type;
+    }
+
+    public void require(int type, String namespaceURI, String localName) throws XMLStreamException
+    {
+        if (type != this.eventType
+            || (namespaceURI != null && !namespaceURI.equals(this.getNamespaceURI()))
+            || (localName != null && !localName.equals(this.getLocalName())))
+        {
+            throw new XMLStreamException(Logging.getMessage("XML.UnexpectedEvent", type));
+        }
+    }
+
+    public Object getProperty(String name)
+    {
+        return null;
+    }
+
+    public void close()
+    {
+    }
+
+    public boolean isStartElement()
+    {
+        return this.eventType == START_ELEMENT;
+    }
+
+    public boolean isEndElement()
+    {
+        return this.eventType == END_ELEMENT;
+    }
+
+    public boolean isCharacters()
+    {
+        return this.eventType == CHARACTERS;
+    }
+
+    public boolean isWhiteSpace()
+    {
+        if (this.eventType != CHARACTERS)
+            return false;
+
+        for (int i = 0; i < this.textLength; i++)
+        {
+            char c = this.text[i];
+            if (c != ' ' && c != '\n' && c != '\t' && c != '\r')
+                return false;
+        }
+
+        return true;
+    }
+
+    //**************************************************************//
+    //********************  Names  *********************************//
+    //**************************************************************//
+
+    protected int currentElement(int field)
+    {
+        if (this.eventType != START_ELEMENT && this.eventType != END_ELEMENT)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedStartOrEndElement"));
+
+        return this.elementStack[3 * (this.depth - 1) + field];
+    }
+
+    public QName getName()
+    {
+        return new QName(this.getString(this.currentElement(0)), this.getLocalName(), this.getPrefix());
+    }
+
+    public String getLocalName()
+    {
+        return this.getString(this.currentElement(1));
+    }
+
+    public boolean hasName()
+    {
+        return this.eventType == START_ELEMENT || this.eventType == END_ELEMENT;
+    }
+
+    public String getNamespaceURI()
+    {
+        String namespaceURI = this.getString(this.currentElement(0));
+        return namespaceURI.length() > 0 ? namespaceURI : null;
+    }
+
+    public String getPrefix()
+    {
+        return this.getString(this.currentElement(2));
+    }
+
+    //**************************************************************//
+    //********************  Attributes  ****************************//
+    //**************************************************************//
+
+    protected int attribute(int index, int field)
+    {
+        if (this.eventType != START_ELEMENT)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedStartElement"));
+
+        if (index < 0 || index >= this.attributeCount)
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+
+        return this.attributes[5 * index + field];
+    }
+
+    public int getAttributeCount()
+    {
+        if (this.eventType != START_ELEMENT)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedStartElement"));
+
+        return this.attributeCount;
+    }
+
+    public QName getAttributeName(int index)
+    {
+        return new QName(this.getString(this.attribute(index, 0)), this.getAttributeLocalName(index),
+            this.getAttributePrefix(index));
+    }
+
+    public String getAttributeNamespace(int index)
+    {
+        String namespaceURI = this.getString(this.attribute(index, 0));
+        return namespaceURI.length() > 0 ? namespaceURI : null;
+    }
+
+    public String getAttributeLocalName(int index)
+    {
+        return this.getString(this.attribute(index, 1));
+    }
+
+    public String getAttributePrefix(int index)
+    {
+        return this.getString(this.attribute(index, 2));
+    }
+
+    public String getAttributeType(int index)
+    {
+        this.attribute(index, 0);
+        return "CDATA";
+    }
+
+    public String getAttributeValue(int index)
+    {
+        return this.readString(this.attribute(index, 3), this.attribute(index, 4));
+    }
+
+    public boolean isAttributeSpecified(int index)
+    {
+        this.attribute(index, 0);
+        return true;
+    }
+
+    public String getAttributeValue(String namespaceURI, String localName)
+    {
+        for (int i = 0; i < this.getAttributeCount(); i++)
+        {
+            if (localName.equals(this.getAttributeLocalName(i))
+                && (namespaceURI == null || namespaceURI.equals(this.getString(this.attribute(i, 0)))))
+            {
+                return this.getAttributeValue(i);
+            }
+        }
+
+        return null;
+    }
+
+    //**************************************************************//
+    //********************  Namespaces  ****************************//
+    //**************************************************************//
+
+    public int getNamespaceCount()
+    {
+        return 0;
+    }
+
+    public String getNamespacePrefix(int index)
+    {
+        throw new IndexOutOfBoundsException(Integer.toString(index));
+    }
+
+    public String getNamespaceURI(int index)
+    {
+        throw new IndexOutOfBoundsException(Integer.toString(index));
+    }
+
+    public String getNamespaceURI(String prefix)
+    {
+        if (XMLConstants.XML_NS_PREFIX.equals(prefix))
+            return XMLConstants.XML_NS_URI;
+        if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix))
+            return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+
+        // Namespace declarations are not recorded. Resolve the prefix from the names of the open elements.
+        for (int i = this.depth - 1; i >= 0; i--)
+        {
+            if (this.getString(this.elementStack[3 * i + 2]).equals(prefix))
+                return this.getString(this.elementStack[3 * i]);
+        }
+
+        return null;
+    }
+
+    public NamespaceContext getNamespaceContext()
+    {
+        return new NamespaceContext()
+        {
+            public String getNamespaceURI(String prefix)
+            {
+                return BinaryXMLStreamReader.this.getNamespaceURI(prefix);
+            }
+
+            public String getPrefix(String namespaceURI)
+            {
+                return null;
+            }
+
+            public Iterator<String> getPrefixes(String namespaceURI)
+            {
+                return Collections.<String>emptyList().iterator();
+            }
+        };
+    }
+
+    //**************************************************************//
+    //********************  Text  **********************************//
+    //**************************************************************//
+
+    public boolean hasText()
+    {
+        return this.eventType == CHARACTERS;
+    }
+
+    public String getText()
+    {
+        if (this.eventType != CHARACTERS)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedCharacters"));
+
+        return new String(this.text, 0, this.textLength);
+    }
+
+    public char[] getTextCharacters()
+    {
+        if (this.eventType != CHARACTERS)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedCharacters"));
+
+        return this.text;
+    }
+
+    public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length)
+    {
+        int count = Math.max(0, Math.min(length, this.getTextLength() - sourceStart));
+        System.arraycopy(this.text, sourceStart, target, targetStart, count);
+        return count;
+    }
+
+    public int getTextStart()
+    {
+        if (this.eventType != CHARACTERS)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedCharacters"));
+
+        return 0;
+    }
+
+    public int getTextLength()
+    {
+        if (this.eventType != CHARACTERS)
+            throw new IllegalStateException(Logging.getMessage("XML.ExpectedCharacters"));
+
+        return this.textLength;
+    }
+
+    //**************************************************************//
+    //********************  Document  ******************************//
+    //**************************************************************//
+
+    public Location getLocation()
+    {
+        return UNKNOWN_LOCATION;
+    }
+
+    public String getEncoding()
+    {
+        return null;
+    }
+
+    public String getVersion()
+    {
+        return null;
+    }
+
+    public boolean isStandalone()
+    {
+        return false;
+    }
+
+    public boolean standaloneSet()
+    {
+        return false;
+    }
+
+    public String getCharacterEncodingScheme()
+    {
+        return null;
+    }
+
+    public String getPITarget()
+    {
+        return null;
+    }
+
+    public String getPIData()
+    {
+        return null;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.util.*;
+
+import javax.xml.namespace.QName;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Records the element structure and character data of an XML document in a compact binary form that {@link
+ * BinaryXMLStreamReader} reads back without lexing or decoding any XML. Documents are recorded one token at a time, in
+ * document order, and then written to a file with {@link #write(File, String, long)}.
+ * <p>
+ * A file holds a header, a token section and a character section. The header identifies the format and records the key
+ * and modification time of the document the file was recorded from. The token section holds one tag byte per token
+ * followed by the token's fields as big-endian integers: element and attribute names are indexes into a string table
+ * that is built as the tokens are read, and text is an offset and a length into the character section. The character
+ * section holds all names and text as UTF-16 characters, so a reader copies text from a mapped file without decoding
+ * it.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class BinaryXMLWriter
+{
+    /** Identifies a binary XML file: the characters "WWBX". */
+    public static final int MAGIC = 0x57574258;
+    /** The version of the format this class writes. */
+    public static final int VERSION = 1;
+
+    /** Defines the next string table entry: the entry's character offset and length follow. */
+    public static final byte TAG_STRING = 1;
+    /** A start element: namespace, local name and prefix string indexes and an attribute count follow. */
+    public static final byte TAG_START_ELEMENT = 2;
+    /** An end element, closing the most recent open element. */
+    public static final byte TAG_END_ELEMENT = 3;
+    /** Character data: a character offset and length follow. */
+    public static final byte TAG_CHARACTERS = 4;
+    /** The end of the document. */
+    public static final byte TAG_END_DOCUMENT = 5;
+
+    protected final ByteArrayOutputStream tokenBytes = new ByteArrayOutputStream(8192);
+    protected final DataOutputStream tokens = new DataOutputStream(this.tokenBytes);
+    protected char[] chars = new char[8192];
+    protected int numChars;
+    protected final Map<String, Integer> strings = new HashMap<String, Integer>();
+    protected int depth;
+    protected boolean ended;
+
+    public BinaryXMLWriter()
+    {
+    }
+
+    /**
+     * Indicates whether the recorded document is complete: the end of the document has been recorded, or at least
+     * one element has been recorded and every element recorded has been closed.
+     *
+     * @return true if the document is complete, otherwise false.
+     */
+    public boolean isComplete()
+    {
+        return this.ended || (this.depth == 0 && this.tokenBytes.size() > 0);
+    }
+
+    /**
+     * Records a start element.
+     *
+     * @param name       the element's name.
+     * @param attributes the element's attribute names and values, in document order. May be null.
+     *
+     * @throws IOException if the token cannot be recorded.
+     */
+    public void writeStartElement(QName name, List<Map.Entry<QName, String>> attributes) throws IOException
+    {
+        if (name == null)
+        {
+            String message = Logging.getMessage("nullValue.NameIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int count = attributes != null ? attributes.size() : 0;
+        int[] refs = new int[3 + 4 * count];
+        this.writeName(name, refs, 0);
+        for (int i = 0; i < count; i++)
+        {
+            Map.Entry<QName, String> attribute = attributes.get(i);
+            this.writeName(attribute.getKey(), refs, 3 + 4 * i);
+            refs[3 + 4 * i + 3] = this.appendChars(attribute.getValue());
+        }
+
+        this.tokens.writeByte(TAG_START_ELEMENT);
+        this.tokens.writeInt(refs[0]);
+        this.tokens.writeInt(refs[1]);
+        this.tokens.writeInt(refs[2]);
+        this.tokens.writeInt(count);
+        for (int i = 0; i < count; i++)
+        {
+            Map.Entry<QName, String> attribute = attributes.get(i);
+            this.tokens.writeInt(refs[3 + 4 * i]);
+            this.tokens.writeInt(refs[3 + 4 * i + 1]);
+            this.tokens.writeInt(refs[3 + 4 * i + 2]);
+            this.tokens.writeInt(refs[3 + 4 * i + 3]);
+            this.tokens.writeInt(attribute.getValue().length());
+        }
+
+        this.depth++;
+    }
+
+    /**
+     * Records an end element, closing the most recent open element.
+     *
+     * @throws IOException if the token cannot be recorded.
+     */
+    public void writeEndElement() throws IOException
+    {
+        this.tokens.writeByte(TAG_END_ELEMENT);
+        this.depth--;
+    }
+
+    /**
+     * Records character data.
+     *
+     * @param text the characters.
+     *
+     * @throws IOException if the token cannot be recorded.
+     */
+    public void writeCharacters(String text) throws IOException
+    {
+        if (text == null)
+        {
+            String message = Logging.getMessage("nullValue.StringIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int offset = this.appendChars(text);
+        this.tokens.writeByte(TAG_CHARACTERS);
+        this.tokens.writeInt(offset);
+        this.tokens.writeInt(text.length());
+    }
+
+    /**
+     * Records the end of the document.
+     *
+     * @throws IOException if the token cannot be recorded.
+     */
+    public void writeEndDocument() throws IOException
+    {
+        this.tokens.writeByte(TAG_END_DOCUMENT);
+        this.ended = true;
+    }
+
+    /**
+     * Writes the recorded document to a file, replacing any existing file. The document is written to a temporary file
+     * in the same directory first and then renamed, so readers never see a partially written file. The end of the
+     * document is recorded first if it has not been.
+     *
+     * @param file         the file to write.
+     * @param key          the key identifying the document the recording was made from.
+     * @param lastModified the modification time of the document the recording was made from.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(File file, String key, long lastModified) throws IOException
+    {
+        if (file == null)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!this.ended)
+            this.writeEndDocument();
+
+        File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastModified);
+            out.writeInt(key.length());
+            out.writeChars(key);
+            out.writeInt(this.tokenBytes.size());
+            out.writeInt(this.numChars);
+            this.tokenBytes.writeTo(out);
+
+            ByteBuffer buffer = ByteBuffer.allocate(2 * this.numChars);
+            buffer.asCharBuffer().put(this.chars, 0, this.numChars);
+            out.write(buffer.array());
+        }
+        catch (IOException e)
+        {
+            WWIO.closeStream(out, tmpFile.getPath());
+            tmpFile.delete();
+            throw e;
+        }
+        out.close();
+
+        if (file.exists() && !file.delete() || !tmpFile.renameTo(file))
+        {
+            tmpFile.delete();
+            throw new IOException(Logging.getMessage("generic.CannotCreateFile", file));
+        }
+    }
+
+    protected void writeName(QName name, int[] refs, int index) throws IOException
+    {
+        refs[index] = this.getString(name.getNamespaceURI());
+        refs[index + 1] = this.getString(name.getLocalPart());
+        refs[index + 2] = this.getString(name.getPrefix());
+    }
+
+    /**
+     * Returns the string table index of a string, recording a new entry if the string is not yet in the table.
+     *
+     * @param s the string.
+     *
+     * @return the string's index.
+     *
+     * @throws IOException if the string table entry cannot be recorded.
+     */
+    protected int getString(String s) throws IOException
+    {
+        Integer index = this.strings.get(s);
+        if (index != null)
+            return index;
+
+        int offset = this.appendChars(s);
+        this.tokens.writeByte(TAG_STRING);
+        this.tokens.writeInt(offset);
+        this.tokens.writeInt(s.length());
+
+        index = this.strings.size();
+        this.strings.put(s, index);
+        return index;
+    }
+
+    protected int appendChars(String s)
+    {
+        if (this.numChars + s.length() > this.chars.length)
+            this.chars = Arrays.copyOf(this.chars, Math.max(2 * this.chars.length, this.numChars + s.length()));
+
+        int offset = this.numChars;
+        s.getChars(0, s.length(), this.chars, offset);
+        this.numChars += s.length();
+        return offset;
+    }
+}
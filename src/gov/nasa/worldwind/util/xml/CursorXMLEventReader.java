@@ -0,0 +1,698 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.util.Logging;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.*;
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * An {@link XMLEventReader} that reads a document through an {@link XMLStreamReader} cursor and allocates as few
+ * objects per token as it can. It reports the same start element, end element and character events, and the same
+ * start and end document events, as the event reader the platform creates for the stream reader, so {@link
+ * XMLEventParser}s produce the same result from either. It differs from the platform's reader in these ways: <ul>
+ * <li>Character data consisting entirely of whitespace, comments, processing instructions, entity references and
+ * document type declarations are skipped rather than reported. {@link XMLEventParserContext#nextEvent()} skips
+ * whitespace and parsers ignore the others.</li> <li>Element names are shared by all events for the same element
+ * type, and all end elements of the same type are the same event.</li> <li>Events do not record their location.
+ * {@link XMLEvent#getLocation()} returns the reader's location when it is called, which for a start element is the
+ * element's location only until the reader advances.</li> <li>Start elements report neither namespace declarations
+ * nor a namespace context.</li> </ul>
+ *
+ * @see gov.nasa.worldwind.util.WWXML#openCursorEventReaderStream(java.io.InputStream, boolean)
+ */
+public class CursorXMLEventReader implements XMLEventReader
+{
+    protected static final Attribute[] NO_ATTRIBUTES = new Attribute[0];
+
+    protected final XMLStreamReader reader;
+    protected final StartDocument startDocument;
+    protected final EndDocument endDocument;
+    /** The end element event of each element type, keyed by namespace URI and then by local name. */
+    protected final Map<String, Map<String, CursorEndElement>> endElements =
+        new HashMap<String, Map<String, CursorEndElement>>();
+    /** The attribute names encountered, keyed by namespace URI and then by local name. */
+    protected final Map<String, Map<String, QName>> attributeNames = new HashMap<String, Map<String, QName>>();
+    protected boolean started;
+    protected XMLEvent peekedEvent;
+
+    /**
+     * Creates an event reader that reads from a stream reader. The stream reader must be positioned at the start of the
+     * document.
+     *
+     * @param reader the stream reader to read from.
+     *
+     * @throws IllegalArgumentException if the reader is null.
+     */
+    public CursorXMLEventReader(XMLStreamReader reader)
+    {
+        if (reader == null)
+        {
+            String message = Logging.getMessage("nullValue.ReaderIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.reader = reader;
+        this.startDocument = new CursorStartDocument(this);
+        this.endDocument = new CursorEndDocument(this);
+    }
+
+    /**
+     * Returns the stream reader this event reader reads from.
+     *
+     * @return this reader's stream reader.
+     */
+    public XMLStreamReader getStreamReader()
+    {
+        return this.reader;
+    }
+
+    public boolean hasNext()
+    {
+        if (this.peekedEvent != null || !this.started)
+            return true;
+
+        try
+        {
+            return this.reader.hasNext();
+        }
+        catch (XMLStreamException e)
+        {
+            return false;
+        }
+    }
+
+    public XMLEvent nextEvent() throws XMLStreamException
+    {
+        if (this.peekedEvent != null)
+        {
+            XMLEvent event = this.peekedEvent;
+            this.peekedEvent = null;
+            return event;
+        }
+
+        return this.readEvent();
+    }
+
+    public XMLEvent peek() throws XMLStreamException
+    {
+        if (this.peekedEvent == null && this.hasNext())
+            this.peekedEvent = this.readEvent();
+
+        return this.peekedEvent;
+    }
+
+    public Object next()
+    {
+        try
+        {
+            return this.nextEvent();
+        }
+        catch (XMLStreamException e)
+        {
+            NoSuchElementException nse = new NoSuchElementException(e.getMessage());
+            nse.initCause(e);
+            throw nse;
+        }
+    }
+
+    public String getElementText() throws XMLStreamException
+    {
+        if (this.peekedEvent == null)
+            return this.reader.getElementText();
+
+        // The reader has moved past the start element. Assemble the text from the events up to the end element.
+        StringBuilder sb = new StringBuilder();
+        for (XMLEvent event = this.nextEvent(); !event.isEndElement(); event = this.nextEvent())
+        {
+            if (event.isCharacters())
+                sb.append(event.asCharacters().getData());
+            else if (event.isStartElement() || event.isEndDocument())
+                throw new XMLStreamException("Expected text only content", event.getLocation());
+        }
+
+        return sb.toString();
+    }
+
+    public XMLEvent nextTag() throws XMLStreamException
+    {
+        XMLEvent event = this.nextEvent();
+        while (event.isStartDocument())
+        {
+            event = this.nextEvent();
+        }
+
+        if (!event.isStartElement() && !event.isEndElement())
+            throw new XMLStreamException("Expected start or end tag", event.getLocation());
+
+        return event;
+    }
+
+    public Object getProperty(String name)
+    {
+        return this.reader.getProperty(name);
+    }
+
+    public void close() throws XMLStreamException
+    {
+        this.reader.close();
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    protected XMLEvent readEvent() throws XMLStreamException
+    {
+        if (!this.started)
+        {
+            this.started = true;
+            return this.startDocument;
+        }
+
+        while (this.reader.hasNext())
+        {
+            XMLEvent event = this.createEvent(this.reader.next());
+            if (event != null)
+                return event;
+        }
+
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Creates the event for the stream reader's current token.
+     *
+     * @param eventType the token's type.
+     *
+     * @return the event, or null if the token is not reported.
+     */
+    protected XMLEvent createEvent(int eventType)
+    {
+        switch (eventType)
+        {
+            case XMLStreamConstants.START_ELEMENT:
+                return new CursorStartElement(this, this.getEndElement().getName(), this.readAttributes());
+            case XMLStreamConstants.END_ELEMENT:
+                return this.getEndElement();
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (this.isWhiteSpace())
+                    return null;
+                return new CursorCharacters(this, this.reader.getText(), eventType == XMLStreamConstants.CDATA,
+                    eventType == XMLStreamConstants.SPACE);
+            case XMLStreamConstants.END_DOCUMENT:
+                return this.endDocument;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Indicates whether the current text token is non-empty and consists only of the XML whitespace characters, the
+     * same test the platform's character events apply. The test reads the reader's character buffer in place.
+     *
+     * @return true if the current text is whitespace, otherwise false.
+     */
+    protected boolean isWhiteSpace()
+    {
+        int length = this.reader.getTextLength();
+        if (length == 0)
+            return false;
+
+        char[] text = this.reader.getTextCharacters();
+        for (int i = this.reader.getTextStart(), end = i + length; i < end; i++)
+        {
+            char c = text[i];
+            if (c != ' ' && c != '\n' && c != '\t' && c != '\r')
+                return false;
+        }
+
+        return true;
+    }
+
+    protected CursorEndElement getEndElement()
+    {
+        String namespaceURI = this.reader.getNamespaceURI();
+        String localName = this.reader.getLocalName();
+
+        Map<String, CursorEndElement> map = this.endElements.get(namespaceURI);
+        if (map == null)
+        {
+            map = new HashMap<String, CursorEndElement>();
+            this.endElements.put(namespaceURI, map);
+        }
+
+        CursorEndElement event = map.get(localName);
+        if (event == null)
+        {
+            event = new CursorEndElement(this, new QName(namespaceURI, localName, this.reader.getPrefix()));
+            map.put(localName, event);
+        }
+
+        return event;
+    }
+
+    protected Attribute[] readAttributes()
+    {
+        int count = this.reader.getAttributeCount();
+        if (count == 0)
+            return NO_ATTRIBUTES;
+
+        Attribute[] attributes = new Attribute[count];
+        for (int i = 0; i < count; i++)
+        {
+            attributes[i] = new CursorAttribute(this, this.getAttributeName(i), this.reader.getAttributeValue(i),
+                this.reader.getAttributeType(i), this.reader.isAttributeSpecified(i));
+        }
+
+        return attributes;
+    }
+
+    protected QName getAttributeName(int index)
+    {
+        String namespaceURI = this.reader.getAttributeNamespace(index);
+        String localName = this.reader.getAttributeLocalName(index);
+
+        Map<String, QName> map = this.attributeNames.get(namespaceURI);
+        if (map == null)
+        {
+            map = new HashMap<String, QName>();
+            this.attributeNames.put(namespaceURI, map);
+        }
+
+        QName name = map.get(localName);
+        if (name == null)
+        {
+            name = this.reader.getAttributeName(index);
+            map.put(localName, name);
+        }
+
+        return name;
+    }
+
+    //**************************************************************//
+    //********************  Events  ********************************//
+    //**************************************************************//
+
+    /** The base class of the events the reader reports. */
+    protected abstract static class CursorEvent implements XMLEvent
+    {
+        protected final CursorXMLEventReader eventReader;
+
+        public CursorEvent(CursorXMLEventReader eventReader)
+        {
+            this.eventReader = eventReader;
+        }
+
+        public Location getLocation()
+        {
+            return this.eventReader.reader.getLocation();
+        }
+
+        public boolean isStartElement()
+        {
+            return this.getEventType() == XMLStreamConstants.START_ELEMENT;
+        }
+
+        public boolean isAttribute()
+        {
+            return this.getEventType() == XMLStreamConstants.ATTRIBUTE;
+        }
+
+        public boolean isNamespace()
+        {
+            return false;
+        }
+
+        public boolean isEndElement()
+        {
+            return this.getEventType() == XMLStreamConstants.END_ELEMENT;
+        }
+
+        public boolean isEntityReference()
+        {
+            return false;
+        }
+
+        public boolean isProcessingInstruction()
+        {
+            return false;
+        }
+
+        public boolean isCharacters()
+        {
+            return this.getEventType() == XMLStreamConstants.CHARACTERS;
+        }
+
+        public boolean isStartDocument()
+        {
+            return this.getEventType() == XMLStreamConstants.START_DOCUMENT;
+        }
+
+        public boolean isEndDocument()
+        {
+            return this.getEventType() == XMLStreamConstants.END_DOCUMENT;
+        }
+
+        public StartElement asStartElement()
+        {
+            return (StartElement) this;
+        }
+
+        public EndElement asEndElement()
+        {
+            return (EndElement) this;
+        }
+
+        public Characters asCharacters()
+        {
+            return (Characters) this;
+        }
+
+        public QName getSchemaType()
+        {
+            return null;
+        }
+
+        public void writeAsEncodedUnicode(Writer writer) throws XMLStreamException
+        {
+            try
+            {
+                writer.write(this.toString());
+            }
+            catch (IOException e)
+            {
+                throw new XMLStreamException(e);
+            }
+        }
+    }
+
+    protected static class CursorStartDocument extends CursorEvent implements StartDocument
+    {
+        protected final String systemId;
+        protected final String encoding;
+        protected final boolean standalone;
+        protected final boolean standaloneSet;
+        protected final String version;
+
+        public CursorStartDocument(CursorXMLEventReader eventReader)
+        {
+            super(eventReader);
+
+            XMLStreamReader reader = eventReader.reader;
+            this.systemId = reader.getLocation() != null ? reader.getLocation().getSystemId() : null;
+            this.encoding = reader.getCharacterEncodingScheme();
+            this.standalone = reader.isStandalone();
+            this.standaloneSet = reader.standaloneSet();
+            this.version = reader.getVersion();
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.START_DOCUMENT;
+        }
+
+        public String getSystemId()
+        {
+            return this.systemId != null ? this.systemId : "";
+        }
+
+        public String getCharacterEncodingScheme()
+        {
+            return this.encoding != null ? this.encoding : "UTF-8";
+        }
+
+        public boolean encodingSet()
+        {
+            return this.encoding != null;
+        }
+
+        public boolean isStandalone()
+        {
+            return this.standalone;
+        }
+
+        public boolean standaloneSet()
+        {
+            return this.standaloneSet;
+        }
+
+        public String getVersion()
+        {
+            return this.version;
+        }
+
+        public String toString()
+        {
+            return "<?xml version=\"" + (this.version != null ? this.version : "1.0") + "\"?>";
+        }
+    }
+
+    protected static class CursorEndDocument extends CursorEvent implements EndDocument
+    {
+        public CursorEndDocument(CursorXMLEventReader eventReader)
+        {
+            super(eventReader);
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.END_DOCUMENT;
+        }
+
+        public String toString()
+        {
+            return "ENDDOCUMENT";
+        }
+    }
+
+    protected static class CursorStartElement extends CursorEvent implements StartElement
+    {
+        protected final QName name;
+        protected final Attribute[] attributes;
+
+        public CursorStartElement(CursorXMLEventReader eventReader, QName name, Attribute[] attributes)
+        {
+            super(eventReader);
+
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.START_ELEMENT;
+        }
+
+        public QName getName()
+        {
+            return this.name;
+        }
+
+        public Iterator<Attribute> getAttributes()
+        {
+            return this.attributes.length > 0 ? Arrays.asList(this.attributes).iterator()
+                : Collections.<Attribute>emptyIterator();
+        }
+
+        public Iterator<Namespace> getNamespaces()
+        {
+            return Collections.emptyIterator();
+        }
+
+        public Attribute getAttributeByName(QName name)
+        {
+            for (Attribute attribute : this.attributes)
+            {
+                if (attribute.getName().equals(name))
+                    return attribute;
+            }
+
+            return null;
+        }
+
+        public NamespaceContext getNamespaceContext()
+        {
+            return null;
+        }
+
+        public String getNamespaceURI(String prefix)
+        {
+            return XMLConstants.DEFAULT_NS_PREFIX.equals(prefix) ? this.name.getNamespaceURI() : null;
+        }
+
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder("<").append(this.name);
+            for (Attribute attribute : this.attributes)
+            {
+                sb.append(" ").append(attribute);
+            }
+
+            return sb.append(">").toString();
+        }
+    }
+
+    protected static class CursorEndElement extends CursorEvent implements EndElement
+    {
+        protected final QName name;
+
+        public CursorEndElement(CursorXMLEventReader eventReader, QName name)
+        {
+            super(eventReader);
+
+            this.name = name;
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.END_ELEMENT;
+        }
+
+        public QName getName()
+        {
+            return this.name;
+        }
+
+        public Iterator<Namespace> getNamespaces()
+        {
+            return Collections.emptyIterator();
+        }
+
+        public String toString()
+        {
+            return "</" + this.name + ">";
+        }
+    }
+
+    protected static class CursorCharacters extends CursorEvent implements Characters
+    {
+        protected final String data;
+        protected final boolean cdata;
+        protected final boolean ignorableWhiteSpace;
+
+        public CursorCharacters(CursorXMLEventReader eventReader, String data, boolean cdata,
+            boolean ignorableWhiteSpace)
+        {
+            super(eventReader);
+
+            this.data = data;
+            this.cdata = cdata;
+            this.ignorableWhiteSpace = ignorableWhiteSpace;
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.CHARACTERS;
+        }
+
+        public String getData()
+        {
+            return this.data;
+        }
+
+        public boolean isWhiteSpace()
+        {
+            return false; // Whitespace-only text is not reported.
+        }
+
+        public boolean isCData()
+        {
+            return this.cdata;
+        }
+
+        public boolean isIgnorableWhiteSpace()
+        {
+            return this.ignorableWhiteSpace;
+        }
+
+        public String toString()
+        {
+            return this.cdata ? "<![CDATA[" + this.data + "]]>" : this.data;
+        }
+    }
+
+    protected static class CursorAttribute extends CursorEvent implements Attribute
+    {
+        protected final QName name;
+        protected final String value;
+        protected final String type;
+        protected final boolean specified;
+
+        public CursorAttribute(CursorXMLEventReader eventReader, QName name, String value, String type,
+            boolean specified)
+        {
+            super(eventReader);
+
+            this.name = name;
+            this.value = value;
+            this.type = type;
+            this.specified = specified;
+        }
+
+        public int getEventType()
+        {
+            return XMLStreamConstants.ATTRIBUTE;
+        }
+
+        public QName getName()
+        {
+            return this.name;
+        }
+
+        public String getValue()
+        {
+            return this.value;
+        }
+
+        public String getDTDType()
+        {
+            return this.type;
+        }
+
+        public boolean isSpecified()
+        {
+            return this.specified;
+        }
+
+        public String toString()
+        {
+            return this.name + "='" + this.value + "'";
+        }
+    }
+}
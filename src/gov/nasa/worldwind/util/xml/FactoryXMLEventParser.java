@@ -0,0 +1,103 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.util.Logging;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * The entry a parser context's parser table holds for an element type registered with an {@link
+ * XMLEventParserFactory}. Its {@link #newInstance()} method returns a parser created by the factory, so the context
+ * creates parsers for the element type without reflection. The entry itself holds no parse state and is shared by
+ * all contexts and element types using the factory.
+ */
+public class FactoryXMLEventParser implements XMLEventParser
+{
+    protected final XMLEventParserFactory factory;
+
+    /**
+     * Creates a parser table entry for a factory.
+     *
+     * @param factory the factory that creates parsers.
+     *
+     * @throws IllegalArgumentException if the factory is null.
+     */
+    public FactoryXMLEventParser(XMLEventParserFactory factory)
+    {
+        if (factory == null)
+        {
+            String message = Logging.getMessage("nullValue.FactoryIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.factory = factory;
+    }
+
+    public XMLEventParserFactory getFactory()
+    {
+        return this.factory;
+    }
+
+    /**
+     * Parses an event with a new parser created by this instance's factory.
+     *
+     * @param context a current parser context.
+     * @param event   the event to parse.
+     * @param args    an optional list of arguments that may by used by subclasses.
+     *
+     * @return the result of the new parser's parse method.
+     *
+     * @throws XMLStreamException if an exception occurs during event-stream reading.
+     */
+    public Object parse(XMLEventParserContext context, XMLEvent event, Object... args) throws XMLStreamException
+    {
+        return this.newInstance().parse(context, event, args);
+    }
+
+    public XMLEventParser newInstance()
+    {
+        return this.factory.createParser();
+    }
+
+    public void setParent(XMLEventParser parent)
+    {
+    }
+
+    public XMLEventParser getParent()
+    {
+        return null;
+    }
+
+    public void freeResources()
+    {
+    }
+}
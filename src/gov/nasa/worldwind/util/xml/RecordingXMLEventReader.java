@@ -0,0 +1,247 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.util.Logging;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+import java.io.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * An {@link XMLEventReader} that passes the events of another reader through unchanged while recording them with a
+ * {@link BinaryXMLWriter}. When the document has been read to its end, or the reader is closed after the document's
+ * root element has been read, the recording is written to a file, from which {@link BinaryXMLStreamReader} reads the
+ * same document again without parsing XML. Nothing is written if reading fails or stops before the document ends.
+ * <p>
+ * Character data consisting entirely of whitespace is not recorded between elements, and comments and processing
+ * instructions are not recorded.
+ */
+public class RecordingXMLEventReader implements XMLEventReader
+{
+    protected final XMLEventReader reader;
+    protected final File file;
+    protected final String key;
+    protected final long lastModified;
+    /** The recording. Null once the recording has been written or abandoned. */
+    protected BinaryXMLWriter writer = new BinaryXMLWriter();
+
+    /**
+     * Creates a reader that records the events of another reader.
+     *
+     * @param reader       the reader to record.
+     * @param file         the file to write the recording to.
+     * @param key          the key identifying the document, which is stored in the recording.
+     * @param lastModified the modification time of the document, which is stored in the recording.
+     *
+     * @throws IllegalArgumentException if the reader, file or key is null.
+     */
+    public RecordingXMLEventReader(XMLEventReader reader, File file, String key, long lastModified)
+    {
+        if (reader == null)
+        {
+            String message = Logging.getMessage("nullValue.ReaderIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (file == null)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.reader = reader;
+        this.file = file;
+        this.key = key;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns the file the recording is written to.
+     *
+     * @return the recording's file.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    public XMLEvent nextEvent() throws XMLStreamException
+    {
+        XMLEvent event = this.reader.nextEvent();
+        this.record(event);
+        return event;
+    }
+
+    public boolean hasNext()
+    {
+        return this.reader.hasNext();
+    }
+
+    public Object next()
+    {
+        try
+        {
+            return this.nextEvent();
+        }
+        catch (XMLStreamException e)
+        {
+            NoSuchElementException nse = new NoSuchElementException(e.getMessage());
+            nse.initCause(e);
+            throw nse;
+        }
+    }
+
+    public XMLEvent peek() throws XMLStreamException
+    {
+        return this.reader.peek();
+    }
+
+    public String getElementText() throws XMLStreamException
+    {
+        String text = this.reader.getElementText();
+        if (this.writer != null)
+        {
+            try
+            {
+                if (text.length() > 0)
+                    this.writer.writeCharacters(text);
+                this.writer.writeEndElement();
+            }
+            catch (IOException e)
+            {
+                this.abandon(e);
+            }
+        }
+
+        return text;
+    }
+
+    public XMLEvent nextTag() throws XMLStreamException
+    {
+        XMLEvent event = this.reader.nextTag();
+        this.record(event);
+        return event;
+    }
+
+    public Object getProperty(String name)
+    {
+        return this.reader.getProperty(name);
+    }
+
+    public void close() throws XMLStreamException
+    {
+        this.reader.close();
+
+        if (this.writer != null && this.writer.isComplete())
+            this.writeRecording();
+        this.writer = null;
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    protected void record(XMLEvent event)
+    {
+        if (this.writer == null)
+            return;
+
+        try
+        {
+            if (event.isStartElement())
+            {
+                StartElement start = event.asStartElement();
+                List<Map.Entry<QName, String>> attributes = null;
+                for (Iterator<?> iter = start.getAttributes(); iter.hasNext(); )
+                {
+                    Attribute attribute = (Attribute) iter.next();
+                    if (attributes == null)
+                        attributes = new ArrayList<Map.Entry<QName, String>>();
+                    attributes.add(new AbstractMap.SimpleImmutableEntry<QName, String>(attribute.getName(),
+                        attribute.getValue()));
+                }
+
+                this.writer.writeStartElement(start.getName(), attributes);
+            }
+            else if (event.isEndElement())
+            {
+                this.writer.writeEndElement();
+            }
+            else if (event.isCharacters())
+            {
+                if (!event.asCharacters().isWhiteSpace())
+                    this.writer.writeCharacters(event.asCharacters().getData());
+            }
+            else if (event.isEndDocument())
+            {
+                this.writer.writeEndDocument();
+                this.writeRecording();
+                this.writer = null;
+            }
+        }
+        catch (IOException e)
+        {
+            this.abandon(e);
+        }
+    }
+
+    protected void writeRecording()
+    {
+        try
+        {
+            this.writer.write(this.file, this.key, this.lastModified);
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("XML.SnapshotNotWritten", this.file);
+            Logging.logger().log(Level.WARNING, message, e);
+        }
+    }
+
+    protected void abandon(Exception e)
+    {
+        String message = Logging.getMessage("XML.SnapshotNotWritten", this.file);
+        Logging.logger().log(Level.FINE, message, e);
+        this.writer = null;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.util.*;
+
+import javax.xml.stream.*;
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.security.*;
+import java.util.logging.Level;
+
+/**
+ * Keeps binary recordings of parsed XML documents in a {@link FileStore}, so that a document opened again need not be
+ * parsed from XML. A document is identified by a key, typically the URL or path of its source, together with its
+ * source's modification time. A recording made for an earlier modification time is not used.
+ * <p>
+ * Applications read a document by first calling {@link #openSnapshot(String, long)}. If that returns a reader, the
+ * reader reports the document's events from a memory-mapped recording. Otherwise they open the document normally and
+ * pass its reader to {@link #recordSnapshot(XMLEventReader, String, long)}, which records the document as it's read.
+ * Both readers report the events {@link XMLEventParser}s use, so a document parses to the same result from either.
+ * <p>
+ * Recordings are stored below a directory of the file store named by <code>cachePath</code>, in a file named by a
+ * digest of the document's key.
+ */
+public class XMLSnapshotCache
+{
+    /** The default file store directory of recordings: "XMLSnapshots". */
+    public static final String DEFAULT_CACHE_PATH = "XMLSnapshots";
+    protected static final String SNAPSHOT_SUFFIX = ".wwbx";
+
+    protected final FileStore fileStore;
+    protected final String cachePath;
+
+    /** Creates a cache that stores recordings in the default directory of WorldWind's data file store. */
+    public XMLSnapshotCache()
+    {
+        this(WorldWind.getDataFileStore(), DEFAULT_CACHE_PATH);
+    }
+
+    /**
+     * Creates a cache that stores recordings in a specified directory of a file store.
+     *
+     * @param fileStore the file store to hold the recordings.
+     * @param cachePath the directory of the file store to hold the recordings.
+     *
+     * @throws IllegalArgumentException if either argument is null.
+     */
+    public XMLSnapshotCache(FileStore fileStore, String cachePath)
+    {
+        if (fileStore == null)
+        {
+            String message = Logging.getMessage("nullValue.FileStoreIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (cachePath == null)
+        {
+            String message = Logging.getMessage("nullValue.PathIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.fileStore = fileStore;
+        this.cachePath = cachePath;
+    }
+
+    public FileStore getFileStore()
+    {
+        return this.fileStore;
+    }
+
+    public String getCachePath()
+    {
+        return this.cachePath;
+    }
+
+    /**
+     * Opens the recording of a document, if there is one for the document's current modification time.
+     *
+     * @param key          the key identifying the document.
+     * @param lastModified the document's modification time.
+     *
+     * @return a reader of the recorded document, or null if there is no current recording.
+     *
+     * @throws IllegalArgumentException if the key is null.
+     */
+    public XMLEventReader openSnapshot(String key, long lastModified)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        URL url = this.fileStore.findFile(this.getSnapshotPath(key), false);
+        if (url == null)
+            return null;
+
+        File file = WWIO.convertURLToFile(url);
+        if (file == null)
+            return null;
+
+        try
+        {
+            ByteBuffer buffer = WWIO.mapFile(file);
+            BinaryXMLStreamReader reader = new BinaryXMLStreamReader(buffer);
+            if (!key.equals(reader.getKey()) || reader.getLastModified() != lastModified)
+                return null;
+
+            return new CursorXMLEventReader(reader);
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("XML.SnapshotUnreadable", file);
+            Logging.logger().log(Level.FINE, message, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns a reader that reports the events of a specified reader and records them as the recording of a document.
+     * The recording replaces any earlier recording of the document once the document has been read to its end.
+     *
+     * @param reader       the reader of the document.
+     * @param key          the key identifying the document.
+     * @param lastModified the document's modification time.
+     *
+     * @return a recording reader, or the specified reader if no recording can be made.
+     *
+     * @throws IllegalArgumentException if the reader or the key is null.
+     */
+    public XMLEventReader recordSnapshot(XMLEventReader reader, String key, long lastModified)
+    {
+        if (reader == null)
+        {
+            String message = Logging.getMessage("nullValue.ReaderIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        File file = this.fileStore.newFile(this.getSnapshotPath(key));
+        if (file == null)
+            return reader;
+
+        return new RecordingXMLEventReader(reader, file, key, lastModified);
+    }
+
+    /**
+     * Removes the recording of a document, if there is one.
+     *
+     * @param key the key identifying the document.
+     *
+     * @throws IllegalArgumentException if the key is null.
+     */
+    public void removeSnapshot(String key)
+    {
+        if (key == null)
+        {
+            String message = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        URL url = this.fileStore.findFile(this.getSnapshotPath(key), false);
+        if (url != null)
+            this.fileStore.removeFile(url);
+    }
+
+    /**
+     * Returns the file store path of the recording of a document.
+     *
+     * @param key the key identifying the document.
+     *
+     * @return the path of the document's recording.
+     */
+    protected String getSnapshotPath(String key)
+    {
+        return WWIO.formPath(this.cachePath, digest(key) + SNAPSHOT_SUFFIX);
+    }
+
+    protected static String digest(String key)
+    {
+        try
+        {
+            byte[] bytes = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(2 * bytes.length);
+            for (byte b : bytes)
+            {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            return Integer.toHexString(key.hashCode()); // Every Java platform supports SHA-1.
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            return Integer.toHexString(key.hashCode()); // Every Java platform supports UTF-8.
+        }
+    }
+
+    /**
+     * Returns the local file a document URI identifies. The file's path and modification time identify the document to
+     * this cache.
+     *
+     * @param uri the document's URI. May be null.
+     *
+     * @return the file, or null if the URI is null or does not identify a local file.
+     */
+    public static File getLocalFile(URI uri)
+    {
+        if (uri == null || !"file".equalsIgnoreCase(uri.getScheme()))
+            return null;
+
+        try
+        {
+            File file = new File(uri);
+            return file.isFile() ? file : null;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+}
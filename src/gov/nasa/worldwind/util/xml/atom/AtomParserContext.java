@@ -54,10 +54,10 @@ public class AtomParserContext extends BasicXMLEventParserContext
         ConcurrentHashMap<QName, XMLEventParser> parsers = new ConcurrentHashMap<QName, XMLEventParser>();
 
         String ans = AtomConstants.ATOM_NAMESPACE;
-        parsers.put(new QName(ans, "author"), new AtomPerson(ans));
-        parsers.put(new QName(ans, "link"), new AtomLink(ans));
+        parsers.put(new QName(ans, "author"), new FactoryXMLEventParser(() -> new AtomPerson(ans)));
+        parsers.put(new QName(ans, "link"), new FactoryXMLEventParser(() -> new AtomLink(ans)));
 
-        StringXMLEventParser stringParser = new StringXMLEventParser();
+        XMLEventParser stringParser = new FactoryXMLEventParser(StringXMLEventParser::new);
         for (String s : StringFields)
         {
             parsers.put(new QName(ans, s), stringParser);
@@ -50,19 +50,21 @@ public class XALParserContext extends BasicXMLEventParserContext
         ConcurrentHashMap<QName, XMLEventParser> parsers = new ConcurrentHashMap<QName, XMLEventParser>();
 
         String xns = XALConstants.XAL_NAMESPACE;
-        parsers.put(new QName(xns, "Address"), new XALAddress(xns));
-        parsers.put(new QName(xns, "AddressDetails"), new XALAddressDetails(xns));
-        parsers.put(new QName(xns, "AddressLine"), new XALAddressLine(xns));
-        parsers.put(new QName(xns, "AddressLines"), new XALAddressLines(xns));
-        parsers.put(new QName(xns, "AdministrativeArea"), new XALAdministrativeArea(xns));
-        parsers.put(new QName(xns, "Country"), new XALCountry(xns));
-        parsers.put(new QName(xns, "CountryName"), new XALCountryName(xns));
-        parsers.put(new QName(xns, "CountryNameCode"), new XALCountryNameCode(xns));
-        parsers.put(new QName(xns, "Locality"), new XALLocality(xns));
-        parsers.put(new QName(xns, "PostalServiceElements"), new XALPostalServiceElements(xns));
-        parsers.put(new QName(xns, "Thoroughfare"), new XALThoroughfare(xns));
+        parsers.put(new QName(xns, "Address"), new FactoryXMLEventParser(() -> new XALAddress(xns)));
+        parsers.put(new QName(xns, "AddressDetails"), new FactoryXMLEventParser(() -> new XALAddressDetails(xns)));
+        parsers.put(new QName(xns, "AddressLine"), new FactoryXMLEventParser(() -> new XALAddressLine(xns)));
+        parsers.put(new QName(xns, "AddressLines"), new FactoryXMLEventParser(() -> new XALAddressLines(xns)));
+        parsers.put(new QName(xns, "AdministrativeArea"),
+            new FactoryXMLEventParser(() -> new XALAdministrativeArea(xns)));
+        parsers.put(new QName(xns, "Country"), new FactoryXMLEventParser(() -> new XALCountry(xns)));
+        parsers.put(new QName(xns, "CountryName"), new FactoryXMLEventParser(() -> new XALCountryName(xns)));
+        parsers.put(new QName(xns, "CountryNameCode"), new FactoryXMLEventParser(() -> new XALCountryNameCode(xns)));
+        parsers.put(new QName(xns, "Locality"), new FactoryXMLEventParser(() -> new XALLocality(xns)));
+        parsers.put(new QName(xns, "PostalServiceElements"),
+            new FactoryXMLEventParser(() -> new XALPostalServiceElements(xns)));
+        parsers.put(new QName(xns, "Thoroughfare"), new FactoryXMLEventParser(() -> new XALThoroughfare(xns)));
 
-        StringXMLEventParser stringParser = new StringXMLEventParser();
+        XMLEventParser stringParser = new FactoryXMLEventParser(StringXMLEventParser::new);
         for (String s : StringFields)
         {
             parsers.put(new QName(xns, s), stringParser);
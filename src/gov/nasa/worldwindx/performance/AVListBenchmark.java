@@ -0,0 +1,182 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares the memory footprint and access throughput of {@link AVListImpl} and {@link CompactAVListImpl}. The
+ * footprint test retains many small lists holding the handful of attributes typical of a shape or a parsed KML element
+ * and reports the heap each list occupies. The throughput test reads, and optionally writes, a shared set of lists from
+ * one thread and then from all available cores.
+ * <p>
+ * Usage: <code>AVListBenchmark [numLists]</code>. The default is 1,000,000 lists.
+ */
+public class AVListBenchmark
+{
+    protected static final String[] KEYS = {AVKey.DISPLAY_NAME, AVKey.HOVER_TEXT, AVKey.ROLLOVER_TEXT,
+        AVKey.CONTEXT, AVKey.URL, AVKey.DESCRIPTION};
+    protected static final String[] VALUES = new String[100];
+    protected static final int NUM_SHARED_LISTS = 1024;
+
+    static
+    {
+        for (int i = 0; i < VALUES.length; i++)
+        {
+            VALUES[i] = "value " + i;
+        }
+    }
+    protected static final int OPERATIONS_PER_THREAD = 20000000;
+
+    protected interface ListFactory
+    {
+        AVList createList();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int numLists = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        ListFactory hashed = new ListFactory()
+        {
+            public AVList createList()
+            {
+                return new AVListImpl();
+            }
+        };
+
+        ListFactory compact = new ListFactory()
+        {
+            public AVList createList()
+            {
+                return new CompactAVListImpl();
+            }
+        };
+
+        measureFootprint("AVListImpl", hashed, numLists);
+        measureFootprint("CompactAVListImpl", compact, numLists);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores})
+        {
+            for (int writePercent : new int[] {0, 5})
+            {
+                measureThroughput("AVListImpl", hashed, threads, writePercent);
+                measureThroughput("CompactAVListImpl", compact, threads, writePercent);
+            }
+        }
+    }
+
+    protected static AVList fill(AVList list, int n)
+    {
+        for (int i = 0; i < KEYS.length; i++)
+        {
+            list.setValue(KEYS[i], VALUES[(n + i) % VALUES.length]);
+        }
+
+        return list;
+    }
+
+    protected static void measureFootprint(String name, ListFactory factory, int numLists)
+    {
+        long before = usedMemory();
+        AVList[] lists = new AVList[numLists];
+        for (int i = 0; i < numLists; i++)
+        {
+            lists[i] = fill(factory.createList(), i);
+        }
+        long after = usedMemory();
+
+        // The values are shared among lists; the difference is the lists themselves and the array referencing them.
+        System.out.printf("%-18s %d lists of %d attributes: %6.1f bytes/list, %7.1f MB%n", name, lists.length,
+            KEYS.length, (double) (after - before) / numLists, (after - before) / 1e6);
+    }
+
+    protected static void measureThroughput(String name, ListFactory factory, int threads, final int writePercent)
+        throws Exception
+    {
+        final AVList[] lists = new AVList[NUM_SHARED_LISTS];
+        for (int i = 0; i < lists.length; i++)
+        {
+            lists[i] = fill(factory.createList(), i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++)
+        {
+            final int seed = t;
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+                public Integer call()
+                {
+                    Random random = new Random(seed);
+                    int found = 0;
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++)
+                    {
+                        AVList list = lists[i & (NUM_SHARED_LISTS - 1)];
+                        // One lookup in eight asks for a key the list does not hold.
+                        String key = (i & 7) == 7 ? AVKey.IMAGE : KEYS[i % KEYS.length];
+                        if (writePercent > 0 && random.nextInt(100) < writePercent)
+                            list.setValue(key, list);
+                        else if (list.getValue(key) != null)
+                            found++;
+                    }
+                    return found;
+                }
+            }));
+        }
+
+        for (Future<Integer> future : futures)
+        {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("%-18s %2d threads, %d%% writes: %8.1f M ops/s%n", name, threads, writePercent,
+            (double) OPERATIONS_PER_THREAD * threads / seconds / 1e6);
+    }
+
+    protected static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
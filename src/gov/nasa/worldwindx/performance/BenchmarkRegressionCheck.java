@@ -0,0 +1,237 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.formats.json.JSONDoc;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compares two sets of JMH results written in JSON format, such as those the <code>jmh</code> build task writes for
+ * the benchmark suites in this package, and reports the benchmarks whose score or allocation rate regressed. A score
+ * regresses when it is worse than the baseline score by more than the threshold fraction and by more than the sum of
+ * the two scores' error margins; higher scores are better for throughput benchmarks and lower scores are better for the
+ * other modes. An allocation rate regresses when the bytes allocated per operation, as reported by JMH's
+ * <code>gc</code> profiler, grow by more than the threshold fraction and by more than 16 bytes.
+ * <p>
+ * Usage: <code>BenchmarkRegressionCheck baseline.json results.json [threshold]</code>. The default threshold is 0.1.
+ * The program exits with status 1 when any benchmark regressed or is missing from the results.
+ */
+public class BenchmarkRegressionCheck
+{
+    protected static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    protected static final double ALLOCATION_TOLERANCE = 16;
+
+    /** The score and allocation rate of one benchmark run. */
+    public static class Result
+    {
+        protected final String mode;
+        protected final double score;
+        protected final double scoreError;
+        protected final String scoreUnit;
+        protected final double allocation;
+
+        public Result(String mode, double score, double scoreError, String scoreUnit, double allocation)
+        {
+            this.mode = mode;
+            this.score = score;
+            this.scoreError = scoreError;
+            this.scoreUnit = scoreUnit;
+            this.allocation = allocation;
+        }
+
+        public boolean isHigherBetter()
+        {
+            return "thrpt".equals(this.mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: BenchmarkRegressionCheck baseline.json results.json [threshold]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+        Map<String, Result> baseline = readResults(new File(args[0]));
+        Map<String, Result> current = readResults(new File(args[1]));
+
+        int regressions = compare(baseline, current, threshold, System.out);
+        System.out.printf("%d of %d benchmarks regressed by more than %.0f%%%n", regressions, baseline.size(),
+            100 * threshold);
+        if (regressions > 0)
+            System.exit(1);
+    }
+
+    /**
+     * Prints the change of each baseline benchmark's score and allocation rate and counts the regressions.
+     *
+     * @param baseline  the baseline results, keyed by benchmark.
+     * @param current   the results to check, keyed by benchmark.
+     * @param threshold the fractional change beyond which a worse score or allocation rate is a regression.
+     * @param out       the stream to print the comparison to.
+     *
+     * @return the number of benchmarks that regressed or are missing from the current results.
+     */
+    public static int compare(Map<String, Result> baseline, Map<String, Result> current, double threshold,
+        PrintStream out)
+    {
+        int regressions = 0;
+
+        for (Map.Entry<String, Result> entry : baseline.entrySet())
+        {
+            Result base = entry.getValue();
+            Result result = current.get(entry.getKey());
+            if (result == null)
+            {
+                out.printf("MISSING    %s%n", entry.getKey());
+                regressions++;
+                continue;
+            }
+
+            double change = (result.score - base.score) / base.score;
+            double worsening = base.isHigherBetter() ? -change : change;
+            double error = errorOrZero(base.scoreError) + errorOrZero(result.scoreError);
+            boolean slower = worsening > threshold && Math.abs(result.score - base.score) > error;
+
+            boolean moreAllocation = !Double.isNaN(base.allocation) && !Double.isNaN(result.allocation)
+                && result.allocation > base.allocation * (1 + threshold)
+                && result.allocation - base.allocation > ALLOCATION_TOLERANCE;
+
+            String status = slower || moreAllocation ? "REGRESSED" : worsening < -threshold ? "IMPROVED" : "OK";
+            out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%), %.0f -> %.0f B/op%n", status, entry.getKey(),
+                base.score, result.score, result.scoreUnit, 100 * change, base.allocation, result.allocation);
+
+            if (slower || moreAllocation)
+                regressions++;
+        }
+
+        return regressions;
+    }
+
+    protected static double errorOrZero(double error)
+    {
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Reads a JMH results file in JSON format.
+     *
+     * @param file the results file.
+     *
+     * @return the results, keyed by the benchmark name followed by its parameters.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    public static Map<String, Result> readResults(File file) throws IOException
+    {
+        Map<String, Result> results = new TreeMap<String, Result>();
+
+        JSONDoc doc = new JSONDoc(file);
+        try
+        {
+            doc.parse();
+        }
+        finally
+        {
+            doc.close();
+        }
+
+        if (!(doc.getRootObject() instanceof Object[]))
+            return results;
+
+        for (Object o : (Object[]) doc.getRootObject())
+        {
+            if (!(o instanceof AVList))
+                continue;
+
+            AVList run = (AVList) o;
+            AVList primary = (AVList) run.getValue("primaryMetric");
+            if (primary == null)
+                continue;
+
+            double allocation = Double.NaN;
+            AVList secondary = (AVList) run.getValue("secondaryMetrics");
+            if (secondary != null)
+            {
+                for (Map.Entry<String, Object> metric : secondary.getEntries())
+                {
+                    // JMH versions before 1.36 prefix the profiler metric names with a middle dot.
+                    if (metric.getKey().endsWith(ALLOCATION_METRIC) && metric.getValue() instanceof AVList)
+                        allocation = toDouble(((AVList) metric.getValue()).getValue("score"));
+                }
+            }
+
+            results.put(makeKey(run), new Result(run.getStringValue("mode"), toDouble(primary.getValue("score")),
+                toDouble(primary.getValue("scoreError")), primary.getStringValue("scoreUnit"), allocation));
+        }
+
+        return results;
+    }
+
+    protected static String makeKey(AVList run)
+    {
+        StringBuilder sb = new StringBuilder(run.getStringValue("benchmark"));
+
+        AVList params = (AVList) run.getValue("params");
+        if (params != null)
+        {
+            // Order the parameters by name so that the key does not depend on the order JMH wrote them in.
+            Map<String, Object> sorted = new TreeMap<String, Object>();
+            for (Map.Entry<String, Object> param : params.getEntries())
+            {
+                sorted.put(param.getKey(), param.getValue());
+            }
+
+            sb.append(sorted);
+        }
+
+        return sb.toString();
+    }
+
+    protected static double toDouble(Object value)
+    {
+        if (value instanceof Number)
+            return ((Number) value).doubleValue();
+
+        // JMH writes non-finite values as strings, for example "NaN".
+        try
+        {
+            return value != null ? Double.parseDouble(value.toString()) : Double.NaN;
+        }
+        catch (NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+}
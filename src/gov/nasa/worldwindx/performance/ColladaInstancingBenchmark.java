@@ -0,0 +1,131 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.ogc.collada.ColladaRoot;
+import gov.nasa.worldwind.ogc.collada.impl.ColladaModelInstances;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Measures the memory and build time of placing one COLLADA model many times, headlessly. The benchmark compares two
+ * ways of placing the model:
+ * <ul> <li>One parsed document per placement, as a KML Model placemark does. Each document's meshes are built, and
+ * share vertex data with the other documents read from the same file.</li> <li>One {@link ColladaModelInstances} with
+ * an instance per placement, whose instances hold only their transforms and lightweight shapes.</li> </ul>
+ * The size of the model's vertex data is also reported: before vertex data was shared, every placement held a copy.
+ * <p>
+ * Usage: <code>ColladaInstancingBenchmark [numInstances [file]]</code>. The defaults are 10,000 instances of the duck
+ * model in the test data.
+ */
+public class ColladaInstancingBenchmark
+{
+    protected static final String DEFAULT_MODEL = "testData/collada/duck_triangulate.dae";
+    /** Number of documents parsed for the per-document measurement, which is much slower than instancing. */
+    protected static final int MAX_DOCUMENTS = 1000;
+
+    public static void main(String[] args) throws Exception
+    {
+        int numInstances = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        File file = new File(args.length > 1 ? args[1] : DEFAULT_MODEL);
+        int numDocuments = Math.min(numInstances, MAX_DOCUMENTS);
+
+        ColladaModelInstances model = new ColladaModelInstances(ColladaRoot.createAndParse(file));
+        long geometrySize = model.getGeometrySizeInBytes();
+        System.out.printf("Model %s: %d KB of vertex data per copy%n", file, geometrySize / 1024);
+
+        // Warm up both paths before measuring.
+        addDocuments(file, 20);
+        addInstances(model, 1000);
+        model.removeAllInstances();
+
+        List<ColladaModelInstances> documents = new ArrayList<ColladaModelInstances>();
+        long heap = usedHeap();
+        long t0 = System.nanoTime();
+        documents.addAll(addDocuments(file, numDocuments));
+        long documentNanos = System.nanoTime() - t0;
+        long documentBytes = usedHeap() - heap;
+        report("Document per placement", numDocuments, documentNanos, documentBytes);
+        documents.clear();
+
+        heap = usedHeap();
+        t0 = System.nanoTime();
+        addInstances(model, numInstances);
+        long instanceNanos = System.nanoTime() - t0;
+        long instanceBytes = usedHeap() - heap;
+        report("Shared instances", numInstances, instanceNanos, instanceBytes);
+
+        System.out.printf("Unshared vertex data for %d placements would add %d MB%n", numInstances,
+            numInstances * geometrySize / (1024 * 1024));
+    }
+
+    protected static List<ColladaModelInstances> addDocuments(File file, int count) throws Exception
+    {
+        List<ColladaModelInstances> documents = new ArrayList<ColladaModelInstances>(count);
+        for (int i = 0; i < count; i++)
+        {
+            // Parse the file and build its meshes, as a KML Model placemark does for its own document.
+            ColladaModelInstances document = new ColladaModelInstances(ColladaRoot.createAndParse(file));
+            document.addInstance(position(i));
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    protected static void addInstances(ColladaModelInstances model, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            model.addInstance(position(i), Angle.fromDegrees(i % 360), null, null, null);
+        }
+    }
+
+    protected static Position position(int i)
+    {
+        return Position.fromDegrees(40 + (i / 1000) * 0.001, -105 + (i % 1000) * 0.001, 0);
+    }
+
+    protected static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    protected static void report(String name, int count, long nanos, long bytes)
+    {
+        System.out.printf("%-24s %6d placements %9.1f ms %8.2f us/placement %10.0f bytes/placement%n", name, count,
+            nanos / 1e6, nanos / 1e3 / count, (double) bytes / count);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.ogc.kml.KMLCoordinateTokenizer;
+import gov.nasa.worldwind.util.*;
+
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * Measures the time and heap allocation of reading a large KML coordinate string. The benchmark compares the previous
+ * {@link KMLCoordinateTokenizer}, which built a string for each number and converted it with {@link
+ * Double#parseDouble(String)}, against the current tokenizer creating {@link Position}s and filling a {@link
+ * PackedPositionList}. It also compares <code>Double.parseDouble</code> against {@link DoubleParser} for numbers held
+ * in a character array, as the GeoJSON reader receives them from its JSON parser.
+ * <p>
+ * Usage: <code>CoordinateParsingBenchmark [numCoordinates]</code>. The default string has 1,000,000 coordinates.
+ */
+public class CoordinateParsingBenchmark
+{
+    protected static final int ITERATIONS = 10;
+
+    protected interface Task
+    {
+        int run();
+    }
+
+    /** The tokenizer as it was before it read the coordinate string in place. */
+    protected static class PreviousTokenizer
+    {
+        protected int i;
+        protected char[] buffer;
+        protected List<String> words = new ArrayList<String>(3);
+        protected StringBuilder nextWord = new StringBuilder();
+        protected boolean inWord;
+        protected boolean afterComma = false;
+
+        public PreviousTokenizer(String s)
+        {
+            this.buffer = s.trim().toCharArray();
+        }
+
+        public boolean hasMoreTokens()
+        {
+            return i < buffer.length;
+        }
+
+        public Position nextPosition()
+        {
+            this.words.clear();
+
+            while (this.i < this.buffer.length)
+            {
+                char ch = this.buffer[this.i++];
+
+                if (Character.isWhitespace(ch))
+                {
+                    if (this.inWord)
+                        wordBoundary();
+                    if (!this.afterComma && this.words.size() >= 2)
+                        break;
+                }
+                else if (ch == ',')
+                {
+                    if (this.inWord)
+                        wordBoundary();
+                    this.afterComma = true;
+                    if (this.words.size() >= 3)
+                        break;
+                }
+                else
+                {
+                    this.inWord = true;
+                    this.afterComma = false;
+                    this.nextWord.append(ch);
+                }
+            }
+
+            if (this.inWord)
+                this.wordBoundary();
+
+            if (this.words.size() > 2)
+                return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)),
+                    Double.valueOf(this.words.get(2)));
+            else if (this.words.size() == 2)
+                return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)));
+            return null;
+        }
+
+        protected void wordBoundary()
+        {
+            this.inWord = false;
+            this.words.add(this.nextWord.toString());
+            this.nextWord = new StringBuilder();
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int numCoordinates = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        final String coordinates = makeCoordinates(numCoordinates);
+        final char[] chars = coordinates.toCharArray();
+        final int[] numberBounds = findNumbers(chars);
+        System.out.printf("%d coordinates, %d characters, %d iterations%n", numCoordinates, chars.length,
+            ITERATIONS);
+
+        run("Previous tokenizer", numCoordinates, new Task()
+        {
+            public int run()
+            {
+                List<Position> positions = new ArrayList<Position>();
+                PreviousTokenizer tokenizer = new PreviousTokenizer(coordinates);
+                while (tokenizer.hasMoreTokens())
+                {
+                    positions.add(tokenizer.nextPosition());
+                }
+                return positions.size();
+            }
+        });
+
+        run("Tokenizer, Position", numCoordinates, new Task()
+        {
+            public int run()
+            {
+                List<Position> positions = new ArrayList<Position>();
+                KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(coordinates);
+                while (tokenizer.hasMoreTokens())
+                {
+                    positions.add(tokenizer.nextPosition());
+                }
+                return positions.size();
+            }
+        });
+
+        run("Tokenizer, packed", numCoordinates, new Task()
+        {
+            public int run()
+            {
+                PackedPositionList positions = new PackedPositionList();
+                double[] coords = new double[3];
+                KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(coordinates);
+                while (tokenizer.hasMoreTokens())
+                {
+                    if (tokenizer.nextCoordinates(coords) > 0)
+                        positions.add(coords[0], coords[1], coords[2]);
+                }
+                return positions.size();
+            }
+        });
+
+        run("Double.parseDouble", numberBounds.length / 2, new Task()
+        {
+            public int run()
+            {
+                double sum = 0;
+                for (int i = 0; i < numberBounds.length; i += 2)
+                {
+                    sum += Double.parseDouble(new String(chars, numberBounds[i], numberBounds[i + 1]));
+                }
+                return (int) sum;
+            }
+        });
+
+        run("DoubleParser", numberBounds.length / 2, new Task()
+        {
+            public int run()
+            {
+                double sum = 0;
+                for (int i = 0; i < numberBounds.length; i += 2)
+                {
+                    sum += DoubleParser.parseDouble(chars, numberBounds[i], numberBounds[i + 1]);
+                }
+                return (int) sum;
+            }
+        });
+    }
+
+    protected static void run(String name, int numItems, Task task)
+    {
+        // Warm up before timing.
+        task.run();
+        task.run();
+
+        TimingHistogram histogram = new TimingHistogram(name);
+        long allocated = getAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            long t0 = System.nanoTime();
+            task.run();
+            histogram.recordSince(t0);
+        }
+        allocated = getAllocatedBytes() - allocated;
+
+        double nanosPerItem = (double) histogram.getTotalNanos() / ITERATIONS / numItems;
+        System.out.printf("%-22s %7.1f ns/item, %7.1f bytes/item | %s%n", name, nanosPerItem,
+            (double) allocated / ITERATIONS / numItems, histogram);
+    }
+
+    protected static String makeCoordinates(int numCoordinates)
+    {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(32 * numCoordinates);
+        for (int i = 0; i < numCoordinates; i++)
+        {
+            sb.append(String.format("%.7f,%.7f,%.2f", random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90,
+                random.nextDouble() * 1000));
+            sb.append(i % 4 == 3 ? "\n  " : " ");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Finds the numbers in a coordinate string.
+     *
+     * @param chars the coordinate string's characters.
+     *
+     * @return the offset and length of each number, one number after another.
+     */
+    protected static int[] findNumbers(char[] chars)
+    {
+        int[] bounds = new int[16];
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= chars.length; i++)
+        {
+            boolean separator = i == chars.length || chars[i] == ',' || Character.isWhitespace(chars[i]);
+            if (!separator && start < 0)
+            {
+                start = i;
+            }
+            else if (separator && start >= 0)
+            {
+                if (count + 2 > bounds.length)
+                    bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+                bounds[count++] = start;
+                bounds[count++] = i - start;
+                start = -1;
+            }
+        }
+
+        return Arrays.copyOf(bounds, count);
+    }
+
+    protected static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+}
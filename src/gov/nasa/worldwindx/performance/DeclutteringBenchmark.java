@@ -0,0 +1,223 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.view.BasicView;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Measures the per-frame cost of label decluttering without an OpenGL context. The benchmark scatters labels over a
+ * 1920x1080 viewport and, for each of a sequence of frames in which the view pans slowly and the labels' eye distances
+ * change slightly, applies a clutter filter to the labels sorted front to back, as the scene controller does. It
+ * compares the linear overlap search {@link BasicClutterFilter} formerly used against its grid-indexed search, with
+ * and without temporal stability, and reports the per-frame time and the number of labels that appear or disappear
+ * from one frame to the next.
+ * <p>
+ * Usage: <code>DeclutteringBenchmark [numLabels]</code>. The default is 50,000 labels.
+ */
+public class DeclutteringBenchmark
+{
+    protected static final int FRAMES = 30;
+    protected static final int VIEWPORT_WIDTH = 1920;
+    protected static final int VIEWPORT_HEIGHT = 1080;
+
+    protected static class Label implements Declutterable
+    {
+        protected final double x;
+        protected final double y;
+        protected final double width;
+        protected final double height;
+        protected final double distance;
+        protected Rectangle2D bounds;
+        protected double distanceFromEye;
+
+        public Label(double x, double y, double width, double height, double distance)
+        {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.distance = distance;
+        }
+
+        public boolean isEnableDecluttering()
+        {
+            return true;
+        }
+
+        public Rectangle2D getBounds(DrawContext dc)
+        {
+            return this.bounds;
+        }
+
+        public double getDistanceFromEye()
+        {
+            return this.distanceFromEye;
+        }
+
+        public void pick(DrawContext dc, Point pickPoint)
+        {
+        }
+
+        public void render(DrawContext dc)
+        {
+        }
+    }
+
+    /** The filter as it was before its accepted regions were indexed: a linear search and no reordering. */
+    protected static class LinearClutterFilter extends BasicClutterFilter
+    {
+        @Override
+        protected Rectangle2D intersects(Rectangle2D rectangle)
+        {
+            if (rectangle == null)
+                return null;
+
+            for (Rectangle2D rect : this.rectList)
+            {
+                if (rectangle.intersects(rect))
+                    return rect;
+            }
+
+            return null;
+        }
+
+        @Override
+        protected List<Declutterable> orderShapes(List<Declutterable> shapes)
+        {
+            return shapes;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int numLabels = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+        Random random = new Random(1);
+        List<Label> labels = new ArrayList<Label>(numLabels);
+        for (int i = 0; i < numLabels; i++)
+        {
+            // Labels of 4 to 20 characters of a 12 point font, scattered over an area larger than the viewport.
+            labels.add(new Label(-0.25 * VIEWPORT_WIDTH + 1.5 * VIEWPORT_WIDTH * random.nextDouble(),
+                -0.25 * VIEWPORT_HEIGHT + 1.5 * VIEWPORT_HEIGHT * random.nextDouble(), 28 + 112 * random.nextDouble(),
+                14, 1e5 + 1e4 * random.nextDouble()));
+        }
+
+        BasicClutterFilter unstable = new BasicClutterFilter();
+        unstable.setEnableTemporalStability(false);
+
+        System.out.printf("%d labels, %dx%d viewport%n", numLabels, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+        run("Linear search", new LinearClutterFilter(), labels);
+        run("Grid", unstable, labels);
+        run("Grid, temporal stability", new BasicClutterFilter(), labels);
+    }
+
+    protected static void run(String name, ClutterFilter filter, List<Label> labels)
+    {
+        final Set<Declutterable> accepted = new HashSet<Declutterable>();
+        DrawContext dc = new DrawContextImpl()
+        {
+            @Override
+            public void addOrderedRenderable(OrderedRenderable orderedRenderable)
+            {
+                accepted.add((Declutterable) orderedRenderable);
+            }
+        };
+        dc.setView(new BasicView()
+        {
+            {
+                this.viewport = new Rectangle(0, 0, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+            }
+        });
+
+        TimingHistogram histogram = new TimingHistogram(name);
+        Set<Declutterable> previous = new HashSet<Declutterable>();
+        List<Declutterable> shapes = new ArrayList<Declutterable>(labels.size());
+        long changes = 0;
+        long acceptedCount = 0;
+
+        for (int frame = 0; frame < FRAMES; frame++)
+        {
+            // Pan by a few pixels per frame and perturb the eye distances, which reorders nearly equidistant labels.
+            Random random = new Random(frame);
+            shapes.clear();
+            for (Label label : labels)
+            {
+                label.bounds = new Rectangle2D.Double(label.x - 3 * frame, label.y - frame, label.width, label.height);
+                label.distanceFromEye = label.distance * (1 + 0.05 * random.nextDouble());
+                shapes.add(label);
+            }
+            sortFrontToBack(shapes);
+
+            accepted.clear();
+            long t = System.nanoTime();
+            filter.apply(dc, shapes);
+            if (frame > 0)
+                histogram.recordSince(t);
+
+            if (frame > 0)
+            {
+                for (Declutterable shape : accepted)
+                {
+                    if (!previous.contains(shape))
+                        changes++;
+                }
+                for (Declutterable shape : previous)
+                {
+                    if (!accepted.contains(shape))
+                        changes++;
+                }
+                acceptedCount += accepted.size();
+            }
+
+            previous.clear();
+            previous.addAll(accepted);
+        }
+
+        System.out.printf("%-26s %6.0f labels drawn, %6.1f labels changed per frame | %s%n", name,
+            acceptedCount / (double) (FRAMES - 1), changes / (double) (FRAMES - 1), histogram);
+    }
+
+    protected static void sortFrontToBack(List<Declutterable> shapes)
+    {
+        Collections.sort(shapes, new Comparator<Declutterable>()
+        {
+            public int compare(Declutterable a, Declutterable b)
+            {
+                return Double.compare(a.getDistanceFromEye(), b.getDistanceFromEye());
+            }
+        });
+    }
+}
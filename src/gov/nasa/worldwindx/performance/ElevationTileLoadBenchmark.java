@@ -0,0 +1,198 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.terrain.BasicElevationModel;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.lang.management.*;
+import java.net.URL;
+import java.nio.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the latency and heap allocation of loading local BIL elevation tiles with {@link BasicElevationModel}, with
+ * and without memory mapped tile files. The benchmark writes a set of 16-bit tiles to a temporary directory, then loads
+ * randomly chosen tiles as the model does when a tile is first requested or has been evicted from the memory cache:
+ * the file is read or mapped, wrapped in a {@link BufferWrapper}, and scanned for its extreme elevations.
+ * <p>
+ * Usage: <code>ElevationTileLoadBenchmark [numTiles] [tileSize]</code>. The defaults are 2048 tiles of 150x150
+ * samples, about 90 MB. Allocation rates are reported when the JVM supports per-thread allocation accounting.
+ */
+public class ElevationTileLoadBenchmark
+{
+    protected static final int NUM_LOADS = 20000;
+
+    protected static class Model extends BasicElevationModel
+    {
+        public Model(AVList params)
+        {
+            super(params);
+        }
+
+        public BufferWrapper load(URL url) throws IOException
+        {
+            BufferWrapper elevations = this.makeBilElevations(url);
+
+            // Scan the elevations as ElevationTile.setElevations does.
+            double[] extremes = WWUtil.defaultMinMix();
+            for (int i = 0; i < elevations.length(); i++)
+            {
+                this.determineExtremes(elevations.getDouble(i), extremes);
+            }
+
+            return elevations;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int numTiles = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int tileSize = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+
+        File dir = File.createTempFile("ElevationTileLoadBenchmark", "");
+        dir.delete();
+        dir.mkdirs();
+
+        System.out.printf("Writing %d tiles of %dx%d samples to %s%n", numTiles, tileSize, tileSize, dir);
+        List<URL> urls = writeTiles(dir, numTiles, tileSize);
+
+        Model model = new Model(makeParams(tileSize));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores})
+        {
+            model.setMemoryMappedFilesEnabled(false);
+            run("Heap copy", model, urls, threads);
+            model.setMemoryMappedFilesEnabled(true);
+            run("Memory mapped", model, urls, threads);
+        }
+    }
+
+    protected static void run(String name, final Model model, final List<URL> urls, int threads) throws Exception
+    {
+        final TimingHistogram histogram = new TimingHistogram(name);
+        final AtomicLong allocatedBytes = new AtomicLong();
+        final int loadsPerThread = NUM_LOADS / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++)
+        {
+            final int seed = t;
+            futures.add(executor.submit(new Callable<Void>()
+            {
+                public Void call() throws Exception
+                {
+                    Random random = new Random(seed);
+                    long allocated = getAllocatedBytes();
+                    for (int i = 0; i < loadsPerThread; i++)
+                    {
+                        long t0 = System.nanoTime();
+                        model.load(urls.get(random.nextInt(urls.size())));
+                        histogram.recordSince(t0);
+                    }
+                    allocatedBytes.addAndGet(getAllocatedBytes() - allocated);
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        long numLoads = (long) loadsPerThread * threads;
+        System.out.printf("%-14s %2d threads: %8.0f tiles/s, %8.1f KB allocated/tile, %7.1f MB/s allocated | %s%n",
+            name, threads, numLoads / seconds, allocatedBytes.get() / 1024.0 / numLoads,
+            allocatedBytes.get() / seconds / 1e6, histogram);
+    }
+
+    protected static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+
+    protected static AVList makeParams(int tileSize)
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.SECTOR, Sector.FULL_SPHERE);
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, LatLon.fromDegrees(20, 20));
+        params.setValue(AVKey.NUM_LEVELS, 1);
+        params.setValue(AVKey.TILE_WIDTH, tileSize);
+        params.setValue(AVKey.TILE_HEIGHT, tileSize);
+        params.setValue(AVKey.FORMAT_SUFFIX, ".bil");
+        params.setValue(AVKey.DATA_TYPE, AVKey.INT16);
+        params.setValue(AVKey.BYTE_ORDER, AVKey.LITTLE_ENDIAN);
+        params.setValue(AVKey.DATASET_NAME, "benchmark");
+        params.setValue(AVKey.DATA_CACHE_NAME, "benchmark");
+        params.setValue(AVKey.NETWORK_RETRIEVAL_ENABLED, false);
+        return params;
+    }
+
+    protected static List<URL> writeTiles(File dir, int numTiles, int tileSize) throws IOException
+    {
+        List<URL> urls = new ArrayList<URL>(numTiles);
+        Random random = new Random(1);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * tileSize * tileSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int i = 0; i < numTiles; i++)
+        {
+            buffer.clear();
+            int base = random.nextInt(4000);
+            for (int j = 0; j < tileSize * tileSize; j++)
+            {
+                buffer.putShort((short) (base + random.nextInt(500)));
+            }
+            buffer.flip();
+
+            File file = new File(dir, i + ".bil");
+            WWIO.saveBuffer(buffer, file);
+            urls.add(file.toURI().toURL());
+        }
+
+        return urls;
+    }
+}
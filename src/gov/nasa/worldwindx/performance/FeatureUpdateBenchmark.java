@@ -0,0 +1,213 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.formats.geojson.*;
+import gov.nasa.worldwind.ogc.kml.*;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Measures the latency of updating a displayed GeoJSON or KML document from a new version in which a small fraction of
+ * the features changed, as a live feed does. For each format the benchmark writes a document of the requested number
+ * of features to a temporary file, loads it, and then writes and applies a series of new versions in which about 1% of
+ * the features moved, changed their properties, or were removed and added again.
+ * <p>
+ * For GeoJSON, each update is applied by {@link GeoJSONFeatureSet}, and the time to read the new version and compute
+ * the diff is reported separately from the time to apply it to the shapes. A full reload, which creates every shape
+ * again, is measured for comparison. For KML, each update parses the new version and applies a {@link KMLFeatureDiff}
+ * to the displayed document. A KML reload would also rebuild the shapes of every placemark when next rendered, which
+ * cannot be measured headlessly; the benchmark reports how many placemarks kept their shapes instead.
+ * <p>
+ * Usage: <code>FeatureUpdateBenchmark [numFeatures [numUpdates]]</code>. The defaults are 100,000 features and 5
+ * updates.
+ */
+public class FeatureUpdateBenchmark
+{
+    /** One feature in this many changes in each version. */
+    protected static final int CHURN_INTERVAL = 100;
+
+    public static void main(String[] args) throws Exception
+    {
+        int numFeatures = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int numUpdates = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File file = File.createTempFile("FeatureUpdateBenchmark", ".geojson");
+        file.deleteOnExit();
+        runGeoJSON(file, numFeatures, numUpdates);
+
+        file = File.createTempFile("FeatureUpdateBenchmark", ".kml");
+        file.deleteOnExit();
+        runKML(file, numFeatures, numUpdates);
+    }
+
+    protected static void runGeoJSON(File file, int numFeatures, int numUpdates) throws IOException
+    {
+        writeGeoJSON(file, numFeatures, 0);
+        long start = System.nanoTime();
+        GeoJSONFeatureSet featureSet = new GeoJSONFeatureSet();
+        featureSet.update(file);
+        System.out.printf("GeoJSON: %d features, %d KB, initial load %.1f ms%n", featureSet.getFeatures().size(),
+            file.length() >> 10, (System.nanoTime() - start) / 1e6);
+
+        for (int version = 1; version <= numUpdates; version++)
+        {
+            writeGeoJSON(file, numFeatures, version);
+
+            start = System.nanoTime();
+            GeoJSONFeatureDiff diff = featureSet.computeDiff(file);
+            long diffNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            featureSet.applyDiff(diff);
+            long applyNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new GeoJSONFeatureSet().update(file);
+            long reloadNanos = System.nanoTime() - start;
+
+            System.out.printf("Update %d: %4d added, %4d removed, %4d moved, %4d properties changed;"
+                    + " read and diff %6.1f ms, apply %5.1f ms, full reload %6.1f ms%n", version,
+                diff.getAddedKeys().size(), diff.getRemovedKeys().size(), diff.getGeometryChangedKeys().size(),
+                diff.getPropertiesChangedKeys().size(), diffNanos / 1e6, applyNanos / 1e6, reloadNanos / 1e6);
+        }
+    }
+
+    protected static void runKML(File file, int numFeatures, int numUpdates) throws Exception
+    {
+        writeKML(file, numFeatures, 0);
+        long start = System.nanoTime();
+        KMLRoot root = KMLRoot.createAndParse(file);
+        System.out.printf("KML: %d placemarks, %d KB, initial parse %.1f ms%n",
+            ((KMLAbstractContainer) root.getFeature()).getFeatures().size(), file.length() >> 10,
+            (System.nanoTime() - start) / 1e6);
+
+        for (int version = 1; version <= numUpdates; version++)
+        {
+            writeKML(file, numFeatures, version);
+
+            start = System.nanoTime();
+            KMLRoot update = KMLRoot.createAndParse(file);
+            long parseNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            KMLFeatureDiff diff = new KMLFeatureDiff(root, update);
+            long diffNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            diff.apply();
+            long applyNanos = System.nanoTime() - start;
+
+            int kept = ((KMLAbstractContainer) root.getFeature()).getFeatures().size()
+                - diff.getAddedFeatures().size() - diff.getChangedFeatures().size();
+            System.out.printf("Update %d: %4d added, %4d removed, %4d changed, %6d kept;"
+                    + " parse %6.1f ms, diff %5.1f ms, apply %5.1f ms%n", version, diff.getAddedFeatures().size(),
+                diff.getRemovedFeatures().size(), diff.getChangedFeatures().size(), kept, parseNanos / 1e6,
+                diffNanos / 1e6, applyNanos / 1e6);
+        }
+    }
+
+    /**
+     * Indicates how a feature differs in a version of the document.
+     *
+     * @param id      the feature's identifier.
+     * @param version the document version.
+     *
+     * @return 0 if the feature is unchanged, 1 if it moved, 2 if its name changed, or 3 if it's absent.
+     */
+    protected static int getChange(int id, int version)
+    {
+        if (version == 0 || (id + version * 37) % CHURN_INTERVAL != 0)
+            return 0;
+
+        return 1 + (id / CHURN_INTERVAL + version) % 3;
+    }
+
+    protected static void writeGeoJSON(File file, int numFeatures, int version) throws IOException
+    {
+        StringBuilder sb = new StringBuilder(numFeatures * 256);
+        sb.append("{\"type\": \"FeatureCollection\", \"features\": [\n");
+        String separator = "";
+        for (int id = 0; id < numFeatures; id++)
+        {
+            int change = getChange(id, version);
+            if (change == 3)
+                continue;
+
+            sb.append(separator);
+            separator = ",\n";
+            int start = sb.length();
+            GeoJSONStreamingBenchmark.appendFeature(sb, id, new Random(change == 1 ? id + 1000003L * version : id));
+            if (change == 2)
+            {
+                int nameEnd = sb.indexOf("\", \"category\"", start);
+                sb.insert(nameEnd, " (version " + version + ")");
+            }
+        }
+        sb.append("\n]}\n");
+
+        write(file, sb);
+    }
+
+    protected static void writeKML(File file, int numFeatures, int version) throws IOException
+    {
+        StringBuilder sb = new StringBuilder(numFeatures * 200);
+        sb.append("<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document id=\"feed\">\n");
+        sb.append("<Style id=\"style\"><IconStyle><scale>0.5</scale></IconStyle></Style>\n");
+        for (int id = 0; id < numFeatures; id++)
+        {
+            int change = getChange(id, version);
+            if (change == 3)
+                continue;
+
+            Random random = new Random(change == 1 ? id + 1000003L * version : id);
+            sb.append("<Placemark id=\"p").append(id).append("\"><name>Feature ").append(id);
+            if (change == 2)
+                sb.append(" (version ").append(version).append(')');
+            sb.append("</name><styleUrl>#style</styleUrl><Point><coordinates>")
+                .append(GeoJSONStreamingBenchmark.round(random.nextDouble() * 350 - 175)).append(',')
+                .append(GeoJSONStreamingBenchmark.round(random.nextDouble() * 160 - 80))
+                .append("</coordinates></Point></Placemark>\n");
+        }
+        sb.append("</Document></kml>\n");
+
+        write(file, sb);
+    }
+
+    protected static void write(File file, CharSequence content) throws IOException
+    {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try
+        {
+            writer.append(content);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
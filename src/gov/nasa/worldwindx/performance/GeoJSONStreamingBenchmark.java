@@ -0,0 +1,281 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.formats.geojson.*;
+import gov.nasa.worldwind.geom.Sector;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.Random;
+
+/**
+ * Measures the parse rate and heap use of reading a very large GeoJSON FeatureCollection with {@link
+ * GeoJSONFeatureIterator}. The benchmark writes a synthetic collection of the requested size to a temporary file, or
+ * reads a document named on the command line. It then reads the document:
+ * <ul> <li>for all features,</li> <li>for all features without their properties,</li> <li>filtered by a sector,
+ * and</li> <li>collected into batched surface shapes with {@link GeoJSONSurfaceShapeBuilder}, one pair of shapes per
+ * 10,000 features.</li> </ul>
+ * For comparison it also opens a prefix of the document with {@link GeoJSONDoc}, which builds the whole document's
+ * object tree. Each pass reports throughput and peak heap use.
+ * <p>
+ * Usage: <code>GeoJSONStreamingBenchmark [sizeMB | file]</code>. The default document is about 1 GB. Run with a small
+ * maximum heap, such as <code>-Xmx128m</code>, to confirm that heap use does not grow with the document.
+ */
+public class GeoJSONStreamingBenchmark
+{
+    protected static final int BATCH_SIZE = 10000;
+    protected static final long MAX_DOC_SIZE = 64L * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception
+    {
+        File file;
+        if (args.length > 0 && new File(args[0]).exists())
+        {
+            file = new File(args[0]);
+        }
+        else
+        {
+            long sizeBytes = (args.length > 0 ? Long.parseLong(args[0]) : 1024) * 1024 * 1024;
+            file = File.createTempFile("GeoJSONStreamingBenchmark", ".geojson");
+            file.deleteOnExit();
+            System.out.printf("Writing %d MB to %s%n", sizeBytes >> 20, file);
+            writeDocument(file, sizeBytes);
+        }
+        System.out.printf("Reading %s (%d MB), max heap %d MB%n", file, file.length() >> 20,
+            Runtime.getRuntime().maxMemory() >> 20);
+
+        run(file, "All", null, true, false);
+        run(file, "No properties", null, false, false);
+        run(file, "Sector", Sector.fromDegrees(-20, 20, -40, 40), true, false);
+        run(file, "Shapes", null, false, true);
+        runDoc(file);
+    }
+
+    protected static void run(File file, String name, Sector sector, boolean readProperties, boolean buildShapes)
+    {
+        System.gc();
+        resetPeakHeapUsage();
+
+        long features = 0;
+        long positions = 0;
+        long shapes = 0;
+        GeoJSONSurfaceShapeBuilder builder = new GeoJSONSurfaceShapeBuilder();
+        long start = System.nanoTime();
+        GeoJSONFeatureIterator iterator = new GeoJSONFeatureIterator(file, sector);
+        iterator.setReadProperties(readProperties);
+        try
+        {
+            while (iterator.hasNext())
+            {
+                GeoJSONPackedFeature feature = iterator.next();
+                features++;
+                if (feature.getGeometry() != null)
+                    positions += feature.getGeometry().getPositionCount();
+
+                if (buildShapes)
+                {
+                    builder.addFeature(feature);
+                    if (features % BATCH_SIZE == 0)
+                        shapes += buildShapes(builder);
+                }
+            }
+            shapes += buildShapes(builder);
+        }
+        finally
+        {
+            iterator.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-14s %10d features, %11d positions, %5d shapes, %7.1f s, %9.0f features/s, %5.1f MB/s,"
+            + " peak heap %d MB%n", name, features, positions, shapes, seconds, features / seconds,
+            file.length() / seconds / 1e6, getPeakHeapUsage() >> 20);
+    }
+
+    protected static int buildShapes(GeoJSONSurfaceShapeBuilder builder)
+    {
+        int count = builder.createSurfacePolygons() != null ? 1 : 0;
+        count += builder.createSurfacePolylines() != null ? 1 : 0;
+        builder.clear();
+        return count;
+    }
+
+    /** Opens a prefix of the document with GeoJSONDoc, which holds the document's object tree in memory. */
+    protected static void runDoc(File file) throws IOException
+    {
+        File prefix = file;
+        if (file.length() > MAX_DOC_SIZE)
+        {
+            prefix = File.createTempFile("GeoJSONStreamingBenchmark", ".geojson");
+            prefix.deleteOnExit();
+            writeDocument(prefix, MAX_DOC_SIZE);
+        }
+
+        System.gc();
+        resetPeakHeapUsage();
+
+        long start = System.nanoTime();
+        GeoJSONDoc doc = new GeoJSONDoc(prefix);
+        try
+        {
+            doc.parse();
+        }
+        finally
+        {
+            doc.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-14s %d MB document, %7.1f s, %5.1f MB/s, peak heap %d MB%n", "GeoJSONDoc",
+            prefix.length() >> 20, seconds, prefix.length() / seconds / 1e6, getPeakHeapUsage() >> 20);
+    }
+
+    /**
+     * Writes a synthetic FeatureCollection of about the specified size. Features are polygons, some with a hole, line
+     * strings, and points, spread over the globe, each with a few properties.
+     *
+     * @param file      the file to write.
+     * @param sizeBytes the approximate size of the document.
+     *
+     * @throws IOException if an error occurs while writing the file.
+     */
+    public static void writeDocument(File file, long sizeBytes) throws IOException
+    {
+        Random random = new Random(1);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 1 << 16);
+        try
+        {
+            writer.write("{\"type\": \"FeatureCollection\", \"features\": [\n");
+
+            StringBuilder sb = new StringBuilder();
+            long size = 0;
+            for (int i = 0; size < sizeBytes; i++)
+            {
+                sb.setLength(0);
+                if (i > 0)
+                    sb.append(",\n");
+                appendFeature(sb, i, random);
+                writer.append(sb);
+                size += sb.length();
+            }
+
+            writer.write("\n]}\n");
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    protected static void appendFeature(StringBuilder sb, int id, Random random)
+    {
+        double lat = random.nextDouble() * 160 - 80;
+        double lon = random.nextDouble() * 350 - 175;
+        double radius = 0.01 + random.nextDouble() * 0.5;
+
+        sb.append("{\"type\": \"Feature\", \"id\": ").append(id).append(", \"geometry\": ");
+        switch (id % 3)
+        {
+            case 0:
+                sb.append("{\"type\": \"Polygon\", \"coordinates\": [");
+                appendRing(sb, lat, lon, radius, 8 + random.nextInt(24), false);
+                if (random.nextBoolean())
+                {
+                    sb.append(", ");
+                    appendRing(sb, lat, lon, radius / 3, 6, true);
+                }
+                sb.append("]}");
+                break;
+            case 1:
+                sb.append("{\"type\": \"LineString\", \"coordinates\": [");
+                for (int i = 0; i < 16; i++)
+                {
+                    if (i > 0)
+                        sb.append(", ");
+                    appendPosition(sb, lat + i * radius / 16, lon + random.nextDouble() * radius);
+                }
+                sb.append("]}");
+                break;
+            default:
+                sb.append("{\"type\": \"Point\", \"coordinates\": ");
+                appendPosition(sb, lat, lon);
+                sb.append('}');
+                break;
+        }
+
+        sb.append(", \"properties\": {\"name\": \"Feature ").append(id).append("\", \"category\": ")
+            .append(random.nextInt(10)).append(", \"value\": ").append(round(random.nextDouble() * 1000))
+            .append(", \"visible\": ").append(random.nextBoolean()).append("}}");
+    }
+
+    protected static void appendRing(StringBuilder sb, double lat, double lon, double radius, int count,
+        boolean clockwise)
+    {
+        sb.append('[');
+        for (int i = 0; i <= count; i++)
+        {
+            double angle = 2 * Math.PI * (i % count) / count * (clockwise ? -1 : 1);
+            if (i > 0)
+                sb.append(", ");
+            appendPosition(sb, lat + radius * Math.sin(angle), lon + radius * Math.cos(angle));
+        }
+        sb.append(']');
+    }
+
+    protected static void appendPosition(StringBuilder sb, double lat, double lon)
+    {
+        sb.append('[').append(round(lon)).append(", ").append(round(lat)).append(']');
+    }
+
+    protected static double round(double value)
+    {
+        return Math.round(value * 1e6) / 1e6;
+    }
+
+    protected static void resetPeakHeapUsage()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    protected static long getPeakHeapUsage()
+    {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+                bytes += pool.getPeakUsage().getUsed();
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import com.sun.net.httpserver.*;
+import gov.nasa.worldwind.ogc.kml.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the time to resolve a deep hierarchy of KML network links served over HTTP with {@link KMLResourceLoader}.
+ * The benchmark starts a local HTTP server that generates the documents on request and delays each response to stand
+ * in for network latency. Every document links to <code>fanout</code> child documents down to the requested depth, and
+ * every leaf document also links to one document shared by all leaves. The hierarchy is resolved with one retrieval
+ * thread, which retrieves documents one at a time as network links do without a loader, and then with more threads.
+ * <p>
+ * Usage: <code>KMLNetworkLinkBenchmark [depth] [fanout] [latencyMillis]</code>. The defaults are a depth of 4, a fanout
+ * of 4 (341 documents, plus the shared one) and 20 milliseconds of latency.
+ */
+public class KMLNetworkLinkBenchmark
+{
+    protected static final int PLACEMARKS_PER_DOCUMENT = 20;
+
+    public static void main(String[] args) throws Exception
+    {
+        final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        final int fanout = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final int latency = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        final AtomicInteger numRequests = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", new HttpHandler()
+        {
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                numRequests.incrementAndGet();
+                try
+                {
+                    Thread.sleep(latency);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                String name = exchange.getRequestURI().getPath().substring(1);
+                byte[] content = makeDocument(name.substring(0, name.lastIndexOf('.')), depth, fanout).getBytes(
+                    "UTF-8");
+                exchange.getResponseHeaders().set("Content-Type", KMLConstants.KML_MIME_TYPE);
+                exchange.sendResponseHeaders(200, content.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(content);
+                out.close();
+            }
+        });
+        server.start();
+
+        String address = "http://127.0.0.1:" + server.getAddress().getPort() + "/0.kml";
+        System.out.printf("Depth %d, fanout %d, %d ms latency%n", depth, fanout, latency);
+
+        for (int threads : new int[] {1, 4, 16, 64})
+        {
+            numRequests.set(0);
+            KMLResourceLoader loader = new KMLResourceLoader(threads, KMLResourceLoader.DEFAULT_DOCUMENT_CACHE_CAPACITY,
+                KMLResourceLoader.DEFAULT_ICON_CACHE_CAPACITY);
+
+            long start = System.nanoTime();
+            KMLRoot root = loader.requestDocument(address, true, 0).get();
+            int numLinks = loader.loadNetworkLinks(root, null);
+            double millis = (System.nanoTime() - start) / 1e6;
+
+            System.out.printf("%2d threads: %6.0f ms, %4d links resolved, %4d HTTP requests%n", threads, millis,
+                numLinks, numRequests.get());
+            loader.dispose();
+        }
+
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
+    }
+
+    /**
+     * Creates a document of the hierarchy. Document names are the path of child indices from the top document, such as
+     * "0_2_1".
+     *
+     * @param name   the document's name, or "shared" for the document linked by all leaves.
+     * @param depth  the depth of the hierarchy.
+     * @param fanout the number of children of each document above the leaves.
+     *
+     * @return the document.
+     */
+    protected static String makeDocument(String name, int depth, int fanout)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document><name>").append(name).append("</name>\n");
+
+        for (int i = 0; i < PLACEMARKS_PER_DOCUMENT; i++)
+        {
+            sb.append("<Placemark><name>").append(name).append('.').append(i).append("</name><Point><coordinates>")
+                .append(i % 360 - 180).append(',').append(i % 180 - 90).append("</coordinates></Point></Placemark>\n");
+        }
+
+        if (!name.equals("shared"))
+        {
+            int level = name.split("_").length;
+            if (level <= depth)
+            {
+                for (int i = 0; i < fanout; i++)
+                {
+                    appendLink(sb, name + "_" + i + ".kml");
+                }
+            }
+            else
+            {
+                appendLink(sb, "shared.kml");
+            }
+        }
+
+        sb.append("</Document></kml>\n");
+        return sb.toString();
+    }
+
+    protected static void appendLink(StringBuilder sb, String href)
+    {
+        sb.append("<NetworkLink><Link><href>").append(href).append("</href></Link></NetworkLink>\n");
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.ogc.kml.KMLRoot;
+import gov.nasa.worldwind.util.*;
+
+import javax.xml.stream.XMLEventReader;
+import java.io.*;
+import java.lang.management.*;
+import java.util.Random;
+
+/**
+ * Measures the time and heap allocation of parsing a large KML document with {@link KMLRoot}, reading the document
+ * with the platform's XML event reader and with the cursor-based reader KMLRoot uses by default. The benchmark writes a
+ * synthetic document of placemarks with styles, extended data and point, line and polygon geometry to a temporary
+ * file, or parses a document named on the command line.
+ * <p>
+ * Usage: <code>KMLParsingBenchmark [numPlacemarks | file]</code>. The default document has 20,000 placemarks.
+ */
+public class KMLParsingBenchmark
+{
+    protected static final int ITERATIONS = 10;
+
+    /** A KML root that reads its document with the platform's event reader, as KMLRoot did before the cursor reader. */
+    protected static class EventReaderKMLRoot extends KMLRoot
+    {
+        public EventReaderKMLRoot(File docSource) throws IOException
+        {
+            super(docSource);
+        }
+
+        @Override
+        protected XMLEventReader createReader(Object docSource, boolean namespaceAware)
+        {
+            return WWXML.openEventReader(docSource, namespaceAware);
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        File file;
+        if (args.length > 0 && new File(args[0]).exists())
+        {
+            file = new File(args[0]);
+        }
+        else
+        {
+            int numPlacemarks = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+            file = File.createTempFile("KMLParsingBenchmark", ".kml");
+            file.deleteOnExit();
+            writeDocument(file, numPlacemarks);
+        }
+        System.out.printf("Parsing %s (%d KB), %d iterations%n", file, file.length() / 1024, ITERATIONS);
+
+        // Alternate the readers so both see the same JIT and heap state.
+        TimingHistogram eventTimes = new TimingHistogram("Event reader");
+        TimingHistogram cursorTimes = new TimingHistogram("Cursor reader");
+        long[] eventBytes = new long[1];
+        long[] cursorBytes = new long[1];
+        for (int i = 0; i < ITERATIONS + 2; i++)
+        {
+            boolean warmup = i < 2;
+            parse(new EventReaderKMLRoot(file), warmup ? null : eventTimes, eventBytes);
+            parse(new KMLRoot(file), warmup ? null : cursorTimes, cursorBytes);
+        }
+
+        report(eventTimes, eventBytes[0]);
+        report(cursorTimes, cursorBytes[0]);
+    }
+
+    protected static void parse(KMLRoot root, TimingHistogram histogram, long[] allocatedBytes) throws Exception
+    {
+        long allocated = getAllocatedBytes();
+        long t0 = System.nanoTime();
+        if (root.parse() == null)
+            throw new IllegalStateException("Document did not parse");
+
+        if (histogram != null)
+        {
+            histogram.recordSince(t0);
+            allocatedBytes[0] += getAllocatedBytes() - allocated;
+        }
+    }
+
+    protected static void report(TimingHistogram histogram, long allocatedBytes)
+    {
+        System.out.printf("%-14s %8.1f ms/parse, %8.1f MB allocated/parse | %s%n", histogram.getName(),
+            histogram.getTotalNanos() / 1e6 / histogram.getCount(), allocatedBytes / 1e6 / histogram.getCount(),
+            histogram);
+    }
+
+    protected static void writeDocument(File file, int numPlacemarks) throws IOException
+    {
+        Random random = new Random(1);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try
+        {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<kml xmlns=\"http://www.opengis.net/kml/2.2\">\n<Document>\n<name>Benchmark</name>\n");
+            for (int i = 0; i < 16; i++)
+            {
+                writer.write(String.format("<Style id=\"style%d\">\n"
+                    + "  <IconStyle><color>ff%06x</color><scale>1.2</scale>"
+                    + "<Icon><href>icon%d.png</href></Icon></IconStyle>\n"
+                    + "  <LineStyle><color>ff%06x</color><width>2</width></LineStyle>\n"
+                    + "  <PolyStyle><color>7f%06x</color><outline>1</outline></PolyStyle>\n"
+                    + "</Style>\n", i, random.nextInt(0x1000000), i, random.nextInt(0x1000000),
+                    random.nextInt(0x1000000)));
+            }
+
+            for (int i = 0; i < numPlacemarks; i++)
+            {
+                double lat = random.nextDouble() * 160 - 80;
+                double lon = random.nextDouble() * 340 - 170;
+
+                writer.write(String.format("<Placemark id=\"p%d\">\n  <name>Placemark %d</name>\n"
+                    + "  <description><![CDATA[<b>Feature</b> number %d]]></description>\n"
+                    + "  <styleUrl>#style%d</styleUrl>\n  <ExtendedData>\n", i, i, i, i % 16));
+                for (int j = 0; j < 3; j++)
+                {
+                    writer.write(String.format("    <Data name=\"field%d\"><value>%d</value></Data>\n", j,
+                        random.nextInt(1000)));
+                }
+                writer.write("  </ExtendedData>\n");
+
+                switch (i % 3)
+                {
+                    case 0:
+                        writer.write(String.format("  <Point><coordinates>%.6f,%.6f,0</coordinates></Point>\n", lon,
+                            lat));
+                        break;
+                    case 1:
+                        writer.write("  <LineString><tessellate>1</tessellate><coordinates>\n");
+                        writeCoordinates(writer, random, lat, lon, 20, false);
+                        writer.write("  </coordinates></LineString>\n");
+                        break;
+                    default:
+                        writer.write("  <Polygon><outerBoundaryIs><LinearRing><coordinates>\n");
+                        writeCoordinates(writer, random, lat, lon, 20, true);
+                        writer.write("  </coordinates></LinearRing></outerBoundaryIs></Polygon>\n");
+                        break;
+                }
+
+                writer.write("</Placemark>\n");
+            }
+
+            writer.write("</Document>\n</kml>\n");
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    protected static void writeCoordinates(Writer writer, Random random, double lat, double lon, int count,
+        boolean closed) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            // A closed ring ends at its first position.
+            double angle = closed && i == count - 1 ? 0 : 2 * Math.PI * i / count;
+            writer.write(String.format("    %.6f,%.6f,%.1f\n", lon + 0.1 * Math.cos(angle),
+                lat + 0.1 * Math.sin(angle), closed ? 0 : random.nextDouble() * 100));
+        }
+    }
+
+    protected static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+}
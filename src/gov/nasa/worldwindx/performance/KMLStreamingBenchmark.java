@@ -0,0 +1,132 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.ogc.kml.*;
+
+import java.io.File;
+import java.lang.management.*;
+
+/**
+ * Measures the heap used while reading the placemarks of a very large KML document with {@link KMLPlacemarkIterator}.
+ * The benchmark writes a synthetic document of the requested size to a temporary file, using the placemark content of
+ * {@link KMLParsingBenchmark}, or reads a document named on the command line. It then reads the document once for all
+ * placemarks and once filtered by a sector, resolving each placemark's shared style, and reports throughput and the
+ * peak heap use of each pass.
+ * <p>
+ * Usage: <code>KMLStreamingBenchmark [sizeMB | file]</code>. The default document is about 2 GB. Run with a small
+ * maximum heap, such as <code>-Xmx128m</code>, to confirm that heap use does not grow with the document; opening the
+ * same document as a {@link KMLRoot} would need many times its file size.
+ */
+public class KMLStreamingBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        File file;
+        if (args.length > 0 && new File(args[0]).exists())
+        {
+            file = new File(args[0]);
+        }
+        else
+        {
+            long sizeBytes = (args.length > 0 ? Long.parseLong(args[0]) : 2048) * 1024 * 1024;
+
+            // Estimate the size of a placemark from a small sample document.
+            File sample = File.createTempFile("KMLStreamingBenchmark", ".kml");
+            KMLParsingBenchmark.writeDocument(sample, 1000);
+            long numPlacemarks = sizeBytes * 1000 / sample.length();
+            sample.delete();
+
+            file = File.createTempFile("KMLStreamingBenchmark", ".kml");
+            file.deleteOnExit();
+            System.out.printf("Writing %d placemarks to %s%n", numPlacemarks, file);
+            KMLParsingBenchmark.writeDocument(file, (int) Math.min(numPlacemarks, Integer.MAX_VALUE));
+        }
+        System.out.printf("Reading %s (%d MB), max heap %d MB%n", file, file.length() >> 20,
+            Runtime.getRuntime().maxMemory() >> 20);
+
+        run(file, null);
+        run(file, Sector.fromDegrees(-20, 20, -40, 40));
+    }
+
+    protected static void run(File file, Sector sector) throws Exception
+    {
+        System.gc();
+        resetPeakHeapUsage();
+
+        long count = 0;
+        long styled = 0;
+        long start = System.nanoTime();
+        KMLPlacemarkIterator iterator = KMLPlacemarkIterator.create(file, sector);
+        try
+        {
+            while (iterator.hasNext())
+            {
+                KMLPlacemark placemark = iterator.next();
+                count++;
+
+                // Resolve the placemark's shared style, as converting it to a shape would.
+                KMLAbstractSubStyle style = placemark.getSubStyle(new KMLLineStyle(null), KMLConstants.NORMAL);
+                if (style.hasFields())
+                    styled++;
+            }
+        }
+        finally
+        {
+            iterator.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-12s %10d placemarks (%d styled), %7.1f s, %9.0f placemarks/s, %5.1f MB/s,"
+            + " peak heap %d MB%n", sector != null ? "Sector" : "All", count, styled, seconds, count / seconds,
+            file.length() / seconds / 1e6, getPeakHeapUsage() >> 20);
+    }
+
+    protected static void resetPeakHeapUsage()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    protected static long getPeakHeapUsage()
+    {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+                bytes += pool.getPeakUsage().getUsed();
+        }
+
+        return bytes;
+    }
+}
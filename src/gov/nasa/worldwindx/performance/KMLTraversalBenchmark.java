@@ -0,0 +1,224 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.BasicModel;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.layers.LayerList;
+import gov.nasa.worldwind.ogc.kml.*;
+import gov.nasa.worldwind.ogc.kml.impl.KMLTraversalContext;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.TimingHistogram;
+import gov.nasa.worldwind.view.BasicView;
+import gov.nasa.worldwind.view.orbit.OrbitViewInputSupport;
+
+import java.awt.*;
+
+/**
+ * Measures the cost of traversing a KML feature tree holding a large number of Regions, as {@link
+ * gov.nasa.worldwind.ogc.kml.impl.KMLController} does twice per frame, without an OpenGL context. The benchmark builds
+ * a folder of placemark-like features covering the globe with a grid of <code>clampToGround</code> Regions, and
+ * traverses it with and without the container's spatial feature index, first with a stationary view and then with a
+ * view that pans every frame. The features draw nothing, so the times are those of traversal and Region tests alone.
+ * <p>
+ * Usage: <code>KMLTraversalBenchmark [rows]</code>, where the grid has <code>rows</code> rows and twice as many columns
+ * (default 256, i.e. 131,072 Regions).
+ */
+public class KMLTraversalBenchmark
+{
+    protected static final int NUM_FRAMES = 200;
+    protected static final double ALTITUDE = 500e3;
+    protected static final Rectangle VIEWPORT = new Rectangle(0, 0, 1920, 1080);
+
+    /** A feature that counts the number of times it is visited rather than drawing anything. */
+    protected static class CountingFeature extends KMLAbstractFeature
+    {
+        protected static long visits;
+
+        public CountingFeature(KMLRegion region)
+        {
+            super(null);
+            this.setRegion(region);
+            region.setParent(this);
+        }
+
+        @Override
+        protected void doPreRender(KMLTraversalContext tc, DrawContext dc)
+        {
+            visits++;
+        }
+
+        @Override
+        protected void doRender(KMLTraversalContext tc, DrawContext dc)
+        {
+            visits++;
+        }
+    }
+
+    /** A view whose state is set directly rather than computed from an OpenGL viewport. */
+    protected static class HeadlessView extends BasicView
+    {
+        public void setState(Globe globe, Position center, double altitude)
+        {
+            this.globe = globe;
+            this.viewport = new Rectangle(VIEWPORT);
+            this.modelview = OrbitViewInputSupport.computeTransformMatrix(globe, center, Angle.ZERO, Angle.ZERO,
+                Angle.ZERO, altitude);
+            this.modelviewInv = this.modelview.getInverse();
+            this.nearClipDistance = altitude / 10;
+            this.farClipDistance = 2 * globe.getRadius();
+            this.projection = Matrix.fromPerspective(this.fieldOfView, this.viewport.width, this.viewport.height,
+                this.nearClipDistance, this.farClipDistance);
+            this.frustum = Frustum.fromPerspective(this.fieldOfView, this.viewport.width, this.viewport.height,
+                this.nearClipDistance, this.farClipDistance);
+            this.lastEyePosition = this.computeEyePositionFromModelview();
+            this.lastEyePoint = null;
+            this.lastUpVector = null;
+            this.lastForwardVector = null;
+            this.lastFrustumInModelCoords = null;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+
+        Globe globe = new Earth();
+        globe.setElevationModel(new ZeroElevationModel());
+
+        DrawContext dc = new DrawContextImpl();
+        dc.setModel(new BasicModel(globe, new LayerList()));
+        dc.setVerticalExaggeration(1);
+        HeadlessView view = new HeadlessView();
+        dc.setView(view);
+
+        KMLFolder indexed = makeFolder(rows, true);
+        KMLFolder scanned = makeFolder(rows, false);
+        System.out.printf("%d Regions, %d frames per run%n", rows * 2 * rows, NUM_FRAMES);
+
+        // The first pair of runs warms up the JIT and the Regions' data caches.
+        long frame = 0;
+        for (boolean moving : new boolean[] {true, false, true})
+        {
+            frame = run("Full scan", scanned, dc, view, moving, frame);
+            frame = run("Indexed", indexed, dc, view, moving, frame);
+        }
+    }
+
+    protected static long run(String name, KMLFolder folder, DrawContext dc, HeadlessView view, boolean moving,
+        long frame)
+    {
+        TimingHistogram histogram = new TimingHistogram(name);
+        KMLTraversalContext tc = new KMLTraversalContext();
+        CountingFeature.visits = 0;
+
+        Position center = Position.fromDegrees(38, -100, 0);
+        view.setState(dc.getGlobe(), center, ALTITUDE);
+        for (int i = 0; i < NUM_FRAMES; i++)
+        {
+            if (moving)
+            {
+                center = Position.fromDegrees(38, -100 + 0.05 * i, 0);
+                view.setState(dc.getGlobe(), center, ALTITUDE);
+            }
+
+            dc.setFrameTimeStamp(++frame);
+            dc.setVisibleSector(computeVisibleSector(dc.getGlobe(), center, ALTITUDE));
+
+            long t0 = System.nanoTime();
+            folder.preRender(tc, dc);
+            folder.render(tc, dc);
+            histogram.recordSince(t0);
+        }
+
+        System.out.printf("%-10s %-10s %8.3f ms/frame, %6d features drawn/frame | %s%n", name,
+            moving ? "moving" : "stationary", histogram.getTotalNanos() / 1e6 / NUM_FRAMES,
+            CountingFeature.visits / (2 * NUM_FRAMES), histogram);
+
+        return frame;
+    }
+
+    protected static KMLFolder makeFolder(int rows, final boolean index)
+    {
+        KMLFolder folder = new KMLFolder(null)
+        {
+            @Override
+            protected FeatureIndex createFeatureIndex()
+            {
+                return index ? super.createFeatureIndex() : null;
+            }
+        };
+
+        int cols = 2 * rows;
+        double delta = 180d / rows;
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < cols; col++)
+            {
+                KMLLatLonAltBox box = new KMLLatLonAltBox(null);
+                box.setField("south", -90 + row * delta);
+                box.setField("north", -90 + (row + 1) * delta);
+                box.setField("west", -180 + col * delta);
+                box.setField("east", -180 + (col + 1) * delta);
+
+                // Super-overlay tiles typically become active once they cover 128 pixels.
+                KMLLod lod = new KMLLod(null);
+                lod.setField("minLodPixels", 128d);
+                lod.setField("maxLodPixels", -1d);
+
+                KMLRegion region = new KMLRegion(null);
+                region.setField("LatLonAltBox", box);
+                region.setField("Lod", lod);
+                box.setParent(region);
+                lod.setParent(region);
+
+                CountingFeature feature = new CountingFeature(region);
+                feature.setParent(folder);
+                folder.addFeature(feature);
+            }
+        }
+
+        return folder;
+    }
+
+    /** Approximates the terrain visible from directly above a location, as the scene controller would compute it. */
+    protected static Sector computeVisibleSector(Globe globe, LatLon center, double altitude)
+    {
+        double halfWidth = Math.toDegrees(altitude * Math.tan(Math.toRadians(22.5)) * VIEWPORT.width
+            / VIEWPORT.height / globe.getRadius());
+        double halfHeight = Math.toDegrees(altitude * Math.tan(Math.toRadians(22.5)) / globe.getRadius());
+
+        return Sector.fromDegrees(Math.max(center.getLatitude().degrees - halfHeight, -90),
+            Math.min(center.getLatitude().degrees + halfHeight, 90),
+            Math.max(center.getLongitude().degrees - halfWidth, -180),
+            Math.min(center.getLongitude().degrees + halfWidth, 180));
+    }
+}
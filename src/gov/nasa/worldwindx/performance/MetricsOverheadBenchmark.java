@@ -0,0 +1,139 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.cache.BasicMemoryCache;
+import gov.nasa.worldwind.layers.*;
+import gov.nasa.worldwind.util.*;
+
+/**
+ * Measures the overhead of {@link PerformanceMetrics} instrumentation. The benchmark times a short unit of work
+ * repeated many times, as the scene controller times each layer in each frame, in three forms: without
+ * instrumentation, instrumented with metrics disabled, and instrumented with metrics enabled. It also reports the cost
+ * of a memory cache lookup, which counts hits and misses whether or not metrics are enabled.
+ * <p>
+ * Usage: <code>MetricsOverheadBenchmark [iterations]</code>. The default is 20 million iterations per run.
+ */
+public class MetricsOverheadBenchmark
+{
+    protected static final int RUNS = 5;
+
+    protected static double sink;
+
+    public static void main(String[] args)
+    {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000000;
+
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        Layer layer = new RenderableLayer();
+        layer.setName("Benchmark");
+
+        for (int run = 0; run < RUNS; run++)
+        {
+            // The first run warms up the JIT compiler and is not reported.
+            boolean report = run > 0;
+
+            long t = System.nanoTime();
+            uninstrumented(iterations);
+            print(report, "Uninstrumented", t, iterations);
+
+            metrics.setEnabled(false);
+            t = System.nanoTime();
+            instrumented(metrics, layer, iterations);
+            print(report, "Metrics disabled", t, iterations);
+
+            metrics.setEnabled(true);
+            t = System.nanoTime();
+            instrumented(metrics, layer, iterations);
+            print(report, "Metrics enabled", t, iterations);
+
+            t = System.nanoTime();
+            cacheLookups(iterations);
+            print(report, "Memory cache lookup", t, iterations);
+        }
+
+        System.out.println(metrics.getHistogram("layer.Benchmark.render"));
+    }
+
+    protected static void print(boolean report, String name, long startNanos, int iterations)
+    {
+        if (report)
+            System.out.printf("%-20s %6.2f ns/op%n", name, (System.nanoTime() - startNanos) / (double) iterations);
+    }
+
+    protected static double work(int i)
+    {
+        return Math.sqrt(i) * 1.0001;
+    }
+
+    protected static void uninstrumented(int iterations)
+    {
+        double sum = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            sum += work(i);
+        }
+        sink += sum;
+    }
+
+    protected static void instrumented(PerformanceMetrics metrics, Layer layer, int iterations)
+    {
+        // Mirrors the per-layer instrumentation in AbstractSceneController.
+        double sum = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            boolean recordMetrics = metrics.isEnabled();
+            long start = recordMetrics ? System.nanoTime() : 0;
+            sum += work(i);
+            if (recordMetrics)
+                metrics.recordLayerTime(layer, PerformanceMetrics.RENDER, System.nanoTime() - start);
+        }
+        sink += sum;
+    }
+
+    protected static void cacheLookups(int iterations)
+    {
+        BasicMemoryCache cache = new BasicMemoryCache(500000, 1000000);
+        Integer[] keys = new Integer[1024];
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = i;
+            if (i % 2 == 0)
+                cache.add(keys[i], keys[i], 1);
+        }
+
+        int found = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            if (cache.getObject(keys[i & 1023]) != null)
+                found++;
+        }
+        sink += found;
+    }
+}
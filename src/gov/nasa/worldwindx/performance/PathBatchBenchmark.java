@@ -0,0 +1,143 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.PathBatchGeometry;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures the geometry stage of {@link gov.nasa.worldwind.render.PathBatch} without an OpenGL context. The benchmark
+ * builds the same fan of paths as {@link VeryManyPaths}, then times regenerating every path, as happens when the globe
+ * or vertical exaggeration changes, and regenerating one percent of the paths, as happens when a few paths move. Each
+ * is run on one thread and then on all available cores.
+ * <p>
+ * Usage: <code>PathBatchBenchmark [numPaths] [numPositions]</code>. The defaults are 2000 paths of 300 positions.
+ */
+public class PathBatchBenchmark
+{
+    protected static final int ITERATIONS = 20;
+
+    public static void main(String[] args)
+    {
+        int numPaths = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int numPositions = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+        PathBatchGeometry geometry = makeGeometry(numPaths, numPositions);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d paths, %d positions each, %d cores%n", numPaths, numPositions, cores);
+
+        for (int threads : new int[] {1, cores})
+        {
+            ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+            Random random = new Random(1);
+
+            // Warm up before timing.
+            run(geometry, globe, executor, random, numPaths, null);
+
+            run(geometry, globe, executor, random, numPaths, "All paths, " + threads + " threads");
+            run(geometry, globe, executor, random, numPaths / 100, "1% of paths, " + threads + " threads");
+
+            if (executor != null)
+                executor.shutdown();
+        }
+    }
+
+    protected static void run(PathBatchGeometry geometry, Globe globe, ExecutorService executor, Random random,
+        int numChanged, String name)
+    {
+        TimingHistogram histogram = new TimingHistogram(name);
+        double verticalExaggeration = 1;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            if (numChanged >= geometry.getPathCount())
+            {
+                // Every path is regenerated when the vertical exaggeration changes.
+                verticalExaggeration = verticalExaggeration == 1 ? 1.0001 : 1;
+            }
+            else
+            {
+                for (int j = 0; j < numChanged; j++)
+                {
+                    int id = random.nextInt(geometry.getPathCount());
+                    double[] coords = geometry.getCoordinates(id);
+                    for (int k = 2; k < coords.length; k += 3)
+                    {
+                        coords[k] += 10;
+                    }
+                    geometry.setCoordinates(id, coords);
+                }
+            }
+
+            long t = System.nanoTime();
+            geometry.update(globe, verticalExaggeration, executor);
+            histogram.recordSince(t);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (name != null)
+        {
+            System.out.printf("%-26s %8.1f updates/s, %9.0f vertices | %s%n", name, ITERATIONS / seconds,
+                geometry.getVertices().limit() / 3.0, histogram);
+        }
+    }
+
+    protected static PathBatchGeometry makeGeometry(int numPaths, int numPositions)
+    {
+        PathBatchGeometry geometry = new PathBatchGeometry();
+        Position origin = Position.fromDegrees(48.86, 2.33, 1e3);
+        Angle length = Angle.fromDegrees(5);
+        double dLength = length.radians / (numPositions - 1);
+
+        for (int i = 0; i < numPaths; i++)
+        {
+            Angle heading = Angle.fromDegrees(i * 360d / numPaths);
+            java.util.List<Position> positions = new ArrayList<Position>(numPositions);
+            for (int j = 0; j < numPositions; j++)
+            {
+                LatLon ll = LatLon.greatCircleEndPosition(origin, heading, Angle.fromRadians(j * dLength));
+                positions.add(new Position(ll, origin.getAltitude()));
+            }
+
+            geometry.addPath(positions, WWUtil.makeRandomColor(null));
+        }
+
+        return geometry;
+    }
+}
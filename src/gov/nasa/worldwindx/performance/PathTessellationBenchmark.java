@@ -0,0 +1,380 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.PathTessellator;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.*;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput and heap allocation of tessellating long paths without an OpenGL context. The benchmark
+ * compares the approach used by {@link gov.nasa.worldwind.render.Path}, which builds a list of {@link Position}s with
+ * the {@link LatLon} interpolation methods and computes each vertex with {@link
+ * Globe#computePointFromPosition(Position)}, against {@link PathTessellator} with uniform and with adaptive
+ * subdivision, for great circle, rhumb line and linear paths. Each is run on one thread and then on all available
+ * cores. Great circle paths are also tessellated in the terrain following altitude modes, clamped to the ground and
+ * relative to the ground, on a globe whose elevation model is synthetic rolling terrain.
+ * <p>
+ * Usage: <code>PathTessellationBenchmark [numPositions]</code>. The default path has 1000 positions, which uniform
+ * subdivision into 10 subsegments turns into about 10,000 vertices. Allocation rates are reported when the JVM
+ * supports per-thread allocation accounting.
+ */
+public class PathTessellationBenchmark
+{
+    protected static final int ITERATIONS = 200;
+    protected static final int NUM_SUBSEGMENTS = 10;
+    /** The size of a pixel one meter from the eye, for a 45 degree field of view 1000 pixels wide. */
+    protected static final double PIXEL_SIZE_SCALE = 2 * Math.tan(Math.toRadians(22.5)) / 1000;
+
+    protected interface Task
+    {
+        int tessellate();
+    }
+
+    protected interface TaskFactory
+    {
+        Task createTask();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int numPositions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        final Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS,
+            Earth.WGS84_ES, new ZeroElevationModel());
+        final Globe terrainGlobe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS,
+            Earth.WGS84_ES, new ZeroElevationModel()
+        {
+            @Override
+            public double getUnmappedElevation(Angle latitude, Angle longitude)
+            {
+                return 1000 + 500 * Math.sin(10 * latitude.radians) * Math.cos(10 * longitude.radians);
+            }
+        });
+        final List<Position> positions = makePositions(numPositions);
+        final double[] coordinates = new double[3 * positions.size()];
+        for (int i = 0; i < positions.size(); i++)
+        {
+            coordinates[3 * i] = positions.get(i).getLatitude().degrees;
+            coordinates[3 * i + 1] = positions.get(i).getLongitude().degrees;
+            coordinates[3 * i + 2] = positions.get(i).getAltitude();
+        }
+
+        // Look at the middle of the path from 1000 km.
+        Position center = positions.get(positions.size() / 2);
+        final Vec4 eyePoint = globe.computePointFromPosition(center.getLatitude(), center.getLongitude(), 1e6);
+        final Vec4 referencePoint = globe.computePointFromPosition(center);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (final String pathType : new String[] {AVKey.GREAT_CIRCLE, AVKey.RHUMB_LINE, AVKey.LINEAR})
+        {
+            TaskFactory legacy = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    return new Task()
+                    {
+                        float[] out = new float[0];
+
+                        public int tessellate()
+                        {
+                            List<Position> tessellated = tessellateLegacy(positions, pathType);
+                            if (this.out.length < 3 * tessellated.size())
+                                this.out = new float[3 * tessellated.size()];
+
+                            int i = 0;
+                            for (Position pos : tessellated)
+                            {
+                                Vec4 pt = globe.computePointFromPosition(pos);
+                                this.out[i++] = (float) (pt.x - referencePoint.x);
+                                this.out[i++] = (float) (pt.y - referencePoint.y);
+                                this.out[i++] = (float) (pt.z - referencePoint.z);
+                            }
+
+                            return tessellated.size();
+                        }
+                    };
+                }
+            };
+
+            TaskFactory uniform = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    PathTessellator tessellator = new PathTessellator();
+                    tessellator.setPathType(pathType);
+                    tessellator.setNumSubsegments(NUM_SUBSEGMENTS);
+                    tessellator.setReferencePoint(referencePoint);
+                    return makeTask(tessellator, globe, coordinates);
+                }
+            };
+
+            TaskFactory adaptive = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    PathTessellator tessellator = new PathTessellator();
+                    tessellator.setPathType(pathType);
+                    tessellator.setViewParameters(eyePoint, PIXEL_SIZE_SCALE);
+                    tessellator.setReferencePoint(referencePoint);
+                    return makeTask(tessellator, globe, coordinates);
+                }
+            };
+
+            for (int threads : new int[] {1, cores})
+            {
+                run(pathType + " Path", legacy, threads);
+                run(pathType + " uniform", uniform, threads);
+                run(pathType + " adaptive", adaptive, threads);
+            }
+        }
+
+        for (final int altitudeMode : new int[] {WorldWind.CLAMP_TO_GROUND, WorldWind.RELATIVE_TO_GROUND})
+        {
+            final String modeName = altitudeMode == WorldWind.CLAMP_TO_GROUND ? "clamped" : "relative";
+
+            TaskFactory legacy = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    return new Task()
+                    {
+                        float[] out = new float[0];
+
+                        public int tessellate()
+                        {
+                            List<Position> tessellated = tessellateLegacy(positions, AVKey.GREAT_CIRCLE);
+                            if (this.out.length < 3 * tessellated.size())
+                                this.out = new float[3 * tessellated.size()];
+
+                            int i = 0;
+                            for (Position pos : tessellated)
+                            {
+                                double height = terrainGlobe.getElevation(pos.getLatitude(), pos.getLongitude());
+                                if (altitudeMode == WorldWind.RELATIVE_TO_GROUND)
+                                    height += pos.getAltitude();
+
+                                Vec4 pt = terrainGlobe.computePointFromPosition(pos.getLatitude(), pos.getLongitude(),
+                                    height);
+                                this.out[i++] = (float) (pt.x - referencePoint.x);
+                                this.out[i++] = (float) (pt.y - referencePoint.y);
+                                this.out[i++] = (float) (pt.z - referencePoint.z);
+                            }
+
+                            return tessellated.size();
+                        }
+                    };
+                }
+            };
+
+            TaskFactory uniform = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    PathTessellator tessellator = new PathTessellator();
+                    tessellator.setAltitudeMode(altitudeMode);
+                    tessellator.setNumSubsegments(NUM_SUBSEGMENTS);
+                    tessellator.setReferencePoint(referencePoint);
+                    return makeTask(tessellator, terrainGlobe, coordinates);
+                }
+            };
+
+            TaskFactory adaptive = new TaskFactory()
+            {
+                public Task createTask()
+                {
+                    PathTessellator tessellator = new PathTessellator();
+                    tessellator.setAltitudeMode(altitudeMode);
+                    tessellator.setViewParameters(eyePoint, PIXEL_SIZE_SCALE);
+                    tessellator.setReferencePoint(referencePoint);
+                    return makeTask(tessellator, terrainGlobe, coordinates);
+                }
+            };
+
+            for (int threads : new int[] {1, cores})
+            {
+                run(modeName + " Path", legacy, threads);
+                run(modeName + " uniform", uniform, threads);
+                run(modeName + " adaptive", adaptive, threads);
+            }
+        }
+    }
+
+    protected static Task makeTask(final PathTessellator tessellator, final Globe globe, final double[] coordinates)
+    {
+        return new Task()
+        {
+            float[] out = new float[0];
+
+            public int tessellate()
+            {
+                int n = tessellator.tessellate(globe, 1, coordinates, 0, coordinates.length / 3);
+                if (this.out.length < 3 * n)
+                    this.out = new float[3 * n];
+
+                double[] points = tessellator.getPoints();
+                for (int i = 0; i < 3 * n; i++)
+                {
+                    this.out[i] = (float) points[i];
+                }
+
+                return n;
+            }
+        };
+    }
+
+    protected static void run(String name, final TaskFactory factory, int threads) throws Exception
+    {
+        final TimingHistogram histogram = new TimingHistogram(name);
+        final AtomicLong allocatedBytes = new AtomicLong();
+        final AtomicLong numVertices = new AtomicLong();
+        final int iterationsPerThread = ITERATIONS / threads + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++)
+        {
+            futures.add(executor.submit(new Callable<Void>()
+            {
+                public Void call() throws Exception
+                {
+                    Task task = factory.createTask();
+                    task.tessellate(); // Size the task's arrays before measuring allocation.
+
+                    long allocated = getAllocatedBytes();
+                    for (int i = 0; i < iterationsPerThread; i++)
+                    {
+                        long t0 = System.nanoTime();
+                        numVertices.addAndGet(task.tessellate());
+                        histogram.recordSince(t0);
+                    }
+                    allocatedBytes.addAndGet(getAllocatedBytes() - allocated);
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        long numPaths = (long) iterationsPerThread * threads;
+        System.out.printf("%-28s %2d threads: %6d vertices/path, %7.2f M vertices/s, %9.1f KB allocated/path | %s%n",
+            name, threads, numVertices.get() / numPaths, numVertices.get() / seconds / 1e6,
+            allocatedBytes.get() / 1024.0 / numPaths, histogram);
+    }
+
+    /**
+     * Tessellates a path the way {@link gov.nasa.worldwind.render.Path#makePositions} does for a path that does not
+     * follow the terrain, producing a new list of positions.
+     *
+     * @param positions the path's positions.
+     * @param pathType  the path type.
+     *
+     * @return the tessellated positions.
+     */
+    protected static List<Position> tessellateLegacy(List<Position> positions, String pathType)
+    {
+        boolean rhumb = AVKey.RHUMB_LINE.equals(pathType);
+        List<Position> tessellated = new ArrayList<Position>();
+        Position posA = positions.get(0);
+        tessellated.add(posA);
+
+        for (int i = 1; i < positions.size(); i++)
+        {
+            Position posB = positions.get(i);
+            if (!AVKey.LINEAR.equals(pathType))
+            {
+                Angle azimuth = rhumb ? LatLon.rhumbAzimuth(posA, posB) : LatLon.greatCircleAzimuth(posA, posB);
+                Angle distance = rhumb ? LatLon.rhumbDistance(posA, posB) : LatLon.greatCircleDistance(posA, posB);
+                for (int k = 1; k < NUM_SUBSEGMENTS; k++)
+                {
+                    double s = (double) k / NUM_SUBSEGMENTS;
+                    Angle d = Angle.fromRadians(s * distance.radians);
+                    LatLon latLon = rhumb ? LatLon.rhumbEndPosition(posA, azimuth, d)
+                        : LatLon.greatCircleEndPosition(posA, azimuth, d);
+                    tessellated.add(new Position(latLon, (1 - s) * posA.getElevation() + s * posB.getElevation()));
+                }
+            }
+
+            tessellated.add(posB);
+            posA = posB;
+        }
+
+        return tessellated;
+    }
+
+    /**
+     * Creates a path that wanders east across North America at altitudes between 1 and 10 km.
+     *
+     * @param numPositions the number of positions.
+     *
+     * @return the path's positions.
+     */
+    protected static List<Position> makePositions(int numPositions)
+    {
+        Random random = new Random(1);
+        List<Position> positions = new ArrayList<Position>(numPositions);
+        double lat = 40;
+        double lon = -125;
+        for (int i = 0; i < numPositions; i++)
+        {
+            positions.add(Position.fromDegrees(lat, lon, 1000 + 9000 * random.nextDouble()));
+            lat = Math.max(25, Math.min(50, lat + 0.1 * (random.nextDouble() - 0.5)));
+            lon += 55.0 / numPositions;
+        }
+
+        return positions;
+    }
+
+    protected static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+}
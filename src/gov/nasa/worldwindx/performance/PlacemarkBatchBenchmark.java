@@ -0,0 +1,233 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.PlacemarkBatchGeometry;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.TimingHistogram;
+
+import java.awt.*;
+import java.lang.management.*;
+import java.util.Random;
+
+/**
+ * Measures the per-frame culling and screen projection stages of {@link gov.nasa.worldwind.render.PointPlacemarkBatch}
+ * without an OpenGL context. For each placemark count the benchmark scatters placemarks over the globe and times, for
+ * a view over Europe, the per-placemark approach used by {@link gov.nasa.worldwind.render.PointPlacemark} (compute a
+ * model point, test it against the frustum and project it with Vec4 arithmetic) against the culling and bulk projection
+ * of {@link PlacemarkBatchGeometry}. It also times recomputing every batch point, as happens when the vertical
+ * exaggeration changes, and reports the bytes allocated per frame.
+ * <p>
+ * Usage: <code>PlacemarkBatchBenchmark [count ...]</code>. The default counts are 100,000, 300,000 and 1,000,000.
+ */
+public class PlacemarkBatchBenchmark
+{
+    protected static final int ITERATIONS = 50;
+    protected static final int NUM_ATTRIBUTES = 8;
+    protected static final Rectangle VIEWPORT = new Rectangle(0, 0, 1600, 1000);
+
+    public static void main(String[] args)
+    {
+        int[] counts = new int[] {100000, 300000, 1000000};
+        if (args.length > 0)
+        {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++)
+            {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+
+        // Look at Europe from 4,000 km.
+        Vec4 center = globe.computePointFromPosition(Position.fromDegrees(48, 10, 0));
+        Vec4 eye = globe.computePointFromPosition(Position.fromDegrees(48, 10, 4e6));
+        Vec4 up = globe.computeNorthPointingTangentAtLocation(Angle.fromDegrees(48), Angle.fromDegrees(10));
+        Matrix modelview = Matrix.fromViewLookAt(eye, center, up);
+        double near = 1e3;
+        double far = eye.getLength3();
+        Angle fieldOfView = Angle.fromDegrees(45);
+        Matrix projection = Matrix.fromPerspective(fieldOfView, VIEWPORT.width, VIEWPORT.height, near, far);
+        Frustum frustum = Frustum.fromPerspective(fieldOfView, VIEWPORT.width, VIEWPORT.height, near, far)
+            .transformBy(modelview.getTranspose());
+
+        for (int count : counts)
+        {
+            double[] coords = makeCoordinates(count);
+            PlacemarkBatchGeometry geometry = makeGeometry(coords);
+            geometry.update(globe, 1);
+
+            // Warm up before timing.
+            runPerPlacemark(null, globe, coords, frustum, modelview, projection);
+            runBatch(null, geometry, frustum, modelview, projection);
+
+            System.out.printf("%d placemarks%n", count);
+            runPerPlacemark("Per placemark", globe, coords, frustum, modelview, projection);
+            runBatch("Batch", geometry, frustum, modelview, projection);
+            runUpdate("Batch point update", geometry, globe);
+        }
+    }
+
+    protected static void runPerPlacemark(String name, Globe globe, double[] coords, Frustum frustum,
+        Matrix modelview, Matrix projection)
+    {
+        TimingHistogram cullHistogram = new TimingHistogram(name + " cull");
+        TimingHistogram projectHistogram = new TimingHistogram(name + " project");
+        Matrix m = projection.multiply(modelview);
+        Vec4[] visible = new Vec4[coords.length / 3];
+        int numVisible = 0;
+        double checksum = 0;
+        long allocated = getAllocatedBytes();
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            long t = System.nanoTime();
+            numVisible = 0;
+            for (int i = 0; i < coords.length; i += 3)
+            {
+                Vec4 point = globe.computePointFromPosition(Angle.fromDegrees(coords[i]),
+                    Angle.fromDegrees(coords[i + 1]), coords[i + 2]);
+                if (frustum.contains(point))
+                    visible[numVisible++] = point;
+            }
+            cullHistogram.recordSince(t);
+
+            t = System.nanoTime();
+            for (int i = 0; i < numVisible; i++)
+            {
+                Vec4 clip = visible[i].transformBy4(m);
+                double w = clip.w != 0 ? 1 / clip.w : 0;
+                Vec4 screen = new Vec4(VIEWPORT.x + 0.5 * VIEWPORT.width * (clip.x * w + 1),
+                    VIEWPORT.y + 0.5 * VIEWPORT.height * (clip.y * w + 1), 0.5 * (clip.z * w + 1));
+                checksum += screen.x;
+            }
+            projectHistogram.recordSince(t);
+        }
+
+        if (name != null)
+            report(name, numVisible, checksum, getAllocatedBytes() - allocated, cullHistogram, projectHistogram);
+    }
+
+    protected static void runBatch(String name, PlacemarkBatchGeometry geometry, Frustum frustum, Matrix modelview,
+        Matrix projection)
+    {
+        TimingHistogram cullHistogram = new TimingHistogram(name + " cull");
+        TimingHistogram projectHistogram = new TimingHistogram(name + " project");
+        double checksum = 0;
+        long allocated = getAllocatedBytes();
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            long t = System.nanoTime();
+            geometry.cull(frustum);
+            cullHistogram.recordSince(t);
+
+            t = System.nanoTime();
+            geometry.project(modelview, projection, VIEWPORT);
+            projectHistogram.recordSince(t);
+            checksum += geometry.getVisibleCount() > 0 ? geometry.getScreenPoints()[0] : 0;
+        }
+
+        if (name != null)
+        {
+            report(name, geometry.getVisibleCount(), checksum, getAllocatedBytes() - allocated, cullHistogram,
+                projectHistogram);
+        }
+    }
+
+    protected static void runUpdate(String name, PlacemarkBatchGeometry geometry, Globe globe)
+    {
+        TimingHistogram histogram = new TimingHistogram(name);
+        double verticalExaggeration = 1;
+        long allocated = getAllocatedBytes();
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            // Every point is recomputed when the vertical exaggeration changes.
+            verticalExaggeration = verticalExaggeration == 1 ? 1.0001 : 1;
+            long t = System.nanoTime();
+            geometry.update(globe, verticalExaggeration);
+            histogram.recordSince(t);
+        }
+
+        System.out.printf("  %-20s %10.0f bytes/frame | %s%n", name,
+            (getAllocatedBytes() - allocated) / (double) ITERATIONS, histogram);
+    }
+
+    protected static void report(String name, int numVisible, double checksum, long allocatedBytes,
+        TimingHistogram cullHistogram, TimingHistogram projectHistogram)
+    {
+        System.out.printf("  %-20s %8d visible, %10.0f bytes/frame (checksum %.0f)%n", name, numVisible,
+            allocatedBytes / (double) ITERATIONS, checksum);
+        System.out.printf("    %s%n    %s%n", cullHistogram, projectHistogram);
+    }
+
+    protected static double[] makeCoordinates(int count)
+    {
+        Random random = new Random(1);
+        double[] coords = new double[3 * count];
+        for (int i = 0; i < count; i++)
+        {
+            // Distribute the placemarks uniformly over the sphere.
+            coords[3 * i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            coords[3 * i + 1] = 360 * random.nextDouble() - 180;
+            coords[3 * i + 2] = 1e3 * random.nextDouble();
+        }
+
+        return coords;
+    }
+
+    protected static PlacemarkBatchGeometry makeGeometry(double[] coords)
+    {
+        PlacemarkBatchGeometry geometry = new PlacemarkBatchGeometry();
+        geometry.setAltitudeMode(WorldWind.ABSOLUTE);
+        for (int i = 0; i < coords.length; i += 3)
+        {
+            geometry.addPlacemark(coords[i], coords[i + 1], coords[i + 2], (i / 3) % NUM_ATTRIBUTES, null);
+        }
+
+        return geometry;
+    }
+
+    protected static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+
+import java.util.*;
+
+/**
+ * Measures {@link PointClusterIndex} build, update and query times without an OpenGL context. For each item count the
+ * benchmark builds the index from scattered items, moves one percent of the items, and queries the clusters of views
+ * of decreasing size, as when zooming in, with a separation of about 40 pixels on a 1600 pixel wide viewport. Each
+ * query is compared against binning every item at query time, which is the work proportional to the item count that
+ * the index avoids.
+ * <p>
+ * Usage: <code>PointClusterIndexBenchmark [count ...]</code>. The default counts are 100,000 and 1,000,000.
+ */
+public class PointClusterIndexBenchmark
+{
+    protected static final int ITERATIONS = 20;
+    protected static final double PIXEL_SEPARATION = 40;
+    protected static final double VIEWPORT_WIDTH = 1600;
+
+    public static void main(String[] args)
+    {
+        int[] counts = new int[] {100000, 1000000};
+        if (args.length > 0)
+        {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++)
+            {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int count : counts)
+        {
+            double[] coords = makeCoordinates(count, new Random(1));
+            System.out.printf("%d items%n", count);
+
+            // Warm up before timing.
+            build(coords);
+
+            TimingHistogram buildHistogram = new TimingHistogram("Build");
+            PointClusterIndex<Integer> index = null;
+            for (int i = 0; i < 3; i++)
+            {
+                long t = System.nanoTime();
+                index = build(coords);
+                buildHistogram.recordSince(t);
+            }
+            System.out.printf("  %s%n", buildHistogram);
+
+            runMove(index, coords);
+
+            // Zoom in on one of the item concentrations.
+            double lat = coords[2];
+            double lon = coords[3];
+            for (double width : new double[] {360, 40, 10, 2, 0.5})
+            {
+                Sector sector = Sector.fromDegrees(Math.max(-90, lat - width / 4), Math.min(90, lat + width / 4),
+                    Math.max(-180, lon - width / 2), Math.min(180, lon + width / 2));
+                runQuery(index, coords, sector, width);
+            }
+        }
+    }
+
+    protected static PointClusterIndex<Integer> build(double[] coords)
+    {
+        PointClusterIndex<Integer> index = new PointClusterIndex<Integer>();
+        for (int i = 0; i < coords.length; i += 2)
+        {
+            index.add(i / 2, coords[i], coords[i + 1]);
+        }
+
+        return index;
+    }
+
+    protected static void runMove(PointClusterIndex<Integer> index, double[] coords)
+    {
+        TimingHistogram histogram = new TimingHistogram("Move 1%");
+        Random random = new Random(2);
+        int numItems = coords.length / 2;
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            long t = System.nanoTime();
+            for (int i = 0; i < numItems / 100; i++)
+            {
+                int item = random.nextInt(numItems);
+                double lat = Math.max(-90, Math.min(90, coords[2 * item] + 0.01 * random.nextGaussian()));
+                double lon = Math.max(-180, Math.min(180, coords[2 * item + 1] + 0.01 * random.nextGaussian()));
+                coords[2 * item] = lat;
+                coords[2 * item + 1] = lon;
+                index.move(item, lat, lon);
+            }
+            histogram.recordSince(t);
+        }
+
+        System.out.printf("  %s%n", histogram);
+    }
+
+    protected static void runQuery(PointClusterIndex<Integer> index, double[] coords, Sector sector, double width)
+    {
+        double separation = width / VIEWPORT_WIDTH * PIXEL_SEPARATION;
+        int level = index.getLevelForSeparation(separation);
+        TimingHistogram indexHistogram = new TimingHistogram("Index query");
+        TimingHistogram binHistogram = new TimingHistogram("Bin all items");
+        List<PointClusterIndex.Cluster<Integer>> clusters = new ArrayList<PointClusterIndex.Cluster<Integer>>();
+        Map<Long, int[]> bins = new HashMap<Long, int[]>();
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            clusters.clear();
+            long t = System.nanoTime();
+            index.getClusters(sector, level, clusters);
+            indexHistogram.recordSince(t);
+
+            bins.clear();
+            t = System.nanoTime();
+            double size = PointClusterIndex.computeCellSize(level);
+            for (int i = 0; i < coords.length; i += 2)
+            {
+                if (sector.containsDegrees(coords[i], coords[i + 1]))
+                {
+                    Long key = ((long) ((coords[i] + 90) / size) << 32) | (long) ((coords[i + 1] + 180) / size);
+                    int[] bin = bins.get(key);
+                    if (bin == null)
+                        bins.put(key, new int[] {1});
+                    else
+                        bin[0]++;
+                }
+            }
+            binHistogram.recordSince(t);
+        }
+
+        System.out.printf("  %6.1f deg view, level %2d, %6d clusters%n    %s%n    %s%n", width, level, clusters.size(),
+            indexHistogram, binHistogram);
+    }
+
+    protected static double[] makeCoordinates(int count, Random random)
+    {
+        // Cluster the items around a few hundred centers, as real point data is, over a uniform background.
+        double[] centers = new double[600];
+        for (int i = 0; i < centers.length; i += 2)
+        {
+            centers[i] = 120 * random.nextDouble() - 60;
+            centers[i + 1] = 360 * random.nextDouble() - 180;
+        }
+
+        double[] coords = new double[2 * count];
+        for (int i = 0; i < count; i++)
+        {
+            if (i % 4 == 0)
+            {
+                coords[2 * i] = 180 * random.nextDouble() - 90;
+                coords[2 * i + 1] = 360 * random.nextDouble() - 180;
+            }
+            else
+            {
+                int c = 2 * random.nextInt(centers.length / 2);
+                coords[2 * i] = Math.max(-90, Math.min(90, centers[c] + random.nextGaussian()));
+                coords[2 * i + 1] = Math.max(-180, Math.min(180, centers[c + 1] + random.nextGaussian()));
+            }
+        }
+
+        return coords;
+    }
+}
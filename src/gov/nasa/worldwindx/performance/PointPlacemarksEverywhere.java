@@ -42,6 +42,9 @@ import java.util.ArrayList;
  */
 public class PointPlacemarksEverywhere extends ApplicationTemplate
 {
+    /** Draws the placemarks as one {@link PointPlacemarkBatch} rather than as individual PointPlacemarks. */
+    protected static final boolean USE_PLACEMARK_BATCH = false;
+
     public static class AppFrame extends ApplicationTemplate.AppFrame
     {
         public AppFrame()
@@ -62,6 +65,7 @@ public class PointPlacemarksEverywhere extends ApplicationTemplate
             ArrayList<Position> positions = new ArrayList<Position>();
 
             RenderableLayer layer = new RenderableLayer();
+            PointPlacemarkBatch batch = USE_PLACEMARK_BATCH ? new PointPlacemarkBatch() : null;
 
             int count = 0;
             for (double lat = minLat; lat <= maxLat; lat += delta)
@@ -70,6 +74,13 @@ public class PointPlacemarksEverywhere extends ApplicationTemplate
                 {
                     positions.clear();
 
+                    if (batch != null)
+                    {
+                        batch.addPlacemark(Position.fromDegrees(lat, lon, 5e4), 0, null);
+                        ++count;
+                        continue;
+                    }
+
                     PointPlacemark pm = new PointPlacemark(Position.fromDegrees(lat, lon, 5e4));
                     pm.setAltitudeMode(altitudeMode);
 //                    PointPlacemarkAttributes attrs = new PointPlacemarkAttributes();
@@ -78,6 +89,12 @@ public class PointPlacemarksEverywhere extends ApplicationTemplate
                     ++count;
                 }
             }
+            if (batch != null)
+            {
+                batch.getGeometry().setAltitudeMode(altitudeMode);
+                layer.addRenderable(batch);
+            }
+
             System.out.printf("%d Placemarks, Altitude mode = %s\n", count, positions.size(),
                 altitudeMode == WorldWind.RELATIVE_TO_GROUND ? "RELATIVE_TO_GROUND" : "ABSOLUTE");
 
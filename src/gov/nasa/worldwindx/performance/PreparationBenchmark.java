@@ -0,0 +1,186 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.layers.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.*;
+import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.view.BasicView;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Exercises the scene controller's parallel preparation phase without an OpenGL context. The benchmark fills several
+ * {@link RenderableLayer}s with {@link Path}s that opt in to concurrent preparation, and for each of a sequence of
+ * frames runs {@link AbstractSceneController#prepare(DrawContext)} with a single worker thread and then with one
+ * worker per core. Every path regenerates its geometry in every frame. The benchmark reports the time per frame and the
+ * per-layer preparation times the scene controller records in the frame statistics.
+ * <p>
+ * Usage: <code>PreparationBenchmark [numLayers] [pathsPerLayer] [positionsPerPath]</code>. The defaults are 8 layers of
+ * 2,000 paths with 20 positions each.
+ */
+public class PreparationBenchmark
+{
+    protected static final int FRAMES = 30;
+    protected static final int VIEWPORT_WIDTH = 1920;
+    protected static final int VIEWPORT_HEIGHT = 1080;
+
+    /** Exposes the preparation phase, which is otherwise called only from within a repaint. */
+    protected static class HeadlessSceneController extends BasicSceneController
+    {
+        public void runPreparation(DrawContext dc)
+        {
+            this.prepare(dc);
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int numLayers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int pathsPerLayer = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int positionsPerPath = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+
+        Random random = new Random(1);
+        LayerList layers = new LayerList();
+        for (int i = 0; i < numLayers; i++)
+        {
+            RenderableLayer layer = new RenderableLayer();
+            layer.setName("Paths " + i);
+            for (int j = 0; j < pathsPerLayer; j++)
+            {
+                layer.addRenderable(makePath(random, positionsPerPath));
+            }
+            layers.add(layer);
+        }
+
+        DrawContext dc = new DrawContextImpl();
+        dc.setModel(new BasicModel(globe, layers));
+        dc.setView(makeView(globe));
+        dc.setSurfaceGeometry(new SectorGeometryList());
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d layers of %d paths with %d positions, %d cores%n", numLayers, pathsPerLayer,
+            positionsPerPath, cores);
+
+        for (int threads : new int[] {1, cores})
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            HeadlessSceneController controller = new HeadlessSceneController();
+            controller.setPreparationPool(pool);
+            controller.setParallelPreparation(true);
+            run(controller, dc, threads);
+            pool.shutdown();
+        }
+    }
+
+    protected static void run(HeadlessSceneController controller, DrawContext dc, int threads)
+    {
+        Set<String> keys = new HashSet<String>();
+        keys.add(PerformanceStatistic.PREPARE_TIME);
+        keys.add(PerformanceStatistic.LAYER_TIME);
+        Collection<PerformanceStatistic> statistics = new ArrayList<PerformanceStatistic>();
+        dc.setPerFrameStatisticsKeys(keys, statistics);
+
+        TimingHistogram histogram = new TimingHistogram(threads + " threads");
+        for (int frame = 0; frame < FRAMES; frame++)
+        {
+            // Alternate the vertical exaggeration between two nearly equal values. This invalidates every path's
+            // geometry, so that each frame measures a full regeneration.
+            dc.setVerticalExaggeration(frame % 2 == 0 ? 1 : 1 + 1e-9);
+            dc.setFrameTimeStamp(dc.getFrameTimeStamp() + 1);
+            statistics.clear();
+
+            long t = System.nanoTime();
+            controller.runPreparation(dc);
+            if (frame > 0)
+                histogram.recordSince(t);
+        }
+
+        System.out.printf("%2d threads: %s%n", threads, histogram);
+        List<PerformanceStatistic> sorted = new ArrayList<PerformanceStatistic>(statistics);
+        Collections.sort(sorted);
+        for (PerformanceStatistic statistic : sorted)
+        {
+            System.out.printf("    %s%n", statistic);
+        }
+    }
+
+    protected static Path makePath(Random random, int numPositions)
+    {
+        // Paths of a few degrees in length scattered over the region in view.
+        double lat = -20 + 40 * random.nextDouble();
+        double lon = -30 + 60 * random.nextDouble();
+        List<Position> positions = new ArrayList<Position>(numPositions);
+        for (int i = 0; i < numPositions; i++)
+        {
+            lat += 0.2 * (random.nextDouble() - 0.5);
+            lon += 0.2 * random.nextDouble();
+            positions.add(Position.fromDegrees(lat, lon, 1000 + 1000 * random.nextDouble()));
+        }
+
+        Path path = new Path(positions);
+        path.setAltitudeMode(WorldWind.ABSOLUTE);
+        path.setConcurrentPreparation(true);
+        return path;
+    }
+
+    protected static View makeView(final Globe globe)
+    {
+        // Look straight down at (0, 0) from 8,000 km, which keeps the whole path region in view.
+        final Vec4 eye = globe.computePointFromPosition(Position.fromDegrees(0, 0, 8e6));
+        final Vec4 center = globe.computePointFromPosition(Position.ZERO);
+
+        return new BasicView()
+        {
+            {
+                this.globe = globe;
+                this.viewport = new Rectangle(0, 0, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+                this.nearClipDistance = 1e5;
+                this.farClipDistance = 2e7;
+                this.modelview = Matrix.fromViewLookAt(eye, center, Vec4.UNIT_Y);
+                this.modelviewInv = this.modelview.getInverse();
+                this.projection = Matrix.fromPerspective(this.fieldOfView, VIEWPORT_WIDTH, VIEWPORT_HEIGHT,
+                    this.nearClipDistance, this.farClipDistance);
+                this.frustum = Frustum.fromPerspective(this.fieldOfView, VIEWPORT_WIDTH, VIEWPORT_HEIGHT,
+                    this.nearClipDistance, this.farClipDistance);
+            }
+        };
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.*;
+
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures headless surface shape tile rendering with {@link SurfaceObjectTileRasterizer}. The benchmark creates
+ * thousands of random {@link SurfacePolygon}s and {@link SurfacePolyline}s over the continental United States, then
+ * draws every tile of a 512x512 pixel tile pyramid covering them, first on one thread and then on all available cores.
+ * <p>
+ * Usage: <code>SurfaceShapeRasterBenchmark [numPolygons] [numPolylines] [numLevels]</code>. The defaults are 5000
+ * polygons, 5000 polylines and 6 levels.
+ */
+public class SurfaceShapeRasterBenchmark
+{
+    protected static final Sector SECTOR = Sector.fromDegrees(25, 50, -125, -65);
+
+    public static void main(String[] args)
+    {
+        int numPolygons = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int numPolylines = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int numLevels = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        Globe globe = new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS, Earth.WGS84_ES,
+            new ZeroElevationModel());
+        List<AbstractSurfaceShape> shapes = makeShapes(numPolygons, numPolylines);
+        LevelSet levels = makeLevelSet(numLevels);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d polygons, %d polylines, %d levels, %d cores%n", numPolygons, numPolylines, numLevels,
+            cores);
+
+        for (int threads : new int[] {1, cores})
+        {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            SurfaceObjectTileRasterizer rasterizer = new SurfaceObjectTileRasterizer(executor);
+
+            // Warm up on the first two levels before timing.
+            run(rasterizer, globe, shapes, levels, 2, null);
+            run(rasterizer, globe, shapes, levels, numLevels, "" + threads + " threads");
+
+            rasterizer.dispose();
+            executor.shutdown();
+        }
+    }
+
+    protected static void run(final SurfaceObjectTileRasterizer rasterizer, Globe globe,
+        List<AbstractSurfaceShape> shapes, LevelSet levels, int numLevels, String name)
+    {
+        final TimingHistogram histogram = new TimingHistogram(name);
+        final AtomicLong numTiles = new AtomicLong();
+        final AtomicLong nonEmptyTiles = new AtomicLong();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < numLevels; i++)
+        {
+            List<Tile> tiles = SurfaceObjectTileRasterizer.getTiles(levels, i, SECTOR);
+            long levelStart = System.nanoTime();
+            rasterizer.rasterizeTiles(globe, tiles, shapes, new SurfaceObjectTileRasterizer.TileHandler()
+            {
+                public void tileRasterized(Tile tile, BufferedImage image)
+                {
+                    numTiles.incrementAndGet();
+                    if (image.getRGB(image.getWidth() / 2, image.getHeight() / 2) != 0)
+                        nonEmptyTiles.incrementAndGet();
+                    rasterizer.releaseImage(image);
+                }
+            });
+            histogram.recordSince(levelStart);
+
+            if (name != null)
+            {
+                System.out.printf("  level %d: %5d tiles in %8.1f ms%n", i, tiles.size(),
+                    (System.nanoTime() - levelStart) / 1e6);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (name != null)
+        {
+            System.out.printf("%-12s %6d tiles (%d with content at center), %8.1f tiles/s | %s%n", name,
+                numTiles.get(), nonEmptyTiles.get(), numTiles.get() / seconds, histogram);
+        }
+    }
+
+    protected static List<AbstractSurfaceShape> makeShapes(int numPolygons, int numPolylines)
+    {
+        Random random = new Random(1);
+        List<AbstractSurfaceShape> shapes = new ArrayList<AbstractSurfaceShape>(numPolygons + numPolylines);
+
+        for (int i = 0; i < numPolygons; i++)
+        {
+            LatLon center = randomLocation(random);
+            double radius = 0.02 + 0.5 * random.nextDouble() * random.nextDouble();
+            List<LatLon> locations = new ArrayList<LatLon>();
+            for (int j = 0; j < 24; j++)
+            {
+                double a = 2 * Math.PI * j / 24;
+                double r = radius * (0.6 + 0.4 * random.nextDouble());
+                locations.add(LatLon.fromDegrees(center.getLatitude().degrees + r * Math.sin(a),
+                    center.getLongitude().degrees + r * Math.cos(a)));
+            }
+
+            ShapeAttributes attrs = new BasicShapeAttributes();
+            attrs.setInteriorMaterial(new Material(WWUtil.makeRandomColor(null)));
+            attrs.setInteriorOpacity(0.6);
+            attrs.setOutlineWidth(1.5);
+            shapes.add(new SurfacePolygon(attrs, locations));
+        }
+
+        for (int i = 0; i < numPolylines; i++)
+        {
+            LatLon location = randomLocation(random);
+            List<LatLon> locations = new ArrayList<LatLon>();
+            for (int j = 0; j < 16; j++)
+            {
+                locations.add(location);
+                location = LatLon.fromDegrees(
+                    location.getLatitude().degrees + 0.1 * (random.nextDouble() - 0.5),
+                    location.getLongitude().degrees + 0.1 * (random.nextDouble() - 0.5));
+            }
+
+            ShapeAttributes attrs = new BasicShapeAttributes();
+            attrs.setOutlineMaterial(new Material(WWUtil.makeRandomColor(null)));
+            attrs.setOutlineWidth(1 + random.nextInt(3));
+            if (i % 4 == 0)
+            {
+                attrs.setOutlineStippleFactor(2);
+                attrs.setOutlineStipplePattern((short) 0xF0F0);
+            }
+            shapes.add(new SurfacePolyline(attrs, locations));
+        }
+
+        return shapes;
+    }
+
+    protected static LatLon randomLocation(Random random)
+    {
+        return LatLon.fromDegrees(
+            SECTOR.getMinLatitude().degrees + random.nextDouble() * SECTOR.getDeltaLatDegrees(),
+            SECTOR.getMinLongitude().degrees + random.nextDouble() * SECTOR.getDeltaLonDegrees());
+    }
+
+    protected static LevelSet makeLevelSet(int numLevels)
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.SECTOR, Sector.FULL_SPHERE);
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, LatLon.fromDegrees(36, 36));
+        params.setValue(AVKey.NUM_LEVELS, numLevels);
+        params.setValue(AVKey.TILE_WIDTH, 512);
+        params.setValue(AVKey.TILE_HEIGHT, 512);
+        params.setValue(AVKey.FORMAT_SUFFIX, ".png");
+        params.setValue(AVKey.DATASET_NAME, "benchmark");
+        params.setValue(AVKey.DATA_CACHE_NAME, "benchmark");
+        return new LevelSet(params);
+    }
+}
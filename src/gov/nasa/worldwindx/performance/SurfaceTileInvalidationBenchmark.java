@@ -0,0 +1,244 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.BasicModel;
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import gov.nasa.worldwind.util.*;
+
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * Compares the per-frame cost of deciding which surface object tiles to redraw using per-tile state keys, as {@link
+ * SurfaceObjectTileBuilder} does by default, against using a {@link SurfaceObjectDirtyRegionTracker}. Each frame moves
+ * a few random {@link SurfacePolygon}s, then determines the objects in and the need to redraw every tile of one level
+ * of a tile pyramid covering the continental United States. The benchmark prints the number of tiles rebuilt and the
+ * CPU time per frame for each approach. No OpenGL context is needed.
+ * <p>
+ * Usage: <code>SurfaceTileInvalidationBenchmark [numPolygons] [changesPerFrame] [level]</code>. The defaults are
+ * 20000 polygons, 10 changes per frame and level 4, whose tiles are 2.25 degrees square.
+ */
+public class SurfaceTileInvalidationBenchmark
+{
+    protected static final Sector SECTOR = Sector.fromDegrees(25, 50, -125, -65);
+    protected static final int NUM_FRAMES = 200;
+
+    protected interface Strategy
+    {
+        /**
+         * Determines which tiles must be redrawn for the current frame.
+         *
+         * @param dc     the draw context.
+         * @param shapes the current shapes.
+         * @param tiles  the tiles to test.
+         *
+         * @return the number of tiles to redraw.
+         */
+        int update(DrawContext dc, List<SurfacePolygon> shapes, List<Tile> tiles);
+    }
+
+    public static void main(String[] args)
+    {
+        int numPolygons = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int changesPerFrame = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int levelNumber = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        DrawContext dc = new DrawContextImpl();
+        dc.setModel(new BasicModel(new EllipsoidalGlobe(Earth.WGS84_EQUATORIAL_RADIUS, Earth.WGS84_POLAR_RADIUS,
+            Earth.WGS84_ES, new ZeroElevationModel()), null));
+        List<Tile> tiles = SurfaceObjectTileRasterizer.getTiles(makeLevelSet(levelNumber + 1), levelNumber, SECTOR);
+
+        System.out.printf("%d polygons, %d changes per frame, %d tiles at level %d%n", numPolygons, changesPerFrame,
+            tiles.size(), levelNumber);
+
+        run("State keys", new StateKeyStrategy(), dc, numPolygons, changesPerFrame, tiles);
+        run("Dirty regions", new DirtyRegionStrategy(), dc, numPolygons, changesPerFrame, tiles);
+    }
+
+    protected static void run(String name, Strategy strategy, DrawContext dc, int numPolygons, int changesPerFrame,
+        List<Tile> tiles)
+    {
+        Random random = new Random(1);
+        List<SurfacePolygon> shapes = makeShapes(random, numPolygons);
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        // The first frame builds every tile. Run it before timing.
+        int initialTiles = strategy.update(dc, shapes, tiles);
+
+        TimingHistogram histogram = new TimingHistogram(name);
+        long numRebuilt = 0;
+        long cpuNanos = 0;
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            for (int i = 0; i < changesPerFrame; i++)
+            {
+                moveShape(random, shapes.get(random.nextInt(shapes.size())));
+            }
+
+            long cpuStart = bean.getCurrentThreadCpuTime();
+            long start = System.nanoTime();
+            numRebuilt += strategy.update(dc, shapes, tiles);
+            histogram.recordSince(start);
+            cpuNanos += bean.getCurrentThreadCpuTime() - cpuStart;
+        }
+
+        System.out.printf("%-14s first frame %5d tiles, then %6.1f tiles rebuilt and %7.3f ms CPU per frame | %s%n",
+            name, initialTiles, (double) numRebuilt / NUM_FRAMES, cpuNanos / 1e6 / NUM_FRAMES, histogram);
+    }
+
+    /** Sorts every shape into the tiles and compares a state key built from each tile's shapes, every frame. */
+    protected static class StateKeyStrategy implements Strategy
+    {
+        protected Map<Tile, List<Object>> lastKeys = new HashMap<Tile, List<Object>>();
+
+        public int update(DrawContext dc, List<SurfacePolygon> shapes, List<Tile> tiles)
+        {
+            Map<Tile, List<SurfaceRenderable>> tileObjects = new HashMap<Tile, List<SurfaceRenderable>>();
+            for (SurfaceRenderable so : shapes)
+            {
+                for (Sector s : so.getSectors(dc))
+                {
+                    for (Tile tile : tiles)
+                    {
+                        if (tile.getSector().intersects(s))
+                        {
+                            List<SurfaceRenderable> list = tileObjects.get(tile);
+                            if (list == null)
+                            {
+                                list = new ArrayList<SurfaceRenderable>();
+                                tileObjects.put(tile, list);
+                            }
+                            list.add(so);
+                        }
+                    }
+                }
+            }
+
+            int numRebuilt = 0;
+            for (Tile tile : tiles)
+            {
+                List<SurfaceRenderable> objects = tileObjects.get(tile);
+                List<Object> keys = new ArrayList<Object>();
+                if (objects != null)
+                {
+                    for (SurfaceRenderable so : objects)
+                    {
+                        keys.add(so.getStateKey(dc));
+                    }
+                }
+
+                if (!keys.equals(this.lastKeys.get(tile)))
+                {
+                    this.lastKeys.put(tile, keys);
+                    numRebuilt++;
+                }
+            }
+
+            return numRebuilt;
+        }
+    }
+
+    /** Updates a dirty region tracker, then redraws the tiles that intersect a changed region. */
+    protected static class DirtyRegionStrategy implements Strategy
+    {
+        protected SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        protected Map<Tile, Long> lastGenerations = new HashMap<Tile, Long>();
+
+        public int update(DrawContext dc, List<SurfacePolygon> shapes, List<Tile> tiles)
+        {
+            this.tracker.update(dc, shapes);
+
+            int numRebuilt = 0;
+            for (Tile tile : tiles)
+            {
+                // The tile builder gathers each visible tile's objects every frame, whether or not it's redrawn.
+                this.tracker.getIntersectingObjects(tile.getSector());
+
+                Long generation = this.lastGenerations.get(tile);
+                if (this.tracker.isDirty(tile.getSector(), generation != null ? generation : -1))
+                {
+                    this.lastGenerations.put(tile, this.tracker.getGeneration());
+                    numRebuilt++;
+                }
+            }
+
+            return numRebuilt;
+        }
+    }
+
+    protected static List<SurfacePolygon> makeShapes(Random random, int numPolygons)
+    {
+        List<SurfacePolygon> shapes = new ArrayList<SurfacePolygon>(numPolygons);
+        for (int i = 0; i < numPolygons; i++)
+        {
+            SurfacePolygon shape = new SurfacePolygon(new BasicShapeAttributes(), new ArrayList<LatLon>());
+            moveShape(random, shape);
+            shapes.add(shape);
+        }
+
+        return shapes;
+    }
+
+    protected static void moveShape(Random random, SurfacePolygon shape)
+    {
+        LatLon center = LatLon.fromDegrees(
+            SECTOR.getMinLatitude().degrees + random.nextDouble() * SECTOR.getDeltaLatDegrees(),
+            SECTOR.getMinLongitude().degrees + random.nextDouble() * SECTOR.getDeltaLonDegrees());
+        double radius = 0.02 + 0.3 * random.nextDouble() * random.nextDouble();
+
+        List<LatLon> locations = new ArrayList<LatLon>();
+        for (int j = 0; j < 12; j++)
+        {
+            double a = 2 * Math.PI * j / 12;
+            locations.add(LatLon.fromDegrees(center.getLatitude().degrees + radius * Math.sin(a),
+                center.getLongitude().degrees + radius * Math.cos(a)));
+        }
+
+        shape.setLocations(locations);
+    }
+
+    protected static LevelSet makeLevelSet(int numLevels)
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.SECTOR, Sector.FULL_SPHERE);
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, LatLon.fromDegrees(36, 36));
+        params.setValue(AVKey.NUM_LEVELS, numLevels);
+        params.setValue(AVKey.TILE_WIDTH, 512);
+        params.setValue(AVKey.TILE_HEIGHT, 512);
+        params.setValue(AVKey.FORMAT_SUFFIX, ".png");
+        params.setValue(AVKey.DATASET_NAME, "benchmark");
+        params.setValue(AVKey.DATA_CACHE_NAME, "benchmark");
+        return new LevelSet(params);
+    }
+}
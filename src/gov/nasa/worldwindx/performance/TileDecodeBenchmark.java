@@ -0,0 +1,213 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.formats.dds.*;
+import gov.nasa.worldwind.util.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Measures the tile image decode stage of tiled image layers without an OpenGL context. The benchmark decodes a set of
+ * encoded tiles with the legacy path used by {@link gov.nasa.worldwind.layers.BasicTiledImageLayer} (ImageIO followed
+ * by a conversion to packed pixels, or DDSCompressor for DXT) and with {@link TileImageDecoder}, using one thread and
+ * then all available cores, and prints throughput and decode time histograms.
+ * <p>
+ * Run with no arguments to decode synthetic 512x512 PNG and JPEG tiles, or with a directory argument to decode the PNG
+ * and JPEG files in that directory.
+ */
+public class TileDecodeBenchmark
+{
+    protected static final int TILE_SIZE = 512;
+    protected static final int NUM_SYNTHETIC_TILES = 32;
+    protected static final int ITERATIONS = 8;
+
+    public interface DecodeTask
+    {
+        void decode(byte[] encoded) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        List<byte[]> tiles = args.length > 0 ? readTiles(new File(args[0])) : makeSyntheticTiles();
+        System.out.printf("%d tiles, %d iterations, %d cores%n", tiles.size(), ITERATIONS,
+            Runtime.getRuntime().availableProcessors());
+
+        final TileImageDecoder decoder = new TileImageDecoder(new DirectBufferPool(64000000L));
+        final DXTCompressionAttributes dxtAttributes = DDSCompressor.getDefaultCompressionAttributes();
+        dxtAttributes.setBuildMipmaps(false);
+
+        DecodeTask legacy = new DecodeTask()
+        {
+            public void decode(byte[] encoded) throws IOException
+            {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded));
+                // Mirrors the copy AWTTextureData makes for images not already in an OpenGL compatible layout.
+                int[] pixels = new int[image.getWidth() * image.getHeight()];
+                image.getRGB(0, 0, image.getWidth(), image.getHeight(), pixels, 0, image.getWidth());
+            }
+        };
+
+        DecodeTask pipeline = new DecodeTask()
+        {
+            public void decode(byte[] encoded) throws IOException
+            {
+                decoder.decode(new ByteArrayInputStream(encoded), null).release();
+            }
+        };
+
+        DecodeTask legacyDxt = new DecodeTask()
+        {
+            public void decode(byte[] encoded) throws IOException
+            {
+                DDSCompressor.compressImageStream(new ByteArrayInputStream(encoded), dxtAttributes);
+            }
+        };
+
+        DecodeTask pipelineDxt = new DecodeTask()
+        {
+            public void decode(byte[] encoded) throws IOException
+            {
+                decoder.decode(new ByteArrayInputStream(encoded), dxtAttributes).release();
+            }
+        };
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores})
+        {
+            run("ImageIO + ARGB copy", legacy, tiles, threads);
+            run("TileImageDecoder", pipeline, tiles, threads);
+            run("DDSCompressor DXT", legacyDxt, tiles, threads);
+            run("TileImageDecoder DXT", pipelineDxt, tiles, threads);
+        }
+
+        System.out.println(decoder.getDecodeTimes());
+        System.out.println(decoder.getCompressionTimes());
+        System.out.printf("Buffer pool: %d hits, %d misses, %d bytes retained%n",
+            decoder.getBufferPool().getHitCount(), decoder.getBufferPool().getMissCount(),
+            decoder.getBufferPool().getRetainedBytes());
+    }
+
+    protected static void run(String name, final DecodeTask task, final List<byte[]> tiles, int threads)
+        throws Exception
+    {
+        // Warm up before timing.
+        for (byte[] tile : tiles)
+        {
+            task.decode(tile);
+        }
+
+        final TimingHistogram histogram = new TimingHistogram(name);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            for (final byte[] tile : tiles)
+            {
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    public Void call() throws Exception
+                    {
+                        long t = System.nanoTime();
+                        task.decode(tile);
+                        histogram.recordSince(t);
+                        return null;
+                    }
+                }));
+            }
+        }
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("%-24s %2d threads: %8.1f tiles/s | %s%n", name, threads, futures.size() / seconds,
+            histogram);
+    }
+
+    protected static List<byte[]> readTiles(File dir) throws IOException
+    {
+        List<byte[]> tiles = new ArrayList<byte[]>();
+        File[] files = dir.listFiles();
+        if (files == null)
+            return tiles;
+
+        for (File file : files)
+        {
+            String suffix = WWIO.getSuffix(file.getName());
+            if (suffix != null && (suffix.equalsIgnoreCase("png") || suffix.equalsIgnoreCase("jpg")
+                || suffix.equalsIgnoreCase("jpeg")))
+            {
+                tiles.add(WWIO.readStreamToBuffer(new FileInputStream(file)).array());
+            }
+        }
+
+        return tiles;
+    }
+
+    protected static List<byte[]> makeSyntheticTiles() throws IOException
+    {
+        List<byte[]> tiles = new ArrayList<byte[]>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < NUM_SYNTHETIC_TILES; i++)
+        {
+            boolean png = i % 2 == 0;
+            BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE,
+                png ? BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (int j = 0; j < 200; j++)
+            {
+                g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                    png ? 64 + random.nextInt(192) : 255));
+                g.fillOval(random.nextInt(TILE_SIZE), random.nextInt(TILE_SIZE), 8 + random.nextInt(128),
+                    8 + random.nextInt(128));
+            }
+            g.dispose();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, png ? "png" : "jpg", out);
+            tiles.add(out.toByteArray());
+        }
+
+        return tiles;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.data.tiles.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares random tile read throughput of an MBTiles {@link TileSource}, read one tile at a time and in 3x3 groups,
+ * against reading the same tiles from one file per tile, as the file store does. The benchmark generates a synthetic
+ * tile set in a temporary directory and requires a SQLite JDBC driver on the class path.
+ * <p>
+ * Usage: <code>TileSourceBenchmark [gridSize] [tileBytes]</code>, where the grid is a square block of tiles at zoom
+ * level 12 (default 128, i.e. 16,384 tiles) and each tile holds <code>tileBytes</code> random bytes (default 16 KB).
+ */
+public class TileSourceBenchmark
+{
+    protected static final int ZOOM = 12;
+    protected static final int NUM_READS = 50000;
+
+    protected interface ReadTask
+    {
+        int read(Tile tile, Random random) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int gridSize = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int tileBytes = args.length > 1 ? Integer.parseInt(args[1]) : 16384;
+
+        File dir = File.createTempFile("TileSourceBenchmark", "");
+        dir.delete();
+        dir.mkdirs();
+
+        File mbtiles = new File(dir, "tiles.mbtiles");
+        File tileDir = new File(dir, "tiles");
+        System.out.printf("Writing %d tiles of %d bytes to %s%n", gridSize * gridSize, tileBytes, dir);
+        writeTiles(mbtiles, tileDir, gridSize, tileBytes);
+
+        final Level level = makeLevelSet().getLevel(ZOOM);
+        final List<Tile> tiles = new ArrayList<Tile>(gridSize * gridSize);
+        for (int row = 0; row < gridSize; row++)
+        {
+            for (int col = 0; col < gridSize; col++)
+            {
+                tiles.add(new Tile(Sector.FULL_SPHERE, level, row, col));
+            }
+        }
+
+        final TileSource fileSource = new XYZTileSource(tileDir.toURI() + "{z}/{x}/{-y}.png", 0);
+        final MBTilesTileSource dbSource = new MBTilesTileSource(mbtiles, 0);
+        final int grid = gridSize;
+
+        ReadTask files = new ReadTask()
+        {
+            public int read(Tile tile, Random random) throws IOException
+            {
+                return fileSource.readTile(tile).remaining();
+            }
+        };
+
+        ReadTask single = new ReadTask()
+        {
+            public int read(Tile tile, Random random) throws IOException
+            {
+                return dbSource.readTile(tile).remaining();
+            }
+        };
+
+        ReadTask batched = new ReadTask()
+        {
+            public int read(Tile tile, Random random) throws IOException
+            {
+                List<Tile> group = new ArrayList<Tile>(9);
+                for (int dr = -1; dr <= 1; dr++)
+                {
+                    for (int dc = -1; dc <= 1; dc++)
+                    {
+                        int row = Math.min(Math.max(tile.getRow() + dr, 0), grid - 1);
+                        int col = Math.min(Math.max(tile.getColumn() + dc, 0), grid - 1);
+                        group.add(tiles.get(row * grid + col));
+                    }
+                }
+
+                int bytes = 0;
+                for (ByteBuffer buffer : dbSource.readTiles(group).values())
+                {
+                    bytes += buffer.remaining();
+                }
+                return bytes;
+            }
+        };
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] {1, cores})
+        {
+            run("One file per tile", files, tiles, threads, 1);
+            run("MBTiles single", single, tiles, threads, 1);
+            run("MBTiles 3x3 batch", batched, tiles, threads, 9);
+        }
+
+        dbSource.dispose();
+    }
+
+    protected static void run(String name, final ReadTask task, final List<Tile> tiles, int threads,
+        int tilesPerRead) throws Exception
+    {
+        final TimingHistogram histogram = new TimingHistogram(name);
+        final AtomicLong bytes = new AtomicLong();
+        final int readsPerThread = NUM_READS / threads / tilesPerRead;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++)
+        {
+            final int seed = t;
+            futures.add(executor.submit(new Callable<Void>()
+            {
+                public Void call() throws Exception
+                {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < readsPerThread; i++)
+                    {
+                        long t0 = System.nanoTime();
+                        bytes.addAndGet(task.read(tiles.get(random.nextInt(tiles.size())), random));
+                        histogram.recordSince(t0);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        long numTiles = (long) readsPerThread * threads * tilesPerRead;
+        System.out.printf("%-20s %2d threads: %9.0f tiles/s, %7.1f MB/s | %s%n", name, threads, numTiles / seconds,
+            bytes.get() / seconds / 1e6, histogram);
+    }
+
+    protected static LevelSet makeLevelSet()
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.SECTOR, Sector.FULL_SPHERE);
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, LatLon.fromDegrees(180, 360));
+        params.setValue(AVKey.NUM_LEVELS, ZOOM + 1);
+        params.setValue(AVKey.FORMAT_SUFFIX, ".png");
+        params.setValue(AVKey.TILE_WIDTH, 256);
+        params.setValue(AVKey.TILE_HEIGHT, 256);
+        params.setValue(AVKey.DATASET_NAME, "benchmark");
+        params.setValue(AVKey.DATA_CACHE_NAME, "benchmark");
+        return new LevelSet(params);
+    }
+
+    protected static void writeTiles(File mbtiles, File tileDir, int gridSize, int tileBytes) throws Exception
+    {
+        Random random = new Random(1);
+        byte[] data = new byte[tileBytes];
+
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + mbtiles.getPath());
+        try
+        {
+            Statement statement = connection.createStatement();
+            statement.execute("CREATE TABLE metadata (name TEXT, value TEXT)");
+            statement.execute("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER,"
+                + " tile_data BLOB)");
+            statement.execute("CREATE UNIQUE INDEX tile_index ON tiles (zoom_level, tile_column, tile_row)");
+            statement.execute("INSERT INTO metadata VALUES ('format', 'png')");
+            statement.close();
+
+            connection.setAutoCommit(false);
+            PreparedStatement insert = connection.prepareStatement("INSERT INTO tiles VALUES (?, ?, ?, ?)");
+            for (int row = 0; row < gridSize; row++)
+            {
+                for (int col = 0; col < gridSize; col++)
+                {
+                    random.nextBytes(data);
+
+                    insert.setInt(1, ZOOM);
+                    insert.setInt(2, col);
+                    insert.setInt(3, row);
+                    insert.setBytes(4, data);
+                    insert.addBatch();
+
+                    File file = new File(tileDir, ZOOM + File.separator + col + File.separator + row + ".png");
+                    file.getParentFile().mkdirs();
+                    FileOutputStream out = new FileOutputStream(file);
+                    try
+                    {
+                        out.write(data);
+                    }
+                    finally
+                    {
+                        out.close();
+                    }
+                }
+                insert.executeBatch();
+            }
+            insert.close();
+            connection.commit();
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+}
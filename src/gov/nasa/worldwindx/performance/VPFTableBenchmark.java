@@ -0,0 +1,190 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.formats.vpf.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Compares {@link VPFTableReader}, which decodes a whole VPF table when it is read, with {@link VPFMappedTableReader},
+ * which memory-maps the table and decodes each column when it is first used. For each reader the benchmark reports the
+ * time to open the table, to read one column, and to read every column.
+ * <p>
+ * Usage: <code>VPFTableBenchmark [numRecords | tableFile]</code>. Given a number, the benchmark writes a synthetic
+ * edge table of that many records, with a variable-length coordinate column and its index file, to the temporary
+ * directory. Given a file, the benchmark reads that table instead, such as the edge table of a VMAP or DNC coverage.
+ * The default is a synthetic table of 500,000 records.
+ */
+public class VPFTableBenchmark
+{
+    protected static final int DEFAULT_NUM_RECORDS = 500000;
+    protected static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws Exception
+    {
+        File file;
+        if (args.length > 0 && new File(args[0]).exists())
+        {
+            file = new File(args[0]);
+        }
+        else
+        {
+            int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_RECORDS;
+            File dir = new File(System.getProperty("java.io.tmpdir"), "VPFTableBenchmark");
+            //noinspection ResultOfMethodCallIgnored
+            dir.mkdirs();
+            file = new File(dir, "edg");
+            writeEdgeTable(file, new File(dir, "edx"), numRecords);
+        }
+
+        VPFBufferedRecordData data = new VPFTableReader().read(file);
+        List<String> names = new ArrayList<String>();
+        for (String name : data.getRecordParameterNames())
+        {
+            names.add(name);
+        }
+        // Measure the first column after the row id, which is an edge table's START_NODE.
+        String column = names.contains("START_NODE") ? "START_NODE" : names.get(names.size() - 1);
+        System.out.printf("Table %s: %d records, %d columns, %d KB%n", file, data.getNumRecords(), names.size(),
+            file.length() / 1024);
+
+        // Warm up both readers before measuring.
+        measure(new VPFTableReader(), file, names, column, false);
+        measure(new VPFMappedTableReader(), file, names, column, false);
+
+        measure(new VPFTableReader(), file, names, column, true);
+        measure(new VPFMappedTableReader(), file, names, column, true);
+    }
+
+    protected static void measure(VPFTableReader reader, File file, List<String> names, String column, boolean report)
+    {
+        long openNanos = 0;
+        long columnNanos = 0;
+        long allNanos = 0;
+
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            long t0 = System.nanoTime();
+            VPFBufferedRecordData data = reader.read(file);
+            long t1 = System.nanoTime();
+            data.getRecordData(column).get(data.getNumRecords());
+            long t2 = System.nanoTime();
+            for (String name : names)
+            {
+                data.getRecordData(name).get(data.getNumRecords());
+            }
+            long t3 = System.nanoTime();
+
+            openNanos += t1 - t0;
+            columnNanos += t2 - t1;
+            allNanos += t3 - t1;
+        }
+
+        if (report)
+        {
+            System.out.printf("%-20s open %9.2f ms  first column %9.2f ms  all columns %9.2f ms%n",
+                reader.getClass().getSimpleName(), openNanos / 1e6 / ITERATIONS, columnNanos / 1e6 / ITERATIONS,
+                allNanos / 1e6 / ITERATIONS);
+        }
+    }
+
+    /**
+     * Writes an edge table like those of VMAP and DNC coverages, and its variable-length index file. Each edge has
+     * between 2 and 17 coordinates.
+     *
+     * @param tableFile  the table file to write.
+     * @param indexFile  the variable-length index file to write.
+     * @param numRecords the number of records in the table.
+     *
+     * @throws IOException if either file cannot be written.
+     */
+    protected static void writeEdgeTable(File tableFile, File indexFile, int numRecords) throws IOException
+    {
+        String header = "L;Synthetic Edge Primitive Table;-;"
+            + "ID=I,1,P,Row Identifier,-,-,:"
+            + "START_NODE=I,1,N,Start Node,-,-,:"
+            + "END_NODE=I,1,N,End Node,-,-,:"
+            + "RIGHT_FACE=K,1,N,Right Face,-,-,:"
+            + "LEFT_FACE=K,1,N,Left Face,-,-,:"
+            + "COORDINATES=C,*,N,Coordinates,-,-,:;";
+        byte[] headerBytes = header.getBytes("US-ASCII");
+
+        ByteBuffer body = ByteBuffer.allocate(4 + headerBytes.length + numRecords * (4 * 3 + 2 * 5 + 4 + 17 * 8));
+        body.order(ByteOrder.LITTLE_ENDIAN);
+        body.putInt(headerBytes.length).put(headerBytes);
+
+        ByteBuffer index = ByteBuffer.allocate(8 + numRecords * 8);
+        index.order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(numRecords).putInt(4 + headerBytes.length);
+
+        for (int id = 1; id <= numRecords; id++)
+        {
+            int offset = body.position();
+            body.putInt(id).putInt(id).putInt(id + 1);
+            // Triplet ids with a one byte id and no tile or external id.
+            body.put((byte) 0x40).put((byte) (id % 100));
+            body.put((byte) 0x40).put((byte) ((id + 1) % 100));
+
+            int numCoords = 2 + id % 16;
+            body.putInt(numCoords);
+            for (int i = 0; i < numCoords; i++)
+            {
+                body.putFloat(-105f + id * 1e-4f + i * 1e-5f).putFloat(40f + i * 1e-5f);
+            }
+
+            index.putInt(offset).putInt(body.position() - offset);
+        }
+
+        body.flip();
+        index.flip();
+        write(tableFile, body);
+        write(indexFile, index);
+    }
+
+    protected static void write(File file, ByteBuffer buffer) throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream(file);
+        try
+        {
+            FileChannel channel = stream.getChannel();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
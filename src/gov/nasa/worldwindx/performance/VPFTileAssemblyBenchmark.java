@@ -0,0 +1,159 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.formats.vpf.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how quickly {@link VPFLayer} assembles the symbols of coverage tiles, headlessly, as the number of assembly
+ * threads grows. Each run decodes the primitive data and creates the GeoSym symbols of every tile of every coverage in
+ * a VPF database, as the layer's tile assembly pool does for visible tiles.
+ * <p>
+ * Usage: <code>VPFTileAssemblyBenchmark database.dht [maxThreads]</code>. The database is a VPF database header table,
+ * such as that of a VMAP or DNC distribution. The default maximum number of threads is the number of available
+ * processors; runs use 1, 2, 4 and so on up to the maximum.
+ */
+public class VPFTileAssemblyBenchmark
+{
+    /** Exposes the layer's tile assembly. */
+    protected static class AssemblyLayer extends VPFLayer
+    {
+        public AssemblyLayer(VPFDatabase db)
+        {
+            super(db);
+        }
+
+        /**
+         * Assembles and disposes the symbols of one coverage tile.
+         *
+         * @param coverage the coverage.
+         * @param tile     the tile, or null if the coverage is not tiled.
+         *
+         * @return the number of symbols assembled.
+         */
+        public int assemble(VPFCoverage coverage, VPFTile tile)
+        {
+            VPFSymbolCollection symbols = this.loadTileSymbols(coverage, tile);
+            int count = symbols.getSymbols().size();
+            symbols.dispose();
+            return count;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.out.println("Usage: VPFTileAssemblyBenchmark database.dht [maxThreads]");
+            return;
+        }
+
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        VPFDatabase db = VPFDatabase.fromFile(args[0]);
+        final AssemblyLayer layer = new AssemblyLayer(db);
+
+        // Every coverage tile in the database. Coverages that are not tiled have one null tile.
+        final List<VPFCoverage> coverages = new ArrayList<VPFCoverage>();
+        final List<VPFTile> tiles = new ArrayList<VPFTile>();
+        for (VPFLibrary library : db.getLibraries())
+        {
+            for (VPFCoverage coverage : library.getCoverages())
+            {
+                if (coverage.getName().equalsIgnoreCase(VPFConstants.LIBRARY_REFERENCE_COVERAGE))
+                    continue;
+
+                VPFTile[] coverageTiles = coverage.isTiled() ? library.getTiles() : new VPFTile[] {null};
+                for (VPFTile tile : coverageTiles)
+                {
+                    coverages.add(coverage);
+                    tiles.add(tile);
+                }
+            }
+        }
+        System.out.printf("Database %s: %d coverage tiles%n", args[0], tiles.size());
+
+        // Warm up on one thread before measuring.
+        run(layer, coverages, tiles, 1);
+
+        double baseline = 0;
+        for (int numThreads = 1; numThreads <= maxThreads; numThreads *= 2)
+        {
+            long[] result = run(layer, coverages, tiles, numThreads);
+            double tilesPerSecond = tiles.size() / (result[0] / 1e9);
+            if (baseline == 0)
+                baseline = tilesPerSecond;
+
+            System.out.printf("%2d threads %9.1f ms %9.1f tiles/s %10d symbols  speedup %.2fx%n", numThreads,
+                result[0] / 1e6, tilesPerSecond, result[1], tilesPerSecond / baseline);
+        }
+    }
+
+    /**
+     * Assembles every coverage tile on a pool of a specified size.
+     *
+     * @return the elapsed nanoseconds and the number of symbols assembled.
+     */
+    protected static long[] run(final AssemblyLayer layer, final List<VPFCoverage> coverages,
+        final List<VPFTile> tiles, int numThreads) throws Exception
+    {
+        final AtomicLong numSymbols = new AtomicLong();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(tiles.size());
+        for (int i = 0; i < tiles.size(); i++)
+        {
+            final int index = i;
+            tasks.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    numSymbols.addAndGet(layer.assemble(coverages.get(index), tiles.get(index)));
+                    return null;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try
+        {
+            long t0 = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks))
+            {
+                future.get();
+            }
+            return new long[] {System.nanoTime() - t0, numSymbols.get()};
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
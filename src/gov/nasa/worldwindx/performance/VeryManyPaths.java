@@ -50,6 +50,8 @@ public class VeryManyPaths extends ApplicationTemplate
     protected static final LatLon START_LOCATION = LatLon.fromDegrees(48.86, 2.33);
     protected static final int ALTITUDE_MODE = WorldWind.ABSOLUTE;
     protected static final double LINE_WIDTH = 1d;
+    /** Draws the paths as one {@link PathBatch}, without extrusion or verticals, rather than as individual Paths. */
+    protected static final boolean USE_PATH_BATCH = false;
 
     public static class AppFrame extends ApplicationTemplate.AppFrame
     {
@@ -73,11 +75,23 @@ public class VeryManyPaths extends ApplicationTemplate
         protected void makePaths(RenderableLayer layer, Position origin, int numPaths, Angle length, int numPositions)
         {
             double dAngle = 360d / numPaths;
+            PathBatch batch = USE_PATH_BATCH ? new PathBatch() : null;
 
             for (int i = 0; i < numPaths; i++)
             {
                 Angle heading = Angle.fromDegrees(i * dAngle);
-                layer.addRenderable(this.makePath(origin, heading, length, numPositions));
+                Path path = this.makePath(origin, heading, length, numPositions);
+                if (batch != null)
+                    batch.addPath(path.getPositions(), path.getAttributes().getOutlineMaterial().getDiffuse());
+                else
+                    layer.addRenderable(path);
+            }
+
+            if (batch != null)
+            {
+                batch.getGeometry().setAltitudeMode(ALTITUDE_MODE);
+                batch.setLineWidth(LINE_WIDTH);
+                layer.addRenderable(batch);
             }
 
             System.out.printf("%d paths, each with %d positions\n", NUM_PATHS, NUM_POSITIONS);
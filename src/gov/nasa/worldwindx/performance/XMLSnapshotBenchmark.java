@@ -0,0 +1,116 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwindx.performance;
+
+import gov.nasa.worldwind.cache.BasicDataFileStore;
+import gov.nasa.worldwind.ogc.kml.KMLRoot;
+import gov.nasa.worldwind.util.TimingHistogram;
+import gov.nasa.worldwind.util.xml.XMLSnapshotCache;
+
+import java.io.File;
+
+/**
+ * Compares the time to open a large KML document by parsing its XML, as on every application start without a snapshot
+ * cache, against opening it from the binary recording kept by {@link XMLSnapshotCache}. The benchmark writes the
+ * synthetic document of {@link KMLParsingBenchmark} to a temporary file, or opens a document named on the command line,
+ * and keeps its recordings in a temporary file store.
+ * <p>
+ * Usage: <code>XMLSnapshotBenchmark [numPlacemarks | file]</code>. The default document has 20,000 placemarks.
+ */
+public class XMLSnapshotBenchmark
+{
+    protected static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception
+    {
+        File file;
+        if (args.length > 0 && new File(args[0]).exists())
+        {
+            file = new File(args[0]);
+        }
+        else
+        {
+            int numPlacemarks = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+            file = File.createTempFile("XMLSnapshotBenchmark", ".kml");
+            file.deleteOnExit();
+            KMLParsingBenchmark.writeDocument(file, numPlacemarks);
+        }
+
+        File storeDir = File.createTempFile("XMLSnapshotBenchmark", "");
+        storeDir.delete();
+        storeDir.mkdirs();
+        XMLSnapshotCache cache = new XMLSnapshotCache(new BasicDataFileStore(storeDir),
+            XMLSnapshotCache.DEFAULT_CACHE_PATH);
+
+        System.out.printf("Opening %s (%d KB), %d iterations%n", file, file.length() / 1024, ITERATIONS);
+
+        // The first parse with the cache records the document; time it separately from both steady states.
+        KMLRoot.setSnapshotCache(cache);
+        cache.removeSnapshot(file.getAbsolutePath());
+        TimingHistogram recordTimes = new TimingHistogram("XML parse + record");
+        open(file, recordTimes);
+
+        // Alternate the two paths so both see the same JIT and heap state.
+        TimingHistogram parseTimes = new TimingHistogram("XML parse");
+        TimingHistogram snapshotTimes = new TimingHistogram("Snapshot load");
+        for (int i = 0; i < ITERATIONS + 2; i++)
+        {
+            boolean warmup = i < 2;
+
+            KMLRoot.setSnapshotCache(null);
+            open(file, warmup ? null : parseTimes);
+
+            KMLRoot.setSnapshotCache(cache);
+            open(file, warmup ? null : snapshotTimes);
+        }
+        KMLRoot.setSnapshotCache(null);
+
+        report(recordTimes);
+        report(parseTimes);
+        report(snapshotTimes);
+        System.out.printf("Speedup: %.1fx%n", (double) parseTimes.getTotalNanos() / snapshotTimes.getTotalNanos());
+    }
+
+    protected static void open(File file, TimingHistogram histogram) throws Exception
+    {
+        long t0 = System.nanoTime();
+        KMLRoot root = new KMLRoot(file);
+        if (root.parse() == null)
+            throw new IllegalStateException("Document did not parse");
+
+        if (histogram != null)
+            histogram.recordSince(t0);
+    }
+
+    protected static void report(TimingHistogram histogram)
+    {
+        System.out.printf("%-20s %8.1f ms/open | %s%n", histogram.getName(),
+            histogram.getTotalNanos() / 1e6 / histogram.getCount(), histogram);
+    }
+}
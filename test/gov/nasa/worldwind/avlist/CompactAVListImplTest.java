@@ -0,0 +1,147 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.avlist;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.beans.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CompactAVListImplTest
+{
+    /** Tests that random sequences of operations give the same results as AVListImpl. */
+    @Test
+    public void testMatchesAVListImpl()
+    {
+        Random random = new Random(1);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            AVList expected = new AVListImpl();
+            AVList actual = new CompactAVListImpl();
+
+            for (int j = 0; j < 50; j++)
+            {
+                // Construct each key so that lookups cannot rely on identity.
+                String key = new String("key" + random.nextInt(8));
+                Object value = random.nextInt(4) == 0 ? null : random.nextInt(5);
+
+                switch (random.nextInt(4))
+                {
+                    case 0:
+                    case 1:
+                        assertEquals("setValue", expected.setValue(key, value), actual.setValue(key, value));
+                        break;
+                    case 2:
+                        assertEquals("removeKey", expected.removeKey(key), actual.removeKey(key));
+                        break;
+                    default:
+                        assertEquals("hasKey", expected.hasKey(key), actual.hasKey(key));
+                        assertEquals("getValue", expected.getValue(key), actual.getValue(key));
+                }
+            }
+
+            assertEquals("Entries differ", new HashSet<Map.Entry<String, Object>>(expected.getEntries()),
+                new HashSet<Map.Entry<String, Object>>(actual.getEntries()));
+        }
+    }
+
+    /** Tests that a copy is independent of the list it was copied from. */
+    @Test
+    public void testCopy()
+    {
+        AVList list = new CompactAVListImpl();
+        list.setValue(AVKey.DISPLAY_NAME, "name");
+
+        AVList copy = list.copy();
+        copy.setValue(AVKey.DISPLAY_NAME, "other");
+        copy.setValue(AVKey.DESCRIPTION, "description");
+
+        assertEquals("name", list.getValue(AVKey.DISPLAY_NAME));
+        assertFalse(list.hasKey(AVKey.DESCRIPTION));
+        assertEquals("other", copy.getValue(AVKey.DISPLAY_NAME));
+    }
+
+    /** Tests that property change listeners are notified. */
+    @Test
+    public void testPropertyChange()
+    {
+        final List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+        CompactAVListImpl list = new CompactAVListImpl();
+        list.addPropertyChangeListener(AVKey.LAYER, new PropertyChangeListener()
+        {
+            public void propertyChange(PropertyChangeEvent event)
+            {
+                events.add(event);
+            }
+        });
+
+        list.firePropertyChange(AVKey.LAYER, null, list);
+        list.firePropertyChange(AVKey.DISPLAY_NAME, null, list);
+
+        assertEquals(1, events.size());
+        assertSame(list, events.get(0).getSource());
+    }
+
+    /** Tests that concurrent writers do not lose each other's values. */
+    @Test
+    public void testConcurrentWrites() throws Exception
+    {
+        final AVList list = new CompactAVListImpl();
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++)
+        {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    for (int i = 0; i < 100; i++)
+                    {
+                        list.setValue("key" + thread + "." + i, i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(threads.length * 100, list.getEntries().size());
+    }
+}
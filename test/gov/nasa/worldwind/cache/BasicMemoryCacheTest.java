@@ -0,0 +1,77 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BasicMemoryCacheTest
+{
+    /** Tests that lookups are counted as hits or misses. */
+    @Test
+    public void testHitsAndMisses()
+    {
+        BasicMemoryCache cache = new BasicMemoryCache(50, 100);
+        cache.add("a", "A", 10);
+
+        assertEquals("Hit returned wrong object", "A", cache.getObject("a"));
+        assertEquals("Hit returned wrong object", "A", cache.getObject("a"));
+        assertNull("Miss returned an object", cache.getObject("b"));
+
+        assertEquals("Hit count incorrect", 2, cache.getHitCount());
+        assertEquals("Miss count incorrect", 1, cache.getMissCount());
+        assertEquals("Eviction count incorrect", 0, cache.getEvictionCount());
+    }
+
+    /** Tests that only removals made to free space are counted as evictions. */
+    @Test
+    public void testEvictions()
+    {
+        BasicMemoryCache cache = new BasicMemoryCache(50, 100);
+        for (int i = 0; i < 10; i++)
+        {
+            cache.add(i, "value" + i, 10);
+        }
+        cache.remove(0);
+        cache.add(1, "replaced", 10);
+        assertEquals("Explicit removal or replacement counted as eviction", 0, cache.getEvictionCount());
+
+        // The cache is at 90 of 100 units. Adding 20 more forces it down to its low water of 50.
+        cache.add("large", "large", 20);
+        assertEquals("Eviction count incorrect", 4, cache.getEvictionCount());
+        assertTrue("Cache above capacity", cache.getUsedCapacity() <= cache.getCapacity());
+
+        cache.clear();
+        assertEquals("Clear counted as evictions", 4, cache.getEvictionCount());
+    }
+}
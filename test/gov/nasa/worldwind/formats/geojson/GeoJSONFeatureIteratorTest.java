@@ -0,0 +1,187 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.SurfacePolygons;
+import gov.nasa.worldwind.util.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class GeoJSONFeatureIteratorTest
+{
+    protected static final String COLLECTION =
+        "{\"type\": \"FeatureCollection\", \"features\": ["
+            + "{\"type\": \"Feature\", \"id\": \"point\","
+            + " \"geometry\": {\"type\": \"Point\", \"coordinates\": [1.5, 2]},"
+            + " \"properties\": {\"name\": \"A\", \"count\": 3, \"tags\": [\"x\", true], \"nested\": {\"k\": null}}},"
+            + "{\"type\": \"Feature\", \"id\": 7, \"properties\": null,"
+            + " \"geometry\": {\"coordinates\": [[10, 20], [11, 21], [12, 22]], \"type\": \"LineString\"}},"
+            + "{\"type\": \"Feature\", \"geometry\": {\"type\": \"Polygon\", \"coordinates\": ["
+            + "[[0, 0], [0, 10], [10, 10], [10, 0], [0, 0]], [[2, 2], [4, 2], [4, 4], [2, 2]]]}},"
+            + "{\"type\": \"Feature\", \"geometry\": {\"type\": \"MultiPolygon\", \"coordinates\": ["
+            + "[[[40, 40], [41, 40], [41, 41], [40, 40]]],"
+            + "[[[50, 50, 5], [51, 50, 5], [51, 51, 5], [50, 50, 5]], [[50.2, 50.2], [50.4, 50.4], [50.2, 50.4],"
+            + " [50.2, 50.2]]]]}},"
+            + "{\"type\": \"Feature\", \"geometry\": null, \"properties\": {\"name\": \"unlocated\"}}"
+            + "], \"bbox\": [0, 0, 60, 60]}";
+
+    @Test
+    public void testFeatures()
+    {
+        List<GeoJSONPackedFeature> features = readAll(COLLECTION, null);
+        assertEquals("Feature count", 5, features.size());
+
+        GeoJSONPackedFeature point = features.get(0);
+        assertEquals("Point id", "point", point.getId());
+        assertEquals("Point type", GeoJSONConstants.TYPE_POINT, point.getGeometry().getType());
+        assertEquals("Point positions", 1, point.getGeometry().getPositionCount());
+        assertEquals("Point longitude", 1.5, point.getGeometry().getLongitude(0), 0);
+        assertEquals("Point latitude", 2, point.getGeometry().getLatitude(0), 0);
+        assertEquals("Point sector", Sector.fromDegrees(2, 2, 1.5, 1.5), point.getSector());
+
+        AVList properties = point.getProperties();
+        assertEquals("String property", "A", properties.getValue("name"));
+        assertEquals("Numeric property", 3d, properties.getValue("count"));
+        assertArrayEquals("Array property", new Object[] {"x", Boolean.TRUE}, (Object[]) properties.getValue("tags"));
+        assertTrue("Object property", ((AVList) properties.getValue("nested")).hasKey("k"));
+
+        // The geometry's coordinates precede its type.
+        GeoJSONPackedGeometry line = features.get(1).getGeometry();
+        assertEquals("Line id", 7d, features.get(1).getId());
+        assertNull("Line properties", features.get(1).getProperties());
+        assertTrue("Line type", line.isLineString());
+        assertEquals("Line parts", 1, line.getPartCount());
+        assertEquals("Line positions", 3, line.getPartLength(0));
+        assertArrayEquals("Line coordinates", new double[] {10, 20, 11, 21, 12, 22}, line.getCoords(), 0);
+
+        GeoJSONPackedGeometry polygon = features.get(2).getGeometry();
+        assertTrue("Polygon type", polygon.isPolygon());
+        assertEquals("Polygon rings", 2, polygon.getPartCount());
+        assertEquals("Hole start", 5, polygon.getPartStart(1));
+        assertEquals("Hole length", 4, polygon.getPartLength(1));
+        assertArrayEquals("Polygon ring groups", new int[] {0}, polygon.getPolygonRingGroups());
+
+        // One position has an altitude, so all positions of the geometry have one.
+        GeoJSONPackedGeometry multiPolygon = features.get(3).getGeometry();
+        assertEquals("Coordinates per position", 3, multiPolygon.getCoordsPerPosition());
+        assertEquals("Multi-polygon rings", 3, multiPolygon.getPartCount());
+        assertArrayEquals("Multi-polygon ring groups", new int[] {0, 1}, multiPolygon.getPolygonRingGroups());
+        assertEquals("Altitude", 0, multiPolygon.getAltitude(0), 0);
+        assertEquals("Altitude", 5, multiPolygon.getAltitude(4), 0);
+        assertEquals("Multi-polygon sector", Sector.fromDegrees(40, 51, 40, 51), multiPolygon.getSector());
+
+        assertNull("Unlocated geometry", features.get(4).getGeometry());
+        assertEquals("Unlocated properties", "unlocated", features.get(4).getProperties().getValue("name"));
+    }
+
+    @Test
+    public void testSectorFilter()
+    {
+        List<GeoJSONPackedFeature> features = readAll(COLLECTION, Sector.fromDegrees(35, 45, 35, 45));
+        assertEquals("Feature count", 1, features.size());
+        assertEquals("Feature type", GeoJSONConstants.TYPE_MULTI_POLYGON, features.get(0).getGeometry().getType());
+
+        // The feature's bbox rejects it before its geometry is read, even though the geometry would pass the filter.
+        String doc = "{\"type\": \"FeatureCollection\", \"features\": ["
+            + "{\"type\": \"Feature\", \"bbox\": [100, 10, 110, 20],"
+            + " \"geometry\": {\"type\": \"Point\", \"coordinates\": [0, 0]}},"
+            + "{\"type\": \"Feature\", \"bbox\": [-1, -1, 1, 1],"
+            + " \"geometry\": {\"type\": \"Point\", \"coordinates\": [0, 0]}}]}";
+        assertEquals("Bounding box filter", 1, readAll(doc, Sector.fromDegrees(-5, 5, -5, 5)).size());
+    }
+
+    @Test
+    public void testRootObjects()
+    {
+        List<GeoJSONPackedFeature> features = readAll("{\"type\": \"Feature\", \"properties\": {\"a\": \"b\"},"
+            + " \"geometry\": {\"type\": \"MultiPoint\", \"coordinates\": [[1, 2], [3, 4]]}}", null);
+        assertEquals("Feature count", 1, features.size());
+        assertEquals("Feature property", "b", features.get(0).getProperties().getValue("a"));
+        assertEquals("Feature positions", 2, features.get(0).getGeometry().getPositionCount());
+
+        features = readAll("{\"type\": \"GeometryCollection\", \"geometries\": ["
+            + "{\"type\": \"Point\", \"coordinates\": [1, 2]},"
+            + "{\"type\": \"MultiLineString\", \"coordinates\": [[[3, 4], [5, 6]], [[7, 8], [9, 10]]]}]}", null);
+        assertEquals("Geometry count", 1, features.size());
+        GeoJSONPackedGeometry collection = features.get(0).getGeometry();
+        assertTrue("Geometry collection", collection.isGeometryCollection());
+        assertEquals("Member count", 2, collection.getGeometries().size());
+        assertEquals("Member parts", 2, collection.getGeometries().get(1).getPartCount());
+        assertEquals("Collection sector", Sector.fromDegrees(2, 10, 1, 9), collection.getSector());
+    }
+
+    @Test
+    public void testSurfaceShapes()
+    {
+        GeoJSONSurfaceShapeBuilder builder = new GeoJSONSurfaceShapeBuilder();
+        for (GeoJSONPackedFeature feature : readAll(COLLECTION, null))
+        {
+            builder.addFeature(feature);
+        }
+
+        assertEquals("Polygon count", 3, builder.getPolygonCount());
+        assertEquals("Line count", 1, builder.getLineCount());
+        assertNotNull("Lines", builder.createSurfacePolylines());
+
+        SurfacePolygons polygons = builder.createSurfacePolygons();
+        assertArrayEquals("Ring groups", new int[] {0, 2, 3}, polygons.getPolygonRingGroups());
+        assertEquals("Winding rule", AVKey.COUNTER_CLOCKWISE, polygons.getWindingRule());
+
+        // The clockwise outer boundary of the first polygon is reversed, and its counter-clockwise hole is reversed.
+        assertEquals("Outer boundary", AVKey.COUNTER_CLOCKWISE, windingOrder(polygons, 0));
+        assertEquals("Hole", AVKey.CLOCKWISE, windingOrder(polygons, 1));
+        assertEquals("Outer boundary", AVKey.COUNTER_CLOCKWISE, windingOrder(polygons, 2));
+        assertEquals("Hole", AVKey.CLOCKWISE, windingOrder(polygons, 4));
+    }
+
+    protected static String windingOrder(SurfacePolygons polygons, int ring)
+    {
+        return WWMath.computeWindingOrderOfLocations(
+            polygons.getBuffer().subBuffer(ring).getLocations());
+    }
+
+    protected static List<GeoJSONPackedFeature> readAll(String doc, Sector sector)
+    {
+        List<GeoJSONPackedFeature> features = new ArrayList<GeoJSONPackedFeature>();
+        GeoJSONFeatureIterator iterator = new GeoJSONFeatureIterator(WWIO.getInputStreamFromString(doc), sector);
+        while (iterator.hasNext())
+        {
+            features.add(iterator.next());
+        }
+
+        return features;
+    }
+}
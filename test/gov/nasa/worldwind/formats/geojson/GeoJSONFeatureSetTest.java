@@ -0,0 +1,211 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class GeoJSONFeatureSetTest
+{
+    protected static final String POINT_A = feature("\"a\"", "{\"type\": \"Point\", \"coordinates\": [1, 2]}",
+        "{\"name\": \"A\"}");
+    protected static final String POINT_A_MOVED = feature("\"a\"", "{\"type\": \"Point\", \"coordinates\": [3, 4]}",
+        "{\"name\": \"A\"}");
+    protected static final String POINT_A_RENAMED = feature("\"a\"", "{\"type\": \"Point\", \"coordinates\": [1, 2]}",
+        "{\"name\": \"A2\"}");
+    protected static final String LINE_B = feature("\"b\"",
+        "{\"type\": \"LineString\", \"coordinates\": [[10, 20], [11, 21]]}", "{\"tags\": [1, {\"k\": \"v\"}]}");
+    protected static final String LINE_B_AS_POLYGON = feature("\"b\"",
+        "{\"type\": \"Polygon\", \"coordinates\": [[[10, 20], [11, 21], [10, 21], [10, 20]]]}",
+        "{\"tags\": [1, {\"k\": \"v\"}]}");
+    protected static final String POLYGON_C = feature("3",
+        "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [0, 10], [10, 10], [10, 0], [0, 0]]]}", "null");
+    protected static final String POLYGON_C_WITH_HOLE = feature("3",
+        "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [0, 10], [10, 10], [10, 0], [0, 0]],"
+            + " [[2, 2], [4, 2], [4, 4], [2, 2]]]}", "null");
+    protected static final String UNIDENTIFIED = feature(null, "{\"type\": \"Point\", \"coordinates\": [5, 6]}",
+        "{\"name\": \"U\"}");
+    protected static final String UNIDENTIFIED_RENAMED = feature(null,
+        "{\"type\": \"Point\", \"coordinates\": [5, 6]}", "{\"name\": \"U2\"}");
+
+    @Test
+    public void testDiff()
+    {
+        GeoJSONFeatureDiff first = diff(Collections.<Object, GeoJSONPackedFeature>emptyMap(),
+            collection(POINT_A, LINE_B, POLYGON_C));
+        assertEquals("Initial additions", Arrays.<Object>asList("a", "b", 3d), first.getAddedKeys());
+        assertTrue("Initial removals", first.getRemovedKeys().isEmpty());
+
+        GeoJSONFeatureDiff unchanged = diff(first.getFeatures(), collection(POINT_A, LINE_B, POLYGON_C));
+        assertTrue("Unchanged", unchanged.isEmpty());
+
+        GeoJSONFeatureDiff diff = diff(first.getFeatures(),
+            collection(POINT_A_MOVED, POLYGON_C_WITH_HOLE, UNIDENTIFIED));
+        assertEquals("Removals", Arrays.<Object>asList("b"), diff.getRemovedKeys());
+        assertEquals("Geometry changes", Arrays.<Object>asList("a", 3d), diff.getGeometryChangedKeys());
+        assertTrue("Properties changes", diff.getPropertiesChangedKeys().isEmpty());
+        assertEquals("Additions", 1, diff.getAddedKeys().size());
+        assertEquals("Feature count", 3, diff.getFeatures().size());
+
+        // A feature without an identifier is matched by its geometry.
+        GeoJSONFeatureDiff renamed = diff(diff.getFeatures(),
+            collection(POINT_A_RENAMED, POLYGON_C_WITH_HOLE, UNIDENTIFIED_RENAMED));
+        assertEquals("Renamed geometry changes", Arrays.<Object>asList("a"), renamed.getGeometryChangedKeys());
+        assertEquals("Renamed properties changes", 2, renamed.getPropertiesChangedKeys().size());
+        assertTrue("Renamed additions", renamed.getAddedKeys().isEmpty());
+        assertTrue("Renamed removals", renamed.getRemovedKeys().isEmpty());
+    }
+
+    @Test
+    public void testRepeatedIdentifiers()
+    {
+        GeoJSONFeatureDiff first = diff(Collections.<Object, GeoJSONPackedFeature>emptyMap(),
+            collection(POINT_A, POINT_A_MOVED));
+        assertEquals("Keys", Arrays.<Object>asList("a", Arrays.<Object>asList("a", 1)), first.getAddedKeys());
+
+        GeoJSONFeatureDiff second = diff(first.getFeatures(), collection(POINT_A_MOVED));
+        assertEquals("Geometry changes", Arrays.<Object>asList("a"), second.getGeometryChangedKeys());
+        assertEquals("Removals", Arrays.<Object>asList(Arrays.<Object>asList("a", 1)), second.getRemovedKeys());
+    }
+
+    @Test
+    public void testPropertiesEqual()
+    {
+        AVList a = new AVListImpl();
+        a.setValue("tags", new Object[] {1d, "x", new Object[] {true}});
+        AVList b = new AVListImpl();
+        b.setValue("tags", new Object[] {1d, "x", new Object[] {true}});
+        assertTrue("Equal arrays", GeoJSONFeatureDiff.propertiesEqual(a, b));
+
+        b.setValue("name", null);
+        assertFalse("Additional key", GeoJSONFeatureDiff.propertiesEqual(a, b));
+        assertFalse("Null properties", GeoJSONFeatureDiff.propertiesEqual(a, null));
+    }
+
+    @Test
+    public void testUpdateKeepsUnchangedShapes()
+    {
+        GeoJSONFeatureSet set = new GeoJSONFeatureSet();
+        set.update(stream(collection(POINT_A, LINE_B, POLYGON_C)));
+        List<Renderable> line = set.getRenderables("b");
+        List<Renderable> polygon = set.getRenderables(3d);
+        assertEquals("Line shapes", 1, line.size());
+        assertTrue("Line shape", line.get(0) instanceof SurfacePolyline);
+
+        GeoJSONFeatureDiff diff = set.update(stream(collection(POINT_A_RENAMED, LINE_B, POLYGON_C)));
+        assertEquals("Properties changes", Arrays.<Object>asList("a"), diff.getPropertiesChangedKeys());
+        assertSame("Unchanged line", line.get(0), set.getRenderables("b").get(0));
+        assertSame("Unchanged polygon", polygon.get(0), set.getRenderables(3d).get(0));
+
+        AVList properties = (AVList) ((AVList) set.getRenderables("a").get(0)).getValue(AVKey.PROPERTIES);
+        assertEquals("Updated properties", "A2", properties.getValue("name"));
+
+        set.update(stream(collection(LINE_B)));
+        assertNull("Removed point", set.getRenderables("a"));
+        assertNull("Removed polygon", set.getRenderables(3d));
+        assertEquals("Feature count", 1, set.getFeatures().size());
+    }
+
+    @Test
+    public void testGeometryChanges()
+    {
+        GeoJSONFeatureSet set = new GeoJSONFeatureSet();
+        set.update(stream(collection(POINT_A, LINE_B, POLYGON_C)));
+        PointPlacemark point = (PointPlacemark) set.getRenderables("a").get(0);
+        SurfacePolygon polygon = (SurfacePolygon) set.getRenderables(3d).get(0);
+        Renderable line = set.getRenderables("b").get(0);
+
+        set.update(stream(collection(POINT_A_MOVED, LINE_B_AS_POLYGON, POLYGON_C_WITH_HOLE)));
+
+        // Shapes of the same kind are given the new positions.
+        assertSame("Moved point", point, set.getRenderables("a").get(0));
+        assertEquals("Point position", Position.fromDegrees(4, 3), point.getPosition());
+        assertSame("Polygon with hole", polygon, set.getRenderables(3d).get(0));
+        assertEquals("Polygon boundaries", 2, polygon.getBoundaries().size());
+
+        // A shape of another kind is replaced.
+        Renderable replaced = set.getRenderables("b").get(0);
+        assertNotSame("Line replaced", line, replaced);
+        assertTrue("Polygon shape", replaced instanceof SurfacePolygon);
+        assertNotNull("Replaced properties", ((AVList) replaced).getValue(AVKey.PROPERTIES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStaleDiff()
+    {
+        GeoJSONFeatureSet set = new GeoJSONFeatureSet();
+        GeoJSONFeatureDiff stale = set.computeDiff(stream(collection(POINT_A)));
+        set.update(stream(collection(LINE_B)));
+        set.applyDiff(stale);
+    }
+
+    protected static String feature(String id, String geometry, String properties)
+    {
+        return "{\"type\": \"Feature\"" + (id != null ? ", \"id\": " + id : "") + ", \"geometry\": " + geometry
+            + ", \"properties\": " + properties + "}";
+    }
+
+    protected static String collection(String... features)
+    {
+        StringBuilder sb = new StringBuilder("{\"type\": \"FeatureCollection\", \"features\": [");
+        for (int i = 0; i < features.length; i++)
+        {
+            sb.append(i > 0 ? ", " : "").append(features[i]);
+        }
+        return sb.append("]}").toString();
+    }
+
+    protected static Object stream(String doc)
+    {
+        return WWIO.getInputStreamFromString(doc);
+    }
+
+    protected static GeoJSONFeatureDiff diff(Map<Object, GeoJSONPackedFeature> previous, String doc)
+    {
+        GeoJSONFeatureIterator iterator = new GeoJSONFeatureIterator(stream(doc), null);
+        try
+        {
+            return new GeoJSONFeatureDiff(previous, iterator);
+        }
+        finally
+        {
+            iterator.close();
+        }
+    }
+}
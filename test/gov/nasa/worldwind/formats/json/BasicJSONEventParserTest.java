@@ -0,0 +1,81 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.json;
+
+import gov.nasa.worldwind.avlist.AVList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BasicJSONEventParserTest
+{
+    /** Tests that an empty array is parsed as an empty array rather than as null. */
+    @Test
+    public void testEmptyArray() throws IOException
+    {
+        AVList root = parse("{\"a\": []}");
+
+        Object a = root.getValue("a");
+        assertTrue("Empty array type", a instanceof Object[]);
+        assertEquals("Empty array length", 0, ((Object[]) a).length);
+    }
+
+    /** Tests that an empty array nested in a non-empty array is parsed as an empty array. */
+    @Test
+    public void testNestedEmptyArray() throws IOException
+    {
+        AVList root = parse("{\"b\": [1, []]}");
+
+        Object[] b = (Object[]) root.getValue("b");
+        assertEquals("Array length", 2, b.length);
+        assertEquals("Scalar entry", 1d, ((Number) b[0]).doubleValue(), 0);
+        assertTrue("Empty array type", b[1] instanceof Object[]);
+        assertEquals("Empty array length", 0, ((Object[]) b[1]).length);
+    }
+
+    protected static AVList parse(String json) throws IOException
+    {
+        JSONDoc doc = new JSONDoc(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        try
+        {
+            doc.parse();
+            return (AVList) doc.getRootObject();
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+}
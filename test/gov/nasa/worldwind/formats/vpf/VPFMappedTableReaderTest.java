@@ -0,0 +1,314 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.util.VecBuffer;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VPFMappedTableReaderTest
+{
+    protected File dir;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.dir = Files.createTempDirectory("VPFMappedTableReaderTest").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        File[] files = this.dir.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        this.dir.delete();
+    }
+
+    /** Tests an edge table whose only variable-length column, its coordinates, is the last column. */
+    @Test
+    public void testEdgeTable() throws IOException
+    {
+        File table = new File(this.dir, "edg");
+        writeEdgeTable(table, new File(this.dir, "edx"), 500);
+
+        assertReadersMatch(table, 500);
+    }
+
+    /** Tests a table whose variable-length text and coordinate columns precede fixed-length columns. */
+    @Test
+    public void testVariableLengthColumnBeforeFixedLengthColumns() throws IOException
+    {
+        File table = new File(this.dir, "road.lft");
+        writeMixedTable(table, new File(this.dir, "road.lfx"), 300);
+
+        assertReadersMatch(table, 300);
+    }
+
+    /** Tests a table of fixed-length columns, whose record index is computed from its header. */
+    @Test
+    public void testFixedLengthTable() throws IOException
+    {
+        File table = new File(this.dir, "fix.tab");
+        writeFixedTable(table, 200);
+
+        assertReadersMatch(table, 200);
+    }
+
+    protected static void assertReadersMatch(File table, int numRecords)
+    {
+        VPFBufferedRecordData expected = new VPFTableReader().read(table);
+        VPFBufferedRecordData actual = new VPFMappedTableReader().read(table);
+
+        assertEquals("Number of records", numRecords, expected.getNumRecords());
+        assertEquals("Number of records", expected.getNumRecords(), actual.getNumRecords());
+
+        int numColumns = 0;
+        for (String name : expected.getRecordParameterNames())
+        {
+            numColumns++;
+            VPFDataBuffer expectedColumn = expected.getRecordData(name);
+            VPFDataBuffer actualColumn = actual.getRecordData(name);
+            assertNotNull("Column " + name, actualColumn);
+            for (int id = 1; id <= expected.getNumRecords(); id++)
+            {
+                assertValueEquals(name + " " + id, expectedColumn.get(id), actualColumn.get(id));
+            }
+        }
+
+        int numActualColumns = 0;
+        for (String ignored : actual.getRecordParameterNames())
+        {
+            numActualColumns++;
+        }
+        assertEquals("Number of columns", numColumns, numActualColumns);
+
+        for (int id = 1; id <= expected.getNumRecords(); id++)
+        {
+            VPFRecord expectedRecord = expected.getRecord(id);
+            VPFRecord actualRecord = actual.getRecord(VPFConstants.ID, id);
+            assertNotNull("Record " + id, actualRecord);
+            assertEquals("Record " + id, expectedRecord.getId(), actualRecord.getId());
+            for (String name : expected.getRecordParameterNames())
+            {
+                assertValueEquals(name + " " + id, expectedRecord.getValue(name), actualRecord.getValue(name));
+            }
+        }
+    }
+
+    protected static void assertValueEquals(String message, Object expected, Object actual)
+    {
+        if (expected instanceof VPFTripletId)
+        {
+            assertTrue(message, actual instanceof VPFTripletId);
+            VPFTripletId a = (VPFTripletId) expected;
+            VPFTripletId b = (VPFTripletId) actual;
+            assertEquals(message, a.getId(), b.getId());
+            assertEquals(message, a.getTileId(), b.getTileId());
+            assertEquals(message, a.getExtId(), b.getExtId());
+        }
+        else if (expected instanceof VecBuffer)
+        {
+            assertTrue(message, actual instanceof VecBuffer);
+            VecBuffer a = (VecBuffer) expected;
+            VecBuffer b = (VecBuffer) actual;
+            assertEquals(message, a.getCoordsPerVec(), b.getCoordsPerVec());
+            assertEquals(message, a.getSize(), b.getSize());
+
+            double[] ca = new double[a.getCoordsPerVec()];
+            double[] cb = new double[b.getCoordsPerVec()];
+            for (int i = 0; i < a.getSize(); i++)
+            {
+                a.get(i, ca);
+                b.get(i, cb);
+                assertArrayEquals(message + " vector " + i, ca, cb, 0);
+            }
+        }
+        else
+        {
+            assertEquals(message, expected, actual);
+        }
+    }
+
+    protected static void writeEdgeTable(File tableFile, File indexFile, int numRecords) throws IOException
+    {
+        String header = "L;Synthetic Edge Primitive Table;-;"
+            + "id=I,1,P,Row Identifier,-,-,:"
+            + "start_node=I,1,N,Start Node,-,-,:"
+            + "end_node=I,1,N,End Node,-,-,:"
+            + "right_face=K,1,N,Right Face,-,-,:"
+            + "left_face=K,1,N,Left Face,-,-,:"
+            + "coordinates=C,*,N,Coordinates,-,-,:;";
+        byte[] headerBytes = header.getBytes("US-ASCII");
+
+        ByteBuffer body = newBuffer(4 + headerBytes.length + numRecords * (4 * 3 + 2 * 5 + 4 + 17 * 8));
+        body.putInt(headerBytes.length).put(headerBytes);
+        ByteBuffer index = newIndex(numRecords, headerBytes.length);
+
+        for (int id = 1; id <= numRecords; id++)
+        {
+            int offset = body.position();
+            body.putInt(id).putInt(id).putInt(id + 1);
+            // Triplet ids with a one byte id and no tile or external id.
+            body.put((byte) 0x40).put((byte) (id % 100));
+            body.put((byte) 0x40).put((byte) ((id + 1) % 100));
+
+            int numCoords = 2 + id % 16;
+            body.putInt(numCoords);
+            for (int i = 0; i < numCoords; i++)
+            {
+                body.putFloat(-105f + id * 1e-4f + i * 1e-5f).putFloat(40f + i * 1e-5f);
+            }
+
+            index.putInt(offset).putInt(body.position() - offset);
+        }
+
+        write(tableFile, body);
+        write(indexFile, index);
+    }
+
+    protected static void writeMixedTable(File tableFile, File indexFile, int numRecords) throws IOException
+    {
+        String header = "L;Synthetic Line Feature Table;-;"
+            + "id=I,1,P,Row Identifier,-,-,:"
+            + "name=T,*,N,Name,-,-,:"
+            + "elevation=R,1,N,Elevation,-,-,:"
+            + "code=S,1,N,Code,-,-,:"
+            + "location=Y,*,N,Location,-,-,:"
+            + "label=T,4,N,Label,-,-,:"
+            + "width=F,1,N,Width,-,-,:"
+            + "face=K,1,N,Face,-,-,:;";
+        byte[] headerBytes = header.getBytes("US-ASCII");
+
+        int maxRecordLength = 4 + 4 + 15 + 8 + 2 + 4 + 4 * 24 + 4 + 4 + 5;
+        ByteBuffer body = newBuffer(4 + headerBytes.length + numRecords * maxRecordLength);
+        body.putInt(headerBytes.length).put(headerBytes);
+        ByteBuffer index = newIndex(numRecords, headerBytes.length);
+
+        for (int id = 1; id <= numRecords; id++)
+        {
+            int offset = body.position();
+            body.putInt(id);
+
+            // Names between 0 and 15 characters long.
+            byte[] name = "Road 1234567890".substring(0, id % 16).getBytes("US-ASCII");
+            body.putInt(name.length).put(name);
+            body.putDouble(100.5 * id);
+            body.putShort((short) (id % 7));
+
+            // Between 0 and 4 three dimensional locations.
+            int numLocations = id % 5;
+            body.putInt(numLocations);
+            for (int i = 0; i < numLocations; i++)
+            {
+                body.putDouble(-105 + id * 1e-6 + i * 1e-7).putDouble(40 + i * 1e-7).putDouble(1000 + i);
+            }
+
+            body.put(String.format("L%03d", id % 1000).getBytes("US-ASCII"));
+            body.putFloat(id * 0.25f);
+
+            // Triplet ids with a one byte id, a one byte tile id and a two byte external id.
+            body.put((byte) 0x58).put((byte) (id % 100)).put((byte) (id % 10)).putShort((short) (id * 3));
+
+            index.putInt(offset).putInt(body.position() - offset);
+        }
+
+        write(tableFile, body);
+        write(indexFile, index);
+    }
+
+    protected static void writeFixedTable(File tableFile, int numRecords) throws IOException
+    {
+        String header = "L;Synthetic Fixed Length Table;-;"
+            + "id=I,1,P,Row Identifier,-,-,:"
+            + "value=R,1,N,Value,-,-,:"
+            + "name=T,8,N,Name,-,-,:"
+            + "code=S,1,N,Code,-,-,:;";
+        byte[] headerBytes = header.getBytes("US-ASCII");
+
+        ByteBuffer body = newBuffer(4 + headerBytes.length + numRecords * (4 + 8 + 8 + 2));
+        body.putInt(headerBytes.length).put(headerBytes);
+
+        for (int id = 1; id <= numRecords; id++)
+        {
+            body.putInt(id).putDouble(id * 0.5);
+            body.put(String.format("n%-7d", id).getBytes("US-ASCII"));
+            body.putShort((short) -id);
+        }
+
+        write(tableFile, body);
+    }
+
+    protected static ByteBuffer newBuffer(int capacity)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    protected static ByteBuffer newIndex(int numRecords, int headerLength)
+    {
+        ByteBuffer index = newBuffer(8 + numRecords * 8);
+        index.putInt(numRecords).putInt(4 + headerLength);
+        return index;
+    }
+
+    protected static void write(File file, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+
+        FileOutputStream stream = new FileOutputStream(file);
+        try
+        {
+            FileChannel channel = stream.getChannel();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.collada.impl;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.ogc.collada.*;
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ColladaMeshBuffersTest
+{
+    protected static final String CUBE_PATH = "testData/collada/cube_triangulate.dae";
+
+    /** Two lines elements in one mesh. The second geometry's vertices start after the first geometry's. */
+    protected static final String LINES_DOC =
+        "<COLLADA>"
+            + "<library_geometries>"
+            + "<geometry id=\"lines\"><mesh>"
+            + "<source id=\"positions\">"
+            + "<float_array id=\"values\" count=\"12\">0 0 0 1 0 0 0 1 0 0 0 1</float_array>"
+            + "<technique_common>"
+            + "<accessor source=\"#values\" count=\"4\" stride=\"3\">"
+            + "<param name=\"X\" type=\"float\"/><param name=\"Y\" type=\"float\"/><param name=\"Z\" type=\"float\"/>"
+            + "</accessor>"
+            + "</technique_common>"
+            + "</source>"
+            + "<vertices id=\"vertices\"><input semantic=\"POSITION\" source=\"#positions\"/></vertices>"
+            + "<lines count=\"1\"><input offset=\"0\" semantic=\"VERTEX\" source=\"#vertices\"/><p>0 1</p></lines>"
+            + "<lines count=\"2\"><input offset=\"0\" semantic=\"VERTEX\" source=\"#vertices\"/><p>0 2 0 3</p></lines>"
+            + "</mesh></geometry>"
+            + "</library_geometries>"
+            + "<library_visual_scenes>"
+            + "<visual_scene id=\"scene\">"
+            + "<node><instance_geometry url=\"#lines\"/></node>"
+            + "<node><instance_geometry url=\"#lines\"/></node>"
+            + "</visual_scene>"
+            + "</library_visual_scenes>"
+            + "<scene><instance_visual_scene url=\"#scene\"/></scene>"
+            + "</COLLADA>";
+
+    @Test
+    public void testInstancesShareVertexData() throws Exception
+    {
+        ColladaModelInstances model = new ColladaModelInstances(ColladaRoot.createAndParse(new File(CUBE_PATH)));
+        ColladaModelInstances.Instance a = model.addInstance(Position.fromDegrees(10, 20));
+        ColladaModelInstances.Instance b = model.addInstance(Position.fromDegrees(30, 40));
+
+        List<ColladaTraversalContext.ShapePlacement> parts = model.getParts();
+        assertEquals("Part count", 1, parts.size());
+        assertEquals("Shape count", 1, a.shapes.length);
+
+        ColladaMeshBuffers buffers = parts.get(0).getShape().getMeshBuffers();
+        assertNotSame("Instance shape", a.shapes[0], b.shapes[0]);
+        assertSame("Vertex data of first instance", buffers, a.shapes[0].getMeshBuffers());
+        assertSame("Vertex data of second instance", buffers, b.shapes[0].getMeshBuffers());
+        assertEquals("Shared size", buffers.getSizeInBytes(), model.getGeometrySizeInBytes());
+    }
+
+    @Test
+    public void testSameFileSharesVertexData() throws Exception
+    {
+        ColladaModelInstances first = new ColladaModelInstances(ColladaRoot.createAndParse(new File(CUBE_PATH)));
+        ColladaModelInstances second = new ColladaModelInstances(ColladaRoot.createAndParse(new File(CUBE_PATH)));
+
+        assertSame("Vertex data", first.getParts().get(0).getShape().getMeshBuffers(),
+            second.getParts().get(0).getShape().getMeshBuffers());
+    }
+
+    @Test
+    public void testVertexData() throws Exception
+    {
+        ColladaRoot root = ColladaRoot.createAndParse(new File(CUBE_PATH));
+        ColladaModelInstances model = new ColladaModelInstances(root);
+        ColladaMeshBuffers buffers = model.getParts().get(0).getShape().getMeshBuffers();
+
+        ColladaTriangles triangles = ((ColladaGeometry) root.resolveReference("#box-lib")).getMesh()
+            .getTriangles().get(0);
+        int floatCount = triangles.getCount() * 3 * ColladaAbstractGeometry.COORDS_PER_VERTEX;
+
+        FloatBuffer expected = FloatBuffer.allocate(floatCount);
+        triangles.getVertices(expected);
+        FloatBuffer actual = buffers.getCoordBuffer();
+        actual.limit(floatCount);
+        expected.rewind();
+        assertEquals("Vertices", expected, actual);
+
+        expected.clear();
+        triangles.getNormals(expected);
+        actual.limit(buffers.getNormalBufferPosition() + floatCount).position(buffers.getNormalBufferPosition());
+        expected.rewind();
+        assertEquals("Normals", expected, actual);
+
+        assertEquals("Texture coordinates", -1, buffers.getTexCoordBufferPosition());
+        assertEquals("Bounding box center", 0, buffers.getLocalBoundingBox().getCenter().getLength3(), 1e-9);
+    }
+
+    @Test
+    public void testLineOffsets() throws Exception
+    {
+        ColladaRoot root = ColladaRoot.createAndParse(WWIO.getInputStreamFromString(LINES_DOC));
+        ColladaModelInstances model = new ColladaModelInstances(root);
+
+        // Both nodes reference the same geometry, so they share its vertex data.
+        List<ColladaTraversalContext.ShapePlacement> parts = model.getParts();
+        assertEquals("Part count", 2, parts.size());
+        ColladaMeshBuffers buffers = parts.get(0).getShape().getMeshBuffers();
+        assertSame("Vertex data", buffers, parts.get(1).getShape().getMeshBuffers());
+
+        assertEquals("First offset", 0, buffers.getOffset(0));
+        assertEquals("Second offset", 2, buffers.getOffset(1));
+        assertEquals("Normals", -1, buffers.getNormalBufferPosition());
+
+        FloatBuffer coords = buffers.getCoordBuffer();
+        assertEquals("Vertex count", 6 * ColladaAbstractGeometry.COORDS_PER_VERTEX, coords.capacity());
+        assertEquals("Fourth vertex", 0f, coords.get(9), 0);
+        assertEquals("Fourth vertex", 1f, coords.get(10), 0);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.util.WWXML;
+import gov.nasa.worldwind.util.xml.AbstractXMLEventParser;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.xml.stream.*;
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that documents parsed through the cursor-based event reader produce the same object trees as documents parsed
+ * through the platform's event reader.
+ */
+@RunWith(JUnit4.class)
+public class KMLCursorParsingTest
+{
+    /** A KML root that reads its document with the platform's event reader. */
+    protected static class EventReaderKMLRoot extends KMLRoot
+    {
+        public EventReaderKMLRoot(File docSource, boolean namespaceAware) throws IOException
+        {
+            super(docSource, namespaceAware);
+        }
+
+        @Override
+        protected XMLEventReader createReader(Object docSource, boolean namespaceAware)
+        {
+            return WWXML.openEventReader(docSource, namespaceAware);
+        }
+    }
+
+    @Test
+    public void testTestDataDocuments() throws Exception
+    {
+        List<File> files = new ArrayList<File>();
+        this.findDocuments(new File("testData/KML"), files);
+        assertFalse("No KML documents found", files.isEmpty());
+
+        for (File file : files)
+        {
+            KMLRoot expected = this.parse(file, false);
+            KMLRoot actual = this.parse(file, true);
+
+            if (expected == null)
+            {
+                assertNull("Cursor parse succeeded for " + file, actual);
+                continue;
+            }
+
+            assertNotNull("Cursor parse failed for " + file, actual);
+            assertTreesEqual(file.getPath(), expected.getFields(), actual.getFields(),
+                new IdentityHashMap<Object, Object>());
+        }
+    }
+
+    @Test
+    public void testMixedContent() throws Exception
+    {
+        String kml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!-- comment -->\n"
+            + "<kml xmlns=\"http://www.opengis.net/kml/2.2\" xmlns:gx=\"http://www.google.com/kml/ext/2.2\">\n"
+            + "  <Document id=\"doc\">\n"
+            + "    <name>Fish &amp; Chips</name>\n"
+            + "    <description><![CDATA[<b>bold</b>]]> and text</description>\n"
+            + "    <?pi data?>\n"
+            + "    <Placemark targetId=\"t\" id=\"p\">\n"
+            + "      <Point><coordinates>\n  -122.0,37.0,0\n  </coordinates></Point>\n"
+            + "      <gx:balloonVisibility>1</gx:balloonVisibility>\n"
+            + "      <unknownElement a=\"b\"><nested>x</nested></unknownElement>\n"
+            + "    </Placemark>\n"
+            + "  </Document>\n"
+            + "</kml>\n";
+
+        File file = File.createTempFile("KMLCursorParsingTest", ".kml");
+        try
+        {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try
+            {
+                writer.write(kml);
+            }
+            finally
+            {
+                writer.close();
+            }
+
+            KMLRoot expected = this.parse(file, false);
+            KMLRoot actual = this.parse(file, true);
+
+            KMLDocument document = (KMLDocument) actual.getFeature();
+            assertEquals("Incorrect name", "Fish & Chips", document.getName());
+            assertEquals("Incorrect description", "<b>bold</b> and text", document.getDescription());
+            assertTreesEqual(file.getPath(), expected.getFields(), actual.getFields(),
+                new IdentityHashMap<Object, Object>());
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    protected void findDocuments(File dir, List<File> files)
+    {
+        File[] children = dir.listFiles();
+        if (children == null)
+            return;
+
+        Arrays.sort(children);
+        for (File child : children)
+        {
+            String name = child.getName().toLowerCase();
+            if (child.isDirectory())
+                this.findDocuments(child, files);
+            else if (name.endsWith(".kml") || name.endsWith(".kmz"))
+                files.add(child);
+        }
+    }
+
+    /**
+     * Parses a document the way {@link KMLRoot#createAndParse(Object)} does, retrying without namespace awareness if
+     * the namespace-aware parse fails.
+     *
+     * @param file   the document to parse.
+     * @param cursor true to read the document with the cursor-based event reader, false to read it with the
+     *               platform's event reader.
+     *
+     * @return the parsed root, or null if the document could not be parsed.
+     *
+     * @throws IOException if the document cannot be read.
+     */
+    protected KMLRoot parse(File file, boolean cursor) throws IOException
+    {
+        try
+        {
+            return this.createRoot(file, cursor, true).parse();
+        }
+        catch (XMLStreamException e)
+        {
+            try
+            {
+                return this.createRoot(file, cursor, false).parse();
+            }
+            catch (XMLStreamException e1)
+            {
+                return null;
+            }
+        }
+    }
+
+    protected KMLRoot createRoot(File file, boolean cursor, boolean namespaceAware) throws IOException
+    {
+        return cursor ? new KMLRoot(file, namespaceAware) : new EventReaderKMLRoot(file, namespaceAware);
+    }
+
+    /**
+     * Asserts that two object graphs are structurally equal. Objects whose classes override equals are compared with
+     * equals, collections, maps and arrays are compared element by element, and World Wind objects are compared field
+     * by field. Parser parent references and the state a KML root holds for its event reader are ignored.
+     *
+     * @param path    a description of the location of the objects in the graph, for failure messages.
+     * @param a       the expected object.
+     * @param b       the actual object.
+     * @param visited the expected objects already compared, used to terminate cycles.
+     *
+     * @throws Exception if a field cannot be read.
+     */
+    protected static void assertTreesEqual(String path, Object a, Object b, Map<Object, Object> visited)
+        throws Exception
+    {
+        if (a == b)
+            return;
+
+        assertNotNull("Unexpected value at " + path, a);
+        assertNotNull("Missing value at " + path, b);
+        assertEquals("Different types at " + path, a.getClass(), b.getClass());
+
+        if (visited.containsKey(a))
+            return;
+        visited.put(a, b);
+
+        if (a instanceof Map)
+        {
+            Map<?, ?> ma = (Map<?, ?>) a;
+            Map<?, ?> mb = (Map<?, ?>) b;
+            assertEquals("Different keys at " + path, ma.keySet(), mb.keySet());
+            for (Map.Entry<?, ?> entry : ma.entrySet())
+            {
+                assertTreesEqual(path + "[" + entry.getKey() + "]", entry.getValue(), mb.get(entry.getKey()),
+                    visited);
+            }
+        }
+        else if (a instanceof Collection)
+        {
+            Collection<?> ca = (Collection<?>) a;
+            Collection<?> cb = (Collection<?>) b;
+            assertEquals("Different sizes at " + path, ca.size(), cb.size());
+            Iterator<?> ib = cb.iterator();
+            int i = 0;
+            for (Object o : ca)
+            {
+                assertTreesEqual(path + "[" + i++ + "]", o, ib.next(), visited);
+            }
+        }
+        else if (a.getClass().isArray())
+        {
+            assertEquals("Different lengths at " + path, Array.getLength(a), Array.getLength(b));
+            for (int i = 0; i < Array.getLength(a); i++)
+            {
+                assertTreesEqual(path + "[" + i + "]", Array.get(a, i), Array.get(b, i), visited);
+            }
+        }
+        else if (a.getClass().getMethod("equals", Object.class).getDeclaringClass() != Object.class)
+        {
+            assertEquals("Different values at " + path, a, b);
+        }
+        else if (a.getClass().getName().startsWith("gov.nasa.worldwind."))
+        {
+            for (Class<?> c = a.getClass(); c != null && c != Object.class; c = c.getSuperclass())
+            {
+                if (KMLRoot.class.isAssignableFrom(c))
+                    continue;
+
+                for (Field field : c.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+                    if (c == AbstractXMLEventParser.class && field.getName().equals("parent"))
+                        continue;
+
+                    field.setAccessible(true);
+                    assertTreesEqual(path + "." + field.getName(), field.get(a), field.get(b), visited);
+                }
+            }
+        }
+    }
+}
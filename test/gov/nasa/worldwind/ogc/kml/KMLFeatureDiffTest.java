@@ -0,0 +1,162 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.event.Message;
+import gov.nasa.worldwind.ogc.kml.impl.*;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KMLFeatureDiffTest
+{
+    protected static final String STYLE = "<Style id=\"s\"><LineStyle><color>ff0000ff</color></LineStyle></Style>";
+    protected static final String RESTYLED = "<Style id=\"s\"><LineStyle><color>ff00ff00</color></LineStyle></Style>";
+    protected static final String P1 = "<Placemark id=\"p1\"><name>One</name><styleUrl>#s</styleUrl>"
+        + "<Point><coordinates>1,2</coordinates></Point></Placemark>";
+    protected static final String P1_RENAMED = "<Placemark id=\"p1\"><name>Uno</name><styleUrl>#s</styleUrl>"
+        + "<Point><coordinates>1,2</coordinates></Point></Placemark>";
+    protected static final String P2 = "<Placemark id=\"p2\"><styleUrl>#s</styleUrl>"
+        + "<LineString><coordinates>10,20 11,21</coordinates></LineString></Placemark>";
+    protected static final String P2_MOVED = "<Placemark id=\"p2\"><styleUrl>#s</styleUrl>"
+        + "<LineString><coordinates>10,20 12,22</coordinates></LineString></Placemark>";
+    protected static final String P3 = "<Placemark id=\"p3\"><Point><coordinates>3,4</coordinates></Point></Placemark>";
+    protected static final String P4 = "<Placemark id=\"p4\"><Point><coordinates>5,6</coordinates></Point></Placemark>";
+    protected static final String FOLDER = "<Folder id=\"f\">" + P3 + "</Folder>";
+
+    @Test
+    public void testUnchanged() throws Exception
+    {
+        KMLRoot root = parse(STYLE + P1 + P2 + FOLDER);
+        KMLFeatureDiff diff = new KMLFeatureDiff(root, parse(STYLE + P1 + P2 + FOLDER));
+        assertTrue("Unchanged", diff.isEmpty());
+    }
+
+    @Test
+    public void testFeatureChanges() throws Exception
+    {
+        KMLRoot root = parse(STYLE + P1 + P2 + P3);
+        KMLAbstractContainer document = (KMLAbstractContainer) root.getFeature();
+        KMLPlacemark p1 = (KMLPlacemark) root.getItemByID("p1");
+        KMLPlacemark p2 = (KMLPlacemark) root.getItemByID("p2");
+        KMLAbstractObject p3 = (KMLAbstractObject) root.getItemByID("p3");
+
+        KMLRoot update = parse(STYLE + P4 + P1_RENAMED + P2_MOVED);
+        KMLAbstractFeature p4 = (KMLAbstractFeature) update.getItemByID("p4");
+        KMLFeatureDiff diff = new KMLFeatureDiff(root, update);
+        assertEquals("Changed", Arrays.asList(p1, p2), diff.getChangedFeatures());
+        assertEquals("Added", Arrays.asList(p4), diff.getAddedFeatures());
+        assertEquals("Removed", Arrays.asList(p3), diff.getRemovedFeatures());
+
+        diff.apply();
+        assertEquals("Features", Arrays.asList(p4, p1, p2), document.getFeatures());
+        assertSame("Added parent", document, p4.getParent());
+        assertSame("Added root", root, p4.getRoot());
+        assertSame("Added identifier", p4, root.getItemByID("p4"));
+        assertNull("Removed identifier", root.getItemByID("p3"));
+        assertEquals("Changed name", "Uno", p1.getName());
+        assertEquals("Changed geometry", 12, ((KMLLineString) p2.getGeometry()).getCoordinates().list.get(1)
+            .getLongitude().degrees, 0);
+        assertSame("Changed geometry root", root, p2.getGeometry().getRoot());
+    }
+
+    @Test
+    public void testPlacemarkRenderables() throws Exception
+    {
+        KMLRoot root = parse(STYLE + P1 + P2);
+        KMLPlacemark p1 = (KMLPlacemark) root.getItemByID("p1");
+        KMLPlacemark p2 = (KMLPlacemark) root.getItemByID("p2");
+        TestRenderable r1 = new TestRenderable();
+        TestRenderable r2 = new TestRenderable();
+        p1.renderables = new ArrayList<KMLRenderable>(Arrays.asList(r1));
+        p2.renderables = new ArrayList<KMLRenderable>(Arrays.asList(r2));
+
+        new KMLFeatureDiff(root, parse(STYLE + P1_RENAMED + P2_MOVED)).apply();
+
+        // The renamed placemark keeps its shape, which resolves its style again. The moved placemark is rebuilt.
+        assertEquals("Kept shape", Arrays.asList(r1), p1.renderables);
+        assertEquals("Style messages", Arrays.asList(KMLAbstractObject.MSG_STYLE_CHANGED), r1.messages);
+        assertNull("Rebuilt shape", p2.renderables);
+    }
+
+    @Test
+    public void testSharedStyleChange() throws Exception
+    {
+        KMLRoot root = parse(STYLE + P1 + FOLDER);
+        KMLPlacemark p1 = (KMLPlacemark) root.getItemByID("p1");
+        KMLPlacemark p3 = (KMLPlacemark) root.getItemByID("p3");
+        TestRenderable r1 = new TestRenderable();
+        TestRenderable r3 = new TestRenderable();
+        p1.renderables = new ArrayList<KMLRenderable>(Arrays.asList(r1));
+        p3.renderables = new ArrayList<KMLRenderable>(Arrays.asList(r3));
+
+        KMLFeatureDiff diff = new KMLFeatureDiff(root, parse(RESTYLED + P1 + FOLDER));
+        assertEquals("Changed", Arrays.asList(root.getFeature()), diff.getChangedFeatures());
+        diff.apply();
+
+        KMLStyle style = (KMLStyle) root.getItemByID("s");
+        assertEquals("Style color", "ff00ff00", style.getLineStyle().getColor());
+        assertSame("Style root", root, style.getRoot());
+        assertEquals("First placemark messages", 1, r1.messages.size());
+        assertEquals("Nested placemark messages", 1, r3.messages.size());
+    }
+
+    protected static KMLRoot parse(String content) throws Exception
+    {
+        String doc = "<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document id=\"d\">" + content
+            + "</Document></kml>";
+        KMLRoot root = new KMLRoot(WWIO.getInputStreamFromString(doc), KMLConstants.KML_MIME_TYPE);
+        return root.parse();
+    }
+
+    protected static class TestRenderable implements KMLRenderable
+    {
+        protected final List<String> messages = new ArrayList<String>();
+
+        public void preRender(KMLTraversalContext tc, DrawContext dc)
+        {
+        }
+
+        public void render(KMLTraversalContext tc, DrawContext dc)
+        {
+        }
+
+        public void onMessage(Message msg)
+        {
+            this.messages.add(msg.getName());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import com.sun.net.httpserver.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/** Tests KMLResourceLoader against a local HTTP server serving a hierarchy of network links. */
+@RunWith(JUnit4.class)
+public class KMLResourceLoaderTest
+{
+    protected static final int DEPTH = 2;
+    protected static final int FANOUT = 3;
+
+    protected HttpServer server;
+    protected String baseAddress;
+    protected final Map<String, Integer> requestCounts = new ConcurrentHashMap<String, Integer>();
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", new HttpHandler()
+        {
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                String name = exchange.getRequestURI().getPath().substring(1);
+                synchronized (requestCounts)
+                {
+                    Integer count = requestCounts.get(name);
+                    requestCounts.put(name, count != null ? count + 1 : 1);
+                }
+
+                byte[] content = makeDocument(name.substring(0, name.lastIndexOf('.'))).getBytes("UTF-8");
+                exchange.getResponseHeaders().set("Content-Type", KMLConstants.KML_MIME_TYPE);
+                exchange.sendResponseHeaders(200, content.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(content);
+                out.close();
+            }
+        });
+        this.server.start();
+
+        this.baseAddress = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/";
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.server.stop(0);
+        ((ExecutorService) this.server.getExecutor()).shutdown();
+    }
+
+    /** Tests that every link in the hierarchy is resolved and that each document is requested once. */
+    @Test
+    public void testLoadNetworkLinks() throws Exception
+    {
+        KMLResourceLoader loader = new KMLResourceLoader(4, 1000000, 1000000);
+        KMLRoot root = loader.requestDocument(this.baseAddress + "0.kml", true, 0).get();
+        int numLinks = loader.loadNetworkLinks(root, null);
+
+        // Three links at each of the two upper levels, and one link from each of the nine leaves to the shared
+        // document.
+        assertEquals("Links resolved", FANOUT + FANOUT * FANOUT + FANOUT * FANOUT, numLinks);
+        assertEquals("Documents requested", 1 + FANOUT + FANOUT * FANOUT + 1, this.requestCounts.size());
+        for (Map.Entry<String, Integer> entry : this.requestCounts.entrySet())
+        {
+            assertEquals("Requests for " + entry.getKey(), 1, (int) entry.getValue());
+        }
+
+        Set<KMLRoot> sharedRoots = new HashSet<KMLRoot>();
+        this.collectLinkedRoots(root, sharedRoots);
+        assertEquals("Shared document instances", 1, sharedRoots.size());
+
+        loader.dispose();
+    }
+
+    /** Tests that concurrent requests for one document share a single retrieval. */
+    @Test
+    public void testConcurrentRequests() throws Exception
+    {
+        KMLResourceLoader loader = new KMLResourceLoader(8, 1000000, 1000000);
+
+        List<Future<KMLRoot>> futures = new ArrayList<Future<KMLRoot>>();
+        for (int i = 0; i < 8; i++)
+        {
+            futures.add(loader.requestDocument(this.baseAddress + "shared.kml", true, 0));
+        }
+
+        KMLRoot first = futures.get(0).get();
+        for (Future<KMLRoot> future : futures)
+        {
+            assertSame("Document instance", first, future.get());
+        }
+        assertEquals("Requests", 1, (int) this.requestCounts.get("shared.kml"));
+        assertSame("Resource loader", loader, first.getResourceLoader());
+
+        loader.dispose();
+    }
+
+    protected void collectLinkedRoots(KMLRoot root, Set<KMLRoot> sharedRoots)
+    {
+        KMLAbstractContainer document = (KMLAbstractContainer) root.getFeature();
+        for (KMLAbstractFeature feature : document.getFeatures())
+        {
+            if (!(feature instanceof KMLNetworkLink))
+                continue;
+
+            KMLNetworkLink link = (KMLNetworkLink) feature;
+            KMLRoot linked = link.getNetworkResource();
+            assertNotNull("Unresolved link " + link.getLinkOrUrl().getHref(), linked);
+
+            if (link.getLinkOrUrl().getHref().equals("shared.kml"))
+                sharedRoots.add(linked);
+            else
+                this.collectLinkedRoots(linked, sharedRoots);
+        }
+    }
+
+    protected static String makeDocument(String name)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document><name>").append(name).append("</name>");
+        sb.append("<Placemark><Point><coordinates>10,20</coordinates></Point></Placemark>");
+
+        if (!name.equals("shared"))
+        {
+            if (name.split("_").length <= DEPTH)
+            {
+                for (int i = 0; i < FANOUT; i++)
+                {
+                    sb.append("<NetworkLink><Link><href>").append(name).append('_').append(i).append(
+                        ".kml</href></Link></NetworkLink>");
+                }
+            }
+            else
+            {
+                sb.append("<NetworkLink><Link><href>shared.kml</href></Link></NetworkLink>");
+            }
+        }
+
+        sb.append("</Document></kml>");
+        return sb.toString();
+    }
+}
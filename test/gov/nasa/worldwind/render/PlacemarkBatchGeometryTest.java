@@ -0,0 +1,105 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.terrain.ZeroElevationModel;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PlacemarkBatchGeometryTest
+{
+    private Globe globe;
+    private PlacemarkBatchGeometry geometry;
+
+    @Before
+    public void setUp()
+    {
+        this.globe = new Earth();
+        this.globe.setElevationModel(new ZeroElevationModel());
+        this.geometry = new PlacemarkBatchGeometry();
+        this.geometry.setAltitudeMode(WorldWind.ABSOLUTE);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.globe = null;
+        this.geometry = null;
+    }
+
+    @Test
+    public void testClearReAddModifyUpdate()
+    {
+        // Placemarks added and cleared without an update leave dirty flags on the IDs that are reused.
+        this.geometry.addPlacemark(10, 20, 0, 0, "a");
+        this.geometry.addPlacemark(11, 21, 0, 0, "b");
+        this.geometry.addPlacemark(12, 22, 0, 0, "c");
+        this.geometry.clear();
+
+        assertEquals("Placemark count after clear", 0, this.geometry.getPlacemarkCount());
+        assertEquals("Dirty count after clear", 0, this.geometry.getDirtyPlacemarkCount());
+        assertFalse("Cleared ID", this.geometry.containsPlacemark(2));
+
+        int first = this.geometry.addPlacemark(30, 40, 100, 0, "d");
+        int second = this.geometry.addPlacemark(31, 41, 200, 1, "e");
+        assertEquals("Dirty count after re-adding", 2, this.geometry.getDirtyPlacemarkCount());
+
+        this.geometry.update(this.globe, 1);
+        assertPoint(first, 30, 40, 100);
+        assertPoint(second, 31, 41, 200);
+        assertEquals("Dirty count after update", 0, this.geometry.getDirtyPlacemarkCount());
+
+        this.geometry.setPosition(second, 32, 42, 300);
+        assertEquals("Dirty count after modifying", 1, this.geometry.getDirtyPlacemarkCount());
+
+        this.geometry.update(this.globe, 1);
+        assertPoint(first, 30, 40, 100);
+        assertPoint(second, 32, 42, 300);
+        assertEquals("Dirty count after second update", 0, this.geometry.getDirtyPlacemarkCount());
+    }
+
+    private void assertPoint(int id, double latitude, double longitude, double altitude)
+    {
+        Vec4 expected = this.globe.computePointFromPosition(Angle.fromDegrees(latitude), Angle.fromDegrees(longitude),
+            altitude);
+        double[] actual = new double[3];
+        this.geometry.getPoint(id, actual);
+
+        assertEquals("Point x of " + id, expected.x, actual[0], 1e-6);
+        assertEquals("Point y of " + id, expected.y, actual[1], 1e-6);
+        assertEquals("Point z of " + id, expected.z, actual[2], 1e-6);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.render;
+
+import gov.nasa.worldwind.geom.Sector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SurfaceObjectDirtyRegionTrackerTest
+{
+    private static final Sector TILE_A = Sector.fromDegrees(0, 10, 0, 10);
+    private static final Sector TILE_B = Sector.fromDegrees(20, 30, 20, 30);
+    private static final Sector TILE_C = Sector.fromDegrees(-40, -30, 100, 110);
+
+    @Test
+    public void testAddedObjectsAreDirty()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        tracker.update(null, Arrays.asList(new TestObject(1, 1, 2, 2)));
+
+        assertEquals(1, tracker.getChangedObjectCount());
+        assertTrue(tracker.isDirty(TILE_A, 0));
+        assertFalse(tracker.isDirty(TILE_B, 0));
+        assertFalse(tracker.isDirty(TILE_A, tracker.getGeneration()));
+    }
+
+    @Test
+    public void testUnchangedObjectsAreNotDirty()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        List<TestObject> objects = Arrays.asList(new TestObject(1, 1, 2, 2), new TestObject(21, 21, 2, 2));
+        tracker.update(null, objects);
+        long generation = tracker.getGeneration();
+
+        tracker.update(null, objects);
+
+        assertEquals(0, tracker.getChangedObjectCount());
+        assertEquals(generation, tracker.getGeneration());
+        assertFalse(tracker.isDirty(TILE_A, generation));
+        assertFalse(tracker.isDirty(TILE_B, generation));
+    }
+
+    @Test
+    public void testMovedObjectDirtiesOldAndNewSectors()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        TestObject moved = new TestObject(1, 1, 2, 2);
+        List<TestObject> objects = Arrays.asList(moved, new TestObject(-35, 105, 1, 1));
+        tracker.update(null, objects);
+        long generation = tracker.getGeneration();
+
+        moved.setSector(Sector.fromDegrees(21, 23, 21, 23));
+        tracker.update(null, objects);
+
+        assertEquals(1, tracker.getChangedObjectCount());
+        assertTrue(tracker.isDirty(TILE_A, generation));
+        assertTrue(tracker.isDirty(TILE_B, generation));
+        assertFalse(tracker.isDirty(TILE_C, generation));
+        assertEquals(Arrays.<SurfaceRenderable>asList(moved), tracker.getIntersectingObjects(TILE_B));
+        assertTrue(tracker.getIntersectingObjects(TILE_A).isEmpty());
+    }
+
+    @Test
+    public void testRemovedObjectIsDirty()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        TestObject removed = new TestObject(1, 1, 2, 2);
+        TestObject kept = new TestObject(21, 21, 2, 2);
+        tracker.update(null, Arrays.asList(removed, kept));
+        long generation = tracker.getGeneration();
+
+        tracker.update(null, Arrays.asList(kept));
+
+        assertEquals(1, tracker.getObjectCount());
+        assertTrue(tracker.isDirty(TILE_A, generation));
+        assertFalse(tracker.isDirty(TILE_B, generation));
+        assertTrue(tracker.getIntersectingObjects(TILE_A).isEmpty());
+    }
+
+    @Test
+    public void testReorderedObjectsAreDirty()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        TestObject a = new TestObject(1, 1, 2, 2);
+        TestObject b = new TestObject(2, 2, 2, 2);
+        TestObject c = new TestObject(21, 21, 2, 2);
+        tracker.update(null, Arrays.asList(a, b, c));
+        long generation = tracker.getGeneration();
+
+        tracker.update(null, Arrays.asList(b, a, c));
+
+        assertTrue(tracker.isDirty(TILE_A, generation));
+        assertFalse(tracker.isDirty(TILE_B, generation));
+        assertEquals(Arrays.<SurfaceRenderable>asList(b, a), tracker.getIntersectingObjects(TILE_A));
+    }
+
+    @Test
+    public void testIntersectingObjectsInDrawOrder()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker();
+        List<TestObject> objects = new ArrayList<TestObject>();
+        for (int i = 0; i < 100; i++)
+        {
+            objects.add(new TestObject(i % 10, (i * 7) % 10, 0.5, 0.5));
+        }
+        TestObject large = new TestObject(-80, -170, 160, 340);
+        objects.add(50, large);
+        objects.add(new TestObject(50, 50, 1, 1));
+        tracker.update(null, objects);
+
+        List<SurfaceRenderable> expected = new ArrayList<SurfaceRenderable>(objects.subList(0, 101));
+        assertEquals(expected, tracker.getIntersectingObjects(TILE_A));
+        assertEquals(Arrays.<SurfaceRenderable>asList(large), tracker.getIntersectingObjects(TILE_C));
+    }
+
+    @Test
+    public void testDiscardedHistoryIsDirty()
+    {
+        SurfaceObjectDirtyRegionTracker tracker = new SurfaceObjectDirtyRegionTracker(4, 256, 2);
+        TestObject changing = new TestObject(21, 21, 2, 2);
+        List<TestObject> objects = Arrays.asList(new TestObject(1, 1, 2, 2), changing);
+        tracker.update(null, objects);
+        long generation = tracker.getGeneration();
+
+        for (int i = 0; i < 3; i++)
+        {
+            changing.touch();
+            tracker.update(null, objects);
+        }
+
+        // Only the most recent changes to the object near TILE_B are retained, so TILE_A can no longer be proven clean.
+        assertTrue(tracker.isDirty(TILE_A, generation));
+        assertFalse(tracker.isDirty(TILE_A, tracker.getGeneration() - 1));
+    }
+
+    private static class TestObject implements SurfaceRenderable
+    {
+        private Sector sector;
+        private int modificationCount;
+
+        public TestObject(double lat, double lon, double dLat, double dLon)
+        {
+            this.sector = Sector.fromDegrees(lat, lat + dLat, lon, lon + dLon);
+        }
+
+        public void setSector(Sector sector)
+        {
+            this.sector = sector;
+            this.touch();
+        }
+
+        public void touch()
+        {
+            this.modificationCount++;
+        }
+
+        public List<Sector> getSectors(DrawContext dc)
+        {
+            return Arrays.asList(this.sector);
+        }
+
+        public Object getStateKey(DrawContext dc)
+        {
+            return Arrays.asList(System.identityHashCode(this), this.modificationCount);
+        }
+
+        public void render(DrawContext dc)
+        {
+        }
+    }
+}
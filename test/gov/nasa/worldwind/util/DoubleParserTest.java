@@ -0,0 +1,221 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class DoubleParserTest
+{
+    /** Test mantissas on either side of 2^53, the largest mantissa the fast path computes exactly. */
+    @Test
+    public void testMantissaBoundary()
+    {
+        assertParsesLikeDouble("9007199254740991");
+        assertParsesLikeDouble("9007199254740992");
+        assertParsesLikeDouble("9007199254740993");
+        assertParsesLikeDouble("9007199254740995");
+        assertParsesLikeDouble("9007199254740993e-5");
+        assertParsesLikeDouble("900719925474099.3");
+        assertParsesLikeDouble("-9007199254740993");
+    }
+
+    /** Test decimal exponents on either side of +/-22, the largest exactly representable power of ten. */
+    @Test
+    public void testExponentBoundary()
+    {
+        assertParsesLikeDouble("1e22");
+        assertParsesLikeDouble("1e23");
+        assertParsesLikeDouble("1e-22");
+        assertParsesLikeDouble("1e-23");
+        assertParsesLikeDouble("123456789e22");
+        assertParsesLikeDouble("123456789e-22");
+        assertParsesLikeDouble("1.5e-23");
+        assertParsesLikeDouble("0.0000000000000000000001");
+        assertParsesLikeDouble("0.00000000000000000000001");
+        assertParsesLikeDouble("1e308");
+        assertParsesLikeDouble("1e309");
+        assertParsesLikeDouble("1e99999999999");
+        assertParsesLikeDouble("1e-99999999999");
+    }
+
+    /** Test numbers with more significant digits than the fast path accumulates. */
+    @Test
+    public void testManySignificantDigits()
+    {
+        assertParsesLikeDouble("123456789012345678");
+        assertParsesLikeDouble("1234567890123456789");
+        assertParsesLikeDouble("12345678901234567890");
+        assertParsesLikeDouble("1.234567890123456789");
+        assertParsesLikeDouble("0.1234567890123456789012345");
+        assertParsesLikeDouble("-122.08405750000000000001");
+        assertParsesLikeDouble("3.141592653589793238462643383279");
+        assertParsesLikeDouble("1234567890123456789e-10");
+    }
+
+    /** Test leading and trailing zeros, signs, exponent markers and omitted integer or fraction digits. */
+    @Test
+    public void testForms()
+    {
+        assertParsesLikeDouble("0");
+        assertParsesLikeDouble("00000000000000000000000000001");
+        assertParsesLikeDouble("0.00000000000000000000000000001");
+        assertParsesLikeDouble("1.00000000000000000000000000000");
+        assertParsesLikeDouble("+1.5");
+        assertParsesLikeDouble("-1.5");
+        assertParsesLikeDouble("2.5e3");
+        assertParsesLikeDouble("2.5E3");
+        assertParsesLikeDouble("2.5e+3");
+        assertParsesLikeDouble("2.5E-3");
+        assertParsesLikeDouble(".5");
+        assertParsesLikeDouble("-.5");
+        assertParsesLikeDouble("5.");
+        assertParsesLikeDouble("5.e1");
+        assertParsesLikeDouble("-122.0840575");
+        assertParsesLikeDouble("37.4220033612141");
+    }
+
+    /** Test subnormal values, signed zeros and values that underflow to zero. */
+    @Test
+    public void testSubnormalsAndZeros()
+    {
+        assertParsesLikeDouble("4.9e-324");
+        assertParsesLikeDouble("2.2250738585072014e-308");
+        assertParsesLikeDouble("2.225073858507201e-308");
+        assertParsesLikeDouble("1e-400");
+        assertParsesLikeDouble("0.0");
+        assertParsesLikeDouble("-0.0");
+        assertParsesLikeDouble("-0");
+        assertParsesLikeDouble("+0.0");
+        assertParsesLikeDouble("0e999999");
+        assertParsesLikeDouble("-0e-5");
+    }
+
+    /** Test input the fast path does not accept, which must be handled exactly as Double.parseDouble does. */
+    @Test
+    public void testFallbackForms()
+    {
+        assertParsesLikeDouble("NaN");
+        assertParsesLikeDouble("-Infinity");
+        assertParsesLikeDouble(" 1.5 ");
+        assertParsesLikeDouble("1.5d");
+        assertParsesLikeDouble("1.5f");
+        assertParsesLikeDouble("0x1.8p1");
+    }
+
+    /** Test that malformed input throws NumberFormatException from every variant. */
+    @Test
+    public void testMalformed()
+    {
+        String[] malformed = {"", "-", "+", ".", "-.", "e5", ".e5", "1e", "1e+", "1E-", "1.5.5", "1-5", "--1", "1x",
+            "abc", "1,5"};
+        for (String s : malformed)
+        {
+            assertMalformed(s);
+        }
+    }
+
+    /** Test that only the given range of the input is parsed. */
+    @Test
+    public void testRange()
+    {
+        String s = "12,-3.5e2,7";
+        assertEquals(-350d, DoubleParser.parseDouble(s.toCharArray(), 3, 6), 0);
+        assertEquals(-350d, DoubleParser.parseDouble(s, 3, 9), 0);
+        assertEquals(-350d, DoubleParser.parseDouble(s.getBytes(StandardCharsets.ISO_8859_1), 3, 6), 0);
+    }
+
+    private static void assertParsesLikeDouble(String s)
+    {
+        long expected = Double.doubleToRawLongBits(Double.parseDouble(s));
+
+        // Embed the number in other characters to verify that the variants honor the range.
+        String padded = "9" + s + "9";
+        char[] chars = padded.toCharArray();
+        byte[] bytes = padded.getBytes(StandardCharsets.ISO_8859_1);
+        int length = s.length();
+
+        assertEquals("char[] " + s, expected, Double.doubleToRawLongBits(DoubleParser.parseDouble(chars, 1, length)));
+        assertEquals("CharSequence " + s, expected,
+            Double.doubleToRawLongBits(DoubleParser.parseDouble(padded, 1, length + 1)));
+        assertEquals("byte[] " + s, expected, Double.doubleToRawLongBits(DoubleParser.parseDouble(bytes, 1, length)));
+    }
+
+    private static void assertMalformed(String s)
+    {
+        try
+        {
+            Double.parseDouble(s);
+            fail("Double.parseDouble accepted " + s);
+        }
+        catch (NumberFormatException e)
+        {
+            // Expected.
+        }
+
+        String padded = "9" + s + "9";
+        int length = s.length();
+
+        try
+        {
+            DoubleParser.parseDouble(padded.toCharArray(), 1, length);
+            fail("char[] accepted " + s);
+        }
+        catch (NumberFormatException e)
+        {
+            // Expected.
+        }
+
+        try
+        {
+            DoubleParser.parseDouble(padded, 1, length + 1);
+            fail("CharSequence accepted " + s);
+        }
+        catch (NumberFormatException e)
+        {
+            // Expected.
+        }
+
+        try
+        {
+            DoubleParser.parseDouble(padded.getBytes(StandardCharsets.ISO_8859_1), 1, length);
+            fail("byte[] accepted " + s);
+        }
+        catch (NumberFormatException e)
+        {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.layers.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.management.*;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PerformanceMetricsTest
+{
+    /** Tests that nothing is recorded while the metrics are disabled. */
+    @Test
+    public void testDisabledRecordsNothing()
+    {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        assertFalse("Metrics enabled by default", metrics.isEnabled());
+
+        metrics.record("a", 1000);
+        metrics.increment("b");
+        metrics.recordLayerTime(makeLayer("L"), PerformanceMetrics.RENDER, 1000);
+        metrics.frameCompleted(1000);
+
+        assertTrue("Histogram created while disabled", metrics.getHistograms().isEmpty());
+        assertEquals("Counter changed while disabled", 0, metrics.getCounter("b"));
+    }
+
+    /** Tests that histograms and counters accumulate while the metrics are enabled, and that reset clears them. */
+    @Test
+    public void testHistogramsAndCounters()
+    {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.setEnabled(true);
+
+        metrics.record("a", 1000);
+        metrics.record("a", 3000);
+        metrics.add("b", 5);
+        metrics.increment("b");
+
+        assertEquals("Histogram count incorrect", 2, metrics.getHistogram("a").getCount());
+        assertEquals("Histogram mean incorrect", 2.0, metrics.getHistogramMeans().get("a"), 1e-9);
+        assertEquals("Counter incorrect", 6, metrics.getCounter("b"));
+        assertEquals("Counter snapshot incorrect", Long.valueOf(6), metrics.getCounters().get("b"));
+        assertTrue("Summary missing", metrics.getHistogramSummaries().containsKey("a"));
+
+        metrics.reset();
+        assertEquals("Histogram not reset", 0, metrics.getHistogram("a").getCount());
+        assertEquals("Counter not reset", 0, metrics.getCounter("b"));
+    }
+
+    /** Tests that layer timings are recorded in one histogram per layer and phase. */
+    @Test
+    public void testLayerTimes()
+    {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.setEnabled(true);
+        Layer layer = makeLayer("Shapes");
+
+        metrics.recordLayerTime(layer, PerformanceMetrics.PRE_RENDER, 1000);
+        metrics.recordLayerTime(layer, PerformanceMetrics.RENDER, 2000);
+        metrics.recordLayerTime(layer, PerformanceMetrics.RENDER, 4000);
+
+        assertEquals("Pre-render count incorrect", 1, metrics.getHistogram("layer.Shapes.preRender").getCount());
+        assertEquals("Render count incorrect", 2, metrics.getHistogram("layer.Shapes.render").getCount());
+        assertEquals("Pick count incorrect", 0, metrics.getHistogram("layer.Shapes.pick").getCount());
+    }
+
+    /** Tests that gauges are read on demand and that a failing gauge does not hide the others. */
+    @Test
+    public void testGauges()
+    {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        final long[] value = {3};
+        metrics.addGauge("depth", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                return value[0];
+            }
+        });
+        metrics.addGauge("broken", new PerformanceMetrics.Gauge()
+        {
+            public long getValue()
+            {
+                throw new IllegalStateException();
+            }
+        });
+
+        assertEquals("Gauge incorrect", Long.valueOf(3), metrics.getGauges().get("depth"));
+        value[0] = 7;
+        assertEquals("Gauge not read on demand", Long.valueOf(7), metrics.getGauges().get("depth"));
+        assertFalse("Failing gauge reported", metrics.getGauges().containsKey("broken"));
+
+        metrics.removeGauge("depth");
+        assertFalse("Gauge not removed", metrics.getGauges().containsKey("depth"));
+    }
+
+    /** Tests that completed frames are published to the sinks, and that a failing sink does not stop the others. */
+    @Test
+    public void testSinks()
+    {
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.setEnabled(true);
+        metrics.setPublishInterval(0);
+
+        final List<PerformanceMetrics> published = new ArrayList<PerformanceMetrics>();
+        metrics.addSink(new PerformanceMetricsSink()
+        {
+            public void publish(PerformanceMetrics metrics)
+            {
+                throw new IllegalStateException();
+            }
+        });
+        PerformanceMetricsSink sink = new PerformanceMetricsSink()
+        {
+            public void publish(PerformanceMetrics metrics)
+            {
+                published.add(metrics);
+            }
+        };
+        metrics.addSink(sink);
+
+        metrics.frameCompleted(1000);
+        metrics.frameCompleted(2000);
+        assertEquals("Publication count incorrect", 2, published.size());
+        assertSame("Published metrics incorrect", metrics, published.get(0));
+        assertEquals("Frame times not recorded", 2, metrics.getHistogram(PerformanceMetrics.FRAME_TIME).getCount());
+
+        metrics.setPublishInterval(60000);
+        metrics.frameCompleted(3000);
+        assertEquals("Published within the publication interval", 2, published.size());
+
+        metrics.removeSink(sink);
+        metrics.publish();
+        assertEquals("Published to a removed sink", 2, published.size());
+    }
+
+    /** Tests that the metrics can be read and controlled through JMX. */
+    @Test
+    public void testMBean() throws Exception
+    {
+        String objectName = "gov.nasa.worldwind:type=PerformanceMetricsTest";
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        assertTrue("MBean not registered", metrics.registerMBean(objectName));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(objectName);
+        try
+        {
+            server.setAttribute(name, new Attribute("Enabled", true));
+            assertTrue("Enabled attribute not applied", metrics.isEnabled());
+
+            metrics.add("requests", 4);
+            TabularData counters = (TabularData) server.getAttribute(name, "Counters");
+            assertEquals("Counter not exported", 4L, counters.get(new Object[] {"requests"}).get("value"));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals("Reset operation not applied", 0, metrics.getCounter("requests"));
+        }
+        finally
+        {
+            server.unregisterMBean(name);
+        }
+    }
+
+    protected static Layer makeLayer(String name)
+    {
+        Layer layer = new RenderableLayer();
+        layer.setName(name);
+        return layer;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Sector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PointClusterIndexTest
+{
+    /** Tests that every level accounts for every item. */
+    @Test
+    public void testCountsAtEveryLevel()
+    {
+        PointClusterIndex<Integer> index = makeIndex(5000, 1);
+
+        for (int level = 0; level < index.getNumLevels(); level++)
+        {
+            List<PointClusterIndex.Cluster<Integer>> clusters = query(index, Sector.FULL_SPHERE, level);
+            assertEquals("Item count incorrect at level " + level, 5000, sumCounts(clusters));
+            assertEquals("Duplicate clusters at level " + level, clusters.size(), mapBySector(clusters).size());
+        }
+    }
+
+    /** Tests that sector queries return exactly the clusters whose cells intersect the sector. */
+    @Test
+    public void testSectorQuery()
+    {
+        PointClusterIndex<Integer> index = makeIndex(5000, 2);
+        Sector sector = Sector.fromDegrees(-12.3, 40.7, 20.1, 95.9);
+
+        for (int level = 0; level < index.getNumLevels(); level++)
+        {
+            Set<Sector> expected = new HashSet<Sector>();
+            for (PointClusterIndex.Cluster<Integer> cluster : query(index, Sector.FULL_SPHERE, level))
+            {
+                if (cluster.getSector().intersects(sector))
+                    expected.add(cluster.getSector());
+            }
+
+            Set<Sector> actual = mapBySector(query(index, sector, level)).keySet();
+            assertEquals("Sector query incorrect at level " + level, expected, actual);
+        }
+    }
+
+    /** Tests that a cluster's items and representative lie within the cluster's cell. */
+    @Test
+    public void testClusterItems()
+    {
+        Map<Integer, double[]> locations = new HashMap<Integer, double[]>();
+        PointClusterIndex<Integer> index = makeIndex(2000, 3, locations);
+
+        for (int level = 0; level < index.getNumLevels(); level += 3)
+        {
+            for (PointClusterIndex.Cluster<Integer> cluster : query(index, Sector.FULL_SPHERE, level))
+            {
+                Collection<Integer> items = index.getItems(cluster, new ArrayList<Integer>());
+                assertEquals("Cluster item count incorrect ", cluster.getCount(), items.size());
+                assertTrue("Representative not in cluster ", items.contains(cluster.getRepresentative()));
+
+                double latSum = 0;
+                for (Integer item : items)
+                {
+                    latSum += locations.get(item)[0];
+                }
+                assertEquals("Cluster latitude incorrect ", latSum / items.size(), cluster.getLatitude(), 1e-9);
+            }
+        }
+    }
+
+    /** Tests that moving and removing items leaves the index as if it had been built from the final state. */
+    @Test
+    public void testIncrementalUpdate()
+    {
+        Map<Integer, double[]> locations = new HashMap<Integer, double[]>();
+        PointClusterIndex<Integer> index = makeIndex(3000, 4, locations);
+
+        Random random = new Random(5);
+        for (int i = 0; i < 3000; i += 3)
+        {
+            // Move some items a short distance and others anywhere.
+            double[] location = locations.get(i);
+            double[] newLocation = i % 2 == 0
+                ? new double[] {Math.min(90, location[0] + 0.01), Math.min(180, location[1] + 0.01)}
+                : randomLocation(random);
+            locations.put(i, newLocation);
+            index.move(i, newLocation[0], newLocation[1]);
+        }
+
+        for (int i = 1; i < 3000; i += 5)
+        {
+            locations.remove(i);
+            index.remove(i);
+        }
+
+        PointClusterIndex<Integer> rebuilt = new PointClusterIndex<Integer>();
+        for (Map.Entry<Integer, double[]> entry : locations.entrySet())
+        {
+            rebuilt.add(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+
+        assertEquals("Item count incorrect ", rebuilt.size(), index.size());
+        assertSameClusters(rebuilt, index);
+    }
+
+    /** Tests that the clusters do not depend on how finely the index subdivides. */
+    @Test
+    public void testBucketSize()
+    {
+        PointClusterIndex<Integer> coarse = new PointClusterIndex<Integer>(12, 1000);
+        PointClusterIndex<Integer> fine = new PointClusterIndex<Integer>(12, 1);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 3000; i++)
+        {
+            double[] location = randomLocation(random);
+            coarse.add(i, location[0], location[1]);
+            fine.add(i, location[0], location[1]);
+        }
+
+        assertSameClusters(coarse, fine);
+    }
+
+    /** Tests incremental removal of all items from the index. */
+    @Test
+    public void testFullRemoval()
+    {
+        PointClusterIndex<Integer> index = makeIndex(1000, 6);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            index.remove(i);
+            assertFalse("Item not removed ", index.contains(i));
+        }
+
+        assertEquals("Item count incorrect ", 0, index.size());
+        for (int level = 0; level < index.getNumLevels(); level++)
+        {
+            assertEquals("Clusters remain at level " + level, 0, query(index, Sector.FULL_SPHERE, level).size());
+        }
+    }
+
+    /** Tests the choice of level for a cluster separation. */
+    @Test
+    public void testLevelForSeparation()
+    {
+        PointClusterIndex<Integer> index = new PointClusterIndex<Integer>(10, 1);
+
+        assertEquals(0, index.getLevelForSeparation(360));
+        assertEquals(0, index.getLevelForSeparation(180));
+        assertEquals(1, index.getLevelForSeparation(90));
+        assertEquals(2, index.getLevelForSeparation(60));
+        assertEquals(9, index.getLevelForSeparation(1e-6));
+
+        for (int level = 0; level < index.getNumLevels(); level++)
+        {
+            assertEquals(level, index.getLevelForSeparation(PointClusterIndex.computeCellSize(level)));
+        }
+    }
+
+    protected static void assertSameClusters(PointClusterIndex<Integer> expectedIndex,
+        PointClusterIndex<Integer> actualIndex)
+    {
+        for (int level = 0; level < expectedIndex.getNumLevels(); level++)
+        {
+            Map<Sector, PointClusterIndex.Cluster<Integer>> expected = mapBySector(
+                query(expectedIndex, Sector.FULL_SPHERE, level));
+            Map<Sector, PointClusterIndex.Cluster<Integer>> actual = mapBySector(
+                query(actualIndex, Sector.FULL_SPHERE, level));
+            assertEquals("Cluster cells incorrect at level " + level, expected.keySet(), actual.keySet());
+
+            for (Map.Entry<Sector, PointClusterIndex.Cluster<Integer>> entry : expected.entrySet())
+            {
+                PointClusterIndex.Cluster<Integer> a = actual.get(entry.getKey());
+                assertEquals("Cluster count incorrect ", entry.getValue().getCount(), a.getCount());
+                assertEquals("Cluster latitude incorrect ", entry.getValue().getLatitude(), a.getLatitude(), 1e-6);
+                assertEquals("Cluster longitude incorrect ", entry.getValue().getLongitude(), a.getLongitude(),
+                    1e-6);
+            }
+        }
+    }
+
+    protected static PointClusterIndex<Integer> makeIndex(int numItems, long seed)
+    {
+        return makeIndex(numItems, seed, new HashMap<Integer, double[]>());
+    }
+
+    protected static PointClusterIndex<Integer> makeIndex(int numItems, long seed, Map<Integer, double[]> locations)
+    {
+        PointClusterIndex<Integer> index = new PointClusterIndex<Integer>();
+        Random random = new Random(seed);
+
+        for (int i = 0; i < numItems; i++)
+        {
+            double[] location = randomLocation(random);
+            locations.put(i, location);
+            index.add(i, location[0], location[1]);
+        }
+
+        return index;
+    }
+
+    protected static double[] randomLocation(Random random)
+    {
+        // Concentrate half the items in a small region so that the finer levels hold multi-item clusters.
+        if (random.nextBoolean())
+            return new double[] {30 + random.nextDouble() * 0.1, 60 + random.nextDouble() * 0.1};
+        else
+            return new double[] {180 * random.nextDouble() - 90, 360 * random.nextDouble() - 180};
+    }
+
+    protected static List<PointClusterIndex.Cluster<Integer>> query(PointClusterIndex<Integer> index, Sector sector,
+        int level)
+    {
+        List<PointClusterIndex.Cluster<Integer>> clusters = new ArrayList<PointClusterIndex.Cluster<Integer>>();
+        index.getClusters(sector, level, clusters);
+        return clusters;
+    }
+
+    protected static int sumCounts(Collection<PointClusterIndex.Cluster<Integer>> clusters)
+    {
+        int count = 0;
+        for (PointClusterIndex.Cluster<Integer> cluster : clusters)
+        {
+            count += cluster.getCount();
+        }
+
+        return count;
+    }
+
+    protected static Map<Sector, PointClusterIndex.Cluster<Integer>> mapBySector(
+        Collection<PointClusterIndex.Cluster<Integer>> clusters)
+    {
+        Map<Sector, PointClusterIndex.Cluster<Integer>> map = new HashMap<Sector, PointClusterIndex.Cluster<Integer>>();
+        for (PointClusterIndex.Cluster<Integer> cluster : clusters)
+        {
+            map.put(cluster.getSector(), cluster);
+        }
+
+        return map;
+    }
+}
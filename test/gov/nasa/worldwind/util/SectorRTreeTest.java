@@ -0,0 +1,108 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Sector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SectorRTreeTest
+{
+    /** Tests that queries report exactly the sectors that Sector.intersects reports, for several node capacities. */
+    @Test
+    public void testQueryMatchesIntersects()
+    {
+        Random random = new Random(1);
+        List<Sector> sectors = new ArrayList<Sector>();
+        for (int i = 0; i < 5000; i++)
+        {
+            // Leave some entries null, and include degenerate sectors and sectors sharing edges with the queries.
+            if (i % 97 == 0)
+                sectors.add(null);
+            else if (i % 101 == 0)
+                sectors.add(Sector.fromDegrees(10, 10, 20, 20));
+            else
+                sectors.add(randomSector(random));
+        }
+
+        for (int capacity : new int[] {2, 7, SectorRTree.DEFAULT_NODE_CAPACITY})
+        {
+            SectorRTree tree = new SectorRTree(sectors, capacity);
+            assertEquals("Size incorrect", sectors.size() - 52, tree.size());
+
+            for (int q = 0; q < 200; q++)
+            {
+                Sector query = q == 0 ? Sector.fromDegrees(0, 10, 0, 20) : randomSector(random);
+
+                BitSet expected = new BitSet();
+                for (int i = 0; i < sectors.size(); i++)
+                {
+                    if (sectors.get(i) != null && query.intersects(sectors.get(i)))
+                        expected.set(i);
+                }
+
+                BitSet actual = new BitSet();
+                int count = tree.query(query, actual);
+                assertEquals("Query result incorrect for " + query, expected, actual);
+                assertEquals("Query count incorrect for " + query, expected.cardinality(), count);
+            }
+        }
+    }
+
+    /** Tests that an empty tree and a tree of one sector answer queries. */
+    @Test
+    public void testSmallTrees()
+    {
+        BitSet result = new BitSet();
+
+        SectorRTree empty = new SectorRTree(Arrays.asList((Sector) null));
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.query(Sector.FULL_SPHERE, result));
+        assertTrue(result.isEmpty());
+
+        SectorRTree single = new SectorRTree(Arrays.asList(null, Sector.fromDegrees(0, 1, 0, 1)));
+        assertEquals(1, single.size());
+        assertEquals(0, single.query(Sector.fromDegrees(2, 3, 2, 3), result));
+        assertEquals(1, single.query(Sector.FULL_SPHERE, result));
+        assertTrue(result.get(1));
+    }
+
+    protected static Sector randomSector(Random random)
+    {
+        double lat = -90 + 170 * random.nextDouble();
+        double lon = -180 + 340 * random.nextDouble();
+        return Sector.fromDegrees(lat, lat + 10 * random.nextDouble(), lon, lon + 20 * random.nextDouble());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ *
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ *
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util.xml;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BinaryXMLStreamReaderTest
+{
+    protected static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<kml xmlns=\"http://www.opengis.net/kml/2.2\">\n"
+        + "  <Document id=\"doc\">\n"
+        + "    <name>Rivers &amp; Lakes</name>\n"
+        + "    <Placemark id=\"p1\" targetId=\"\">\n"
+        + "      <description><![CDATA[<b>Bold</b> été]]></description>\n"
+        + "      <Point><coordinates>-122.08,37.42,0</coordinates></Point>\n"
+        + "    </Placemark>\n"
+        + "  </Document>\n"
+        + "</kml>\n";
+
+    /** Tests that a recorded document replays the same elements, attributes and text as the XML it was read from. */
+    @Test
+    public void testRecordingMatchesSource() throws Exception
+    {
+        File file = File.createTempFile("BinaryXMLStreamReaderTest", ".wwbx");
+        file.deleteOnExit();
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        String expected = describe(factory.createXMLEventReader(new StringReader(DOCUMENT)));
+
+        XMLEventReader recorder = new RecordingXMLEventReader(
+            factory.createXMLEventReader(new StringReader(DOCUMENT)), file, "doc.kml", 1234L);
+        assertEquals("Recording reader altered events", expected, describe(recorder));
+        recorder.close();
+
+        BinaryXMLStreamReader reader = new BinaryXMLStreamReader(map(file));
+        assertEquals("Key incorrect", "doc.kml", reader.getKey());
+        assertEquals("Modification time incorrect", 1234L, reader.getLastModified());
+        assertEquals("Replayed events incorrect", expected, describe(new CursorXMLEventReader(reader)));
+    }
+
+    /** Tests that a buffer that does not hold a recording is rejected. */
+    @Test(expected = XMLStreamException.class)
+    public void testUnrecognizedFormat() throws Exception
+    {
+        new BinaryXMLStreamReader(ByteBuffer.wrap(DOCUMENT.getBytes("UTF-8")));
+    }
+
+    /**
+     * Describes the elements, attributes and non-whitespace text reported by a reader. Adjacent text events are joined,
+     * since readers may split text differently.
+     */
+    protected static String describe(XMLEventReader reader) throws XMLStreamException
+    {
+        StringBuilder sb = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        while (reader.hasNext())
+        {
+            XMLEvent event = reader.nextEvent();
+            if (event.isCharacters())
+            {
+                text.append(event.asCharacters().getData());
+                continue;
+            }
+
+            if (text.toString().trim().length() > 0)
+                sb.append('[').append(text.toString().trim()).append(']');
+            text.setLength(0);
+
+            if (event.isStartElement())
+            {
+                StartElement element = event.asStartElement();
+                sb.append('<').append(element.getName());
+                for (Iterator<?> iter = element.getAttributes(); iter.hasNext(); )
+                {
+                    Attribute attribute = (Attribute) iter.next();
+                    sb.append(' ').append(attribute.getName()).append("=\"").append(attribute.getValue()).append('"');
+                }
+                sb.append('>');
+            }
+            else if (event.isEndElement())
+            {
+                sb.append("</").append(event.asEndElement().getName()).append('>');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    protected static ByteBuffer map(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+}